@@ -1188,6 +1188,17 @@ public interface APIProvider extends APIManager {
      */
     String addAPIRevision(APIRevision apiRevision, String organization) throws APIManagementException;
 
+    /**
+     * Get the status of the gateway artifact build of an API or API Product revision. The artifact of a revision is
+     * built in the background after the revision is added.
+     *
+     * @param revisionUUID API Revision UUID
+     * @return QUEUED, EXPORTING, STORING, COMPLETED or FAILED, or null if no build is recorded for the revision and
+     * its artifact is not stored
+     * @throws APIManagementException if failed to get the status
+     */
+    String getAPIRevisionArtifactStatus(String revisionUUID) throws APIManagementException;
+
     /**
      * Get a Revision Object related to provided revision UUID
      *
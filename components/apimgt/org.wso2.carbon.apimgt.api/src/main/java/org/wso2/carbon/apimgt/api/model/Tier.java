@@ -18,6 +18,7 @@
 package org.wso2.carbon.apimgt.api.model;
 
 import java.io.Serializable;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -60,6 +61,32 @@ public class Tier implements Serializable, Comparable<Tier>{
         this.name = name;
     }
 
+    /**
+     * Creates a copy of the given tier, which can be modified without affecting the given tier.
+     *
+     * @param tier tier to copy
+     */
+    public Tier(Tier tier) {
+        this.name = tier.name;
+        this.displayName = tier.displayName;
+        this.description = tier.description;
+        this.policyContent = tier.policyContent;
+        this.tierAttributes = tier.tierAttributes != null ? new HashMap<>(tier.tierAttributes) : null;
+        this.requestsPerMin = tier.requestsPerMin;
+        this.requestCount = tier.requestCount;
+        this.unitTime = tier.unitTime;
+        this.timeUnit = tier.timeUnit;
+        this.tierPlan = tier.tierPlan;
+        this.stopOnQuotaReached = tier.stopOnQuotaReached;
+        this.tierPermission = tier.tierPermission;
+        this.monetizationAttributes = tier.monetizationAttributes != null ?
+                new HashMap<>(tier.monetizationAttributes) : null;
+        this.quotaPolicyType = tier.quotaPolicyType;
+        this.rateLimitCount = tier.rateLimitCount;
+        this.rateLimitTimeUnit = tier.rateLimitTimeUnit;
+        this.bandwidthDataUnit = tier.bandwidthDataUnit;
+    }
+
     public String getName() {
         return name;
     }
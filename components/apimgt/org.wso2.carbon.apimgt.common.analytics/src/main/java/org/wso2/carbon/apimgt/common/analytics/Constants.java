@@ -28,4 +28,14 @@ public class Constants {
     public static final String ANONYMOUS_VALUE = "anonymous";
     public static final String UNKNOWN_VALUE = "UNKNOWN";
     public static final int UNKNOWN_INT_VALUE = -1;
+
+    public static final String ASYNC_PUBLISHING_ENABLED = "publisher.async.enabled";
+    public static final String ASYNC_PUBLISHING_BUFFER_SIZE = "publisher.async.buffer_size";
+    public static final String ASYNC_PUBLISHING_BATCH_SIZE = "publisher.async.batch_size";
+    public static final String ASYNC_PUBLISHING_FLUSH_INTERVAL = "publisher.async.flush_interval";
+    public static final String ASYNC_PUBLISHING_FULL_POLICY = "publisher.async.full_policy";
+    public static final int DEFAULT_ASYNC_PUBLISHING_BUFFER_SIZE = 16384;
+    public static final int DEFAULT_ASYNC_PUBLISHING_BATCH_SIZE = 256;
+    public static final long DEFAULT_ASYNC_PUBLISHING_FLUSH_INTERVAL = 100;
+    public static final long ASYNC_PUBLISHING_SHUTDOWN_TIMEOUT = 5000;
 }
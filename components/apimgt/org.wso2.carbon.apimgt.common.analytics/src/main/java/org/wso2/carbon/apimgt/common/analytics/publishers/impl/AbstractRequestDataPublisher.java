@@ -43,6 +43,21 @@ public abstract class AbstractRequestDataPublisher implements RequestDataPublish
     @Override
     public void publish(Event analyticsEvent) {
 
+        AnalyticsEventQueue eventQueue = AnalyticsDataPublisher.getInstance().getEventQueue();
+        if (eventQueue != null) {
+            eventQueue.offer(this, analyticsEvent);
+        } else {
+            publishEvent(analyticsEvent);
+        }
+    }
+
+    /**
+     * Converts the event and reports it to the counter metrics of the publisher.
+     *
+     * @param analyticsEvent analytics event
+     */
+    void publishEvent(Event analyticsEvent) {
+
         Map<String, Object> dataMap = OBJECT_MAPPER.convertValue(analyticsEvent, MAP_TYPE_REFERENCE);
         List<CounterMetric> multipleCounterMetrics = this.getMultipleCounterMetrics();
         if (multipleCounterMetrics == null) {
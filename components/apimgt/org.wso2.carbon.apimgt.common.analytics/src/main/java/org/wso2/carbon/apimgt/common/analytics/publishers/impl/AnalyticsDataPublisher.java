@@ -30,6 +30,7 @@ import org.wso2.carbon.apimgt.common.analytics.Constants;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -43,6 +44,7 @@ public class AnalyticsDataPublisher {
 
     private List<CounterMetric> successMetricReporters;
     private List<CounterMetric> faultyMetricReporters;
+    private volatile AnalyticsEventQueue eventQueue;
 
     private AnalyticsDataPublisher() {
 
@@ -147,6 +149,62 @@ public class AnalyticsDataPublisher {
         } catch (MetricCreationException e) {
             log.error("Error while creating the metric reporter", e);
         }
+        initializeEventQueue(configs);
+    }
+
+    private void initializeEventQueue(Map<String, String> configs) {
+
+        shutdown();
+        if (!Boolean.parseBoolean(configs.get(Constants.ASYNC_PUBLISHING_ENABLED))) {
+            return;
+        }
+        try {
+            int bufferSize = getIntProperty(configs, Constants.ASYNC_PUBLISHING_BUFFER_SIZE,
+                    Constants.DEFAULT_ASYNC_PUBLISHING_BUFFER_SIZE);
+            int batchSize = getIntProperty(configs, Constants.ASYNC_PUBLISHING_BATCH_SIZE,
+                    Constants.DEFAULT_ASYNC_PUBLISHING_BATCH_SIZE);
+            long flushInterval = Constants.DEFAULT_ASYNC_PUBLISHING_FLUSH_INTERVAL;
+            if (!StringUtils.isEmpty(configs.get(Constants.ASYNC_PUBLISHING_FLUSH_INTERVAL))) {
+                flushInterval = Long.parseLong(configs.get(Constants.ASYNC_PUBLISHING_FLUSH_INTERVAL).trim());
+            }
+            AnalyticsEventQueue.FullPolicy fullPolicy = AnalyticsEventQueue.FullPolicy.DROP;
+            if (!StringUtils.isEmpty(configs.get(Constants.ASYNC_PUBLISHING_FULL_POLICY))) {
+                fullPolicy = AnalyticsEventQueue.FullPolicy.valueOf(
+                        configs.get(Constants.ASYNC_PUBLISHING_FULL_POLICY).trim().toUpperCase(Locale.ENGLISH));
+            }
+            this.eventQueue = new AnalyticsEventQueue(bufferSize, batchSize, flushInterval, fullPolicy);
+            log.info("Analytics events will be published asynchronously with a buffer of "
+                    + eventQueue.getCapacity() + " events.");
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid asynchronous analytics publishing configuration. Analytics events will be "
+                    + "published synchronously.", e);
+        }
+    }
+
+    private int getIntProperty(Map<String, String> configs, String name, int defaultValue) {
+
+        String value = configs.get(name);
+        return StringUtils.isEmpty(value) ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    /**
+     * Returns the queue events are published through, or null if the events are published by the request threads.
+     */
+    public AnalyticsEventQueue getEventQueue() {
+
+        return eventQueue;
+    }
+
+    /**
+     * Stops publishing events asynchronously after publishing the events in the queue.
+     */
+    public void shutdown() {
+
+        AnalyticsEventQueue queue = this.eventQueue;
+        if (queue != null) {
+            this.eventQueue = null;
+            queue.shutdown(Constants.ASYNC_PUBLISHING_SHUTDOWN_TIMEOUT);
+        }
     }
 
     public List<CounterMetric> getSuccessMetricReporters() throws MetricCreationException {
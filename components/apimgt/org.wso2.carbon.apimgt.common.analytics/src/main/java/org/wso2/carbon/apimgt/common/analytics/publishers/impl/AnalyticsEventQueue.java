@@ -0,0 +1,231 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.wso2.carbon.apimgt.common.analytics.publishers.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Event;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded queue which hands analytics events from the request threads to a dedicated publisher thread.
+ * <p>
+ * Events are kept in a pre-allocated ring buffer which request threads claim slots of without taking a lock. The
+ * publisher thread converts and reports the events in batches, either when a batch is full or when the flush interval
+ * elapses. When the buffer is full, new events are either dropped or the request thread waits for a free slot,
+ * depending on the {@link FullPolicy}.
+ */
+public class AnalyticsEventQueue {
+
+    private static final Log log = LogFactory.getLog(AnalyticsEventQueue.class);
+    private static final long DROP_LOG_INTERVAL = 10000;
+    private static final long BLOCKED_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * Action to take when an event is published while the buffer is full.
+     */
+    public enum FullPolicy {
+        DROP,
+        BLOCK
+    }
+
+    private final Slot[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final FullPolicy fullPolicy;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+    private final AtomicLong droppedEventCount = new AtomicLong();
+    private final AtomicLong publishedEventCount = new AtomicLong();
+    private final Thread publisherThread;
+    private volatile boolean running = true;
+
+    /**
+     * @param bufferSize    number of events the buffer holds, rounded up to a power of two
+     * @param batchSize     maximum number of events published at once
+     * @param flushInterval maximum time an event waits for a batch to fill, in milliseconds
+     * @param fullPolicy    action to take when the buffer is full
+     */
+    public AnalyticsEventQueue(int bufferSize, int batchSize, long flushInterval, FullPolicy fullPolicy) {
+
+        if (bufferSize <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Buffer size and batch size of the analytics event queue should be "
+                    + "positive");
+        }
+        int capacity = Integer.highestOneBit(Math.min(bufferSize, 1 << 30) - 1) << 1;
+        capacity = Math.max(capacity, 2);
+        this.slots = new Slot[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+            sequences.set(i, i);
+        }
+        this.mask = capacity - 1;
+        this.batchSize = Math.min(batchSize, capacity);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushInterval));
+        this.fullPolicy = fullPolicy;
+        this.publisherThread = new Thread(this::run, "AnalyticsEventPublisher");
+        this.publisherThread.setDaemon(true);
+        this.publisherThread.start();
+    }
+
+    /**
+     * Adds an event to be published by the given publisher.
+     *
+     * @param publisher publisher of the event
+     * @param event     analytics event
+     * @return false if the event was dropped
+     */
+    public boolean offer(AbstractRequestDataPublisher publisher, Event event) {
+
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    Slot slot = slots[index];
+                    slot.publisher = publisher;
+                    slot.event = event;
+                    // Publishes the slot to the publisher thread
+                    sequences.set(index, position + 1);
+                    if (position + 1 - head == batchSize) {
+                        LockSupport.unpark(publisherThread);
+                    }
+                    return true;
+                }
+            } else if (difference < 0) {
+                if (fullPolicy == FullPolicy.DROP || !running) {
+                    long dropped = droppedEventCount.incrementAndGet();
+                    if (dropped % DROP_LOG_INTERVAL == 1) {
+                        log.warn("Analytics event queue is full. " + dropped + " events have been dropped so far.");
+                    }
+                    return false;
+                }
+                LockSupport.unpark(publisherThread);
+                LockSupport.parkNanos(BLOCKED_WAIT_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Stops the publisher thread after publishing the events in the buffer.
+     *
+     * @param timeout maximum time to wait for the events to be published, in milliseconds
+     */
+    public void shutdown(long timeout) {
+
+        running = false;
+        LockSupport.unpark(publisherThread);
+        try {
+            publisherThread.join(timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (publisherThread.isAlive()) {
+            log.warn("Analytics event queue was shut down with " + getQueueDepth() + " events yet to be published.");
+        }
+    }
+
+    public int getCapacity() {
+
+        return slots.length;
+    }
+
+    public int getQueueDepth() {
+
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public long getDroppedEventCount() {
+
+        return droppedEventCount.get();
+    }
+
+    public long getPublishedEventCount() {
+
+        return publishedEventCount.get();
+    }
+
+    private void run() {
+
+        long firstPendingTime = 0;
+        while (running || getQueueDepth() > 0) {
+            int pending = getQueueDepth();
+            long now = System.nanoTime();
+            if (pending == 0) {
+                firstPendingTime = 0;
+                LockSupport.parkNanos(this, flushIntervalNanos);
+                continue;
+            }
+            if (firstPendingTime == 0) {
+                firstPendingTime = now;
+            }
+            long waitTime = flushIntervalNanos - (now - firstPendingTime);
+            if (pending < batchSize && waitTime > 0 && running) {
+                LockSupport.parkNanos(this, waitTime);
+                continue;
+            }
+            publishBatch();
+            firstPendingTime = getQueueDepth() > 0 ? System.nanoTime() : 0;
+        }
+    }
+
+    private void publishBatch() {
+
+        long position = head;
+        int published = 0;
+        while (published < batchSize) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                // The slot is claimed but yet to be written, or the buffer is empty
+                break;
+            }
+            Slot slot = slots[index];
+            AbstractRequestDataPublisher publisher = slot.publisher;
+            Event event = slot.event;
+            slot.publisher = null;
+            slot.event = null;
+            position++;
+            sequences.set(index, position + mask);
+            head = position;
+            published++;
+            try {
+                publisher.publishEvent(event);
+            } catch (RuntimeException e) {
+                log.error("Error while publishing analytics event.", e);
+            }
+        }
+        publishedEventCount.addAndGet(published);
+        if (published == 0) {
+            Thread.yield();
+        }
+    }
+
+    private static final class Slot {
+
+        private AbstractRequestDataPublisher publisher;
+        private Event event;
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.common.analytics.publishers.impl;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.am.analytics.publisher.reporter.CounterMetric;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class AnalyticsEventQueueTest {
+
+    private static final long TIMEOUT = 10000;
+
+    private final List<AnalyticsEventQueue> eventQueues = new ArrayList<>();
+    private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+
+        executorService.shutdownNow();
+        for (AnalyticsEventQueue eventQueue : eventQueues) {
+            eventQueue.shutdown(TIMEOUT);
+        }
+    }
+
+    @Test
+    public void testCapacityIsRoundedUpToPowerOfTwo() {
+
+        Assert.assertEquals(2, createEventQueue(1, 1, 1000, AnalyticsEventQueue.FullPolicy.DROP).getCapacity());
+        Assert.assertEquals(8, createEventQueue(5, 1, 1000, AnalyticsEventQueue.FullPolicy.DROP).getCapacity());
+        Assert.assertEquals(8, createEventQueue(8, 1, 1000, AnalyticsEventQueue.FullPolicy.DROP).getCapacity());
+        Assert.assertEquals(1024,
+                createEventQueue(1000, 1, 1000, AnalyticsEventQueue.FullPolicy.DROP).getCapacity());
+    }
+
+    @Test
+    public void testFullBatchIsPublishedBeforeFlushInterval() throws Exception {
+
+        AnalyticsEventQueue eventQueue = createEventQueue(16, 4, TimeUnit.MINUTES.toMillis(10),
+                AnalyticsEventQueue.FullPolicy.DROP);
+        RecordingPublisher publisher = new RecordingPublisher(8);
+        for (int i = 0; i < 9; i++) {
+            Assert.assertTrue(eventQueue.offer(publisher, new Event()));
+        }
+
+        // Two full batches are published, the last event waits for its batch to fill or for the flush interval
+        Assert.assertTrue(publisher.publishedLatch.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        Thread.sleep(200);
+        Assert.assertEquals(8, publisher.getPublishedCount());
+        Assert.assertEquals(1, eventQueue.getQueueDepth());
+    }
+
+    @Test
+    public void testPartialBatchIsPublishedAfterFlushInterval() throws Exception {
+
+        AnalyticsEventQueue eventQueue = createEventQueue(16, 4, 50, AnalyticsEventQueue.FullPolicy.DROP);
+        RecordingPublisher publisher = new RecordingPublisher(1);
+        Assert.assertTrue(eventQueue.offer(publisher, new Event()));
+
+        Assert.assertTrue(publisher.publishedLatch.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(0, eventQueue.getQueueDepth());
+    }
+
+    @Test
+    public void testEventsAreDroppedWhenBufferIsFull() throws Exception {
+
+        AnalyticsEventQueue eventQueue = createEventQueue(2, 1, 1, AnalyticsEventQueue.FullPolicy.DROP);
+        BlockingPublisher publisher = new BlockingPublisher();
+        Assert.assertTrue(eventQueue.offer(publisher, new Event()));
+        // The publisher thread takes the first event out of the buffer and waits while publishing it
+        Assert.assertTrue(publisher.publishStarted.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(eventQueue.offer(publisher, new Event()));
+        Assert.assertTrue(eventQueue.offer(publisher, new Event()));
+
+        Assert.assertFalse(eventQueue.offer(publisher, new Event()));
+        Assert.assertEquals(1, eventQueue.getDroppedEventCount());
+
+        publisher.publishReleased.countDown();
+        eventQueue.shutdown(TIMEOUT);
+        Assert.assertEquals(3, publisher.getPublishedCount());
+        Assert.assertEquals(3, eventQueue.getPublishedEventCount());
+    }
+
+    @Test
+    public void testProducerWaitsWhenBufferIsFull() throws Exception {
+
+        AnalyticsEventQueue eventQueue = createEventQueue(2, 1, 1, AnalyticsEventQueue.FullPolicy.BLOCK);
+        BlockingPublisher publisher = new BlockingPublisher();
+        Assert.assertTrue(eventQueue.offer(publisher, new Event()));
+        Assert.assertTrue(publisher.publishStarted.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(eventQueue.offer(publisher, new Event()));
+        Assert.assertTrue(eventQueue.offer(publisher, new Event()));
+
+        Future<Boolean> blockedOffer = executorService.submit(() -> eventQueue.offer(publisher, new Event()));
+        try {
+            blockedOffer.get(200, TimeUnit.MILLISECONDS);
+            Assert.fail("Event was added to a full buffer");
+        } catch (TimeoutException e) {
+            // Expected, the producer waits for a free slot
+        }
+
+        publisher.publishReleased.countDown();
+        Assert.assertTrue(blockedOffer.get(TIMEOUT, TimeUnit.MILLISECONDS));
+        eventQueue.shutdown(TIMEOUT);
+        Assert.assertEquals(0, eventQueue.getDroppedEventCount());
+        Assert.assertEquals(4, publisher.getPublishedCount());
+    }
+
+    @Test
+    public void testBufferedEventsArePublishedOnShutdown() {
+
+        AnalyticsEventQueue eventQueue = createEventQueue(64, 32, TimeUnit.MINUTES.toMillis(10),
+                AnalyticsEventQueue.FullPolicy.DROP);
+        RecordingPublisher publisher = new RecordingPublisher(10);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(eventQueue.offer(publisher, new Event()));
+        }
+        Assert.assertEquals(0, publisher.getPublishedCount());
+
+        eventQueue.shutdown(TIMEOUT);
+        Assert.assertEquals(10, publisher.getPublishedCount());
+        Assert.assertEquals(0, eventQueue.getQueueDepth());
+    }
+
+    @Test
+    public void testConcurrentProducersDoNotLoseOrDuplicateEvents() throws Exception {
+
+        int producerCount = 4;
+        int eventsPerProducer = 20000;
+        AnalyticsEventQueue eventQueue = createEventQueue(256, 32, 1, AnalyticsEventQueue.FullPolicy.BLOCK);
+        RecordingPublisher publisher = new RecordingPublisher(producerCount * eventsPerProducer);
+        Set<Event> offeredEvents = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        List<Future<?>> producers = new ArrayList<>();
+        for (int i = 0; i < producerCount; i++) {
+            producers.add(executorService.submit(() -> {
+                for (int j = 0; j < eventsPerProducer; j++) {
+                    Event event = new Event();
+                    offeredEvents.add(event);
+                    Assert.assertTrue(eventQueue.offer(publisher, event));
+                }
+            }));
+        }
+        for (Future<?> producer : producers) {
+            producer.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        }
+
+        Assert.assertTrue(publisher.publishedLatch.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        eventQueue.shutdown(TIMEOUT);
+        Assert.assertEquals(producerCount * eventsPerProducer, publisher.getPublishedCount());
+        Assert.assertEquals(offeredEvents, publisher.getPublishedEvents());
+        Assert.assertEquals(producerCount * eventsPerProducer, eventQueue.getPublishedEventCount());
+    }
+
+    private AnalyticsEventQueue createEventQueue(int bufferSize, int batchSize, long flushInterval,
+                                                 AnalyticsEventQueue.FullPolicy fullPolicy) {
+
+        AnalyticsEventQueue eventQueue = new AnalyticsEventQueue(bufferSize, batchSize, flushInterval, fullPolicy);
+        eventQueues.add(eventQueue);
+        return eventQueue;
+    }
+
+    /**
+     * Publisher which records the events it publishes, instead of reporting them.
+     */
+    private static class RecordingPublisher extends AbstractRequestDataPublisher {
+
+        private final Set<Event> publishedEvents = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final CountDownLatch publishedLatch;
+        private int publishedCount;
+
+        private RecordingPublisher(int expectedCount) {
+
+            this.publishedLatch = new CountDownLatch(expectedCount);
+        }
+
+        @Override
+        synchronized void publishEvent(Event analyticsEvent) {
+
+            publishedEvents.add(analyticsEvent);
+            publishedCount++;
+            publishedLatch.countDown();
+        }
+
+        synchronized int getPublishedCount() {
+
+            return publishedCount;
+        }
+
+        synchronized Set<Event> getPublishedEvents() {
+
+            return publishedEvents;
+        }
+
+        @Override
+        public CounterMetric getCounterMetric() {
+
+            return null;
+        }
+
+        @Override
+        public List<CounterMetric> getMultipleCounterMetrics() {
+
+            return null;
+        }
+    }
+
+    /**
+     * Publisher which waits while publishing the first event, until it is released.
+     */
+    private static class BlockingPublisher extends RecordingPublisher {
+
+        private final CountDownLatch publishStarted = new CountDownLatch(1);
+        private final CountDownLatch publishReleased = new CountDownLatch(1);
+
+        private BlockingPublisher() {
+
+            super(0);
+        }
+
+        @Override
+        void publishEvent(Event analyticsEvent) {
+
+            publishStarted.countDown();
+            try {
+                publishReleased.await(TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.publishEvent(analyticsEvent);
+        }
+    }
+}
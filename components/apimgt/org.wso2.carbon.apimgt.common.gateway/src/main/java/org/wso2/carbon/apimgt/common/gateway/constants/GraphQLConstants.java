@@ -47,6 +47,8 @@ public class GraphQLConstants {
     public static final String MAXIMUM_QUERY_DEPTH = "max_query_depth";
     public static final String GRAPHQL_MAX_DEPTH = "graphQLMaxDepth";
     public static final String GRAPHQL_MAX_COMPLEXITY = "graphQLMaxComplexity";
+    // System property which sets the maximum number of parsed queries cached per GraphQL schema
+    public static final String GRAPHQL_QUERY_CACHE_SIZE = "graphQLQueryCacheSize";
 
     /**
      * GraphQL Constants related to GraphQL Subscription operations
@@ -58,6 +60,8 @@ public class GraphQLConstants {
                 Collections.unmodifiableList(Arrays.asList("start", "subscribe"));
         public static final List<String> PAYLOAD_FIELD_NAME_ARRAY_FOR_DATA =
                 Collections.unmodifiableList(Arrays.asList("data", "next"));
+        public static final List<String> PAYLOAD_FIELD_NAME_ARRAY_FOR_COMPLETE =
+                Collections.unmodifiableList(Arrays.asList("stop", "complete"));
         public static final String PAYLOAD_FIELD_NAME_PAYLOAD = "payload";
         public static final String PAYLOAD_FIELD_NAME_QUERY = "query";
         public static final String PAYLOAD_FIELD_NAME_ID = "id";
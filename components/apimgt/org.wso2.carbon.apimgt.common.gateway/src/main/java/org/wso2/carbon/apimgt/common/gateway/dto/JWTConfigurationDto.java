@@ -43,6 +43,9 @@ public class JWTConfigurationDto {
     private long ttl;
 
     private boolean useKid;
+    private boolean signedTokenCacheEnabled;
+    private int signedTokenCacheSize = 10000;
+    private int signerPoolSize = 2;
 
     public boolean useKid() {
         return useKid;
@@ -63,6 +66,9 @@ public class JWTConfigurationDto {
         this.tokenIssuerDtoMap = jwtConfigurationDto.tokenIssuerDtoMap;
         this.jwtExcludedClaims = jwtConfigurationDto.jwtExcludedClaims;
         this.ttl = jwtConfigurationDto.ttl;
+        this.signedTokenCacheEnabled = jwtConfigurationDto.signedTokenCacheEnabled;
+        this.signedTokenCacheSize = jwtConfigurationDto.signedTokenCacheSize;
+        this.signerPoolSize = jwtConfigurationDto.signerPoolSize;
     }
 
     public JWTConfigurationDto() {
@@ -180,4 +186,33 @@ public class JWTConfigurationDto {
         return ttl;
     }
 
+    public boolean isSignedTokenCacheEnabled() {
+
+        return signedTokenCacheEnabled;
+    }
+
+    public void setSignedTokenCacheEnabled(boolean signedTokenCacheEnabled) {
+
+        this.signedTokenCacheEnabled = signedTokenCacheEnabled;
+    }
+
+    public int getSignedTokenCacheSize() {
+
+        return signedTokenCacheSize;
+    }
+
+    public void setSignedTokenCacheSize(int signedTokenCacheSize) {
+
+        this.signedTokenCacheSize = signedTokenCacheSize;
+    }
+
+    public int getSignerPoolSize() {
+
+        return signerPoolSize;
+    }
+
+    public void setSignerPoolSize(int signerPoolSize) {
+
+        this.signerPoolSize = signerPoolSize;
+    }
 }
@@ -0,0 +1,231 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.common.gateway.graphql;
+
+import graphql.language.Document;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+import graphql.schema.GraphQLSchema;
+import graphql.validation.ValidationError;
+import graphql.validation.Validator;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.common.gateway.constants.GraphQLConstants;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of parsed and validated GraphQL queries of a schema. Parsed documents are immutable, hence the cached
+ * queries are shared by all the handlers and analyzers of the schema. A cache is kept for each schema as long as the
+ * schema is in use, i.e. until the API is redeployed with a new schema.
+ * <p>
+ * Queries are cached by their normalized text, so queries which only differ in insignificant white space, commas or
+ * comments share an entry. Lookups do not lock, only the insertion of a query into a full cache does. Then an entry
+ * which was not used since the previous eviction pass is evicted, which approximates least recently used eviction.
+ */
+public class GraphQLQueryCache {
+
+    private static final Log log = LogFactory.getLog(GraphQLQueryCache.class);
+    public static final int DEFAULT_MAX_SIZE = 1000;
+    // The caches do not refer to their schemas strongly, so that a schema and its cache are released together
+    private static final Map<GraphQLSchema, GraphQLQueryCache> caches =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final WeakReference<GraphQLSchema> schema;
+    private final int maxSize;
+    private final Map<String, CachedQuery> queries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    // Position of the eviction pass. Guarded by evictionLock.
+    private Iterator<CachedQuery> evictionIterator;
+
+    public GraphQLQueryCache(GraphQLSchema schema, int maxSize) {
+
+        this.schema = new WeakReference<>(schema);
+        this.maxSize = Math.max(maxSize, 1);
+    }
+
+    /**
+     * Returns the query cache of a schema. The maximum size of the cache is read from the
+     * {@value GraphQLConstants#GRAPHQL_QUERY_CACHE_SIZE} system property, defaulting to {@value #DEFAULT_MAX_SIZE}.
+     *
+     * @param schema GraphQL schema
+     * @return query cache of the schema
+     */
+    public static GraphQLQueryCache getInstance(GraphQLSchema schema) {
+
+        return caches.computeIfAbsent(schema, key -> new GraphQLQueryCache(key,
+                Integer.getInteger(GraphQLConstants.GRAPHQL_QUERY_CACHE_SIZE, DEFAULT_MAX_SIZE)));
+    }
+
+    /**
+     * Returns the parsed and validated query, parsing and validating it against the schema if it is not cached.
+     * Queries with syntax errors are not cached.
+     *
+     * @param query GraphQL query
+     * @return parsed query
+     * @throws InvalidSyntaxException if the query is not syntactically valid
+     */
+    public ParsedQuery getQuery(String query) throws InvalidSyntaxException {
+
+        String key = normalize(query);
+        CachedQuery cachedQuery = queries.get(key);
+        if (cachedQuery != null) {
+            if (!cachedQuery.used) {
+                cachedQuery.used = true;
+            }
+            return cachedQuery.parsedQuery;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Parsing GraphQL query which was not found in the query cache");
+        }
+        Document document = new Parser().parseDocument(query);
+        List<ValidationError> validationErrors = new Validator().validateDocument(getSchema(), document,
+                Locale.ENGLISH);
+        ParsedQuery parsedQuery = new ParsedQuery(document, validationErrors);
+        if (queries.size() >= maxSize) {
+            evict();
+        }
+        CachedQuery existingQuery = queries.putIfAbsent(key, new CachedQuery(key, parsedQuery));
+        return existingQuery != null ? existingQuery.parsedQuery : parsedQuery;
+    }
+
+    public GraphQLSchema getSchema() {
+
+        return schema.get();
+    }
+
+    public int size() {
+
+        return queries.size();
+    }
+
+    /**
+     * Evicts queries until there is room for a new query. Queries used since the previous pass are spared once.
+     */
+    private void evict() {
+
+        evictionLock.lock();
+        try {
+            // Every query is spared at most once, hence two passes always find a query to evict
+            int remainingVisits = 2 * queries.size() + 1;
+            while (queries.size() >= maxSize && remainingVisits-- > 0) {
+                if (evictionIterator == null || !evictionIterator.hasNext()) {
+                    evictionIterator = queries.values().iterator();
+                    if (!evictionIterator.hasNext()) {
+                        return;
+                    }
+                }
+                CachedQuery candidate = evictionIterator.next();
+                if (candidate.used) {
+                    candidate.used = false;
+                } else {
+                    queries.remove(candidate.key, candidate);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the query with every run of insignificant white space, commas and comments replaced by a single space.
+     * String values are kept as they are.
+     */
+    static String normalize(String query) {
+
+        StringBuilder normalized = new StringBuilder(query.length());
+        boolean separator = false;
+        int length = query.length();
+        int i = 0;
+        while (i < length) {
+            char c = query.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == ',' || c == '\uFEFF') {
+                separator = true;
+                i++;
+            } else if (c == '#') {
+                while (i < length && query.charAt(i) != '\n' && query.charAt(i) != '\r') {
+                    i++;
+                }
+                separator = true;
+            } else {
+                if (separator && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                separator = false;
+                int end = c == '"' ? endOfString(query, i) : i + 1;
+                normalized.append(query, i, end);
+                i = end;
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Returns the index after the string value, or block string value, starting at the given index.
+     */
+    private static int endOfString(String query, int start) {
+
+        int length = query.length();
+        if (query.startsWith("\"\"\"", start)) {
+            int i = start + 3;
+            while (i < length) {
+                if (query.startsWith("\\\"\"\"", i)) {
+                    i += 4;
+                } else if (query.startsWith("\"\"\"", i)) {
+                    return i + 3;
+                } else {
+                    i++;
+                }
+            }
+            return length;
+        }
+        int i = start + 1;
+        while (i < length) {
+            char c = query.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '"' || c == '\n' || c == '\r') {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        return Math.min(i, length);
+    }
+
+    private static final class CachedQuery {
+
+        private final String key;
+        private final ParsedQuery parsedQuery;
+        private volatile boolean used;
+
+        private CachedQuery(String key, ParsedQuery parsedQuery) {
+
+            this.key = key;
+            this.parsedQuery = parsedQuery;
+        }
+    }
+}
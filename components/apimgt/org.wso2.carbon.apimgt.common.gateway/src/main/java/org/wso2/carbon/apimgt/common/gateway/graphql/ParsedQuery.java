@@ -0,0 +1,119 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.common.gateway.graphql;
+
+import graphql.language.Document;
+import graphql.validation.ValidationError;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A GraphQL query parsed and validated against a schema, along with the results of analysing it.
+ */
+public class ParsedQuery {
+
+    private final Document document;
+    private final List<ValidationError> validationErrors;
+    private volatile QueryMetrics queryMetrics;
+
+    ParsedQuery(Document document, List<ValidationError> validationErrors) {
+
+        this.document = document;
+        this.validationErrors = validationErrors == null ? Collections.emptyList() :
+                Collections.unmodifiableList(new ArrayList<>(validationErrors));
+    }
+
+    public Document getDocument() {
+
+        return document;
+    }
+
+    public List<ValidationError> getValidationErrors() {
+
+        return validationErrors;
+    }
+
+    /**
+     * Returns the validation errors of the query in the format of {@link QueryValidator#validatePayload}.
+     *
+     * @return validation error message or null if the query is valid
+     */
+    public String getValidationErrorMessage() {
+
+        if (validationErrors.isEmpty()) {
+            return null;
+        }
+        List<String> validationErrorMessageList = new ArrayList<>(validationErrors.size());
+        for (ValidationError error : validationErrors) {
+            validationErrorMessageList.add(error.getDescription());
+        }
+        return String.join(",", validationErrorMessageList);
+    }
+
+    QueryMetrics getQueryMetrics() {
+
+        return queryMetrics;
+    }
+
+    void setQueryMetrics(QueryMetrics queryMetrics) {
+
+        this.queryMetrics = queryMetrics;
+    }
+
+    /**
+     * Depth and complexity of a query. The complexity is only computed along with the depth if a complexity policy
+     * is given, and is only valid for that policy.
+     */
+    static final class QueryMetrics {
+
+        private final int depth;
+        private final String complexityPolicy;
+        private final int complexity;
+        private final List<String> errors;
+
+        QueryMetrics(int depth, String complexityPolicy, int complexity, List<String> errors) {
+
+            this.depth = depth;
+            this.complexityPolicy = complexityPolicy;
+            this.complexity = complexity;
+            this.errors = errors;
+        }
+
+        int getDepth() {
+
+            return depth;
+        }
+
+        int getComplexity() {
+
+            return complexity;
+        }
+
+        List<String> getErrors() {
+
+            return errors;
+        }
+
+        boolean hasComplexity(String complexityPolicy) {
+
+            return this.complexityPolicy != null && this.complexityPolicy.equals(complexityPolicy);
+        }
+    }
+}
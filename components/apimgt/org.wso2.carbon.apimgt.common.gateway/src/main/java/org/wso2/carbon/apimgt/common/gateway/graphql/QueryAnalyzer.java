@@ -18,29 +18,43 @@
  */
 package org.wso2.carbon.apimgt.common.gateway.graphql;
 
-import graphql.ExecutionResult;
-import graphql.GraphQL;
-import graphql.GraphQLError;
+import graphql.GraphQLException;
 import graphql.analysis.FieldComplexityCalculator;
-import graphql.analysis.MaxQueryComplexityInstrumentation;
-import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.analysis.FieldComplexityEnvironment;
+import graphql.analysis.QueryTraverser;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.analysis.QueryVisitorStub;
+import graphql.parser.InvalidSyntaxException;
 import graphql.schema.GraphQLSchema;
+import graphql.validation.ValidationError;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.json.simple.parser.ParseException;
 import org.wso2.carbon.apimgt.common.gateway.dto.QueryAnalyzerResponseDTO;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class contains methods using for Graphql query depth and complexity analysis.
+ * <p>
+ * Queries are taken from the {@link GraphQLQueryCache} of the schema, hence repeated queries are neither parsed nor
+ * validated again. The depth and the complexity of a query are computed together in a single traversal of the parsed
+ * query and are kept along with it, so analysing the depth and then the complexity of a query only traverses it once.
  */
 public class QueryAnalyzer {
 
     private static final Log log = LogFactory.getLog(QueryAnalyzer.class);
     private final GraphQLSchema schema;
+    private final GraphQLQueryCache queryCache;
+    private volatile ComplexityPolicy complexityPolicy;
 
     public QueryAnalyzer(GraphQLSchema schema) {
         this.schema = schema;
+        this.queryCache = GraphQLQueryCache.getInstance(schema);
     }
 
     /**
@@ -59,29 +73,25 @@ public class QueryAnalyzer {
 
         // If maxQueryDepth is a positive value, perform the depth limitation check. Otherwise, bypass the check.
         if (maxQueryDepth > 0) {
-            MaxQueryDepthInstrumentation maxQueryDepthInstrumentation =
-                    new MaxQueryDepthInstrumentation(maxQueryDepth);
-            GraphQL runtime = GraphQL.newGraphQL(schema).instrumentation(maxQueryDepthInstrumentation).build();
-
-            ExecutionResult executionResult = runtime.execute(payload);
-            List<GraphQLError> errors = executionResult.getErrors();
-            if (errors.size() > 0) {
-                for (GraphQLError error : errors) {
-                    queryAnalyzerResponseDTO.addErrorToList((error.getMessage()));
-                }
-                // TODO: https://github.com/wso2/carbon-apimgt/issues/8147
-                queryAnalyzerResponseDTO.getErrorList().removeIf(s -> s.contains("non-nullable"));
-                if (queryAnalyzerResponseDTO.getErrorList().size() == 0) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Maximum query depth of " + maxQueryDepth + " was not exceeded");
-                    }
-                    queryAnalyzerResponseDTO.setSuccess(true);
-                    return queryAnalyzerResponseDTO;
-                }
+            // Compute the complexity along with the depth for the last used complexity policy, if any
+            ComplexityPolicy policy = complexityPolicy;
+            ParsedQuery.QueryMetrics queryMetrics = policy != null ?
+                    getQueryMetrics(payload, policy.policy, policy.calculator, false) :
+                    getQueryMetrics(payload, null, null, false);
+            if (queryMetrics.getErrors().isEmpty() && queryMetrics.getDepth() > maxQueryDepth) {
+                queryAnalyzerResponseDTO.addErrorToList("maximum query depth exceeded " + queryMetrics.getDepth()
+                        + " > " + maxQueryDepth);
+            } else {
+                queryMetrics.getErrors().forEach(queryAnalyzerResponseDTO::addErrorToList);
+            }
+            if (queryAnalyzerResponseDTO.getErrorList().size() > 0) {
                 log.error(queryAnalyzerResponseDTO.getErrorList().toString());
                 queryAnalyzerResponseDTO.setSuccess(false);
                 return queryAnalyzerResponseDTO;
             }
+            if (log.isDebugEnabled()) {
+                log.debug("Maximum query depth of " + maxQueryDepth + " was not exceeded");
+            }
         }
 
         queryAnalyzerResponseDTO.setSuccess(true);
@@ -99,6 +109,31 @@ public class QueryAnalyzer {
     public QueryAnalyzerResponseDTO analyseQueryComplexity(int maxQueryComplexity, String payload,
                                                            FieldComplexityCalculator fieldComplexityCalculator) {
 
+        return analyseQueryComplexity(maxQueryComplexity, payload, null, fieldComplexityCalculator);
+    }
+
+    /**
+     * This method analyses the query complexity
+     *
+     * @param payload            payload of the request
+     * @param complexityInfoJson gql complexity info in json string format
+     * @return true, if query complexity does not exceed the maximum or false, if query complexity exceeds the maximum
+     */
+    public QueryAnalyzerResponseDTO analyseQueryMutationComplexity(String payload, int maxQueryComplexity,
+                                                                   String complexityInfoJson) throws ParseException {
+        // The policy of an API rarely changes, hence its calculator is reused until a different policy is given
+        String policyKey = complexityInfoJson == null ? "" : complexityInfoJson;
+        ComplexityPolicy policy = complexityPolicy;
+        if (policy == null || !policy.policy.equals(policyKey)) {
+            policy = new ComplexityPolicy(policyKey, new FieldComplexityCalculatorImpl(complexityInfoJson));
+            complexityPolicy = policy;
+        }
+        return analyseQueryComplexity(maxQueryComplexity, payload, policy.policy, policy.calculator);
+    }
+
+    private QueryAnalyzerResponseDTO analyseQueryComplexity(int maxQueryComplexity, String payload, String policy,
+                                                            FieldComplexityCalculator fieldComplexityCalculator) {
+
         if (log.isDebugEnabled()) {
             log.debug("Analyzing query complexity for " + payload + " and max complexity: " + maxQueryComplexity);
         }
@@ -107,31 +142,22 @@ public class QueryAnalyzer {
         // If maxQueryComplexity is a positive value, perform the complexity limitation check.
         // Otherwise, bypass the check.
         if (maxQueryComplexity > 0) {
-            MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation =
-                    new MaxQueryComplexityInstrumentation(maxQueryComplexity, fieldComplexityCalculator);
-            GraphQL runtime = GraphQL.newGraphQL(schema).instrumentation(maxQueryComplexityInstrumentation).build();
-
-            ExecutionResult executionResult = runtime.execute(payload);
-            List<GraphQLError> errors = executionResult.getErrors();
-            if (errors.size() > 0) {
-                for (GraphQLError error : errors) {
-                    queryAnalyzerResponseDTO.addErrorToList((error.getMessage()));
-                }
-                // TODO: https://github.com/wso2/carbon-apimgt/issues/8147
-                queryAnalyzerResponseDTO.getErrorList().removeIf(s -> s.contains("non-nullable"));
-                if (queryAnalyzerResponseDTO.getErrorList().size() == 0) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Maximum query complexity was not exceeded");
-                    }
-                    queryAnalyzerResponseDTO.setSuccess(true);
-                } else {
-                    log.error(queryAnalyzerResponseDTO.getErrorList());
-                    queryAnalyzerResponseDTO.getErrorList().clear();
-                    queryAnalyzerResponseDTO.addErrorToList("maximum query complexity exceeded");
+            ParsedQuery.QueryMetrics queryMetrics = getQueryMetrics(payload, policy, fieldComplexityCalculator,
+                    true);
+            if (!queryMetrics.getErrors().isEmpty() || queryMetrics.getComplexity() > maxQueryComplexity) {
+                List<String> errors = new ArrayList<>(queryMetrics.getErrors());
+                if (errors.isEmpty()) {
+                    errors.add("maximum query complexity exceeded " + queryMetrics.getComplexity() + " > "
+                            + maxQueryComplexity);
                 }
+                log.error(errors);
+                queryAnalyzerResponseDTO.addErrorToList("maximum query complexity exceeded");
                 queryAnalyzerResponseDTO.setSuccess(false);
                 return queryAnalyzerResponseDTO;
             }
+            if (log.isDebugEnabled()) {
+                log.debug("Maximum query complexity was not exceeded");
+            }
         }
 
         queryAnalyzerResponseDTO.setSuccess(true);
@@ -139,19 +165,132 @@ public class QueryAnalyzer {
     }
 
     /**
-     * This method analyses the query complexity
+     * Returns the depth, and the complexity if a calculator is given, of a query. The metrics are kept along with the
+     * cached query, so they are only computed again if the complexity is required for a different policy. Metrics of
+     * calculators without a policy are not reused.
      *
-     * @param payload            payload of the request
-     * @param complexityInfoJson gql complexity info in json string format
-     * @return true, if query complexity does not exceed the maximum or false, if query complexity exceeds the maximum
+     * @param payload            query
+     * @param policy             complexity policy of the calculator, or null
+     * @param calculator         field complexity calculator, or null to only compute the depth
+     * @param complexityRequired whether the complexity is required, or only the depth
+     * @return metrics of the query
      */
-    public QueryAnalyzerResponseDTO analyseQueryMutationComplexity(String payload, int maxQueryComplexity,
-                                                                   String complexityInfoJson) throws ParseException {
-        FieldComplexityCalculator fieldComplexityCalculator = new FieldComplexityCalculatorImpl(complexityInfoJson);
-        return analyseQueryComplexity(maxQueryComplexity, payload, fieldComplexityCalculator);
+    private ParsedQuery.QueryMetrics getQueryMetrics(String payload, String policy,
+                                                     FieldComplexityCalculator calculator,
+                                                     boolean complexityRequired) {
+
+        ParsedQuery parsedQuery;
+        try {
+            parsedQuery = queryCache.getQuery(payload);
+        } catch (InvalidSyntaxException e) {
+            return new ParsedQuery.QueryMetrics(0, null, 0, Collections.singletonList(e.getMessage()));
+        }
+        ParsedQuery.QueryMetrics queryMetrics = parsedQuery.getQueryMetrics();
+        if (queryMetrics != null && (!complexityRequired || queryMetrics.hasComplexity(policy))) {
+            return queryMetrics;
+        }
+        queryMetrics = computeQueryMetrics(parsedQuery, policy, calculator);
+        if (policy != null || calculator == null) {
+            parsedQuery.setQueryMetrics(queryMetrics);
+        }
+        return queryMetrics;
+    }
+
+    private ParsedQuery.QueryMetrics computeQueryMetrics(ParsedQuery parsedQuery, String policy,
+                                                         FieldComplexityCalculator calculator) {
+
+        String metricsPolicy = calculator != null ? policy : null;
+        if (!parsedQuery.getValidationErrors().isEmpty()) {
+            List<String> errors = new ArrayList<>(parsedQuery.getValidationErrors().size());
+            for (ValidationError error : parsedQuery.getValidationErrors()) {
+                errors.add(error.getMessage());
+            }
+            removeNonNullableErrors(errors);
+            if (!errors.isEmpty()) {
+                return new ParsedQuery.QueryMetrics(0, metricsPolicy, 0, Collections.unmodifiableList(errors));
+            }
+        }
+        int[] maxDepth = new int[1];
+        // Complexity of the children of each field, the complexity of the top level fields is kept against null
+        Map<QueryVisitorFieldEnvironment, Integer> complexityByParent = new HashMap<>();
+        try {
+            QueryTraverser queryTraverser = QueryTraverser.newQueryTraverser()
+                    .schema(schema)
+                    .document(parsedQuery.getDocument())
+                    .variables(Collections.emptyMap())
+                    .build();
+            queryTraverser.visitPostOrder(new QueryVisitorStub() {
+
+                @Override
+                public void visitField(QueryVisitorFieldEnvironment environment) {
+
+                    maxDepth[0] = Math.max(maxDepth[0], getDepth(environment));
+                    if (calculator != null) {
+                        int complexity = 0;
+                        if (!environment.isTypeNameIntrospectionField()) {
+                            complexity = calculator.calculate(toFieldComplexityEnvironment(environment),
+                                    complexityByParent.getOrDefault(environment, 0));
+                        }
+                        complexityByParent.merge(environment.getParentEnvironment(), complexity, Integer::sum);
+                    }
+                }
+            });
+        } catch (GraphQLException e) {
+            List<String> errors = new ArrayList<>(1);
+            errors.add(e.getMessage());
+            removeNonNullableErrors(errors);
+            return new ParsedQuery.QueryMetrics(0, metricsPolicy, 0, Collections.unmodifiableList(errors));
+        }
+        return new ParsedQuery.QueryMetrics(maxDepth[0], metricsPolicy,
+                complexityByParent.getOrDefault(null, 0), Collections.emptyList());
+    }
+
+    private static void removeNonNullableErrors(List<String> errors) {
+
+        // TODO: https://github.com/wso2/carbon-apimgt/issues/8147
+        errors.removeIf(s -> s.contains("non-nullable"));
+    }
+
+    private static FieldComplexityEnvironment toFieldComplexityEnvironment(QueryVisitorFieldEnvironment environment) {
+
+        if (environment == null) {
+            return null;
+        }
+        return new FieldComplexityEnvironment(environment.getField(), environment.getFieldDefinition(),
+                environment.getFieldsContainer(), environment.getArguments(),
+                toFieldComplexityEnvironment(environment.getParentEnvironment()));
+    }
+
+    /**
+     * Returns the depth of a field, where top level fields are at depth 1.
+     */
+    private static int getDepth(QueryVisitorFieldEnvironment environment) {
+
+        int depth = 1;
+        QueryVisitorFieldEnvironment parent = environment.getParentEnvironment();
+        while (parent != null) {
+            parent = parent.getParentEnvironment();
+            depth++;
+        }
+        return depth;
     }
 
     public GraphQLSchema getSchema() {
         return schema;
     }
+
+    /**
+     * Complexity calculator of a complexity policy.
+     */
+    private static final class ComplexityPolicy {
+
+        private final String policy;
+        private final FieldComplexityCalculator calculator;
+
+        private ComplexityPolicy(String policy, FieldComplexityCalculator calculator) {
+
+            this.policy = policy;
+            this.calculator = calculator;
+        }
+    }
 }
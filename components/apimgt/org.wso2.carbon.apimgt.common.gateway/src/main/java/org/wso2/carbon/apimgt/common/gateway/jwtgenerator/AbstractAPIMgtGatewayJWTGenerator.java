@@ -54,6 +54,8 @@ public abstract class AbstractAPIMgtGatewayJWTGenerator {
 
     public String signatureAlgorithm;
 
+    private volatile SignedJWTCache signedJWTCache;
+
     public AbstractAPIMgtGatewayJWTGenerator() {
     }
 
@@ -68,13 +70,54 @@ public abstract class AbstractAPIMgtGatewayJWTGenerator {
                 || SHA256_WITH_RSA.equals(signatureAlgorithm))) {
             signatureAlgorithm = SHA256_WITH_RSA;
         }
+        if (jwtConfigurationDto.isSignedTokenCacheEnabled() && signedJWTCache == null
+                && SHA256_WITH_RSA.equals(signatureAlgorithm)) {
+            initializeSignedJWTCache();
+        }
+    }
+
+    private synchronized void initializeSignedJWTCache() {
 
+        if (signedJWTCache != null) {
+            return;
+        }
+        try {
+            if (getClass().getMethod("buildBody", JWTInfoDto.class).getDeclaringClass()
+                    != AbstractAPIMgtGatewayJWTGenerator.class) {
+                log.warn("Signed backend JWTs are not cached since " + getClass().getName()
+                        + " builds the JWT body on its own.");
+                return;
+            }
+        } catch (NoSuchMethodException e) {
+            return;
+        }
+        signedJWTCache = new SignedJWTCache(jwtConfigurationDto.getSignedTokenCacheSize(),
+                jwtConfigurationDto.getSignerPoolSize());
+    }
+
+    /**
+     * Returns the cache of signed tokens used when signed token caching is enabled.
+     *
+     * @return cache of signed tokens or null if signed tokens are not cached
+     */
+    public SignedJWTCache getSignedJWTCache() {
+
+        return signedJWTCache;
     }
 
     public String generateToken(JWTInfoDto jwtInfoDto) throws JWTGeneratorException {
 
         String jwtHeader = buildHeader();
-        String jwtBody = buildBody(jwtInfoDto);
+        SignedJWTCache signedJWTCache = this.signedJWTCache;
+        if (signedJWTCache != null && SHA256_WITH_RSA.equals(signatureAlgorithm)) {
+            return signedJWTCache.getToken(jwtHeader, buildClaims(jwtInfoDto),
+                    (header, claims) -> generateToken(header, buildBody(claims)));
+        }
+        return generateToken(jwtHeader, buildBody(jwtInfoDto));
+    }
+
+    private String generateToken(String jwtHeader, String jwtBody) throws JWTGeneratorException {
+
         String base64UrlEncodedHeader = "";
         if (jwtHeader != null) {
             base64UrlEncodedHeader = encode(jwtHeader.getBytes(Charset.defaultCharset()));
@@ -149,7 +192,18 @@ public abstract class AbstractAPIMgtGatewayJWTGenerator {
 
     public String buildBody(JWTInfoDto jwtInfoDto) {
 
-        JWTClaimsSet.Builder jwtClaimSetBuilder = new JWTClaimsSet.Builder();
+        return buildBody(buildClaims(jwtInfoDto));
+    }
+
+    /**
+     * Collects the standard and the custom claims of the JWT. Standard claims take precedence over custom claims of
+     * the same name.
+     *
+     * @param jwtInfoDto information of the request
+     * @return claims of the JWT
+     */
+    protected Map<String, Object> buildClaims(JWTInfoDto jwtInfoDto) {
+
         Map<String, Object> claims = populateStandardClaims(jwtInfoDto);
         Map<String, Object> customClaims = populateCustomClaims(jwtInfoDto);
         for (Map.Entry<String, Object> claimEntry : customClaims.entrySet()) {
@@ -161,6 +215,12 @@ public abstract class AbstractAPIMgtGatewayJWTGenerator {
                 }
             }
         }
+        return claims;
+    }
+
+    private String buildBody(Map<String, Object> claims) {
+
+        JWTClaimsSet.Builder jwtClaimSetBuilder = new JWTClaimsSet.Builder();
         ObjectMapper mapper = new ObjectMapper();
         for (Map.Entry<String, Object> claimEntry : claims.entrySet()) {
             Object claimVal = claimEntry.getValue();
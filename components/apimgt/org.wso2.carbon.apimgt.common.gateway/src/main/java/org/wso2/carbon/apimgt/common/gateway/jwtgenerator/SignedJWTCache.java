@@ -0,0 +1,326 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.common.gateway.jwtgenerator;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.common.gateway.constants.JWTConstants;
+import org.wso2.carbon.apimgt.common.gateway.exception.JWTGeneratorException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of signed backend JWTs keyed by a fingerprint of their header and claims.
+ * <p>
+ * Requests which result in the same claims, apart from the issued time, expiry time and JWT ID, share the signed
+ * token while it is in the first three quarters of its validity period. Once half of the validity period has elapsed,
+ * the claims of the next request are signed on a background signer pool and replace the cached token, so that
+ * requests seldom wait for a token to be signed.
+ */
+public class SignedJWTCache {
+
+    private static final Log log = LogFactory.getLog(SignedJWTCache.class);
+    private static final String NOT_BEFORE = "nbf";
+    private static final String JWT_ID = "jti";
+    private static final int SIGNER_QUEUE_SIZE = 1000;
+    private static final ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    });
+
+    private final int maxEntries;
+    private final Map<String, SignedToken> tokens = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor signerPool;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder signedTokenCount = new LongAdder();
+    private final LongAdder backgroundSignedTokenCount = new LongAdder();
+    private final LongAdder signingTime = new LongAdder();
+
+    /**
+     * Signs the token of a claim set.
+     */
+    public interface TokenSigner {
+
+        String sign(String header, Map<String, Object> claims) throws JWTGeneratorException;
+    }
+
+    /**
+     * @param maxEntries     maximum number of signed tokens to keep
+     * @param signerPoolSize number of threads which sign tokens about to expire
+     */
+    public SignedJWTCache(int maxEntries, int signerPoolSize) {
+
+        this.maxEntries = Math.max(1, maxEntries);
+        int poolSize = Math.max(1, signerPoolSize);
+        this.signerPool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(SIGNER_QUEUE_SIZE), runnable -> {
+            Thread thread = new Thread(runnable, "BackendJWTSigner");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.signerPool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns a signed token for the claims, signing a new token only if there is no valid token with the same
+     * claims.
+     *
+     * @param header JWT header
+     * @param claims claims of the token including the issued time and expiry time
+     * @param signer signs the token if there is no cached token
+     * @return signed token
+     * @throws JWTGeneratorException if the token could not be signed
+     */
+    public String getToken(String header, Map<String, Object> claims, TokenSigner signer)
+            throws JWTGeneratorException {
+
+        String fingerprint = fingerprint(header, claims);
+        long now = System.currentTimeMillis();
+        SignedToken cachedToken = tokens.get(fingerprint);
+        if (cachedToken != null && now < cachedToken.reuseUntil) {
+            hitCount.increment();
+            if (now >= cachedToken.refreshAfter) {
+                refreshInBackground(fingerprint, cachedToken, header, claims, signer);
+            }
+            return cachedToken.token;
+        }
+        missCount.increment();
+        SignedToken signedToken = sign(header, claims, signer);
+        if (signedToken.reuseUntil > now) {
+            if (tokens.size() >= maxEntries) {
+                evict(now);
+            }
+            tokens.put(fingerprint, signedToken);
+        }
+        return signedToken.token;
+    }
+
+    public int size() {
+
+        return tokens.size();
+    }
+
+    public long getHitCount() {
+
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+
+        return missCount.sum();
+    }
+
+    public double getHitRate() {
+
+        long hits = hitCount.sum();
+        long requests = hits + missCount.sum();
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+    /**
+     * @return number of tokens signed, including the tokens signed in the background
+     */
+    public long getSignedTokenCount() {
+
+        return signedTokenCount.sum();
+    }
+
+    public long getBackgroundSignedTokenCount() {
+
+        return backgroundSignedTokenCount.sum();
+    }
+
+    /**
+     * @return average time taken to sign a token, in nanoseconds
+     */
+    public double getAverageSigningTime() {
+
+        long signed = signedTokenCount.sum();
+        return signed == 0 ? 0 : (double) signingTime.sum() / signed;
+    }
+
+    public void shutdown() {
+
+        signerPool.shutdownNow();
+    }
+
+    private SignedToken sign(String header, Map<String, Object> claims, TokenSigner signer)
+            throws JWTGeneratorException {
+
+        long startTime = System.nanoTime();
+        String token = signer.sign(header, claims);
+        signingTime.add(System.nanoTime() - startTime);
+        signedTokenCount.increment();
+        return new SignedToken(token, toMillis(claims.get(JWTConstants.ISSUED_TIME)),
+                toMillis(claims.get(JWTConstants.EXPIRY_TIME)));
+    }
+
+    private void refreshInBackground(String fingerprint, SignedToken cachedToken, String header,
+                                     Map<String, Object> claims, TokenSigner signer) {
+
+        if (!cachedToken.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            signerPool.execute(() -> {
+                try {
+                    SignedToken signedToken = sign(header, claims, signer);
+                    backgroundSignedTokenCount.increment();
+                    tokens.replace(fingerprint, cachedToken, signedToken);
+                } catch (JWTGeneratorException | RuntimeException e) {
+                    log.warn("Error while signing backend JWT in the background. The token will be signed when it "
+                            + "is next requested.", e);
+                } finally {
+                    cachedToken.refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            cachedToken.refreshing.set(false);
+            if (log.isDebugEnabled()) {
+                log.debug("Backend JWT signer pool is busy. Skipped signing the token in the background.");
+            }
+        }
+    }
+
+    private void evict(long now) {
+
+        tokens.values().removeIf(token -> token.reuseUntil <= now);
+        Iterator<String> iterator = tokens.keySet().iterator();
+        while (tokens.size() >= maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Computes a digest of the header and the claims other than the time claims and the JWT ID. Claims are ordered by
+     * name so that the fingerprint does not depend on the iteration order of the claim maps.
+     */
+    static String fingerprint(String header, Map<String, Object> claims) {
+
+        StringBuilder canonicalForm = new StringBuilder(header == null ? "" : header).append('\n');
+        Map<String, Object> sortedClaims = new TreeMap<>(claims);
+        sortedClaims.remove(JWTConstants.ISSUED_TIME);
+        sortedClaims.remove(JWTConstants.EXPIRY_TIME);
+        sortedClaims.remove(NOT_BEFORE);
+        sortedClaims.remove(JWT_ID);
+        appendCanonicalForm(canonicalForm, sortedClaims);
+        MessageDigest digest = digests.get();
+        digest.reset();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(digest.digest(canonicalForm.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void appendCanonicalForm(StringBuilder builder, Object value) {
+
+        if (value instanceof Map) {
+            builder.append('{');
+            for (Map.Entry<?, ?> entry : new TreeMap<>((Map<?, ?>) value).entrySet()) {
+                appendString(builder, String.valueOf(entry.getKey()));
+                builder.append(':');
+                appendCanonicalForm(builder, entry.getValue());
+                builder.append(',');
+            }
+            builder.append('}');
+        } else if (value instanceof Collection) {
+            builder.append('[');
+            for (Object element : (Collection<?>) value) {
+                appendCanonicalForm(builder, element);
+                builder.append(',');
+            }
+            builder.append(']');
+        } else if (value instanceof Object[]) {
+            builder.append('[');
+            for (Object element : (Object[]) value) {
+                appendCanonicalForm(builder, element);
+                builder.append(',');
+            }
+            builder.append(']');
+        } else if (value instanceof String) {
+            appendString(builder, (String) value);
+        } else {
+            builder.append(value);
+        }
+    }
+
+    private static void appendString(StringBuilder builder, String value) {
+
+        // Length prefixed so that separators within values do not make two claim sets look the same
+        builder.append(value.length()).append('"').append(value);
+    }
+
+    private static long toMillis(Object timeClaim) {
+
+        if (timeClaim instanceof Date) {
+            return ((Date) timeClaim).getTime();
+        }
+        if (timeClaim instanceof Number) {
+            return TimeUnit.SECONDS.toMillis(((Number) timeClaim).longValue());
+        }
+        if (timeClaim instanceof String) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong((String) timeClaim));
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    private static final class SignedToken {
+
+        private final String token;
+        private final long reuseUntil;
+        private final long refreshAfter;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private SignedToken(String token, long issuedTime, long expiryTime) {
+
+            this.token = token;
+            if (expiryTime <= issuedTime) {
+                // Tokens without a validity period are not reused
+                this.reuseUntil = 0;
+                this.refreshAfter = 0;
+            } else {
+                long validityPeriod = expiryTime - issuedTime;
+                this.reuseUntil = expiryTime - validityPeriod / 4;
+                this.refreshAfter = expiryTime - validityPeriod / 2;
+            }
+        }
+    }
+}
@@ -55,6 +55,12 @@ public final class JWTUtil {
     private static final Log log = LogFactory.getLog(JWTUtil.class);
     private static final String NONE = "NONE";
     private static final String SHA256_WITH_RSA = "SHA256withRSA";
+    /**
+     * Signature instances initialized for signing, per thread and signature algorithm, so that a thread initializes a
+     * signature with the private key only once instead of for each token.
+     */
+    private static final ThreadLocal<Map<String, SigningSignature>> signingSignatures =
+            ThreadLocal.withInitial(HashMap::new);
 
     /**
      * Get the JWS compliant signature algorithm code of the algorithm used to sign the JWT.
@@ -169,16 +175,23 @@ public final class JWTUtil {
     public static byte[] signJwt(String assertion, PrivateKey privateKey, String signatureAlgorithm) throws
             JWTGeneratorException {
 
+        Map<String, SigningSignature> signatures = signingSignatures.get();
         try {
-            //initialize signature with private key and algorithm
-            Signature signature = Signature.getInstance(signatureAlgorithm);
-            signature.initSign(privateKey);
+            //get a signature initialized with the private key, reusing the signature of this thread if possible
+            SigningSignature signingSignature = signatures.get(signatureAlgorithm);
+            if (signingSignature == null || signingSignature.privateKey != privateKey) {
+                Signature signature = Signature.getInstance(signatureAlgorithm);
+                signature.initSign(privateKey);
+                signingSignature = new SigningSignature(privateKey, signature);
+                signatures.put(signatureAlgorithm, signingSignature);
+            }
+            Signature signature = signingSignature.signature;
 
             //update signature with data to be signed
             byte[] dataInBytes = assertion.getBytes(Charset.defaultCharset());
             signature.update(dataInBytes);
 
-            //sign the assertion and return the signature
+            //sign the assertion and return the signature. This resets the signature for the next assertion
             return signature.sign();
         } catch (NoSuchAlgorithmException e) {
             //do not log
@@ -188,7 +201,12 @@ public final class JWTUtil {
             throw new JWTGeneratorException("Invalid private key provided for signing", e);
         } catch (SignatureException e) {
             //do not log
+            signatures.remove(signatureAlgorithm);
             throw new JWTGeneratorException("Error while signing JWT", e);
+        } catch (RuntimeException e) {
+            // The signature may be left with partially updated data
+            signatures.remove(signatureAlgorithm);
+            throw e;
         }
     }
 
@@ -260,4 +278,16 @@ public final class JWTUtil {
             }
         }
     }
+
+    private static final class SigningSignature {
+
+        private final PrivateKey privateKey;
+        private final Signature signature;
+
+        private SigningSignature(PrivateKey privateKey, Signature signature) {
+
+            this.privateKey = privateKey;
+            this.signature = signature;
+        }
+    }
 }
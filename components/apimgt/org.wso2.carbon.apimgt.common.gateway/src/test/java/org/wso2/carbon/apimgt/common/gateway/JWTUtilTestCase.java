@@ -23,7 +23,11 @@ import org.junit.Test;
 import org.mockito.Mockito;
 import org.wso2.carbon.apimgt.common.gateway.util.JWTUtil;
 
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
 import java.security.cert.Certificate;
 
 /**
@@ -65,4 +69,30 @@ public class JWTUtilTestCase {
         Assert.assertNotNull(jwt);
         Assert.assertTrue(jwt.contains("x5t"));
     }
+
+    @Test
+    public void testSignJwtWithReusedSignature() throws Exception {
+
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        KeyPair otherKeyPair = keyPairGenerator.generateKeyPair();
+        String[] assertions = {"header.first", "header.second"};
+        for (String assertion : assertions) {
+            Assert.assertTrue(verify(assertion, JWTUtil.signJwt(assertion, keyPair.getPrivate(), "SHA256withRSA"),
+                    keyPair));
+        }
+        // A signature of the thread initialized with another key should not be used
+        byte[] signed = JWTUtil.signJwt(assertions[0], otherKeyPair.getPrivate(), "SHA256withRSA");
+        Assert.assertTrue(verify(assertions[0], signed, otherKeyPair));
+        Assert.assertFalse(verify(assertions[0], signed, keyPair));
+    }
+
+    private boolean verify(String assertion, byte[] signed, KeyPair keyPair) throws Exception {
+
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initVerify(keyPair.getPublic());
+        signature.update(assertion.getBytes(Charset.defaultCharset()));
+        return signature.verify(signed);
+    }
 }
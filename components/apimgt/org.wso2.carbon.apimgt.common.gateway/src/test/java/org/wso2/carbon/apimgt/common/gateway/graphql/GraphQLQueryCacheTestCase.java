@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.common.gateway.graphql;
+
+import graphql.parser.InvalidSyntaxException;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.TypeDefinitionRegistry;
+import graphql.schema.idl.UnExecutableSchemaGenerator;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.common.gateway.constants.GraphQLConstants;
+import org.wso2.carbon.apimgt.common.gateway.dto.QueryAnalyzerResponseDTO;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Test cases for {@link GraphQLQueryCache}
+ */
+public class GraphQLQueryCacheTestCase {
+
+    private final String subscriptionSchemaRelativePath = File.separator + "graphQL" + File.separator
+            + "schema_with_subscriptions.graphql";
+    private GraphQLSchema graphQLSchema;
+
+    @Before
+    public void setup() throws Exception {
+        String schemaString = IOUtils.toString(this.getClass().getResourceAsStream(subscriptionSchemaRelativePath),
+                StandardCharsets.UTF_8);
+        TypeDefinitionRegistry registry = new SchemaParser().parse(schemaString);
+        graphQLSchema = UnExecutableSchemaGenerator.makeUnExecutableSchema(registry);
+    }
+
+    @Test
+    public void testQueriesAreParsedOnce() {
+        GraphQLQueryCache queryCache = GraphQLQueryCache.getInstance(graphQLSchema);
+        Assert.assertSame(queryCache, GraphQLQueryCache.getInstance(graphQLSchema));
+
+        String payload = "query { allLifts { id name } }";
+        ParsedQuery parsedQuery = queryCache.getQuery(payload);
+        Assert.assertTrue(parsedQuery.getValidationErrors().isEmpty());
+        Assert.assertNull(parsedQuery.getValidationErrorMessage());
+        Assert.assertSame(parsedQuery, queryCache.getQuery(payload));
+
+        ParsedQuery invalidQuery = queryCache.getQuery("query { allLifts { unknown } }");
+        Assert.assertFalse(invalidQuery.getValidationErrors().isEmpty());
+        Assert.assertNotNull(invalidQuery.getValidationErrorMessage());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedQueriesAreEvicted() {
+        GraphQLQueryCache queryCache = new GraphQLQueryCache(graphQLSchema, 2);
+        ParsedQuery first = queryCache.getQuery("{ liftCount }");
+        ParsedQuery second = queryCache.getQuery("{ trailCount }");
+        Assert.assertSame(first, queryCache.getQuery("{ liftCount }"));
+        queryCache.getQuery("{ allLifts { id } }");
+        Assert.assertEquals(2, queryCache.size());
+        Assert.assertSame(first, queryCache.getQuery("{ liftCount }"));
+        Assert.assertNotSame(second, queryCache.getQuery("{ trailCount }"));
+    }
+
+    @Test
+    public void testEquivalentQueriesShareEntry() {
+        GraphQLQueryCache queryCache = new GraphQLQueryCache(graphQLSchema, 10);
+        ParsedQuery parsedQuery = queryCache.getQuery("query { allLifts { id name } }");
+        String formattedQuery = "query {\n  allLifts {\n    id,\n    name # lift name\n  }\n}\n";
+        Assert.assertSame(parsedQuery, queryCache.getQuery(formattedQuery));
+        Assert.assertEquals(1, queryCache.size());
+    }
+
+    @Test
+    public void testNormalizeKeepsStringValues() {
+        Assert.assertEquals("query { lift(id: \"a  b, #c\") { id } }",
+                GraphQLQueryCache.normalize("  query {\n\tlift(id: \"a  b, #c\")  { id }, }"));
+        Assert.assertEquals("{ a(s: \"\"\"x \\\"\"\" ,  y\"\"\") }",
+                GraphQLQueryCache.normalize("{ a(s: \"\"\"x \\\"\"\" ,  y\"\"\") }"));
+        Assert.assertEquals("{ a(s: \"x\\\" ,  y\") }", GraphQLQueryCache.normalize("{ a(s: \"x\\\" ,  y\") }"));
+    }
+
+    @Test
+    public void testMaxSizeIsConfigurable() {
+        System.setProperty(GraphQLConstants.GRAPHQL_QUERY_CACHE_SIZE, "1");
+        try {
+            GraphQLSchema schema = UnExecutableSchemaGenerator.makeUnExecutableSchema(
+                    new SchemaParser().parse("type Query { a: Int b: Int }"));
+            GraphQLQueryCache queryCache = GraphQLQueryCache.getInstance(schema);
+            queryCache.getQuery("{ a }");
+            queryCache.getQuery("{ b }");
+            Assert.assertEquals(1, queryCache.size());
+        } finally {
+            System.clearProperty(GraphQLConstants.GRAPHQL_QUERY_CACHE_SIZE);
+        }
+    }
+
+    @Test
+    public void testInvalidSyntaxIsNotCached() {
+        GraphQLQueryCache queryCache = new GraphQLQueryCache(graphQLSchema, 10);
+        try {
+            queryCache.getQuery("query { allLifts { id }");
+            Assert.fail("Expected an invalid syntax exception");
+        } catch (InvalidSyntaxException e) {
+            Assert.assertEquals(0, queryCache.size());
+        }
+    }
+
+    @Test
+    public void testDepthAndComplexityOfCachedQuery() throws Exception {
+        QueryAnalyzer queryAnalyzer = new QueryAnalyzer(graphQLSchema);
+        String complexityPolicy = "{\"complexity\":{\"Query\":{\"allLifts\":2},"
+                + "\"Lift\":{\"name\":1,\"id\":1}}}";
+        String payload = "query { allLifts { id name trailAccess { id } } }";
+        for (int i = 0; i < 2; i++) {
+            QueryAnalyzerResponseDTO depthResponse = queryAnalyzer.analyseQueryDepth(2, payload);
+            Assert.assertFalse(depthResponse.isSuccess());
+            Assert.assertTrue(depthResponse.getErrorList().toString().contains("maximum query depth exceeded 3 > 2"));
+            Assert.assertTrue(queryAnalyzer.analyseQueryDepth(3, payload).isSuccess());
+
+            // allLifts(2) + id(1) + name(1) + trailAccess(1) + trailAccess.id(1)
+            Assert.assertTrue(queryAnalyzer.analyseQueryMutationComplexity(payload, 6, complexityPolicy).isSuccess());
+            QueryAnalyzerResponseDTO complexityResponse =
+                    queryAnalyzer.analyseQueryMutationComplexity(payload, 5, complexityPolicy);
+            Assert.assertFalse(complexityResponse.isSuccess());
+            Assert.assertTrue(complexityResponse.getErrorList().contains("maximum query complexity exceeded"));
+        }
+        String multipleOperations = "query a { liftCount } query b { trailCount }";
+        Assert.assertFalse(queryAnalyzer.analyseQueryDepth(5, multipleOperations).isSuccess());
+    }
+}
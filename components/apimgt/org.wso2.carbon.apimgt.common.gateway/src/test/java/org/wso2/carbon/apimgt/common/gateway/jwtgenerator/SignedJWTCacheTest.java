@@ -0,0 +1,141 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.common.gateway.jwtgenerator;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SignedJWTCacheTest {
+
+    private static final String HEADER = "{\"typ\":\"JWT\",\"alg\":\"RS256\"}";
+
+    private final AtomicInteger signCount = new AtomicInteger();
+    private final SignedJWTCache.TokenSigner signer =
+            (header, claims) -> "token-" + signCount.incrementAndGet();
+    private final SignedJWTCache cache = new SignedJWTCache(100, 1);
+
+    @After
+    public void cleanup() {
+
+        cache.shutdown();
+    }
+
+    @Test
+    public void testTokenIsReusedForSameClaims() throws Exception {
+
+        long now = currentTimeInSeconds();
+        String token = cache.getToken(HEADER, claims("admin", now, now + 900), signer);
+        Assert.assertEquals(token, cache.getToken(HEADER, claims("admin", now + 1, now + 901), signer));
+        Assert.assertNotEquals(token, cache.getToken(HEADER, claims("user", now, now + 900), signer));
+        Assert.assertNotEquals(token, cache.getToken("{\"typ\":\"JWT\",\"alg\":\"RS512\"}",
+                claims("admin", now, now + 900), signer));
+
+        Assert.assertEquals(3, signCount.get());
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(3, cache.getMissCount());
+        Assert.assertEquals(0.25, cache.getHitRate(), 0.0001);
+        Assert.assertEquals(3, cache.getSignedTokenCount());
+    }
+
+    @Test
+    public void testTokenIsNotReusedNearExpiry() throws Exception {
+
+        long now = currentTimeInSeconds();
+        // A quarter of the validity period remains
+        cache.getToken(HEADER, claims("admin", now - 75, now + 25), signer);
+        cache.getToken(HEADER, claims("admin", now - 75, now + 25), signer);
+        Assert.assertEquals(2, signCount.get());
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testTokenIsSignedInBackgroundAfterHalfOfValidity() throws Exception {
+
+        long now = currentTimeInSeconds();
+        String token = cache.getToken(HEADER, claims("admin", now - 60, now + 40), signer);
+        Assert.assertEquals(token, cache.getToken(HEADER, claims("admin", now, now + 100), signer));
+        for (int i = 0; i < 100 && cache.getBackgroundSignedTokenCount() == 0; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(1, cache.getBackgroundSignedTokenCount());
+        Assert.assertEquals(2, signCount.get());
+        String refreshedToken = cache.getToken(HEADER, claims("admin", now, now + 100), signer);
+        Assert.assertNotEquals(token, refreshedToken);
+        Assert.assertEquals(refreshedToken, cache.getToken(HEADER, claims("admin", now, now + 100), signer));
+        Assert.assertEquals(2, signCount.get());
+    }
+
+    @Test
+    public void testFingerprintDoesNotDependOnClaimOrder() {
+
+        Map<String, Object> claims = new LinkedHashMap<>();
+        Map<String, String> attributes = new LinkedHashMap<>();
+        attributes.put("first", "1");
+        attributes.put("second", "2");
+        claims.put("sub", "admin");
+        claims.put("applicationAttributes", attributes);
+        claims.put("jti", "first-id");
+
+        Map<String, Object> reorderedClaims = new LinkedHashMap<>();
+        Map<String, String> reorderedAttributes = new LinkedHashMap<>();
+        reorderedAttributes.put("second", "2");
+        reorderedAttributes.put("first", "1");
+        reorderedClaims.put("jti", "second-id");
+        reorderedClaims.put("applicationAttributes", reorderedAttributes);
+        reorderedClaims.put("sub", "admin");
+
+        Assert.assertEquals(SignedJWTCache.fingerprint(HEADER, claims),
+                SignedJWTCache.fingerprint(HEADER, reorderedClaims));
+        reorderedAttributes.put("first", "3");
+        Assert.assertNotEquals(SignedJWTCache.fingerprint(HEADER, claims),
+                SignedJWTCache.fingerprint(HEADER, reorderedClaims));
+    }
+
+    @Test
+    public void testCacheIsBounded() throws Exception {
+
+        long now = currentTimeInSeconds();
+        for (int i = 0; i < 150; i++) {
+            cache.getToken(HEADER, claims("user" + i, now, now + 900), signer);
+            Assert.assertTrue(cache.size() <= 100);
+        }
+    }
+
+    private static Map<String, Object> claims(String subject, long issuedTime, long expiryTime) {
+
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("iss", AbstractAPIMgtGatewayJWTGenerator.API_GATEWAY_ID);
+        claims.put("sub", subject);
+        claims.put("iat", String.valueOf(issuedTime));
+        claims.put("exp", String.valueOf(expiryTime));
+        return claims;
+    }
+
+    private static long currentTimeInSeconds() {
+
+        return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.ArtifactRetriever;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.dto.ArtifactManifestEntryDto;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.dto.RuntimeArtifactDeltaDto;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.exception.ArtifactSynchronizerException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Artifact retriever which keeps the retrieved runtime artifacts in a {@link RuntimeArtifactCache} and only retrieves
+ * the artifacts of the APIs whose deployments changed since they were cached. Falls back to retrieving all the
+ * artifacts if the underlying retriever does not support retrieving artifact deltas.
+ */
+public class DeltaSyncArtifactRetriever implements ArtifactRetriever {
+
+    private static final Log log = LogFactory.getLog(DeltaSyncArtifactRetriever.class);
+
+    private final ArtifactRetriever artifactRetriever;
+    private final Path cacheDirectory;
+
+    /**
+     * @param artifactRetriever retriever to retrieve the artifacts from
+     * @param cacheDirectory    root directory of the artifact caches, each tenant and gateway label combination is
+     *                          cached in a directory of its own
+     */
+    public DeltaSyncArtifactRetriever(ArtifactRetriever artifactRetriever, Path cacheDirectory) {
+
+        this.artifactRetriever = artifactRetriever;
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    @Override
+    public void retrieveAllArtifacts(String gatewayLabel, String tenantDomain, int pageSize,
+                                     Consumer<List<String>> pageConsumer) throws ArtifactSynchronizerException {
+
+        RuntimeArtifactCache cache = new RuntimeArtifactCache(getCacheDirectory(gatewayLabel, tenantDomain));
+        RuntimeArtifactDeltaDto delta =
+                artifactRetriever.retrieveArtifactDelta(gatewayLabel, tenantDomain, cache.getManifest());
+        if (delta == null) {
+            artifactRetriever.retrieveAllArtifacts(gatewayLabel, tenantDomain, pageSize, pageConsumer);
+            return;
+        }
+        Set<String> deployedApiIds = new HashSet<>();
+        List<String> page = new ArrayList<>(pageSize);
+        List<String> missingApiIds = new ArrayList<>();
+        int cachedApis = 0;
+        for (ArtifactManifestEntryDto entry : delta.getList()) {
+            page = addArtifacts(entry.getArtifacts(), page, pageSize, pageConsumer);
+            cacheArtifacts(cache, entry);
+            deployedApiIds.add(entry.getApiId());
+        }
+        for (String apiId : delta.getUnchanged()) {
+            List<String> artifacts = cache.getArtifacts(apiId);
+            if (artifacts == null) {
+                missingApiIds.add(apiId);
+            } else {
+                page = addArtifacts(artifacts, page, pageSize, pageConsumer);
+                deployedApiIds.add(apiId);
+                cachedApis++;
+            }
+        }
+        if (!missingApiIds.isEmpty()) {
+            // Cached files were lost or corrupted, ask for them again without them in the manifest
+            if (log.isDebugEnabled()) {
+                log.debug("Retrieving runtime artifacts missing in the cache of APIs " + missingApiIds);
+            }
+            RuntimeArtifactDeltaDto missing =
+                    artifactRetriever.retrieveArtifactDelta(gatewayLabel, tenantDomain, cache.getManifest());
+            if (missing != null) {
+                for (ArtifactManifestEntryDto entry : missing.getList()) {
+                    page = addArtifacts(entry.getArtifacts(), page, pageSize, pageConsumer);
+                    cacheArtifacts(cache, entry);
+                    deployedApiIds.add(entry.getApiId());
+                }
+            }
+        }
+        if (!page.isEmpty()) {
+            pageConsumer.accept(page);
+        }
+        cache.retainAll(deployedApiIds);
+        try {
+            cache.save();
+        } catch (IOException e) {
+            log.warn("Error while saving the runtime artifact cache of tenant " + tenantDomain, e);
+        }
+        log.info("Retrieved runtime artifacts of " + (deployedApiIds.size() - cachedApis) + " APIs and loaded "
+                + cachedApis + " APIs from the runtime artifact cache of tenant " + tenantDomain);
+    }
+
+    @Override
+    public List<String> retrieveAllArtifacts(String gatewayLabel, String tenantDomain)
+            throws ArtifactSynchronizerException {
+
+        List<String> artifacts = new ArrayList<>();
+        retrieveAllArtifacts(gatewayLabel, tenantDomain, Integer.MAX_VALUE, artifacts::addAll);
+        return artifacts;
+    }
+
+    @Override
+    public RuntimeArtifactDeltaDto retrieveArtifactDelta(String gatewayLabel, String tenantDomain,
+                                                         List<ArtifactManifestEntryDto> manifest)
+            throws ArtifactSynchronizerException {
+
+        return artifactRetriever.retrieveArtifactDelta(gatewayLabel, tenantDomain, manifest);
+    }
+
+    @Override
+    public void init() throws ArtifactSynchronizerException {
+
+        artifactRetriever.init();
+    }
+
+    @Override
+    public String retrieveArtifact(String apiId, String gatewayLabel) throws ArtifactSynchronizerException {
+
+        return artifactRetriever.retrieveArtifact(apiId, gatewayLabel);
+    }
+
+    @Override
+    public Map<String, String> retrieveAttributes(String apiName, String version, String tenantDomain)
+            throws ArtifactSynchronizerException {
+
+        return artifactRetriever.retrieveAttributes(apiName, version, tenantDomain);
+    }
+
+    @Override
+    public void disconnect() {
+
+        artifactRetriever.disconnect();
+    }
+
+    @Override
+    public String getName() {
+
+        return artifactRetriever.getName();
+    }
+
+    private Path getCacheDirectory(String gatewayLabel, String tenantDomain) {
+
+        // Gateway labels are Base64 URL safe encoded, hence can be used as a directory name
+        return cacheDirectory.resolve(Paths.get(tenantDomain, gatewayLabel));
+    }
+
+    private List<String> addArtifacts(List<String> artifacts, List<String> page, int pageSize,
+                                      Consumer<List<String>> pageConsumer) {
+
+        if (artifacts == null) {
+            return page;
+        }
+        for (String artifact : artifacts) {
+            page.add(artifact);
+            if (page.size() >= pageSize) {
+                pageConsumer.accept(page);
+                page = new ArrayList<>();
+            }
+        }
+        return page;
+    }
+
+    private void cacheArtifacts(RuntimeArtifactCache cache, ArtifactManifestEntryDto entry) {
+
+        try {
+            cache.put(entry);
+        } catch (IOException e) {
+            log.warn("Error while caching the runtime artifacts of API " + entry.getApiId(), e);
+        }
+    }
+}
@@ -23,6 +23,7 @@ import graphql.schema.GraphQLSchema;
 import graphql.schema.idl.SchemaParser;
 import graphql.schema.idl.TypeDefinitionRegistry;
 import graphql.schema.idl.UnExecutableSchemaGenerator;
+import org.apache.axiom.om.util.AXIOMUtil;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.context.MessageContext;
 import org.apache.commons.codec.binary.Base64;
@@ -37,6 +38,8 @@ import org.wso2.carbon.apimgt.api.gateway.GraphQLSchemaDTO;
 import org.wso2.carbon.apimgt.api.model.API;
 import org.wso2.carbon.apimgt.api.model.APIIdentifier;
 import org.wso2.carbon.apimgt.api.model.APIProductIdentifier;
+import org.wso2.carbon.apimgt.gateway.handlers.security.OpenAPIValidatorRegistry;
+import org.wso2.carbon.apimgt.gateway.handlers.security.SchemaValidator;
 import org.wso2.carbon.apimgt.gateway.internal.DataHolder;
 import org.wso2.carbon.apimgt.gateway.internal.ServiceReferenceHolder;
 import org.wso2.carbon.apimgt.gateway.service.APIGatewayAdmin;
@@ -50,6 +53,7 @@ import org.wso2.carbon.apimgt.impl.notifier.events.DeployAPIInGatewayEvent;
 import org.wso2.carbon.apimgt.impl.utils.GatewayUtils;
 import org.wso2.carbon.apimgt.keymgt.SubscriptionDataHolder;
 import org.wso2.carbon.apimgt.keymgt.model.SubscriptionDataStore;
+import org.wso2.carbon.base.CarbonBaseUtils;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 
 import java.io.File;
@@ -61,6 +65,8 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 
+import javax.xml.stream.XMLStreamException;
+
 /**
  * This class contains the methods used to retrieve artifacts from a storage and deploy and undeploy the API in gateway.
  */
@@ -94,6 +100,7 @@ public class InMemoryAPIDeployer {
                 MessageContext.setCurrentMessageContext(
                         org.wso2.carbon.apimgt.gateway.utils.GatewayUtils.createAxis2MessageContext());
                 unDeployAPI(apiGatewayAdmin, gatewayEvent);
+                deploySchemaValidator(gatewayAPIDTO);
                 apiGatewayAdmin.deployAPI(gatewayAPIDTO);
                 addDeployedCertificatesToAPIAssociation(gatewayAPIDTO);
                 addDeployedGraphqlQLToAPI(gatewayAPIDTO);
@@ -131,6 +138,7 @@ public class InMemoryAPIDeployer {
                 APIGatewayAdmin apiGatewayAdmin = new APIGatewayAdmin();
                 MessageContext.setCurrentMessageContext(
                         org.wso2.carbon.apimgt.gateway.utils.GatewayUtils.createAxis2MessageContext());
+                deploySchemaValidator(gatewayAPIDTO);
                 apiGatewayAdmin.deployAPI(gatewayAPIDTO);
                 addDeployedCertificatesToAPIAssociation(gatewayAPIDTO);
                 addDeployedGraphqlQLToAPI(gatewayAPIDTO);
@@ -197,56 +205,30 @@ public class InMemoryAPIDeployer {
 
         if (gatewayArtifactSynchronizerProperties.isRetrieveFromStorageEnabled()) {
             if (artifactRetriever != null) {
+                String labelString = String.join("|", assignedGatewayLabels);
+                String encodedString = Base64.encodeBase64URLSafeString(labelString.getBytes());
+                APIGatewayAdmin apiGatewayAdmin = new APIGatewayAdmin();
+                StartupArtifactDeployer startupArtifactDeployer = new StartupArtifactDeployer(tenantDomain,
+                        gatewayArtifactSynchronizerProperties.getStartupDeploymentParallelism(),
+                        gatewayArtifactSynchronizerProperties.getStartupDeploymentPageSize(),
+                        gatewayAPIDTO -> deployAPIAtStartup(apiGatewayAdmin, gatewayAPIDTO, tenantDomain));
                 try {
-                    int errorCount = 0;
-                    String labelString = String.join("|", assignedGatewayLabels);
-                    String encodedString = Base64.encodeBase64URLSafeString(labelString.getBytes());
-                    APIGatewayAdmin apiGatewayAdmin = new APIGatewayAdmin();
-                    MessageContext.setCurrentMessageContext(org.wso2.carbon.apimgt.gateway.utils.GatewayUtils.createAxis2MessageContext());
                     PrivilegedCarbonContext.startTenantFlow();
                     PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(tenantDomain, true);
-                    List<String> gatewayRuntimeArtifacts = ServiceReferenceHolder.getInstance().getArtifactRetriever()
-                            .retrieveAllArtifacts(encodedString, tenantDomain);
-                    if (gatewayRuntimeArtifacts.size() == 0) {
-                        return true;
-                    }
-                    for (String runtimeArtifact : gatewayRuntimeArtifacts) {
-                        GatewayAPIDTO gatewayAPIDTO = null;
-                        try {
-                            if (StringUtils.isNotEmpty(runtimeArtifact)) {
-                                gatewayAPIDTO = new Gson().fromJson(runtimeArtifact, GatewayAPIDTO.class);
-                                log.info("Deploying synapse artifacts of " + gatewayAPIDTO.getName());
-                                apiGatewayAdmin.deployAPI(gatewayAPIDTO);
-                                addDeployedCertificatesToAPIAssociation(gatewayAPIDTO);
-                                addDeployedGraphqlQLToAPI(gatewayAPIDTO);
-                                DataHolder.getInstance().addKeyManagerToAPIMapping(gatewayAPIDTO.getApiId(),
-                                        gatewayAPIDTO.getKeyManagers());
-                                DataHolder.getInstance().markAPIAsDeployed(gatewayAPIDTO);
-                            }
-                        } catch (AxisFault axisFault) {
-                            log.error("Error in deploying " + gatewayAPIDTO.getName() + " to the Gateway ", axisFault);
-                            errorCount++;
-                        }
-                    }
-                    // reload dynamic profiles to avoid delays in loading certs in mutual ssl enabled APIs upon
-                    // server restart
-                    DynamicProfileReloaderHolder.getInstance().reloadAllHandlers();
-                    if (log.isDebugEnabled()) {
-                        log.debug("APIs deployed in gateway with the labels of " + labelString);
-                    }
-                    result = true;
                     //Setting the result to false only if all the API deployments are failed
-                    if (gatewayRuntimeArtifacts.size() == errorCount) {
-                        return false;
-                    }
-                } catch (AxisFault e) {
-                    String msg = "Error deploying APIs to the Gateway ";
-                    log.error(msg, e);
-                    return false;
+                    result = startupArtifactDeployer.deploy(getStartupArtifactRetriever(), encodedString);
                 } finally {
-                    MessageContext.destroyCurrentMessageContext();
                     PrivilegedCarbonContext.endTenantFlow();
                 }
+                if (startupArtifactDeployer.getRetrievedCount() == 0) {
+                    return true;
+                }
+                // reload dynamic profiles to avoid delays in loading certs in mutual ssl enabled APIs upon
+                // server restart
+                DynamicProfileReloaderHolder.getInstance().reloadAllHandlers();
+                if (log.isDebugEnabled()) {
+                    log.debug("APIs deployed in gateway with the labels of " + labelString);
+                }
             } else {
                 String msg = "Artifact retriever not found";
                 log.error(msg);
@@ -256,6 +238,54 @@ public class InMemoryAPIDeployer {
         return result;
     }
 
+    /**
+     * Returns the retriever to retrieve the artifacts deployed at startup, which only retrieves the artifacts changed
+     * since the last startup if delta sync is enabled.
+     */
+    private ArtifactRetriever getStartupArtifactRetriever() {
+
+        if (!gatewayArtifactSynchronizerProperties.isDeltaSyncEnabled()) {
+            return artifactRetriever;
+        }
+        String cacheDirectory = gatewayArtifactSynchronizerProperties.getArtifactCacheDirectory();
+        if (StringUtils.isEmpty(cacheDirectory)) {
+            cacheDirectory = CarbonBaseUtils.getCarbonHome() + File.separator + "repository" + File.separator + "data"
+                    + File.separator + "runtime-artifacts";
+        }
+        return new DeltaSyncArtifactRetriever(artifactRetriever, Paths.get(cacheDirectory));
+    }
+
+    /**
+     * Deploys an API retrieved at gateway startup. This is invoked concurrently from the startup deployment workers,
+     * hence the message context and the tenant flow are set up for each deployment.
+     */
+    private void deployAPIAtStartup(APIGatewayAdmin apiGatewayAdmin, GatewayAPIDTO gatewayAPIDTO,
+                                    String tenantDomain) throws AxisFault {
+
+        try {
+            MessageContext.setCurrentMessageContext(
+                    org.wso2.carbon.apimgt.gateway.utils.GatewayUtils.createAxis2MessageContext());
+            PrivilegedCarbonContext.startTenantFlow();
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(tenantDomain, true);
+            deploySchemaValidator(gatewayAPIDTO);
+            apiGatewayAdmin.deployAPI(gatewayAPIDTO);
+            GraphQLSchemaDTO graphQLSchemaDTO = parseGraphQLSchema(gatewayAPIDTO);
+            // DataHolder is not thread safe
+            synchronized (DataHolder.getInstance()) {
+                addDeployedCertificatesToAPIAssociation(gatewayAPIDTO);
+                if (graphQLSchemaDTO != null) {
+                    DataHolder.getInstance().addApiToGraphQLSchemaDTO(gatewayAPIDTO.getApiId(), graphQLSchemaDTO);
+                }
+                DataHolder.getInstance().addKeyManagerToAPIMapping(gatewayAPIDTO.getApiId(),
+                        gatewayAPIDTO.getKeyManagers());
+                DataHolder.getInstance().markAPIAsDeployed(gatewayAPIDTO);
+            }
+        } finally {
+            MessageContext.destroyCurrentMessageContext();
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
     private void unDeployAPI(APIGatewayAdmin apiGatewayAdmin, DeployAPIInGatewayEvent gatewayEvent)
             throws AxisFault {
             if (gatewayArtifactSynchronizerProperties.isRetrieveFromStorageEnabled()) {
@@ -302,7 +332,38 @@ public class InMemoryAPIDeployer {
                 apiGatewayAdmin.unDeployAPI(gatewayAPIDTO);
                 DataHolder.getInstance().getApiToCertificatesMap().remove(gatewayEvent.getUuid());
                 DataHolder.getInstance().removeKeyManagerToAPIMapping(gatewayAPIDTO.getApiId());
+                OpenAPIValidatorRegistry.getInstance().undeploy(gatewayEvent.getUuid());
+            }
+    }
+
+    /**
+     * Builds the schema validator of an API which validates messages against the schema of its OpenAPI
+     * definition, so that the definition is resolved once when the API is deployed instead of for the messages.
+     *
+     * @param gatewayAPIDTO API to be deployed
+     */
+    private void deploySchemaValidator(GatewayAPIDTO gatewayAPIDTO) {
+
+        String apiId = gatewayAPIDTO.getApiId();
+        OpenAPIValidatorRegistry validatorRegistry = OpenAPIValidatorRegistry.getInstance();
+        validatorRegistry.undeploy(apiId);
+        String apiDefinition = gatewayAPIDTO.getApiDefinition();
+        if (apiId == null || apiDefinition == null || !apiDefinition.contains(SchemaValidator.class.getName())
+                || gatewayAPIDTO.getLocalEntriesToBeAdd() == null) {
+            return;
+        }
+        for (GatewayContentDTO localEntry : gatewayAPIDTO.getLocalEntriesToBeAdd()) {
+            if (apiId.equals(localEntry.getName())) {
+                try {
+                    String definition = AXIOMUtil.stringToOM(localEntry.getContent()).getText();
+                    validatorRegistry.deploy(apiId, definition);
+                } catch (XMLStreamException | RuntimeException e) {
+                    log.error("Error while building the schema validator of API " + apiId
+                            + ". The validator will be built when the API is invoked.", e);
+                }
+                return;
             }
+        }
     }
 
     public void unDeployAPI(DeployAPIInGatewayEvent gatewayEvent) throws ArtifactSynchronizerException {
@@ -381,14 +442,21 @@ public class InMemoryAPIDeployer {
      */
     private void addDeployedGraphqlQLToAPI(GatewayAPIDTO gatewayAPIDTO) {
 
+        GraphQLSchemaDTO schemaDTO = parseGraphQLSchema(gatewayAPIDTO);
+        if (schemaDTO != null) {
+            DataHolder.getInstance().addApiToGraphQLSchemaDTO(gatewayAPIDTO.getApiId(), schemaDTO);
+        }
+    }
+
+    private GraphQLSchemaDTO parseGraphQLSchema(GatewayAPIDTO gatewayAPIDTO) {
+
         if (gatewayAPIDTO != null && gatewayAPIDTO.getGraphQLSchema() != null) {
-            String apiId = gatewayAPIDTO.getApiId();
             SchemaParser schemaParser = new SchemaParser();
             TypeDefinitionRegistry registry = schemaParser.parse(gatewayAPIDTO.getGraphQLSchema());
             GraphQLSchema schema = UnExecutableSchemaGenerator.makeUnExecutableSchema(registry);
-            GraphQLSchemaDTO schemaDTO = new GraphQLSchemaDTO(schema, registry);
-            DataHolder.getInstance().addApiToGraphQLSchemaDTO(apiId, schemaDTO);
+            return new GraphQLSchemaDTO(schema, registry);
         }
+        return null;
     }
 
     private void setClientCertificatesToRemoveIntoGatewayDTO(GatewayAPIDTO gatewayDTO) {
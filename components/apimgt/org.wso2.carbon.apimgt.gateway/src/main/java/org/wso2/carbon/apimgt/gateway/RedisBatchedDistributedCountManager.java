@@ -0,0 +1,685 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.synapse.commons.throttle.core.DistributedCounterManager;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.metrics.manager.Level;
+import org.wso2.carbon.metrics.manager.MetricManager;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Redis based Distributed Counter Manager for Throttler which coalesces the updates of each key.
+ * <p>
+ * Increments, timestamps and expiry times are applied to local approximate counters and are flushed to Redis every
+ * flush interval. All the updates of a flush are applied through a single Lua script, which sets, increments and
+ * expires each key atomically and returns the current values, so a flush is a single round-trip regardless of the
+ * number of keys. Between flushes, counters are served from the local values.
+ * <p>
+ * The accuracy of the counters is traded for latency as follows. A counter which was not refreshed from Redis within
+ * two flush intervals is flushed and refreshed before its value is returned, so the increments of other gateways are
+ * missed for at most two flush intervals. A counter is also flushed as soon as it has the configured number of pending
+ * increments, which bounds how far the local increments can run ahead of Redis. A flush interval of 0 disables the
+ * batching and flushes every update.
+ * <p>
+ * A counter has at most one flush or removal in flight, so the updates of a key reach Redis in order. A flush of a
+ * single key waits only for the flush of that key which is in flight, and the periodic flush leaves such a counter to
+ * the next flush, hence no lock is held across the Redis round trips of other keys.
+ */
+public class RedisBatchedDistributedCountManager implements DistributedCounterManager {
+
+    private static final Log log = LogFactory.getLog(RedisBatchedDistributedCountManager.class);
+
+    /**
+     * Applies the updates of a flush. For each key there are 3 arguments, the value to set or an empty string, the
+     * value to increment by and the expiry time or an empty string. Returns the value of each key.
+     */
+    static final String APPLY_UPDATES_SCRIPT =
+            "local values = {} "
+                    + "for i, key in ipairs(KEYS) do "
+                    + "local set = ARGV[i * 3 - 2] "
+                    + "local delta = tonumber(ARGV[i * 3 - 1]) "
+                    + "local expiry = ARGV[i * 3] "
+                    + "if set ~= '' then redis.call('SET', key, set) end "
+                    + "local value "
+                    + "if delta ~= 0 then value = redis.call('INCRBY', key, delta) "
+                    + "else value = tonumber(redis.call('GET', key) or '0') or 0 end "
+                    + "if expiry ~= '' then redis.call('PEXPIREAT', key, expiry) end "
+                    + "values[i] = value "
+                    + "end "
+                    + "return values";
+    private static final int MAX_KEYS_PER_FLUSH = 500;
+    private static final long MIN_IDLE_TIME = 60000L;
+    private static final String FLUSH_SIZE = "FLUSH_SIZE";
+    private static final String FLUSH_LAG = "FLUSH_LAG";
+
+    private final CounterStore counterStore;
+    private final long flushInterval;
+    private final int maxPendingIncrements;
+    private final long staleTime;
+    private final long idleTime;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flushExecutor;
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushedKeyCount = new AtomicLong();
+    private final AtomicLong failedFlushCount = new AtomicLong();
+
+    public RedisBatchedDistributedCountManager(JedisPool redisPool, long flushInterval, int maxPendingIncrements) {
+
+        this(new JedisCounterStore(redisPool), flushInterval, maxPendingIncrements);
+    }
+
+    public RedisBatchedDistributedCountManager(CounterStore counterStore, long flushInterval,
+                                               int maxPendingIncrements) {
+
+        this.counterStore = counterStore;
+        this.flushInterval = Math.max(0, flushInterval);
+        this.maxPendingIncrements = this.flushInterval > 0 ? maxPendingIncrements : 1;
+        // Counters which are updated are refreshed by every periodic flush, allow for the time taken by a flush
+        this.staleTime = this.flushInterval * 2;
+        this.idleTime = Math.max(MIN_IDLE_TIME, this.flushInterval * 10);
+        if (this.flushInterval > 0) {
+            flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "RedisThrottleCounterFlusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flushExecutor.scheduleWithFixedDelay(this::flushSafely, this.flushInterval, this.flushInterval,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            flushExecutor = null;
+        }
+    }
+
+    @Override
+    public long getCounter(String key) {
+
+        refreshIfStale(key);
+        return update(key, Counter::getValue);
+    }
+
+    @Override
+    public void setCounter(String key, long value) {
+
+        asyncGetAndAlterCounter(key, value);
+    }
+
+    @Override
+    public long addAndGetCounter(String key, long value) {
+
+        Counter counter = update(key, c -> {
+            c.increment(value);
+            return c;
+        });
+        if (shouldFlush(counter)) {
+            flush(key, counter);
+        }
+        return update(key, Counter::getValue);
+    }
+
+    @Override
+    public void removeCounter(String key) {
+
+        remove(key);
+    }
+
+    @Override
+    public long asyncGetAndAddCounter(String key, long value) {
+
+        refreshIfStale(key);
+        Long[] previous = new Long[1];
+        Counter counter = update(key, c -> {
+            previous[0] = c.getValue();
+            c.increment(value);
+            return c;
+        });
+        if (shouldFlush(counter)) {
+            flush(key, counter);
+        }
+        return previous[0];
+    }
+
+    @Override
+    public long asyncGetAndAlterCounter(String key, long value) {
+
+        long previous = update(key, c -> {
+            long current = c.getValue();
+            c.set(value);
+            return current;
+        });
+        if (maxPendingIncrements == 1) {
+            flush(key, counters.get(key));
+        }
+        return previous;
+    }
+
+    @Override
+    public long getTimestamp(String key) {
+
+        refreshIfStale(key);
+        return update(key, Counter::getValue);
+    }
+
+    @Override
+    public void setTimestamp(String key, long timeStamp) {
+
+        update(key, c -> {
+            c.set(timeStamp);
+            return c;
+        });
+        if (maxPendingIncrements == 1) {
+            flush(key, counters.get(key));
+        }
+    }
+
+    @Override
+    public void removeTimestamp(String key) {
+
+        remove(key);
+    }
+
+    @Override
+    public void setExpiry(String key, long expiryTimeStamp) {
+
+        update(key, c -> {
+            c.expire(expiryTimeStamp);
+            return c;
+        });
+        if (maxPendingIncrements == 1) {
+            flush(key, counters.get(key));
+        }
+    }
+
+    @Override
+    public boolean isEnable() {
+
+        return true;
+    }
+
+    @Override
+    public String getType() {
+
+        return "redis";
+    }
+
+    /**
+     * Flushes the pending updates of all the counters to Redis and evicts the counters which were not used recently.
+     */
+    public void flush() {
+
+        long now = System.currentTimeMillis();
+        List<PendingUpdate> pendingUpdates = new ArrayList<>();
+        for (Iterator<Map.Entry<String, Counter>> iterator = counters.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<String, Counter> entry = iterator.next();
+            Counter counter = entry.getValue();
+            synchronized (counter) {
+                if (counter.flushing) {
+                    // Updates made since the flush in flight was drained are left to the next flush
+                    continue;
+                }
+                if (counter.hasPendingUpdates()) {
+                    pendingUpdates.add(counter.drain(entry.getKey()));
+                } else if (now - counter.lastAccessTime > idleTime) {
+                    counter.evicted = true;
+                    iterator.remove();
+                }
+            }
+        }
+        for (int i = 0; i < pendingUpdates.size(); i += MAX_KEYS_PER_FLUSH) {
+            apply(pendingUpdates.subList(i, Math.min(i + MAX_KEYS_PER_FLUSH, pendingUpdates.size())));
+        }
+    }
+
+    /**
+     * Flushes the pending updates and stops flushing periodically.
+     */
+    public void shutdown() {
+
+        if (flushExecutor != null) {
+            flushExecutor.shutdownNow();
+        }
+        flushSafely();
+    }
+
+    public long getFlushCount() {
+
+        return flushCount.get();
+    }
+
+    public long getFlushedKeyCount() {
+
+        return flushedKeyCount.get();
+    }
+
+    public long getFailedFlushCount() {
+
+        return failedFlushCount.get();
+    }
+
+    /**
+     * Updates the metrics of a flush.
+     *
+     * @param flushSize number of keys flushed
+     * @param flushLag  time the oldest update of the flush was pending, in milliseconds
+     */
+    protected void updateFlushMetrics(int flushSize, long flushLag) {
+
+        MetricManager.histogram(Level.INFO, MetricManager.name(APIConstants.METRICS_PREFIX,
+                getClass().getSimpleName(), FLUSH_SIZE)).update(flushSize);
+        MetricManager.histogram(Level.INFO, MetricManager.name(APIConstants.METRICS_PREFIX,
+                getClass().getSimpleName(), FLUSH_LAG)).update(flushLag);
+    }
+
+    private void flushSafely() {
+
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Error while flushing throttle counters to Redis", e);
+        }
+    }
+
+    private boolean shouldFlush(Counter counter) {
+
+        synchronized (counter) {
+            // The value of a counter which was set does not depend on the value in Redis
+            if (counter.pendingValue == null
+                    && (!counter.known || System.currentTimeMillis() - counter.refreshedTime > staleTime)) {
+                return true;
+            }
+            return maxPendingIncrements > 0 && counter.pendingIncrements >= maxPendingIncrements;
+        }
+    }
+
+    private void refreshIfStale(String key) {
+
+        Counter counter = update(key, c -> c);
+        if (shouldFlush(counter)) {
+            flush(key, counter);
+        }
+    }
+
+    /**
+     * Flushes the pending updates of a counter and refreshes it with the value in Redis. If the counter is being
+     * flushed, waits for that flush first.
+     */
+    private void flush(String key, Counter counter) {
+
+        if (counter == null) {
+            return;
+        }
+        PendingUpdate pendingUpdate;
+        synchronized (counter) {
+            boolean flushed = counter.flushing;
+            if (!counter.awaitFlush() || counter.evicted) {
+                return;
+            }
+            if (flushed && !counter.hasPendingUpdates()) {
+                // The flush which was waited for refreshed the counter
+                return;
+            }
+            pendingUpdate = counter.drain(key);
+        }
+        List<PendingUpdate> pendingUpdates = new ArrayList<>(1);
+        pendingUpdates.add(pendingUpdate);
+        apply(pendingUpdates);
+    }
+
+    private void apply(List<PendingUpdate> pendingUpdates) {
+
+        List<String> keys = new ArrayList<>(pendingUpdates.size());
+        List<String> args = new ArrayList<>(pendingUpdates.size() * 3);
+        long oldestUpdateTime = Long.MAX_VALUE;
+        for (PendingUpdate pendingUpdate : pendingUpdates) {
+            keys.add(pendingUpdate.key);
+            args.add(pendingUpdate.value != null ? String.valueOf(pendingUpdate.value) : "");
+            args.add(String.valueOf(pendingUpdate.delta));
+            args.add(pendingUpdate.expiryTime != null ? String.valueOf(pendingUpdate.expiryTime) : "");
+            if (pendingUpdate.pendingSince > 0) {
+                oldestUpdateTime = Math.min(oldestUpdateTime, pendingUpdate.pendingSince);
+            }
+        }
+        long startTime = System.currentTimeMillis();
+        List<Long> values;
+        try {
+            values = counterStore.apply(keys, args);
+        } catch (RuntimeException e) {
+            log.error("Error while flushing " + keys.size() + " throttle counters to Redis", e);
+            failedFlushCount.incrementAndGet();
+            for (PendingUpdate pendingUpdate : pendingUpdates) {
+                pendingUpdate.counter.restore(pendingUpdate);
+            }
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < pendingUpdates.size(); i++) {
+            PendingUpdate pendingUpdate = pendingUpdates.get(i);
+            pendingUpdate.counter.refresh(values.get(i), now);
+        }
+        flushCount.incrementAndGet();
+        flushedKeyCount.addAndGet(keys.size());
+        long flushLag = oldestUpdateTime == Long.MAX_VALUE ? 0 : now - oldestUpdateTime;
+        updateFlushMetrics(keys.size(), flushLag);
+        if (log.isDebugEnabled()) {
+            log.debug("Flushed " + keys.size() + " throttle counters to Redis in " + (now - startTime)
+                    + " ms with a lag of " + flushLag + " ms");
+        }
+    }
+
+    /**
+     * Deletes a key from Redis after the flush of the key which is in flight, if any. Updates made while the key is
+     * being deleted are flushed after the deletion.
+     */
+    private void remove(String key) {
+
+        Counter counter = update(key, c -> c.awaitFlush() ? c.clear() : null);
+        if (counter == null) {
+            return;
+        }
+        boolean deleted = false;
+        try {
+            counterStore.delete(key);
+            deleted = true;
+        } finally {
+            if (deleted) {
+                counter.refresh(0, System.currentTimeMillis());
+            } else {
+                counter.endFlush();
+            }
+        }
+    }
+
+    /**
+     * Applies an operation to the counter of a key, retrying with a new counter if the counter was evicted by a
+     * concurrent flush.
+     */
+    private <T> T update(String key, Function<Counter, T> operation) {
+
+        while (true) {
+            Counter counter = counters.computeIfAbsent(key, k -> new Counter());
+            synchronized (counter) {
+                if (!counter.evicted) {
+                    counter.lastAccessTime = System.currentTimeMillis();
+                    return operation.apply(counter);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores counters in Redis.
+     */
+    public interface CounterStore {
+
+        /**
+         * Applies the updates of a flush atomically, as done by {@link #APPLY_UPDATES_SCRIPT}.
+         *
+         * @param keys keys to update
+         * @param args value to set, value to increment by and expiry time of each key
+         * @return values of the keys after the updates
+         */
+        List<Long> apply(List<String> keys, List<String> args);
+
+        /**
+         * Deletes a key.
+         *
+         * @param key key to delete
+         */
+        void delete(String key);
+    }
+
+    /**
+     * Counter store which applies the updates through the Lua script loaded to Redis.
+     */
+    static class JedisCounterStore implements CounterStore {
+
+        private final JedisPool redisPool;
+        private volatile String scriptSha;
+
+        JedisCounterStore(JedisPool redisPool) {
+
+            this.redisPool = redisPool;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<Long> apply(List<String> keys, List<String> args) {
+
+            try (Jedis jedis = redisPool.getResource()) {
+                if (scriptSha == null) {
+                    scriptSha = jedis.scriptLoad(APPLY_UPDATES_SCRIPT);
+                }
+                try {
+                    return (List<Long>) jedis.evalsha(scriptSha, keys, args);
+                } catch (JedisNoScriptException e) {
+                    // Scripts are lost when Redis restarts
+                    scriptSha = jedis.scriptLoad(APPLY_UPDATES_SCRIPT);
+                    return (List<Long>) jedis.evalsha(scriptSha, keys, args);
+                }
+            }
+        }
+
+        @Override
+        public void delete(String key) {
+
+            try (Jedis jedis = redisPool.getResource()) {
+                jedis.del(key);
+            }
+        }
+    }
+
+    /**
+     * Local approximate value of a key along with the updates which are not yet flushed to Redis. Guarded by its own
+     * monitor.
+     */
+    private static final class Counter {
+
+        private long value;
+        private boolean known;
+        private long refreshedTime;
+        private long expiryTime;
+        private long lastAccessTime;
+        private boolean evicted;
+        // Whether a flush or a removal of the counter is in flight
+        private boolean flushing;
+        private Long pendingValue;
+        private long pendingDelta;
+        private Long pendingExpiryTime;
+        private int pendingIncrements;
+        private long pendingSince;
+
+        private long getValue() {
+
+            if (pendingValue != null) {
+                return pendingValue + pendingDelta;
+            }
+            boolean expired = expiryTime > 0 && System.currentTimeMillis() >= expiryTime;
+            return (expired ? 0 : value) + pendingDelta;
+        }
+
+        private void increment(long delta) {
+
+            markPending();
+            pendingDelta += delta;
+            pendingIncrements++;
+        }
+
+        private void set(long newValue) {
+
+            markPending();
+            // Setting a key discards its increments and expiry time
+            pendingValue = newValue;
+            pendingDelta = 0;
+            pendingExpiryTime = null;
+            expiryTime = 0;
+        }
+
+        private void expire(long newExpiryTime) {
+
+            markPending();
+            pendingExpiryTime = newExpiryTime;
+            expiryTime = newExpiryTime;
+        }
+
+        private void markPending() {
+
+            if (pendingSince == 0) {
+                pendingSince = System.currentTimeMillis();
+            }
+        }
+
+        private boolean hasPendingUpdates() {
+
+            return pendingValue != null || pendingDelta != 0 || pendingExpiryTime != null;
+        }
+
+        private PendingUpdate drain(String key) {
+
+            PendingUpdate pendingUpdate = new PendingUpdate(key, this, pendingValue, pendingDelta,
+                    pendingExpiryTime, pendingIncrements, pendingSince, value, known);
+            // Until the flush completes, the value is estimated as if the updates were applied
+            value = getValue();
+            pendingValue = null;
+            pendingDelta = 0;
+            pendingExpiryTime = null;
+            pendingIncrements = 0;
+            pendingSince = 0;
+            flushing = true;
+            return pendingUpdate;
+        }
+
+        /**
+         * Waits until the flush of the counter which is in flight completes. Must be called holding the monitor of
+         * the counter.
+         *
+         * @return false if the thread was interrupted while waiting
+         */
+        private boolean awaitFlush() {
+
+            while (flushing) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Discards the value and the pending updates of the counter and marks it as being removed.
+         */
+        private Counter clear() {
+
+            value = 0;
+            known = false;
+            expiryTime = 0;
+            pendingValue = null;
+            pendingDelta = 0;
+            pendingExpiryTime = null;
+            pendingIncrements = 0;
+            pendingSince = 0;
+            flushing = true;
+            return this;
+        }
+
+        private synchronized void endFlush() {
+
+            flushing = false;
+            notifyAll();
+        }
+
+        private synchronized void refresh(long newValue, long now) {
+
+            value = newValue;
+            known = true;
+            refreshedTime = now;
+            endFlush();
+        }
+
+        private synchronized void restore(PendingUpdate pendingUpdate) {
+
+            endFlush();
+            value = pendingUpdate.previousValue;
+            known = pendingUpdate.previouslyKnown;
+            if (pendingValue != null) {
+                // The key was set again after the updates were drained, which discards them
+                return;
+            }
+            if (pendingUpdate.value != null) {
+                pendingValue = pendingUpdate.value;
+            }
+            pendingDelta += pendingUpdate.delta;
+            pendingIncrements += pendingUpdate.increments;
+            if (pendingExpiryTime == null) {
+                pendingExpiryTime = pendingUpdate.expiryTime;
+            }
+            if (pendingUpdate.pendingSince > 0) {
+                pendingSince = pendingSince == 0 ? pendingUpdate.pendingSince :
+                        Math.min(pendingSince, pendingUpdate.pendingSince);
+            }
+        }
+    }
+
+    /**
+     * Updates of a key drained from its counter to be flushed.
+     */
+    private static final class PendingUpdate {
+
+        private final String key;
+        private final Counter counter;
+        private final Long value;
+        private final long delta;
+        private final Long expiryTime;
+        private final int increments;
+        private final long pendingSince;
+        private final long previousValue;
+        private final boolean previouslyKnown;
+
+        private PendingUpdate(String key, Counter counter, Long value, long delta, Long expiryTime, int increments,
+                              long pendingSince, long previousValue, boolean previouslyKnown) {
+
+            this.key = key;
+            this.counter = counter;
+            this.value = value;
+            this.delta = delta;
+            this.expiryTime = expiryTime;
+            this.increments = increments;
+            this.pendingSince = pendingSince;
+            this.previousValue = previousValue;
+            this.previouslyKnown = previouslyKnown;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.dto.ArtifactManifestEntryDto;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persists the runtime artifacts a gateway retrieved for a tenant and a set of gateway labels, so that only the
+ * artifacts of changed APIs need to be retrieved again after a restart.
+ * <p>
+ * The artifacts of each API are kept in a file of their own and a manifest file records the revision and the
+ * fingerprint each file was retrieved for, along with a checksum of the file. Files are written to a temporary file
+ * first and moved in place, and a file whose checksum does not match is treated as missing. Not thread safe.
+ */
+public class RuntimeArtifactCache {
+
+    private static final Log log = LogFactory.getLog(RuntimeArtifactCache.class);
+    private static final String MANIFEST_FILE = "manifest.json";
+    private static final String ARTIFACT_FILE_EXTENSION = ".json";
+    private static final Type MANIFEST_TYPE = new TypeToken<List<CacheEntry>>() {
+    }.getType();
+    private static final Type ARTIFACTS_TYPE = new TypeToken<List<String>>() {
+    }.getType();
+
+    private final Path directory;
+    private final Gson gson = new Gson();
+    private final Map<String, CacheEntry> entries = new LinkedHashMap<>();
+
+    public RuntimeArtifactCache(Path directory) {
+
+        this.directory = directory;
+        load();
+    }
+
+    /**
+     * Returns the APIs whose artifacts are cached, without the artifacts.
+     */
+    public List<ArtifactManifestEntryDto> getManifest() {
+
+        List<ArtifactManifestEntryDto> manifest = new ArrayList<>(entries.size());
+        for (CacheEntry entry : entries.values()) {
+            manifest.add(new ArtifactManifestEntryDto(entry.apiId, entry.revisionId, entry.hash));
+        }
+        return manifest;
+    }
+
+    /**
+     * Reads the cached artifacts of an API.
+     *
+     * @param apiId UUID of the API
+     * @return artifacts of the API or null if they are not cached or the cached file is corrupted
+     */
+    public List<String> getArtifacts(String apiId) {
+
+        CacheEntry entry = entries.get(apiId);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            byte[] content = Files.readAllBytes(getArtifactFile(apiId));
+            if (!DigestUtils.sha256Hex(content).equals(entry.checksum)) {
+                log.warn("Checksum mismatch in the cached runtime artifacts of API " + apiId);
+                entries.remove(apiId);
+                return null;
+            }
+            return gson.fromJson(new String(content, StandardCharsets.UTF_8), ARTIFACTS_TYPE);
+        } catch (IOException | JsonParseException e) {
+            log.warn("Error while reading the cached runtime artifacts of API " + apiId, e);
+            entries.remove(apiId);
+            return null;
+        }
+    }
+
+    /**
+     * Caches the artifacts of an API, replacing any artifacts cached for it before.
+     *
+     * @param manifestEntry API along with its artifacts
+     * @throws IOException if the artifacts could not be written
+     */
+    public void put(ArtifactManifestEntryDto manifestEntry) throws IOException {
+
+        byte[] content = gson.toJson(manifestEntry.getArtifacts()).getBytes(StandardCharsets.UTF_8);
+        Files.createDirectories(directory);
+        write(getArtifactFile(manifestEntry.getApiId()), content);
+        CacheEntry entry = new CacheEntry();
+        entry.apiId = manifestEntry.getApiId();
+        entry.revisionId = manifestEntry.getRevisionId();
+        entry.hash = manifestEntry.getHash();
+        entry.checksum = DigestUtils.sha256Hex(content);
+        entries.put(entry.apiId, entry);
+    }
+
+    public void remove(String apiId) {
+
+        entries.remove(apiId);
+        deleteArtifactFile(apiId);
+    }
+
+    /**
+     * Removes the cached artifacts of all the APIs except the given ones.
+     */
+    public void retainAll(Collection<String> apiIds) {
+
+        for (Iterator<String> iterator = entries.keySet().iterator(); iterator.hasNext(); ) {
+            String apiId = iterator.next();
+            if (!apiIds.contains(apiId)) {
+                iterator.remove();
+                deleteArtifactFile(apiId);
+            }
+        }
+    }
+
+    /**
+     * Writes the manifest so that the cached artifacts are picked up after a restart.
+     *
+     * @throws IOException if the manifest could not be written
+     */
+    public void save() throws IOException {
+
+        Files.createDirectories(directory);
+        write(directory.resolve(MANIFEST_FILE),
+                gson.toJson(new ArrayList<>(entries.values()), MANIFEST_TYPE).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void load() {
+
+        Path manifestFile = directory.resolve(MANIFEST_FILE);
+        if (!Files.exists(manifestFile)) {
+            return;
+        }
+        try {
+            List<CacheEntry> cacheEntries = gson.fromJson(
+                    new String(Files.readAllBytes(manifestFile), StandardCharsets.UTF_8), MANIFEST_TYPE);
+            if (cacheEntries != null) {
+                for (CacheEntry entry : cacheEntries) {
+                    if (entry != null && entry.apiId != null && Files.exists(getArtifactFile(entry.apiId))) {
+                        entries.put(entry.apiId, entry);
+                    }
+                }
+            }
+        } catch (IOException | JsonParseException e) {
+            log.warn("Error while reading the runtime artifact cache at " + directory + ". Ignoring the cache", e);
+            entries.clear();
+        }
+    }
+
+    private Path getArtifactFile(String apiId) {
+
+        return directory.resolve(DigestUtils.sha256Hex(apiId) + ARTIFACT_FILE_EXTENSION);
+    }
+
+    private void deleteArtifactFile(String apiId) {
+
+        try {
+            Files.deleteIfExists(getArtifactFile(apiId));
+        } catch (IOException e) {
+            log.warn("Error while deleting the cached runtime artifacts of API " + apiId, e);
+        }
+    }
+
+    private void write(Path file, byte[] content) throws IOException {
+
+        Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tempFile, content);
+            try {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static class CacheEntry {
+
+        private String apiId;
+        private String revisionId;
+        private String hash;
+        private String checksum;
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway;
+
+import com.google.gson.Gson;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.api.gateway.GatewayAPIDTO;
+import org.wso2.carbon.apimgt.api.gateway.GatewayContentDTO;
+import org.wso2.carbon.apimgt.gateway.listeners.ArtifactsRetrieverThreadFactory;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.ArtifactRetriever;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.exception.ArtifactSynchronizerException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deploys all the runtime artifacts of a tenant at gateway startup.
+ * <p>
+ * Artifacts are streamed from the {@link ArtifactRetriever} page by page and decoded and deployed on a bounded worker
+ * pool while the remaining pages are still being retrieved. APIs which do not share any local entry, endpoint or
+ * sequence are deployed in parallel. Artifacts which share one are deployed one after the other in the order they
+ * were retrieved, so the last retrieved definition of a shared entry is the one that remains deployed.
+ */
+public class StartupArtifactDeployer {
+
+    private static final Log log = LogFactory.getLog(StartupArtifactDeployer.class);
+
+    private final String tenantDomain;
+    private final int parallelism;
+    private final int pageSize;
+    private final ArtifactDeployer artifactDeployer;
+    private final Gson gson = new Gson();
+
+    private final LongAdder decodeTime = new LongAdder();
+    private final LongAdder deployTime = new LongAdder();
+    private final AtomicInteger retrievedCount = new AtomicInteger();
+    private final AtomicInteger deployedCount = new AtomicInteger();
+    private final AtomicInteger failedCount = new AtomicInteger();
+
+    /**
+     * Deploys a single decoded artifact. Invoked concurrently from the worker threads.
+     */
+    public interface ArtifactDeployer {
+
+        void deploy(GatewayAPIDTO gatewayAPIDTO) throws Exception;
+    }
+
+    /**
+     * @param tenantDomain     tenant domain of the artifacts, used for logging
+     * @param parallelism      number of worker threads used to decode and deploy the artifacts
+     * @param pageSize         number of artifacts retrieved at once, this also bounds the number of artifacts which
+     *                         are held in memory while waiting to be deployed
+     * @param artifactDeployer deploys a decoded artifact
+     */
+    public StartupArtifactDeployer(String tenantDomain, int parallelism, int pageSize,
+                                   ArtifactDeployer artifactDeployer) {
+
+        this.tenantDomain = tenantDomain;
+        this.parallelism = Math.max(1, parallelism);
+        this.pageSize = Math.max(1, pageSize);
+        this.artifactDeployer = artifactDeployer;
+    }
+
+    /**
+     * Retrieves and deploys all the artifacts of the given gateway label and waits until all of them are processed.
+     *
+     * @param artifactRetriever retriever to stream the artifacts from
+     * @param gatewayLabel      encoded gateway label
+     * @return true if there were no artifacts to deploy or if at least one of them was deployed
+     * @throws ArtifactSynchronizerException if the artifacts could not be retrieved
+     */
+    public boolean deploy(ArtifactRetriever artifactRetriever, String gatewayLabel)
+            throws ArtifactSynchronizerException {
+
+        long startTime = System.nanoTime();
+        ExecutorService executorService = Executors.newFixedThreadPool(parallelism,
+                new ArtifactsRetrieverThreadFactory());
+        Pipeline pipeline = new Pipeline(executorService);
+        long retrievalTime;
+        try {
+            artifactRetriever.retrieveAllArtifacts(gatewayLabel, tenantDomain, pageSize, pipeline::submit);
+            retrievalTime = System.nanoTime() - startTime;
+            pipeline.awaitCompletion();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ArtifactSynchronizerException("Interrupted while deploying artifacts of tenant "
+                    + tenantDomain, e);
+        } finally {
+            awaitTermination(executorService);
+        }
+        long totalTime = System.nanoTime() - startTime;
+        logStatistics(retrievalTime, totalTime);
+        int retrieved = retrievedCount.get();
+        return retrieved == 0 || failedCount.get() < retrieved;
+    }
+
+    /**
+     * Shuts down the worker pool and waits for the deployments which were already handed to it. Deployments are not
+     * interrupted, even when the retrieval failed, so that no artifact is left partially deployed.
+     */
+    private void awaitTermination(ExecutorService executorService) {
+
+        executorService.shutdown();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getRetrievedCount() {
+
+        return retrievedCount.get();
+    }
+
+    public int getDeployedCount() {
+
+        return deployedCount.get();
+    }
+
+    public int getFailedCount() {
+
+        return failedCount.get();
+    }
+
+    private void logStatistics(long retrievalTime, long totalTime) {
+
+        long totalMillis = TimeUnit.NANOSECONDS.toMillis(totalTime);
+        double throughput = totalMillis > 0 ? deployedCount.get() * 1000.0 / totalMillis : deployedCount.get();
+        log.info(String.format("Deployed %d of %d artifacts of tenant %s in %d ms (%.1f artifacts/s) using %d "
+                        + "workers. Retrieval: %d ms, decode: %d ms, deploy: %d ms",
+                deployedCount.get(), retrievedCount.get(), tenantDomain, totalMillis, throughput, parallelism,
+                TimeUnit.NANOSECONDS.toMillis(retrievalTime), TimeUnit.NANOSECONDS.toMillis(decodeTime.sum()),
+                TimeUnit.NANOSECONDS.toMillis(deployTime.sum())));
+    }
+
+    private GatewayAPIDTO decode(String runtimeArtifact) {
+
+        long start = System.nanoTime();
+        try {
+            if (StringUtils.isEmpty(runtimeArtifact)) {
+                return null;
+            }
+            return gson.fromJson(runtimeArtifact, GatewayAPIDTO.class);
+        } catch (RuntimeException e) {
+            log.error("Error while decoding a runtime artifact of tenant " + tenantDomain, e);
+            failedCount.incrementAndGet();
+            return null;
+        } finally {
+            decodeTime.add(System.nanoTime() - start);
+        }
+    }
+
+    private void deployArtifact(GatewayAPIDTO gatewayAPIDTO) {
+
+        long start = System.nanoTime();
+        try {
+            log.info("Deploying synapse artifacts of " + gatewayAPIDTO.getName());
+            artifactDeployer.deploy(gatewayAPIDTO);
+            deployedCount.incrementAndGet();
+        } catch (Exception e) {
+            log.error("Error in deploying " + gatewayAPIDTO.getName() + " to the Gateway ", e);
+            failedCount.incrementAndGet();
+        } finally {
+            deployTime.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the names of the synapse artifacts an API deploys besides the API itself. Deployments sharing any of
+     * these are ordered.
+     */
+    static Set<String> getSharedArtifactKeys(GatewayAPIDTO gatewayAPIDTO) {
+
+        Set<String> keys = new LinkedHashSet<>();
+        addKeys(keys, "localEntry:", gatewayAPIDTO.getLocalEntriesToBeAdd());
+        addKeys(keys, "endpoint:", gatewayAPIDTO.getEndpointEntriesToBeAdd());
+        addKeys(keys, "sequence:", gatewayAPIDTO.getSequenceToBeAdd());
+        if (gatewayAPIDTO.getApiId() != null) {
+            keys.add("api:" + gatewayAPIDTO.getApiId());
+        }
+        return keys;
+    }
+
+    private static void addKeys(Set<String> keys, String prefix, GatewayContentDTO[] contents) {
+
+        if (contents != null) {
+            for (GatewayContentDTO content : contents) {
+                if (content != null && content.getName() != null) {
+                    keys.add(prefix + content.getName());
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes the artifacts in parallel and schedules their deployments in retrieval order. Scheduling only links an
+     * artifact's deployment to the last deployment of each of its shared keys, so it is cheap and runs as a chain of
+     * completion stages without blocking any worker.
+     */
+    private class Pipeline {
+
+        private final ExecutorService executorService;
+        private final Semaphore inFlight;
+        // Only accessed from the scheduling stages, which run one after the other
+        private final Map<String, CompletableFuture<Void>> lastDeploymentByKey = new HashMap<>();
+        private final List<CompletableFuture<Void>> pendingDeployments = new ArrayList<>();
+        private CompletableFuture<Void> scheduled = CompletableFuture.completedFuture(null);
+
+        private Pipeline(ExecutorService executorService) {
+
+            this.executorService = executorService;
+            this.inFlight = new Semaphore(pageSize);
+        }
+
+        private void submit(List<String> page) {
+
+            for (String runtimeArtifact : page) {
+                try {
+                    inFlight.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for deployments to complete", e);
+                }
+                retrievedCount.incrementAndGet();
+                CompletableFuture<GatewayAPIDTO> decoded =
+                        CompletableFuture.supplyAsync(() -> decode(runtimeArtifact), executorService);
+                scheduled = scheduled.thenCombine(decoded, (ignored, gatewayAPIDTO) -> {
+                    try {
+                        schedule(gatewayAPIDTO);
+                    } catch (RuntimeException e) {
+                        // Keep the scheduling chain alive, otherwise the retrieval would wait for permits forever
+                        log.error("Error while scheduling the deployment of a runtime artifact of tenant "
+                                + tenantDomain, e);
+                        failedCount.incrementAndGet();
+                        inFlight.release();
+                    }
+                    return null;
+                });
+            }
+        }
+
+        private void schedule(GatewayAPIDTO gatewayAPIDTO) {
+
+            if (gatewayAPIDTO == null) {
+                inFlight.release();
+                return;
+            }
+            Set<String> keys = getSharedArtifactKeys(gatewayAPIDTO);
+            List<CompletableFuture<Void>> dependencies = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                CompletableFuture<Void> previous = lastDeploymentByKey.get(key);
+                if (previous != null && !previous.isDone()) {
+                    dependencies.add(previous);
+                }
+            }
+            CompletableFuture<Void> deployment = CompletableFuture
+                    .allOf(dependencies.toArray(new CompletableFuture[0]))
+                    .thenRunAsync(() -> {
+                        try {
+                            deployArtifact(gatewayAPIDTO);
+                        } finally {
+                            inFlight.release();
+                        }
+                    }, executorService);
+            for (String key : keys) {
+                lastDeploymentByKey.put(key, deployment);
+            }
+            lastDeploymentByKey.values().removeIf(CompletableFuture::isDone);
+            pendingDeployments.removeIf(CompletableFuture::isDone);
+            pendingDeployments.add(deployment);
+        }
+
+        private void awaitCompletion() throws InterruptedException, ArtifactSynchronizerException {
+
+            try {
+                scheduled.get();
+                CompletableFuture.allOf(pendingDeployments.toArray(new CompletableFuture[0])).get();
+            } catch (ExecutionException e) {
+                throw new ArtifactSynchronizerException("Error while deploying artifacts of tenant "
+                        + tenantDomain, e.getCause());
+            }
+        }
+    }
+}
@@ -63,11 +63,9 @@ public class WebsocketHandler extends CombinedChannelDuplexHandler<WebsocketInbo
                     System.currentTimeMillis());
         }
         String channelId = ctx.channel().id().asLongText();
-        InboundMessageContext inboundMessageContext;
-        if (InboundMessageContextDataHolder.getInstance().getInboundMessageContextMap().containsKey(channelId)) {
-            inboundMessageContext = InboundMessageContextDataHolder.getInstance()
-                    .getInboundMessageContextForConnectionId(channelId);
-        } else {
+        InboundMessageContext inboundMessageContext = InboundMessageContextDataHolder.getInstance()
+                .getInboundMessageContextForConnectionId(channelId);
+        if (inboundMessageContext == null) {
             inboundMessageContext = new InboundMessageContext();
             inboundMessageContext.setCtx(ctx);
             InboundMessageContextDataHolder.getInstance()
@@ -91,7 +89,7 @@ public class WebsocketHandler extends CombinedChannelDuplexHandler<WebsocketInbo
                 handleSubscribeFrameErrorEvent(ctx,responseDTO);
             }
             //remove inbound message context from data holder
-            InboundMessageContextDataHolder.getInstance().getInboundMessageContextMap().remove(channelId);
+            InboundMessageContextDataHolder.getInstance().removeInboundMessageContextForConnection(channelId);
             //if the inbound frame is a closed frame, throttling, analytics will not be published.
             outboundHandler().write(ctx, msg, promise);
         } else if (msg instanceof PongWebSocketFrame || msg instanceof PingWebSocketFrame) {
@@ -100,7 +98,15 @@ public class WebsocketHandler extends CombinedChannelDuplexHandler<WebsocketInbo
         } else if (msg instanceof WebSocketFrame) {
             InboundProcessorResponseDTO responseDTO = inboundHandler().getWebSocketProcessor().handleResponse(
                     (WebSocketFrame) msg, inboundMessageContext);
-            if (responseDTO.isError()) {
+            if (responseDTO.isDropFrame()) {
+                // Release WebsocketFrame
+                ReferenceCountUtil.release(msg);
+                promise.trySuccess();
+                if (log.isDebugEnabled()) {
+                    log.debug(channelId + " -- Websocket API request [outbound] : Dropped Outbound Websocket frame. "
+                            + ctx.channel().toString());
+                }
+            } else if (responseDTO.isError()) {
                 // Release WebsocketFrame
                 ReferenceCountUtil.release(msg);
                 if (responseDTO.isCloseConnection()) {
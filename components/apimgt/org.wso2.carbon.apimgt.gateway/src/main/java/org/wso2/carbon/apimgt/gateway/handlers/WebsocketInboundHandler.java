@@ -103,9 +103,7 @@ public class WebsocketInboundHandler extends ChannelInboundHandlerAdapter {
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
         String channelId = ctx.channel().id().asLongText();
-        if (InboundMessageContextDataHolder.getInstance().getInboundMessageContextMap().containsKey(channelId)) {
-            InboundMessageContextDataHolder.getInstance().removeInboundMessageContextForConnection(channelId);
-        }
+        InboundMessageContextDataHolder.getInstance().removeInboundMessageContextForConnection(channelId);
         super.channelInactive(ctx);
     }
 
@@ -129,11 +127,9 @@ public class WebsocketInboundHandler extends ChannelInboundHandlerAdapter {
             return;
         }
 
-        InboundMessageContext inboundMessageContext;
-        if (InboundMessageContextDataHolder.getInstance().getInboundMessageContextMap().containsKey(channelId)) {
-            inboundMessageContext = InboundMessageContextDataHolder.getInstance()
-                    .getInboundMessageContextForConnectionId(channelId);
-        } else {
+        InboundMessageContext inboundMessageContext = InboundMessageContextDataHolder.getInstance()
+                .getInboundMessageContextForConnectionId(channelId);
+        if (inboundMessageContext == null) {
             inboundMessageContext = new InboundMessageContext();
             inboundMessageContext.setCtx(ctx);
             InboundMessageContextDataHolder.getInstance()
@@ -217,7 +213,7 @@ public class WebsocketInboundHandler extends ChannelInboundHandlerAdapter {
             }
         } else if (msg instanceof CloseWebSocketFrame) {
             //remove inbound message context from data holder
-            InboundMessageContextDataHolder.getInstance().getInboundMessageContextMap().remove(channelId);
+            InboundMessageContextDataHolder.getInstance().removeInboundMessageContextForConnection(channelId);
             //if the inbound frame is a closed frame, throttling, analytics will not be published.
             ctx.fireChannelRead(msg);
         } else if (msg instanceof PingWebSocketFrame || msg instanceof PongWebSocketFrame) {
@@ -231,7 +227,7 @@ public class WebsocketInboundHandler extends ChannelInboundHandlerAdapter {
                 ReferenceCountUtil.release(msg);
                 if (responseDTO.isCloseConnection()) {
                     //remove inbound message context from data holder
-                    InboundMessageContextDataHolder.getInstance().getInboundMessageContextMap().remove(channelId);
+                    InboundMessageContextDataHolder.getInstance().removeInboundMessageContextForConnection(channelId);
                     Attribute<Object> attributes = ctx.channel().attr(AttributeKey.valueOf(API_PROPERTIES));
                     if (attributes != null) {
                         try {
@@ -21,11 +21,9 @@ import graphql.language.Definition;
 import graphql.language.Document;
 import graphql.language.OperationDefinition;
 import graphql.parser.InvalidSyntaxException;
-import graphql.parser.Parser;
 import graphql.schema.GraphQLFieldDefinition;
 import graphql.schema.GraphQLObjectType;
 import graphql.schema.GraphQLType;
-import graphql.validation.Validator;
 import org.apache.axiom.om.OMElement;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -38,7 +36,8 @@ import org.apache.synapse.rest.AbstractHandler;
 import org.apache.synapse.transport.passthru.util.RelayUtils;
 import org.wso2.carbon.apimgt.common.gateway.constants.GraphQLConstants;
 import org.wso2.carbon.apimgt.api.gateway.GraphQLSchemaDTO;
-import org.wso2.carbon.apimgt.common.gateway.graphql.QueryValidator;
+import org.wso2.carbon.apimgt.common.gateway.graphql.GraphQLQueryCache;
+import org.wso2.carbon.apimgt.common.gateway.graphql.ParsedQuery;
 import org.wso2.carbon.apimgt.gateway.handlers.Utils;
 import org.wso2.carbon.apimgt.common.gateway.graphql.GraphQLProcessorUtil;
 import org.wso2.carbon.apimgt.gateway.internal.DataHolder;
@@ -66,12 +65,6 @@ public class GraphQLAPIHandler extends AbstractHandler {
     private static final Log log = LogFactory.getLog(GraphQLAPIHandler.class);
     private GraphQLSchemaDTO graphQLSchemaDTO;
     private String apiUUID;
-    private QueryValidator queryValidator;
-
-    public GraphQLAPIHandler() {
-
-        queryValidator = new QueryValidator(new Validator());
-    }
 
     public String getApiUUID() {
 
@@ -92,7 +85,6 @@ public class GraphQLAPIHandler extends AbstractHandler {
                 return true;
             }
             String payload;
-            Parser parser = new Parser();
             org.apache.axis2.context.MessageContext axis2MC = ((Axis2MessageContext) messageContext).
                     getAxis2MessageContext();
             String requestPath = messageContext.getProperty(REST_SUB_REQUEST_PATH).toString();
@@ -120,10 +112,15 @@ public class GraphQLAPIHandler extends AbstractHandler {
                 return false;
             }
 
-            // Validate payload with graphQLSchema
-            Document document = parser.parseDocument(payload);
+            // Get GraphQL schema data from gateway internal data holder
+            graphQLSchemaDTO = DataHolder.getInstance().getApiToGraphQLSchemaDTOMap().get(apiUUID);
+            // Repeated queries are parsed and validated once and shared with the query analysis handler
+            ParsedQuery parsedQuery = GraphQLQueryCache.getInstance(graphQLSchemaDTO.getGraphQLSchema())
+                    .getQuery(payload);
+            Document document = parsedQuery.getDocument();
 
-            if (validatePayloadWithSchema(messageContext, document)) {
+            // Validate payload with graphQLSchema
+            if (validatePayloadWithSchema(messageContext, parsedQuery)) {
                 supportForBasicAndAuthentication(messageContext);
 
                 // Extract the operation type and operations from the payload
@@ -260,15 +257,12 @@ public class GraphQLAPIHandler extends AbstractHandler {
      * This method validate the payload
      *
      * @param messageContext message context of the request
-     * @param document       graphQL schema of the request
+     * @param parsedQuery    parsed graphQL query of the request
      * @return true or false
      */
-    private boolean validatePayloadWithSchema(MessageContext messageContext, Document document) {
+    private boolean validatePayloadWithSchema(MessageContext messageContext, ParsedQuery parsedQuery) {
 
-        String validationErrorMessage;
-        // Get GraphQL schema data from gateway internal data holder
-        graphQLSchemaDTO = DataHolder.getInstance().getApiToGraphQLSchemaDTOMap().get(apiUUID);
-        validationErrorMessage = queryValidator.validatePayload(graphQLSchemaDTO.getGraphQLSchema(), document);
+        String validationErrorMessage = parsedQuery.getValidationErrorMessage();
         if (validationErrorMessage != null) {
             handleFailure(messageContext, validationErrorMessage);
             return false;
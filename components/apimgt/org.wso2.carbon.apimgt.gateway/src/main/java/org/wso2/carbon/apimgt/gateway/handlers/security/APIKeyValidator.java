@@ -82,6 +82,8 @@ public class APIKeyValidator {
 
     private ArrayList<URITemplate> uriTemplates = null;
 
+    private volatile APIResourceTrie apiResourceTrie;
+
     public APIKeyValidator() {
 
         this.dataStore = new WSAPIKeyDataStore();
@@ -312,7 +314,6 @@ public class APIKeyValidator {
     public List<VerbInfoDTO> findMatchingVerb(MessageContext synCtx) throws ResourceNotFoundException, APISecurityException {
 
         List<VerbInfoDTO>  verbInfoList =  new ArrayList<>();
-        String resourceCacheKey;
         String httpMethod = (String) ((Axis2MessageContext) synCtx).getAxis2MessageContext().
                 getProperty(Constants.Configuration.HTTP_METHOD);
         String apiContext = (String) synCtx.getProperty(RESTConstants.REST_API_CONTEXT);
@@ -340,38 +341,11 @@ public class APIKeyValidator {
         synCtx.setProperty(RESTConstants.REST_SUB_REQUEST_PATH, requestPath);
 
 
-        //This function is used by more than one handler. If on one execution of this function, it has found and placed
-        //the matching verb in the cache, the same can be re-used from all handlers since all handlers share the same
-        //MessageContext. The API_RESOURCE_CACHE_KEY property will be set in the MessageContext to indicate that the
-        //verb has been put into the cache.
-        if (resourceArray != null) {
-            for (String resourceString : resourceArray) {
-                VerbInfoDTO verbInfo;
-                if (isGatewayAPIResourceValidationEnabled) {
-                    String apiCacheKey = APIUtil.getAPIInfoDTOCacheKey(apiContext, apiVersion);
-                    if (!getResourceCache().containsKey(apiCacheKey)) {
-                        break;
-                    }
-                    resourceCacheKey = APIUtil.getResourceInfoDTOCacheKey(apiContext, apiVersion,
-                            resourceString, httpMethod);
-                    verbInfo = (VerbInfoDTO) getResourceCache().get(resourceCacheKey);
-                    //Cache hit
-                    if (verbInfo != null) {
-                        if (log.isDebugEnabled()) {
-                            log.debug("Found resource in Cache for key: " + resourceCacheKey);
-                        }
-                        verbInfoList.add(verbInfo);
-                    } else {
-                        if (log.isDebugEnabled()) {
-                            log.debug("Resource not found in cache for key: " + resourceCacheKey);
-                        }
-                    }
-                }
-            }
-            if (resourceArray.size() == verbInfoList.size()) {
-                return verbInfoList;
-            }
-        } else {
+        //This function is used by more than one handler. The verbs are resolved through the resource trie of the API,
+        //which is built once and reused by all the handlers sharing this validator. The API_RESOURCE_CACHE_KEY
+        //property will be set in the MessageContext to the resource key of the matched verb.
+        boolean isDispatched = false;
+        if (resourceArray == null) {
             API selectedApi = Utils.getSelectedAPI(synCtx);
             Resource selectedResource = null;
             String resourceString;
@@ -409,9 +383,7 @@ public class APIKeyValidator {
 
             resourceString = selectedResource.getDispatcherHelper().getString();
             resourceArray = new ArrayList<>(Arrays.asList(resourceString));
-            resourceCacheKey = APIUtil.getResourceInfoDTOCacheKey(apiContext, apiVersion, resourceString, httpMethod);
-            synCtx.setProperty(APIConstants.API_ELECTED_RESOURCE, resourceString);
-            synCtx.setProperty(APIConstants.API_RESOURCE_CACHE_KEY, resourceCacheKey);
+            isDispatched = true;
             synCtx.setProperty(APIConstants.REST_METHOD, httpMethod);
 
             if (log.isDebugEnabled()) {
@@ -419,77 +391,71 @@ public class APIKeyValidator {
             }
             //Set the elected resource
             synCtx.setProperty(APIConstants.API_ELECTED_RESOURCE, resourceString);
-            if (isGatewayAPIResourceValidationEnabled) {
-                VerbInfoDTO verbInfo;
-                verbInfo = (VerbInfoDTO) getResourceCache().get(resourceCacheKey);
-                //Cache hit
-                if (verbInfo != null) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Got Resource from cache for key: " + resourceCacheKey);
-                    }
-                    verbInfoList.add(verbInfo);
-                    return verbInfoList;
-                } else if (log.isDebugEnabled()) {
-                    log.debug("Cache miss for Resource for key: " + resourceCacheKey);
-                }
-            }
         }
 
-        String apiCacheKey = APIUtil.getAPIInfoDTOCacheKey(apiContext, apiVersion);
-        APIInfoDTO apiInfoDTO = null;
-
-        if (isGatewayAPIResourceValidationEnabled) {
-            apiInfoDTO = (APIInfoDTO) getResourceCache().get(apiCacheKey);
+        APIResourceTrie apiResourceTrie = getAPIResourceTrie(synCtx, apiContext, apiVersion);
+        String resourceCacheKey = null;
+        for (APIResourceTrie.Match match : apiResourceTrie.match(resourceArray, httpMethod)) {
+            VerbInfoDTO verb = match.getVerbInfoDTO();
+            resourceCacheKey = match.getRequestKey();
+            verb.setRequestKey(resourceCacheKey);
+            verbInfoList.add(verb);
+        }
+        if (resourceCacheKey != null && (isDispatched || isGatewayAPIResourceValidationEnabled)) {
+            //Set cache key in the message context so that it can be used by the subsequent handlers.
+            synCtx.setProperty(APIConstants.API_RESOURCE_CACHE_KEY, resourceCacheKey);
+        } else if (isDispatched) {
+            synCtx.setProperty(APIConstants.API_RESOURCE_CACHE_KEY, APIUtil.getResourceInfoDTOCacheKey(apiContext,
+                    apiVersion, resourceArray.get(0), httpMethod));
+        }
+        if (verbInfoList.size() == 0) {
+            verbInfoList = null;
         }
+        return verbInfoList;
+    }
 
-        //Cache miss
+    /**
+     * Returns the resource trie of the API. The trie is rebuilt whenever the API info cached in the resource cache is
+     * not the one it was built from, so that resource level changes of the API are picked up even if another
+     * validator cached the API info again. When the resource cache is not used, the API info is fetched for every
+     * request as it has no other means of invalidation, hence the trie is not kept.
+     */
+    private APIResourceTrie getAPIResourceTrie(MessageContext synCtx, String apiContext, String apiVersion)
+            throws APISecurityException {
+
+        if (!isGatewayAPIResourceValidationEnabled) {
+            return new APIResourceTrie(getAPIInfo(synCtx, apiContext, apiVersion), apiContext, apiVersion);
+        }
+        APIResourceTrie trie = apiResourceTrie;
+        if (trie != null && !trie.isFor(apiContext, apiVersion)) {
+            trie = null;
+        }
+        String apiCacheKey = trie != null ? trie.getApiCacheKey() :
+                APIUtil.getAPIInfoDTOCacheKey(apiContext, apiVersion);
+        APIInfoDTO apiInfoDTO = (APIInfoDTO) getResourceCache().get(apiCacheKey);
+        if (apiInfoDTO != null && trie != null && trie.isBuiltFrom(apiInfoDTO)) {
+            return trie;
+        }
         if (apiInfoDTO == null) {
             if (log.isDebugEnabled()) {
                 log.debug("Could not find API object in cache for key: " + apiCacheKey);
             }
+            apiInfoDTO = getAPIInfo(synCtx, apiContext, apiVersion);
+            getResourceCache().put(apiCacheKey, apiInfoDTO);
+        }
+        trie = new APIResourceTrie(apiInfoDTO, apiContext, apiVersion);
+        apiResourceTrie = trie;
+        return trie;
+    }
 
-            String apiType = (String) synCtx.getProperty(APIMgtGatewayConstants.API_TYPE);
-
-            if (APIConstants.ApiTypes.PRODUCT_API.name().equalsIgnoreCase(apiType)) {
-                apiInfoDTO = doGetAPIProductInfo(synCtx, apiContext, apiVersion);
-            } else {
-                apiInfoDTO = doGetAPIInfo(synCtx, apiContext, apiVersion);
-            }
+    private APIInfoDTO getAPIInfo(MessageContext synCtx, String apiContext, String apiVersion)
+            throws APISecurityException {
 
-            if (isGatewayAPIResourceValidationEnabled) {
-                getResourceCache().put(apiCacheKey, apiInfoDTO);
-            }
+        String apiType = (String) synCtx.getProperty(APIMgtGatewayConstants.API_TYPE);
+        if (APIConstants.ApiTypes.PRODUCT_API.name().equalsIgnoreCase(apiType)) {
+            return doGetAPIProductInfo(synCtx, apiContext, apiVersion);
         }
-        if (apiInfoDTO.getResources() != null) {
-            for (ResourceInfoDTO resourceInfoDTO : apiInfoDTO.getResources()) {
-                Set<VerbInfoDTO> verbDTOList = resourceInfoDTO.getHttpVerbs();
-                for (VerbInfoDTO verb : verbDTOList) {
-                    if (verb.getHttpVerb().equals(httpMethod)) {
-                        for (String resourceString : resourceArray) {
-                            if (isResourcePathMatching(resourceString, resourceInfoDTO)) {
-                                resourceCacheKey = APIUtil.getResourceInfoDTOCacheKey(apiContext, apiVersion,
-                                        resourceString, httpMethod);
-                                verb.setRequestKey(resourceCacheKey);
-                                verbInfoList.add(verb);
-                                if (isGatewayAPIResourceValidationEnabled) {
-                                    //Store verb in cache
-                                    //Set cache key in the message c\ontext so that it can be used by the subsequent handlers.
-                                    if (log.isDebugEnabled()) {
-                                        log.debug("Putting resource object in cache with key: " + resourceCacheKey);
-                                    }
-                                    getResourceCache().put(resourceCacheKey, verb);
-                                    synCtx.setProperty(APIConstants.API_RESOURCE_CACHE_KEY, resourceCacheKey);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        if (verbInfoList.size() == 0) {
-            verbInfoList = null;
-        }
-        return verbInfoList;
+        return doGetAPIInfo(synCtx, apiContext, apiVersion);
     }
 
     private String getRequestPath(MessageContext synCtx, String apiContext, String apiVersion, String fullRequestPath) {
@@ -506,24 +472,6 @@ public class APIKeyValidator {
         return requestPath;
     }
 
-    private boolean isResourcePathMatching(String resourceString, ResourceInfoDTO resourceInfoDTO) {
-        String resource = resourceString.trim();
-        String urlPattern = resourceInfoDTO.getUrlPattern().trim();
-
-        if (resource.equalsIgnoreCase(urlPattern)) {
-            return true;
-        }
-
-        // If the urlPattern is only one character longer than the resource and the urlPattern ends with a '/'
-        if (resource.length() + 1 == urlPattern.length() && urlPattern.endsWith("/")) {
-            // Check if resource is equal to urlPattern if the trailing '/' of the urlPattern is ignored
-            String urlPatternWithoutSlash = urlPattern.substring(0, urlPattern.length() - 1);
-            return resource.equalsIgnoreCase(urlPatternWithoutSlash);
-        }
-
-        return false;
-    }
-
     @MethodStats
     private APIInfoDTO doGetAPIInfo(MessageContext messageContext, String context, String apiVersion) throws APISecurityException {
         ArrayList<URITemplate> uriTemplates = getAllURITemplates(messageContext, context, apiVersion);
@@ -0,0 +1,209 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.handlers.security;
+
+import org.wso2.carbon.apimgt.impl.dto.APIInfoDTO;
+import org.wso2.carbon.apimgt.impl.dto.ResourceInfoDTO;
+import org.wso2.carbon.apimgt.impl.dto.VerbInfoDTO;
+import org.wso2.carbon.apimgt.impl.utils.APIUtil;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resources of an API compiled into a trie of URI template segments, so that the verb of an elected resource is
+ * found with one lookup per path segment instead of matching it against every resource of the API.
+ * <p>
+ * The elected resource is the URI template Synapse dispatched the request to, hence literal, {param} and * segments
+ * are all matched as case insensitive tokens. A resource also matches a URI template which only differs from it by a
+ * trailing '/'. The resource keys of the verbs are computed when the trie is built. Instances are immutable and are
+ * built once for each {@link APIInfoDTO}, on the first request which needs the {@link APIInfoDTO} of the deployed
+ * revision of the API.
+ */
+public class APIResourceTrie {
+
+    private static final Comparator<Match> RESOURCE_ORDER = Comparator.comparingInt(match -> match.ordinal);
+
+    private final String context;
+    private final String version;
+    private final String apiCacheKey;
+    private final APIInfoDTO apiInfoDTO;
+    private final Node root = new Node();
+
+    public APIResourceTrie(APIInfoDTO apiInfoDTO, String context, String version) {
+
+        this.context = context;
+        this.version = version;
+        this.apiCacheKey = APIUtil.getAPIInfoDTOCacheKey(context, version);
+        this.apiInfoDTO = apiInfoDTO;
+        if (apiInfoDTO.getResources() == null) {
+            return;
+        }
+        int ordinal = 0;
+        for (ResourceInfoDTO resourceInfoDTO : apiInfoDTO.getResources()) {
+            String urlPattern = resourceInfoDTO.getUrlPattern();
+            Node node = root;
+            for (String segment : getSegments(urlPattern.trim())) {
+                node = node.children.computeIfAbsent(segment, key -> new Node());
+            }
+            if (resourceInfoDTO.getHttpVerbs() != null) {
+                for (VerbInfoDTO verbInfoDTO : resourceInfoDTO.getHttpVerbs()) {
+                    if (verbInfoDTO.getHttpVerb() != null) {
+                        node.verbs.computeIfAbsent(verbInfoDTO.getHttpVerb(), key -> new ArrayList<>(1))
+                                .add(new ResourceVerb(ordinal, urlPattern, verbInfoDTO,
+                                        APIUtil.getResourceInfoDTOCacheKey(context, version, urlPattern,
+                                                verbInfoDTO.getHttpVerb())));
+                    }
+                }
+            }
+            ordinal++;
+        }
+    }
+
+    /**
+     * Returns true if this trie was built for the given API context and version.
+     */
+    public boolean isFor(String context, String version) {
+
+        return this.context.equals(context) && this.version.equals(version);
+    }
+
+    /**
+     * Returns true if this trie was built from the given API info instance. A different instance is cached for the
+     * API whenever its API info was evicted from the resource cache, hence its resources may have changed.
+     */
+    public boolean isBuiltFrom(APIInfoDTO apiInfoDTO) {
+
+        return this.apiInfoDTO == apiInfoDTO;
+    }
+
+    /**
+     * Returns the resource cache key of the API this trie was built for.
+     */
+    public String getApiCacheKey() {
+
+        return apiCacheKey;
+    }
+
+    /**
+     * Finds the verbs of the resources matching the given elected resources.
+     *
+     * @param resourceStrings elected resources of the request
+     * @param httpMethod      HTTP method of the request
+     * @return matching verbs in the order their resources are defined in the API
+     */
+    public List<Match> match(List<String> resourceStrings, String httpMethod) {
+
+        List<Match> matches = new ArrayList<>(resourceStrings.size());
+        for (String resourceString : resourceStrings) {
+            Node node = root;
+            for (String segment : getSegments(resourceString.trim())) {
+                node = node.children.get(segment);
+                if (node == null) {
+                    break;
+                }
+            }
+            if (node != null) {
+                addMatches(matches, node, resourceString, httpMethod);
+                Node trailingSlash = node.children.get("");
+                if (trailingSlash != null) {
+                    addMatches(matches, trailingSlash, resourceString, httpMethod);
+                }
+            }
+        }
+        if (matches.size() > 1) {
+            matches.sort(RESOURCE_ORDER);
+        }
+        return matches;
+    }
+
+    private void addMatches(List<Match> matches, Node node, String resourceString, String httpMethod) {
+
+        List<ResourceVerb> resourceVerbs = node.verbs.get(httpMethod);
+        if (resourceVerbs == null) {
+            return;
+        }
+        for (ResourceVerb resourceVerb : resourceVerbs) {
+            // Resource keys are built from the elected resource, which only differs from the URI template in case
+            // or in a trailing '/'
+            String requestKey = resourceVerb.urlPattern.equals(resourceString) ? resourceVerb.requestKey :
+                    APIUtil.getResourceInfoDTOCacheKey(context, version, resourceString, httpMethod);
+            matches.add(new Match(resourceVerb.ordinal, resourceVerb.verbInfoDTO, requestKey));
+        }
+    }
+
+    private static String[] getSegments(String urlPattern) {
+
+        // Keep empty segments, a trailing '/' is matched as a trailing empty segment
+        return urlPattern.toLowerCase(Locale.ENGLISH).split("/", -1);
+    }
+
+    /**
+     * A verb of an API resource matched with an elected resource.
+     */
+    public static final class Match {
+
+        private final int ordinal;
+        private final VerbInfoDTO verbInfoDTO;
+        private final String requestKey;
+
+        private Match(int ordinal, VerbInfoDTO verbInfoDTO, String requestKey) {
+
+            this.ordinal = ordinal;
+            this.verbInfoDTO = verbInfoDTO;
+            this.requestKey = requestKey;
+        }
+
+        public VerbInfoDTO getVerbInfoDTO() {
+
+            return verbInfoDTO;
+        }
+
+        public String getRequestKey() {
+
+            return requestKey;
+        }
+    }
+
+    private static final class ResourceVerb {
+
+        private final int ordinal;
+        private final String urlPattern;
+        private final VerbInfoDTO verbInfoDTO;
+        private final String requestKey;
+
+        private ResourceVerb(int ordinal, String urlPattern, VerbInfoDTO verbInfoDTO, String requestKey) {
+
+            this.ordinal = ordinal;
+            this.urlPattern = urlPattern;
+            this.verbInfoDTO = verbInfoDTO;
+            this.requestKey = requestKey;
+        }
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> children = new HashMap<>();
+        private final Map<String, List<ResourceVerb>> verbs = new HashMap<>();
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.handlers.security;
+
+import com.atlassian.oai.validator.OpenApiInteractionValidator;
+import com.atlassian.oai.validator.model.Headers;
+import com.atlassian.oai.validator.report.LevelResolver;
+import com.atlassian.oai.validator.report.ValidationReport;
+import io.swagger.parser.OpenAPIParser;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.parameters.HeaderParameter;
+import io.swagger.v3.oas.models.parameters.Parameter;
+import io.swagger.v3.parser.core.models.ParseOptions;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the parsed OpenAPI definitions of the deployed APIs along with the validators used for schema validation.
+ * <p>
+ * Building a validator resolves the whole OpenAPI definition, hence it is done once per deployment of an API instead
+ * of for each message. The definition is registered when the API is deployed and removed when the API is undeployed
+ * or redeployed. A validator is bound to the OpenAPI object it was built for, so a validator is never used for a
+ * definition of another deployment of the API.
+ */
+public class OpenAPIValidatorRegistry {
+
+    private static final Log log = LogFactory.getLog(OpenAPIValidatorRegistry.class);
+    private static final OpenAPIValidatorRegistry instance = new OpenAPIValidatorRegistry();
+
+    private final Map<String, DeployedDefinition> definitions = new ConcurrentHashMap<>();
+
+    private OpenAPIValidatorRegistry() {
+
+    }
+
+    public static OpenAPIValidatorRegistry getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Parses the OpenAPI definition of an API and builds its validator.
+     *
+     * @param apiUUID    UUID of the API
+     * @param definition OpenAPI definition of the API
+     */
+    public void deploy(String apiUUID, String definition) {
+
+        long startTime = System.currentTimeMillis();
+        OpenAPI openAPI = parseOpenAPI(definition);
+        if (openAPI == null) {
+            definitions.remove(apiUUID);
+            return;
+        }
+        DeployedDefinition deployedDefinition = new DeployedDefinition(definition, openAPI);
+        deployedDefinition.validator = buildValidator(openAPI);
+        definitions.put(apiUUID, deployedDefinition);
+        if (log.isDebugEnabled()) {
+            log.debug("Time to build the schema validator of API " + apiUUID + "(ms) : "
+                    + (System.currentTimeMillis() - startTime));
+        }
+    }
+
+    /**
+     * Removes the definition and the validator of an API.
+     *
+     * @param apiUUID UUID of the API
+     */
+    public void undeploy(String apiUUID) {
+
+        if (apiUUID != null) {
+            definitions.remove(apiUUID);
+        }
+    }
+
+    /**
+     * Returns the OpenAPI definition registered when the API was deployed.
+     *
+     * @param apiUUID UUID of the API
+     * @return OpenAPI definition or null if the definition of the API was not registered
+     */
+    public OpenAPI getOpenAPI(String apiUUID) {
+
+        DeployedDefinition deployedDefinition = apiUUID == null ? null : definitions.get(apiUUID);
+        return deployedDefinition == null ? null : deployedDefinition.openAPI;
+    }
+
+    /**
+     * Returns the OpenAPI definition registered when the API was deployed, as a string.
+     *
+     * @param apiUUID UUID of the API
+     * @return OpenAPI definition or null if the definition of the API was not registered
+     */
+    public String getDefinition(String apiUUID) {
+
+        DeployedDefinition deployedDefinition = apiUUID == null ? null : definitions.get(apiUUID);
+        return deployedDefinition == null ? null : deployedDefinition.definition;
+    }
+
+    /**
+     * Returns the validator for the given OpenAPI definition of an API. The validator is built and cached if the
+     * definition was not registered at deployment.
+     *
+     * @param apiUUID UUID of the API
+     * @param openAPI OpenAPI definition of the API
+     * @return validator for the definition
+     */
+    public OpenApiInteractionValidator getValidator(String apiUUID, OpenAPI openAPI) {
+
+        if (apiUUID == null) {
+            return buildValidator(openAPI);
+        }
+        DeployedDefinition deployedDefinition = definitions.get(apiUUID);
+        if (deployedDefinition == null || deployedDefinition.openAPI != openAPI) {
+            deployedDefinition = definitions.compute(apiUUID, (uuid, current) ->
+                    current != null && current.openAPI == openAPI ? current : new DeployedDefinition(null, openAPI));
+        }
+        OpenApiInteractionValidator validator = deployedDefinition.validator;
+        if (validator == null) {
+            synchronized (deployedDefinition) {
+                validator = deployedDefinition.validator;
+                if (validator == null) {
+                    validator = buildValidator(openAPI);
+                    deployedDefinition.validator = validator;
+                }
+            }
+        }
+        return validator;
+    }
+
+    /**
+     * Parses an OpenAPI definition for validating messages. Header parameter names are converted to lowercase since
+     * HTTP headers are case insensitive as per the HTTP 1.1 RFC.
+     *
+     * @param definition OpenAPI definition
+     * @return OpenAPI object or null if the definition could not be parsed
+     */
+    public static OpenAPI parseOpenAPI(String definition) {
+
+        OpenAPIParser parser = new OpenAPIParser();
+        ParseOptions parseOptions = new ParseOptions();
+        parseOptions.setResolveFully(true);
+        OpenAPI openAPI = parser.readContents(definition, null, parseOptions).getOpenAPI();
+        if (openAPI != null && openAPI.getPaths() != null) {
+            convertHeadersToLowercase(openAPI);
+        }
+        return openAPI;
+    }
+
+    private static OpenApiInteractionValidator buildValidator(OpenAPI openAPI) {
+
+        return OpenApiInteractionValidator
+                .createFor(openAPI)
+                .withLevelResolver(
+                        LevelResolver.create()
+                                .withLevel("validation.schema.required", ValidationReport.Level.INFO)
+                                .withLevel("validation.response.body.missing", ValidationReport.Level.INFO)
+                                .withLevel("validation.schema.additionalProperties", ValidationReport.Level.IGNORE)
+                                .build())
+                .build();
+    }
+
+    /**
+     * This method iterate through openAPI paths and convert header parameter names to lowercase for each operation
+     *
+     * @param openAPI openAPI object
+     */
+    private static void convertHeadersToLowercase(OpenAPI openAPI) {
+
+        // Iterate each path
+        for (Map.Entry<String, PathItem> entry : openAPI.getPaths().entrySet()) {
+            // Iterate each operation
+            PathItem pathItem = entry.getValue();
+            if (pathItem != null) {
+                List<Operation> operations = pathItem.readOperations();
+                for (Operation operation : operations) {
+                    if (operation.getParameters() != null) {
+                        operation.setParameters(getLowercaseHeaderParameters(operation.getParameters()));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * This method read the parameter list and convert header parameter's name to lowercase
+     * @param parameters list of params
+     * @return
+     */
+    private static List<Parameter> getLowercaseHeaderParameters(List<Parameter> parameters) {
+
+        List<Parameter> headerParameters = parameters.stream()
+                .filter(param -> param.getIn().equalsIgnoreCase("header"))
+                .filter(param -> !param.getName().equalsIgnoreCase(Headers.CONTENT_TYPE)) // Ignore content-type header
+                .collect(Collectors.toList());
+        List<Parameter> modifiedHeaderParameters = headerParameters.stream()
+                .map(OpenAPIValidatorRegistry::replaceLowerCaseHeaderName).collect(Collectors.toList());
+        List<Parameter> nonHeaderParameters = parameters.stream()
+                .filter(param -> !(param instanceof HeaderParameter)).collect(Collectors.toList());
+        nonHeaderParameters.addAll(modifiedHeaderParameters);
+        return nonHeaderParameters;
+    }
+
+    /**
+     * This method convert parameter name to lowercase.
+     * @param parameter param
+     * @return
+     */
+    private static Parameter replaceLowerCaseHeaderName(Parameter parameter) {
+
+        parameter.setName(parameter.getName().toLowerCase(Locale.ROOT));
+        return parameter;
+    }
+
+    private static final class DeployedDefinition {
+
+        private final String definition;
+        private final OpenAPI openAPI;
+        private volatile OpenApiInteractionValidator validator;
+
+        private DeployedDefinition(String definition, OpenAPI openAPI) {
+
+            this.definition = definition;
+            this.openAPI = openAPI;
+        }
+    }
+}
@@ -17,7 +17,6 @@
 package org.wso2.carbon.apimgt.gateway.handlers.security;
 
 import com.atlassian.oai.validator.OpenApiInteractionValidator;
-import com.atlassian.oai.validator.report.LevelResolver;
 import com.atlassian.oai.validator.report.ValidationReport;
 import io.swagger.v3.oas.models.OpenAPI;
 import org.apache.commons.logging.Log;
@@ -39,22 +38,16 @@ public class SchemaValidator extends AbstractHandler {
     private static final String HTTP_SC_CODE = "400";
 
     /**
-     * Method to generate OpenApiInteractionValidator when the openAPI is provided.
+     * Method to get the OpenApiInteractionValidator of the API the message is dispatched to.
      *
-     * @param openAPI openAPI
+     * @param messageContext message context
+     * @param openAPI        openAPI
      * @return OpenApiInteractionValidator object for the provided swagger.
      */
-    private static OpenApiInteractionValidator getOpenAPIValidator(OpenAPI openAPI) {
+    private static OpenApiInteractionValidator getOpenAPIValidator(MessageContext messageContext, OpenAPI openAPI) {
 
-        return OpenApiInteractionValidator
-                .createFor(openAPI)
-                .withLevelResolver(
-                        LevelResolver.create()
-                                .withLevel("validation.schema.required", ValidationReport.Level.INFO)
-                                .withLevel("validation.response.body.missing", ValidationReport.Level.INFO)
-                                .withLevel("validation.schema.additionalProperties", ValidationReport.Level.IGNORE)
-                                .build())
-                .build();
+        String apiUUID = (String) messageContext.getProperty(APIMgtGatewayConstants.API_UUID_PROPERTY);
+        return OpenAPIValidatorRegistry.getInstance().getValidator(apiUUID, openAPI);
     }
 
     @Override
@@ -63,7 +56,7 @@ public class SchemaValidator extends AbstractHandler {
         logger.debug("Validating the API request Body content..");
         OpenAPI openAPI = (OpenAPI) messageContext.getProperty(APIMgtGatewayConstants.OPEN_API_OBJECT);
         if (openAPI != null) {
-            OpenApiInteractionValidator validator = getOpenAPIValidator(openAPI);
+            OpenApiInteractionValidator validator = getOpenAPIValidator(messageContext, openAPI);
             OpenAPIRequest request = new OpenAPIRequest(messageContext);
 
             ValidationReport validationReport = validator.validateRequest(request);
@@ -85,7 +78,7 @@ public class SchemaValidator extends AbstractHandler {
 
         OpenAPI openAPI = (OpenAPI) messageContext.getProperty(APIMgtGatewayConstants.OPEN_API_OBJECT);
         if (openAPI != null) {
-            OpenApiInteractionValidator validator = getOpenAPIValidator(openAPI);
+            OpenApiInteractionValidator validator = getOpenAPIValidator(messageContext, openAPI);
             OpenAPIResponse response = new OpenAPIResponse(messageContext);
 
             ValidationReport validationReport = validator.validateResponse(response.getPath(), response.getMethod(),
@@ -57,6 +57,7 @@ public class OpenAPIRequest implements Request {
     private Multimap<String, String> headers = ArrayListMultimap.create();
     private Map<String, Collection<String>> queryParams;
     private Optional<String> requestBody;
+    private MessageContext messageContext;
     /**
      * Build OAI Request from Message Context.
      *
@@ -73,19 +74,23 @@ public class OpenAPIRequest implements Request {
         //Set Request path
         path = SchemaValidationUtils.getRestSubRequestPath(
                 messageContext.getProperty(REST_SUB_REQUEST_PATH).toString());
-        String swagger = messageContext.getProperty(APIMgtGatewayConstants.OPEN_API_STRING).toString();
-        if (swagger != null) {
+        // Paths of the definition parsed by the latency stats handler are the same, hence it is not parsed again
+        OpenAPI openAPI = (OpenAPI) messageContext.getProperty(APIMgtGatewayConstants.OPEN_API_OBJECT);
+        Object swagger = messageContext.getProperty(APIMgtGatewayConstants.OPEN_API_STRING);
+        if (openAPI == null && swagger != null) {
             OpenAPIParser openAPIParser = new OpenAPIParser();
             SwaggerParseResult swaggerParseResult =
-                    openAPIParser.readContents(swagger, new ArrayList<>(), new ParseOptions());
-            OpenAPI openAPI = swaggerParseResult.getOpenAPI();
+                    openAPIParser.readContents(swagger.toString(), new ArrayList<>(), new ParseOptions());
+            openAPI = swaggerParseResult.getOpenAPI();
+        }
+        if (openAPI != null) {
             validatePath(openAPI);
         }
         //extract transport headers
         Map<String, String> transportHeaders = (Map<String, String>)
                 (axis2MessageContext.getProperty(APIMgtGatewayConstants.TRANSPORT_HEADERS));
-        //Set Request body
-        requestBody = SchemaValidationUtils.getMessageContent(messageContext);
+        //Request body is read when it is validated
+        this.messageContext = messageContext;
         Map<String, Collection<String>> headerMap = transportHeaders.entrySet()
                 .stream()
                 .collect(Collectors.toMap(Map.Entry::getKey, entry -> Collections.singleton(entry.getValue())));
@@ -131,6 +136,9 @@ public class OpenAPIRequest implements Request {
     @Override
     public Optional<String> getBody() {
 
+        if (this.requestBody == null) {
+            this.requestBody = SchemaValidationUtils.getMessageContent(messageContext);
+        }
         return this.requestBody;
     }
 
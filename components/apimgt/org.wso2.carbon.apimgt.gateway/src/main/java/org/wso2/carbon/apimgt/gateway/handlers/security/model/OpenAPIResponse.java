@@ -41,6 +41,7 @@ public class OpenAPIResponse implements Response {
     private static final String REST_SUB_REQUEST_PATH = "REST_SUB_REQUEST_PATH";
     private int status;
     private Optional<String> responseBody;
+    private MessageContext messageContext;
     private Multimap<String, String> headers = ArrayListMultimap.create();
     private Method method;
     private String path;
@@ -74,8 +75,8 @@ public class OpenAPIResponse implements Response {
         Map<String, String> transportHeaders = (Map<String, String>)
                 (axis2MessageContext.getProperty(APIMgtGatewayConstants.TRANSPORT_HEADERS));
 
-        //Setting response body
-        responseBody = SchemaValidationUtils.getMessageContent(messageContext);
+        //Response body is read when it is validated
+        this.messageContext = messageContext;
 
         Map<String, Collection<String>> headerMap = transportHeaders.entrySet()
                 .stream().collect(Collectors
@@ -100,6 +101,9 @@ public class OpenAPIResponse implements Response {
     @Override
     public Optional<String> getBody() {
 
+        if (responseBody == null) {
+            responseBody = SchemaValidationUtils.getMessageContent(messageContext);
+        }
         return responseBody;
     }
 
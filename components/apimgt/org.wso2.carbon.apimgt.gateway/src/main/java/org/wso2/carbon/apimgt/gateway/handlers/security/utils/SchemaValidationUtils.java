@@ -117,6 +117,10 @@ public class SchemaValidationUtils {
         Optional<String> payloadObject = Optional.empty();
         org.apache.axis2.context.MessageContext axis2Context = ((Axis2MessageContext) messageContext)
                 .getAxis2MessageContext();
+        if (Boolean.TRUE.equals(axis2Context.getProperty(PassThroughConstants.NO_ENTITY_BODY))) {
+            // Nothing to build or validate when the message does not have a body
+            return payloadObject;
+        }
         boolean isMessageContextBuilt = isMessageContextBuilt(axis2Context);
         if (!isMessageContextBuilt) {
             // Build Axis2 Message.
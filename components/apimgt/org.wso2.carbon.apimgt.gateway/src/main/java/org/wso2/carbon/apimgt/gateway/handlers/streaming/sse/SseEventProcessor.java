@@ -0,0 +1,268 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.handlers.streaming.sse;
+
+import org.apache.axiom.util.UIDGenerator;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.json.JSONObject;
+import org.wso2.carbon.apimgt.common.analytics.collectors.impl.GenericRequestDataCollector;
+import org.wso2.carbon.apimgt.common.analytics.exceptions.AnalyticsException;
+import org.wso2.carbon.apimgt.gateway.handlers.Utils;
+import org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.analytics.SseAnalyticsDataSnapshot;
+import org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.analytics.SseResponseEventDataProvider;
+import org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.throttling.ThrottleInfo;
+import org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.utils.SseUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the throttle and analytics events of server sent event streams of all SSE APIs. Events are counted per
+ * throttle key combination and per stream, and published in batches once every flush interval from a single thread.
+ * If throttle event aggregation is enabled, a single throttle event carrying the number of events in its 'eventCount'
+ * property is published per throttle key combination, which only the throttle policies of this version count by
+ * weight. Otherwise a throttle event is published per server sent event.
+ * <p>
+ * The analytics data of a stream is copied from its data provider on the I/O thread of the stream when the first
+ * events of a batch are added, as the data provider reads the message context of the stream.
+ * <p>
+ * The number of pending throttle key combinations and streams is bounded. Once the bound is reached, the events of
+ * further combinations and streams are published by the caller.
+ */
+public class SseEventProcessor {
+
+    private static final Log log = LogFactory.getLog(SseEventProcessor.class);
+    public static final long DEFAULT_FLUSH_INTERVAL = 1000;
+    public static final int DEFAULT_MAX_PENDING_KEYS = 10000;
+    private static final SseEventProcessor instance = new SseEventProcessor(DEFAULT_MAX_PENDING_KEYS);
+
+    private final Map<List<String>, PendingThrottleEvents> pendingThrottleEvents = new ConcurrentHashMap<>();
+    private final Map<SseResponseEventDataProvider, PendingAnalyticsEvents> pendingAnalyticsEvents =
+            new ConcurrentHashMap<>();
+    private volatile int maxPendingKeys;
+    private volatile boolean throttleEventAggregationEnabled;
+    private ScheduledExecutorService flushExecutor;
+
+    SseEventProcessor(int maxPendingKeys) {
+
+        this.maxPendingKeys = maxPendingKeys;
+    }
+
+    public static SseEventProcessor getInstance() {
+
+        return instance;
+    }
+
+    public void setMaxPendingKeys(int maxPendingKeys) {
+
+        this.maxPendingKeys = maxPendingKeys;
+    }
+
+    /**
+     * Enables publishing a single throttle event per throttle key combination and flush interval. Enable it only
+     * once the traffic managers run throttle policies which count events by their 'eventCount' property.
+     *
+     * @param throttleEventAggregationEnabled whether throttle events are aggregated
+     */
+    public void setThrottleEventAggregationEnabled(boolean throttleEventAggregationEnabled) {
+
+        this.throttleEventAggregationEnabled = throttleEventAggregationEnabled;
+    }
+
+    /**
+     * Starts publishing the pending events once every flush interval.
+     *
+     * @param flushInterval flush interval in milliseconds
+     */
+    public synchronized void start(long flushInterval) {
+
+        if (flushExecutor != null) {
+            return;
+        }
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SseEventProcessor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.error("Error while publishing SSE events", e);
+            }
+        }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic publishing and publishes the pending events.
+     */
+    public synchronized void stop() {
+
+        if (flushExecutor != null) {
+            flushExecutor.shutdownNow();
+            flushExecutor = null;
+        }
+        flush();
+    }
+
+    /**
+     * Adds the events of a chunk of an event stream which was not throttled.
+     *
+     * @param throttleInfo          throttle information of the stream
+     * @param analyticsDataProvider analytics data provider of the stream, or null if analytics is disabled
+     * @param eventCount            number of events in the chunk
+     */
+    public void addEvents(ThrottleInfo throttleInfo, SseResponseEventDataProvider analyticsDataProvider,
+                          int eventCount) {
+
+        List<String> throttleKey = getThrottleKey(throttleInfo);
+        if (pendingThrottleEvents.size() >= maxPendingKeys && !pendingThrottleEvents.containsKey(throttleKey)) {
+            publishThrottleEvents(throttleInfo, eventCount);
+        } else {
+            pendingThrottleEvents.compute(throttleKey, (key, pendingEvents) -> pendingEvents == null ?
+                    new PendingThrottleEvents(throttleInfo, eventCount) : pendingEvents.add(eventCount));
+        }
+        if (analyticsDataProvider != null) {
+            if (pendingAnalyticsEvents.size() >= maxPendingKeys
+                    && !pendingAnalyticsEvents.containsKey(analyticsDataProvider)) {
+                publishAnalyticsEvents(new SseAnalyticsDataSnapshot(analyticsDataProvider), eventCount);
+            } else {
+                pendingAnalyticsEvents.compute(analyticsDataProvider, (key, pendingEvents) -> pendingEvents == null ?
+                        new PendingAnalyticsEvents(new SseAnalyticsDataSnapshot(analyticsDataProvider), eventCount) :
+                        pendingEvents.add(eventCount));
+            }
+        }
+    }
+
+    /**
+     * Publishes the pending throttle and analytics events.
+     */
+    void flush() {
+
+        for (List<String> throttleKey : pendingThrottleEvents.keySet()) {
+            // Events added after the removal are published with the next flush
+            PendingThrottleEvents pendingEvents = pendingThrottleEvents.remove(throttleKey);
+            if (pendingEvents != null) {
+                publishThrottleEvents(pendingEvents.throttleInfo, pendingEvents.eventCount);
+            }
+        }
+        for (SseResponseEventDataProvider analyticsDataProvider : pendingAnalyticsEvents.keySet()) {
+            PendingAnalyticsEvents pendingEvents = pendingAnalyticsEvents.remove(analyticsDataProvider);
+            if (pendingEvents != null) {
+                publishAnalyticsEvents(pendingEvents.analyticsData, pendingEvents.eventCount);
+            }
+        }
+    }
+
+    /**
+     * Publishes the throttle events of the given number of events.
+     *
+     * @param throttleInfo throttle information of the events
+     * @param eventCount   number of events
+     */
+    protected void publishThrottleEvents(ThrottleInfo throttleInfo, long eventCount) {
+
+        JSONObject propertiesMap = new JSONObject();
+        Utils.setRemoteIp(propertiesMap, throttleInfo.getRemoteIp());
+        if (throttleEventAggregationEnabled) {
+            SseUtils.publishAggregatedNonThrottledEvent(eventCount, UIDGenerator.generateURNString(), throttleInfo,
+                    propertiesMap);
+        } else {
+            SseUtils.publishNonThrottledEvent(eventCount, UIDGenerator.generateURNString(), throttleInfo,
+                    propertiesMap);
+        }
+    }
+
+    /**
+     * Publishes an analytics event for each of the given number of events.
+     *
+     * @param analyticsData analytics data of the stream
+     * @param eventCount    number of events
+     */
+    protected void publishAnalyticsEvents(SseAnalyticsDataSnapshot analyticsData, int eventCount) {
+
+        GenericRequestDataCollector dataCollector = new GenericRequestDataCollector(analyticsData);
+        try {
+            for (int count = 0; count < eventCount; count++) {
+                dataCollector.collectData();
+            }
+        } catch (AnalyticsException e) {
+            log.error("Error while publishing analytics data", e);
+        }
+    }
+
+    private static List<String> getThrottleKey(ThrottleInfo throttleInfo) {
+
+        return Arrays.asList(throttleInfo.getApplicationLevelThrottleKey(), throttleInfo.getApplicationTier(),
+                throttleInfo.getApiLevelThrottleKey(), throttleInfo.getApiTier(),
+                throttleInfo.getSubscriptionLevelThrottleKey(), throttleInfo.getTier(),
+                throttleInfo.getResourceLevelThrottleKey(), throttleInfo.getResourceTier(),
+                throttleInfo.getAuthorizedUser(), throttleInfo.getApiContext(), throttleInfo.getApiVersion(),
+                throttleInfo.getSubscriberTenantDomain(), throttleInfo.getApplicationId(), throttleInfo.getApiName(),
+                throttleInfo.getRemoteIp());
+    }
+
+    /**
+     * Events of a throttle key combination which are not yet published.
+     */
+    private static class PendingThrottleEvents {
+
+        private final ThrottleInfo throttleInfo;
+        private long eventCount;
+
+        PendingThrottleEvents(ThrottleInfo throttleInfo, long eventCount) {
+
+            this.throttleInfo = throttleInfo;
+            this.eventCount = eventCount;
+        }
+
+        PendingThrottleEvents add(long eventCount) {
+
+            this.eventCount += eventCount;
+            return this;
+        }
+    }
+
+    /**
+     * Events of a stream whose analytics events are not yet published.
+     */
+    private static class PendingAnalyticsEvents {
+
+        private final SseAnalyticsDataSnapshot analyticsData;
+        private int eventCount;
+
+        PendingAnalyticsEvents(SseAnalyticsDataSnapshot analyticsData, int eventCount) {
+
+            this.analyticsData = analyticsData;
+            this.eventCount = eventCount;
+        }
+
+        PendingAnalyticsEvents add(int eventCount) {
+
+            this.eventCount += eventCount;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.analytics;
+
+import org.wso2.carbon.apimgt.common.analytics.collectors.AnalyticsDataProvider;
+import org.wso2.carbon.apimgt.common.analytics.exceptions.DataNotFoundException;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.API;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Application;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Error;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Latencies;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.MetaInfo;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Operation;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Target;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.enums.EventCategory;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.enums.FaultCategory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Analytics data of a server sent event stream, read from its data provider at the time of creation.
+ * <p>
+ * The data provider of a stream reads the message context of the stream, which belongs to the I/O thread of the
+ * stream. A snapshot is taken on the I/O thread, so that the analytics events of the stream can be published from
+ * another thread without touching the message context.
+ */
+public final class SseAnalyticsDataSnapshot implements AnalyticsDataProvider {
+
+    private final EventCategory eventCategory;
+    private final boolean anonymous;
+    private final boolean authenticated;
+    private final FaultCategory faultType;
+    private final Error error;
+    private final API api;
+    private final Application application;
+    private final Operation operation;
+    private final DataNotFoundException dataNotFoundException;
+    private final Target target;
+    private final Latencies latencies;
+    private final MetaInfo metaInfo;
+    private final int proxyResponseCode;
+    private final int targetResponseCode;
+    private final long requestTime;
+    private final String userAgentHeader;
+    private final String userName;
+    private final String endUserIP;
+    private final Map<String, Object> properties;
+
+    public SseAnalyticsDataSnapshot(AnalyticsDataProvider provider) {
+
+        eventCategory = provider.getEventCategory();
+        anonymous = provider.isAnonymous();
+        authenticated = provider.isAuthenticated();
+        if (eventCategory == EventCategory.FAULT) {
+            faultType = provider.getFaultType();
+            error = provider.getError(faultType);
+        } else {
+            faultType = null;
+            error = null;
+        }
+        API api = null;
+        Application application = null;
+        Operation operation = null;
+        DataNotFoundException dataNotFoundException = null;
+        try {
+            api = provider.getApi();
+            operation = provider.getOperation();
+            if (!anonymous) {
+                application = provider.getApplication();
+            }
+        } catch (DataNotFoundException e) {
+            // Reported when the data is collected
+            dataNotFoundException = e;
+        }
+        this.api = api;
+        this.application = application;
+        this.operation = operation;
+        this.dataNotFoundException = dataNotFoundException;
+        target = provider.getTarget();
+        latencies = provider.getLatencies();
+        metaInfo = provider.getMetaInfo();
+        proxyResponseCode = provider.getProxyResponseCode();
+        targetResponseCode = provider.getTargetResponseCode();
+        requestTime = provider.getRequestTime();
+        userAgentHeader = provider.getUserAgentHeader();
+        userName = provider.getUserName();
+        endUserIP = provider.getEndUserIP();
+        Map<String, Object> providerProperties = provider.getProperties();
+        properties = providerProperties == null || providerProperties.isEmpty() ? Collections.emptyMap() :
+                Collections.unmodifiableMap(new HashMap<>(providerProperties));
+    }
+
+    @Override
+    public EventCategory getEventCategory() {
+
+        return eventCategory;
+    }
+
+    @Override
+    public boolean isAnonymous() {
+
+        return anonymous;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+
+        return authenticated;
+    }
+
+    @Override
+    public FaultCategory getFaultType() {
+
+        return faultType;
+    }
+
+    @Override
+    public API getApi() throws DataNotFoundException {
+
+        checkData();
+        return api;
+    }
+
+    @Override
+    public Application getApplication() throws DataNotFoundException {
+
+        checkData();
+        return application;
+    }
+
+    @Override
+    public Operation getOperation() throws DataNotFoundException {
+
+        checkData();
+        return operation;
+    }
+
+    @Override
+    public Target getTarget() {
+
+        return target;
+    }
+
+    @Override
+    public Latencies getLatencies() {
+
+        return latencies;
+    }
+
+    @Override
+    public MetaInfo getMetaInfo() {
+
+        return metaInfo;
+    }
+
+    @Override
+    public int getProxyResponseCode() {
+
+        return proxyResponseCode;
+    }
+
+    @Override
+    public int getTargetResponseCode() {
+
+        return targetResponseCode;
+    }
+
+    @Override
+    public long getRequestTime() {
+
+        return requestTime;
+    }
+
+    @Override
+    public Error getError(FaultCategory faultCategory) {
+
+        return faultCategory == faultType ? error : null;
+    }
+
+    @Override
+    public String getUserAgentHeader() {
+
+        return userAgentHeader;
+    }
+
+    @Override
+    public String getUserName() {
+
+        return userName;
+    }
+
+    @Override
+    public String getEndUserIP() {
+
+        return endUserIP;
+    }
+
+    @Override
+    public Map<String, Object> getProperties() {
+
+        return properties;
+    }
+
+    private void checkData() throws DataNotFoundException {
+
+        if (dataNotFoundException != null) {
+            throw dataNotFoundException;
+        }
+    }
+}
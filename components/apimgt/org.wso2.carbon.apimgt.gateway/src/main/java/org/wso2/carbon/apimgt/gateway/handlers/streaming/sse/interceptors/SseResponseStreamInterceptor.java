@@ -18,31 +18,23 @@
 
 package org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.interceptors;
 
-import org.apache.axiom.util.UIDGenerator;
 import org.apache.axis2.context.MessageContext;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.synapse.SynapseConstants;
 import org.apache.synapse.transport.passthru.DefaultStreamInterceptor;
 import org.apache.synapse.transport.passthru.PassThroughConstants;
-import org.json.JSONObject;
-import org.wso2.carbon.apimgt.common.analytics.collectors.impl.GenericRequestDataCollector;
-import org.wso2.carbon.apimgt.common.analytics.exceptions.AnalyticsException;
-import org.wso2.carbon.apimgt.gateway.handlers.Utils;
+import org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.SseEventProcessor;
 import org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.analytics.SseResponseEventDataProvider;
 import org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.throttling.ThrottleInfo;
-import org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.utils.SseUtils;
+import org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.utils.SseEventParser;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.utils.APIUtil;
 
 import java.nio.ByteBuffer;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import static org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.SseApiConstants.SSE_ANALYTICS_INFO;
+import static org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.SseApiConstants.SSE_EVENT_PARSER;
 import static org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.SseApiConstants.SSE_THROTTLE_DTO;
 import static org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.utils.SseUtils.isThrottled;
 
@@ -52,15 +44,6 @@ import static org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.utils.SseUti
 public class SseResponseStreamInterceptor extends DefaultStreamInterceptor {
 
     private static final Log log = LogFactory.getLog(SseResponseStreamInterceptor.class);
-    private static final String SSE_STREAM_DELIMITER = "\n\n";
-    private static final int DEFAULT_NO_OF_THROTTLE_PUBLISHER_EXECUTORS = 100;
-    private String charset = StandardCharsets.UTF_8.name();
-    private ExecutorService throttlePublisherService;
-    private int noOfExecutorThreads = DEFAULT_NO_OF_THROTTLE_PUBLISHER_EXECUTORS;
-
-    public SseResponseStreamInterceptor() {
-        throttlePublisherService = Executors.newFixedThreadPool(noOfExecutorThreads);
-    }
 
     @Override
     public boolean interceptTargetResponse(MessageContext axisCtx) {
@@ -70,7 +53,7 @@ public class SseResponseStreamInterceptor extends DefaultStreamInterceptor {
 
     @Override
     public boolean targetResponse(ByteBuffer buffer, MessageContext axis2Ctx) {
-        int eventCount = getEventCount(buffer);
+        int eventCount = getEventParser(axis2Ctx).countEvents(buffer);
         if (log.isDebugEnabled()) {
             log.debug("No. of events =" + eventCount);
         }
@@ -80,26 +63,33 @@ public class SseResponseStreamInterceptor extends DefaultStreamInterceptor {
         return true;
     }
 
+    /**
+     * Events are published by the shared {@link SseEventProcessor}, hence the interceptor has no executor threads.
+     *
+     * @param executorThreads ignored
+     * @deprecated the number of threads does not depend on the number of interceptors anymore
+     */
+    @Deprecated
     @SuppressWarnings("unused")
     public void setNoOfExecutorThreads(int executorThreads) {
-        this.noOfExecutorThreads = executorThreads;
+        log.debug("The number of SSE throttle publisher executor threads is no longer configurable.");
     }
 
-    private int getEventCount(ByteBuffer stream) {
-        Charset charsetValue = Charset.forName(this.charset);
-        String text = charsetValue.decode(stream).toString();
-        return StringUtils.countMatches(text, SSE_STREAM_DELIMITER);
+    private SseEventParser getEventParser(MessageContext axis2Ctx) {
+        // The parser keeps its state across the chunks of a stream
+        SseEventParser eventParser = (SseEventParser) axis2Ctx.getProperty(SSE_EVENT_PARSER);
+        if (eventParser == null) {
+            eventParser = new SseEventParser();
+            axis2Ctx.setProperty(SSE_EVENT_PARSER, eventParser);
+        }
+        return eventParser;
     }
 
     private boolean handleThrottlingAndAnalytics(int eventCount, MessageContext axi2Ctx) {
 
         Object throttleObject = axi2Ctx.getProperty(SSE_THROTTLE_DTO);
         if (throttleObject != null) {
-            String messageId = UIDGenerator.generateURNString();
             ThrottleInfo throttleInfo = (ThrottleInfo) throttleObject;
-            String remoteIP = throttleInfo.getRemoteIp();
-            JSONObject propertiesMap = new JSONObject();
-            Utils.setRemoteIp(propertiesMap, remoteIP);
             boolean isThrottled = isThrottled(throttleInfo.getSubscriberTenantDomain(),
                                               throttleInfo.getResourceLevelThrottleKey(),
                                               throttleInfo.getSubscriptionLevelThrottleKey(),
@@ -108,15 +98,11 @@ public class SseResponseStreamInterceptor extends DefaultStreamInterceptor {
                 log.warn("Request is throttled out");
                 return false;
             }
-            throttlePublisherService.execute(
-                    () -> SseUtils.publishNonThrottledEvent(eventCount, messageId, throttleInfo, propertiesMap));
+            SseResponseEventDataProvider analyticsDataProvider = null;
             if (APIUtil.isAnalyticsEnabled()) {
-                try {
-                    publishAnalyticsData(eventCount, axi2Ctx);
-                } catch (AnalyticsException e) {
-                    log.error("Error while publishing analytics data", e);
-                }
+                analyticsDataProvider = getAnalyticsDataProvider(axi2Ctx);
             }
+            SseEventProcessor.getInstance().addEvents(throttleInfo, analyticsDataProvider, eventCount);
             return true;
         } else {
             log.error("Throttle object cannot be null.");
@@ -124,22 +110,26 @@ public class SseResponseStreamInterceptor extends DefaultStreamInterceptor {
         return true;
     }
 
-    private void publishAnalyticsData(int eventCount, MessageContext axi2Ctx) throws AnalyticsException {
+    private SseResponseEventDataProvider getAnalyticsDataProvider(MessageContext axi2Ctx) {
 
         Object responseEventProvider = axi2Ctx.getProperty(SSE_ANALYTICS_INFO);
         if (responseEventProvider == null) {
             log.error("SSE Analytics event provider is null.");
-            return;
+            return null;
         }
         SseResponseEventDataProvider provider = (SseResponseEventDataProvider) responseEventProvider;
         provider.setResponseCode((int) axi2Ctx.getProperty(SynapseConstants.HTTP_SC));
-        GenericRequestDataCollector dataCollector = new GenericRequestDataCollector(provider);
-        for (int count = 0; count < eventCount; count++) {
-            dataCollector.collectData();
-        }
+        return provider;
     }
 
+    /**
+     * Event streams are parsed as UTF-8, which is the only encoding allowed for server sent events.
+     *
+     * @param charset ignored
+     * @deprecated the charset of event streams is always UTF-8
+     */
+    @Deprecated
     public void setCharset(String charset) {
-        this.charset = charset;
+        log.debug("The charset of SSE streams is always UTF-8.");
     }
 }
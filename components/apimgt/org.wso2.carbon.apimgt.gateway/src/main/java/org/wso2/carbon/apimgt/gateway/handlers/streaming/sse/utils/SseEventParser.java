@@ -0,0 +1,71 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Counts the events of a server sent event stream. An event ends with an empty line, where lines end with CRLF, LF
+ * or CR. The parser keeps its state between the chunks of a stream, hence an event boundary split across chunks is
+ * counted once. Empty events are not counted, as they are not dispatched to clients.
+ * <p>
+ * Event streams are always UTF-8 encoded, therefore the bytes of a chunk are scanned without decoding or copying
+ * them.
+ */
+public class SseEventParser {
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    private boolean lineEmpty = true;
+    private boolean eventHasContent = false;
+    private boolean lastWasCR = false;
+
+    /**
+     * Counts the events which end within the remaining bytes of the given chunk. The position of the buffer is not
+     * changed.
+     *
+     * @param buffer chunk of the event stream
+     * @return number of events ending within the chunk
+     */
+    public int countEvents(ByteBuffer buffer) {
+
+        int eventCount = 0;
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            byte b = buffer.get(i);
+            if (b == LF && lastWasCR) {
+                // LF of a CRLF line ending
+                lastWasCR = false;
+                continue;
+            }
+            lastWasCR = b == CR;
+            if (b == LF || b == CR) {
+                if (lineEmpty && eventHasContent) {
+                    eventCount++;
+                    eventHasContent = false;
+                }
+                lineEmpty = true;
+            } else {
+                lineEmpty = false;
+                eventHasContent = true;
+            }
+        }
+        return eventCount;
+    }
+}
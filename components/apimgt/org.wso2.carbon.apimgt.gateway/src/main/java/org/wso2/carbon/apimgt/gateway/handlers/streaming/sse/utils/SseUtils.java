@@ -23,6 +23,7 @@ import org.apache.commons.logging.LogFactory;
 import org.json.JSONObject;
 import org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.throttling.ThrottleInfo;
 import org.wso2.carbon.apimgt.gateway.handlers.security.AuthenticationContext;
+import org.wso2.carbon.apimgt.gateway.handlers.throttling.APIThrottleConstants;
 import org.wso2.carbon.apimgt.gateway.internal.ServiceReferenceHolder;
 import org.wso2.carbon.apimgt.gateway.throttling.ThrottleDataHolder;
 import org.wso2.carbon.apimgt.gateway.throttling.publisher.ThrottleDataPublisher;
@@ -71,9 +72,39 @@ public class SseUtils {
         }
     }
 
-    public static void publishNonThrottledEvent(int eventCount, String messageId, ThrottleInfo throttleInfo,
+    /**
+     * Publishes a throttle event once for each of the given number of server sent events.
+     *
+     * @param eventCount   number of server sent events
+     * @param messageId    message id of the event
+     * @param throttleInfo throttle information of the stream
+     * @param properties   properties of the event
+     */
+    public static void publishNonThrottledEvent(long eventCount, String messageId, ThrottleInfo throttleInfo,
                                                 JSONObject properties) {
 
+        publish(createEvent(messageId, throttleInfo, properties), eventCount);
+    }
+
+    /**
+     * Publishes a single throttle event which stands for the given number of server sent events. The traffic manager
+     * counts the event by its 'eventCount' property, which requires the throttle policies of this version.
+     *
+     * @param eventCount   number of server sent events, set as the 'eventCount' property of the event
+     * @param messageId    message id of the event
+     * @param throttleInfo throttle information of the stream
+     * @param properties   properties of the event
+     */
+    public static void publishAggregatedNonThrottledEvent(long eventCount, String messageId,
+                                                          ThrottleInfo throttleInfo, JSONObject properties) {
+
+        properties.put(APIThrottleConstants.EVENT_COUNT, eventCount);
+        publish(createEvent(messageId, throttleInfo, properties), 1);
+    }
+
+    private static org.wso2.carbon.databridge.commons.Event createEvent(String messageId, ThrottleInfo throttleInfo,
+                                                                        JSONObject properties) {
+
         Object[] objects = new Object[] { messageId, throttleInfo.getApplicationLevelThrottleKey(),
                 throttleInfo.getApplicationTier(), throttleInfo.getApiLevelThrottleKey(), throttleInfo.getApiTier(),
                 throttleInfo.getSubscriptionLevelThrottleKey(), throttleInfo.getTier(),
@@ -82,16 +113,17 @@ public class SseUtils {
                 throttleInfo.getSubscriberTenantDomain(), throttleInfo.getSubscriberTenantDomain(),
                 throttleInfo.getApplicationId(), throttleInfo.getApiName(), properties.toString() };
 
-        org.wso2.carbon.databridge.commons.Event event = new org.wso2.carbon.databridge.commons.Event(
+        return new org.wso2.carbon.databridge.commons.Event(
                 THROTTLE_STREAM_ID, System.currentTimeMillis(), null, null, objects);
+    }
+
+    private static void publish(org.wso2.carbon.databridge.commons.Event event, long count) {
 
         ThrottleDataPublisher throttleDataPublisher = ServiceReferenceHolder.getInstance().getThrottleDataPublisher();
         if (throttleDataPublisher != null) {
-            int count = 1;
             DataPublisher publisher = ThrottleDataPublisher.getDataPublisher();
-            while (count <= eventCount) {
+            for (long published = 0; published < count; published++) {
                 publisher.tryPublish(event);
-                count++;
             }
         } else {
             log.error("Cannot publish events to traffic manager because ThrottleDataPublisher "
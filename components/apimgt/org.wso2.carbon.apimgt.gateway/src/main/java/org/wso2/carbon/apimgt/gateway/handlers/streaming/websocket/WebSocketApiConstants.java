@@ -48,6 +48,10 @@ public class WebSocketApiConstants {
         public static final String GRAPHQL_QUERY_TOO_COMPLEX_MESSAGE = "QUERY TOO COMPLEX";
         public static final int GRAPHQL_INVALID_QUERY = 4022;
         public static final String GRAPHQL_INVALID_QUERY_MESSAGE = "INVALID QUERY";
+        public static final String GRAPHQL_TOO_MANY_SUBSCRIPTIONS_MESSAGE =
+                "Maximum number of subscriptions per connection exceeded";
+        public static final int CONNECTION_IDLE_TIMEOUT_ERROR = 1001;
+        public static final String CONNECTION_IDLE_TIMEOUT_ERROR_MESSAGE = "Connection idle timeout";
         public static final String ERROR_CODE = "code";
         public static final String ERROR_MESSAGE = "message";
     }
@@ -63,6 +63,7 @@ public class APIThrottleConstants {
     public static final String IPv6 = "ipv6";
     public static final String CONTENT_LENGTH = "Content-Length";
     public static final String MESSAGE_SIZE = "messageSize";
+    public static final String EVENT_COUNT = "eventCount";
     public static final String MIN = "min";
     public static final String WS_THROTTLE_POLICY_HEADER = "<wsp:Policy xmlns:wsp=\"http://schemas.xmlsoap.org/ws/2004/09/policy\" " +
             "xmlns:throttle=\"http://www.wso2.org/products/wso2commons/throttle\">\n" +
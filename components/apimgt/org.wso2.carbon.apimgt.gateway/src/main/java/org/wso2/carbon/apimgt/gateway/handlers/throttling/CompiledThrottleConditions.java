@@ -0,0 +1,481 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.handlers.throttling;
+
+import org.apache.commons.lang3.StringUtils;
+import org.wso2.carbon.apimgt.impl.dto.ConditionDto;
+import org.wso2.carbon.apimgt.impl.utils.TinyLFUCache;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Conditions of a throttled API or resource key, compiled once when they are received from the traffic manager.
+ * Regular expressions are compiled to patterns, IPv4 addresses are held as longs, and the conditions of a condition
+ * pipeline are ordered so that the cheapest ones are checked first.
+ * <p>
+ * The result of an evaluation only depends on the request attributes referenced by the conditions, hence decisions
+ * are cached per combination of those attributes. Client IPs and JWTs are not part of the cache key, only the outcomes
+ * of the IP conditions and the values of the referenced JWT claims are, so that clients which only differ in their IP
+ * or token share a decision. The least frequently used decisions are evicted once the cache is full. A change to the
+ * conditions of a key replaces the compiled conditions of the key, which discards the cached decisions along with them.
+ */
+public final class CompiledThrottleConditions {
+
+    static final String DEFAULT_CONDITION = "default";
+    static final int MAX_CACHED_DECISIONS = 1000;
+    // Cached in place of null, which cannot be held by a concurrent map
+    private static final String NO_CONDITION = "";
+
+    private static final int COST_IP = 0;
+    private static final int COST_HEADER = 1;
+    private static final int COST_QUERY_PARAM = 2;
+    private static final int COST_JWT_CLAIM = 3;
+
+    private final String[] conditionKeys;
+    private final Pipeline[][] pipelines;
+    private final boolean defaultPresent;
+    private final Pipeline[] defaultPipelines;
+    private final IpCondition[] ipConditions;
+    private final String[] headerNames;
+    private final String[] queryParamNames;
+    private final boolean jwtReferenced;
+    private final String[] jwtClaimNames;
+    private final Map<List<Object>, String> decisions = new TinyLFUCache<>(MAX_CACHED_DECISIONS);
+
+    private CompiledThrottleConditions(Map<String, List<ConditionDto>> conditionDtoMap) {
+
+        List<String> keys = new ArrayList<>();
+        List<Pipeline[]> compiledPipelines = new ArrayList<>();
+        Set<String> headers = new LinkedHashSet<>();
+        Set<String> queryParams = new LinkedHashSet<>();
+        Set<String> jwtClaims = new LinkedHashSet<>();
+        List<IpCondition> ips = new ArrayList<>();
+        boolean jwt = false;
+        Pipeline[] compiledDefault = null;
+        for (Map.Entry<String, List<ConditionDto>> conditions : conditionDtoMap.entrySet()) {
+            Pipeline[] compiled = compile(conditions.getValue());
+            for (Pipeline pipeline : compiled) {
+                for (Condition condition : pipeline.conditions) {
+                    if (condition instanceof IpCondition) {
+                        ips.add((IpCondition) condition);
+                    } else if (condition instanceof HeaderConditions) {
+                        headers.addAll(Arrays.asList(((HeaderConditions) condition).names));
+                    } else if (condition instanceof QueryParamConditions) {
+                        queryParams.addAll(Arrays.asList(((QueryParamConditions) condition).names));
+                    } else if (condition instanceof JwtClaimConditions) {
+                        jwt = true;
+                        jwtClaims.addAll(Arrays.asList(((JwtClaimConditions) condition).names));
+                    }
+                }
+            }
+            if (DEFAULT_CONDITION.equals(conditions.getKey())) {
+                compiledDefault = compiled;
+            } else {
+                keys.add(conditions.getKey());
+                compiledPipelines.add(compiled);
+            }
+        }
+        this.conditionKeys = keys.toArray(new String[0]);
+        this.pipelines = compiledPipelines.toArray(new Pipeline[0][]);
+        this.defaultPresent = compiledDefault != null;
+        this.defaultPipelines = compiledDefault;
+        this.ipConditions = ips.toArray(new IpCondition[0]);
+        this.headerNames = headers.toArray(new String[0]);
+        this.queryParamNames = queryParams.toArray(new String[0]);
+        this.jwtReferenced = jwt;
+        this.jwtClaimNames = jwtClaims.toArray(new String[0]);
+    }
+
+    /**
+     * Compiles the conditions of a throttled key. Condition keys other than the default are evaluated in the iteration
+     * order of the given map.
+     *
+     * @param conditionDtoMap condition key to condition pipelines mappings of the throttled key
+     * @return compiled conditions
+     */
+    public static CompiledThrottleConditions compile(Map<String, List<ConditionDto>> conditionDtoMap) {
+
+        return new CompiledThrottleConditions(conditionDtoMap);
+    }
+
+    public int size() {
+
+        return conditionKeys.length + (defaultPresent ? 1 : 0);
+    }
+
+    /**
+     * Returns the condition under which the request is throttled, following the semantics of
+     * {@link ThrottleConditionEvaluator#getThrottledInCondition}.
+     *
+     * @param request attributes of the request
+     * @return the key of the first matching condition, "default" if only the default condition applies, or null
+     */
+    String evaluate(RequestAttributes request) {
+
+        List<Object> decisionKey = getDecisionKey(request);
+        String decision = decisions.get(decisionKey);
+        if (decision == null) {
+            decision = evaluateConditions(request);
+            decisions.put(decisionKey, decision != null ? decision : NO_CONDITION);
+        } else if (NO_CONDITION.equals(decision)) {
+            decision = null;
+        }
+        return decision;
+    }
+
+    int getCachedDecisionCount() {
+
+        return decisions.size();
+    }
+
+    private String evaluateConditions(RequestAttributes request) {
+
+        for (int i = 0; i < conditionKeys.length; i++) {
+            if (isThrottledWithinCondition(request, pipelines[i])) {
+                return conditionKeys[i];
+            }
+        }
+        if (defaultPresent) {
+            if (defaultPipelines.length == 0 || !isThrottledWithinCondition(request, defaultPipelines)) {
+                return DEFAULT_CONDITION;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns true if any of the pipelines match the request, or if there are no pipelines.
+     */
+    private static boolean isThrottledWithinCondition(RequestAttributes request, Pipeline[] pipelines) {
+
+        if (pipelines.length == 0) {
+            return true;
+        }
+        for (Pipeline pipeline : pipelines) {
+            if (pipeline.matches(request)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds the key of the decision cache out of the condition types which are enabled, the outcomes of the IP
+     * conditions, and the headers, query parameters and JWT claims which are referenced by the conditions.
+     */
+    private List<Object> getDecisionKey(RequestAttributes request) {
+
+        int size = 2 + (ipConditions.length > 0 ? 1 : 0) + headerNames.length + queryParamNames.length
+                + (jwtReferenced ? 1 + jwtClaimNames.length : 0);
+        Object[] key = new Object[size];
+        int index = 0;
+        key[index++] = (request.isHeaderConditionsEnabled() ? 1 : 0) | (request.isQueryParamConditionsEnabled() ? 2 : 0)
+                | (request.isJwtConditionsEnabled() ? 4 : 0);
+        key[index++] = request.getHeaders() != null;
+        if (ipConditions.length > 0) {
+            BitSet ipOutcomes = new BitSet(ipConditions.length);
+            for (int i = 0; i < ipConditions.length; i++) {
+                if (ipConditions[i].matches(request)) {
+                    ipOutcomes.set(i);
+                }
+            }
+            key[index++] = ipOutcomes;
+        }
+        for (String headerName : headerNames) {
+            key[index++] = request.getHeader(headerName);
+        }
+        for (String queryParamName : queryParamNames) {
+            key[index++] = request.getQueryParam(queryParamName);
+        }
+        if (jwtReferenced) {
+            // The claims are only read when the JWT conditions are evaluated
+            boolean jwtPresent = request.getCallerToken() != null;
+            key[index++] = jwtPresent;
+            if (jwtPresent && request.isJwtConditionsEnabled()) {
+                for (String jwtClaimName : jwtClaimNames) {
+                    key[index++] = request.getJwtClaim(jwtClaimName);
+                }
+            }
+        }
+        return Arrays.asList(key);
+    }
+
+    private static Pipeline[] compile(List<ConditionDto> conditionDtoList) {
+
+        if (conditionDtoList == null) {
+            return new Pipeline[0];
+        }
+        Pipeline[] compiled = new Pipeline[conditionDtoList.size()];
+        for (int i = 0; i < compiled.length; i++) {
+            compiled[i] = new Pipeline(conditionDtoList.get(i));
+        }
+        // Any matching pipeline decides the result, hence the cheapest are checked first
+        Arrays.sort(compiled, Comparator.comparingInt(pipeline -> pipeline.cost));
+        return compiled;
+    }
+
+    /**
+     * A condition pipeline, which matches if all of its conditions match.
+     */
+    private static final class Pipeline {
+
+        private final Condition[] conditions;
+        private final int cost;
+
+        Pipeline(ConditionDto conditionDto) {
+
+            List<Condition> compiled = new ArrayList<>();
+            if (conditionDto.getIpCondition() != null) {
+                compiled.add(new IpCondition(conditionDto.getIpCondition(), false));
+            } else if (conditionDto.getIpRangeCondition() != null) {
+                compiled.add(new IpCondition(conditionDto.getIpRangeCondition(), true));
+            }
+            if (conditionDto.getHeaderConditions() != null
+                    && !conditionDto.getHeaderConditions().getValues().isEmpty()) {
+                compiled.add(new HeaderConditions(conditionDto.getHeaderConditions().getValues(),
+                        conditionDto.getHeaderConditions().isInvert()));
+            }
+            if (conditionDto.getQueryParameterConditions() != null
+                    && !conditionDto.getQueryParameterConditions().getValues().isEmpty()) {
+                compiled.add(new QueryParamConditions(conditionDto.getQueryParameterConditions().getValues(),
+                        conditionDto.getQueryParameterConditions().isInvert()));
+            }
+            if (conditionDto.getJwtClaimConditions() != null
+                    && !conditionDto.getJwtClaimConditions().getValues().isEmpty()) {
+                compiled.add(new JwtClaimConditions(conditionDto.getJwtClaimConditions().getValues(),
+                        conditionDto.getJwtClaimConditions().isInvert()));
+            }
+            compiled.sort(Comparator.comparingInt(condition -> condition.cost));
+            this.conditions = compiled.toArray(new Condition[0]);
+            int totalCost = 0;
+            for (Condition condition : conditions) {
+                totalCost += condition.cost + 1;
+            }
+            this.cost = totalCost;
+        }
+
+        boolean matches(RequestAttributes request) {
+
+            for (Condition condition : conditions) {
+                if (condition.isEnabled(request) && !condition.matches(request)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private abstract static class Condition {
+
+        final int cost;
+
+        Condition(int cost) {
+
+            this.cost = cost;
+        }
+
+        boolean isEnabled(RequestAttributes request) {
+
+            return true;
+        }
+
+        abstract boolean matches(RequestAttributes request);
+    }
+
+    /**
+     * A specific IP or IP range condition. Addresses which fit in a long are compared as longs.
+     */
+    private static final class IpCondition extends Condition {
+
+        private final boolean range;
+        private final boolean invert;
+        private final boolean longValues;
+        private final long start;
+        private final long end;
+        private final BigInteger startIp;
+        private final BigInteger endIp;
+
+        IpCondition(ConditionDto.IPCondition ipCondition, boolean range) {
+
+            super(COST_IP);
+            this.range = range;
+            this.invert = ipCondition.isInvert();
+            this.startIp = range ? ipCondition.getStartingIp() : ipCondition.getSpecificIp();
+            this.endIp = range ? ipCondition.getEndingIp() : ipCondition.getSpecificIp();
+            this.longValues = fitsInLong(startIp) && fitsInLong(endIp);
+            this.start = longValues ? startIp.longValue() : 0;
+            this.end = longValues ? endIp.longValue() : 0;
+        }
+
+        @Override
+        boolean matches(RequestAttributes request) {
+
+            if (range && StringUtils.isEmpty(request.getIp())) {
+                return false;
+            }
+            BigInteger currentIp = request.getIpValue();
+            boolean status;
+            if (longValues && fitsInLong(currentIp)) {
+                long ip = currentIp.longValue();
+                status = start <= ip && ip <= end;
+            } else if (longValues) {
+                status = false;
+            } else if (range) {
+                status = startIp.compareTo(currentIp) <= 0 && endIp.compareTo(currentIp) >= 0;
+            } else {
+                status = currentIp.equals(startIp);
+            }
+            return invert != status;
+        }
+
+        private static boolean fitsInLong(BigInteger value) {
+
+            return value != null && value.bitLength() < Long.SIZE;
+        }
+    }
+
+    private abstract static class RegexConditions extends Condition {
+
+        final String[] names;
+        final Pattern[] patterns;
+        final boolean invert;
+
+        RegexConditions(Map<String, String> values, boolean invert, int cost) {
+
+            super(cost);
+            this.names = new String[values.size()];
+            this.patterns = new Pattern[values.size()];
+            int i = 0;
+            for (Map.Entry<String, String> value : values.entrySet()) {
+                names[i] = value.getKey();
+                patterns[i] = Pattern.compile(value.getValue());
+                i++;
+            }
+            this.invert = invert;
+        }
+    }
+
+    /**
+     * Header conditions of a pipeline. All headers have to be present and match their patterns.
+     */
+    private static final class HeaderConditions extends RegexConditions {
+
+        HeaderConditions(Map<String, String> values, boolean invert) {
+
+            super(values, invert, COST_HEADER);
+        }
+
+        @Override
+        boolean isEnabled(RequestAttributes request) {
+
+            return request.isHeaderConditionsEnabled();
+        }
+
+        @Override
+        boolean matches(RequestAttributes request) {
+
+            boolean status = true;
+            if (request.getHeaders() != null) {
+                for (int i = 0; i < names.length; i++) {
+                    String value = request.getHeader(names[i]);
+                    if (StringUtils.isEmpty(value) || !patterns[i].matcher(value).find()) {
+                        status = false;
+                        break;
+                    }
+                }
+            }
+            return invert != status;
+        }
+    }
+
+    /**
+     * Query parameter conditions of a pipeline. All parameters have to be present and match their patterns.
+     */
+    private static final class QueryParamConditions extends RegexConditions {
+
+        QueryParamConditions(Map<String, String> values, boolean invert) {
+
+            super(values, invert, COST_QUERY_PARAM);
+        }
+
+        @Override
+        boolean isEnabled(RequestAttributes request) {
+
+            return request.isQueryParamConditionsEnabled();
+        }
+
+        @Override
+        boolean matches(RequestAttributes request) {
+
+            boolean status = true;
+            for (int i = 0; i < names.length; i++) {
+                String value = request.getQueryParam(names[i]);
+                if (value == null || !patterns[i].matcher(value).find()) {
+                    status = false;
+                    break;
+                }
+            }
+            return invert != status;
+        }
+    }
+
+    /**
+     * JWT claim conditions of a pipeline. All claims have to be present and match their patterns. The conditions do
+     * not match requests without a JWT, regardless of whether they are inverted.
+     */
+    private static final class JwtClaimConditions extends RegexConditions {
+
+        JwtClaimConditions(Map<String, String> values, boolean invert) {
+
+            super(values, invert, COST_JWT_CLAIM);
+        }
+
+        @Override
+        boolean isEnabled(RequestAttributes request) {
+
+            return request.isJwtConditionsEnabled();
+        }
+
+        @Override
+        boolean matches(RequestAttributes request) {
+
+            if (request.getCallerToken() == null) {
+                return false;
+            }
+            boolean status = true;
+            for (int i = 0; i < names.length; i++) {
+                String value = request.getJwtClaim(names[i]);
+                if (value == null || !patterns[i].matcher(value).find()) {
+                    status = false;
+                    break;
+                }
+            }
+            return invert != status;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.handlers.throttling;
+
+import org.apache.axis2.context.MessageContext;
+import org.wso2.carbon.apimgt.common.gateway.util.JWTUtil;
+import org.wso2.carbon.apimgt.gateway.handlers.security.AuthenticationContext;
+import org.wso2.carbon.apimgt.gateway.utils.GatewayUtils;
+import org.wso2.carbon.apimgt.impl.dto.ThrottleProperties;
+import org.wso2.carbon.apimgt.impl.utils.APIUtil;
+
+import java.math.BigInteger;
+import java.util.Map;
+
+/**
+ * Attributes of a request which are evaluated against throttle conditions. Each attribute is extracted from the
+ * message context at most once per request, regardless of how many conditions refer to it.
+ */
+final class RequestAttributes {
+
+    private final MessageContext messageContext;
+    private final AuthenticationContext authenticationContext;
+    private final ThrottleProperties throttleProperties;
+    private boolean ipResolved;
+    private String ip;
+    private BigInteger ipValue;
+    private boolean headersResolved;
+    private Map<String, String> headers;
+    private boolean queryParamsResolved;
+    private Map<String, String> queryParams;
+    private boolean jwtClaimsResolved;
+    private Map<String, String> jwtClaims;
+
+    RequestAttributes(MessageContext messageContext, AuthenticationContext authenticationContext,
+                      ThrottleProperties throttleProperties) {
+
+        this.messageContext = messageContext;
+        this.authenticationContext = authenticationContext;
+        this.throttleProperties = throttleProperties;
+    }
+
+    boolean isHeaderConditionsEnabled() {
+
+        return throttleProperties != null && throttleProperties.isEnableHeaderConditions();
+    }
+
+    boolean isQueryParamConditionsEnabled() {
+
+        return throttleProperties != null && throttleProperties.isEnableQueryParamConditions();
+    }
+
+    boolean isJwtConditionsEnabled() {
+
+        return throttleProperties != null && throttleProperties.isEnableJwtConditions();
+    }
+
+    String getIp() {
+
+        if (!ipResolved) {
+            ip = GatewayUtils.getIp(messageContext);
+            ipResolved = true;
+        }
+        return ip;
+    }
+
+    BigInteger getIpValue() {
+
+        if (ipValue == null) {
+            ipValue = APIUtil.ipToBigInteger(getIp());
+        }
+        return ipValue;
+    }
+
+    Map<String, String> getHeaders() {
+
+        if (!headersResolved) {
+            headers = (Map<String, String>) messageContext.getProperty(MessageContext.TRANSPORT_HEADERS);
+            headersResolved = true;
+        }
+        return headers;
+    }
+
+    String getHeader(String name) {
+
+        Map<String, String> transportHeaders = getHeaders();
+        return transportHeaders != null ? transportHeaders.get(name) : null;
+    }
+
+    String getQueryParam(String name) {
+
+        if (!queryParamsResolved) {
+            queryParams = GatewayUtils.getQueryParams(messageContext);
+            queryParamsResolved = true;
+        }
+        return queryParams != null ? queryParams.get(name) : null;
+    }
+
+    String getCallerToken() {
+
+        return authenticationContext != null ? authenticationContext.getCallerToken() : null;
+    }
+
+    String getJwtClaim(String name) {
+
+        if (!jwtClaimsResolved) {
+            jwtClaims = JWTUtil.getJWTClaims(getCallerToken());
+            jwtClaimsResolved = true;
+        }
+        return jwtClaims != null ? jwtClaims.get(name) : null;
+    }
+}
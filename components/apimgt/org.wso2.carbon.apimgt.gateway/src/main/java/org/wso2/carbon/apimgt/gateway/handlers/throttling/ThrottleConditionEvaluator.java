@@ -21,7 +21,6 @@
 package org.wso2.carbon.apimgt.gateway.handlers.throttling;
 
 import org.apache.axis2.context.MessageContext;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.synapse.core.axis2.Axis2MessageContext;
 import org.wso2.carbon.apimgt.api.dto.ConditionDTO;
 import org.wso2.carbon.apimgt.api.dto.ConditionGroupDTO;
@@ -177,32 +176,6 @@ public class ThrottleConditionEvaluator {
         return false;
     }
 
-    private boolean isHeaderPresent(MessageContext messageContext, ConditionDto.HeaderConditions condition) {
-
-        Map<String, String> transportHeaderMap = (Map<String, String>) messageContext
-                .getProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS);
-        boolean status = true;
-        for (Map.Entry<String, String> headerEntry : condition.getValues().entrySet()) {
-            if (transportHeaderMap != null) {
-                String value = transportHeaderMap.get(headerEntry.getKey());
-                if (StringUtils.isEmpty(value)) {
-                    status = false;
-                    break;
-                } else {
-                    Pattern pattern = Pattern.compile(headerEntry.getValue());
-                    Matcher matcher = pattern.matcher(value);
-                    status = status && matcher.find();
-                }
-            }
-        }
-
-        if (condition.isInvert()) {
-            return !status;
-        } else {
-            return status;
-        }
-    }
-
     private boolean isJWTClaimPresent(AuthenticationContext authenticationContext, ConditionDTO condition) {
 
         Map<String, String> assertions = JWTUtil.getJWTClaims(authenticationContext.getCallerToken());
@@ -219,56 +192,6 @@ public class ThrottleConditionEvaluator {
         return false;
     }
 
-    private boolean isJWTClaimPresent(AuthenticationContext authenticationContext, ConditionDto.JWTClaimConditions
-            condition) {
-                
-        if (authenticationContext.getCallerToken() == null) {
-            return false;
-        }
-
-        Map<String, String> assertions = JWTUtil.getJWTClaims(authenticationContext.getCallerToken());
-        boolean status = true;
-
-        for (Map.Entry<String, String> jwtClaim : condition.getValues().entrySet()) {
-            String value = assertions.get(jwtClaim.getKey());
-            if (value == null) {
-                status = false;
-                break;
-            } else {
-                Pattern pattern = Pattern.compile(jwtClaim.getValue());
-                Matcher matcher = pattern.matcher(value);
-                status = status && matcher.find();
-            }
-        }
-        if (condition.isInvert()) {
-            return !status;
-        } else {
-            return status;
-        }
-    }
-
-    private boolean isQueryParamPresent(MessageContext messageContext, ConditionDto.QueryParamConditions condition) {
-
-        Map<String, String> queryParamMap = GatewayUtils.getQueryParams(messageContext);
-        boolean status = true;
-
-        for (Map.Entry<String, String> queryParam : condition.getValues().entrySet()) {
-            if (queryParamMap == null || queryParamMap.get(queryParam.getKey()) == null) {
-                status = false;
-                break;
-            } else {
-                Pattern pattern = Pattern.compile(queryParam.getValue());
-                Matcher matcher = pattern.matcher(queryParamMap.get(queryParam.getKey()));
-                status = status && matcher.find();
-            }
-        }
-        if (condition.isInvert()) {
-            return !status;
-        } else {
-            return status;
-        }
-    }
-
     private boolean isQueryParamPresent(MessageContext messageContext, ConditionDTO condition) {
 
         Map<String, String> queryParamMap = GatewayUtils.getQueryParams(messageContext);
@@ -305,106 +228,38 @@ public class ThrottleConditionEvaluator {
         return false;
     }
 
-    private boolean isWithinIP(MessageContext messageContext, ConditionDto.IPCondition ipCondition) {
-
-        String currentIpString = GatewayUtils.getIp(messageContext);
-        boolean status;
-        if (StringUtils.isNotEmpty(currentIpString)) {
-            BigInteger currentIp = APIUtil.ipToBigInteger(currentIpString);
-            status = ipCondition.getStartingIp().compareTo(currentIp) <= 0
-                    && ipCondition.getEndingIp().compareTo(currentIp) >= 0;
-        } else {
-            return false;
-        }
-        if (ipCondition.isInvert()) {
-            return !status;
-        } else {
-            return status;
-        }
-    }
-
-    private boolean isMatchingIP(MessageContext messageContext, ConditionDto.IPCondition ipCondition) {
-
-        String currentIpString = GatewayUtils.getIp(messageContext);
-        BigInteger longValueOfIp = APIUtil.ipToBigInteger(currentIpString);
+    /**
+     * Returns the condition under which a throttled API or resource key applies to the current request.
+     *
+     * @param synCtx          Message Context of the incoming request.
+     * @param authContext     AuthenticationContext populated by {@code APIAuthenticationHandler}
+     * @param conditionDtoMap Conditions of the throttled key, received from the traffic manager.
+     * @return The first matching condition, "default" if none of the conditions other than the default match, or
+     * null if the key does not apply to the request.
+     */
+    public String getThrottledInCondition(org.apache.synapse.MessageContext synCtx, AuthenticationContext authContext,
+                                          Map<String, List<ConditionDto>> conditionDtoMap) {
 
-        if (ipCondition.isInvert()) {
-            return !longValueOfIp.equals(ipCondition.getSpecificIp());
-        }
-        return longValueOfIp.equals(ipCondition.getSpecificIp());
+        return getThrottledInCondition(synCtx, authContext, CompiledThrottleConditions.compile(conditionDtoMap));
     }
 
+    /**
+     * Returns the condition under which a throttled API or resource key applies to the current request, using the
+     * conditions of the key compiled when they were received.
+     *
+     * @param synCtx             Message Context of the incoming request.
+     * @param authContext        AuthenticationContext populated by {@code APIAuthenticationHandler}
+     * @param compiledConditions Compiled conditions of the throttled key.
+     * @return The first matching condition, "default" if none of the conditions other than the default match, or
+     * null if the key does not apply to the request.
+     */
     public String getThrottledInCondition(org.apache.synapse.MessageContext synCtx, AuthenticationContext authContext,
-                                          Map<String, List<ConditionDto>> conditionDtoMap) {
+                                          CompiledThrottleConditions compiledConditions) {
 
         org.apache.axis2.context.MessageContext axis2MessageContext = ((Axis2MessageContext) synCtx)
                 .getAxis2MessageContext();
-        String condition = null;
-        for (Map.Entry<String, List<ConditionDto>> conditionList : conditionDtoMap.entrySet()) {
-            if (!"default".equals(conditionList.getKey())) {
-                boolean pipeLineStatus = isThrottledWithinCondition(axis2MessageContext, authContext, conditionList
-                        .getValue());
-                if (pipeLineStatus) {
-                    condition = conditionList.getKey();
-                    break;
-                }
-            }
-        }
-        if (StringUtils.isEmpty(condition)) {
-            if (conditionDtoMap.containsKey("default")) {
-                List<ConditionDto> conditionDtoList = conditionDtoMap.get("default");
-                if (conditionDtoList != null && !conditionDtoList.isEmpty()) {
-                    boolean pipeLineStatus = isThrottledWithinCondition(axis2MessageContext, authContext,
-                            conditionDtoList);
-                    if (!pipeLineStatus) {
-                        condition = "default";
-                    }
-                } else {
-                    condition = "default";
-                }
-            }
-        }
-        return condition;
-    }
-
-    private boolean isThrottledWithinCondition(MessageContext axis2MessageContext, AuthenticationContext authContext,
-                                               List<ConditionDto> conditionDtoList) {
-
         ThrottleProperties throttleProperties = ServiceReferenceHolder.getInstance().getThrottleProperties();
-        boolean status = true;
-        for (ConditionDto condition : conditionDtoList) {
-            status = true;
-            if (condition.getIpCondition() != null) {
-                if (!isMatchingIP(axis2MessageContext, condition.getIpCondition())) {
-                    status = false;
-                }
-            } else if (condition.getIpRangeCondition() != null) {
-                if (!isWithinIP(axis2MessageContext, condition.getIpRangeCondition())) {
-                    status = false;
-                }
-            }
-            if (condition.getHeaderConditions() != null && throttleProperties.isEnableHeaderConditions() &&
-                    !condition.getHeaderConditions().getValues().isEmpty()) {
-                if (!isHeaderPresent(axis2MessageContext, condition.getHeaderConditions())) {
-                    status = false;
-                }
-            }
-            if (condition.getJwtClaimConditions() != null && throttleProperties.isEnableJwtConditions() &&
-                    !condition.getJwtClaimConditions().getValues().isEmpty()) {
-                if (!isJWTClaimPresent(authContext, condition.getJwtClaimConditions())) {
-                    status = false;
-                }
-            }
-            if (condition.getQueryParameterConditions() != null && throttleProperties.isEnableQueryParamConditions() &&
-                    !condition.getQueryParameterConditions().getValues().isEmpty()) {
-                if (!isQueryParamPresent(axis2MessageContext, condition.getQueryParameterConditions())) {
-                    status = false;
-                }
-            }
-            if (status) {
-                break;
-            }
-        }
-        return status;
+        return compiledConditions.evaluate(new RequestAttributes(axis2MessageContext, authContext,
+                throttleProperties));
     }
 }
@@ -31,12 +31,19 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Message context to hold information of an intercepted single inbound connection.
  */
 public class InboundMessageContext {
 
+    // Approximate sizes used to estimate the memory retained by a context, in bytes
+    private static final int BASE_SIZE = 1024;
+    private static final int HEADER_SIZE = 128;
+    private static final int RESOURCE_SIZE = 256;
+    private static final int GRAPHQL_OPERATION_SIZE = 128;
+
     private MessageContext axis2MessageContext;
     private String tenantDomain;
     private String fullRequestPath;
@@ -63,7 +70,7 @@ public class InboundMessageContext {
 
     //Graphql Subscription specific connection context information
     private GraphQLSchemaDTO graphQLSchemaDTO;
-    private Map<String, GraphQLOperationDTO> graphQLMsgIdToVerbInfo = new HashMap<>();
+    private Map<String, GraphQLOperationDTO> graphQLMsgIdToVerbInfo = new ConcurrentHashMap<>();
 
     public void addVerbInfoForGraphQLMsgId(String msgId, GraphQLOperationDTO graphQLOperationDTO) {
         this.graphQLMsgIdToVerbInfo.put(msgId, graphQLOperationDTO);
@@ -73,6 +80,38 @@ public class InboundMessageContext {
         return this.graphQLMsgIdToVerbInfo.get(msgId);
     }
 
+    public void removeVerbInfoForGraphQLMsgId(String msgId) {
+        this.graphQLMsgIdToVerbInfo.remove(msgId);
+    }
+
+    public boolean hasVerbInfoForGraphQLMsgId(String msgId) {
+        return this.graphQLMsgIdToVerbInfo.containsKey(msgId);
+    }
+
+    public int getGraphQLSubscriptionCount() {
+        return this.graphQLMsgIdToVerbInfo.size();
+    }
+
+    /**
+     * Returns a rough estimate of the memory retained by this context, in bytes. Objects shared between connections,
+     * such as the API and the GraphQL schema, are not counted.
+     *
+     * @return estimated size of the context
+     */
+    public long getEstimatedSize() {
+        long size = BASE_SIZE;
+        size += estimateSize(fullRequestPath) + estimateSize(requestPath) + estimateSize(token)
+                + estimateSize(userIP) + estimateSize(matchingResource);
+        size += (long) (requestHeaders.size() + headersToAdd.size() + headersToRemove.size()) * HEADER_SIZE;
+        size += (long) resourcesMap.size() * RESOURCE_SIZE;
+        size += (long) graphQLMsgIdToVerbInfo.size() * GRAPHQL_OPERATION_SIZE;
+        return size;
+    }
+
+    private static long estimateSize(String value) {
+        return value == null ? 0 : 40 + 2L * value.length();
+    }
+
     public MessageContext getAxis2MessageContext() {
         return axis2MessageContext;
     }
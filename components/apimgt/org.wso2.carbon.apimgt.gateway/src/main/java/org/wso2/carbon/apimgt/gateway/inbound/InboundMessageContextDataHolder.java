@@ -17,36 +17,371 @@
  */
 package org.wso2.carbon.apimgt.gateway.inbound;
 
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.websocketx.CloseWebSocketFrame;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.gateway.handlers.streaming.websocket.WebSocketApiConstants;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.metrics.manager.Level;
+import org.wso2.carbon.metrics.manager.MetricManager;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A gateway data holder to hold information of InboundMessageContext and connection which it associates with.
+ * <p>
+ * Connections are kept in shards, as many as the default number of event loop threads of the WebSocket transport, so
+ * that connections served by different event loops seldom contend on the same map. Connections of closed channels are
+ * evicted periodically, along with the connections without any frames within the idle timeout when one is configured.
+ * The number of connections and their estimated memory usage are published per API on each eviction run.
  */
 public class InboundMessageContextDataHolder {
 
-    private static final InboundMessageContextDataHolder instance = new InboundMessageContextDataHolder();
-    private Map<String, InboundMessageContext> inboundMessageContextMap = new HashMap<>();
+    private static final Log log = LogFactory.getLog(InboundMessageContextDataHolder.class);
+    static final long DEFAULT_EVICTION_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+    static final int DEFAULT_MAX_SUBSCRIPTIONS_PER_CONNECTION = 1000;
+    private static final long MIN_EVICTION_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+    private static final String CONNECTION_COUNT = "CONNECTION_COUNT";
+    private static final String MEMORY_USAGE = "MEMORY_USAGE";
+    private static final String UNKNOWN_API = "UNKNOWN";
+    private static final InboundMessageContextDataHolder instance =
+            new InboundMessageContextDataHolder(2 * Runtime.getRuntime().availableProcessors());
+
+    private final List<Map<String, Connection>> shards;
+    private final int shardMask;
+    private final Map<String, InboundMessageContext> inboundMessageContextMap = new InboundMessageContextMap();
+    private ScheduledExecutorService evictionExecutor;
+    private volatile long idleTimeout;
+    private volatile int maxSubscriptionsPerConnection = DEFAULT_MAX_SUBSCRIPTIONS_PER_CONNECTION;
+
+    InboundMessageContextDataHolder(int shardCount) {
+
+        int count = 1;
+        while (count < shardCount) {
+            count <<= 1;
+        }
+        shards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            shards.add(new ConcurrentHashMap<>());
+        }
+        shardMask = count - 1;
+    }
 
     public static InboundMessageContextDataHolder getInstance() {
         return instance;
     }
-    
+
+    /**
+     * Returns a live view of the connections. Prefer the methods of the data holder, which look up a single shard.
+     *
+     * @return map of connection ID to the InboundMessageContext of the connection
+     */
     public Map<String, InboundMessageContext> getInboundMessageContextMap() {
         return inboundMessageContextMap;
     }
 
     public void addInboundMessageContextForConnection(String connectionId,
                                                       InboundMessageContext inboundMessageContext) {
-        inboundMessageContextMap.put(connectionId, inboundMessageContext);
+        shard(connectionId).put(connectionId, new Connection(inboundMessageContext));
     }
 
+    /**
+     * Returns the InboundMessageContext of a connection and marks the connection as active.
+     *
+     * @param connectionId connection ID
+     * @return InboundMessageContext or null if the connection is not known
+     */
     public InboundMessageContext getInboundMessageContextForConnectionId(String connectionId) {
-        return inboundMessageContextMap.get(connectionId);
+        Connection connection = shard(connectionId).get(connectionId);
+        if (connection == null) {
+            return null;
+        }
+        connection.lastAccessTime = System.currentTimeMillis();
+        return connection.inboundMessageContext;
     }
 
     public void removeInboundMessageContextForConnection(String connectionId) {
-        inboundMessageContextMap.remove(connectionId);
+        shard(connectionId).remove(connectionId);
+    }
+
+    public int getConnectionCount() {
+        int count = 0;
+        for (Map<String, Connection> shard : shards) {
+            count += shard.size();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of connections and their estimated memory usage per API, keyed by API context.
+     *
+     * @return connection statistics per API
+     */
+    public Map<String, APIConnectionStats> getConnectionStatsByAPI() {
+        Map<String, APIConnectionStats> connectionStats = new HashMap<>();
+        for (Map<String, Connection> shard : shards) {
+            for (Connection connection : shard.values()) {
+                addConnectionStats(connectionStats, connection.inboundMessageContext);
+            }
+        }
+        return connectionStats;
+    }
+
+    public int getMaxSubscriptionsPerConnection() {
+        return maxSubscriptionsPerConnection;
+    }
+
+    public void setMaxSubscriptionsPerConnection(int maxSubscriptionsPerConnection) {
+        this.maxSubscriptionsPerConnection = maxSubscriptionsPerConnection > 0
+                ? maxSubscriptionsPerConnection : DEFAULT_MAX_SUBSCRIPTIONS_PER_CONNECTION;
+    }
+
+    /**
+     * Starts evicting closed and idle connections periodically.
+     *
+     * @param idleTimeout time without any frames after which a connection is closed, in milliseconds. Idle connections
+     *                    are not closed if the value is not positive.
+     */
+    public synchronized void startConnectionEviction(long idleTimeout) {
+        this.idleTimeout = Math.max(0, idleTimeout);
+        if (evictionExecutor != null) {
+            return;
+        }
+        long evictionInterval = DEFAULT_EVICTION_INTERVAL;
+        if (this.idleTimeout > 0) {
+            evictionInterval = Math.max(MIN_EVICTION_INTERVAL, Math.min(evictionInterval, this.idleTimeout / 2));
+        }
+        evictionExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "WebSocketConnectionEvictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictionExecutor.scheduleWithFixedDelay(this::evictConnectionsSafely, evictionInterval, evictionInterval,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stopConnectionEviction() {
+        if (evictionExecutor != null) {
+            evictionExecutor.shutdownNow();
+            evictionExecutor = null;
+        }
+    }
+
+    /**
+     * Removes the connections of closed channels and closes the connections which are idle for longer than the idle
+     * timeout, then publishes the connection metrics of the remaining connections.
+     *
+     * @return number of connections evicted
+     */
+    int evictConnections() {
+        long now = System.currentTimeMillis();
+        int evictedCount = 0;
+        Map<String, APIConnectionStats> connectionStats = new HashMap<>();
+        for (Map<String, Connection> shard : shards) {
+            Iterator<Connection> iterator = shard.values().iterator();
+            while (iterator.hasNext()) {
+                Connection connection = iterator.next();
+                ChannelHandlerContext ctx = connection.inboundMessageContext.getCtx();
+                if (ctx != null && !ctx.channel().isActive()) {
+                    iterator.remove();
+                    evictedCount++;
+                } else if (idleTimeout > 0 && now - connection.lastAccessTime > idleTimeout) {
+                    iterator.remove();
+                    evictedCount++;
+                    if (ctx != null) {
+                        if (log.isDebugEnabled()) {
+                            log.debug("Closing idle WebSocket connection " + ctx.channel().toString());
+                        }
+                        ctx.writeAndFlush(new CloseWebSocketFrame(
+                                WebSocketApiConstants.FrameErrorConstants.CONNECTION_IDLE_TIMEOUT_ERROR,
+                                WebSocketApiConstants.FrameErrorConstants.CONNECTION_IDLE_TIMEOUT_ERROR_MESSAGE))
+                                .addListener(ChannelFutureListener.CLOSE);
+                    }
+                } else {
+                    addConnectionStats(connectionStats, connection.inboundMessageContext);
+                }
+            }
+        }
+        for (Map.Entry<String, APIConnectionStats> entry : connectionStats.entrySet()) {
+            updateConnectionMetrics(entry.getKey(), entry.getValue());
+        }
+        return evictedCount;
     }
-}
 
+    /**
+     * Updates the connection metrics of an API.
+     *
+     * @param apiContext      context of the API
+     * @param connectionStats connection statistics of the API
+     */
+    protected void updateConnectionMetrics(String apiContext, APIConnectionStats connectionStats) {
+        MetricManager.histogram(Level.INFO, MetricManager.name(APIConstants.METRICS_PREFIX,
+                getClass().getSimpleName(), apiContext, CONNECTION_COUNT))
+                .update(connectionStats.getConnectionCount());
+        MetricManager.histogram(Level.INFO, MetricManager.name(APIConstants.METRICS_PREFIX,
+                getClass().getSimpleName(), apiContext, MEMORY_USAGE)).update(connectionStats.getMemoryUsage());
+    }
+
+    private void evictConnectionsSafely() {
+        try {
+            int evictedCount = evictConnections();
+            if (log.isDebugEnabled()) {
+                log.debug("Evicted " + evictedCount + " WebSocket connections. Active connections: "
+                        + getConnectionCount());
+            }
+        } catch (RuntimeException e) {
+            log.error("Error while evicting WebSocket connections", e);
+        }
+    }
+
+    private static void addConnectionStats(Map<String, APIConnectionStats> connectionStats,
+                                           InboundMessageContext inboundMessageContext) {
+        String apiContext = inboundMessageContext.getApiContext() != null
+                ? inboundMessageContext.getApiContext() : UNKNOWN_API;
+        APIConnectionStats stats = connectionStats.computeIfAbsent(apiContext, key -> new APIConnectionStats());
+        stats.connectionCount++;
+        stats.memoryUsage += inboundMessageContext.getEstimatedSize();
+    }
+
+    private Map<String, Connection> shard(String connectionId) {
+        int hash = connectionId.hashCode();
+        return shards.get((hash ^ (hash >>> 16)) & shardMask);
+    }
+
+    /**
+     * Connection along with the time of its last frame.
+     */
+    private static final class Connection {
+
+        private final InboundMessageContext inboundMessageContext;
+        private volatile long lastAccessTime = System.currentTimeMillis();
+
+        private Connection(InboundMessageContext inboundMessageContext) {
+            this.inboundMessageContext = inboundMessageContext;
+        }
+    }
+
+    /**
+     * Number of connections of an API and their estimated memory usage.
+     */
+    public static final class APIConnectionStats {
+
+        private int connectionCount;
+        private long memoryUsage;
+
+        public int getConnectionCount() {
+            return connectionCount;
+        }
+
+        /**
+         * @return estimated memory used by the connection contexts, in bytes
+         */
+        public long getMemoryUsage() {
+            return memoryUsage;
+        }
+    }
+
+    /**
+     * Map view over the connections of all the shards.
+     */
+    private final class InboundMessageContextMap extends AbstractMap<String, InboundMessageContext> {
+
+        @Override
+        public int size() {
+            return getConnectionCount();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && shard((String) key).containsKey(key);
+        }
+
+        @Override
+        public InboundMessageContext get(Object key) {
+            return key instanceof String ? getInboundMessageContextForConnectionId((String) key) : null;
+        }
+
+        @Override
+        public InboundMessageContext put(String key, InboundMessageContext value) {
+            Connection previous = shard(key).put(key, new Connection(value));
+            return previous != null ? previous.inboundMessageContext : null;
+        }
+
+        @Override
+        public InboundMessageContext remove(Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            Connection previous = shard((String) key).remove(key);
+            return previous != null ? previous.inboundMessageContext : null;
+        }
+
+        @Override
+        public void clear() {
+            for (Map<String, Connection> shard : shards) {
+                shard.clear();
+            }
+        }
+
+        @Override
+        public Set<Entry<String, InboundMessageContext>> entrySet() {
+            return new AbstractSet<Entry<String, InboundMessageContext>>() {
+
+                @Override
+                public int size() {
+                    return getConnectionCount();
+                }
+
+                @Override
+                public Iterator<Entry<String, InboundMessageContext>> iterator() {
+                    return new EntryIterator();
+                }
+            };
+        }
+    }
+
+    /**
+     * Iterates over the connections of the shards one shard at a time.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<String, InboundMessageContext>> {
+
+        private int shardIndex;
+        private Iterator<Map.Entry<String, Connection>> current = shards.get(0).entrySet().iterator();
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && shardIndex < shardMask) {
+                current = shards.get(++shardIndex).entrySet().iterator();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, InboundMessageContext> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, Connection> entry = current.next();
+            return new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue().inboundMessageContext);
+        }
+
+        @Override
+        public void remove() {
+            current.remove();
+        }
+    }
+}
@@ -26,6 +26,7 @@ public class InboundProcessorResponseDTO {
     int errorCode;
     String errorMessage;
     boolean closeConnection = false; // whether to close the connection if during frame validation
+    boolean dropFrame = false; // whether to discard the frame without sending anything to the client
 
     public boolean isError() {
         return isError;
@@ -51,6 +52,14 @@ public class InboundProcessorResponseDTO {
         this.closeConnection = closeConnection;
     }
 
+    public boolean isDropFrame() {
+        return dropFrame;
+    }
+
+    public void setDropFrame(boolean dropFrame) {
+        this.dropFrame = dropFrame;
+    }
+
     public int getErrorCode() {
         return errorCode;
     }
@@ -20,12 +20,10 @@ package org.wso2.carbon.apimgt.gateway.inbound.websocket.request;
 import graphql.language.Definition;
 import graphql.language.Document;
 import graphql.language.OperationDefinition;
-import graphql.parser.Parser;
 import graphql.schema.GraphQLFieldDefinition;
 import graphql.schema.GraphQLObjectType;
 import graphql.schema.GraphQLSchema;
 import graphql.schema.GraphQLType;
-import graphql.validation.Validator;
 import java.util.Base64;
 import java.util.Set;
 import org.apache.commons.lang.StringUtils;
@@ -37,13 +35,15 @@ import org.wso2.carbon.apimgt.api.APIManagementException;
 import org.wso2.carbon.apimgt.common.gateway.constants.GraphQLConstants;
 import org.wso2.carbon.apimgt.common.gateway.dto.QueryAnalyzerResponseDTO;
 import org.wso2.carbon.apimgt.common.gateway.graphql.QueryAnalyzer;
-import org.wso2.carbon.apimgt.common.gateway.graphql.QueryValidator;
+import org.wso2.carbon.apimgt.common.gateway.graphql.GraphQLQueryCache;
+import org.wso2.carbon.apimgt.common.gateway.graphql.ParsedQuery;
 import org.wso2.carbon.apimgt.gateway.dto.GraphQLOperationDTO;
 import org.wso2.carbon.apimgt.common.gateway.graphql.GraphQLProcessorUtil;
 import org.wso2.carbon.apimgt.gateway.handlers.WebsocketUtil;
 import org.wso2.carbon.apimgt.gateway.handlers.streaming.websocket.WebSocketApiConstants;
 import org.wso2.carbon.apimgt.gateway.handlers.streaming.websocket.WebSocketUtils;
 import org.wso2.carbon.apimgt.gateway.inbound.InboundMessageContext;
+import org.wso2.carbon.apimgt.gateway.inbound.InboundMessageContextDataHolder;
 import org.wso2.carbon.apimgt.gateway.inbound.websocket.GraphQLProcessorResponseDTO;
 import org.wso2.carbon.apimgt.gateway.inbound.websocket.InboundProcessorResponseDTO;
 import org.wso2.carbon.apimgt.gateway.inbound.websocket.utils.InboundWebsocketProcessorUtil;
@@ -79,7 +79,6 @@ public class GraphQLRequestProcessor extends RequestProcessor {
         WebSocketUtils.removeApiPropertyFromChannel(inboundMessageContext.getCtx(),
                 APIConstants.API_ELECTED_RESOURCE);
         responseDTO = InboundWebsocketProcessorUtil.authenticateToken(inboundMessageContext);
-        Parser parser = new Parser();
 
         if (!responseDTO.isError()) {
             responseDTO = WebsocketUtil.validateDenyPolicies(inboundMessageContext);
@@ -89,17 +88,26 @@ public class GraphQLRequestProcessor extends RequestProcessor {
             if (checkIfSubscribeMessage(graphQLMsg)) {
                 String operationId = graphQLMsg.getString(
                         GraphQLConstants.SubscriptionConstants.PAYLOAD_FIELD_NAME_ID);
-                if (validatePayloadFields(graphQLMsg)) {
+                if (!inboundMessageContext.hasVerbInfoForGraphQLMsgId(operationId)
+                        && inboundMessageContext.getGraphQLSubscriptionCount() >= InboundMessageContextDataHolder
+                        .getInstance().getMaxSubscriptionsPerConnection()) {
+                    responseDTO = InboundWebsocketProcessorUtil.getBadRequestGraphQLFrameErrorDTO(
+                            WebSocketApiConstants.FrameErrorConstants.GRAPHQL_TOO_MANY_SUBSCRIPTIONS_MESSAGE,
+                            operationId);
+                } else if (validatePayloadFields(graphQLMsg)) {
                     String graphQLSubscriptionPayload =
                             ((JSONObject) graphQLMsg.get(GraphQLConstants.SubscriptionConstants
                                     .PAYLOAD_FIELD_NAME_PAYLOAD))
                                     .getString(GraphQLConstants.SubscriptionConstants.PAYLOAD_FIELD_NAME_QUERY);
-                    Document document = parser.parseDocument(graphQLSubscriptionPayload);
+                    ParsedQuery parsedQuery = GraphQLQueryCache.getInstance(
+                            inboundMessageContext.getGraphQLSchemaDTO().getGraphQLSchema())
+                            .getQuery(graphQLSubscriptionPayload);
+                    Document document = parsedQuery.getDocument();
                     // Extract the operation type and operations from the payload
                     OperationDefinition operation = getOperationFromPayload(document);
                     if (operation != null) {
                         if (checkIfValidSubscribeOperation(operation)) {
-                            responseDTO = validateQueryPayload(inboundMessageContext, document, operationId);
+                            responseDTO = validateQueryPayload(inboundMessageContext, parsedQuery, operationId);
                             if (!responseDTO.isError()) {
                                 // subscription operation name
                                 String subscriptionOperation = GraphQLProcessorUtil.getOperationListAsString(operation,
@@ -149,6 +157,11 @@ public class GraphQLRequestProcessor extends RequestProcessor {
                             "Invalid operation payload", operationId);
                 }
             } else {
+                if (checkIfCompleteMessage(graphQLMsg)) {
+                    // the client stopped the subscription, hence its operation is no longer needed
+                    inboundMessageContext.removeVerbInfoForGraphQLMsgId(
+                            graphQLMsg.getString(GraphQLConstants.SubscriptionConstants.PAYLOAD_FIELD_NAME_ID));
+                }
                 // if not subscribe message, set resource name as wild card for analytics event publishing
                 WebSocketUtils.setApiPropertyToChannel(inboundMessageContext.getCtx(),
                         APIConstants.API_ELECTED_RESOURCE, APIConstants.GRAPHQL_RESOURCE_PATH);
@@ -172,6 +185,20 @@ public class GraphQLRequestProcessor extends RequestProcessor {
                 && graphQLMsg.getString(GraphQLConstants.SubscriptionConstants.PAYLOAD_FIELD_NAME_ID) != null;
     }
 
+    /**
+     * Check if message stops a subscription. Payload should consist 'id' field and 'type' field with its value equal
+     * to either of 'stop' or 'complete'. The value 'stop' is used in 'subscriptions-transport-ws' protocol and
+     * 'complete' is used in 'graphql-ws' protocol.
+     *
+     * @param graphQLMsg GraphQL message JSON object
+     * @return true if valid complete message
+     */
+    private boolean checkIfCompleteMessage(JSONObject graphQLMsg) {
+        return GraphQLConstants.SubscriptionConstants.PAYLOAD_FIELD_NAME_ARRAY_FOR_COMPLETE.contains(
+                graphQLMsg.optString(GraphQLConstants.SubscriptionConstants.PAYLOAD_FIELD_NAME_TYPE))
+                && graphQLMsg.has(GraphQLConstants.SubscriptionConstants.PAYLOAD_FIELD_NAME_ID);
+    }
+
     /**
      * Validate message fields 'payload' and 'query'.
      * Example valid payload: 'payload':{query: subscription { greetings }}'
@@ -219,22 +246,20 @@ public class GraphQLRequestProcessor extends RequestProcessor {
     }
 
     /**
-     * Validates GraphQL query payload using QueryValidator and graphql schema of the invoking API.
+     * Validates GraphQL query payload against the graphql schema of the invoking API.
      *
      * @param inboundMessageContext InboundMessageContext
-     * @param document              Graphql payload
+     * @param parsedQuery           Graphql payload parsed and validated against the schema
      * @param operationId           Graphql message id
      * @return InboundProcessorResponseDTO
      */
     private InboundProcessorResponseDTO validateQueryPayload(InboundMessageContext inboundMessageContext,
-                                                             Document document, String operationId) {
+                                                             ParsedQuery parsedQuery, String operationId) {
 
         GraphQLProcessorResponseDTO responseDTO = new GraphQLProcessorResponseDTO();
         responseDTO.setId(operationId);
-        QueryValidator queryValidator = new QueryValidator(new Validator());
         // payload validation
-        String validationErrorMessage = queryValidator.validatePayload(
-                inboundMessageContext.getGraphQLSchemaDTO().getGraphQLSchema(), document);
+        String validationErrorMessage = parsedQuery.getValidationErrorMessage();
         if (validationErrorMessage != null) {
             String error = WebSocketApiConstants.FrameErrorConstants.GRAPHQL_INVALID_QUERY_MESSAGE + " : "
                     + validationErrorMessage;
@@ -18,6 +18,8 @@
 package org.wso2.carbon.apimgt.gateway.inbound.websocket.response;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.json.JSONObject;
 import org.wso2.carbon.apimgt.common.gateway.constants.GraphQLConstants;
 import org.wso2.carbon.apimgt.gateway.handlers.WebsocketUtil;
@@ -34,6 +36,8 @@ import org.wso2.carbon.apimgt.impl.APIConstants;
  */
 public class GraphQLResponseProcessor extends ResponseProcessor {
 
+    private static final Log log = LogFactory.getLog(GraphQLResponseProcessor.class);
+
     /**
      * Handle inbound websocket responses of GraphQL subscriptions and perform authentication, authorization
      * and throttling. This identifies operation from the subscription responses using the unique message id parameter.
@@ -66,6 +70,18 @@ public class GraphQLResponseProcessor extends ResponseProcessor {
                     GraphQLOperationDTO graphQLOperationDTO =
                             inboundMessageContext.getVerbInfoForGraphQLMsgId(
                                     graphQLMsg.getString(GraphQLConstants.SubscriptionConstants.PAYLOAD_FIELD_NAME_ID));
+                    if (graphQLOperationDTO == null) {
+                        // The subscription is already completed or was never accepted by the gateway, for example
+                        // when the backend sends data before it handles a stop message of the client. The client
+                        // does not expect anything more for the id, hence the frame is dropped.
+                        if (log.isDebugEnabled()) {
+                            log.debug("Dropping the subscription response for the id " + operationId
+                                    + " as there is no active subscription for it");
+                        }
+                        InboundProcessorResponseDTO dropResponseDTO = new InboundProcessorResponseDTO();
+                        dropResponseDTO.setDropFrame(true);
+                        return dropResponseDTO;
+                    }
                     // set resource name of subscription operation for analytics event publishing
                     WebSocketUtils.setApiPropertyToChannel(inboundMessageContext.getCtx(),
                             APIConstants.API_ELECTED_RESOURCE, graphQLOperationDTO.getOperation());
@@ -85,6 +101,11 @@ public class GraphQLResponseProcessor extends ResponseProcessor {
                             .getBadRequestFrameErrorDTO("Missing mandatory id field in the message");
                 }
             } else {
+                if (checkIfCompleteMessageResponse(graphQLMsg)) {
+                    // the backend completed the subscription, hence its operation is no longer needed
+                    inboundMessageContext.removeVerbInfoForGraphQLMsgId(
+                            graphQLMsg.getString(GraphQLConstants.SubscriptionConstants.PAYLOAD_FIELD_NAME_ID));
+                }
                 // if not subscribe message, set resource name as wild card for analytics event publishing
                 WebSocketUtils.setApiPropertyToChannel(inboundMessageContext.getCtx(),
                         APIConstants.API_ELECTED_RESOURCE, APIConstants.GRAPHQL_RESOURCE_PATH);
@@ -106,4 +127,17 @@ public class GraphQLResponseProcessor extends ResponseProcessor {
                 && GraphQLConstants.SubscriptionConstants.PAYLOAD_FIELD_NAME_ARRAY_FOR_DATA.contains(
                 graphQLMsg.getString(GraphQLConstants.SubscriptionConstants.PAYLOAD_FIELD_NAME_TYPE));
     }
+
+    /**
+     * Check if message completes a subscription. Payload should consist 'id' field and 'type' field with its value
+     * equal to 'complete', which is used in both 'subscriptions-transport-ws' and 'graphql-ws' protocols.
+     *
+     * @param graphQLMsg GraphQL message
+     * @return true if valid complete message
+     */
+    private boolean checkIfCompleteMessageResponse(JSONObject graphQLMsg) {
+        return GraphQLConstants.SubscriptionConstants.PAYLOAD_FIELD_NAME_ARRAY_FOR_COMPLETE.contains(
+                graphQLMsg.optString(GraphQLConstants.SubscriptionConstants.PAYLOAD_FIELD_NAME_TYPE))
+                && graphQLMsg.has(GraphQLConstants.SubscriptionConstants.PAYLOAD_FIELD_NAME_ID);
+    }
 }
@@ -46,6 +46,8 @@ import org.wso2.carbon.apimgt.gateway.inbound.websocket.GraphQLProcessorResponse
 import org.wso2.carbon.apimgt.gateway.inbound.websocket.InboundProcessorResponseDTO;
 import org.wso2.carbon.apimgt.gateway.internal.DataHolder;
 import org.wso2.carbon.apimgt.gateway.internal.ServiceReferenceHolder;
+import org.wso2.carbon.apimgt.gateway.throttling.publisher.ThrottleDataPublisher;
+import org.wso2.carbon.apimgt.gateway.throttling.publisher.WebSocketThrottleEventAggregator;
 import org.wso2.carbon.apimgt.gateway.utils.APIMgtGoogleAnalyticsUtils;
 import org.wso2.carbon.apimgt.gateway.utils.GatewayUtils;
 import org.wso2.carbon.apimgt.impl.APIConstants;
@@ -239,7 +241,6 @@ public class InboundWebsocketProcessorUtil {
             resourceLevelTier = verbInfoDTO.getThrottling();
         }
         String subscriptionLevelThrottleKey = appId + ":" + inboundMessageContext.getApiContext() + ":" + apiVersion;
-        String messageId = UIDGenerator.generateURNString();
         String remoteIP = inboundMessageContext.getUserIP();
         if (log.isDebugEnabled()) {
             log.debug("Remote IP address : " + remoteIP);
@@ -247,9 +248,6 @@ public class InboundWebsocketProcessorUtil {
         if (remoteIP.indexOf(":") > 0) {
             remoteIP = remoteIP.substring(1, remoteIP.indexOf(":"));
         }
-        JSONObject jsonObMap = new JSONObject();
-        Utils.setRemoteIp(jsonObMap, remoteIP);
-        jsonObMap.put(APIThrottleConstants.MESSAGE_SIZE, msgSize);
         try {
             PrivilegedCarbonContext.startTenantFlow();
             PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(
@@ -264,6 +262,24 @@ public class InboundWebsocketProcessorUtil {
         } finally {
             PrivilegedCarbonContext.endTenantFlow();
         }
+        ThrottleDataPublisher throttleDataPublisher = ServiceReferenceHolder.getInstance().getThrottleDataPublisher();
+        if (throttleDataPublisher == null) {
+            log.error("Cannot publish events to traffic manager because ThrottleDataPublisher "
+                    + "has not been initialised");
+        }
+        WebSocketThrottleEventAggregator eventAggregator = throttleDataPublisher.getWebSocketThrottleEventAggregator();
+        if (eventAggregator != null) {
+            eventAggregator.addFrame(new String[]{applicationLevelThrottleKey, applicationLevelTier,
+                    apiLevelThrottleKey, apiLevelTier, subscriptionLevelThrottleKey, subscriptionLevelTier,
+                    resourceLevelThrottleKey, resourceLevelTier, authorizedUser,
+                    inboundMessageContext.getApiContext(), apiVersion, appTenant, apiTenant, appId, apiName},
+                    remoteIP, msgSize);
+            return responseDTO;
+        }
+        String messageId = UIDGenerator.generateURNString();
+        JSONObject jsonObMap = new JSONObject();
+        Utils.setRemoteIp(jsonObMap, remoteIP);
+        jsonObMap.put(APIThrottleConstants.MESSAGE_SIZE, msgSize);
         Object[] objects =
                 new Object[]{messageId, applicationLevelThrottleKey, applicationLevelTier, apiLevelThrottleKey,
                         apiLevelTier, subscriptionLevelThrottleKey, subscriptionLevelTier, resourceLevelThrottleKey,
@@ -271,11 +287,7 @@ public class InboundWebsocketProcessorUtil {
                         appTenant, apiTenant, appId, apiName, jsonObMap.toString()};
         org.wso2.carbon.databridge.commons.Event event = new org.wso2.carbon.databridge.commons.Event(
                 "org.wso2.throttle.request.stream:1.0.0", System.currentTimeMillis(), null, null, objects);
-        if (ServiceReferenceHolder.getInstance().getThrottleDataPublisher() == null) {
-            log.error("Cannot publish events to traffic manager because ThrottleDataPublisher "
-                    + "has not been initialised");
-        }
-        ServiceReferenceHolder.getInstance().getThrottleDataPublisher().getDataPublisher().tryPublish(event);
+        throttleDataPublisher.getDataPublisher().tryPublish(event);
         return responseDTO;
     }
 
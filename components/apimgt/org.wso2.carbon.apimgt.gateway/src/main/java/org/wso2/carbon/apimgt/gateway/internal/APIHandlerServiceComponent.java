@@ -30,23 +30,37 @@ import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.osgi.service.component.annotations.ReferencePolicy;
 import org.wso2.carbon.apimgt.common.analytics.AnalyticsCommonConfiguration;
 import org.wso2.carbon.apimgt.common.analytics.AnalyticsServiceReferenceHolder;
+import org.wso2.carbon.apimgt.common.analytics.publishers.impl.AnalyticsDataPublisher;
 import org.wso2.carbon.apimgt.common.gateway.jwtgenerator.APIMgtGatewayJWTGeneratorImpl;
 import org.wso2.carbon.apimgt.common.gateway.jwtgenerator.APIMgtGatewayUrlSafeJWTGeneratorImpl;
 import org.wso2.carbon.apimgt.common.gateway.jwtgenerator.AbstractAPIMgtGatewayJWTGenerator;
 import org.wso2.carbon.apimgt.gateway.APIMgtGatewayConstants;
 import org.wso2.carbon.apimgt.gateway.RedisBaseDistributedCountManager;
+import org.wso2.carbon.apimgt.gateway.RedisBatchedDistributedCountManager;
 import org.wso2.carbon.apimgt.gateway.handlers.security.keys.APIKeyValidatorClientPool;
+import org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.SseEventProcessor;
+import org.wso2.carbon.apimgt.gateway.inbound.InboundMessageContextDataHolder;
 import org.wso2.carbon.apimgt.gateway.jwt.RevokedJWTMapCleaner;
 import org.wso2.carbon.apimgt.gateway.listeners.GatewayStartupListener;
 import org.wso2.carbon.apimgt.gateway.listeners.ServerStartupListener;
+import org.wso2.carbon.apimgt.gateway.throttling.publisher.ThrottleDataPublisher;
+import org.wso2.carbon.apimgt.gateway.webhooks.DeliveryStatusBatchPublisher;
+import org.wso2.carbon.apimgt.gateway.webhooks.WebhookDeliveryEngine;
+import org.wso2.carbon.apimgt.gateway.webhooks.WebhooksDataHolder;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.APIManagerConfiguration;
 import org.wso2.carbon.apimgt.impl.APIManagerConfigurationService;
 import org.wso2.carbon.apimgt.impl.caching.CacheProvider;
 import org.wso2.carbon.apimgt.impl.dto.GatewayArtifactSynchronizerProperties;
 import org.wso2.carbon.apimgt.impl.dto.RedisConfig;
+import org.wso2.carbon.apimgt.impl.dto.ThrottleProperties;
+import org.wso2.carbon.apimgt.impl.dto.WebhooksDTO;
+import org.wso2.carbon.apimgt.impl.dto.WebhooksDeliveryStatusDTO;
 import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.ArtifactRetriever;
 import org.wso2.carbon.apimgt.impl.jms.listener.JMSListenerShutDownService;
 import org.wso2.carbon.apimgt.impl.jwt.JWTValidationService;
 import org.wso2.carbon.apimgt.impl.keymgt.KeyManagerDataService;
+import org.wso2.carbon.apimgt.impl.utils.APIUtil;
 import org.wso2.carbon.apimgt.tracing.TracingService;
 import org.wso2.carbon.apimgt.tracing.Util;
 import org.wso2.carbon.apimgt.tracing.telemetry.TelemetryService;
@@ -79,6 +93,7 @@ public class APIHandlerServiceComponent {
 
     private APIKeyValidatorClientPool clientPool;
     private ServiceRegistration registration;
+    private RedisBatchedDistributedCountManager redisBatchedDistributedCountManager;
 
     @Activate
     protected void activate(ComponentContext context) {
@@ -115,6 +130,12 @@ public class APIHandlerServiceComponent {
         // Start JWT revoked map cleaner.
         RevokedJWTMapCleaner revokedJWTMapCleaner = new RevokedJWTMapCleaner();
         revokedJWTMapCleaner.startJWTRevokedMapCleaner();
+        // Start evicting closed and idle WebSocket connections
+        startWebSocketConnectionEviction(ServiceReferenceHolder.getInstance().getAPIManagerConfiguration());
+        // Start publishing throttle and analytics events of SSE APIs
+        startSseEventProcessor(ServiceReferenceHolder.getInstance().getAPIManagerConfiguration());
+        // Start delivering events of webhooks APIs and persisting their delivery statuses
+        startWebhookDelivery(ServiceReferenceHolder.getInstance().getAPIManagerConfiguration());
         if (TelemetryUtil.telemetryEnabled()) {
             ServiceReferenceHolder.getInstance().setTelemetry(ServiceReferenceHolder.getInstance().getTelemetryService
                     ().buildTelemetryTracer(APIMgtGatewayConstants.SERVICE_NAME));
@@ -126,11 +147,19 @@ public class APIHandlerServiceComponent {
         RedisConfig redisConfig =
                 ServiceReferenceHolder.getInstance().getAPIManagerConfiguration().getRedisConfig();
         if (redisConfig.isRedisEnabled()) {
-            RedisBaseDistributedCountManager redisBaseDistributedCountManager =
-                    new RedisBaseDistributedCountManager(ServiceReferenceHolder.getInstance().getRedisPool());
-            context.getBundleContext().registerService(DistributedCounterManager.class,
-                    redisBaseDistributedCountManager, null);
             ServiceReferenceHolder.getInstance().setRedisPool(getJedisPool(redisConfig));
+            DistributedCounterManager distributedCounterManager;
+            if (redisConfig.isCounterBatchingEnabled()) {
+                redisBatchedDistributedCountManager = new RedisBatchedDistributedCountManager(
+                        ServiceReferenceHolder.getInstance().getRedisPool(), redisConfig.getCounterFlushInterval(),
+                        redisConfig.getCounterMaxPendingIncrements());
+                distributedCounterManager = redisBatchedDistributedCountManager;
+            } else {
+                distributedCounterManager =
+                        new RedisBaseDistributedCountManager(ServiceReferenceHolder.getInstance().getRedisPool());
+            }
+            context.getBundleContext().registerService(DistributedCounterManager.class,
+                    distributedCounterManager, null);
         }
 
         // Create caches for the super tenant
@@ -151,6 +180,100 @@ public class APIHandlerServiceComponent {
         CacheProvider.createInvalidInternalKeyCache();
     }
 
+    private void startWebSocketConnectionEviction(APIManagerConfiguration configuration) {
+
+        long idleTimeout = 0;
+        String idleTimeoutValue = configuration.getFirstProperty(APIConstants.WEBSOCKET_CONNECTION_IDLE_TIMEOUT);
+        String maxSubscriptionsValue =
+                configuration.getFirstProperty(APIConstants.WEBSOCKET_MAX_SUBSCRIPTIONS_PER_CONNECTION);
+        try {
+            if (StringUtils.isNotEmpty(idleTimeoutValue)) {
+                idleTimeout = Long.parseLong(idleTimeoutValue.trim());
+            }
+            if (StringUtils.isNotEmpty(maxSubscriptionsValue)) {
+                InboundMessageContextDataHolder.getInstance()
+                        .setMaxSubscriptionsPerConnection(Integer.parseInt(maxSubscriptionsValue.trim()));
+            }
+        } catch (NumberFormatException e) {
+            log.warn("Invalid WebSocket connection configuration. Using the default values.", e);
+        }
+        InboundMessageContextDataHolder.getInstance().startConnectionEviction(idleTimeout);
+    }
+
+    private void startSseEventProcessor(APIManagerConfiguration configuration) {
+
+        long flushInterval = SseEventProcessor.DEFAULT_FLUSH_INTERVAL;
+        String flushIntervalValue = configuration.getFirstProperty(APIConstants.SSE_EVENT_FLUSH_INTERVAL);
+        String maxPendingKeysValue = configuration.getFirstProperty(APIConstants.SSE_EVENT_MAX_PENDING_KEYS);
+        try {
+            if (StringUtils.isNotEmpty(flushIntervalValue)) {
+                flushInterval = Long.parseLong(flushIntervalValue.trim());
+            }
+            if (StringUtils.isNotEmpty(maxPendingKeysValue)) {
+                SseEventProcessor.getInstance().setMaxPendingKeys(Integer.parseInt(maxPendingKeysValue.trim()));
+            }
+        } catch (NumberFormatException e) {
+            log.warn("Invalid SSE event processing configuration. Using the default values.", e);
+        }
+        ThrottleProperties.DataPublisher dataPublisherConfiguration =
+                configuration.getThrottleProperties().getDataPublisher();
+        if (dataPublisherConfiguration != null) {
+            SseEventProcessor.getInstance().setThrottleEventAggregationEnabled(
+                    dataPublisherConfiguration.isSseEventAggregationEnabled());
+        }
+        SseEventProcessor.getInstance().start(flushInterval);
+    }
+
+    private void startWebhookDelivery(APIManagerConfiguration configuration) {
+
+        if (!Boolean.parseBoolean(configuration.getFirstProperty(APIConstants.WEBHOOK_DELIVERY_ENABLED))) {
+            return;
+        }
+        DeliveryStatusBatchPublisher deliveryStatusPublisher = new DeliveryStatusBatchPublisher((int) getLongProperty(
+                configuration, APIConstants.WEBHOOK_DELIVERY_STATUS_MAX_PENDING,
+                DeliveryStatusBatchPublisher.DEFAULT_MAX_PENDING_STATUSES));
+        deliveryStatusPublisher.start(getLongProperty(configuration,
+                APIConstants.WEBHOOK_DELIVERY_STATUS_FLUSH_INTERVAL,
+                DeliveryStatusBatchPublisher.DEFAULT_FLUSH_INTERVAL));
+        WebhooksDataHolder.getInstance().setDeliveryStatusPublisher(deliveryStatusPublisher);
+        WebhookDeliveryEngine deliveryEngine = new WebhookDeliveryEngine(
+                (int) getLongProperty(configuration, APIConstants.WEBHOOK_DELIVERY_THREADS,
+                        WebhookDeliveryEngine.DEFAULT_THREADS),
+                (int) getLongProperty(configuration, APIConstants.WEBHOOK_DELIVERY_MAX_IN_FLIGHT_PER_SUBSCRIBER,
+                        WebhookDeliveryEngine.DEFAULT_MAX_IN_FLIGHT_PER_SUBSCRIBER),
+                (int) getLongProperty(configuration, APIConstants.WEBHOOK_DELIVERY_MAX_PENDING_PER_SUBSCRIBER,
+                        WebhookDeliveryEngine.DEFAULT_MAX_PENDING_PER_SUBSCRIBER),
+                (int) getLongProperty(configuration, APIConstants.WEBHOOK_DELIVERY_MAX_RETRIES,
+                        WebhookDeliveryEngine.DEFAULT_MAX_RETRIES),
+                getLongProperty(configuration, APIConstants.WEBHOOK_DELIVERY_RETRY_INITIAL_DELAY,
+                        WebhookDeliveryEngine.DEFAULT_RETRY_INITIAL_DELAY),
+                getLongProperty(configuration, APIConstants.WEBHOOK_DELIVERY_RETRY_MAX_DELAY,
+                        WebhookDeliveryEngine.DEFAULT_RETRY_MAX_DELAY),
+                (int) getLongProperty(configuration, APIConstants.WEBHOOK_DELIVERY_REQUEST_TIMEOUT,
+                        WebhookDeliveryEngine.DEFAULT_REQUEST_TIMEOUT),
+                callbackURI -> APIUtil.getHttpClient(callbackURI.getPort(), callbackURI.getScheme()),
+                (delivery, delivered) -> {
+                    WebhooksDTO subscriber = delivery.getSubscriber();
+                    deliveryStatusPublisher.addStatus(new WebhooksDeliveryStatusDTO(subscriber.getApiUUID(),
+                            subscriber.getAppID(), subscriber.getTenantDomain(), subscriber.getCallbackURL(),
+                            subscriber.getTopicName(), delivered ? 1 : 2));
+                });
+        WebhooksDataHolder.getInstance().setDeliveryEngine(deliveryEngine);
+    }
+
+    private static long getLongProperty(APIManagerConfiguration configuration, String key, long defaultValue) {
+
+        String value = configuration.getFirstProperty(key);
+        if (StringUtils.isNotEmpty(value)) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value " + value + " for " + key + ". Using the default value " + defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
     @Deactivate
     protected void deactivate(ComponentContext context) {
 
@@ -162,6 +285,22 @@ public class APIHandlerServiceComponent {
             log.debug("Unregistering ThrottleDataService...");
             registration.unregister();
         }
+        if (redisBatchedDistributedCountManager != null) {
+            redisBatchedDistributedCountManager.shutdown();
+        }
+        InboundMessageContextDataHolder.getInstance().stopConnectionEviction();
+        SseEventProcessor.getInstance().stop();
+        if (WebhooksDataHolder.getInstance().getDeliveryEngine() != null) {
+            WebhooksDataHolder.getInstance().getDeliveryEngine().shutdown();
+        }
+        if (WebhooksDataHolder.getInstance().getDeliveryStatusPublisher() != null) {
+            WebhooksDataHolder.getInstance().getDeliveryStatusPublisher().stop();
+        }
+        ThrottleDataPublisher throttleDataPublisher = ServiceReferenceHolder.getInstance().getThrottleDataPublisher();
+        if (throttleDataPublisher != null && throttleDataPublisher.getWebSocketThrottleEventAggregator() != null) {
+            throttleDataPublisher.getWebSocketThrottleEventAggregator().stop();
+        }
+        AnalyticsDataPublisher.getInstance().shutdown();
         if (ServiceReferenceHolder.getInstance().getRedisPool() != null &&
                 !ServiceReferenceHolder.getInstance().getRedisPool().isClosed()) {
             ServiceReferenceHolder.getInstance().getRedisPool().destroy();
@@ -46,6 +46,7 @@ import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.exception.Artifac
 import org.wso2.carbon.apimgt.impl.jms.listener.JMSListenerShutDownService;
 import org.wso2.carbon.apimgt.impl.utils.CertificateMgtUtils;
 import org.wso2.carbon.apimgt.keymgt.SubscriptionDataHolder;
+import org.wso2.carbon.apimgt.keymgt.SubscriptionDataPreloader;
 import org.wso2.carbon.apimgt.keymgt.model.SubscriptionDataLoader;
 import org.wso2.carbon.apimgt.keymgt.model.entity.API;
 import org.wso2.carbon.apimgt.keymgt.model.exception.DataLoadingException;
@@ -119,6 +120,7 @@ public class GatewayStartupListener extends AbstractAxis2ConfigurationContextObs
             } catch (CertificateManagementException e) {
                 log.error("Error while Backup Truststore", e);
             }
+            startSubscriptionDataPreload();
             log.debug("Registering ServerStartupListener for SubscriptionStore for the tenant domain : " + MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
             SubscriptionDataHolder.getInstance().registerTenantSubscriptionStore(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
             log.debug("Registered ServerStartupListener for SubscriptionStore for the tenant domain : " + MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
@@ -129,6 +131,20 @@ public class GatewayStartupListener extends AbstractAxis2ConfigurationContextObs
         }
     }
 
+    /**
+     * Starts preloading the subscription data of all tenants, if it is enabled. The subscription data stores of the
+     * tenants loaded afterwards take their data from the preload.
+     */
+    private void startSubscriptionDataPreload() {
+
+        EventHubConfigurationDto eventHubConfigurationDto =
+                ServiceReferenceHolder.getInstance().getAPIManagerConfiguration().getEventHubConfigurationDto();
+        if (eventHubConfigurationDto != null && eventHubConfigurationDto.isEnabled()
+                && eventHubConfigurationDto.isSubscriptionDataPreloadEnabled()) {
+            SubscriptionDataPreloader.getInstance().start(new SubscriptionDataLoaderImpl());
+        }
+    }
+
     private boolean deployArtifactsAtStartup(String tenantDomain) throws ArtifactSynchronizerException {
 
         GatewayArtifactSynchronizerProperties gatewayArtifactSynchronizerProperties =
@@ -286,7 +302,7 @@ public class GatewayStartupListener extends AbstractAxis2ConfigurationContextObs
 
     public void deployAPIsInAsyncMode(String tenantDomain) {
 
-        new Thread(new AsyncAPIDeployment(tenantDomain)).start();
+        new ArtifactsRetrieverThreadFactory().newThread(new AsyncAPIDeployment(tenantDomain)).start();
     }
 
     private void deployArtifactsInGateway(String tenantDomain) throws ArtifactSynchronizerException {
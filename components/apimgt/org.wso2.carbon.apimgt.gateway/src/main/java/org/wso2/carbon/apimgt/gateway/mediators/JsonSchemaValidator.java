@@ -29,6 +29,7 @@ import org.wso2.carbon.apimgt.gateway.threatprotection.APIMThreatAnalyzerExcepti
 import org.wso2.carbon.apimgt.gateway.threatprotection.AnalyzerHolder;
 import org.wso2.carbon.apimgt.gateway.threatprotection.analyzer.APIMThreatAnalyzer;
 import org.wso2.carbon.apimgt.gateway.threatprotection.configuration.JSONConfig;
+import org.wso2.carbon.apimgt.gateway.threatprotection.utils.PayloadTeeInputStream;
 import org.wso2.carbon.apimgt.gateway.threatprotection.utils.ThreatExceptionHandler;
 import org.wso2.carbon.apimgt.gateway.threatprotection.utils.ThreatProtectorConstants;
 import org.wso2.carbon.apimgt.gateway.utils.GatewayUtils;
@@ -60,6 +61,7 @@ public class JsonSchemaValidator extends AbstractMediator {
             logger.debug("JSON schema validation mediator is activated...");
         }
         Map<String, InputStream> inputStreams = null;
+        PayloadTeeInputStream payloadStream = null;
         org.apache.axis2.context.MessageContext axis2MC;
         String apiContext;
         String requestMethod;
@@ -85,12 +87,20 @@ public class JsonSchemaValidator extends AbstractMediator {
             APIMThreatAnalyzer apimThreatAnalyzer = AnalyzerHolder.getAnalyzer(contentType);
             apimThreatAnalyzer.configure(jsonConfig);
             try {
-                inputStreams = GatewayUtils.cloneRequestMessage(messageContext);
-                if (inputStreams != null) {
-                    InputStream inputStreamJson = inputStreams.get(ThreatProtectorConstants.JSON);
-                    BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStreamJson);
-                    apimThreatAnalyzer.analyze(bufferedInputStream, apiContext);
+                // Analyze the payload while it is read from the pipe, so that the analysis is aborted as soon as a
+                // limit is exceeded
+                payloadStream = GatewayUtils.getRequestPayloadStream(messageContext);
+                if (payloadStream != null) {
+                    apimThreatAnalyzer.analyze(payloadStream, apiContext);
                     isValid = true;
+                } else {
+                    inputStreams = GatewayUtils.cloneRequestMessage(messageContext);
+                    if (inputStreams != null) {
+                        InputStream inputStreamJson = inputStreams.get(ThreatProtectorConstants.JSON);
+                        BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStreamJson);
+                        apimThreatAnalyzer.analyze(bufferedInputStream, apiContext);
+                        isValid = true;
+                    }
                 }
             } catch (APIMThreatAnalyzerException e) {
                 String message = "Request is failed due to a JSON schema validation failure: ";
@@ -103,7 +113,7 @@ public class JsonSchemaValidator extends AbstractMediator {
                 isValid = GatewayUtils.handleThreat(messageContext, ThreatProtectorConstants.HTTP_SC_CODE,
                         message + e.getMessage());
             } finally {
-                // return analyzer to the pool
+                // release the analyzer of the thread
                 AnalyzerHolder.returnObject(apimThreatAnalyzer);
             }
         } else {
@@ -111,7 +121,11 @@ public class JsonSchemaValidator extends AbstractMediator {
                 log.debug("JSON Schema Validator: " + APIMgtGatewayConstants.REQUEST_TYPE_FAIL_MSG);
             }
         }
-        GatewayUtils.setOriginalInputStream(inputStreams, axis2MC);
+        if (payloadStream != null) {
+            GatewayUtils.setRequestPayload(payloadStream, axis2MC);
+        } else {
+            GatewayUtils.setOriginalInputStream(inputStreams, axis2MC);
+        }
         if (isValid) {
             try {
                 RelayUtils.buildMessage(axis2MC);
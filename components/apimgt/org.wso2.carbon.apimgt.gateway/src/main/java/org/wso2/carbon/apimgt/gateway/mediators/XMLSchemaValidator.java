@@ -29,6 +29,7 @@ import org.wso2.carbon.apimgt.gateway.threatprotection.APIMThreatAnalyzerExcepti
 import org.wso2.carbon.apimgt.gateway.threatprotection.AnalyzerHolder;
 import org.wso2.carbon.apimgt.gateway.threatprotection.analyzer.APIMThreatAnalyzer;
 import org.wso2.carbon.apimgt.gateway.threatprotection.configuration.XMLConfig;
+import org.wso2.carbon.apimgt.gateway.threatprotection.utils.PayloadTeeInputStream;
 import org.wso2.carbon.apimgt.gateway.threatprotection.utils.ThreatExceptionHandler;
 import org.wso2.carbon.apimgt.gateway.threatprotection.utils.ThreatProtectorConstants;
 import org.wso2.carbon.apimgt.gateway.utils.GatewayUtils;
@@ -69,8 +70,9 @@ public class XMLSchemaValidator extends AbstractMediator {
         InputStream inputStreamSchema;
         InputStream inputStreamXml;
         Map<String, InputStream> inputStreams = null;
-        Boolean xmlValidationStatus;
-        Boolean schemaValidationStatus;
+        PayloadTeeInputStream payloadStream = null;
+        boolean xmlValidationStatus;
+        boolean schemaValidationStatus;
         APIMThreatAnalyzer apimThreatAnalyzer = null;
         String apiContext;
         String requestMethod;
@@ -90,23 +92,35 @@ public class XMLSchemaValidator extends AbstractMediator {
                 (ThreatProtectorConstants.APPLICATION_XML.equals(contentType) ||
                         ThreatProtectorConstants.TEXT_XML.equals(contentType))) {
             try {
-                inputStreams = GatewayUtils.cloneRequestMessage(messageContext);
-                if (inputStreams != null) {
-                    Object messageProperty = messageContext.getProperty(APIMgtGatewayConstants.XML_VALIDATION);
-                    if (messageProperty != null) {
-                        xmlValidationStatus = Boolean.valueOf(messageProperty.toString());
-                        if (xmlValidationStatus.equals(true)) {
+                Object messageProperty = messageContext.getProperty(APIMgtGatewayConstants.XML_VALIDATION);
+                xmlValidationStatus = messageProperty != null && Boolean.valueOf(messageProperty.toString());
+                messageProperty = messageContext.getProperty(APIMgtGatewayConstants.SCHEMA_VALIDATION);
+                schemaValidationStatus = messageProperty != null && Boolean.valueOf(messageProperty.toString());
+                // Analyze the payload while it is read from the pipe, so that the analysis is aborted as soon as a
+                // limit is exceeded
+                payloadStream = GatewayUtils.getRequestPayloadStream(messageContext);
+                if (payloadStream != null) {
+                    if (xmlValidationStatus) {
+                        XMLConfig xmlConfig = configureSchemaProperties(messageContext);
+                        apimThreatAnalyzer = AnalyzerHolder.getAnalyzer(contentType);
+                        apimThreatAnalyzer.configure(xmlConfig);
+                        apimThreatAnalyzer.analyze(payloadStream, apiContext);
+                    }
+                    if (schemaValidationStatus) {
+                        payloadStream.readRemaining();
+                        validateSchema(messageContext, new BufferedInputStream(payloadStream.getRecordedPayload()));
+                    }
+                } else {
+                    inputStreams = GatewayUtils.cloneRequestMessage(messageContext);
+                    if (inputStreams != null) {
+                        if (xmlValidationStatus) {
                             XMLConfig xmlConfig = configureSchemaProperties(messageContext);
                             apimThreatAnalyzer = AnalyzerHolder.getAnalyzer(contentType);
                             apimThreatAnalyzer.configure(xmlConfig);
                             inputStreamXml = inputStreams.get(ThreatProtectorConstants.XML);
                             apimThreatAnalyzer.analyze(inputStreamXml, apiContext);
                         }
-                    }
-                    messageProperty = messageContext.getProperty(APIMgtGatewayConstants.SCHEMA_VALIDATION);
-                    if (messageProperty != null) {
-                        schemaValidationStatus = Boolean.valueOf(messageProperty.toString());
-                        if (schemaValidationStatus.equals(true)) {
+                        if (schemaValidationStatus) {
                             inputStreamSchema = inputStreams.get(ThreatProtectorConstants.SCHEMA);
                             BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStreamSchema);
                             validateSchema(messageContext, bufferedInputStream);
@@ -122,7 +136,7 @@ public class XMLSchemaValidator extends AbstractMediator {
                 logger.error(APIMgtGatewayConstants.BAD_REQUEST, e);
                 GatewayUtils.handleThreat(messageContext, ThreatProtectorConstants.HTTP_SC_CODE, e.getMessage());
             }finally {
-                //return analyzer to the pool
+                //release the analyzer of the thread
                 AnalyzerHolder.returnObject(apimThreatAnalyzer);
             }
         } else {
@@ -130,7 +144,11 @@ public class XMLSchemaValidator extends AbstractMediator {
                 log.debug("XML Schema Validator: " + APIMgtGatewayConstants.REQUEST_TYPE_FAIL_MSG);
             }
         }
-        GatewayUtils.setOriginalInputStream(inputStreams, axis2MC);
+        if (payloadStream != null) {
+            GatewayUtils.setRequestPayload(payloadStream, axis2MC);
+        } else {
+            GatewayUtils.setOriginalInputStream(inputStreams, axis2MC);
+        }
         if (validRequest) {
             try {
                 RelayUtils.buildMessage(axis2MC);
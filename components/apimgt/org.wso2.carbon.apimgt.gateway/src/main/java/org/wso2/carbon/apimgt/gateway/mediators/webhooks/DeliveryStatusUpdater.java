@@ -28,7 +28,10 @@ import org.wso2.carbon.apimgt.common.analytics.collectors.impl.GenericRequestDat
 import org.wso2.carbon.apimgt.gateway.APIMgtGatewayConstants;
 import org.wso2.carbon.apimgt.gateway.handlers.analytics.Constants;
 import org.wso2.carbon.apimgt.gateway.utils.WebhooksUtils;
+import org.wso2.carbon.apimgt.gateway.webhooks.DeliveryStatusBatchPublisher;
+import org.wso2.carbon.apimgt.gateway.webhooks.WebhooksDataHolder;
 import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.dto.WebhooksDeliveryStatusDTO;
 import org.wso2.carbon.apimgt.impl.utils.APIUtil;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 
@@ -37,7 +40,8 @@ import java.io.IOException;
 import static org.wso2.carbon.apimgt.impl.APIConstants.AsyncApi.ASYNC_MESSAGE_TYPE;
 
 /**
- * This mediator would persist delivery status of the callback urls of the subscriptions.
+ * This mediator would persist delivery status of the callback urls of the subscriptions. When webhook delivery is
+ * enabled, the status is handed over to the {@link DeliveryStatusBatchPublisher}, which persists statuses in batches.
  */
 public class DeliveryStatusUpdater extends AbstractMediator {
 
@@ -67,11 +71,18 @@ public class DeliveryStatusUpdater extends AbstractMediator {
             String apiKey = WebhooksUtils.generateAPIKey(messageContext, tenantDomain);
             String applicationID = (String) messageContext.getProperty(APIConstants.Webhooks.
                     SUBSCRIBER_APPLICATION_ID_PROPERTY);
-            String requestBody = generateRequestBody(apiKey, applicationID, tenantDomain, callback, topicName, status);
             boolean isSubscribeRequest = messageContext.getProperty(ASYNC_MESSAGE_TYPE) != null;
             if (APIUtil.isAnalyticsEnabled() && !isSubscribeRequest) {
                 WebhooksUtils.publishAnalyticsData(messageContext);
             }
+            DeliveryStatusBatchPublisher deliveryStatusPublisher =
+                    WebhooksDataHolder.getInstance().getDeliveryStatusPublisher();
+            if (deliveryStatusPublisher != null) {
+                deliveryStatusPublisher.addStatus(new WebhooksDeliveryStatusDTO(apiKey, applicationID, tenantDomain,
+                        callback, topicName, status));
+                return true;
+            }
+            String requestBody = generateRequestBody(apiKey, applicationID, tenantDomain, callback, topicName, status);
             WebhooksUtils.persistData(requestBody, deliveryDataPersisRetries, APIConstants.Webhooks.DELIVERY_EVENT_TYPE);
         } catch (InterruptedException | IOException e) {
             log.error("Error while persisting delivery status", e);
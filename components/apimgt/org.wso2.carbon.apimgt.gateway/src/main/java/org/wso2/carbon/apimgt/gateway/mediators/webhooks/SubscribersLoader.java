@@ -17,11 +17,19 @@
  */
 package org.wso2.carbon.apimgt.gateway.mediators.webhooks;
 
+import org.apache.http.protocol.HTTP;
 import org.apache.synapse.MessageContext;
 import org.apache.synapse.core.axis2.Axis2MessageContext;
 import org.apache.synapse.mediators.AbstractMediator;
+import org.apache.synapse.rest.RESTConstants;
+import org.wso2.carbon.apimgt.gateway.APIMgtGatewayConstants;
 import org.wso2.carbon.apimgt.gateway.handlers.analytics.Constants;
+import org.wso2.carbon.apimgt.gateway.handlers.security.APISecurityUtils;
+import org.wso2.carbon.apimgt.gateway.handlers.security.AuthenticationContext;
 import org.wso2.carbon.apimgt.gateway.utils.WebhooksUtils;
+import org.wso2.carbon.apimgt.gateway.webhooks.WebhookDelivery;
+import org.wso2.carbon.apimgt.gateway.webhooks.WebhookDeliveryEngine;
+import org.wso2.carbon.apimgt.gateway.webhooks.WebhooksDataHolder;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.dto.WebhooksDTO;
 
@@ -30,7 +38,10 @@ import java.util.List;
 import java.util.Map;
 
 /**
- * This mediator would load the subscriber's list from the in-memory map of the tenant.
+ * This mediator would load the subscriber's list from the in-memory map of the tenant. When webhook delivery is
+ * enabled, the event is handed over to the {@link WebhookDeliveryEngine}, which delivers it to all the subscribers in
+ * parallel, and the subscriber count is set to zero so that the message is not cloned per subscriber. The delivery
+ * statuses are then persisted by the engine, while analytics events are not published per delivery.
  */
 public class SubscribersLoader extends AbstractMediator {
 
@@ -43,7 +54,11 @@ public class SubscribersLoader extends AbstractMediator {
         try {
             List<WebhooksDTO> subscribers = WebhooksUtils.getSubscribersListFromInMemoryMap(messageContext);
             messageContext.setProperty(APIConstants.Webhooks.SUBSCRIBERS_LIST_PROPERTY, subscribers);
-            if (subscribers != null) {
+            WebhookDeliveryEngine deliveryEngine = WebhooksDataHolder.getInstance().getDeliveryEngine();
+            if (deliveryEngine != null && subscribers != null) {
+                dispatch(messageContext, subscribers, deliveryEngine);
+                messageContext.setProperty(APIConstants.Webhooks.SUBSCRIBERS_COUNT_PROPERTY, 0);
+            } else if (subscribers != null) {
                 messageContext.setProperty(APIConstants.Webhooks.SUBSCRIBERS_COUNT_PROPERTY, subscribers.size());
             } else {
                 messageContext.setProperty(APIConstants.Webhooks.SUBSCRIBERS_COUNT_PROPERTY, 0);
@@ -55,6 +70,43 @@ public class SubscribersLoader extends AbstractMediator {
 
     }
 
+    private void dispatch(MessageContext messageContext, List<WebhooksDTO> subscribers,
+                          WebhookDeliveryEngine deliveryEngine) {
+        String payload = (String) messageContext.getProperty(APIConstants.Webhooks.PAYLOAD_PROPERTY);
+        String contentType = getContentType(messageContext);
+        String linkHeaderPrefix = messageContext.getProperty(RESTConstants.REST_URL_PREFIX).toString()
+                + messageContext.getProperty(RESTConstants.REST_API_CONTEXT).toString()
+                + APIMgtGatewayConstants.SUBSCRIBER_LINK_HEADER_HUB;
+        for (WebhooksDTO subscriber : subscribers) {
+            if (subscriber.isThrottled()) {
+                continue;
+            }
+            AuthenticationContext authContext = new AuthenticationContext();
+            SubscriberInfoLoader.populateAuthContext(subscriber.getTenantDomain(),
+                    Integer.parseInt(subscriber.getAppID()), authContext);
+            messageContext.setProperty(APISecurityUtils.API_AUTH_CONTEXT, authContext);
+            if (SubscriberInfoLoader.doThrottle(subscriber, messageContext, authContext)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Event of topic " + subscriber.getTopicName() + " throttled out for subscriber "
+                            + subscriber.getCallbackURL());
+                }
+                continue;
+            }
+            String linkHeader = linkHeaderPrefix + subscriber.getTopicName()
+                    + APIMgtGatewayConstants.SUBSCRIBER_LINK_HEADER_SELF;
+            deliveryEngine.deliver(new WebhookDelivery(subscriber, payload, contentType, linkHeader));
+        }
+    }
+
+    private String getContentType(MessageContext messageContext) {
+        Map<?, ?> headers = (Map<?, ?>) ((Axis2MessageContext) messageContext).getAxis2MessageContext()
+                .getProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS);
+        if (headers != null) {
+            return (String) headers.get(HTTP.CONTENT_TYPE);
+        }
+        return null;
+    }
+
     private String getUserAgent(MessageContext messageContext) {
         Map<?, ?> headers = (Map<?, ?>) ((Axis2MessageContext) messageContext).getAxis2MessageContext()
                 .getProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS);
@@ -18,38 +18,20 @@
 
 package org.wso2.carbon.apimgt.gateway.threatprotection;
 
-import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.wso2.carbon.apimgt.gateway.threatprotection.analyzer.APIMThreatAnalyzer;
 import org.wso2.carbon.apimgt.gateway.threatprotection.analyzer.JSONAnalyzer;
 import org.wso2.carbon.apimgt.gateway.threatprotection.analyzer.XMLAnalyzer;
-import org.wso2.carbon.apimgt.gateway.threatprotection.pool.AnalyzerPool;
-import org.wso2.carbon.apimgt.gateway.threatprotection.pool.JSONAnalyzerFactory;
-import org.wso2.carbon.apimgt.gateway.threatprotection.pool.XMLAnalyzerFactory;
 import org.wso2.carbon.apimgt.gateway.threatprotection.utils.ThreatProtectorConstants;
 
 /**
- * Holds the object pools for XML and JSON Analyzers
+ * Holds the XML and JSON Analyzers of each thread. An analyzer is used by a single mediation at a time, hence the
+ * analyzers of a thread are reused across its requests without borrowing them from a shared pool.
  */
 public class AnalyzerHolder {
 
-    private static Logger log = LoggerFactory.getLogger(AnalyzerHolder.class);
     private static AnalyzerHolder instance = new AnalyzerHolder();
-    private static AnalyzerPool<XMLAnalyzer> xmlAnalyzerAnalyzerPool;
-    private static AnalyzerPool<JSONAnalyzer> jsonAnalyzerAnalyzerPool;
-    private static GenericObjectPoolConfig poolConfig;
-
-    static {
-        poolConfig = new GenericObjectPoolConfig();
-        poolConfig.setMaxTotal(200);
-
-        poolConfig.setBlockWhenExhausted(false);
-        poolConfig.setMaxWaitMillis(0);
-
-        xmlAnalyzerAnalyzerPool = new AnalyzerPool<>(new XMLAnalyzerFactory(), poolConfig);
-        jsonAnalyzerAnalyzerPool = new AnalyzerPool<>(new JSONAnalyzerFactory(), poolConfig);
-    }
+    private static final ThreadLocal<XMLAnalyzer> xmlAnalyzers = ThreadLocal.withInitial(XMLAnalyzer::new);
+    private static final ThreadLocal<JSONAnalyzer> jsonAnalyzers = ThreadLocal.withInitial(JSONAnalyzer::new);
 
     private AnalyzerHolder() {
     }
@@ -59,7 +41,7 @@ public class AnalyzerHolder {
     }
 
     /**
-     * Borrows an object from pools (xml or json) for threat analysis
+     * Gets the analyzer (xml or json) of the current thread for threat analysis
      *
      * @param contentType Content-Type of the payload
      * @return Instance of APIMThreatAnalyzer based on content type
@@ -68,35 +50,22 @@ public class AnalyzerHolder {
         APIMThreatAnalyzer analyzer = null;
         if (ThreatProtectorConstants.TEXT_XML.equalsIgnoreCase(contentType) ||
                 ThreatProtectorConstants.APPLICATION_XML.equalsIgnoreCase(contentType)) {
-            try {
-                analyzer = xmlAnalyzerAnalyzerPool.borrowObject();
-            } catch (Exception e) {
-                // here apache.commons GenericObjectPool's borrow object method throws generic exception.
-                // here log the stacktrace along with the message.
-                log.error("Threat Protection: Error occurred while getting an object from the pool.", e);
-            }
+            analyzer = xmlAnalyzers.get();
         } else if (ThreatProtectorConstants.TEXT_JSON.equalsIgnoreCase(contentType) ||
                 ThreatProtectorConstants.APPLICATION_JSON.equalsIgnoreCase(contentType)) {
-            try {
-                analyzer = jsonAnalyzerAnalyzerPool.borrowObject();
-            } catch (Exception e) {
-                log.error("Threat Protection: Error occurred while getting an object from the pool.", e);
-            }
+            analyzer = jsonAnalyzers.get();
         }
         return analyzer;
     }
 
     /**
-     * Returns objects back to the pool
+     * Clears the configuration of an analyzer once the analysis is done, so that it can be reused by the thread
      *
-     * @param analyzer borrowed instance of {@link APIMThreatAnalyzer}
+     * @param analyzer instance of {@link APIMThreatAnalyzer} got from {@link #getAnalyzer(String)}, or null
      */
     public static void returnObject(APIMThreatAnalyzer analyzer) {
-        analyzer.clearConfiguration();
-        if (analyzer instanceof JSONAnalyzer) {
-            jsonAnalyzerAnalyzerPool.returnObject((JSONAnalyzer) analyzer);
-        } else if (analyzer instanceof XMLAnalyzer) {
-            xmlAnalyzerAnalyzerPool.returnObject((XMLAnalyzer) analyzer);
+        if (analyzer != null) {
+            analyzer.clearConfiguration();
         }
     }
 }
@@ -26,13 +26,10 @@ import org.wso2.carbon.apimgt.gateway.threatprotection.configuration.JSONConfig;
 import org.wso2.carbon.apimgt.gateway.threatprotection.configuration.XMLConfig;
 import org.wso2.carbon.apimgt.gateway.threatprotection.utils.ThreatProtectorConstants;
 
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
-import java.io.IOException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
 
 
 /**
@@ -46,7 +43,7 @@ public class XMLAnalyzer implements APIMThreatAnalyzer {
     private boolean enabled = true;
 
     public XMLAnalyzer() {
-        factory = WstxInputFactory.newInstance();
+        factory = new WstxInputFactory();
     }
 
     /**
@@ -60,6 +57,7 @@ public class XMLAnalyzer implements APIMThreatAnalyzer {
         Integer maxAttributeCount = config.getMaxAttributeCount();
         Integer maxAttributeLength = config.getMaxAttributeLength();
         Integer maxChildrenPerElement = config.getMaxChildrenPerElement();
+        Integer entityExpansionLimit = config.getEntityExpansionLimit();
         factory.setProperty(XMLInputFactory.SUPPORT_DTD, dtdEnabled);
         factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, externalEntitiesEnabled);
         factory.setProperty(ThreatProtectorConstants.P_MAX_ATTRIBUTE_SIZE, maxAttributeLength);
@@ -67,6 +65,7 @@ public class XMLAnalyzer implements APIMThreatAnalyzer {
         factory.setProperty(ThreatProtectorConstants.P_MAX_ELEMENT_DEPTH, maxDepth);
         factory.setProperty(ThreatProtectorConstants.P_MAX_CHILDREN_PER_ELEMENT, maxChildrenPerElement);
         factory.setProperty(ThreatProtectorConstants.P_MAX_ELEMENT_COUNT, maxElementCount);
+        factory.setProperty(ThreatProtectorConstants.P_MAX_ENTITY_COUNT, entityExpansionLimit);
     }
 
     @Override
@@ -81,7 +80,7 @@ public class XMLAnalyzer implements APIMThreatAnalyzer {
 
     @Override
     public void clearConfiguration() {
-        factory = WstxInputFactory.newInstance();
+        factory = new WstxInputFactory();
     }
 
     /**
@@ -90,30 +89,23 @@ public class XMLAnalyzer implements APIMThreatAnalyzer {
      */
     @Override
     public void  analyze(InputStream in, String apiContext) throws APIMThreatAnalyzerException {
-        Reader reader = null;
-        XMLEventReader xmlEventReaderReader = null;
+        XMLStreamReader xmlStreamReader = null;
         try {
-            reader = new InputStreamReader(in);
-            xmlEventReaderReader = factory.createXMLEventReader(reader);
-            while (xmlEventReaderReader.hasNext()) {
-                xmlEventReaderReader.nextEvent();
+            // The reader decodes the bytes of the payload itself, and reads them in chunks as they are analyzed
+            xmlStreamReader = factory.createXMLStreamReader(in);
+            while (xmlStreamReader.hasNext()) {
+                xmlStreamReader.next();
             }
         } catch (XMLStreamException e) {
             throw new APIMThreatAnalyzerException("XML Validation Failed: due to "+ e.getMessage());
         }  finally {
             try {
-                if (xmlEventReaderReader != null) {
-                    xmlEventReaderReader.close();
-                }
-                if (reader != null) {
-                    reader.close();
+                if (xmlStreamReader != null) {
+                    xmlStreamReader.close();
                 }
             } catch (XMLStreamException e) {
                 log.warn(XML_THREAT_PROTECTION_MSG_PREFIX + apiContext
-                        + " - Failed to close XMLEventReader", e);
-            } catch (IOException e) {
-                log.warn(XML_THREAT_PROTECTION_MSG_PREFIX + apiContext
-                        + " - Failed to close payload StringReader", e);
+                        + " - Failed to close XMLStreamReader", e);
             }
         }
     }
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.threatprotection.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+
+/**
+ * Records the bytes of a request payload while they are read by a threat analyzer, so that the payload is read from
+ * the pass-through pipe only once and analyzed as it arrives. When the analyzer aborts early because a limit is
+ * exceeded, the rest of the payload is left unread.
+ * <p>
+ * The recorded bytes are shared by the streams returned from {@link #getRecordedPayload()} and
+ * {@link #getPayload()} without copying them. Closing this stream does not close the underlying stream, as the
+ * payload is still needed to build the message.
+ */
+public class PayloadTeeInputStream extends FilterInputStream {
+
+    private final RecordingBuffer recordedPayload;
+
+    public PayloadTeeInputStream(InputStream in, int initialBufferSize) {
+
+        super(in);
+        this.recordedPayload = new RecordingBuffer(initialBufferSize);
+    }
+
+    @Override
+    public int read() throws IOException {
+
+        int b = in.read();
+        if (b != -1) {
+            recordedPayload.write(b);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+
+        int length = in.read(b, off, len);
+        if (length > 0) {
+            recordedPayload.write(b, off, length);
+        }
+        return length;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+
+        // Skipped bytes are part of the payload, hence they are read and recorded
+        byte[] buffer = new byte[(int) Math.min(n, 8192)];
+        long skipped = 0;
+        while (skipped < n) {
+            int length = read(buffer, 0, (int) Math.min(n - skipped, buffer.length));
+            if (length < 0) {
+                break;
+            }
+            skipped += length;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+        // Mark is not supported
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+
+        throw new IOException("Mark and reset are not supported");
+    }
+
+    @Override
+    public void close() {
+        // The underlying stream is still needed to build the message
+    }
+
+    /**
+     * Reads and records the rest of the payload.
+     */
+    public void readRemaining() throws IOException {
+
+        byte[] buffer = new byte[8192];
+        while (read(buffer, 0, buffer.length) != -1) {
+            // Bytes are recorded while reading
+        }
+    }
+
+    /**
+     * @return number of bytes read so far
+     */
+    public int getRecordedSize() {
+
+        return recordedPayload.size();
+    }
+
+    /**
+     * @return stream of the bytes read so far
+     */
+    public InputStream getRecordedPayload() {
+
+        return recordedPayload.toInputStream();
+    }
+
+    /**
+     * @return stream of the whole payload, which are the bytes read so far followed by the unread bytes
+     */
+    public InputStream getPayload() {
+
+        return new SequenceInputStream(recordedPayload.toInputStream(), in);
+    }
+
+    /**
+     * Buffer whose bytes can be read without copying them.
+     */
+    private static class RecordingBuffer extends ByteArrayOutputStream {
+
+        RecordingBuffer(int size) {
+
+            super(size);
+        }
+
+        InputStream toInputStream() {
+
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+    }
+}
@@ -0,0 +1,440 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.throttling;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.gateway.dto.IPRange;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.utils.APIUtil;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, compiled view of the IP blocking conditions of a single tenant.
+ * <p>
+ * Addresses are held as unsigned 128 bit values split into two longs, using the same numbering as
+ * {@link APIUtil#ipToBigInteger(String)} (an IPv4 address is its 32 bit value, an IPv6 address its 128 bit value).
+ * Non inverted conditions are merged into a sorted set of disjoint intervals which is looked up with a binary
+ * search. Inverted conditions block every address outside of their range, hence they collapse into the single
+ * interval formed by intersecting all of them. A new index is compiled whenever the conditions of the tenant change,
+ * so lookups never need any locking.
+ */
+public final class IPBlockingConditionIndex {
+
+    private static final Log log = LogFactory.getLog(IPBlockingConditionIndex.class);
+    private static final int IPV6_GROUP_COUNT = 8;
+    private static final int IPV6_GROUP_BITS = 16;
+    private static final long IPV4_MAPPED_PREFIX = 0xffffL;
+
+    private final long[] startHigh;
+    private final long[] startLow;
+    private final long[] endHigh;
+    private final long[] endLow;
+    private final boolean invertedConditionsPresent;
+    private final Interval allowedInterval;
+
+    private IPBlockingConditionIndex(List<Interval> blockedIntervals, boolean invertedConditionsPresent,
+                                     Interval allowedInterval) {
+
+        int size = blockedIntervals.size();
+        this.startHigh = new long[size];
+        this.startLow = new long[size];
+        this.endHigh = new long[size];
+        this.endLow = new long[size];
+        for (int i = 0; i < size; i++) {
+            Interval interval = blockedIntervals.get(i);
+            startHigh[i] = interval.startHigh;
+            startLow[i] = interval.startLow;
+            endHigh[i] = interval.endHigh;
+            endLow[i] = interval.endLow;
+        }
+        this.invertedConditionsPresent = invertedConditionsPresent;
+        this.allowedInterval = allowedInterval;
+    }
+
+    /**
+     * Compiles the given IP blocking conditions into an index.
+     *
+     * @param ipRanges IP and IP range blocking conditions of a tenant
+     * @return compiled index
+     */
+    public static IPBlockingConditionIndex compile(Collection<IPRange> ipRanges) {
+
+        List<Interval> blocked = new ArrayList<>();
+        boolean invertedConditionsPresent = false;
+        // null means the inverted conditions do not leave any address unblocked
+        Interval allowed = Interval.ALL;
+        for (IPRange ipRange : ipRanges) {
+            Interval interval = toInterval(ipRange);
+            if (interval == Interval.INVALID) {
+                continue;
+            }
+            if (ipRange.isInvert()) {
+                invertedConditionsPresent = true;
+                allowed = allowed == null || interval == null ? null : allowed.intersect(interval);
+            } else if (interval != null) {
+                blocked.add(interval);
+            }
+        }
+        return new IPBlockingConditionIndex(merge(blocked), invertedConditionsPresent, allowed);
+    }
+
+    /**
+     * Checks whether the given client IP is blocked by any of the compiled conditions.
+     *
+     * @param ip client IP address
+     * @return true if the IP is blocked
+     */
+    public boolean isBlocked(String ip) {
+
+        long[] address = new long[2];
+        if (!parseAddress(ip, address)) {
+            BigInteger value = APIUtil.ipToBigInteger(ip);
+            address[0] = value.shiftRight(Long.SIZE).longValue();
+            address[1] = value.longValue();
+        }
+        long high = address[0];
+        long low = address[1];
+        if (isInBlockedInterval(high, low)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Block IP condition selected for Blocked. IP : " + ip);
+            }
+            return true;
+        }
+        if (invertedConditionsPresent && (allowedInterval == null || !allowedInterval.contains(high, low))) {
+            if (log.isDebugEnabled()) {
+                log.debug("Inverted block IP condition selected for Blocked. IP : " + ip);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    public boolean isEmpty() {
+
+        return startHigh.length == 0 && !invertedConditionsPresent;
+    }
+
+    private boolean isInBlockedInterval(long high, long low) {
+
+        int lower = 0;
+        int upper = startHigh.length - 1;
+        int candidate = -1;
+        while (lower <= upper) {
+            int mid = (lower + upper) >>> 1;
+            if (compare(startHigh[mid], startLow[mid], high, low) <= 0) {
+                candidate = mid;
+                lower = mid + 1;
+            } else {
+                upper = mid - 1;
+            }
+        }
+        return candidate >= 0 && compare(high, low, endHigh[candidate], endLow[candidate]) <= 0;
+    }
+
+    /**
+     * Converts a blocking condition to the inclusive interval of addresses it matches. Returns null if the condition
+     * matches no address and {@link Interval#INVALID} if the condition could not be interpreted at all.
+     */
+    private static Interval toInterval(IPRange ipRange) {
+
+        if (APIConstants.BLOCKING_CONDITIONS_IP.equals(ipRange.getType())) {
+            if (ipRange.getFixedIp() == null) {
+                return null;
+            }
+            long[] address = new long[2];
+            if (!parseAddress(ipRange.getFixedIp(), address)) {
+                BigInteger value = APIUtil.ipToBigInteger(ipRange.getFixedIp());
+                address[0] = value.shiftRight(Long.SIZE).longValue();
+                address[1] = value.longValue();
+            }
+            return new Interval(address[0], address[1], address[0], address[1]);
+        } else if (APIConstants.BLOCK_CONDITION_IP_RANGE.equals(ipRange.getType())) {
+            BigInteger startingIp = ipRange.getStartingIpBigIntValue();
+            BigInteger endingIp = ipRange.getEndingIpBigIntValue();
+            if (startingIp == null || endingIp == null) {
+                log.warn("Ignoring IP range blocking condition " + ipRange.getId() + " of tenant "
+                        + ipRange.getTenantDomain() + " as it does not define both starting and ending IPs");
+                return Interval.INVALID;
+            }
+            // Range boundaries are exclusive
+            BigInteger first = startingIp.add(BigInteger.ONE);
+            BigInteger last = endingIp.subtract(BigInteger.ONE);
+            if (first.compareTo(last) > 0 || last.signum() < 0 || first.bitLength() > 2 * Long.SIZE) {
+                return null;
+            }
+            return new Interval(first.shiftRight(Long.SIZE).longValue(), first.longValue(),
+                    last.shiftRight(Long.SIZE).longValue(), last.longValue());
+        }
+        return Interval.INVALID;
+    }
+
+    private static List<Interval> merge(List<Interval> intervals) {
+
+        if (intervals.isEmpty()) {
+            return Collections.emptyList();
+        }
+        intervals.sort((first, second) -> compare(first.startHigh, first.startLow, second.startHigh,
+                second.startLow));
+        List<Interval> merged = new ArrayList<>();
+        Interval current = intervals.get(0);
+        for (int i = 1; i < intervals.size(); i++) {
+            Interval next = intervals.get(i);
+            if (current.touches(next)) {
+                current = current.span(next);
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
+
+    private static int compare(long firstHigh, long firstLow, long secondHigh, long secondLow) {
+
+        if (firstHigh != secondHigh) {
+            return Long.compareUnsigned(firstHigh, secondHigh);
+        }
+        return Long.compareUnsigned(firstLow, secondLow);
+    }
+
+    /**
+     * Parses an IPv4 or IPv6 literal into its 128 bit value without going through {@link java.net.InetAddress}.
+     * IPv4 mapped IPv6 addresses are treated as the IPv4 address they map, as {@link java.net.InetAddress} does.
+     *
+     * @param ip      address literal
+     * @param address array of two longs to hold the high and low 64 bits of the address
+     * @return false if the given value is not an address literal this parser understands
+     */
+    static boolean parseAddress(String ip, long[] address) {
+
+        if (ip == null || ip.isEmpty()) {
+            return false;
+        }
+        if (ip.indexOf(':') < 0) {
+            long value = parseIPv4(ip, 0, ip.length());
+            if (value < 0) {
+                return false;
+            }
+            address[0] = 0;
+            address[1] = value;
+            return true;
+        }
+        if (!parseIPv6(ip, address)) {
+            return false;
+        }
+        if (address[0] == 0 && (address[1] >>> Integer.SIZE) == IPV4_MAPPED_PREFIX) {
+            address[1] = address[1] & 0xffffffffL;
+        }
+        return true;
+    }
+
+    private static long parseIPv4(String ip, int from, int to) {
+
+        long value = 0;
+        int octets = 0;
+        int index = from;
+        while (index < to) {
+            int octetStart = index;
+            int octet = 0;
+            while (index < to && Character.isDigit(ip.charAt(index))) {
+                octet = octet * 10 + (ip.charAt(index) - '0');
+                index++;
+                if (index - octetStart > 3 || octet > 255) {
+                    return -1;
+                }
+            }
+            if (index == octetStart) {
+                return -1;
+            }
+            value = (value << 8) | octet;
+            octets++;
+            if (index < to) {
+                if (ip.charAt(index) != '.' || index == to - 1) {
+                    return -1;
+                }
+                index++;
+            }
+        }
+        return octets == 4 ? value : -1;
+    }
+
+    private static boolean parseIPv6(String ip, long[] address) {
+
+        int end = ip.indexOf('%');
+        if (end < 0) {
+            end = ip.length();
+        }
+        long headHigh = 0;
+        long headLow = 0;
+        int headGroups = 0;
+        long tailHigh = 0;
+        long tailLow = 0;
+        int tailGroups = 0;
+        boolean compressed = false;
+        int index = 0;
+        if (end >= 2 && ip.charAt(0) == ':' && ip.charAt(1) == ':') {
+            compressed = true;
+            index = 2;
+        }
+        while (index < end) {
+            int groupStart = index;
+            int group = 0;
+            while (index < end && Character.digit(ip.charAt(index), 16) >= 0) {
+                group = (group << 4) | Character.digit(ip.charAt(index), 16);
+                index++;
+                if (index - groupStart > 4) {
+                    return false;
+                }
+            }
+            if (index < end && ip.charAt(index) == '.') {
+                long ipv4 = parseIPv4(ip, groupStart, end);
+                if (ipv4 < 0) {
+                    return false;
+                }
+                if (compressed) {
+                    tailHigh = (tailHigh << Integer.SIZE) | (tailLow >>> Integer.SIZE);
+                    tailLow = (tailLow << Integer.SIZE) | ipv4;
+                    tailGroups += 2;
+                } else {
+                    headHigh = (headHigh << Integer.SIZE) | (headLow >>> Integer.SIZE);
+                    headLow = (headLow << Integer.SIZE) | ipv4;
+                    headGroups += 2;
+                }
+                index = end;
+                break;
+            }
+            if (index == groupStart) {
+                return false;
+            }
+            if (compressed) {
+                tailHigh = (tailHigh << IPV6_GROUP_BITS) | (tailLow >>> (Long.SIZE - IPV6_GROUP_BITS));
+                tailLow = (tailLow << IPV6_GROUP_BITS) | group;
+                tailGroups++;
+            } else {
+                headHigh = (headHigh << IPV6_GROUP_BITS) | (headLow >>> (Long.SIZE - IPV6_GROUP_BITS));
+                headLow = (headLow << IPV6_GROUP_BITS) | group;
+                headGroups++;
+            }
+            if (headGroups + tailGroups > IPV6_GROUP_COUNT) {
+                return false;
+            }
+            if (index == end) {
+                break;
+            }
+            if (ip.charAt(index) != ':' || ++index == end) {
+                return false;
+            }
+            if (ip.charAt(index) == ':') {
+                if (compressed) {
+                    return false;
+                }
+                compressed = true;
+                index++;
+            }
+        }
+        int groups = headGroups + tailGroups;
+        if (compressed ? groups >= IPV6_GROUP_COUNT : groups != IPV6_GROUP_COUNT) {
+            return false;
+        }
+        // Move the groups before "::" to the top of the address
+        int shift = (IPV6_GROUP_COUNT - headGroups) * IPV6_GROUP_BITS;
+        if (shift >= Long.SIZE * 2) {
+            headHigh = 0;
+            headLow = 0;
+        } else if (shift >= Long.SIZE) {
+            headHigh = headLow << (shift - Long.SIZE);
+            headLow = 0;
+        } else if (shift > 0) {
+            headHigh = (headHigh << shift) | (headLow >>> (Long.SIZE - shift));
+            headLow = headLow << shift;
+        }
+        address[0] = headHigh | tailHigh;
+        address[1] = headLow | tailLow;
+        return true;
+    }
+
+    /**
+     * Inclusive interval of unsigned 128 bit addresses.
+     */
+    private static final class Interval {
+
+        private static final Interval ALL = new Interval(0, 0, -1L, -1L);
+        private static final Interval INVALID = new Interval(0, 0, 0, 0);
+
+        private final long startHigh;
+        private final long startLow;
+        private final long endHigh;
+        private final long endLow;
+
+        private Interval(long startHigh, long startLow, long endHigh, long endLow) {
+
+            this.startHigh = startHigh;
+            this.startLow = startLow;
+            this.endHigh = endHigh;
+            this.endLow = endLow;
+        }
+
+        private boolean contains(long high, long low) {
+
+            return compare(startHigh, startLow, high, low) <= 0 && compare(high, low, endHigh, endLow) <= 0;
+        }
+
+        private Interval intersect(Interval other) {
+
+            boolean otherStartsLater = compare(other.startHigh, other.startLow, startHigh, startLow) > 0;
+            boolean otherEndsEarlier = compare(other.endHigh, other.endLow, endHigh, endLow) < 0;
+            Interval intersection = new Interval(otherStartsLater ? other.startHigh : startHigh,
+                    otherStartsLater ? other.startLow : startLow, otherEndsEarlier ? other.endHigh : endHigh,
+                    otherEndsEarlier ? other.endLow : endLow);
+            if (compare(intersection.startHigh, intersection.startLow, intersection.endHigh,
+                    intersection.endLow) > 0) {
+                return null;
+            }
+            return intersection;
+        }
+
+        /**
+         * Checks whether the given interval, which does not start before this one, overlaps or is adjacent to it.
+         */
+        private boolean touches(Interval next) {
+
+            if (endHigh == -1L && endLow == -1L) {
+                return true;
+            }
+            long adjacentLow = endLow + 1;
+            long adjacentHigh = adjacentLow == 0 ? endHigh + 1 : endHigh;
+            return compare(next.startHigh, next.startLow, adjacentHigh, adjacentLow) <= 0;
+        }
+
+        private Interval span(Interval next) {
+
+            if (compare(next.endHigh, next.endLow, endHigh, endLow) <= 0) {
+                return this;
+            }
+            return new Interval(startHigh, startLow, next.endHigh, next.endLow);
+        }
+    }
+}
@@ -25,11 +25,11 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.apimgt.gateway.dto.IPRange;
+import org.wso2.carbon.apimgt.gateway.handlers.throttling.CompiledThrottleConditions;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.dto.ConditionDto;
 import org.wso2.carbon.apimgt.impl.utils.APIUtil;
 
-import java.math.BigInteger;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -50,26 +50,37 @@ public class ThrottleDataHolder {
     private Map<String, String> blockedApplicationConditionsMap = new ConcurrentHashMap<String, String>();
     private Map<String, String> blockedUserConditionsMap = new ConcurrentHashMap<String, String>();
     private Map<String, Set<IPRange>> blockedIpConditionsMap = new ConcurrentHashMap<>();
+    private Map<String, IPBlockingConditionIndex> ipBlockingConditionIndexMap = new ConcurrentHashMap<>();
     private Map<String, String> keyTemplateMap = new ConcurrentHashMap<String, String>();
     private boolean isBlockingConditionsPresent = true;
     private boolean isKeyTemplatesPresent = false;
-    private Map<String, Long> throttleDataMap = new ConcurrentHashMap<String, Long>();
-    private Map<String,Long> throttledAPIKeysMap = new ConcurrentHashMap<String, Long>();
     private Map<String, Map<String, List<ConditionDto>>> conditionDtoMap = new ConcurrentHashMap<>();
+    private Map<String, CompiledThrottleConditions> compiledConditionsMap = new ConcurrentHashMap<>();
+    private ThrottleDecisionStore throttleDataStore = new ThrottleDecisionStore();
+    private ThrottleDecisionStore throttledAPIKeysStore = new ThrottleDecisionStore(this::removeConditions);
     public void addThrottleData(String key, Long value) {
-        throttleDataMap.put(key, value);
+        throttleDataStore.put(key, value);
     }
     private Map<String, String> blockedSubscriptionConditionsMap = new ConcurrentHashMap<String, String>();
 
     public void addThrottleDataFromMap(Map<String, Long> data) {
-        throttleDataMap.putAll(data);
+        throttleDataStore.putAll(data);
     }
 
     public void addThrottledAPIKey(String key, Long value){
-        throttledAPIKeysMap.put(key,value);
+        throttledAPIKeysStore.put(key, value);
     }
 
-    public void addThrottledApiConditions(String key, String conditionKey, List<ConditionDto> conditionValue) {
+    /**
+     * Adds a condition of a throttled API or resource key. The conditions of the key are compiled again so that
+     * requests are evaluated against the patterns and IP ranges compiled here, rather than on each request.
+     *
+     * @param key            API or resource throttle key
+     * @param conditionKey   key of the condition
+     * @param conditionValue condition pipelines of the condition
+     */
+    public synchronized void addThrottledApiConditions(String key, String conditionKey,
+                                                       List<ConditionDto> conditionValue) {
 
         Map<String, List<ConditionDto>> conditionMap;
         if (conditionDtoMap.containsKey(key)) {
@@ -80,19 +91,27 @@ public class ThrottleDataHolder {
         }
         if (!conditionMap.containsKey(conditionKey)) {
             conditionMap.put(conditionKey, conditionValue);
+            compiledConditionsMap.put(key, CompiledThrottleConditions.compile(conditionMap));
         }
     }
 
-    public void removeThrottledApiConditions(String key, String conditionKey) {
+    public synchronized void removeThrottledApiConditions(String key, String conditionKey) {
         if (conditionDtoMap.containsKey(key)) {
             Map<String, List<ConditionDto>> conditionMap = conditionDtoMap.get(key);
             conditionMap.remove(conditionKey);
             if (conditionMap.isEmpty()) {
-                conditionDtoMap.remove(key);
+                removeConditions(key);
+            } else {
+                compiledConditionsMap.put(key, CompiledThrottleConditions.compile(conditionMap));
             }
         }
     }
 
+    private synchronized void removeConditions(String key) {
+        conditionDtoMap.remove(key);
+        compiledConditionsMap.remove(key);
+    }
+
     public void addSubscriptionBlockingCondition(String name, String value) {
         blockedSubscriptionConditionsMap.put(name, value);
     }
@@ -108,24 +127,18 @@ public class ThrottleDataHolder {
     }
 
     public void removeThrottledAPIKey(String key){
-        throttledAPIKeysMap.remove(key);
+        throttledAPIKeysStore.remove(key);
     }
 
+    /**
+     * Checks whether the given API or resource key is throttled. Conditions of the key are discarded along with the
+     * key once it expires.
+     *
+     * @param apiKey API or resource throttle key
+     * @return true if the key is throttled
+     */
     public boolean isAPIThrottled(String apiKey){
-        boolean isThrottled = this.throttledAPIKeysMap.containsKey(apiKey);
-        if(isThrottled) {
-            long currentTime = System.currentTimeMillis();
-            long timestamp = this.throttledAPIKeysMap.get(apiKey);
-            if(timestamp >= currentTime) {
-                return isThrottled;
-            } else {
-                this.throttledAPIKeysMap.remove(apiKey);
-                this.conditionDtoMap.remove(apiKey);
-                return false;
-            }
-        } else {
-            return isThrottled;
-        }
+        return throttledAPIKeysStore.isThrottled(apiKey);
     }
 
     public boolean isConditionsAvailable(String key) {
@@ -136,8 +149,18 @@ public class ThrottleDataHolder {
         return conditionDtoMap.get(key);
     }
 
+    /**
+     * Returns the compiled conditions of a throttled API or resource key.
+     *
+     * @param key API or resource throttle key
+     * @return compiled conditions of the key, or null if the key has no conditions
+     */
+    public CompiledThrottleConditions getCompiledConditions(String key) {
+        return compiledConditionsMap.get(key);
+    }
+
     public void removeThrottleData(String key) {
-        throttleDataMap.remove(key);
+        throttleDataStore.remove(key);
     }
 
     public void addAPIBlockingCondition(String name, String value) {
@@ -153,15 +176,31 @@ public class ThrottleDataHolder {
         blockedUserConditionsMap.put(name, value);
     }
 
-    public void addIpBlockingCondition(String tenantDomain, int conditionId, String value, String type) {
+    public synchronized void addIpBlockingCondition(String tenantDomain, int conditionId, String value,
+                                                    String type) {
 
-        Set<IPRange> ipRanges = blockedIpConditionsMap.get(tenantDomain);
-        if (ipRanges == null){
-            ipRanges = new HashSet<>();
+        Set<IPRange> ipRanges = new HashSet<>();
+        Set<IPRange> existingIpRanges = blockedIpConditionsMap.get(tenantDomain);
+        if (existingIpRanges != null) {
+            ipRanges.addAll(existingIpRanges);
         }
-
         ipRanges.add(convertValueToIPRange(tenantDomain, conditionId, value, type));
-        blockedIpConditionsMap.put(tenantDomain, ipRanges);
+        updateIpBlockingConditions(tenantDomain, ipRanges);
+    }
+
+    /**
+     * Replaces the IP blocking conditions of a tenant and atomically publishes the compiled index used for lookups.
+     * Callers must hold the lock of this holder and must not modify the given set afterwards.
+     */
+    private void updateIpBlockingConditions(String tenantDomain, Set<IPRange> ipRanges) {
+
+        if (ipRanges.isEmpty()) {
+            blockedIpConditionsMap.remove(tenantDomain);
+            ipBlockingConditionIndexMap.remove(tenantDomain);
+        } else {
+            blockedIpConditionsMap.put(tenantDomain, ipRanges);
+            ipBlockingConditionIndexMap.put(tenantDomain, IPBlockingConditionIndex.compile(ipRanges));
+        }
     }
 
     private IPRange convertValueToIPRange(String tenantDomain, int conditionId, String value, String type) {
@@ -200,9 +239,11 @@ public class ThrottleDataHolder {
         }
     }
 
-    public void addIplockingConditionsFromMap(Map<String, Set<IPRange>> data) {
+    public synchronized void addIplockingConditionsFromMap(Map<String, Set<IPRange>> data) {
         if(data.size() > 0) {
-            blockedIpConditionsMap.putAll(data);
+            for (Map.Entry<String, Set<IPRange>> entry : data.entrySet()) {
+                updateIpBlockingConditions(entry.getKey(), new HashSet<>(entry.getValue()));
+            }
         }
     }
 
@@ -231,10 +272,11 @@ public class ThrottleDataHolder {
         blockedUserConditionsMap.remove(name);
     }
 
-    public void removeIpBlockingCondition(String tenantDomain, int conditionId) {
+    public synchronized void removeIpBlockingCondition(String tenantDomain, int conditionId) {
 
-        Set<IPRange> ipRanges = blockedIpConditionsMap.get(tenantDomain);
-        if (ipRanges != null) {
+        Set<IPRange> existingIpRanges = blockedIpConditionsMap.get(tenantDomain);
+        if (existingIpRanges != null) {
+            Set<IPRange> ipRanges = new HashSet<>(existingIpRanges);
             Iterator<IPRange> iterator = ipRanges.iterator();
             while (iterator.hasNext()) {
                 IPRange ipRange = iterator.next();
@@ -243,6 +285,7 @@ public class ThrottleDataHolder {
                     break;
                 }
             }
+            updateIpBlockingConditions(tenantDomain, ipRanges);
         }
     }
 
@@ -282,39 +325,10 @@ public class ThrottleDataHolder {
 
     private boolean isIpLevelBlocked(String apiTenantDomain, String ip) {
 
-        Set<IPRange> ipRanges = blockedIpConditionsMap.get(apiTenantDomain);
-        if (ipRanges != null && ipRanges.size() > 0) {
+        IPBlockingConditionIndex ipBlockingConditionIndex = ipBlockingConditionIndexMap.get(apiTenantDomain);
+        if (ipBlockingConditionIndex != null && !ipBlockingConditionIndex.isEmpty()) {
             log.debug("Tenant " + apiTenantDomain + " contains block conditions");
-            for (IPRange ipRange : ipRanges) {
-                if (APIConstants.BLOCKING_CONDITIONS_IP.equals(ipRange.getType())) {
-                    if (ip.equals(ipRange.getFixedIp())) {
-                        if (!ipRange.isInvert()) {
-                            log.debug("Block IP selected for Blocked");
-                            return true;
-                        }
-                    } else {
-                        if (ipRange.isInvert()) {
-                            log.debug("Block IP selected for Blocked");
-                            return true;
-                        }
-                    }
-                } else if (APIConstants.BLOCK_CONDITION_IP_RANGE.equals(ipRange.getType())) {
-                    BigInteger ipBigIntegerValue = APIUtil.ipToBigInteger(ip);
-
-                    if (((ipBigIntegerValue.compareTo(ipRange.getStartingIpBigIntValue()) > 0) &&
-                            (ipBigIntegerValue.compareTo(ipRange.getEndingIpBigIntValue()) < 0))) {
-                        if (!ipRange.isInvert()) {
-                            log.debug("Block IPRange selected for Blocked");
-                            return true;
-                        }
-                    } else {
-                        if (ipRange.isInvert()) {
-                            log.debug("Block IPRange selected for Blocked");
-                            return true;
-                        }
-                    }
-                }
-            }
+            return ipBlockingConditionIndex.isBlocked(ip);
         }
         return false;
     }
@@ -329,29 +343,35 @@ public class ThrottleDataHolder {
      * false if key is not there in throttle map(that means its not throttled).
      */
     public boolean isThrottled(String key) {
-        boolean isThrottled = this.throttleDataMap.containsKey(key);
-        if(isThrottled) {
-            long currentTime = System.currentTimeMillis();
-            long timestamp = this.throttleDataMap.get(key);
-            if(timestamp >= currentTime) {
-                return isThrottled;
-            } else {
-                this.throttleDataMap.remove(key);
-                return false;
-            }
-        } else {
-            return isThrottled;
-        }
+        return throttleDataStore.isThrottled(key);
     }
 
     /**
      * This method used to get the next access timestamp of a given key
      *
      * @param key String unique key of throttle event.
-     * @return throttle next access timestamp
+     * @return throttle next access timestamp or 0 if the key is not throttled
      */
     public long getThrottleNextAccessTimestamp(String key) {
-        return this.throttleDataMap.get(key);
+        return throttleDataStore.getExpiryTime(key);
+    }
+
+    /**
+     * Returns the store holding throttle decisions of throttle keys, to be used for monitoring its size and evictions.
+     *
+     * @return throttle decision store
+     */
+    public ThrottleDecisionStore getThrottleDataStore() {
+        return throttleDataStore;
+    }
+
+    /**
+     * Returns the store holding throttled API and resource keys, to be used for monitoring its size and evictions.
+     *
+     * @return throttled API key store
+     */
+    public ThrottleDecisionStore getThrottledAPIKeysStore() {
+        return throttledAPIKeysStore;
     }
 
     public boolean isBlockingConditionsPresent() {
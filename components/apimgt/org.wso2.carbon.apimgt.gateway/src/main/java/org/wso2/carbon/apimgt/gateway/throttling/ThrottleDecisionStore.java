@@ -0,0 +1,299 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.throttling;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Holds throttle decisions received from the global throttle engine as throttle key to expiry timestamp mappings.
+ * <p>
+ * Lookups only need a single map read. Expired decisions are evicted through a hierarchical timing wheel which is
+ * advanced by whichever thread first notices that a tick has elapsed, so the store does not need a thread of its own
+ * and keys that are never looked up again do not stay in memory after they expire.
+ */
+public class ThrottleDecisionStore {
+
+    private static final Log log = LogFactory.getLog(ThrottleDecisionStore.class);
+    static final long DEFAULT_TICK_MILLIS = 1000L;
+    static final int DEFAULT_WHEEL_SIZE = 64;
+    static final int DEFAULT_WHEEL_LEVELS = 4;
+
+    private final Map<String, Decision> decisions = new ConcurrentHashMap<>();
+    private final ReentrantLock wheelLock = new ReentrantLock();
+    private final TimingWheel timingWheel;
+    private final Consumer<String> evictionListener;
+    private final LongAdder evictionCount = new LongAdder();
+    private volatile long nextTickTime;
+
+    public ThrottleDecisionStore() {
+
+        this(null);
+    }
+
+    /**
+     * @param evictionListener invoked with the key of every decision that is evicted after it expired, may be null
+     */
+    public ThrottleDecisionStore(Consumer<String> evictionListener) {
+
+        this(DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE, DEFAULT_WHEEL_LEVELS, System.currentTimeMillis(),
+                evictionListener);
+    }
+
+    ThrottleDecisionStore(long tickMillis, int wheelSize, int wheelLevels, long startTime,
+                          Consumer<String> evictionListener) {
+
+        this.timingWheel = new TimingWheel(tickMillis, wheelSize, wheelLevels, startTime);
+        this.evictionListener = evictionListener;
+        this.nextTickTime = timingWheel.currentTime + tickMillis;
+    }
+
+    /**
+     * Adds or replaces the throttle decision of the given key.
+     *
+     * @param key        throttle key
+     * @param expiryTime time in milliseconds until which the key is throttled
+     */
+    public void put(String key, long expiryTime) {
+
+        put(key, expiryTime, System.currentTimeMillis());
+    }
+
+    void put(String key, long expiryTime, long currentTime) {
+
+        Decision decision = new Decision(key, expiryTime);
+        decisions.put(key, decision);
+        wheelLock.lock();
+        try {
+            advance(currentTime);
+            timingWheel.add(decision);
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    public void putAll(Map<String, Long> data) {
+
+        for (Map.Entry<String, Long> entry : data.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public void remove(String key) {
+
+        decisions.remove(key);
+    }
+
+    /**
+     * Checks whether the given key has a throttle decision which has not expired yet.
+     *
+     * @param key throttle key
+     * @return true if the key is throttled
+     */
+    public boolean isThrottled(String key) {
+
+        return isThrottled(key, System.currentTimeMillis());
+    }
+
+    boolean isThrottled(String key, long currentTime) {
+
+        expireEntries(currentTime);
+        Decision decision = decisions.get(key);
+        if (decision == null) {
+            return false;
+        }
+        if (decision.expiryTime >= currentTime) {
+            return true;
+        }
+        evict(decision);
+        return false;
+    }
+
+    /**
+     * Returns the expiry time of the throttle decision of the given key.
+     *
+     * @param key throttle key
+     * @return expiry time in milliseconds or 0 if there is no decision for the key
+     */
+    public long getExpiryTime(String key) {
+
+        Decision decision = decisions.get(key);
+        return decision != null ? decision.expiryTime : 0L;
+    }
+
+    /**
+     * Evicts the decisions which expired before the given time. This is a no-op if another thread is already
+     * advancing the timing wheel or if a tick has not elapsed since the last run.
+     *
+     * @param currentTime current time in milliseconds
+     */
+    void expireEntries(long currentTime) {
+
+        if (currentTime < nextTickTime || !wheelLock.tryLock()) {
+            return;
+        }
+        try {
+            advance(currentTime);
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    public int getSize() {
+
+        return decisions.size();
+    }
+
+    public long getEvictionCount() {
+
+        return evictionCount.sum();
+    }
+
+    /**
+     * Returns the number of timers held in the timing wheel, including timers of decisions which were replaced or
+     * removed before they expired.
+     */
+    public int getScheduledTimerCount() {
+
+        return timingWheel.size;
+    }
+
+    private void advance(long currentTime) {
+
+        List<Decision> expired = timingWheel.advance(currentTime);
+        nextTickTime = timingWheel.currentTime + timingWheel.tickMillis;
+        for (Decision decision : expired) {
+            if (decision.expiryTime < currentTime) {
+                evict(decision);
+            } else {
+                timingWheel.add(decision);
+            }
+        }
+    }
+
+    private void evict(Decision decision) {
+
+        // Only evict if the decision was not replaced with a newer one in the meantime
+        if (decisions.remove(decision.key, decision)) {
+            evictionCount.increment();
+            if (evictionListener != null) {
+                try {
+                    evictionListener.accept(decision.key);
+                } catch (RuntimeException e) {
+                    log.error("Error while notifying eviction of throttle key " + decision.key, e);
+                }
+            }
+        }
+    }
+
+    private static final class Decision {
+
+        private final String key;
+        private final long expiryTime;
+
+        private Decision(String key, long expiryTime) {
+
+            this.key = key;
+            this.expiryTime = expiryTime;
+        }
+    }
+
+    /**
+     * Hierarchical timing wheel. Level n has buckets spanning tickMillis * wheelSize^n milliseconds. Timers which do
+     * not fit in a level go to the next one and cascade down as the wheel turns. Not thread safe.
+     */
+    private static final class TimingWheel {
+
+        private final long tickMillis;
+        private final int wheelSize;
+        private final long[] levelTicks;
+        private final List<List<Decision>> buckets;
+        private long currentTime;
+        private int size;
+
+        private TimingWheel(long tickMillis, int wheelSize, int levels, long startTime) {
+
+            this.tickMillis = tickMillis;
+            this.wheelSize = wheelSize;
+            this.levelTicks = new long[levels];
+            long levelTick = tickMillis;
+            for (int i = 0; i < levels; i++) {
+                levelTicks[i] = levelTick;
+                levelTick = levelTick * wheelSize;
+            }
+            this.buckets = new ArrayList<>(levels * wheelSize);
+            for (int i = 0; i < levels * wheelSize; i++) {
+                buckets.add(new ArrayList<>());
+            }
+            this.currentTime = startTime - (startTime % tickMillis);
+        }
+
+        private void add(Decision decision) {
+
+            int levels = levelTicks.length;
+            long expiryTime = decision.expiryTime;
+            for (int level = 0; level < levels; level++) {
+                long levelTick = levelTicks[level];
+                long levelStart = currentTime - (currentTime % levelTick);
+                if (expiryTime < levelStart + levelTick * wheelSize || level == levels - 1) {
+                    long bucketTime = Math.min(Math.max(expiryTime, currentTime + tickMillis),
+                            levelStart + levelTick * (wheelSize - 1));
+                    int index = (int) ((bucketTime / levelTick) % wheelSize);
+                    buckets.get(level * wheelSize + index).add(decision);
+                    size++;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Turns the wheel up to the given time and returns the timers of the buckets that became due. Timers of
+         * higher levels are returned as well and must be added again if they have not expired.
+         */
+        private List<Decision> advance(long time) {
+
+            List<Decision> due = new ArrayList<>();
+            while (currentTime + tickMillis <= time) {
+                currentTime += tickMillis;
+                for (int level = 0; level < levelTicks.length; level++) {
+                    long levelTick = levelTicks[level];
+                    if (currentTime % levelTick != 0) {
+                        break;
+                    }
+                    List<Decision> bucket = buckets.get(level * wheelSize
+                            + (int) ((currentTime / levelTick) % wheelSize));
+                    if (!bucket.isEmpty()) {
+                        size -= bucket.size();
+                        due.addAll(bucket);
+                        bucket.clear();
+                    }
+                }
+            }
+            return due;
+        }
+    }
+}
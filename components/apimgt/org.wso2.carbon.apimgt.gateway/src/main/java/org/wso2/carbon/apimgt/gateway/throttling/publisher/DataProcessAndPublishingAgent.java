@@ -8,26 +8,33 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.synapse.MessageContext;
 import org.apache.synapse.core.axis2.Axis2MessageContext;
+import org.apache.synapse.transport.nhttp.NhttpConstants;
 import org.apache.synapse.transport.passthru.util.RelayUtils;
 import org.json.simple.JSONObject;
 import org.wso2.carbon.apimgt.common.gateway.util.JWTUtil;
 import org.wso2.carbon.apimgt.gateway.handlers.security.AuthenticationContext;
 import org.wso2.carbon.apimgt.gateway.handlers.throttling.APIThrottleConstants;
 import org.wso2.carbon.apimgt.gateway.internal.ServiceReferenceHolder;
+import org.wso2.carbon.apimgt.gateway.throttling.ThrottleDataHolder;
 import org.wso2.carbon.apimgt.gateway.utils.GatewayUtils;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.dto.ThrottleProperties;
 import org.wso2.carbon.apimgt.impl.dto.VerbInfoDTO;
 import org.wso2.carbon.apimgt.impl.utils.APIUtil;
+import org.wso2.carbon.apimgt.keymgt.SubscriptionDataHolder;
+import org.wso2.carbon.apimgt.keymgt.model.SubscriptionDataStore;
+import org.wso2.carbon.apimgt.keymgt.model.entity.ApiPolicy;
 import org.wso2.carbon.databridge.agent.DataPublisher;
 
 import java.io.IOException;
+import java.math.BigInteger;
 import java.net.Inet4Address;
 import java.net.Inet6Address;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -67,6 +74,12 @@ public class DataProcessAndPublishingAgent implements Runnable {
     Map<String, String> headersMap;
     Map<String, Object> customPropertyMap;
     private AuthenticationContext authenticationContext;
+    // Attributes referenced by the conditions of the policy, or null if all attributes have to be published
+    private ThrottleConditionAttributes conditionAttributes;
+    private String[] conditionHeaderValues = new String[0];
+    private long ipv4Value;
+    private BigInteger ipv6Value;
+    private final ThrottleEventBuilder eventBuilder = new ThrottleEventBuilder();
 
     private long messageSizeInBytes;
 
@@ -101,6 +114,8 @@ public class DataProcessAndPublishingAgent implements Runnable {
         this.headersMap = null;
         this.messageSizeInBytes = 0;
         this.customPropertyMap = Collections.emptyMap();
+        this.conditionAttributes = null;
+        Arrays.fill(this.conditionHeaderValues, null);
     }
 
     /**
@@ -147,7 +162,17 @@ public class DataProcessAndPublishingAgent implements Runnable {
                 .getAxis2MessageContext();
         Map<String, String> transportHeaderMap = (Map<String, String>) axis2MessageContext
                 .getProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS);
-        if (transportHeaderMap != null) {
+        this.conditionAttributes = getConditionAttributes(resourceLevelTier, apiTenant);
+        if (conditionAttributes != null) {
+            // Only the headers referenced by the conditions of the policy are published
+            String[] headerNames = conditionAttributes.getHeaderNames();
+            if (conditionHeaderValues.length < headerNames.length) {
+                conditionHeaderValues = new String[headerNames.length];
+            }
+            for (int i = 0; i < headerNames.length; i++) {
+                conditionHeaderValues[i] = transportHeaderMap != null ? transportHeaderMap.get(headerNames[i]) : null;
+            }
+        } else if (transportHeaderMap != null) {
             this.headersMap = new HashMap<>(transportHeaderMap);
         }
 
@@ -157,6 +182,8 @@ public class DataProcessAndPublishingAgent implements Runnable {
 
             if (propertyFromMsgCtx != null) {
                 this.customPropertyMap = (Map<String, Object>) propertyFromMsgCtx.clone();
+                // The weight of the event is set by the gateway only
+                this.customPropertyMap.remove(APIThrottleConstants.EVENT_COUNT);
             }
         }
 
@@ -194,30 +221,36 @@ public class DataProcessAndPublishingAgent implements Runnable {
     }
 
     public void run() {
-        JSONObject jsonObMap = new JSONObject();
         org.apache.axis2.context.MessageContext axis2MessageContext = ((Axis2MessageContext) messageContext)
                 .getAxis2MessageContext();
+        String properties;
+        if (conditionAttributes != null) {
+            properties = buildConditionProperties(axis2MessageContext);
+        } else {
+            properties = buildAllProperties(axis2MessageContext);
+        }
 
-        if (ipAddress != null && ipAddress.length() > 0) {
-            if (ipAddress.contains(":") && ipAddress.split(":").length == 2) {
-                log.warn("Client port will be ignored and only the IP address (IPV4) will concern from " + ipAddress);
-                ipAddress = ipAddress.split(":")[0];
-            }
-            try {
-                InetAddress address = APIUtil.getAddress(ipAddress);
-                if (address instanceof Inet4Address) {
-                    jsonObMap.put(APIThrottleConstants.IP, APIUtil.ipToLong(ipAddress));
-                    jsonObMap.put(APIThrottleConstants.IPv6, 0);
-                } else if (address instanceof Inet6Address) {
-                    jsonObMap.put(APIThrottleConstants.IPv6, APIUtil.ipToBigInteger(ipAddress));
-                    jsonObMap.put(APIThrottleConstants.IP, 0);
-                }
-            } catch (UnknownHostException e) {
-                //send empty value as ip
-                log.error("Error while parsing host IP " + ipAddress, e);
-                jsonObMap.put(APIThrottleConstants.IPv6, 0);
-                jsonObMap.put(APIThrottleConstants.IP, 0);
-            }
+        Object[] objects = new Object[]{messageContext.getMessageID(),
+                                        this.applicationLevelThrottleKey, this.applicationLevelTier,
+                                        this.apiLevelThrottleKey, this.apiLevelTier,
+                                        this.subscriptionLevelThrottleKey, this.subscriptionLevelTier,
+                                        this.resourceLevelThrottleKey, this.resourceLevelTier,
+                                        this.authorizedUser, this.apiContext, this.apiVersion,
+                                        this.appTenant, this.apiTenant, this.appId, this.apiName, properties};
+        org.wso2.carbon.databridge.commons.Event event = new org.wso2.carbon.databridge.commons.Event(streamID,
+                                                                                                      System.currentTimeMillis(), null, null, objects);
+        dataPublisher.tryPublish(event);
+    }
+
+    /**
+     * Builds the properties of the event with all headers, query parameters and JWT claims of the request.
+     */
+    String buildAllProperties(org.apache.axis2.context.MessageContext axis2MessageContext) {
+        JSONObject jsonObMap = new JSONObject();
+
+        if (resolveIpAddress()) {
+            jsonObMap.put(APIThrottleConstants.IP, ipv4Value);
+            jsonObMap.put(APIThrottleConstants.IPv6, ipv6Value != null ? ipv6Value : 0);
         }
 
         //HeaderMap will only be set if the Header Publishing has been enabled.
@@ -249,17 +282,12 @@ public class DataProcessAndPublishingAgent implements Runnable {
                 }
             }
         }
+        // The traffic manager counts the event as 'eventCount' requests. A request is a single event, hence a value
+        // sent by the client as a header, query parameter or claim must not be published.
+        jsonObMap.remove(APIThrottleConstants.EVENT_COUNT);
 
         //this parameter will be used to capture message size and pass it to calculation logic
-        
-        ArrayList<VerbInfoDTO> list = (ArrayList<VerbInfoDTO>) messageContext.getProperty(APIConstants.VERB_INFO_DTO);
-        boolean isVerbInfoContentAware = false;
-        if (list != null && !list.isEmpty()) {
-            VerbInfoDTO verbInfoDTO = list.get(0);
-            isVerbInfoContentAware = verbInfoDTO.isContentAware();
-        }
-
-        if (authenticationContext.isContentAwareTierPresent() || isVerbInfoContentAware) {
+        if (isContentAware()) {
             if (log.isDebugEnabled()) {
                 log.debug("Message size: " + messageSizeInBytes + "B");
             }
@@ -267,25 +295,173 @@ public class DataProcessAndPublishingAgent implements Runnable {
             if (!StringUtils.isEmpty(authenticationContext.getApplicationName())) {
                 jsonObMap.put(APIThrottleConstants.APPLICATION_NAME, authenticationContext.getApplicationName());
             }
-            if (!StringUtils.isEmpty(authenticationContext.getProductName()) && !StringUtils
-                    .isEmpty(authenticationContext.getProductProvider())) {
-                jsonObMap.put(APIThrottleConstants.SUBSCRIPTION_TYPE, APIConstants.API_PRODUCT_SUBSCRIPTION_TYPE);
+            jsonObMap.put(APIThrottleConstants.SUBSCRIPTION_TYPE, getSubscriptionType());
+        }
+        return jsonObMap.toString();
+    }
+
+    /**
+     * Builds the properties of the event with only the headers, query parameters and JWT claims which are referenced
+     * by the conditions of the policy. The properties are written to a buffer which is reused across requests.
+     */
+    String buildConditionProperties(org.apache.axis2.context.MessageContext axis2MessageContext) {
+        ThrottleEventBuilder builder = eventBuilder.reset();
+
+        if (resolveIpAddress()) {
+            builder.add(APIThrottleConstants.IP, ipv4Value);
+            if (ipv6Value != null) {
+                builder.add(APIThrottleConstants.IPv6, ipv6Value);
             } else {
-                jsonObMap.put(APIThrottleConstants.SUBSCRIPTION_TYPE, APIConstants.API_SUBSCRIPTION_TYPE);
+                builder.add(APIThrottleConstants.IPv6, 0);
             }
+        }
 
+        if (getThrottleProperties().isEnableHeaderConditions()) {
+            String[] headerNames = conditionAttributes.getHeaderNames();
+            for (int i = 0; i < headerNames.length; i++) {
+                if (conditionHeaderValues[i] != null) {
+                    builder.add(headerNames[i], conditionHeaderValues[i]);
+                }
+            }
+        }
+        if (this.customPropertyMap != null) {
+            builder.addAll(this.customPropertyMap);
         }
 
-        Object[] objects = new Object[]{messageContext.getMessageID(),
-                                        this.applicationLevelThrottleKey, this.applicationLevelTier,
-                                        this.apiLevelThrottleKey, this.apiLevelTier,
-                                        this.subscriptionLevelThrottleKey, this.subscriptionLevelTier,
-                                        this.resourceLevelThrottleKey, this.resourceLevelTier,
-                                        this.authorizedUser, this.apiContext, this.apiVersion,
-                                        this.appTenant, this.apiTenant, this.appId, this.apiName, jsonObMap.toString()};
-        org.wso2.carbon.databridge.commons.Event event = new org.wso2.carbon.databridge.commons.Event(streamID,
-                                                                                                      System.currentTimeMillis(), null, null, objects);
-        dataPublisher.tryPublish(event);
+        String[] queryParamNames = conditionAttributes.getQueryParamNames();
+        if (getThrottleProperties().isEnableQueryParamConditions() && queryParamNames.length > 0) {
+            String queryString = (String) axis2MessageContext.getProperty(NhttpConstants.REST_URL_POSTFIX);
+            if (!StringUtils.isEmpty(queryString)) {
+                for (String queryParamName : queryParamNames) {
+                    addQueryParam(builder, queryString, queryParamName);
+                }
+            }
+        }
+
+        // JWT claims are decoded only if a condition refers to them
+        String[] jwtClaimNames = conditionAttributes.getJwtClaimNames();
+        if (getThrottleProperties().isEnableJwtConditions() && jwtClaimNames.length > 0
+                && authenticationContext.getCallerToken() != null) {
+            Map<String, String> assertions = JWTUtil.getJWTClaims(authenticationContext.getCallerToken());
+            if (assertions != null) {
+                for (String jwtClaimName : jwtClaimNames) {
+                    String claim = assertions.get(jwtClaimName);
+                    if (claim != null) {
+                        builder.add(jwtClaimName, claim);
+                    }
+                }
+            }
+        }
+
+        if (isContentAware()) {
+            builder.add(APIThrottleConstants.MESSAGE_SIZE, messageSizeInBytes);
+            if (!StringUtils.isEmpty(authenticationContext.getApplicationName())) {
+                builder.add(APIThrottleConstants.APPLICATION_NAME, authenticationContext.getApplicationName());
+            }
+            builder.add(APIThrottleConstants.SUBSCRIPTION_TYPE, getSubscriptionType());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Adds the value of the last occurrence of the given query parameter, without splitting the query string.
+     */
+    static void addQueryParam(ThrottleEventBuilder builder, String queryString, String name) {
+        int valueStart = -1;
+        int valueEnd = -1;
+        int start = queryString.indexOf('?') + 1;
+        while (start <= queryString.length()) {
+            int end = queryString.indexOf('&', start);
+            if (end < 0) {
+                end = queryString.length();
+            }
+            int nameEnd = queryString.indexOf('=', start);
+            if (nameEnd < 0 || nameEnd > end) {
+                nameEnd = end;
+            }
+            if (nameEnd - start == name.length() && queryString.regionMatches(start, name, 0, name.length())) {
+                valueStart = Math.min(nameEnd + 1, end);
+                valueEnd = end;
+            }
+            start = end + 1;
+        }
+        if (valueStart >= 0) {
+            builder.add(name, queryString, valueStart, valueEnd);
+        }
+    }
+
+    /**
+     * Resolves the IPv4 or IPv6 value of the client address. Both values are 0 if the address could not be parsed.
+     *
+     * @return false if the address of the client is not known
+     */
+    private boolean resolveIpAddress() {
+        ipv4Value = 0;
+        ipv6Value = null;
+        if (ipAddress == null || ipAddress.length() == 0) {
+            return false;
+        }
+        if (ipAddress.contains(":") && ipAddress.split(":").length == 2) {
+            log.warn("Client port will be ignored and only the IP address (IPV4) will concern from " + ipAddress);
+            ipAddress = ipAddress.split(":")[0];
+        }
+        try {
+            InetAddress address = APIUtil.getAddress(ipAddress);
+            if (address instanceof Inet4Address) {
+                ipv4Value = APIUtil.ipToLong(ipAddress);
+            } else if (address instanceof Inet6Address) {
+                ipv6Value = APIUtil.ipToBigInteger(ipAddress);
+            } else {
+                return false;
+            }
+        } catch (UnknownHostException e) {
+            //send empty value as ip
+            log.error("Error while parsing host IP " + ipAddress, e);
+        }
+        return true;
+    }
+
+    private boolean isContentAware() {
+        ArrayList<VerbInfoDTO> list = (ArrayList<VerbInfoDTO>) messageContext.getProperty(APIConstants.VERB_INFO_DTO);
+        boolean isVerbInfoContentAware = false;
+        if (list != null && !list.isEmpty()) {
+            VerbInfoDTO verbInfoDTO = list.get(0);
+            isVerbInfoContentAware = verbInfoDTO.isContentAware();
+        }
+        return authenticationContext.isContentAwareTierPresent() || isVerbInfoContentAware;
+    }
+
+    private String getSubscriptionType() {
+        if (!StringUtils.isEmpty(authenticationContext.getProductName()) && !StringUtils
+                .isEmpty(authenticationContext.getProductProvider())) {
+            return APIConstants.API_PRODUCT_SUBSCRIPTION_TYPE;
+        }
+        return APIConstants.API_SUBSCRIPTION_TYPE;
+    }
+
+    /**
+     * Returns the attributes referenced by the conditions of the given API throttle policy, or null if all
+     * attributes of the request have to be published.
+     *
+     * @param policyName   name of the API or resource level policy
+     * @param tenantDomain tenant domain of the API
+     * @return attributes referenced by the conditions of the policy, or null
+     */
+    protected ThrottleConditionAttributes getConditionAttributes(String policyName, String tenantDomain) {
+        if (StringUtils.isEmpty(policyName) || StringUtils.isEmpty(tenantDomain)) {
+            return null;
+        }
+        ThrottleDataHolder throttleDataHolder = ServiceReferenceHolder.getInstance().getThrottleDataHolder();
+        if (throttleDataHolder == null || throttleDataHolder.isKeyTemplatesPresent()) {
+            // Custom policies may refer to any property of the event
+            return null;
+        }
+        SubscriptionDataStore store = SubscriptionDataHolder.getInstance().getTenantSubscriptionStore(tenantDomain);
+        if (store == null) {
+            return null;
+        }
+        ApiPolicy policy = store.getApiPolicyByName(policyName, APIUtil.getTenantIdFromTenantDomain(tenantDomain));
+        return policy != null ? ThrottleConditionAttributes.of(policy) : null;
     }
 
     protected void buildMessage(org.apache.axis2.context.MessageContext axis2MessageContext) throws IOException,
@@ -0,0 +1,109 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.throttling.publisher;
+
+import org.wso2.carbon.apimgt.api.model.policy.PolicyConstants;
+import org.wso2.carbon.apimgt.gateway.handlers.throttling.APIThrottleConstants;
+import org.wso2.carbon.apimgt.keymgt.model.entity.APIPolicyConditionGroup;
+import org.wso2.carbon.apimgt.keymgt.model.entity.ApiPolicy;
+import org.wso2.carbon.apimgt.keymgt.model.entity.Condition;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Names of the headers, query parameters and JWT claims which are referenced by the conditions of an API throttle
+ * policy. Only these attributes have to be published with the throttle events of the policy, as the traffic manager
+ * does not look at any other request attribute when evaluating the policy.
+ * <p>
+ * The attributes are resolved once per deployed policy. A policy updated on the gateway is a new policy object,
+ * hence the attributes are resolved again for it.
+ */
+public final class ThrottleConditionAttributes {
+
+    private static final String[] NONE = new String[0];
+    private static final Map<String, ThrottleConditionAttributes> attributesOfPolicies = new ConcurrentHashMap<>();
+
+    private final ApiPolicy policy;
+    private final String[] headerNames;
+    private final String[] queryParamNames;
+    private final String[] jwtClaimNames;
+
+    private ThrottleConditionAttributes(ApiPolicy policy) {
+
+        this.policy = policy;
+        Set<String> headers = new LinkedHashSet<>();
+        Set<String> queryParams = new LinkedHashSet<>();
+        Set<String> jwtClaims = new LinkedHashSet<>();
+        for (APIPolicyConditionGroup conditionGroup : policy.getConditionGroups()) {
+            if (conditionGroup.getCondition() == null) {
+                continue;
+            }
+            for (Condition condition : conditionGroup.getCondition()) {
+                if (condition.getName() == null || APIThrottleConstants.EVENT_COUNT.equals(condition.getName())) {
+                    // The weight of an event is never taken from the request
+                    continue;
+                }
+                if (PolicyConstants.HEADER_TYPE.equals(condition.getConditionType())) {
+                    headers.add(condition.getName());
+                } else if (PolicyConstants.QUERY_PARAMETER_TYPE.equals(condition.getConditionType())) {
+                    queryParams.add(condition.getName());
+                } else if (PolicyConstants.JWT_CLAIMS_TYPE.equals(condition.getConditionType())) {
+                    jwtClaims.add(condition.getName());
+                }
+            }
+        }
+        this.headerNames = headers.isEmpty() ? NONE : headers.toArray(NONE);
+        this.queryParamNames = queryParams.isEmpty() ? NONE : queryParams.toArray(NONE);
+        this.jwtClaimNames = jwtClaims.isEmpty() ? NONE : jwtClaims.toArray(NONE);
+    }
+
+    /**
+     * Returns the attributes referenced by the conditions of the given policy.
+     *
+     * @param policy deployed API throttle policy
+     * @return attributes referenced by the conditions of the policy
+     */
+    public static ThrottleConditionAttributes of(ApiPolicy policy) {
+
+        ThrottleConditionAttributes attributes = attributesOfPolicies.get(policy.getCacheKey());
+        if (attributes == null || attributes.policy != policy) {
+            attributes = new ThrottleConditionAttributes(policy);
+            attributesOfPolicies.put(policy.getCacheKey(), attributes);
+        }
+        return attributes;
+    }
+
+    public String[] getHeaderNames() {
+
+        return headerNames;
+    }
+
+    public String[] getQueryParamNames() {
+
+        return queryParamNames;
+    }
+
+    public String[] getJwtClaimNames() {
+
+        return jwtClaimNames;
+    }
+}
@@ -55,6 +55,8 @@ public class ThrottleDataPublisher {
 
     private static volatile DataPublisher dataPublisher = null;
 
+    private WebSocketThrottleEventAggregator webSocketThrottleEventAggregator;
+
     Executor executor;
 
     /**
@@ -83,7 +85,13 @@ public class ThrottleDataPublisher {
                             .getReceiverUrlGroup(), dataPublisherConfiguration.getAuthUrlGroup(), dataPublisherConfiguration
                             .getUsername(),
                             dataPublisherConfiguration.getPassword());
-
+                    if (dataPublisherConfiguration.isWebSocketFrameAggregationEnabled()) {
+                        webSocketThrottleEventAggregator = new WebSocketThrottleEventAggregator(
+                                dataPublisherConfiguration.getWebSocketFrameAggregationWindow(),
+                                dataPublisherConfiguration.getWebSocketFrameAggregationMaxKeys(),
+                                event -> dataPublisher.tryPublish(event));
+                        webSocketThrottleEventAggregator.start();
+                    }
                 } catch (DataEndpointAgentConfigurationException e) {
                     log.error("Error in initializing binary data-publisher to send requests to global throttling engine " +
                             e.getMessage(), e);
@@ -104,6 +112,15 @@ public class ThrottleDataPublisher {
         }
     }
 
+    /**
+     * Returns the aggregator of WebSocket frame throttle events.
+     *
+     * @return the aggregator, or null if WebSocket frame aggregation is disabled
+     */
+    public WebSocketThrottleEventAggregator getWebSocketThrottleEventAggregator() {
+        return webSocketThrottleEventAggregator;
+    }
+
     /**
      * This method used to pass message context and let it run within separate thread.
      *
@@ -0,0 +1,167 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.throttling.publisher;
+
+import org.json.simple.JSONValue;
+
+import java.util.Map;
+
+/**
+ * Writes the properties of a throttle event as a JSON object into a buffer which is reused across events. Values are
+ * escaped the same way as by {@link org.json.simple.JSONObject}, so that the traffic manager reads the same properties
+ * as from an event built with a JSON object, without creating a map per event.
+ * <p>
+ * A builder is not thread safe. It is meant to be owned by a pooled {@link DataProcessAndPublishingAgent}.
+ */
+public class ThrottleEventBuilder {
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private StringBuilder buffer = new StringBuilder(INITIAL_CAPACITY);
+
+    /**
+     * Starts the properties of a new event.
+     */
+    public ThrottleEventBuilder reset() {
+
+        if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            // Do not hold on to the buffer of an unusually large event
+            buffer = new StringBuilder(INITIAL_CAPACITY);
+        } else {
+            buffer.setLength(0);
+        }
+        buffer.append('{');
+        return this;
+    }
+
+    public ThrottleEventBuilder add(String name, long value) {
+
+        appendName(name);
+        buffer.append(value);
+        return this;
+    }
+
+    public ThrottleEventBuilder add(String name, String value) {
+
+        appendName(name);
+        appendString(value, 0, value != null ? value.length() : 0);
+        return this;
+    }
+
+    /**
+     * Adds a property whose value is the given range of a string, without copying the range.
+     */
+    public ThrottleEventBuilder add(String name, String value, int start, int end) {
+
+        appendName(name);
+        appendString(value, start, end);
+        return this;
+    }
+
+    /**
+     * Adds a property of any type which is supported by {@link JSONValue}.
+     */
+    public ThrottleEventBuilder add(String name, Object value) {
+
+        if (value instanceof String) {
+            return add(name, (String) value);
+        }
+        if (value instanceof Long || value instanceof Integer) {
+            return add(name, ((Number) value).longValue());
+        }
+        appendName(name);
+        buffer.append(JSONValue.toJSONString(value));
+        return this;
+    }
+
+    public ThrottleEventBuilder addAll(Map<String, ?> properties) {
+
+        for (Map.Entry<String, ?> property : properties.entrySet()) {
+            add(property.getKey(), property.getValue());
+        }
+        return this;
+    }
+
+    /**
+     * Returns the properties of the event as a JSON string.
+     */
+    public String build() {
+
+        buffer.append('}');
+        return buffer.toString();
+    }
+
+    private void appendName(String name) {
+
+        if (buffer.length() > 1) {
+            buffer.append(',');
+        }
+        appendString(name, 0, name.length());
+        buffer.append(':');
+    }
+
+    private void appendString(String value, int start, int end) {
+
+        if (value == null) {
+            buffer.append("null");
+            return;
+        }
+        buffer.append('"');
+        for (int i = start; i < end; i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"':
+                    buffer.append("\\\"");
+                    break;
+                case '\\':
+                    buffer.append("\\\\");
+                    break;
+                case '\b':
+                    buffer.append("\\b");
+                    break;
+                case '\f':
+                    buffer.append("\\f");
+                    break;
+                case '\n':
+                    buffer.append("\\n");
+                    break;
+                case '\r':
+                    buffer.append("\\r");
+                    break;
+                case '\t':
+                    buffer.append("\\t");
+                    break;
+                case '/':
+                    buffer.append("\\/");
+                    break;
+                default:
+                    if (ch <= '\u001F' || (ch >= '\u007F' && ch <= '\u009F')
+                            || (ch >= '\u2000' && ch <= '\u20FF')) {
+                        buffer.append("\\u").append(HEX_DIGITS[(ch >> 12) & 0xF]).append(HEX_DIGITS[(ch >> 8) & 0xF])
+                                .append(HEX_DIGITS[(ch >> 4) & 0xF]).append(HEX_DIGITS[ch & 0xF]);
+                    } else {
+                        buffer.append(ch);
+                    }
+            }
+        }
+        buffer.append('"');
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.throttling.publisher;
+
+import org.apache.axiom.util.UIDGenerator;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.json.JSONObject;
+import org.wso2.carbon.apimgt.gateway.handlers.Utils;
+import org.wso2.carbon.apimgt.gateway.handlers.throttling.APIThrottleConstants;
+import org.wso2.carbon.databridge.commons.Event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Aggregates the throttle events of WebSocket frames before they are published to the traffic manager. Instead of one
+ * event per frame, a single event is published per throttle key combination and window, which carries the number of
+ * frames in its 'eventCount' property and their total size in its 'messageSize' property. The throttle policies of the
+ * traffic manager count an aggregated event as 'eventCount' requests.
+ * <p>
+ * Throttle decisions are still taken per frame on the gateway, hence aggregation only delays the point at which the
+ * traffic manager sees the frames of a window by at most the window size.
+ */
+public class WebSocketThrottleEventAggregator {
+
+    private static final Log log = LogFactory.getLog(WebSocketThrottleEventAggregator.class);
+    private static final String THROTTLE_STREAM_ID = "org.wso2.throttle.request.stream:1.0.0";
+
+    private final Map<List<String>, Aggregate> aggregates = new ConcurrentHashMap<>();
+    private final long window;
+    private final int maxKeys;
+    private final Consumer<Event> eventPublisher;
+    private ScheduledExecutorService flushExecutor;
+
+    /**
+     * @param window         time in milliseconds for which the frames of a throttle key combination are aggregated
+     * @param maxKeys        maximum number of throttle key combinations aggregated at once. Frames of further
+     *                       combinations are published without aggregation.
+     * @param eventPublisher publishes events to the traffic manager
+     */
+    public WebSocketThrottleEventAggregator(long window, int maxKeys, Consumer<Event> eventPublisher) {
+
+        this.window = window;
+        this.maxKeys = maxKeys;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Starts publishing the aggregated events once every window.
+     */
+    public synchronized void start() {
+
+        if (flushExecutor != null) {
+            return;
+        }
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "WebSocketThrottleEventAggregator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.error("Error while publishing aggregated WebSocket throttle events", e);
+            }
+        }, window, window, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic publishing and publishes the events aggregated so far.
+     */
+    public synchronized void stop() {
+
+        if (flushExecutor != null) {
+            flushExecutor.shutdownNow();
+            flushExecutor = null;
+        }
+        flush();
+    }
+
+    /**
+     * Adds a frame to the aggregated event of its throttle key combination.
+     *
+     * @param throttleData throttle stream attributes of the frame, from the application key up to the API name
+     * @param remoteIP     IP address of the client
+     * @param messageSize  size of the frame
+     */
+    public void addFrame(String[] throttleData, String remoteIP, int messageSize) {
+
+        List<String> key = new ArrayList<>(throttleData.length + 1);
+        key.addAll(Arrays.asList(throttleData));
+        key.add(remoteIP);
+        while (true) {
+            Aggregate aggregate = aggregates.get(key);
+            if (aggregate == null) {
+                if (aggregates.size() >= maxKeys) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Maximum number of aggregated WebSocket throttle keys reached. Publishing the "
+                                + "frame of " + throttleData[0] + " without aggregation.");
+                    }
+                    eventPublisher.accept(createEvent(throttleData, remoteIP, 1, messageSize));
+                    return;
+                }
+                aggregate = aggregates.computeIfAbsent(key, k -> new Aggregate(throttleData, remoteIP));
+            }
+            if (aggregate.add(messageSize)) {
+                return;
+            }
+            // The aggregate was removed by a concurrent flush, hence retry with a new one
+        }
+    }
+
+    /**
+     * Publishes an event for each throttle key combination which received frames since the last flush and removes
+     * the combinations which did not.
+     */
+    void flush() {
+
+        for (Map.Entry<List<String>, Aggregate> entry : aggregates.entrySet()) {
+            Aggregate aggregate = entry.getValue();
+            long frameCount;
+            long totalSize;
+            synchronized (aggregate) {
+                frameCount = aggregate.frameCount;
+                totalSize = aggregate.totalSize;
+                if (frameCount == 0) {
+                    aggregate.removed = true;
+                    aggregates.remove(entry.getKey(), aggregate);
+                    continue;
+                }
+                aggregate.frameCount = 0;
+                aggregate.totalSize = 0;
+            }
+            eventPublisher.accept(createEvent(aggregate.throttleData, aggregate.remoteIP, frameCount, totalSize));
+        }
+    }
+
+    int size() {
+
+        return aggregates.size();
+    }
+
+    private static Event createEvent(String[] throttleData, String remoteIP, long frameCount, long totalSize) {
+
+        JSONObject jsonObMap = new JSONObject();
+        Utils.setRemoteIp(jsonObMap, remoteIP);
+        jsonObMap.put(APIThrottleConstants.MESSAGE_SIZE, totalSize);
+        jsonObMap.put(APIThrottleConstants.EVENT_COUNT, frameCount);
+        Object[] objects = new Object[throttleData.length + 2];
+        objects[0] = UIDGenerator.generateURNString();
+        System.arraycopy(throttleData, 0, objects, 1, throttleData.length);
+        objects[objects.length - 1] = jsonObMap.toString();
+        return new Event(THROTTLE_STREAM_ID, System.currentTimeMillis(), null, null, objects);
+    }
+
+    /**
+     * Frames received for a throttle key combination since the last flush.
+     */
+    private static class Aggregate {
+
+        private final String[] throttleData;
+        private final String remoteIP;
+        private long frameCount;
+        private long totalSize;
+        private boolean removed;
+
+        Aggregate(String[] throttleData, String remoteIP) {
+
+            this.throttleData = throttleData;
+            this.remoteIP = remoteIP;
+        }
+
+        synchronized boolean add(int messageSize) {
+
+            if (removed) {
+                return false;
+            }
+            frameCount++;
+            totalSize += messageSize;
+            return true;
+        }
+    }
+}
@@ -62,6 +62,7 @@ import org.wso2.carbon.apimgt.gateway.handlers.security.APISecurityException;
 import org.wso2.carbon.apimgt.gateway.handlers.security.AuthenticationContext;
 import org.wso2.carbon.apimgt.gateway.internal.DataHolder;
 import org.wso2.carbon.apimgt.gateway.internal.ServiceReferenceHolder;
+import org.wso2.carbon.apimgt.gateway.threatprotection.utils.PayloadTeeInputStream;
 import org.wso2.carbon.apimgt.gateway.threatprotection.utils.ThreatProtectorConstants;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.APIManagerConfiguration;
@@ -459,10 +460,12 @@ public class GatewayUtils {
                     byteArrayOutputStream.write(buffer, 0, length);
                 }
                 byteArrayOutputStream.flush();
-                inputStreamSchema = new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
-                inputStreamXml = new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
-                inputStreamOriginal = new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
-                inputStreamJSON = new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
+                // The streams only read the payload, hence they share a single copy of it
+                byte[] payload = byteArrayOutputStream.toByteArray();
+                inputStreamSchema = new ByteArrayInputStream(payload);
+                inputStreamXml = new ByteArrayInputStream(payload);
+                inputStreamOriginal = new ByteArrayInputStream(payload);
+                inputStreamJSON = new ByteArrayInputStream(payload);
             } else {
                 String payload;
                 if (ThreatProtectorConstants.APPLICATION_JSON.equals(contentType)) {
@@ -481,6 +484,52 @@ public class GatewayUtils {
         return inputStreamMap;
     }
 
+    /**
+     * Returns a stream of the request payload in the pass-through pipe which records the bytes read from it, so that
+     * the payload can be analyzed while it is read. Once the analysis is done, the payload has to be set back to the
+     * message using {@link #setRequestPayload(PayloadTeeInputStream, org.apache.axis2.context.MessageContext)}.
+     *
+     * @param messageContext message context of the request
+     * @return stream of the request payload, or null if the pipe has no payload as the message was already built
+     * @throws IOException if the payload could not be read
+     */
+    public static PayloadTeeInputStream getRequestPayloadStream(org.apache.synapse.MessageContext messageContext)
+            throws IOException {
+
+        org.apache.axis2.context.MessageContext axis2MC = ((Axis2MessageContext) messageContext)
+                .getAxis2MessageContext();
+        Pipe pipe = (Pipe) axis2MC.getProperty(PassThroughConstants.PASS_THROUGH_PIPE);
+        if (pipe == null) {
+            return null;
+        }
+        int requestBufferSize = 1024;
+        Object bufferSize = messageContext.getProperty(ThreatProtectorConstants.REQUEST_BUFFER_SIZE);
+        if (bufferSize != null) {
+            requestBufferSize = Integer.parseInt(bufferSize.toString());
+        }
+        BufferedInputStream bufferedInputStream = new BufferedInputStream(pipe.getInputStream(), requestBufferSize);
+        bufferedInputStream.mark(1);
+        if (bufferedInputStream.read() == -1) {
+            return null;
+        }
+        bufferedInputStream.reset();
+        return new PayloadTeeInputStream(bufferedInputStream, requestBufferSize);
+    }
+
+    /**
+     * Sets the request payload, read so far by a threat analyzer and followed by its unread bytes, as the buffered
+     * input stream of the message.
+     *
+     * @param payloadStream stream of the request payload
+     * @param axis2MC       axis2 message context
+     */
+    public static void setRequestPayload(PayloadTeeInputStream payloadStream,
+                                         org.apache.axis2.context.MessageContext axis2MC) {
+
+        axis2MC.setProperty(PassThroughConstants.BUFFERED_INPUT_STREAM,
+                new BufferedInputStream(payloadStream.getPayload()));
+    }
+
     /**
      * This method use to set the originInput stream to the message Context
      *
@@ -0,0 +1,188 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.webhooks;
+
+import com.google.gson.Gson;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpResponse;
+import org.apache.http.util.EntityUtils;
+import org.wso2.carbon.apimgt.gateway.utils.WebhooksUtils;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.dto.WebhooksDeliveryStatusDTO;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists the delivery statuses of webhooks subscriptions in batches. Only the latest status of a subscription is
+ * kept until the next flush, and the pending statuses are sent to the event hub as JSON arrays from a single thread,
+ * instead of sending a request per delivery from the thread which delivered the event.
+ * <p>
+ * Statuses which could not be persisted are kept for the next flush, unless a newer status of the same subscription
+ * was added in the meantime. Once the number of pending statuses reaches its bound, further statuses are persisted by
+ * the caller.
+ */
+public class DeliveryStatusBatchPublisher {
+
+    private static final Log log = LogFactory.getLog(DeliveryStatusBatchPublisher.class);
+    public static final long DEFAULT_FLUSH_INTERVAL = 1000;
+    public static final int DEFAULT_MAX_PENDING_STATUSES = 10000;
+    static final int BATCH_SIZE = 500;
+    private static final int DELIVERY_STATUS_PERSIST_RETRIES = 3;
+
+    private final Map<List<String>, WebhooksDeliveryStatusDTO> pendingStatuses = new ConcurrentHashMap<>();
+    private final int maxPendingStatuses;
+    private ScheduledExecutorService flushExecutor;
+
+    public DeliveryStatusBatchPublisher(int maxPendingStatuses) {
+
+        this.maxPendingStatuses = maxPendingStatuses;
+    }
+
+    /**
+     * Starts persisting the pending statuses once every flush interval.
+     *
+     * @param flushInterval flush interval in milliseconds
+     */
+    public synchronized void start(long flushInterval) {
+
+        if (flushExecutor != null) {
+            return;
+        }
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "DeliveryStatusBatchPublisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.error("Error while persisting webhooks delivery statuses", e);
+            }
+        }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic persistence and persists the pending statuses.
+     */
+    public synchronized void stop() {
+
+        if (flushExecutor != null) {
+            flushExecutor.shutdownNow();
+            flushExecutor = null;
+        }
+        flush();
+    }
+
+    /**
+     * Adds the delivery status of a subscription, replacing its pending status if any.
+     *
+     * @param deliveryStatus delivery status of the subscription
+     */
+    public void addStatus(WebhooksDeliveryStatusDTO deliveryStatus) {
+
+        List<String> key = getKey(deliveryStatus);
+        if (pendingStatuses.size() >= maxPendingStatuses && !pendingStatuses.containsKey(key)) {
+            persistBatch(Collections.singletonList(deliveryStatus));
+        } else {
+            pendingStatuses.put(key, deliveryStatus);
+        }
+    }
+
+    /**
+     * Persists the pending statuses in batches of at most {@link #BATCH_SIZE} statuses.
+     */
+    void flush() {
+
+        List<WebhooksDeliveryStatusDTO> batch = new ArrayList<>();
+        for (List<String> key : pendingStatuses.keySet()) {
+            // Statuses added after the removal are persisted with the next flush
+            WebhooksDeliveryStatusDTO deliveryStatus = pendingStatuses.remove(key);
+            if (deliveryStatus != null) {
+                batch.add(deliveryStatus);
+                if (batch.size() == BATCH_SIZE) {
+                    persistBatch(batch);
+                    batch = new ArrayList<>();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            persistBatch(batch);
+        }
+    }
+
+    int size() {
+
+        return pendingStatuses.size();
+    }
+
+    private void persistBatch(List<WebhooksDeliveryStatusDTO> deliveryStatuses) {
+
+        try {
+            persist(deliveryStatuses);
+        } catch (IOException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.error("Error while persisting " + deliveryStatuses.size() + " webhooks delivery statuses. "
+                    + "Retrying with the next flush.", e);
+            for (WebhooksDeliveryStatusDTO deliveryStatus : deliveryStatuses) {
+                if (pendingStatuses.size() < maxPendingStatuses) {
+                    pendingStatuses.putIfAbsent(getKey(deliveryStatus), deliveryStatus);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends a batch of delivery statuses to the event hub.
+     *
+     * @param deliveryStatuses delivery statuses
+     */
+    protected void persist(List<WebhooksDeliveryStatusDTO> deliveryStatuses) throws IOException,
+            InterruptedException {
+
+        HttpResponse response = WebhooksUtils.persistData(new Gson().toJson(deliveryStatuses),
+                DELIVERY_STATUS_PERSIST_RETRIES, APIConstants.Webhooks.DELIVERY_EVENT_TYPE);
+        if (response != null) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            EntityUtils.consumeQuietly(response.getEntity());
+            if (statusCode >= 300) {
+                log.warn("Event hub responded with status code " + statusCode + " while persisting "
+                        + deliveryStatuses.size() + " webhooks delivery statuses");
+            }
+        }
+    }
+
+    private static List<String> getKey(WebhooksDeliveryStatusDTO deliveryStatus) {
+
+        return Arrays.asList(deliveryStatus.getApiUUID(), deliveryStatus.getAppID(), deliveryStatus.getTenantDomain(),
+                deliveryStatus.getCallback(), deliveryStatus.getTopic());
+    }
+}
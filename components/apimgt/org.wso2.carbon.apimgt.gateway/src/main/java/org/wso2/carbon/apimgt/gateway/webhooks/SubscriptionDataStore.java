@@ -37,7 +37,6 @@ import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -90,15 +89,9 @@ public class SubscriptionDataStore {
      * @param subscriber        the subscriber.
      */
     public void addSubscriber(String key, WebhooksDTO subscriber) {
-        Map<String, WebhooksDTO> subscribersOfAPIMap = subscribersMap.get(key);
-        if (subscribersOfAPIMap != null) {
-            subscribersOfAPIMap.put(subscriber.getCallbackURL(), subscriber);
-            subscribersMap.replace(key, subscribersOfAPIMap);
-        } else {
-            subscribersOfAPIMap = new HashMap<>();
-            subscribersOfAPIMap.put(subscriber.getCallbackURL(), subscriber);
-            subscribersMap.put(key, subscribersOfAPIMap);
-        }
+        // Subscribers of a topic are read by the delivery threads while subscriptions are added and removed
+        subscribersMap.computeIfAbsent(key, k -> new ConcurrentHashMap<>())
+                .put(subscriber.getCallbackURL(), subscriber);
     }
 
     /**
@@ -133,9 +126,7 @@ public class SubscriptionDataStore {
     public void removeSubscriber(String key, WebhooksDTO subscriber) {
         Map<String, WebhooksDTO> existingSubscribers = subscribersMap.get(key);
         if (existingSubscribers != null) {
-            existingSubscribers.values().removeIf(existingSubscriber -> existingSubscriber.getCallbackURL().equals(
-                    subscriber.getCallbackURL()));
-            subscribersMap.replace(key, existingSubscribers);
+            existingSubscribers.remove(subscriber.getCallbackURL());
         }
     }
 
@@ -205,13 +196,11 @@ public class SubscriptionDataStore {
      * @return the subscription list.
      */
     public List<WebhooksDTO> getSubscribers(String api) {
-        Map<String, WebhooksDTO> subscribers = subscribersMap.get(api);
-        if (subscribers != null) {
-            Map<String, WebhooksDTO> existingSubscribers = subscribersMap.get(api);
+        Map<String, WebhooksDTO> existingSubscribers = subscribersMap.get(api);
+        if (existingSubscribers != null) {
             long now = Instant.now().toEpochMilli();
             existingSubscribers.values().removeIf(existingSubscriber -> existingSubscriber.getExpiryTime() != 0 &&
                     existingSubscriber.getExpiryTime() < now);
-            subscribersMap.replace(api, existingSubscribers);
             return new ArrayList<WebhooksDTO>(existingSubscribers.values());
         }
         return null;
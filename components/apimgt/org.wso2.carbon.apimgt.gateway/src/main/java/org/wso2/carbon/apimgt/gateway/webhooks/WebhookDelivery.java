@@ -0,0 +1,67 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.webhooks;
+
+import org.wso2.carbon.apimgt.impl.dto.WebhooksDTO;
+
+/**
+ * An event of a webhooks API to be delivered to the callback URL of a subscriber.
+ */
+public class WebhookDelivery {
+
+    private final WebhooksDTO subscriber;
+    private final String payload;
+    private final String contentType;
+    private final String linkHeader;
+    int attempts;
+
+    /**
+     * @param subscriber  subscriber to deliver the event to
+     * @param payload     payload of the event
+     * @param contentType content type of the payload, or null for JSON
+     * @param linkHeader  value of the Link header pointing to the hub and topic, or null
+     */
+    public WebhookDelivery(WebhooksDTO subscriber, String payload, String contentType, String linkHeader) {
+
+        this.subscriber = subscriber;
+        this.payload = payload;
+        this.contentType = contentType;
+        this.linkHeader = linkHeader;
+    }
+
+    public WebhooksDTO getSubscriber() {
+
+        return subscriber;
+    }
+
+    public String getPayload() {
+
+        return payload;
+    }
+
+    public String getContentType() {
+
+        return contentType;
+    }
+
+    public String getLinkHeader() {
+
+        return linkHeader;
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.webhooks;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Delivers the events of webhooks APIs to the callback URLs of their subscribers. Deliveries to different subscribers
+ * run in parallel on a shared pool of threads, while the deliveries in flight to a single subscriber are bounded.
+ * Deliveries beyond that bound wait in a bounded queue of the subscriber, and are rejected once the queue is full, so
+ * that a slow or unavailable subscriber neither holds all the delivery threads nor grows the memory of the gateway.
+ * <p>
+ * Failed deliveries are retried with an exponential backoff when the callback could not be reached or responded with
+ * a 5xx or 429 status code. A delivery keeps its in-flight slot while it waits for a retry. HTTP clients, and hence
+ * their connection pools, are shared by all the callbacks of a scheme, host and port.
+ */
+public class WebhookDeliveryEngine {
+
+    private static final Log log = LogFactory.getLog(WebhookDeliveryEngine.class);
+    public static final int DEFAULT_THREADS = 20;
+    public static final int DEFAULT_MAX_IN_FLIGHT_PER_SUBSCRIBER = 4;
+    public static final int DEFAULT_MAX_PENDING_PER_SUBSCRIBER = 1000;
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final long DEFAULT_RETRY_INITIAL_DELAY = 1000;
+    public static final long DEFAULT_RETRY_MAX_DELAY = 30000;
+    public static final int DEFAULT_REQUEST_TIMEOUT = 60000;
+    static final String SIGNATURE_HEADER = "X-Hub-Signature";
+    static final String LINK_HEADER = "Link";
+    private static final String SIGNATURE_ALGORITHM = "HmacSHA1";
+    private static final String SIGNATURE_PREFIX = "sha1=";
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+
+    private final Map<String, SubscriberQueue> subscriberQueues = new ConcurrentHashMap<>();
+    private final Map<String, HttpClient> httpClients = new ConcurrentHashMap<>();
+    private final int maxInFlightPerSubscriber;
+    private final int maxPendingPerSubscriber;
+    private final int maxRetries;
+    private final long retryInitialDelay;
+    private final long retryMaxDelay;
+    private final RequestConfig requestConfig;
+    private final Function<URI, HttpClient> httpClientFactory;
+    private final DeliveryListener deliveryListener;
+    private final ExecutorService deliveryExecutor;
+    private final ScheduledExecutorService retryScheduler;
+
+    /**
+     * @param threads                  number of threads delivering events
+     * @param maxInFlightPerSubscriber maximum number of deliveries in flight to a single callback URL
+     * @param maxPendingPerSubscriber  maximum number of deliveries waiting for a single callback URL
+     * @param maxRetries               maximum number of retries of a failed delivery
+     * @param retryInitialDelay        delay before the first retry in milliseconds, doubled for each further retry
+     * @param retryMaxDelay            maximum delay between retries in milliseconds
+     * @param requestTimeout           connect and socket timeout of a delivery in milliseconds
+     * @param httpClientFactory        creates the HTTP client of the scheme, host and port of a callback URL
+     * @param deliveryListener         notified once a delivery succeeded or finally failed
+     */
+    public WebhookDeliveryEngine(int threads, int maxInFlightPerSubscriber, int maxPendingPerSubscriber,
+                                 int maxRetries, long retryInitialDelay, long retryMaxDelay, int requestTimeout,
+                                 Function<URI, HttpClient> httpClientFactory, DeliveryListener deliveryListener) {
+
+        this.maxInFlightPerSubscriber = maxInFlightPerSubscriber;
+        this.maxPendingPerSubscriber = maxPendingPerSubscriber;
+        this.maxRetries = maxRetries;
+        this.retryInitialDelay = retryInitialDelay;
+        this.retryMaxDelay = retryMaxDelay;
+        this.requestConfig = RequestConfig.custom().setConnectTimeout(requestTimeout)
+                .setConnectionRequestTimeout(requestTimeout).setSocketTimeout(requestTimeout).build();
+        this.httpClientFactory = httpClientFactory;
+        this.deliveryListener = deliveryListener;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.deliveryExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "WebhookDeliveryEngine-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "WebhookDeliveryEngine-Retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues an event for delivery to a subscriber.
+     *
+     * @param delivery event and subscriber to deliver it to
+     * @return false if the delivery was rejected as the queue of the subscriber is full
+     */
+    public boolean deliver(WebhookDelivery delivery) {
+
+        String callbackURL = delivery.getSubscriber().getCallbackURL();
+        while (true) {
+            SubscriberQueue subscriberQueue = subscriberQueues.computeIfAbsent(callbackURL, SubscriberQueue::new);
+            synchronized (subscriberQueue) {
+                if (subscriberQueue.removed) {
+                    // The queue was removed by a concurrent completion, hence retry with a new one
+                    continue;
+                }
+                if (subscriberQueue.inFlight < maxInFlightPerSubscriber) {
+                    subscriberQueue.inFlight++;
+                } else if (subscriberQueue.pending.size() < maxPendingPerSubscriber) {
+                    subscriberQueue.pending.add(delivery);
+                    return true;
+                } else {
+                    log.warn("Delivery queue of webhooks subscriber " + callbackURL + " is full. Dropping the "
+                            + "event of topic " + delivery.getSubscriber().getTopicName());
+                    notifyListener(delivery, false);
+                    return false;
+                }
+            }
+            submit(subscriberQueue, delivery);
+            return true;
+        }
+    }
+
+    /**
+     * Stops delivering events. Deliveries which are in flight or waiting are abandoned.
+     */
+    public void shutdown() {
+
+        retryScheduler.shutdownNow();
+        deliveryExecutor.shutdownNow();
+    }
+
+    int getSubscriberQueueCount() {
+
+        return subscriberQueues.size();
+    }
+
+    private void submit(SubscriberQueue subscriberQueue, WebhookDelivery delivery) {
+
+        WebhookDelivery next = delivery;
+        while (next != null) {
+            WebhookDelivery current = next;
+            try {
+                deliveryExecutor.execute(() -> attempt(subscriberQueue, current));
+                return;
+            } catch (RejectedExecutionException e) {
+                // The engine is shutting down, hence the waiting deliveries are failed one after the other
+                notifyListener(current, false);
+                next = release(subscriberQueue);
+            }
+        }
+    }
+
+    private void attempt(SubscriberQueue subscriberQueue, WebhookDelivery delivery) {
+
+        boolean retry;
+        boolean delivered = false;
+        try {
+            int statusCode = send(delivery);
+            delivered = statusCode >= 200 && statusCode < 300;
+            retry = statusCode >= 500 || statusCode == SC_TOO_MANY_REQUESTS;
+            if (!delivered && log.isDebugEnabled()) {
+                log.debug("Webhooks subscriber " + subscriberQueue.callbackURL + " responded with status code "
+                        + statusCode);
+            }
+        } catch (IOException e) {
+            retry = true;
+            if (log.isDebugEnabled()) {
+                log.debug("Error while delivering event to webhooks subscriber " + subscriberQueue.callbackURL, e);
+            }
+        } catch (RuntimeException | GeneralSecurityException e) {
+            retry = false;
+            log.error("Error while delivering event to webhooks subscriber " + subscriberQueue.callbackURL, e);
+        }
+        if (retry && delivery.attempts < maxRetries) {
+            delivery.attempts++;
+            try {
+                retryScheduler.schedule(() -> submit(subscriberQueue, delivery), getRetryDelay(delivery.attempts),
+                        TimeUnit.MILLISECONDS);
+                return;
+            } catch (RejectedExecutionException e) {
+                // The engine is shutting down
+            }
+        }
+        if (!delivered) {
+            log.warn("Failed to deliver event of topic " + delivery.getSubscriber().getTopicName()
+                    + " to webhooks subscriber " + subscriberQueue.callbackURL + " after " + (delivery.attempts + 1)
+                    + " attempts");
+        }
+        complete(subscriberQueue, delivery, delivered);
+    }
+
+    private void complete(SubscriberQueue subscriberQueue, WebhookDelivery delivery, boolean delivered) {
+
+        notifyListener(delivery, delivered);
+        WebhookDelivery next = release(subscriberQueue);
+        if (next != null) {
+            submit(subscriberQueue, next);
+        }
+    }
+
+    /**
+     * Releases the in-flight slot of a completed delivery.
+     *
+     * @param subscriberQueue queue of the subscriber of the completed delivery
+     * @return the waiting delivery which the slot is handed over to, or null if none is waiting
+     */
+    private WebhookDelivery release(SubscriberQueue subscriberQueue) {
+
+        synchronized (subscriberQueue) {
+            WebhookDelivery next = subscriberQueue.pending.poll();
+            if (next == null) {
+                subscriberQueue.inFlight--;
+                if (subscriberQueue.inFlight == 0) {
+                    subscriberQueue.removed = true;
+                    subscriberQueues.remove(subscriberQueue.callbackURL, subscriberQueue);
+                }
+            }
+            return next;
+        }
+    }
+
+    private void notifyListener(WebhookDelivery delivery, boolean delivered) {
+
+        try {
+            deliveryListener.onComplete(delivery, delivered);
+        } catch (RuntimeException e) {
+            log.error("Error while handling the delivery status of webhooks subscriber "
+                    + delivery.getSubscriber().getCallbackURL(), e);
+        }
+    }
+
+    long getRetryDelay(int attempts) {
+
+        long delay = retryInitialDelay;
+        for (int i = 1; i < attempts && delay < retryMaxDelay; i++) {
+            delay *= 2;
+        }
+        return Math.min(delay, retryMaxDelay);
+    }
+
+    /**
+     * Sends an event to the callback URL of its subscriber.
+     *
+     * @param delivery event and subscriber to send it to
+     * @return HTTP status code of the response
+     */
+    protected int send(WebhookDelivery delivery) throws IOException, GeneralSecurityException {
+
+        URI callbackURI = URI.create(delivery.getSubscriber().getCallbackURL());
+        HttpClient httpClient = httpClients.computeIfAbsent(getRouteKey(callbackURI),
+                key -> httpClientFactory.apply(callbackURI));
+        HttpPost httpPost = new HttpPost(callbackURI);
+        httpPost.setConfig(requestConfig);
+        ContentType contentType = StringUtils.isEmpty(delivery.getContentType()) ? ContentType.APPLICATION_JSON
+                : ContentType.parse(delivery.getContentType());
+        httpPost.setEntity(new StringEntity(delivery.getPayload(), contentType));
+        String secret = delivery.getSubscriber().getSecret();
+        if (StringUtils.isNotEmpty(secret)) {
+            httpPost.setHeader(SIGNATURE_HEADER, SIGNATURE_PREFIX + sign(delivery.getPayload(), secret));
+        }
+        if (delivery.getLinkHeader() != null) {
+            httpPost.setHeader(LINK_HEADER, delivery.getLinkHeader());
+        }
+        HttpResponse response = httpClient.execute(httpPost);
+        try {
+            return response.getStatusLine().getStatusCode();
+        } finally {
+            // Releases the connection back to the pool
+            EntityUtils.consumeQuietly(response.getEntity());
+        }
+    }
+
+    private static String getRouteKey(URI uri) {
+
+        return uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+    }
+
+    static String sign(String payload, String secret) throws GeneralSecurityException {
+
+        Mac mac = Mac.getInstance(SIGNATURE_ALGORITHM);
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), SIGNATURE_ALGORITHM));
+        return Hex.encodeHexString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Notified once a delivery succeeded, finally failed or was rejected.
+     */
+    public interface DeliveryListener {
+
+        void onComplete(WebhookDelivery delivery, boolean delivered);
+    }
+
+    /**
+     * Deliveries of a callback URL which are in flight or waiting.
+     */
+    private static class SubscriberQueue {
+
+        private final String callbackURL;
+        private final Deque<WebhookDelivery> pending = new ArrayDeque<>();
+        private int inFlight;
+        private boolean removed;
+
+        SubscriberQueue(String callbackURL) {
+
+            this.callbackURL = callbackURL;
+        }
+    }
+}
@@ -29,6 +29,8 @@ public class WebhooksDataHolder {
     protected Map<String, SubscriptionDataStore> subscriptionStore =
             new ConcurrentHashMap<>();
     private static WebhooksDataHolder instance = new WebhooksDataHolder();
+    private WebhookDeliveryEngine deliveryEngine;
+    private DeliveryStatusBatchPublisher deliveryStatusPublisher;
 
     public static WebhooksDataHolder getInstance() {
 
@@ -54,4 +56,24 @@ public class WebhooksDataHolder {
         return subscriptionStore.get(tenantDomain);
     }
 
+    public WebhookDeliveryEngine getDeliveryEngine() {
+
+        return deliveryEngine;
+    }
+
+    public void setDeliveryEngine(WebhookDeliveryEngine deliveryEngine) {
+
+        this.deliveryEngine = deliveryEngine;
+    }
+
+    public DeliveryStatusBatchPublisher getDeliveryStatusPublisher() {
+
+        return deliveryStatusPublisher;
+    }
+
+    public void setDeliveryStatusPublisher(DeliveryStatusBatchPublisher deliveryStatusPublisher) {
+
+        this.deliveryStatusPublisher = deliveryStatusPublisher;
+    }
+
 }
@@ -0,0 +1,205 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.ArtifactRetriever;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.dto.ArtifactManifestEntryDto;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.dto.RuntimeArtifactDeltaDto;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DeltaSyncArtifactRetrieverTest {
+
+    private Path cacheDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+
+        cacheDirectory = Files.createTempDirectory("runtime-artifacts");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+
+        FileUtils.deleteDirectory(cacheDirectory.toFile());
+    }
+
+    @Test
+    public void testOnlyChangedArtifactsAreRetrieved() throws Exception {
+
+        TestArtifactRetriever server = new TestArtifactRetriever();
+        server.deploy("api1", "1", "artifact1");
+        server.deploy("api2", "1", "artifact2");
+        server.deploy("api3", "1", "artifact3");
+
+        Assert.assertEquals(3, retrieveAll(server, 2).size());
+        Assert.assertEquals(3, server.retrievedApis.size());
+
+        server.retrievedApis.clear();
+        server.deploy("api2", "2", "artifact2-rev2");
+        server.undeploy("api3");
+        List<String> artifacts = retrieveAll(server, 2);
+        Assert.assertEquals(Collections.singletonList("api2"), server.retrievedApis);
+        Assert.assertEquals(2, artifacts.size());
+        Assert.assertTrue(artifacts.contains("artifact1"));
+        Assert.assertTrue(artifacts.contains("artifact2-rev2"));
+
+        server.retrievedApis.clear();
+        artifacts = retrieveAll(server, 10);
+        Assert.assertTrue(server.retrievedApis.isEmpty());
+        Assert.assertEquals(2, artifacts.size());
+    }
+
+    @Test
+    public void testCorruptedArtifactsAreRetrievedAgain() throws Exception {
+
+        TestArtifactRetriever server = new TestArtifactRetriever();
+        server.deploy("api1", "1", "artifact1");
+        server.deploy("api2", "1", "artifact2");
+        retrieveAll(server, 10);
+
+        File[] files = cacheDirectory.resolve("carbon.super").resolve("label").toFile().listFiles();
+        Assert.assertNotNull(files);
+        for (File file : files) {
+            if (!"manifest.json".equals(file.getName())) {
+                Files.write(file.toPath(), "[\"tampered\"]".getBytes());
+            }
+        }
+        server.retrievedApis.clear();
+        List<String> artifacts = retrieveAll(server, 10);
+        Assert.assertEquals(2, server.retrievedApis.size());
+        Assert.assertEquals(2, artifacts.size());
+        Assert.assertFalse(artifacts.contains("tampered"));
+    }
+
+    @Test
+    public void testFallbackToFullRetrieval() throws Exception {
+
+        TestArtifactRetriever server = new TestArtifactRetriever();
+        server.deploy("api1", "1", "artifact1");
+        server.deltaSupported = false;
+        Assert.assertEquals(Collections.singletonList("artifact1"), retrieveAll(server, 10));
+        Assert.assertFalse(Files.exists(cacheDirectory.resolve("carbon.super")));
+    }
+
+    private List<String> retrieveAll(TestArtifactRetriever server, int pageSize) throws Exception {
+
+        List<String> artifacts = new ArrayList<>();
+        new DeltaSyncArtifactRetriever(server, cacheDirectory).retrieveAllArtifacts("label", "carbon.super",
+                pageSize, page -> {
+                    Assert.assertTrue(page.size() <= pageSize);
+                    artifacts.addAll(page);
+                });
+        return artifacts;
+    }
+
+    private static class TestArtifactRetriever implements ArtifactRetriever {
+
+        private final Map<String, ArtifactManifestEntryDto> deployed = new LinkedHashMap<>();
+        private final List<String> retrievedApis = new ArrayList<>();
+        private boolean deltaSupported = true;
+
+        private void deploy(String apiId, String revisionId, String artifact) {
+
+            ArtifactManifestEntryDto entry = new ArtifactManifestEntryDto(apiId, revisionId, apiId + revisionId);
+            entry.setArtifacts(Collections.singletonList(artifact));
+            deployed.put(apiId, entry);
+        }
+
+        private void undeploy(String apiId) {
+
+            deployed.remove(apiId);
+        }
+
+        @Override
+        public RuntimeArtifactDeltaDto retrieveArtifactDelta(String gatewayLabel, String tenantDomain,
+                                                             List<ArtifactManifestEntryDto> manifest) {
+
+            if (!deltaSupported) {
+                return null;
+            }
+            Map<String, String> hashes = new LinkedHashMap<>();
+            for (ArtifactManifestEntryDto entry : manifest) {
+                hashes.put(entry.getApiId(), entry.getHash());
+            }
+            RuntimeArtifactDeltaDto delta = new RuntimeArtifactDeltaDto();
+            for (ArtifactManifestEntryDto entry : deployed.values()) {
+                if (entry.getHash().equals(hashes.remove(entry.getApiId()))) {
+                    delta.getUnchanged().add(entry.getApiId());
+                } else {
+                    delta.getList().add(entry);
+                    retrievedApis.add(entry.getApiId());
+                }
+            }
+            delta.getRemoved().addAll(hashes.keySet());
+            return delta;
+        }
+
+        @Override
+        public List<String> retrieveAllArtifacts(String gatewayLabel, String tenantDomain) {
+
+            List<String> artifacts = new ArrayList<>();
+            for (ArtifactManifestEntryDto entry : deployed.values()) {
+                artifacts.addAll(entry.getArtifacts());
+            }
+            return artifacts;
+        }
+
+        @Override
+        public void init() {
+
+        }
+
+        @Override
+        public String retrieveArtifact(String APIId, String gatewayLabel) {
+
+            return null;
+        }
+
+        @Override
+        public Map<String, String> retrieveAttributes(String apiName, String version, String tenantDomain) {
+
+            return null;
+        }
+
+        @Override
+        public void disconnect() {
+
+        }
+
+        @Override
+        public String getName() {
+
+            return "test";
+        }
+    }
+}
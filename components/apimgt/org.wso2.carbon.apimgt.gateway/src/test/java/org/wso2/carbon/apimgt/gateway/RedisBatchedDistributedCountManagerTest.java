@@ -0,0 +1,260 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class RedisBatchedDistributedCountManagerTest {
+
+    private static final long FLUSH_INTERVAL = 60000L;
+
+    @Test
+    public void testIncrementsAreCoalesced() {
+
+        InMemoryCounterStore redis = new InMemoryCounterStore();
+        RedisBatchedDistributedCountManager counterManager = createCounterManager(redis, FLUSH_INTERVAL, 0);
+
+        // The first access of a key is flushed to read the current value
+        redis.values.put("counter", 10L);
+        Assert.assertEquals(11, counterManager.addAndGetCounter("counter", 1));
+        Assert.assertEquals(1, redis.applyCount);
+        for (int i = 0; i < 5; i++) {
+            counterManager.addAndGetCounter("counter", 1);
+        }
+        counterManager.setTimestamp("timestamp", 1000L);
+        counterManager.setExpiry("counter", Long.MAX_VALUE);
+        Assert.assertEquals(16, counterManager.getCounter("counter"));
+        Assert.assertEquals(1000L, counterManager.getTimestamp("timestamp"));
+        Assert.assertEquals(11L, (long) redis.values.get("counter"));
+        Assert.assertEquals(1, redis.applyCount);
+
+        counterManager.flush();
+        Assert.assertEquals(2, redis.applyCount);
+        Assert.assertEquals(2, redis.lastFlushSize);
+        Assert.assertEquals(16L, (long) redis.values.get("counter"));
+        Assert.assertEquals(1000L, (long) redis.values.get("timestamp"));
+        Assert.assertEquals(Long.MAX_VALUE, (long) redis.expiryTimes.get("counter"));
+
+        // Increments of other gateways are picked on the next flush
+        redis.values.put("counter", 20L);
+        counterManager.addAndGetCounter("counter", 1);
+        counterManager.flush();
+        Assert.assertEquals(21, counterManager.getCounter("counter"));
+        Assert.assertEquals(3, redis.applyCount);
+    }
+
+    @Test
+    public void testMaxPendingIncrements() {
+
+        InMemoryCounterStore redis = new InMemoryCounterStore();
+        RedisBatchedDistributedCountManager counterManager = createCounterManager(redis, FLUSH_INTERVAL, 3);
+
+        counterManager.addAndGetCounter("counter", 1);
+        counterManager.addAndGetCounter("counter", 1);
+        counterManager.addAndGetCounter("counter", 1);
+        Assert.assertEquals(1, redis.applyCount);
+        Assert.assertEquals(4, counterManager.addAndGetCounter("counter", 1));
+        Assert.assertEquals(2, redis.applyCount);
+        Assert.assertEquals(4L, (long) redis.values.get("counter"));
+    }
+
+    @Test
+    public void testFailedFlushIsRetried() {
+
+        InMemoryCounterStore redis = new InMemoryCounterStore();
+        RedisBatchedDistributedCountManager counterManager = createCounterManager(redis, FLUSH_INTERVAL, 0);
+
+        counterManager.addAndGetCounter("counter", 1);
+        counterManager.setCounter("counter", 5);
+        counterManager.addAndGetCounter("counter", 2);
+        redis.failures = 1;
+        counterManager.flush();
+        Assert.assertEquals(1, counterManager.getFailedFlushCount());
+        Assert.assertEquals(7, counterManager.getCounter("counter"));
+
+        counterManager.flush();
+        Assert.assertEquals(7L, (long) redis.values.get("counter"));
+        Assert.assertEquals(7, counterManager.getCounter("counter"));
+
+        counterManager.removeCounter("counter");
+        Assert.assertFalse(redis.values.containsKey("counter"));
+        Assert.assertEquals(0, counterManager.getCounter("counter"));
+    }
+
+    @Test
+    public void testUpdatesAreNotBatchedWithoutFlushInterval() {
+
+        InMemoryCounterStore redis = new InMemoryCounterStore();
+        RedisBatchedDistributedCountManager counterManager = createCounterManager(redis, 0, 0);
+
+        Assert.assertEquals(0, counterManager.asyncGetAndAddCounter("counter", 2));
+        Assert.assertEquals(2L, (long) redis.values.get("counter"));
+        counterManager.setTimestamp("timestamp", 1000L);
+        Assert.assertEquals(1000L, (long) redis.values.get("timestamp"));
+        Assert.assertEquals(2, counterManager.asyncGetAndAlterCounter("counter", 0));
+        Assert.assertEquals(0L, (long) redis.values.get("counter"));
+    }
+
+    @Test
+    public void testFlushOfKeyDoesNotWaitForOtherKeys() throws Exception {
+
+        InMemoryCounterStore redis = new InMemoryCounterStore();
+        RedisBatchedDistributedCountManager counterManager = createCounterManager(redis, FLUSH_INTERVAL, 0);
+        redis.blockedKey = "slow";
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<Long> slowIncrement = executorService.submit(() -> counterManager.addAndGetCounter("slow", 1));
+            Assert.assertTrue(redis.blockedApplyStarted.await(10, TimeUnit.SECONDS));
+
+            Assert.assertEquals(1, counterManager.addAndGetCounter("fast", 1));
+            counterManager.removeCounter("fast");
+            Assert.assertFalse(redis.values.containsKey("fast"));
+            Assert.assertFalse(slowIncrement.isDone());
+
+            redis.blockedApplyReleased.countDown();
+            Assert.assertEquals(1L, (long) slowIncrement.get(10, TimeUnit.SECONDS));
+        } finally {
+            redis.blockedApplyReleased.countDown();
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRemovalWaitsForFlushOfKey() throws Exception {
+
+        InMemoryCounterStore redis = new InMemoryCounterStore();
+        RedisBatchedDistributedCountManager counterManager = createCounterManager(redis, FLUSH_INTERVAL, 0);
+        counterManager.addAndGetCounter("counter", 1);
+        counterManager.addAndGetCounter("counter", 1);
+        redis.blockedKey = "counter";
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> flush = executorService.submit(counterManager::flush);
+            Assert.assertTrue(redis.blockedApplyStarted.await(10, TimeUnit.SECONDS));
+            Future<?> removal = executorService.submit(() -> counterManager.removeCounter("counter"));
+            try {
+                removal.get(200, TimeUnit.MILLISECONDS);
+                Assert.fail("Removal did not wait for the flush of the key");
+            } catch (TimeoutException e) {
+                // Expected, the key is being flushed
+            }
+
+            redis.blockedApplyReleased.countDown();
+            flush.get(10, TimeUnit.SECONDS);
+            removal.get(10, TimeUnit.SECONDS);
+            Assert.assertFalse(redis.values.containsKey("counter"));
+            Assert.assertEquals(0, counterManager.getCounter("counter"));
+            Assert.assertEquals(1, counterManager.addAndGetCounter("counter", 1));
+        } finally {
+            redis.blockedApplyReleased.countDown();
+            executorService.shutdownNow();
+        }
+    }
+
+    private RedisBatchedDistributedCountManager createCounterManager(InMemoryCounterStore redis, long flushInterval,
+                                                                     int maxPendingIncrements) {
+
+        return new RedisBatchedDistributedCountManager(redis, flushInterval, maxPendingIncrements) {
+
+            @Override
+            protected void updateFlushMetrics(int flushSize, long flushLag) {
+
+                redis.lastFlushSize = flushSize;
+            }
+        };
+    }
+
+    /**
+     * Stand-in for Redis which applies the updates the same way as the Lua script of the counter manager.
+     */
+    private static class InMemoryCounterStore implements RedisBatchedDistributedCountManager.CounterStore {
+
+        private final Map<String, Long> values = new HashMap<>();
+        private final Map<String, Long> expiryTimes = new HashMap<>();
+        private int applyCount;
+        private int lastFlushSize;
+        private int failures;
+        private volatile String blockedKey;
+        private final CountDownLatch blockedApplyStarted = new CountDownLatch(1);
+        private final CountDownLatch blockedApplyReleased = new CountDownLatch(1);
+
+        @Override
+        public List<Long> apply(List<String> keys, List<String> args) {
+
+            if (keys.contains(blockedKey)) {
+                // Simulates a slow round trip, without holding the monitor of the store
+                blockedApplyStarted.countDown();
+                try {
+                    blockedApplyReleased.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return applyUpdates(keys, args);
+        }
+
+        private synchronized List<Long> applyUpdates(List<String> keys, List<String> args) {
+
+            if (failures > 0) {
+                failures--;
+                throw new IllegalStateException("Connection refused");
+            }
+            applyCount++;
+            List<Long> result = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                String key = keys.get(i);
+                String set = args.get(i * 3);
+                long delta = Long.parseLong(args.get(i * 3 + 1));
+                String expiry = args.get(i * 3 + 2);
+                if (!set.isEmpty()) {
+                    values.put(key, Long.parseLong(set));
+                    expiryTimes.remove(key);
+                }
+                long value = values.getOrDefault(key, 0L) + delta;
+                if (delta != 0) {
+                    values.put(key, value);
+                }
+                if (!expiry.isEmpty()) {
+                    expiryTimes.put(key, Long.parseLong(expiry));
+                }
+                result.add(value);
+            }
+            return result;
+        }
+
+        @Override
+        public synchronized void delete(String key) {
+
+            values.remove(key);
+            expiryTimes.remove(key);
+        }
+    }
+}
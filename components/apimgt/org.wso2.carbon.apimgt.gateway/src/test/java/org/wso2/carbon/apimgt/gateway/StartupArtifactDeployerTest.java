@@ -0,0 +1,206 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway;
+
+import com.google.gson.Gson;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.api.gateway.GatewayAPIDTO;
+import org.wso2.carbon.apimgt.api.gateway.GatewayContentDTO;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.ArtifactRetriever;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.exception.ArtifactSynchronizerException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+public class StartupArtifactDeployerTest {
+
+    @Test
+    public void testDeployAllArtifacts() throws Exception {
+
+        List<String> artifacts = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            artifacts.add(artifact("api" + i, "endpoint" + i));
+        }
+        List<String> deployed = Collections.synchronizedList(new ArrayList<>());
+        StartupArtifactDeployer deployer = new StartupArtifactDeployer("carbon.super", 4, 8,
+                gatewayAPIDTO -> deployed.add(gatewayAPIDTO.getApiId()));
+        Assert.assertTrue(deployer.deploy(new TestArtifactRetriever(artifacts), "label"));
+        Assert.assertEquals(50, deployer.getRetrievedCount());
+        Assert.assertEquals(50, deployer.getDeployedCount());
+        Assert.assertEquals(0, deployer.getFailedCount());
+        Assert.assertEquals(50, deployed.size());
+    }
+
+    @Test
+    public void testSharedArtifactsAreDeployedInOrder() throws Exception {
+
+        List<String> artifacts = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            artifacts.add(artifact("api" + i, "shared" + (i % 3)));
+        }
+        Map<String, List<String>> deploymentsByEndpoint = new ConcurrentHashMap<>();
+        StartupArtifactDeployer deployer = new StartupArtifactDeployer("carbon.super", 4, 5, gatewayAPIDTO -> {
+            Thread.sleep(1);
+            String endpoint = gatewayAPIDTO.getEndpointEntriesToBeAdd()[0].getName();
+            deploymentsByEndpoint.computeIfAbsent(endpoint, key -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(gatewayAPIDTO.getApiId());
+        });
+        Assert.assertTrue(deployer.deploy(new TestArtifactRetriever(artifacts), "label"));
+        for (int shared = 0; shared < 3; shared++) {
+            List<String> expected = new ArrayList<>();
+            for (int i = shared; i < 40; i += 3) {
+                expected.add("api" + i);
+            }
+            Assert.assertEquals(expected, deploymentsByEndpoint.get("shared" + shared));
+        }
+    }
+
+    @Test
+    public void testFailedDeployments() throws Exception {
+
+        List<String> artifacts = new ArrayList<>();
+        artifacts.add(artifact("api1", "endpoint1"));
+        artifacts.add("{invalid");
+        artifacts.add(artifact("api2", "endpoint2"));
+        StartupArtifactDeployer deployer = new StartupArtifactDeployer("carbon.super", 2, 2, gatewayAPIDTO -> {
+            if ("api1".equals(gatewayAPIDTO.getApiId())) {
+                throw new IllegalStateException("Deployment failed");
+            }
+        });
+        Assert.assertTrue(deployer.deploy(new TestArtifactRetriever(artifacts), "label"));
+        Assert.assertEquals(1, deployer.getDeployedCount());
+        Assert.assertEquals(2, deployer.getFailedCount());
+
+        deployer = new StartupArtifactDeployer("carbon.super", 2, 2, gatewayAPIDTO -> {
+            throw new IllegalStateException("Deployment failed");
+        });
+        Assert.assertFalse(deployer.deploy(new TestArtifactRetriever(artifacts), "label"));
+    }
+
+    @Test
+    public void testNoArtifacts() throws Exception {
+
+        StartupArtifactDeployer deployer = new StartupArtifactDeployer("carbon.super", 2, 2, gatewayAPIDTO -> {
+            throw new IllegalStateException("Nothing should be deployed");
+        });
+        Assert.assertTrue(deployer.deploy(new TestArtifactRetriever(Collections.emptyList()), "label"));
+        Assert.assertEquals(0, deployer.getRetrievedCount());
+    }
+
+    @Test
+    public void testDeploymentsInProgressCompleteWhenRetrievalFails() throws Exception {
+
+        List<String> artifacts = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            artifacts.add(artifact("api" + i, "endpoint" + i));
+        }
+        AtomicInteger inProgress = new AtomicInteger();
+        AtomicInteger interrupted = new AtomicInteger();
+        StartupArtifactDeployer deployer = new StartupArtifactDeployer("carbon.super", 2, 4, gatewayAPIDTO -> {
+            inProgress.incrementAndGet();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+            } finally {
+                inProgress.decrementAndGet();
+            }
+        });
+        ArtifactRetriever failingRetriever = new TestArtifactRetriever(artifacts) {
+
+            @Override
+            public void retrieveAllArtifacts(String gatewayLabel, String tenantDomain, int pageSize,
+                                             Consumer<List<String>> pageConsumer)
+                    throws ArtifactSynchronizerException {
+
+                pageConsumer.accept(artifacts);
+                throw new ArtifactSynchronizerException("Retrieval failed");
+            }
+        };
+        try {
+            deployer.deploy(failingRetriever, "label");
+            Assert.fail("Failure of the retrieval was not reported");
+        } catch (ArtifactSynchronizerException e) {
+            Assert.assertEquals(0, inProgress.get());
+            Assert.assertEquals(0, interrupted.get());
+        }
+    }
+
+    private String artifact(String apiId, String endpoint) {
+
+        GatewayAPIDTO gatewayAPIDTO = new GatewayAPIDTO();
+        gatewayAPIDTO.setApiId(apiId);
+        gatewayAPIDTO.setName(apiId);
+        GatewayContentDTO endpointEntry = new GatewayContentDTO();
+        endpointEntry.setName(endpoint);
+        gatewayAPIDTO.setEndpointEntriesToBeAdd(new GatewayContentDTO[]{endpointEntry});
+        return new Gson().toJson(gatewayAPIDTO);
+    }
+
+    private static class TestArtifactRetriever implements ArtifactRetriever {
+
+        private final List<String> artifacts;
+
+        private TestArtifactRetriever(List<String> artifacts) {
+
+            this.artifacts = artifacts;
+        }
+
+        @Override
+        public void init() {
+
+        }
+
+        @Override
+        public String retrieveArtifact(String APIId, String gatewayLabel) {
+
+            return null;
+        }
+
+        @Override
+        public Map<String, String> retrieveAttributes(String apiName, String version, String tenantDomain) {
+
+            return null;
+        }
+
+        @Override
+        public List<String> retrieveAllArtifacts(String gatewayLabel, String tenantDomain)
+                throws ArtifactSynchronizerException {
+
+            return artifacts;
+        }
+
+        @Override
+        public void disconnect() {
+
+        }
+
+        @Override
+        public String getName() {
+
+            return "test";
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.handlers.security;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.impl.dto.APIInfoDTO;
+import org.wso2.carbon.apimgt.impl.dto.ResourceInfoDTO;
+import org.wso2.carbon.apimgt.impl.dto.VerbInfoDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+public class APIResourceTrieTest {
+
+    @Test
+    public void testMatchResource() {
+
+        APIResourceTrie trie = new APIResourceTrie(createAPIInfo("/menu", "/menu/{id}", "/order/*", "/*"),
+                "/pizzashack", "1.0.0");
+
+        List<APIResourceTrie.Match> matches = trie.match(Collections.singletonList("/menu/{id}"), "GET");
+        Assert.assertEquals(1, matches.size());
+        Assert.assertEquals("/pizzashack/1.0.0/menu/{id}:GET", matches.get(0).getRequestKey());
+        Assert.assertEquals("GET", matches.get(0).getVerbInfoDTO().getHttpVerb());
+
+        Assert.assertEquals(1, trie.match(Collections.singletonList("/order/*"), "POST").size());
+        Assert.assertEquals(1, trie.match(Collections.singletonList("/*"), "GET").size());
+        Assert.assertTrue(trie.match(Collections.singletonList("/menu/{name}"), "GET").isEmpty());
+        Assert.assertTrue(trie.match(Collections.singletonList("/menu/1"), "GET").isEmpty());
+        Assert.assertTrue(trie.match(Collections.singletonList("/menu"), "PATCH").isEmpty());
+        Assert.assertTrue(trie.match(Collections.singletonList("/order"), "GET").isEmpty());
+    }
+
+    @Test
+    public void testMatchIgnoresCaseAndTrailingSlash() {
+
+        APIResourceTrie trie = new APIResourceTrie(createAPIInfo("/Menu/", "/order"), "/pizzashack", "1.0.0");
+
+        List<APIResourceTrie.Match> matches = trie.match(Collections.singletonList("/menu"), "GET");
+        Assert.assertEquals(1, matches.size());
+        Assert.assertEquals("/pizzashack/1.0.0/menu:GET", matches.get(0).getRequestKey());
+        Assert.assertEquals(1, trie.match(Collections.singletonList(" /MENU/ "), "GET").size());
+        Assert.assertTrue(trie.match(Collections.singletonList("/order/"), "GET").isEmpty());
+    }
+
+    @Test
+    public void testMatchesAreInResourceOrder() {
+
+        APIResourceTrie trie = new APIResourceTrie(createAPIInfo("hero", "droid", "human"), "/starwars", "1.0.0");
+
+        List<APIResourceTrie.Match> matches = trie.match(Arrays.asList("human", "hero", "unknown"), "QUERY");
+        Assert.assertEquals(2, matches.size());
+        Assert.assertEquals("/starwars/1.0.0hero:QUERY", matches.get(0).getRequestKey());
+        Assert.assertEquals("/starwars/1.0.0human:QUERY", matches.get(1).getRequestKey());
+    }
+
+    @Test
+    public void testMatchesOfSingleResourceAreInResourceOrder() {
+
+        APIInfoDTO apiInfoDTO = createAPIInfo("/menu/", "/menu");
+        APIResourceTrie trie = new APIResourceTrie(apiInfoDTO, "/pizzashack", "1.0.0");
+        List<ResourceInfoDTO> resources = new ArrayList<>(apiInfoDTO.getResources());
+
+        List<APIResourceTrie.Match> matches = trie.match(Collections.singletonList("/menu"), "GET");
+        Assert.assertEquals(2, matches.size());
+        Assert.assertSame(resources.get(0).getHttpVerbs().iterator().next(), matches.get(0).getVerbInfoDTO());
+        Assert.assertSame(resources.get(1).getHttpVerbs().iterator().next(), matches.get(1).getVerbInfoDTO());
+    }
+
+    @Test
+    public void testEmptyAPI() {
+
+        APIInfoDTO apiInfoDTO = new APIInfoDTO();
+        APIResourceTrie trie = new APIResourceTrie(apiInfoDTO, "/pizzashack", "1.0.0");
+        Assert.assertTrue(trie.isFor("/pizzashack", "1.0.0"));
+        Assert.assertFalse(trie.isFor("/pizzashack", "2.0.0"));
+        Assert.assertTrue(trie.match(Collections.singletonList("/menu"), "GET").isEmpty());
+    }
+
+    @Test
+    public void testTrieIsBuiltFromSameAPIInfoInstanceOnly() {
+
+        APIInfoDTO apiInfoDTO = createAPIInfo("/menu");
+        APIResourceTrie trie = new APIResourceTrie(apiInfoDTO, "/pizzashack", "1.0.0");
+        Assert.assertTrue(trie.isBuiltFrom(apiInfoDTO));
+        Assert.assertFalse(trie.isBuiltFrom(createAPIInfo("/menu")));
+        Assert.assertFalse(trie.isBuiltFrom(null));
+    }
+
+    private APIInfoDTO createAPIInfo(String... urlPatterns) {
+
+        APIInfoDTO apiInfoDTO = new APIInfoDTO();
+        apiInfoDTO.setResources(new LinkedHashSet<>());
+        for (String urlPattern : urlPatterns) {
+            ResourceInfoDTO resourceInfoDTO = new ResourceInfoDTO();
+            resourceInfoDTO.setUrlPattern(urlPattern);
+            resourceInfoDTO.setHttpVerbs(new LinkedHashSet<>());
+            List<String> httpVerbs = new ArrayList<>(Arrays.asList("GET", "POST", "QUERY"));
+            for (String httpVerb : httpVerbs) {
+                VerbInfoDTO verbInfoDTO = new VerbInfoDTO();
+                verbInfoDTO.setHttpVerb(httpVerb);
+                resourceInfoDTO.getHttpVerbs().add(verbInfoDTO);
+            }
+            apiInfoDTO.getResources().add(resourceInfoDTO);
+        }
+        return apiInfoDTO;
+    }
+}
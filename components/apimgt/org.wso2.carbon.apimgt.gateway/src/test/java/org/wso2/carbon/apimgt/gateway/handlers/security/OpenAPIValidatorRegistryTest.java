@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.handlers.security;
+
+import com.atlassian.oai.validator.OpenApiInteractionValidator;
+import io.swagger.v3.oas.models.OpenAPI;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+public class OpenAPIValidatorRegistryTest {
+
+    private static final String API_UUID = "7c5e4b3a-0f6d-4c1e-9a2b-3d8f6e1a5b90";
+
+    @After
+    public void cleanup() {
+
+        OpenAPIValidatorRegistry.getInstance().undeploy(API_UUID);
+    }
+
+    @Test
+    public void testValidatorIsBuiltAtDeployment() throws IOException {
+
+        OpenAPIValidatorRegistry registry = OpenAPIValidatorRegistry.getInstance();
+        String definition = readDefinition("swaggerEntry/openapi.json");
+        registry.deploy(API_UUID, definition);
+
+        OpenAPI openAPI = registry.getOpenAPI(API_UUID);
+        Assert.assertNotNull(openAPI);
+        Assert.assertEquals(definition, registry.getDefinition(API_UUID));
+        OpenApiInteractionValidator validator = registry.getValidator(API_UUID, openAPI);
+        Assert.assertNotNull(validator);
+        Assert.assertSame(validator, registry.getValidator(API_UUID, openAPI));
+
+        registry.undeploy(API_UUID);
+        Assert.assertNull(registry.getOpenAPI(API_UUID));
+        Assert.assertNull(registry.getDefinition(API_UUID));
+    }
+
+    @Test
+    public void testValidatorIsRebuiltForRedeployedDefinition() throws IOException {
+
+        OpenAPIValidatorRegistry registry = OpenAPIValidatorRegistry.getInstance();
+        OpenAPI openAPI = OpenAPIValidatorRegistry.parseOpenAPI(readDefinition("swaggerEntry/openapi.json"));
+        OpenApiInteractionValidator validator = registry.getValidator(API_UUID, openAPI);
+        Assert.assertSame(validator, registry.getValidator(API_UUID, openAPI));
+
+        OpenAPI redeployedOpenAPI = OpenAPIValidatorRegistry.parseOpenAPI(
+                readDefinition("swaggerEntry/openapi.yaml"));
+        OpenApiInteractionValidator redeployedValidator = registry.getValidator(API_UUID, redeployedOpenAPI);
+        Assert.assertNotSame(validator, redeployedValidator);
+        Assert.assertSame(redeployedValidator, registry.getValidator(API_UUID, redeployedOpenAPI));
+    }
+
+    private String readDefinition(String path) throws IOException {
+
+        File file = new File(Thread.currentThread().getContextClassLoader().getResource(path).getFile());
+        return FileUtils.readFileToString(file);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.handlers.streaming.sse;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.wso2.carbon.apimgt.gateway.handlers.security.AuthenticationContext;
+import org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.analytics.SseAnalyticsDataSnapshot;
+import org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.analytics.SseResponseEventDataProvider;
+import org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.throttling.ThrottleInfo;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class SseEventProcessorTest {
+
+    private final Map<String, Long> publishedThrottleEvents = new HashMap<>();
+    private final Map<String, Integer> publishedAnalyticsEvents = new HashMap<>();
+    private final SseEventProcessor eventProcessor = new SseEventProcessor(2) {
+        @Override
+        protected void publishThrottleEvents(ThrottleInfo throttleInfo, long eventCount) {
+            publishedThrottleEvents.merge(throttleInfo.getApplicationLevelThrottleKey(), eventCount, Long::sum);
+        }
+
+        @Override
+        protected void publishAnalyticsEvents(SseAnalyticsDataSnapshot analyticsData, int eventCount) {
+            publishedAnalyticsEvents.merge(analyticsData.getUserName(), eventCount, Integer::sum);
+        }
+    };
+
+    @Test
+    public void testEventsArePublishedPerThrottleKey() {
+
+        SseResponseEventDataProvider firstStream = createAnalyticsDataProvider("first");
+        SseResponseEventDataProvider secondStream = createAnalyticsDataProvider("second");
+        eventProcessor.addEvents(createThrottleInfo("1"), firstStream, 2);
+        eventProcessor.addEvents(createThrottleInfo("1"), firstStream, 3);
+        eventProcessor.addEvents(createThrottleInfo("1"), secondStream, 1);
+        eventProcessor.addEvents(createThrottleInfo("2"), null, 4);
+        Assert.assertTrue(publishedThrottleEvents.isEmpty());
+        Assert.assertTrue(publishedAnalyticsEvents.isEmpty());
+
+        eventProcessor.flush();
+        Assert.assertEquals(2, publishedThrottleEvents.size());
+        Assert.assertEquals(6, publishedThrottleEvents.get("1:admin@carbon.super").longValue());
+        Assert.assertEquals(4, publishedThrottleEvents.get("2:admin@carbon.super").longValue());
+        Assert.assertEquals(5, publishedAnalyticsEvents.get("first").intValue());
+        Assert.assertEquals(1, publishedAnalyticsEvents.get("second").intValue());
+
+        publishedThrottleEvents.clear();
+        eventProcessor.flush();
+        Assert.assertTrue(publishedThrottleEvents.isEmpty());
+    }
+
+    @Test
+    public void testEventsArePublishedByCallerWhenMaxPendingKeysIsReached() {
+
+        eventProcessor.addEvents(createThrottleInfo("1"), null, 1);
+        eventProcessor.addEvents(createThrottleInfo("2"), null, 1);
+        eventProcessor.addEvents(createThrottleInfo("3"), null, 5);
+        Assert.assertEquals(1, publishedThrottleEvents.size());
+        Assert.assertEquals(5, publishedThrottleEvents.get("3:admin@carbon.super").longValue());
+
+        eventProcessor.stop();
+        Assert.assertEquals(3, publishedThrottleEvents.size());
+    }
+
+    @Test
+    public void testAnalyticsDataIsReadWhenEventsAreAdded() {
+
+        SseResponseEventDataProvider stream = createAnalyticsDataProvider("first");
+        eventProcessor.addEvents(createThrottleInfo("1"), stream, 2);
+        Mockito.when(stream.getUserName()).thenReturn("second");
+        eventProcessor.addEvents(createThrottleInfo("1"), stream, 1);
+
+        eventProcessor.flush();
+        Assert.assertEquals(1, publishedAnalyticsEvents.size());
+        Assert.assertEquals(3, publishedAnalyticsEvents.get("first").intValue());
+    }
+
+    private static ThrottleInfo createThrottleInfo(String applicationId) {
+
+        AuthenticationContext authenticationContext = new AuthenticationContext();
+        authenticationContext.setApiName("SseApi");
+        authenticationContext.setApplicationId(applicationId);
+        authenticationContext.setApplicationTier("Unlimited");
+        authenticationContext.setTier("Unlimited");
+        authenticationContext.setSubscriber("admin");
+        authenticationContext.setSubscriberTenantDomain("carbon.super");
+        return new ThrottleInfo(authenticationContext, "/sse", "1.0.0", "/sse/1.0.0/events:GET", "Unlimited",
+                "127.0.0.1");
+    }
+
+    private static SseResponseEventDataProvider createAnalyticsDataProvider(String userName) {
+
+        SseResponseEventDataProvider analyticsDataProvider = Mockito.mock(SseResponseEventDataProvider.class);
+        Mockito.when(analyticsDataProvider.getUserName()).thenReturn(userName);
+        return analyticsDataProvider;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class SseEventParserTest {
+
+    @Test
+    public void testEventsAreCounted() {
+
+        SseEventParser parser = new SseEventParser();
+        ByteBuffer buffer = toBuffer("data: first\n\nid: 2\ndata: second\n\n: comment\n\ndata: incomplete\n");
+        int position = buffer.position();
+        Assert.assertEquals(3, parser.countEvents(buffer));
+        Assert.assertEquals(position, buffer.position());
+    }
+
+    @Test
+    public void testEventBoundarySplitAcrossChunks() {
+
+        SseEventParser parser = new SseEventParser();
+        Assert.assertEquals(0, parser.countEvents(toBuffer("data: first\n")));
+        Assert.assertEquals(1, parser.countEvents(toBuffer("\ndata: sec")));
+        Assert.assertEquals(0, parser.countEvents(toBuffer("ond\r")));
+        Assert.assertEquals(1, parser.countEvents(toBuffer("\n\r\n")));
+    }
+
+    @Test
+    public void testLineEndings() {
+
+        Assert.assertEquals(3, new SseEventParser().countEvents(toBuffer("data: a\r\n\r\ndata: b\r\rdata: c\n\n")));
+        // Empty events are not dispatched to clients
+        Assert.assertEquals(0, new SseEventParser().countEvents(toBuffer("\n\n\r\n\r\n")));
+        Assert.assertEquals(1, new SseEventParser().countEvents(toBuffer("data: a\n\n\n\n")));
+    }
+
+    private static ByteBuffer toBuffer(String text) {
+
+        byte[] bytes = ("prefix" + text).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.position("prefix".length());
+        return buffer;
+    }
+}
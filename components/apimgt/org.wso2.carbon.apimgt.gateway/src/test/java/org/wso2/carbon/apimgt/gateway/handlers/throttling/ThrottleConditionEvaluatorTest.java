@@ -33,6 +33,8 @@ import org.wso2.carbon.apimgt.impl.dto.ThrottleProperties;
 import org.wso2.carbon.apimgt.impl.utils.APIUtil;
 import scala.actors.threadpool.Arrays;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -835,6 +837,151 @@ public class ThrottleConditionEvaluatorTest {
         Assert.assertEquals(condition, "condition1");
     }
 
+    @Test
+    public void testGetThrottledInConditionCachesDecisionPerReferencedAttributes() {
+
+        Map<String, List<ConditionDto>> conditionMap = new HashMap<>();
+        conditionMap.put("condition1", Arrays.asList(new ConditionDto[]{getIPCondition(false)}));
+        conditionMap.put("default", Arrays.asList(new ConditionDto[]{getIPCondition(false)}));
+        CompiledThrottleConditions compiledConditions = CompiledThrottleConditions.compile(conditionMap);
+        Assert.assertEquals(compiledConditions.size(), 2);
+
+        Assert.assertEquals(throttleConditionEvaluator.getThrottledInCondition(
+                getMessageContextWithHeaders("127.0.0.1", "a"), null, compiledConditions), "condition1");
+        // Headers which are not referenced by the conditions do not affect the decision
+        Assert.assertEquals(throttleConditionEvaluator.getThrottledInCondition(
+                getMessageContextWithHeaders("127.0.0.1", "b"), null, compiledConditions), "condition1");
+        Assert.assertEquals(compiledConditions.getCachedDecisionCount(), 1);
+        Assert.assertEquals(throttleConditionEvaluator.getThrottledInCondition(
+                getMessageContextWithHeaders("127.0.0.2", "a"), null, compiledConditions), "default");
+        Assert.assertEquals(compiledConditions.getCachedDecisionCount(), 2);
+    }
+
+    @Test
+    public void testGetThrottledInConditionCachesDecisionPerIpConditionOutcome() {
+
+        Map<String, List<ConditionDto>> conditionMap = new HashMap<>();
+        conditionMap.put("condition1", Arrays.asList(new ConditionDto[]{getIpRangeCondition(false)}));
+        conditionMap.put("default", Collections.EMPTY_LIST);
+        CompiledThrottleConditions compiledConditions = CompiledThrottleConditions.compile(conditionMap);
+
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals(throttleConditionEvaluator.getThrottledInCondition(
+                    getMessageContextWithHeaders("192.168.0." + i, "a"), null, compiledConditions),
+                    i <= 10 ? "condition1" : "default");
+        }
+        // Clients within and outside the range share a decision each
+        Assert.assertEquals(compiledConditions.getCachedDecisionCount(), 2);
+    }
+
+    @Test
+    public void testGetThrottledInConditionCachesDecisionPerReferencedJWTClaims() {
+
+        ThrottleProperties throttleProperties = new ThrottleProperties();
+        throttleProperties.setEnableJwtConditions(true);
+        ServiceReferenceHolder.getInstance().setThrottleProperties(throttleProperties);
+        ConditionDto.JWTClaimConditions jwtClaimConditions = new ConditionDto.JWTClaimConditions();
+        jwtClaimConditions.setValues(Collections.singletonMap("sub", "admin"));
+        ConditionDto conditionDto = new ConditionDto();
+        conditionDto.setJwtClaimConditions(jwtClaimConditions);
+        Map<String, List<ConditionDto>> conditionMap = new HashMap<>();
+        conditionMap.put("condition1", Arrays.asList(new ConditionDto[]{conditionDto}));
+        CompiledThrottleConditions compiledConditions = CompiledThrottleConditions.compile(conditionMap);
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(throttleConditionEvaluator.getThrottledInCondition(getMessageContextWithHeaders(
+                    "127.0.0.1", "a"), getAuthenticationContext("admin", i), compiledConditions), "condition1");
+            Assert.assertNull(throttleConditionEvaluator.getThrottledInCondition(getMessageContextWithHeaders(
+                    "127.0.0.1", "a"), getAuthenticationContext("user", i), compiledConditions));
+        }
+        // Tokens which only differ in claims which are not referenced by the conditions share a decision
+        Assert.assertEquals(compiledConditions.getCachedDecisionCount(), 2);
+    }
+
+    @Test
+    public void testGetThrottledInConditionBoundsCachedDecisions() {
+
+        ThrottleProperties throttleProperties = new ThrottleProperties();
+        throttleProperties.setEnableHeaderConditions(true);
+        ServiceReferenceHolder.getInstance().setThrottleProperties(throttleProperties);
+        ConditionDto.HeaderConditions headerConditions = new ConditionDto.HeaderConditions();
+        headerConditions.setValues(Collections.singletonMap("User-Agent", "^admin-"));
+        ConditionDto conditionDto = new ConditionDto();
+        conditionDto.setHeaderConditions(headerConditions);
+        Map<String, List<ConditionDto>> conditionMap = new HashMap<>();
+        conditionMap.put("condition1", Arrays.asList(new ConditionDto[]{conditionDto}));
+        CompiledThrottleConditions compiledConditions = CompiledThrottleConditions.compile(conditionMap);
+
+        for (int i = 0; i < 3 * CompiledThrottleConditions.MAX_CACHED_DECISIONS; i++) {
+            String userAgent = (i % 2 == 0 ? "admin-" : "user-") + i;
+            Assert.assertEquals(throttleConditionEvaluator.getThrottledInCondition(getMessageContextWithHeaders(
+                    "127.0.0.1", userAgent), null, compiledConditions), i % 2 == 0 ? "condition1" : null);
+            Assert.assertTrue(
+                    compiledConditions.getCachedDecisionCount() <= CompiledThrottleConditions.MAX_CACHED_DECISIONS);
+        }
+        Assert.assertTrue(compiledConditions.getCachedDecisionCount() > 0);
+    }
+
+    @Test
+    public void testGetThrottledInConditionWithCompiledIPv6RangeCondition() {
+
+        ConditionDto conditionDto = new ConditionDto();
+        conditionDto.setIpRangeCondition(new ConditionDto.IPCondition(APIUtil.ipToBigInteger("2001:db8::"),
+                APIUtil.ipToBigInteger("2001:db8::ffff"), false));
+        Map<String, List<ConditionDto>> conditionMap = new HashMap<>();
+        conditionMap.put("condition1", Arrays.asList(new ConditionDto[]{conditionDto}));
+        conditionMap.put("default", Collections.EMPTY_LIST);
+        CompiledThrottleConditions compiledConditions = CompiledThrottleConditions.compile(conditionMap);
+
+        Assert.assertEquals(throttleConditionEvaluator.getThrottledInCondition(
+                getMessageContextWithHeaders("2001:db8::1", "a"), null, compiledConditions), "condition1");
+        Assert.assertEquals(throttleConditionEvaluator.getThrottledInCondition(
+                getMessageContextWithHeaders("2001:db9::1", "a"), null, compiledConditions), "default");
+        // An IPv4 address is never within an IPv6 range
+        Assert.assertEquals(throttleConditionEvaluator.getThrottledInCondition(
+                getMessageContextWithHeaders("192.168.0.5", "a"), null, compiledConditions), "default");
+    }
+
+    @Test
+    public void testGetThrottledInConditionChecksCheapestPipelineFirst() {
+
+        ThrottleProperties throttleProperties = new ThrottleProperties();
+        throttleProperties.setEnableHeaderConditions(true);
+        ServiceReferenceHolder.getInstance().setThrottleProperties(throttleProperties);
+        Map<String, List<ConditionDto>> conditionMap = new HashMap<>();
+        conditionMap.put("condition1", Arrays.asList(new ConditionDto[]{getHeaderCondition(false),
+                getIpRangeCondition(false)}));
+        CompiledThrottleConditions compiledConditions = CompiledThrottleConditions.compile(conditionMap);
+
+        MessageContext messageContext = getMessageContextWithHeaders("192.168.0.5", "a");
+        Assert.assertEquals(throttleConditionEvaluator.getThrottledInCondition(messageContext, null,
+                compiledConditions), "condition1");
+        Assert.assertEquals(throttleConditionEvaluator.getThrottledInCondition(messageContext, null, conditionMap),
+                "condition1");
+        Assert.assertNull(throttleConditionEvaluator.getThrottledInCondition(
+                getMessageContextWithHeaders("192.168.0.12", "a"), null, compiledConditions));
+    }
+
+    private MessageContext getMessageContextWithHeaders(String ip, String userAgent) {
+
+        MessageContext messageContext = TestUtils.getMessageContext(apiContext, apiVersion);
+        Map map = new TreeMap();
+        map.put("X-Forwarded-For", ip);
+        map.put("User-Agent", userAgent);
+        ((Axis2MessageContext) messageContext).getAxis2MessageContext()
+                .setProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS, map);
+        return messageContext;
+    }
+
+    private AuthenticationContext getAuthenticationContext(String subject, int tokenId) {
+
+        String claims = "{\"sub\":\"" + subject + "\",\"jti\":\"" + tokenId + "\"}";
+        AuthenticationContext authenticationContext = new AuthenticationContext();
+        authenticationContext.setCallerToken("eyJhbGciOiJub25lIn0." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(claims.getBytes(StandardCharsets.UTF_8)) + ".");
+        return authenticationContext;
+    }
+
     private ConditionDto getIPCondition(boolean invert) {
 
         ConditionDto conditionDto = new ConditionDto();
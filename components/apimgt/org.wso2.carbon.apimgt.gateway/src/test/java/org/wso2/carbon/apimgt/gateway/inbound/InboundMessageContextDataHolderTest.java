@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.gateway.inbound;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.websocketx.CloseWebSocketFrame;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Test class for InboundMessageContextDataHolder
+ */
+public class InboundMessageContextDataHolderTest {
+
+    private final Map<String, InboundMessageContextDataHolder.APIConnectionStats> publishedStats = new HashMap<>();
+    private final InboundMessageContextDataHolder dataHolder = new InboundMessageContextDataHolder(4) {
+        @Override
+        protected void updateConnectionMetrics(String apiContext,
+                                               APIConnectionStats connectionStats) {
+            publishedStats.put(apiContext, connectionStats);
+        }
+    };
+
+    @After
+    public void cleanup() {
+        dataHolder.stopConnectionEviction();
+    }
+
+    @Test
+    public void testConnectionsAreAddedAndRemoved() {
+        for (int i = 0; i < 100; i++) {
+            dataHolder.addInboundMessageContextForConnection("connection-" + i,
+                    createInboundMessageContext("/api", true));
+        }
+        Assert.assertEquals(100, dataHolder.getConnectionCount());
+        Assert.assertEquals(100, dataHolder.getInboundMessageContextMap().size());
+        Assert.assertEquals(100, dataHolder.getInboundMessageContextMap().entrySet().size());
+        Assert.assertTrue(dataHolder.getInboundMessageContextMap().containsKey("connection-10"));
+        Assert.assertNotNull(dataHolder.getInboundMessageContextForConnectionId("connection-10"));
+
+        dataHolder.removeInboundMessageContextForConnection("connection-10");
+        dataHolder.getInboundMessageContextMap().remove("connection-11");
+        Assert.assertNull(dataHolder.getInboundMessageContextForConnectionId("connection-10"));
+        Assert.assertFalse(dataHolder.getInboundMessageContextMap().containsKey("connection-11"));
+        Assert.assertEquals(98, dataHolder.getConnectionCount());
+    }
+
+    @Test
+    public void testClosedConnectionsAreEvicted() {
+        dataHolder.addInboundMessageContextForConnection("active-1", createInboundMessageContext("/api1", true));
+        dataHolder.addInboundMessageContextForConnection("active-2", createInboundMessageContext("/api1", true));
+        dataHolder.addInboundMessageContextForConnection("active-3", createInboundMessageContext("/api2", true));
+        dataHolder.addInboundMessageContextForConnection("closed", createInboundMessageContext("/api2", false));
+
+        Assert.assertEquals(1, dataHolder.evictConnections());
+        Assert.assertNull(dataHolder.getInboundMessageContextForConnectionId("closed"));
+        Assert.assertEquals(3, dataHolder.getConnectionCount());
+        Assert.assertEquals(2, publishedStats.get("/api1").getConnectionCount());
+        Assert.assertEquals(1, publishedStats.get("/api2").getConnectionCount());
+        Assert.assertTrue(publishedStats.get("/api1").getMemoryUsage() > publishedStats.get("/api2").getMemoryUsage());
+    }
+
+    @Test
+    public void testIdleConnectionsAreClosed() throws Exception {
+        InboundMessageContext idleContext = createInboundMessageContext("/api", true);
+        dataHolder.addInboundMessageContextForConnection("idle", idleContext);
+        dataHolder.addInboundMessageContextForConnection("active", createInboundMessageContext("/api", true));
+        dataHolder.startConnectionEviction(50);
+        Thread.sleep(100);
+        // Reading a frame of the connection marks it as active
+        dataHolder.getInboundMessageContextForConnectionId("active");
+
+        Assert.assertEquals(1, dataHolder.evictConnections());
+        Assert.assertNull(dataHolder.getInboundMessageContextForConnectionId("idle"));
+        Assert.assertNotNull(dataHolder.getInboundMessageContextForConnectionId("active"));
+        Mockito.verify(idleContext.getCtx()).writeAndFlush(Mockito.any(CloseWebSocketFrame.class));
+    }
+
+    @Test
+    public void testConnectionStatsByAPI() {
+        InboundMessageContext inboundMessageContext = createInboundMessageContext("/api", true);
+        dataHolder.addInboundMessageContextForConnection("connection", inboundMessageContext);
+        long memoryUsage = dataHolder.getConnectionStatsByAPI().get("/api").getMemoryUsage();
+
+        inboundMessageContext.setToken("eyJ0eXAiOiJKV1QiLCJhbGciOiJSUzI1NiJ9");
+        Assert.assertEquals(1, dataHolder.getConnectionStatsByAPI().get("/api").getConnectionCount());
+        Assert.assertTrue(dataHolder.getConnectionStatsByAPI().get("/api").getMemoryUsage() > memoryUsage);
+    }
+
+    private static InboundMessageContext createInboundMessageContext(String apiContext, boolean active) {
+        ChannelHandlerContext ctx = Mockito.mock(ChannelHandlerContext.class);
+        Channel channel = Mockito.mock(Channel.class);
+        Mockito.when(ctx.channel()).thenReturn(channel);
+        Mockito.when(channel.isActive()).thenReturn(active);
+        Mockito.when(ctx.writeAndFlush(Mockito.any())).thenReturn(Mockito.mock(ChannelFuture.class));
+        InboundMessageContext inboundMessageContext = new InboundMessageContext();
+        inboundMessageContext.setCtx(ctx);
+        inboundMessageContext.setApiContext(apiContext);
+        return inboundMessageContext;
+    }
+}
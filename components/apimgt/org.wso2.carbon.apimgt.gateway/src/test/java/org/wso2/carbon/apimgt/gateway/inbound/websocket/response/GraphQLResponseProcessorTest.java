@@ -96,6 +96,35 @@ public class GraphQLResponseProcessorTest {
         Assert.assertNull(processorResponseDTO.getErrorMessage());
     }
 
+    @Test
+    public void testResponseOfUnknownSubscriptionIsDropped() {
+
+        InboundMessageContext inboundMessageContext = new InboundMessageContext();
+        int msgSize = 100;
+        String msgText = "{\"type\":\"data\",\"id\":\"2\",\"payload\":{\"data\":"
+                + "{\"liftStatusChange\":{\"name\":\"Astra Express\"}}}}";
+        PowerMockito.mockStatic(InboundWebsocketProcessorUtil.class);
+        InboundProcessorResponseDTO responseDTO = new InboundProcessorResponseDTO();
+        PowerMockito.when(InboundWebsocketProcessorUtil.authenticateToken(inboundMessageContext))
+                .thenReturn(responseDTO);
+        VerbInfoDTO verbInfoDTO = new VerbInfoDTO();
+        verbInfoDTO.setHttpVerb("SUBSCRIPTION");
+        verbInfoDTO.setThrottling("Unlimited");
+        inboundMessageContext.addVerbInfoForGraphQLMsgId("1", new GraphQLOperationDTO(verbInfoDTO,
+                "liftStatusChange"));
+        GraphQLResponseProcessor responseProcessor = new GraphQLResponseProcessor();
+        setChannelAttributeMap(inboundMessageContext);
+        PowerMockito.when(WebsocketUtil.validateDenyPolicies(Mockito.anyObject())).thenReturn(responseDTO);
+        InboundProcessorResponseDTO processorResponseDTO =
+                responseProcessor.handleResponse(msgSize, msgText, inboundMessageContext);
+        Assert.assertTrue(processorResponseDTO.isDropFrame());
+        Assert.assertFalse(processorResponseDTO.isError());
+        Assert.assertFalse(processorResponseDTO.isCloseConnection());
+        PowerMockito.verifyStatic(InboundWebsocketProcessorUtil.class, Mockito.never());
+        InboundWebsocketProcessorUtil.doThrottleForGraphQL(Mockito.anyInt(), Mockito.any(VerbInfoDTO.class),
+                Mockito.any(InboundMessageContext.class), Mockito.anyString());
+    }
+
     private void setChannelAttributeMap(InboundMessageContext inboundMessageContext) {
 
         ChannelHandlerContext ctx = Mockito.mock(ChannelHandlerContext.class);
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.threatprotection.analyzer;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.gateway.threatprotection.APIMThreatAnalyzerException;
+import org.wso2.carbon.apimgt.gateway.threatprotection.configuration.JSONConfig;
+import org.wso2.carbon.apimgt.gateway.threatprotection.utils.PayloadTeeInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+public class JSONAnalyzerTest {
+
+    private JSONAnalyzer analyzer;
+
+    @Before
+    public void init() {
+        JSONConfig config = new JSONConfig();
+        config.setMaxPropertyCount(10);
+        config.setMaxStringLength(20);
+        config.setMaxArrayElementCount(5);
+        config.setMaxKeyLength(10);
+        config.setMaxJsonDepth(3);
+        analyzer = new JSONAnalyzer();
+        analyzer.configure(config);
+    }
+
+    @Test
+    public void testValidPayload() throws APIMThreatAnalyzerException {
+        analyzer.analyze(stream("{\"name\":\"wso2\",\"tags\":[\"a\",\"b\"],\"address\":{\"city\":\"Colombo\"}}"),
+                "/api");
+    }
+
+    @Test
+    public void testUtf8PayloadIsDecoded() throws APIMThreatAnalyzerException {
+        // 20 characters, which are 40 bytes in UTF-8
+        analyzer.analyze(stream("{\"name\":\"éééééééééééééééééééé\"}"), "/api");
+    }
+
+    @Test(expected = APIMThreatAnalyzerException.class)
+    public void testDepthLimit() throws APIMThreatAnalyzerException {
+        analyzer.analyze(stream("{\"a\":{\"b\":{\"c\":{\"d\":1}}}}"), "/api");
+    }
+
+    @Test(expected = APIMThreatAnalyzerException.class)
+    public void testPropertyCountLimit() throws APIMThreatAnalyzerException {
+        StringBuilder payload = new StringBuilder("{");
+        for (int i = 0; i < 11; i++) {
+            payload.append(i == 0 ? "" : ",").append("\"k").append(i).append("\":1");
+        }
+        analyzer.analyze(stream(payload.append("}").toString()), "/api");
+    }
+
+    @Test(expected = APIMThreatAnalyzerException.class)
+    public void testStringLengthLimit() throws APIMThreatAnalyzerException {
+        analyzer.analyze(stream("{\"name\":\"abcdefghijklmnopqrstuvwxyz\"}"), "/api");
+    }
+
+    @Test(expected = APIMThreatAnalyzerException.class)
+    public void testArrayElementCountLimit() throws APIMThreatAnalyzerException {
+        analyzer.analyze(stream("{\"tags\":[1,2,3,4,5,6]}"), "/api");
+    }
+
+    @Test
+    public void testAnalysisOfLargePayloadIsAbortedEarly() throws IOException {
+        // The array limit is exceeded at the beginning of a payload of about 10 MB
+        StringBuilder payload = new StringBuilder("{\"tags\":[1,2,3,4,5,6],\"data\":[");
+        for (int i = 0; i < 1000000; i++) {
+            payload.append(i == 0 ? "" : ",").append("\"value\"");
+        }
+        byte[] bytes = payload.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+        PayloadTeeInputStream payloadStream = new PayloadTeeInputStream(new ByteArrayInputStream(bytes), 1024);
+        try {
+            analyzer.analyze(payloadStream, "/api");
+            Assert.fail("Array element count limit was not enforced");
+        } catch (APIMThreatAnalyzerException e) {
+            // Only the first chunks of the payload were read
+            Assert.assertTrue(payloadStream.getRecordedSize() < 64 * 1024);
+        }
+        // The whole payload is still available to build the message
+        InputStream fullPayload = payloadStream.getPayload();
+        int length = 0;
+        while (fullPayload.read() != -1) {
+            length++;
+        }
+        Assert.assertEquals(bytes.length, length);
+    }
+
+    private static InputStream stream(String payload) {
+        return new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
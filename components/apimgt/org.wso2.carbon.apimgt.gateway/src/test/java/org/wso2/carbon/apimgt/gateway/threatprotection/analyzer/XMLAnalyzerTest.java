@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.threatprotection.analyzer;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.gateway.threatprotection.APIMThreatAnalyzerException;
+import org.wso2.carbon.apimgt.gateway.threatprotection.configuration.XMLConfig;
+import org.wso2.carbon.apimgt.gateway.threatprotection.utils.PayloadTeeInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+public class XMLAnalyzerTest {
+
+    private XMLConfig config;
+    private XMLAnalyzer analyzer;
+
+    @Before
+    public void init() {
+        config = new XMLConfig();
+        config.setDtdEnabled(false);
+        config.setExternalEntitiesEnabled(false);
+        config.setMaxDepth(3);
+        config.setMaxElementCount(20);
+        config.setMaxAttributeCount(3);
+        config.setMaxAttributeLength(10);
+        config.setEntityExpansionLimit(10);
+        config.setMaxChildrenPerElement(5);
+        analyzer = new XMLAnalyzer();
+        analyzer.configure(config);
+    }
+
+    @Test
+    public void testValidPayload() throws APIMThreatAnalyzerException {
+        analyzer.analyze(stream("<order id=\"1\" type=\"retail\"><item sku=\"a\">2</item><item sku=\"b\">1</item>"
+                + "<address><city>Colombo</city></address></order>"), "/api");
+    }
+
+    @Test
+    public void testUtf8PayloadIsDecoded() throws APIMThreatAnalyzerException {
+        // 10 characters, which are 20 bytes in UTF-8
+        analyzer.analyze(stream("<name value=\"éééééééééé\">ééé</name>"), "/api");
+    }
+
+    @Test(expected = APIMThreatAnalyzerException.class)
+    public void testDepthLimit() throws APIMThreatAnalyzerException {
+        analyzer.analyze(stream("<a><b><c><d/></c></b></a>"), "/api");
+    }
+
+    @Test(expected = APIMThreatAnalyzerException.class)
+    public void testElementCountLimit() throws APIMThreatAnalyzerException {
+        // 21 elements, none of which has more than 5 children
+        StringBuilder payload = new StringBuilder("<root>");
+        for (int i = 0; i < 4; i++) {
+            payload.append("<group>");
+            for (int j = 0; j < 4; j++) {
+                payload.append("<item/>");
+            }
+            payload.append("</group>");
+        }
+        analyzer.analyze(stream(payload.append("</root>").toString()), "/api");
+    }
+
+    @Test(expected = APIMThreatAnalyzerException.class)
+    public void testAttributeCountLimit() throws APIMThreatAnalyzerException {
+        analyzer.analyze(stream("<item a=\"1\" b=\"2\" c=\"3\" d=\"4\"/>"), "/api");
+    }
+
+    @Test(expected = APIMThreatAnalyzerException.class)
+    public void testAttributeLengthLimit() throws APIMThreatAnalyzerException {
+        analyzer.analyze(stream("<item name=\"abcdefghijk\"/>"), "/api");
+    }
+
+    @Test(expected = APIMThreatAnalyzerException.class)
+    public void testChildrenPerElementLimit() throws APIMThreatAnalyzerException {
+        analyzer.analyze(stream("<items><i/><i/><i/><i/><i/><i/></items>"), "/api");
+    }
+
+    @Test
+    public void testEntityExpansionLimit() throws APIMThreatAnalyzerException {
+        config.setDtdEnabled(true);
+        analyzer.configure(config);
+        String dtd = "<!DOCTYPE root [<!ENTITY a \"lol\"><!ENTITY b \"&a;&a;&a;&a;&a;&a;\">]>";
+        analyzer.analyze(stream(dtd + "<root>&a;&a;</root>"), "/api");
+        try {
+            // 2 expansions of b and 12 expansions of a
+            analyzer.analyze(stream(dtd + "<root>&b;&b;</root>"), "/api");
+            Assert.fail("Entity expansion limit was not enforced");
+        } catch (APIMThreatAnalyzerException e) {
+            // Expected, the entities expand more than 10 times
+        }
+    }
+
+    @Test
+    public void testAnalysisOfLargePayloadIsAbortedEarly() throws IOException {
+        // The attribute count limit is exceeded at the beginning of a payload of about 10 MB
+        StringBuilder payload = new StringBuilder("<root><item a=\"1\" b=\"2\" c=\"3\" d=\"4\"/>");
+        for (int i = 0; i < 1000000; i++) {
+            payload.append("<v/>");
+        }
+        byte[] bytes = payload.append("</root>").toString().getBytes(StandardCharsets.UTF_8);
+        PayloadTeeInputStream payloadStream = new PayloadTeeInputStream(new ByteArrayInputStream(bytes), 1024);
+        try {
+            analyzer.analyze(payloadStream, "/api");
+            Assert.fail("Attribute count limit was not enforced");
+        } catch (APIMThreatAnalyzerException e) {
+            // Only the first chunks of the payload were read
+            Assert.assertTrue(payloadStream.getRecordedSize() < 64 * 1024);
+        }
+        // The whole payload is still available to build the message
+        InputStream fullPayload = payloadStream.getPayload();
+        int length = 0;
+        while (fullPayload.read() != -1) {
+            length++;
+        }
+        Assert.assertEquals(bytes.length, length);
+    }
+
+    private static InputStream stream(String payload) {
+        return new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
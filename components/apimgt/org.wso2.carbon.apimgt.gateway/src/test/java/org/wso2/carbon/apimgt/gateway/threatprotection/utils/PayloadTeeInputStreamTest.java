@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.threatprotection.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+public class PayloadTeeInputStreamTest {
+
+    private static final String PAYLOAD = "{\"name\":\"wso2\",\"version\":\"1.0.0\"}";
+
+    @Test
+    public void testReadBytesAreRecorded() throws IOException {
+        PayloadTeeInputStream payloadStream = new PayloadTeeInputStream(
+                new ByteArrayInputStream(PAYLOAD.getBytes(StandardCharsets.UTF_8)), 4);
+        byte[] buffer = new byte[8];
+        Assert.assertEquals('{', payloadStream.read());
+        Assert.assertEquals(8, payloadStream.read(buffer, 0, buffer.length));
+        Assert.assertEquals(5, payloadStream.skip(5));
+        Assert.assertEquals(14, payloadStream.getRecordedSize());
+        Assert.assertEquals(PAYLOAD.substring(0, 14), read(payloadStream.getRecordedPayload()));
+        // The recorded bytes are followed by the unread bytes
+        Assert.assertEquals(PAYLOAD, read(payloadStream.getPayload()));
+    }
+
+    @Test
+    public void testRemainingBytesAreRecorded() throws IOException {
+        PayloadTeeInputStream payloadStream = new PayloadTeeInputStream(
+                new ByteArrayInputStream(PAYLOAD.getBytes(StandardCharsets.UTF_8)), 4);
+        payloadStream.read();
+        payloadStream.close();
+        payloadStream.readRemaining();
+        Assert.assertEquals(PAYLOAD, read(payloadStream.getRecordedPayload()));
+        Assert.assertEquals(PAYLOAD, read(payloadStream.getPayload()));
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            out.write(b);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
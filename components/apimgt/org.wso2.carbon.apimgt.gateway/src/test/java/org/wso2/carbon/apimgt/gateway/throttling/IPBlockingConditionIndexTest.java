@@ -0,0 +1,130 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.throttling;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.gateway.dto.IPRange;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.utils.APIUtil;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class IPBlockingConditionIndexTest {
+
+    @Test
+    public void testParseAddress() {
+
+        long[] address = new long[2];
+        Assert.assertTrue(IPBlockingConditionIndex.parseAddress("10.1.2.3", address));
+        Assert.assertEquals(0, address[0]);
+        Assert.assertEquals(0x0a010203L, address[1]);
+        Assert.assertTrue(IPBlockingConditionIndex.parseAddress("2001:db8::1", address));
+        Assert.assertEquals(0x20010db800000000L, address[0]);
+        Assert.assertEquals(1L, address[1]);
+        Assert.assertTrue(IPBlockingConditionIndex.parseAddress("::ffff:10.1.2.3", address));
+        Assert.assertEquals(0, address[0]);
+        Assert.assertEquals(0x0a010203L, address[1]);
+        Assert.assertTrue(IPBlockingConditionIndex.parseAddress("1:2:3:4:5:6:7:8", address));
+        Assert.assertEquals(0x0001000200030004L, address[0]);
+        Assert.assertEquals(0x0005000600070008L, address[1]);
+        Assert.assertFalse(IPBlockingConditionIndex.parseAddress("10.1.2", address));
+        Assert.assertFalse(IPBlockingConditionIndex.parseAddress("10.1.2.256", address));
+        Assert.assertFalse(IPBlockingConditionIndex.parseAddress("1::2::3", address));
+        Assert.assertFalse(IPBlockingConditionIndex.parseAddress("1:2:3:4:5:6:7:8:9", address));
+    }
+
+    @Test
+    public void testFixedIpCondition() {
+
+        IPBlockingConditionIndex index = IPBlockingConditionIndex.compile(
+                Collections.singleton(fixedIp(1, "10.1.2.3", false)));
+        Assert.assertTrue(index.isBlocked("10.1.2.3"));
+        Assert.assertFalse(index.isBlocked("10.1.2.4"));
+    }
+
+    @Test
+    public void testIpRangeCondition() {
+
+        IPBlockingConditionIndex index = IPBlockingConditionIndex.compile(Arrays.asList(
+                ipRange(1, "10.0.0.0", "10.0.0.10", false), ipRange(2, "10.0.0.5", "10.0.0.20", false),
+                ipRange(3, "2001:db8::", "2001:db8::ff", false)));
+        Assert.assertFalse(index.isBlocked("10.0.0.0"));
+        Assert.assertTrue(index.isBlocked("10.0.0.1"));
+        Assert.assertTrue(index.isBlocked("10.0.0.15"));
+        Assert.assertFalse(index.isBlocked("10.0.0.20"));
+        Assert.assertTrue(index.isBlocked("2001:db8::10"));
+        Assert.assertFalse(index.isBlocked("2001:db8::1:0"));
+    }
+
+    @Test
+    public void testInvertedConditions() {
+
+        IPBlockingConditionIndex index = IPBlockingConditionIndex.compile(Arrays.asList(
+                ipRange(1, "192.168.0.0", "192.168.1.0", true), fixedIp(2, "10.0.0.1", false)));
+        Assert.assertFalse(index.isBlocked("192.168.0.10"));
+        Assert.assertTrue(index.isBlocked("192.168.2.10"));
+        Assert.assertTrue(index.isBlocked("10.0.0.1"));
+
+        index = IPBlockingConditionIndex.compile(Arrays.asList(fixedIp(1, "10.0.0.1", true),
+                fixedIp(2, "10.0.0.2", true)));
+        Assert.assertTrue(index.isBlocked("10.0.0.1"));
+        Assert.assertTrue(index.isBlocked("10.0.0.2"));
+    }
+
+    @Test
+    public void testThrottleDataHolderRebuildsIndex() {
+
+        ThrottleDataHolder throttleDataHolder = new ThrottleDataHolder();
+        throttleDataHolder.addIpBlockingCondition("carbon.super", 1,
+                "{\"startingIp\":\"10.0.0.0\",\"endingIp\":\"10.0.0.10\",\"invert\":false}",
+                APIConstants.BLOCK_CONDITION_IP_RANGE);
+        Assert.assertTrue(throttleDataHolder.isRequestBlocked("api", "app", "user", "10.0.0.5", "carbon.super",
+                "sub"));
+        Assert.assertFalse(throttleDataHolder.isRequestBlocked("api", "app", "user", "10.0.0.5", "wso2.com",
+                "sub"));
+        throttleDataHolder.removeIpBlockingCondition("carbon.super", 1);
+        Assert.assertFalse(throttleDataHolder.isRequestBlocked("api", "app", "user", "10.0.0.5", "carbon.super",
+                "sub"));
+    }
+
+    private IPRange fixedIp(int id, String ip, boolean invert) {
+
+        IPRange ipRange = new IPRange();
+        ipRange.setId(id);
+        ipRange.setType(APIConstants.BLOCKING_CONDITIONS_IP);
+        ipRange.setFixedIp(ip);
+        ipRange.setInvert(invert);
+        return ipRange;
+    }
+
+    private IPRange ipRange(int id, String startingIp, String endingIp, boolean invert) {
+
+        IPRange ipRange = new IPRange();
+        ipRange.setId(id);
+        ipRange.setType(APIConstants.BLOCK_CONDITION_IP_RANGE);
+        ipRange.setStartingIP(startingIp);
+        ipRange.setStartingIpBigIntValue(APIUtil.ipToBigInteger(startingIp));
+        ipRange.setEndingIp(endingIp);
+        ipRange.setEndingIpBigIntValue(APIUtil.ipToBigInteger(endingIp));
+        ipRange.setInvert(invert);
+        return ipRange;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.throttling;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ThrottleDecisionStoreTest {
+
+    private static final long START_TIME = 1000000L;
+
+    @Test
+    public void testIsThrottled() {
+
+        ThrottleDecisionStore store = new ThrottleDecisionStore(1000L, 8, 3, START_TIME, null);
+        store.put("key1", START_TIME + 5000L, START_TIME);
+        Assert.assertTrue(store.isThrottled("key1", START_TIME + 5000L));
+        Assert.assertFalse(store.isThrottled("key2", START_TIME));
+        Assert.assertEquals(START_TIME + 5000L, store.getExpiryTime("key1"));
+        Assert.assertFalse(store.isThrottled("key1", START_TIME + 5001L));
+        Assert.assertEquals(0, store.getSize());
+        Assert.assertEquals(1, store.getEvictionCount());
+    }
+
+    @Test
+    public void testEvictionWithoutLookup() {
+
+        List<String> evictedKeys = new ArrayList<>();
+        ThrottleDecisionStore store = new ThrottleDecisionStore(1000L, 8, 3, START_TIME, evictedKeys::add);
+        store.put("near", START_TIME + 2500L, START_TIME);
+        store.put("far", START_TIME + 100000L, START_TIME);
+        store.put("beyond", START_TIME + 10000000L, START_TIME);
+        Assert.assertEquals(3, store.getSize());
+
+        store.expireEntries(START_TIME + 4000L);
+        Assert.assertEquals(2, store.getSize());
+        Assert.assertEquals("near", evictedKeys.get(0));
+
+        store.expireEntries(START_TIME + 102000L);
+        Assert.assertEquals(1, store.getSize());
+        Assert.assertEquals("far", evictedKeys.get(1));
+
+        store.expireEntries(START_TIME + 10002000L);
+        Assert.assertEquals(0, store.getSize());
+        Assert.assertEquals(3, store.getEvictionCount());
+        Assert.assertEquals(0, store.getScheduledTimerCount());
+    }
+
+    @Test
+    public void testReplacedDecisionIsNotEvicted() {
+
+        ThrottleDecisionStore store = new ThrottleDecisionStore(1000L, 8, 3, START_TIME, null);
+        store.put("key1", START_TIME + 1000L, START_TIME);
+        store.put("key1", START_TIME + 60000L, START_TIME);
+        store.expireEntries(START_TIME + 5000L);
+        Assert.assertTrue(store.isThrottled("key1", START_TIME + 5000L));
+        Assert.assertEquals(0, store.getEvictionCount());
+        store.remove("key1");
+        Assert.assertFalse(store.isThrottled("key1", START_TIME + 5000L));
+    }
+}
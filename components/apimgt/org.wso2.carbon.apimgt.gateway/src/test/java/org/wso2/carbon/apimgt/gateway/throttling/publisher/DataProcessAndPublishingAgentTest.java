@@ -24,9 +24,13 @@ import org.apache.synapse.MessageContext;
 import org.apache.synapse.core.axis2.Axis2MessageContext;
 import org.apache.synapse.rest.RESTConstants;
 import org.apache.synapse.transport.nhttp.NhttpConstants;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.wso2.carbon.apimgt.api.model.policy.PolicyConstants;
 import org.wso2.carbon.apimgt.gateway.APIMgtGatewayConstants;
 import org.wso2.carbon.apimgt.gateway.handlers.security.AuthenticationContext;
 import org.wso2.carbon.apimgt.gateway.handlers.throttling.APIThrottleConstants;
@@ -34,10 +38,17 @@ import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.dto.ThrottleProperties;
 import org.wso2.carbon.apimgt.impl.dto.VerbInfoDTO;
 import org.wso2.carbon.apimgt.keymgt.model.entity.API;
+import org.wso2.carbon.apimgt.keymgt.model.entity.APIPolicyConditionGroup;
+import org.wso2.carbon.apimgt.keymgt.model.entity.ApiPolicy;
+import org.wso2.carbon.apimgt.keymgt.model.entity.Condition;
 import org.wso2.carbon.databridge.agent.DataPublisher;
 import org.wso2.carbon.databridge.commons.Event;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.TreeMap;
 import java.util.UUID;
 
@@ -448,4 +459,124 @@ public class DataProcessAndPublishingAgentTest {
         dataProcessAndPublishingAgent.run();
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void testOnlyAttributesReferencedByPolicyConditionsArePublished() throws Exception {
+        ThrottleProperties throttleProperties = new ThrottleProperties();
+        throttleProperties.setEnableHeaderConditions(true);
+        throttleProperties.setEnableQueryParamConditions(true);
+        ApiPolicy apiPolicy = new ApiPolicy();
+        apiPolicy.setTierName(resourceLevelTier);
+        apiPolicy.setTenantId(-1234);
+        APIPolicyConditionGroup conditionGroup = new APIPolicyConditionGroup();
+        conditionGroup.setCondition(new HashSet<>(Arrays.asList(condition(PolicyConstants.HEADER_TYPE, "X-Tier"),
+                condition(PolicyConstants.QUERY_PARAMETER_TYPE, "tier"))));
+        apiPolicy.getConditionGroups().add(conditionGroup);
+        DataProcessAndPublishingAgent dataProcessAndPublishingAgent = new DataProcessAndPublishingAgentWrapper
+                (throttleProperties) {
+            @Override
+            protected ThrottleConditionAttributes getConditionAttributes(String policyName, String tenantDomain) {
+                return ThrottleConditionAttributes.of(apiPolicy);
+            }
+        };
+        AuthenticationContext authenticationContext = new AuthenticationContext();
+        MessageContext messageContext = Mockito.mock(Axis2MessageContext.class);
+        org.apache.axis2.context.MessageContext axis2MsgCntxt = Mockito.mock(org.apache.axis2.context.MessageContext
+                .class);
+        Mockito.when(((Axis2MessageContext) messageContext).getAxis2MessageContext()).thenReturn(axis2MsgCntxt);
+        Mockito.when(axis2MsgCntxt.getProperty(NhttpConstants.REST_URL_POSTFIX)).thenReturn("?a=1&tier=gold");
+        TreeMap headers = new TreeMap(String.CASE_INSENSITIVE_ORDER);
+        headers.put(APIMgtGatewayConstants.X_FORWARDED_FOR, "192.168.1.1");
+        headers.put("x-tier", "silver");
+        headers.put("User-Agent", "curl");
+        Mockito.when(axis2MsgCntxt.getProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS))
+                .thenReturn(headers);
+        API api = new API();
+        api.setUuid(UUID.randomUUID().toString());
+        api.setApiName(apiName);
+        api.setApiVersion(apiVersion);
+        api.setApiProvider("admin");
+        Mockito.when(messageContext.getProperty(APIMgtGatewayConstants.API_OBJECT)).thenReturn(api);
+        dataProcessAndPublishingAgent.setDataReference(applicationLevelThrottleKey, applicationLevelTier,
+                apiLevelThrottleKey, null, subscriptionLevelThrottleKey, subscriptionLevelTier,
+                resourceLevelThrottleKey, resourceLevelTier, authorizedUser, apiContext, apiVersion, appTenant,
+                apiTenant, appId, messageContext, authenticationContext);
+
+        JSONObject properties = (JSONObject) new JSONParser().parse(
+                dataProcessAndPublishingAgent.buildConditionProperties(axis2MsgCntxt));
+        Assert.assertEquals(4, properties.size());
+        Assert.assertEquals(3232235777L, properties.get(APIThrottleConstants.IP));
+        Assert.assertEquals(0L, properties.get(APIThrottleConstants.IPv6));
+        Assert.assertEquals("silver", properties.get("X-Tier"));
+        Assert.assertEquals("gold", properties.get("tier"));
+        dataProcessAndPublishingAgent.run();
+        dataProcessAndPublishingAgent.clearDataReference();
+    }
+
+    @Test
+    public void testEventCountOfClientIsNotPublished() throws Exception {
+        ThrottleProperties throttleProperties = new ThrottleProperties();
+        throttleProperties.setEnableHeaderConditions(true);
+        throttleProperties.setEnableQueryParamConditions(true);
+        ApiPolicy apiPolicy = new ApiPolicy();
+        apiPolicy.setTierName(resourceLevelTier);
+        apiPolicy.setTenantId(-1234);
+        APIPolicyConditionGroup conditionGroup = new APIPolicyConditionGroup();
+        conditionGroup.setCondition(new HashSet<>(Arrays.asList(
+                condition(PolicyConstants.HEADER_TYPE, APIThrottleConstants.EVENT_COUNT),
+                condition(PolicyConstants.QUERY_PARAMETER_TYPE, APIThrottleConstants.EVENT_COUNT))));
+        apiPolicy.getConditionGroups().add(conditionGroup);
+        DataProcessAndPublishingAgent allPropertiesAgent = new DataProcessAndPublishingAgentWrapper
+                (throttleProperties);
+        DataProcessAndPublishingAgent conditionPropertiesAgent = new DataProcessAndPublishingAgentWrapper
+                (throttleProperties) {
+            @Override
+            protected ThrottleConditionAttributes getConditionAttributes(String policyName, String tenantDomain) {
+                return ThrottleConditionAttributes.of(apiPolicy);
+            }
+        };
+        AuthenticationContext authenticationContext = new AuthenticationContext();
+        MessageContext messageContext = Mockito.mock(Axis2MessageContext.class);
+        org.apache.axis2.context.MessageContext axis2MsgCntxt = Mockito.mock(org.apache.axis2.context.MessageContext
+                .class);
+        Mockito.when(((Axis2MessageContext) messageContext).getAxis2MessageContext()).thenReturn(axis2MsgCntxt);
+        Mockito.when(axis2MsgCntxt.getProperty(NhttpConstants.REST_URL_POSTFIX)).thenReturn("?eventCount=1000000");
+        TreeMap headers = new TreeMap(String.CASE_INSENSITIVE_ORDER);
+        headers.put(APIMgtGatewayConstants.X_FORWARDED_FOR, "192.168.1.1");
+        headers.put(APIThrottleConstants.EVENT_COUNT, "1000000");
+        Mockito.when(axis2MsgCntxt.getProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS))
+                .thenReturn(headers);
+        Mockito.when(messageContext.getProperty(APIThrottleConstants.CUSTOM_PROPERTY)).thenReturn(
+                new HashMap<>(Collections.singletonMap(APIThrottleConstants.EVENT_COUNT, "1000000")));
+        API api = new API();
+        api.setUuid(UUID.randomUUID().toString());
+        api.setApiName(apiName);
+        api.setApiVersion(apiVersion);
+        api.setApiProvider("admin");
+        Mockito.when(messageContext.getProperty(APIMgtGatewayConstants.API_OBJECT)).thenReturn(api);
+
+        allPropertiesAgent.setDataReference(applicationLevelThrottleKey, applicationLevelTier,
+                apiLevelThrottleKey, null, subscriptionLevelThrottleKey, subscriptionLevelTier,
+                resourceLevelThrottleKey, resourceLevelTier, authorizedUser, apiContext, apiVersion, appTenant,
+                apiTenant, appId, messageContext, authenticationContext);
+        JSONObject properties = (JSONObject) new JSONParser().parse(
+                allPropertiesAgent.buildAllProperties(axis2MsgCntxt));
+        Assert.assertFalse(properties.containsKey(APIThrottleConstants.EVENT_COUNT));
+
+        conditionPropertiesAgent.setDataReference(applicationLevelThrottleKey, applicationLevelTier,
+                apiLevelThrottleKey, null, subscriptionLevelThrottleKey, subscriptionLevelTier,
+                resourceLevelThrottleKey, resourceLevelTier, authorizedUser, apiContext, apiVersion, appTenant,
+                apiTenant, appId, messageContext, authenticationContext);
+        properties = (JSONObject) new JSONParser().parse(
+                conditionPropertiesAgent.buildConditionProperties(axis2MsgCntxt));
+        Assert.assertFalse(properties.containsKey(APIThrottleConstants.EVENT_COUNT));
+    }
+
+    private static Condition condition(String conditionType, String name) {
+        Condition condition = new Condition();
+        condition.setConditionType(conditionType);
+        condition.setName(name);
+        condition.setValue(".*");
+        return condition;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.throttling.publisher;
+
+import org.json.simple.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ThrottleEventBuilderTest {
+
+    private final ThrottleEventBuilder builder = new ThrottleEventBuilder();
+
+    @Test
+    public void testPropertiesAreWrittenAsJsonObject() throws Exception {
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("ip", 3232235777L);
+        properties.put("ipv6", new BigInteger("42540766411282592856903984951653826561"));
+        properties.put("count", 1);
+        properties.put("header", "a \"quoted\" \\ value/\n\t\u0001\u007F\u2001 \u0d86\u0dba\u0dd4");
+        properties.put("enabled", true);
+        properties.put("missing", null);
+
+        for (Map.Entry<String, Object> property : properties.entrySet()) {
+            JSONObject jsonObject = new JSONObject();
+            jsonObject.put(property.getKey(), property.getValue());
+            Assert.assertEquals(jsonObject.toString(),
+                    builder.reset().add(property.getKey(), property.getValue()).build());
+        }
+    }
+
+    @Test
+    public void testBufferIsReusedAcrossEvents() throws Exception {
+
+        builder.reset().add("header", "value").build();
+        String json = builder.reset().add("ip", 1L).build();
+        Assert.assertEquals("{\"ip\":1}", json);
+        Assert.assertEquals("{}", builder.reset().build());
+    }
+
+    @Test
+    public void testQueryParamsAreReadWithoutSplitting() throws Exception {
+
+        DataProcessAndPublishingAgent.addQueryParam(builder.reset(), "?a=1&bb=2&b=3&c", "b");
+        DataProcessAndPublishingAgent.addQueryParam(builder, "?a=1&bb=2&b=3&c", "c");
+        DataProcessAndPublishingAgent.addQueryParam(builder, "?a=1&bb=2&b=3&c", "d");
+        DataProcessAndPublishingAgent.addQueryParam(builder, "a=1&a=2", "a");
+        Assert.assertEquals("{\"b\":\"3\",\"c\":\"\",\"a\":\"2\"}", builder.build());
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.throttling.publisher;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.gateway.handlers.throttling.APIThrottleConstants;
+import org.wso2.carbon.databridge.commons.Event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class WebSocketThrottleEventAggregatorTest {
+
+    private final List<Event> publishedEvents = new ArrayList<>();
+    private final WebSocketThrottleEventAggregator aggregator =
+            new WebSocketThrottleEventAggregator(60000, 2, publishedEvents::add);
+
+    @After
+    public void cleanup() {
+
+        aggregator.stop();
+    }
+
+    @Test
+    public void testFramesAreAggregatedPerThrottleKey() {
+
+        for (int i = 0; i < 10; i++) {
+            aggregator.addFrame(throttleData("app1"), "127.0.0.1", 100);
+        }
+        aggregator.addFrame(throttleData("app2"), "127.0.0.1", 50);
+        Assert.assertTrue(publishedEvents.isEmpty());
+
+        aggregator.flush();
+        Assert.assertEquals(2, publishedEvents.size());
+        for (Event event : publishedEvents) {
+            Object[] payload = event.getPayloadData();
+            Assert.assertEquals("org.wso2.throttle.request.stream:1.0.0", event.getStreamId());
+            Assert.assertEquals(17, payload.length);
+            Assert.assertNotNull(payload[0]);
+            JSONObject properties = new JSONObject((String) payload[16]);
+            if ("app1".equals(payload[1])) {
+                Assert.assertEquals(10, properties.getLong(APIThrottleConstants.EVENT_COUNT));
+                Assert.assertEquals(1000, properties.getLong(APIThrottleConstants.MESSAGE_SIZE));
+            } else {
+                Assert.assertEquals("app2", payload[1]);
+                Assert.assertEquals(1, properties.getLong(APIThrottleConstants.EVENT_COUNT));
+                Assert.assertEquals(50, properties.getLong(APIThrottleConstants.MESSAGE_SIZE));
+            }
+            Assert.assertTrue(properties.has(APIThrottleConstants.IP));
+        }
+    }
+
+    @Test
+    public void testIdleThrottleKeysAreRemoved() {
+
+        aggregator.addFrame(throttleData("app1"), "127.0.0.1", 100);
+        aggregator.flush();
+        Assert.assertEquals(1, publishedEvents.size());
+        Assert.assertEquals(1, aggregator.size());
+
+        // No frames were received within the window
+        aggregator.flush();
+        Assert.assertEquals(1, publishedEvents.size());
+        Assert.assertEquals(0, aggregator.size());
+
+        aggregator.addFrame(throttleData("app1"), "127.0.0.1", 100);
+        aggregator.flush();
+        Assert.assertEquals(2, publishedEvents.size());
+    }
+
+    @Test
+    public void testFramesArePublishedWhenMaxKeysIsReached() {
+
+        aggregator.addFrame(throttleData("app1"), "127.0.0.1", 100);
+        aggregator.addFrame(throttleData("app2"), "127.0.0.1", 100);
+        aggregator.addFrame(throttleData("app3"), "127.0.0.1", 100);
+        Assert.assertEquals(1, publishedEvents.size());
+        Assert.assertEquals("app3", publishedEvents.get(0).getPayloadData()[1]);
+        Assert.assertEquals(2, aggregator.size());
+
+        aggregator.stop();
+        Assert.assertEquals(3, publishedEvents.size());
+    }
+
+    private static String[] throttleData(String applicationLevelThrottleKey) {
+
+        return new String[]{applicationLevelThrottleKey, "Unlimited", "/api:1.0.0", "Unlimited",
+                applicationLevelThrottleKey + ":/api:1.0.0", "AsyncUnlimited", "/api:1.0.0", "Unlimited",
+                "admin@carbon.super", "/api", "1.0.0", "carbon.super", "carbon.super", "1", "api"};
+    }
+}
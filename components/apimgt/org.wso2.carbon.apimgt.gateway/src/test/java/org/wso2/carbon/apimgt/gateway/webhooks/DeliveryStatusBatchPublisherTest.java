@@ -0,0 +1,103 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.webhooks;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.impl.dto.WebhooksDeliveryStatusDTO;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DeliveryStatusBatchPublisherTest {
+
+    private final List<List<WebhooksDeliveryStatusDTO>> persistedBatches = new ArrayList<>();
+    private boolean eventHubAvailable = true;
+
+    private final DeliveryStatusBatchPublisher publisher = new DeliveryStatusBatchPublisher(3) {
+        @Override
+        protected void persist(List<WebhooksDeliveryStatusDTO> deliveryStatuses) throws IOException {
+
+            if (!eventHubAvailable) {
+                throw new IOException("Event hub is not available");
+            }
+            persistedBatches.add(new ArrayList<>(deliveryStatuses));
+        }
+    };
+
+    @Test
+    public void testLatestStatusOfSubscriptionIsPersisted() {
+
+        publisher.addStatus(status("http://localhost/callback1", 2));
+        publisher.addStatus(status("http://localhost/callback1", 1));
+        publisher.addStatus(status("http://localhost/callback2", 2));
+        Assert.assertTrue(persistedBatches.isEmpty());
+
+        publisher.flush();
+        Assert.assertEquals(1, persistedBatches.size());
+        List<WebhooksDeliveryStatusDTO> batch = persistedBatches.get(0);
+        Assert.assertEquals(2, batch.size());
+        for (WebhooksDeliveryStatusDTO deliveryStatus : batch) {
+            if ("http://localhost/callback1".equals(deliveryStatus.getCallback())) {
+                Assert.assertEquals(1, deliveryStatus.getStatus());
+            } else {
+                Assert.assertEquals(2, deliveryStatus.getStatus());
+            }
+        }
+        Assert.assertEquals(0, publisher.size());
+    }
+
+    @Test
+    public void testFailedBatchIsRetriedWithNextFlush() {
+
+        eventHubAvailable = false;
+        publisher.addStatus(status("http://localhost/callback1", 2));
+        publisher.flush();
+        Assert.assertEquals(1, publisher.size());
+
+        // A newer status replaces the status which could not be persisted
+        publisher.addStatus(status("http://localhost/callback1", 1));
+        eventHubAvailable = true;
+        publisher.flush();
+        Assert.assertEquals(1, persistedBatches.size());
+        Assert.assertEquals(1, persistedBatches.get(0).get(0).getStatus());
+        Assert.assertEquals(0, publisher.size());
+    }
+
+    @Test
+    public void testStatusIsPersistedWhenMaxPendingStatusesIsReached() {
+
+        for (int i = 0; i < 4; i++) {
+            publisher.addStatus(status("http://localhost/callback" + i, 1));
+        }
+        Assert.assertEquals(1, persistedBatches.size());
+        Assert.assertEquals("http://localhost/callback3", persistedBatches.get(0).get(0).getCallback());
+        Assert.assertEquals(3, publisher.size());
+
+        publisher.stop();
+        Assert.assertEquals(2, persistedBatches.size());
+        Assert.assertEquals(3, persistedBatches.get(1).size());
+    }
+
+    private static WebhooksDeliveryStatusDTO status(String callback, int status) {
+
+        return new WebhooksDeliveryStatusDTO("apiUUID", "1", "carbon.super", callback, "/topic", status);
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.webhooks;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.impl.dto.WebhooksDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WebhookDeliveryEngineTest {
+
+    private static final int MAX_IN_FLIGHT = 2;
+    private static final int MAX_PENDING = 5;
+
+    private HttpServer server;
+    private String baseURL;
+    private final Map<String, AtomicInteger> receivedCounts = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> maxConcurrency = new ConcurrentHashMap<>();
+    private final Queue<String> signatures = new ConcurrentLinkedQueue<>();
+    private final Map<String, Boolean> results = new ConcurrentHashMap<>();
+    private volatile CountDownLatch completions;
+    private volatile CountDownLatch slowSubscriberRelease = new CountDownLatch(0);
+    private final AtomicInteger failuresBeforeSuccess = new AtomicInteger();
+    private final AtomicInteger httpClientCount = new AtomicInteger();
+    private WebhookDeliveryEngine engine;
+
+    @Before
+    public void setup() throws IOException {
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        Map<String, AtomicInteger> concurrency = new ConcurrentHashMap<>();
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            AtomicInteger current = concurrency.computeIfAbsent(path, key -> new AtomicInteger());
+            int inFlight = current.incrementAndGet();
+            maxConcurrency.computeIfAbsent(path, key -> new AtomicInteger()).accumulateAndGet(inFlight, Math::max);
+            try (InputStream body = exchange.getRequestBody()) {
+                while (body.read() != -1) {
+                    // Drain the request body
+                }
+                String signature = exchange.getRequestHeaders().getFirst(WebhookDeliveryEngine.SIGNATURE_HEADER);
+                if (signature != null) {
+                    signatures.add(signature);
+                }
+                int statusCode = 200;
+                if (path.startsWith("/slow")) {
+                    slowSubscriberRelease.await(10, TimeUnit.SECONDS);
+                } else if (path.startsWith("/flaky") && failuresBeforeSuccess.getAndDecrement() > 0) {
+                    statusCode = 503;
+                } else if (path.startsWith("/gone")) {
+                    statusCode = 410;
+                }
+                if (statusCode == 200) {
+                    receivedCounts.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+                }
+                exchange.sendResponseHeaders(statusCode, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                current.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+        baseURL = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void cleanup() {
+
+        slowSubscriberRelease.countDown();
+        if (engine != null) {
+            engine.shutdown();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    public void testEventIsDeliveredToAllSubscribers() throws Exception {
+
+        engine = createEngine(4, 0, MAX_PENDING);
+        completions = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(engine.deliver(delivery("/subscriber" + i, "secret")));
+        }
+        Assert.assertTrue(completions.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(1, receivedCounts.get("/subscriber" + i).get());
+            Assert.assertTrue(results.get(baseURL + "/subscriber" + i));
+        }
+        String expectedSignature = "sha1=" + WebhookDeliveryEngine.sign("{\"event\":1}", "secret");
+        Assert.assertEquals(3, signatures.size());
+        for (String signature : signatures) {
+            Assert.assertEquals(expectedSignature, signature);
+        }
+        // Connections of all the callbacks of a host are pooled by a single client
+        Assert.assertEquals(1, httpClientCount.get());
+        waitForIdle();
+    }
+
+    @Test
+    public void testFailedDeliveryIsRetried() throws Exception {
+
+        engine = createEngine(2, 3, MAX_PENDING);
+        failuresBeforeSuccess.set(2);
+        completions = new CountDownLatch(1);
+        engine.deliver(delivery("/flaky", null));
+        Assert.assertTrue(completions.await(10, TimeUnit.SECONDS));
+        Assert.assertTrue(results.get(baseURL + "/flaky"));
+        Assert.assertEquals(1, receivedCounts.get("/flaky").get());
+    }
+
+    @Test
+    public void testClientErrorIsNotRetried() throws Exception {
+
+        engine = createEngine(2, 3, MAX_PENDING);
+        completions = new CountDownLatch(1);
+        engine.deliver(delivery("/gone", null));
+        Assert.assertTrue(completions.await(10, TimeUnit.SECONDS));
+        Assert.assertFalse(results.get(baseURL + "/gone"));
+    }
+
+    @Test
+    public void testSlowSubscriberDoesNotBlockOthers() throws Exception {
+
+        engine = createEngine(4, 0, MAX_PENDING);
+        slowSubscriberRelease = new CountDownLatch(1);
+        completions = new CountDownLatch(3);
+        int accepted = 0;
+        for (int i = 0; i < MAX_IN_FLIGHT + MAX_PENDING + 3; i++) {
+            if (engine.deliver(delivery("/slow", null))) {
+                accepted++;
+            }
+        }
+        // Deliveries beyond the in-flight and pending bounds of the subscriber are rejected
+        Assert.assertEquals(MAX_IN_FLIGHT + MAX_PENDING, accepted);
+        Assert.assertEquals(0, completions.getCount());
+        Assert.assertFalse(results.get(baseURL + "/slow"));
+
+        // Deliveries to other subscribers complete while the slow one is blocked
+        completions = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) {
+            engine.deliver(delivery("/fast" + i, null));
+        }
+        Assert.assertTrue(completions.await(10, TimeUnit.SECONDS));
+        Assert.assertNull(receivedCounts.get("/slow"));
+        Assert.assertTrue(maxConcurrency.get("/slow").get() <= MAX_IN_FLIGHT);
+
+        completions = new CountDownLatch(accepted);
+        slowSubscriberRelease.countDown();
+        Assert.assertTrue(completions.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(accepted, receivedCounts.get("/slow").get());
+        Assert.assertTrue(maxConcurrency.get("/slow").get() <= MAX_IN_FLIGHT);
+        waitForIdle();
+    }
+
+    @Test
+    public void testWaitingDeliveriesAreFailedOnShutdown() throws Exception {
+
+        int waiting = 20000;
+        engine = createEngine(2, 0, waiting);
+        slowSubscriberRelease = new CountDownLatch(1);
+        completions = new CountDownLatch(MAX_IN_FLIGHT + waiting);
+        for (int i = 0; i < MAX_IN_FLIGHT + waiting; i++) {
+            Assert.assertTrue(engine.deliver(delivery("/slow", null)));
+        }
+        engine.shutdown();
+        slowSubscriberRelease.countDown();
+        // The waiting deliveries are rejected by the stopped executor and failed without a deep call stack
+        Assert.assertTrue(completions.await(10, TimeUnit.SECONDS));
+        Assert.assertFalse(results.get(baseURL + "/slow"));
+        waitForIdle();
+    }
+
+    /**
+     * Load harness delivering events to a number of local stub subscribers. It runs only when the webhooks.load.test
+     * system property is set to true, and the load can be increased with the webhooks.load.subscribers and
+     * webhooks.load.events system properties.
+     */
+    @Test
+    public void testDeliveryUnderLoad() throws Exception {
+
+        Assume.assumeTrue(Boolean.getBoolean("webhooks.load.test"));
+        int subscribers = Integer.getInteger("webhooks.load.subscribers", 20);
+        int events = Integer.getInteger("webhooks.load.events", 50);
+        engine = createEngine(16, 0, events);
+        completions = new CountDownLatch(subscribers * events);
+        for (int event = 0; event < events; event++) {
+            for (int subscriber = 0; subscriber < subscribers; subscriber++) {
+                Assert.assertTrue(engine.deliver(delivery("/load" + subscriber, null)));
+            }
+        }
+        Assert.assertTrue(completions.await(60, TimeUnit.SECONDS));
+        for (int subscriber = 0; subscriber < subscribers; subscriber++) {
+            Assert.assertEquals(events, receivedCounts.get("/load" + subscriber).get());
+            Assert.assertTrue(maxConcurrency.get("/load" + subscriber).get() <= MAX_IN_FLIGHT);
+        }
+        waitForIdle();
+    }
+
+    @Test
+    public void testRetryDelayIsCapped() {
+
+        engine = new WebhookDeliveryEngine(1, 1, 1, 10, 100, 1000, 1000,
+                uri -> HttpClients.createDefault(), (delivery, delivered) -> {
+        });
+        Assert.assertEquals(100, engine.getRetryDelay(1));
+        Assert.assertEquals(200, engine.getRetryDelay(2));
+        Assert.assertEquals(800, engine.getRetryDelay(4));
+        Assert.assertEquals(1000, engine.getRetryDelay(5));
+        Assert.assertEquals(1000, engine.getRetryDelay(60));
+    }
+
+    private WebhookDeliveryEngine createEngine(int threads, int maxRetries, int maxPending) {
+
+        return new WebhookDeliveryEngine(threads, MAX_IN_FLIGHT, maxPending, maxRetries, 10, 100, 10000,
+                uri -> {
+                    httpClientCount.incrementAndGet();
+                    PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+                    connectionManager.setMaxTotal(100);
+                    connectionManager.setDefaultMaxPerRoute(100);
+                    return HttpClients.custom().setConnectionManager(connectionManager).build();
+                },
+                (delivery, delivered) -> {
+                    results.put(delivery.getSubscriber().getCallbackURL(), delivered);
+                    completions.countDown();
+                });
+    }
+
+    private WebhookDelivery delivery(String path, String secret) {
+
+        WebhooksDTO subscriber = new WebhooksDTO();
+        subscriber.setCallbackURL(baseURL + path);
+        subscriber.setTopicName("/topic");
+        subscriber.setSecret(secret);
+        return new WebhookDelivery(subscriber, "{\"event\":1}", null,
+                "<" + baseURL + "/hub>; rel=\"hub\", " + "/topic; rel=\"self\" ");
+    }
+
+    private void waitForIdle() throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (engine.getSubscriberQueueCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // Queues of idle subscribers are removed
+        Assert.assertEquals(0, engine.getSubscriberQueueCount());
+    }
+}
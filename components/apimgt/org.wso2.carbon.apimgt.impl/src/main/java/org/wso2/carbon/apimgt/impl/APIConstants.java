@@ -450,6 +450,10 @@ public final class APIConstants {
     public static final String GATEWAY_JWT_CONFIGURATION = "Configuration";
     public static final String GATEWAY_JWT_GENERATOR_CLAIMS = "ExcludedClaims";
     public static final String GATEWAY_JWT_GENERATOR_CLAIM = "Claim";
+    public static final String GATEWAY_JWT_SIGNED_TOKEN_CACHE = "SignedTokenCache";
+    public static final String GATEWAY_JWT_SIGNED_TOKEN_CACHE_ENABLED = "Enabled";
+    public static final String GATEWAY_JWT_SIGNED_TOKEN_CACHE_MAX_ENTRIES = "MaxEntries";
+    public static final String GATEWAY_JWT_SIGNER_POOL_SIZE = "SignerPoolSize";
     public static final String CONVERT_CLAIMS_TO_CONSUMER_DIALECT = JWT_CONFIGS + ".ConvertClaimsToConsumerDialect";
 
     public static final String MEDIATOR_CONFIG = "MediatorConfigs.";
@@ -1415,6 +1419,10 @@ public final class APIConstants {
     public static final String CONFIG_REDIS_MIN_EVICTABLE_IDLE_TIME_IN_MILLIS = "minEvictableIdleTimeMillis";
     public static final String CONFIG_REDIS_TIME_BETWEEN_EVICTION_RUNS_IN_MILLIS = "timeBetweenEvictionRunsMillis";
     public static final String CONFIG_REDIS_NUM_TESTS_PER_EVICTION_RUNS = "numTestsPerEvictionRun";
+    public static final String CONFIG_REDIS_COUNTER_BATCHING = "CounterBatching";
+    public static final String CONFIG_REDIS_COUNTER_BATCHING_ENABLED = "Enabled";
+    public static final String CONFIG_REDIS_COUNTER_FLUSH_INTERVAL = "FlushInterval";
+    public static final String CONFIG_REDIS_COUNTER_MAX_PENDING_INCREMENTS = "MaxPendingIncrements";
 
     // Primary/Secondary Login configuration
     public static final String USERID_LOGIN = "UserIdLogin";
@@ -1909,6 +1917,10 @@ public final class APIConstants {
         public static final String DATA_PUBLISHER_POOL_CONFIGURATION = "DataPublisherPool";
         public static final String DATA_PUBLISHER_POOL_CONFIGURAION_MAX_IDLE = "MaxIdle";
         public static final String DATA_PUBLISHER_POOL_CONFIGURAION_INIT_IDLE = "InitIdleCapacity";
+        public static final String DATA_PUBLISHER_WEBSOCKET_FRAME_AGGREGATION = "WebSocketFrameAggregation";
+        public static final String DATA_PUBLISHER_WEBSOCKET_FRAME_AGGREGATION_WINDOW = "Window";
+        public static final String DATA_PUBLISHER_WEBSOCKET_FRAME_AGGREGATION_MAX_KEYS = "MaxKeys";
+        public static final String DATA_PUBLISHER_SSE_EVENT_AGGREGATION = "SseEventAggregation";
 
         public static final String GLOBAL_POLICY_ENGINE_WS_CONFIGURATION = "GlobalPolicyEngineWSConnectionDetails";
         public static final String SERVICE_URL = "ServiceURL";
@@ -2481,6 +2493,11 @@ public final class APIConstants {
 
         public static final String SERVICE_URL = "ServiceURL";
         public static final String INIT_DELAY = "InitDelay";
+        public static final String SUBSCRIPTION_DATA_STORE = "SubscriptionDataStore";
+        public static final String SUBSCRIPTION_DATA_STORE_DEFAULT = "default";
+        public static final String SUBSCRIPTION_DATA_STORE_SNAPSHOT = "snapshot";
+        public static final String DATA_LOADING_PAGE_SIZE = "DataLoadingPageSize";
+        public static final String SUBSCRIPTION_DATA_PRELOAD = "SubscriptionDataPreload";
         public static final String INTROSPECTION_ENDPOINT = "introspection_endpoint";
         public static final String CLIENT_REGISTRATION_ENDPOINT = "client_registration_endpoint";
         public static final String KEY_MANAGER_OPERATIONS_DCR_ENDPOINT = "/keymanager-operations/dcr/register";
@@ -2663,6 +2680,7 @@ public final class APIConstants {
         public static final String GATEWAY_INSTRUCTION_ANY = "ANY";
         public static final String SYNAPSE_ATTRIBUTES = "/synapse-attributes";
         public static final String GATEAY_SYNAPSE_ARTIFACTS = "/runtime-artifacts";
+        public static final String GATEWAY_SYNAPSE_ARTIFACTS_DELTA = "/runtime-artifacts/delta";
         public static final String DATA_SOURCE_NAME = "DataSourceName";
         public static final String DATA_RETRIEVAL_MODE = "DataRetrievalMode";
         public static final String GATEWAY_STARTUP_SYNC = "sync";
@@ -2671,6 +2689,10 @@ public final class APIConstants {
         public static final String LABEL = "label";
         public static final String LABELS = "labels";
         public static final String EnableOnDemandLoadingAPIS = "EnableOnDemandLoadingAPIS";
+        public static final String STARTUP_DEPLOYMENT_PARALLELISM = "StartupDeploymentParallelism";
+        public static final String STARTUP_DEPLOYMENT_PAGE_SIZE = "StartupDeploymentPageSize";
+        public static final String ENABLE_DELTA_SYNC = "EnableDeltaSync";
+        public static final String ARTIFACT_CACHE_DIRECTORY = "ArtifactCacheDirectory";
 
     }
 
@@ -2974,6 +2996,22 @@ public final class APIConstants {
 
     // Constants related to basic health check APIs
     public static final String WEB_SOCKET_HEALTH_CHECK_PATH = "/health";
+    public static final String WEBSOCKET_CONNECTION_IDLE_TIMEOUT = "WebSocketConnections.IdleTimeout";
+    public static final String WEBSOCKET_MAX_SUBSCRIPTIONS_PER_CONNECTION =
+            "WebSocketConnections.MaxSubscriptionsPerConnection";
+    public static final String SSE_EVENT_FLUSH_INTERVAL = "SSEEventProcessing.FlushInterval";
+    public static final String SSE_EVENT_MAX_PENDING_KEYS = "SSEEventProcessing.MaxPendingKeys";
+    public static final String WEBHOOK_DELIVERY_ENABLED = "WebhookDelivery.Enable";
+    public static final String WEBHOOK_DELIVERY_THREADS = "WebhookDelivery.Threads";
+    public static final String WEBHOOK_DELIVERY_MAX_IN_FLIGHT_PER_SUBSCRIBER =
+            "WebhookDelivery.MaxInFlightPerSubscriber";
+    public static final String WEBHOOK_DELIVERY_MAX_PENDING_PER_SUBSCRIBER = "WebhookDelivery.MaxPendingPerSubscriber";
+    public static final String WEBHOOK_DELIVERY_MAX_RETRIES = "WebhookDelivery.MaxRetries";
+    public static final String WEBHOOK_DELIVERY_RETRY_INITIAL_DELAY = "WebhookDelivery.RetryInitialDelay";
+    public static final String WEBHOOK_DELIVERY_RETRY_MAX_DELAY = "WebhookDelivery.RetryMaxDelay";
+    public static final String WEBHOOK_DELIVERY_REQUEST_TIMEOUT = "WebhookDelivery.RequestTimeout";
+    public static final String WEBHOOK_DELIVERY_STATUS_FLUSH_INTERVAL = "WebhookDelivery.StatusFlushInterval";
+    public static final String WEBHOOK_DELIVERY_STATUS_MAX_PENDING = "WebhookDelivery.MaxPendingStatuses";
 
     public static final String CASE_SENSITIVE_CHECK_PATH =    "caseSensitiveRoleValidation";
     public static final String SOAP_TO_REST_PRESERVE_ELEMENT_ORDER = "soapToRestPreserveElementOrder";
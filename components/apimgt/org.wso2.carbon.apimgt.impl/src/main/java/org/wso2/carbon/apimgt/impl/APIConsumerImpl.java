@@ -3585,27 +3585,42 @@ public class APIConsumerImpl extends AbstractAPIManager implements APIConsumer {
             SortedSet<Object> apiSet = new TreeSet<>(new APIAPIProductNameComparator());
             if (searchAPIs != null) {
                 List<DevPortalAPIInfo> list = searchAPIs.getDevPortalAPIInfoList();
-                List<Object> apiList = new ArrayList<>();
+                // Ratings of the whole page are retrieved in a batch and the tiers are resolved once, rather than per
+                // API of the page. If either fails, they are retrieved per API, so that a single API does not fail the
+                // whole page.
+                List<String> apiUuids = new ArrayList<>(list.size());
+                for (DevPortalAPIInfo devPortalAPIInfo : list) {
+                    apiUuids.add(devPortalAPIInfo.getId());
+                }
+                Map<String, Float> ratings = null;
+                Map<String, Tier> definedTiers = null;
+                try {
+                    ratings = APIUtil.getAverageRatings(apiUuids);
+                    definedTiers = APIUtil.getTiers(tenantId);
+                } catch (APIManagementException e) {
+                    log.warn("Retrieving API details from DB failed for APIs: " + apiUuids
+                            + ". Retrieving them per API. " + e);
+                }
                 for (DevPortalAPIInfo devPortalAPIInfo : list) {
                     API mappedAPI = APIMapper.INSTANCE.toApi(devPortalAPIInfo);
                     try {
-                        mappedAPI.setRating(APIUtil.getAverageRating(mappedAPI.getUuid()));
+                        mappedAPI.setRating(ratings != null ? ratings.get(devPortalAPIInfo.getId())
+                                : APIUtil.getAverageRating(mappedAPI.getUuid()));
                         Set<String> tierNameSet = devPortalAPIInfo.getAvailableTierNames();
                         String tiers = null;
                         if (tierNameSet != null) {
                             tiers = String.join("||", tierNameSet);
                         }
-                        Map<String, Tier> definedTiers = APIUtil.getTiers(tenantId);
-                        Set<Tier> availableTiers =
-                                APIUtil.getAvailableTiers(definedTiers, tiers, mappedAPI.getId().getApiName());
+                        Set<Tier> availableTiers = APIUtil.getAvailableTiers(
+                                definedTiers != null ? definedTiers : APIUtil.getTiers(tenantId), tiers,
+                                mappedAPI.getId().getApiName());
                         mappedAPI.removeAllTiers();
                         mappedAPI.setAvailableTiers(availableTiers);
-                        apiList.add(mappedAPI);
+                        apiSet.add(mappedAPI);
                     } catch (APIManagementException e) {
                         log.warn("Retrieving API details from DB failed for API: " + mappedAPI.getUuid() + " " + e);
                     }
                 }
-                apiSet.addAll(apiList);
                 result.put("apis", apiSet);
                 result.put("length", searchAPIs.getTotalAPIsCount());
                 result.put("isMore", true);
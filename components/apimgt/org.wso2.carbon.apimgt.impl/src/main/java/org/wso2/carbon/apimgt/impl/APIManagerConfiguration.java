@@ -383,6 +383,8 @@ public class APIManagerConfiguration {
                 OMElement redisConnectionTimeout = element.getFirstChildWithName(new QName(APIConstants.CONFIG_REDIS_CONNECTION_TIMEOUT));
                 OMElement redisIsSslEnabled = element.getFirstChildWithName(new QName(APIConstants.CONFIG_REDIS_IS_SSL_ENABLED));
                 OMElement propertiesElement = element.getFirstChildWithName(new QName(APIConstants.CONFIG_REDIS_PROPERTIES));
+                OMElement counterBatchingElement =
+                        element.getFirstChildWithName(new QName(APIConstants.CONFIG_REDIS_COUNTER_BATCHING));
                 redisConfig.setRedisEnabled(true);
                 redisConfig.setHost(redisHost.getText());
                 redisConfig.setPort(Integer.parseInt(redisPort.getText()));
@@ -423,6 +425,24 @@ public class APIManagerConfiguration {
                         }
                     }
                 }
+                if (counterBatchingElement != null) {
+                    OMElement enabledElement = counterBatchingElement.getFirstChildWithName(
+                            new QName(APIConstants.CONFIG_REDIS_COUNTER_BATCHING_ENABLED));
+                    OMElement flushIntervalElement = counterBatchingElement.getFirstChildWithName(
+                            new QName(APIConstants.CONFIG_REDIS_COUNTER_FLUSH_INTERVAL));
+                    OMElement maxPendingIncrementsElement = counterBatchingElement.getFirstChildWithName(
+                            new QName(APIConstants.CONFIG_REDIS_COUNTER_MAX_PENDING_INCREMENTS));
+                    if (enabledElement != null) {
+                        redisConfig.setCounterBatchingEnabled(Boolean.parseBoolean(enabledElement.getText()));
+                    }
+                    if (flushIntervalElement != null) {
+                        redisConfig.setCounterFlushInterval(Long.parseLong(flushIntervalElement.getText()));
+                    }
+                    if (maxPendingIncrementsElement != null) {
+                        redisConfig.setCounterMaxPendingIncrements(
+                                Integer.parseInt(maxPendingIncrementsElement.getText()));
+                    }
+                }
             } else if (elementHasText(element)) {
                 String key = getKey(nameStack);
                 String value = MiscellaneousUtil.resolve(element, secretResolver);
@@ -1237,6 +1257,48 @@ public class APIManagerConfiguration {
                         }
                     }
                     throttleProperties.setDataPublisherThreadPool(dataPublisherThreadPool);
+
+                    // WebSocket frame aggregation configuration
+
+                    OMElement webSocketFrameAggregationElement = dataPublisherConfigurationElement
+                            .getFirstChildWithName(new QName
+                                    (APIConstants.AdvancedThrottleConstants.DATA_PUBLISHER_WEBSOCKET_FRAME_AGGREGATION));
+                    if (webSocketFrameAggregationElement != null) {
+                        OMElement aggregationEnabledElement = webSocketFrameAggregationElement
+                                .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants.ENABLED));
+                        if (aggregationEnabledElement != null) {
+                            dataPublisher.setWebSocketFrameAggregationEnabled(
+                                    JavaUtils.isTrueExplicitly(aggregationEnabledElement.getText()));
+                        }
+                        OMElement aggregationWindowElement = webSocketFrameAggregationElement
+                                .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants
+                                        .DATA_PUBLISHER_WEBSOCKET_FRAME_AGGREGATION_WINDOW));
+                        if (aggregationWindowElement != null) {
+                            dataPublisher.setWebSocketFrameAggregationWindow(
+                                    Long.parseLong(aggregationWindowElement.getText()));
+                        }
+                        OMElement aggregationMaxKeysElement = webSocketFrameAggregationElement
+                                .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants
+                                        .DATA_PUBLISHER_WEBSOCKET_FRAME_AGGREGATION_MAX_KEYS));
+                        if (aggregationMaxKeysElement != null) {
+                            dataPublisher.setWebSocketFrameAggregationMaxKeys(
+                                    Integer.parseInt(aggregationMaxKeysElement.getText()));
+                        }
+                    }
+
+                    // SSE event aggregation configuration
+
+                    OMElement sseEventAggregationElement = dataPublisherConfigurationElement
+                            .getFirstChildWithName(new QName
+                                    (APIConstants.AdvancedThrottleConstants.DATA_PUBLISHER_SSE_EVENT_AGGREGATION));
+                    if (sseEventAggregationElement != null) {
+                        OMElement aggregationEnabledElement = sseEventAggregationElement
+                                .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants.ENABLED));
+                        if (aggregationEnabledElement != null) {
+                            dataPublisher.setSseEventAggregationEnabled(
+                                    JavaUtils.isTrueExplicitly(aggregationEnabledElement.getText()));
+                        }
+                    }
                 }
 
                 // Configuring JMSConnectionDetails
@@ -1599,6 +1661,27 @@ public class APIManagerConfiguration {
                     if (claimRetrievalElement != null) {
                         jwtConfigurationDto.setEnableUserClaimRetrievalFromUserStore(Boolean.parseBoolean(claimRetrievalElement.getText()));
                     }
+                    OMElement signedTokenCacheElement = configurationElement
+                            .getFirstChildWithName(new QName(APIConstants.GATEWAY_JWT_SIGNED_TOKEN_CACHE));
+                    if (signedTokenCacheElement != null) {
+                        OMElement enabledElement = signedTokenCacheElement.getFirstChildWithName(
+                                new QName(APIConstants.GATEWAY_JWT_SIGNED_TOKEN_CACHE_ENABLED));
+                        OMElement maxEntriesElement = signedTokenCacheElement.getFirstChildWithName(
+                                new QName(APIConstants.GATEWAY_JWT_SIGNED_TOKEN_CACHE_MAX_ENTRIES));
+                        OMElement signerPoolSizeElement = signedTokenCacheElement.getFirstChildWithName(
+                                new QName(APIConstants.GATEWAY_JWT_SIGNER_POOL_SIZE));
+                        if (enabledElement != null) {
+                            jwtConfigurationDto.setSignedTokenCacheEnabled(
+                                    Boolean.parseBoolean(enabledElement.getText()));
+                        }
+                        if (maxEntriesElement != null) {
+                            jwtConfigurationDto.setSignedTokenCacheSize(
+                                    Integer.parseInt(maxEntriesElement.getText()));
+                        }
+                        if (signerPoolSizeElement != null) {
+                            jwtConfigurationDto.setSignerPoolSize(Integer.parseInt(signerPoolSizeElement.getText()));
+                        }
+                    }
                 }
             }
         }
@@ -1901,6 +1984,24 @@ public class APIManagerConfiguration {
             if (initDelay != null) {
                 eventHubConfigurationDto.setInitDelay(Integer.parseInt(initDelay.getText()));
             }
+            OMElement subscriptionDataStoreElement = omElement
+                    .getFirstChildWithName(new QName(APIConstants.KeyManager.SUBSCRIPTION_DATA_STORE));
+            if (subscriptionDataStoreElement != null
+                    && StringUtils.isNotEmpty(subscriptionDataStoreElement.getText())) {
+                eventHubConfigurationDto.setSubscriptionDataStore(subscriptionDataStoreElement.getText().trim());
+            }
+            OMElement dataLoadingPageSizeElement = omElement
+                    .getFirstChildWithName(new QName(APIConstants.KeyManager.DATA_LOADING_PAGE_SIZE));
+            if (dataLoadingPageSizeElement != null && StringUtils.isNotEmpty(dataLoadingPageSizeElement.getText())) {
+                eventHubConfigurationDto.setDataLoadingPageSize(
+                        Integer.parseInt(dataLoadingPageSizeElement.getText().trim()));
+            }
+            OMElement subscriptionDataPreloadElement = omElement
+                    .getFirstChildWithName(new QName(APIConstants.KeyManager.SUBSCRIPTION_DATA_PRELOAD));
+            if (subscriptionDataPreloadElement != null) {
+                eventHubConfigurationDto.setSubscriptionDataPreloadEnabled(
+                        Boolean.parseBoolean(subscriptionDataPreloadElement.getText().trim()));
+            }
             OMElement usernameElement = omElement.getFirstChildWithName(new QName(APIConstants.KeyManager.USERNAME));
             if (usernameElement != null) {
                 eventHubConfigurationDto.setUsername(usernameElement.getText());
@@ -2119,6 +2220,40 @@ public class APIManagerConfiguration {
         if (enableEagerLoading != null){
             gatewayArtifactSynchronizerProperties.setOnDemandLoading(Boolean.parseBoolean(enableEagerLoading.getText()));
         }
+
+        OMElement startupDeploymentParallelismElement = omElement.getFirstChildWithName(
+                new QName(APIConstants.GatewayArtifactSynchronizer.STARTUP_DEPLOYMENT_PARALLELISM));
+        if (startupDeploymentParallelismElement != null) {
+            gatewayArtifactSynchronizerProperties.setStartupDeploymentParallelism(
+                    Integer.parseInt(startupDeploymentParallelismElement.getText()));
+        } else {
+            log.debug("Startup deployment parallelism is not set. Set to default value");
+        }
+
+        OMElement startupDeploymentPageSizeElement = omElement.getFirstChildWithName(
+                new QName(APIConstants.GatewayArtifactSynchronizer.STARTUP_DEPLOYMENT_PAGE_SIZE));
+        if (startupDeploymentPageSizeElement != null) {
+            gatewayArtifactSynchronizerProperties.setStartupDeploymentPageSize(
+                    Integer.parseInt(startupDeploymentPageSizeElement.getText()));
+        } else {
+            log.debug("Startup deployment page size is not set. Set to default value");
+        }
+
+        OMElement enableDeltaSyncElement = omElement.getFirstChildWithName(
+                new QName(APIConstants.GatewayArtifactSynchronizer.ENABLE_DELTA_SYNC));
+        if (enableDeltaSyncElement != null) {
+            gatewayArtifactSynchronizerProperties.setDeltaSyncEnabled(
+                    JavaUtils.isTrueExplicitly(enableDeltaSyncElement.getText()));
+        } else {
+            log.debug("Delta sync is not set. Set to default false");
+        }
+
+        OMElement artifactCacheDirectoryElement = omElement.getFirstChildWithName(
+                new QName(APIConstants.GatewayArtifactSynchronizer.ARTIFACT_CACHE_DIRECTORY));
+        if (artifactCacheDirectoryElement != null) {
+            gatewayArtifactSynchronizerProperties.setArtifactCacheDirectory(
+                    APIUtil.replaceSystemProperty(artifactCacheDirectoryElement.getText()));
+        }
     }
 
     public GatewayArtifactSynchronizerProperties getGatewayArtifactSynchronizerProperties() {
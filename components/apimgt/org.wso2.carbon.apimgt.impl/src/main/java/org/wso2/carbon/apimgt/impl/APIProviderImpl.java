@@ -59,6 +59,7 @@ import org.wso2.carbon.apimgt.impl.dto.WorkflowDTO;
 import org.wso2.carbon.apimgt.impl.dto.*;
 import org.wso2.carbon.apimgt.impl.factory.KeyManagerHolder;
 import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.ArtifactSaver;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.RevisionArtifactBuilder;
 import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.exception.ArtifactSynchronizerException;
 import org.wso2.carbon.apimgt.impl.importexport.APIImportExportException;
 import org.wso2.carbon.apimgt.impl.importexport.ExportFormat;
@@ -135,6 +136,7 @@ class APIProviderImpl extends AbstractAPIManager implements APIProvider {
     protected  ArtifactSaver artifactSaver;
     protected ImportExportAPI importExportAPI;
     protected GatewayArtifactsMgtDAO gatewayArtifactsMgtDAO;
+    protected RevisionArtifactBuilder revisionArtifactBuilder;
     private RecommendationEnvironment recommendationEnvironment;
     String migrationEnabled = System.getProperty(APIConstants.MIGRATE);
     private GlobalMediationPolicyImpl globalMediationPolicyImpl;
@@ -146,6 +148,7 @@ class APIProviderImpl extends AbstractAPIManager implements APIProvider {
         this.artifactSaver = ServiceReferenceHolder.getInstance().getArtifactSaver();
         this.importExportAPI = ServiceReferenceHolder.getInstance().getImportExportService();
         this.gatewayArtifactsMgtDAO = GatewayArtifactsMgtDAO.getInstance();
+        this.revisionArtifactBuilder = RevisionArtifactBuilder.getInstance();
         this.recommendationEnvironment = ServiceReferenceHolder.getInstance().getAPIManagerConfigurationService()
                 .getAPIManagerConfiguration().getApiRecommendationEnvironment();
         globalMediationPolicyImpl = new GlobalMediationPolicyImpl(organization);
@@ -5321,27 +5324,110 @@ class APIProviderImpl extends AbstractAPIManager implements APIProvider {
         apiRevision.setRevisionUUID(revisionUUID);
         apiMgtDAO.addAPIRevision(apiRevision);
         if (importExportAPI != null) {
-            try {
-                File artifact = importExportAPI
-                        .exportAPI(apiRevision.getApiUUID(), revisionUUID, true, ExportFormat.JSON, false, true,
-                                organization);
+            // The artifact is built in the background. Deployments of the revision wait for it.
+            revisionArtifactBuilder.submit(revisionUUID, getRevisionArtifactTask(apiRevision, apiId, organization));
+        }
+        return revisionUUID;
+    }
+
+    private RevisionArtifactBuilder.RevisionArtifactTask getRevisionArtifactTask(APIRevision apiRevision,
+                                                                                 APIIdentifier apiId,
+                                                                                 String organization) {
+
+        return new RevisionArtifactBuilder.RevisionArtifactTask() {
+
+            @Override
+            public File export() throws APIManagementException, APIImportExportException {
+
+                return importExportAPI.exportAPI(apiRevision.getApiUUID(), apiRevision.getRevisionUUID(), true,
+                        ExportFormat.JSON, false, true, organization);
+            }
+
+            @Override
+            public void store(File artifact) throws APIManagementException, ArtifactSynchronizerException {
+
                 // Keeping the organization as tenant domain since MG does not support organization-wise deployment
                 // Artifacts will be deployed in ST for all organizations
-                gatewayArtifactsMgtDAO.addGatewayAPIArtifactAndMetaData(apiRevision.getApiUUID(), apiId.getApiName(),
-                        apiId.getVersion(), apiRevision.getRevisionUUID(), organization, APIConstants.HTTP_PROTOCOL,
-                         artifact);
-                if (artifactSaver != null) {
-                    // Keeping the organization as tenant domain since MG does not support organization-wise deployment
-                    // Artifacts will be deployed in ST for all organizations
-                    artifactSaver.saveArtifact(apiRevision.getApiUUID(), apiId.getApiName(), apiId.getVersion(),
-                            apiRevision.getRevisionUUID(), organization, artifact);
-                }
-            } catch (APIImportExportException | ArtifactSynchronizerException e) {
-                throw new APIManagementException("Error while Store the Revision Artifact",
-                        ExceptionCodes.from(ExceptionCodes.API_REVISION_UUID_NOT_FOUND));
+                storeRevisionArtifact(apiRevision, apiId.getApiName(), apiId.getVersion(), organization,
+                        APIConstants.HTTP_PROTOCOL, artifact);
+            }
+        };
+    }
+
+    /**
+     * Stores the artifact of an API or API Product revision for the gateways. The artifact may be built on another
+     * node than the one which deletes the revision, so it is not stored if the revision was deleted while it was
+     * built, and it is removed again if the revision was deleted while it was stored.
+     *
+     * @param apiRevision  API Revision
+     * @param name         name of the API or API Product
+     * @param version      version of the API or API Product
+     * @param organization organization the artifact is stored for
+     * @param type         type of the artifact
+     * @param artifact     exported revision
+     * @throws APIManagementException        if failed to store the artifact in the database
+     * @throws ArtifactSynchronizerException if failed to save the artifact in the artifact store
+     */
+    private void storeRevisionArtifact(APIRevision apiRevision, String name, String version, String organization,
+                                       String type, File artifact)
+            throws APIManagementException, ArtifactSynchronizerException {
+
+        String revisionUUID = apiRevision.getRevisionUUID();
+        if (apiMgtDAO.getRevisionByRevisionUUID(revisionUUID) == null) {
+            log.info("Revision " + revisionUUID + " was deleted while its artifact was built. Skipping storing "
+                    + "the artifact.");
+            return;
+        }
+        gatewayArtifactsMgtDAO.addGatewayAPIArtifactAndMetaData(apiRevision.getApiUUID(), name, version,
+                revisionUUID, organization, type, artifact);
+        if (artifactSaver != null) {
+            artifactSaver.saveArtifact(apiRevision.getApiUUID(), name, version, revisionUUID, organization,
+                    artifact);
+        }
+        if (apiMgtDAO.getRevisionByRevisionUUID(revisionUUID) == null) {
+            log.info("Revision " + revisionUUID + " was deleted while its artifact was stored. Removing the "
+                    + "artifact.");
+            gatewayArtifactsMgtDAO.deleteGatewayArtifact(apiRevision.getApiUUID(), revisionUUID);
+            if (artifactSaver != null) {
+                artifactSaver.removeArtifact(apiRevision.getApiUUID(), name, version, revisionUUID, organization);
             }
         }
-        return revisionUUID;
+    }
+
+    /**
+     * Waits until the artifact of a revision is built. The artifact is built on this node right away if its build
+     * failed or was lost, or if no build is recorded for it and it is not stored, for example for a revision added
+     * before builds were recorded.
+     *
+     * @param apiRevision API Revision
+     * @param task        builds the artifact of the revision
+     * @throws APIManagementException if the artifact could not be built
+     */
+    private void awaitRevisionArtifact(APIRevision apiRevision, RevisionArtifactBuilder.RevisionArtifactTask task)
+            throws APIManagementException {
+
+        revisionArtifactBuilder.awaitArtifact(apiRevision.getRevisionUUID(), task,
+                () -> gatewayArtifactsMgtDAO.isAPIArtifactExists(apiRevision.getApiUUID(),
+                        apiRevision.getRevisionUUID()));
+    }
+
+    /**
+     * Returns the status of the artifact build of an API or API Product revision. The status is recorded in the
+     * database, so it is the same on all the nodes.
+     *
+     * @param revisionUUID API Revision UUID
+     * @return status of the build, COMPLETED if no build is recorded but the artifact is stored, or null otherwise
+     * @throws APIManagementException if failed to get the status
+     */
+    @Override
+    public String getAPIRevisionArtifactStatus(String revisionUUID) throws APIManagementException {
+
+        RevisionArtifactBuilder.Status status = revisionArtifactBuilder.getStatus(revisionUUID, () -> {
+            APIRevision apiRevision = apiMgtDAO.getRevisionByRevisionUUID(revisionUUID);
+            return apiRevision != null && gatewayArtifactsMgtDAO.isAPIArtifactExists(apiRevision.getApiUUID(),
+                    revisionUUID);
+        });
+        return status != null ? status.name() : null;
     }
 
     /**
@@ -5464,6 +5550,10 @@ class APIProviderImpl extends AbstractAPIManager implements APIProvider {
             throw new APIMgtResourceNotFoundException("Couldn't retrieve existing API Revision with Revision UUID: "
                     + apiRevisionId, ExceptionCodes.from(ExceptionCodes.API_REVISION_NOT_FOUND, apiRevisionId));
         }
+        if (importExportAPI != null) {
+            apiIdentifier.setUuid(apiId);
+            awaitRevisionArtifact(apiRevision, getRevisionArtifactTask(apiRevision, apiIdentifier, organization));
+        }
         List<APIRevisionDeployment> currentApiRevisionDeploymentList =
                 apiMgtDAO.getAPIRevisionDeploymentsByApiUUID(apiId);
         APIGatewayManager gatewayManager = APIGatewayManager.getInstance();
@@ -5729,6 +5819,7 @@ class APIProviderImpl extends AbstractAPIManager implements APIProvider {
                     ERROR_DELETING_API_REVISION,apiRevision.getApiUUID()));
         }
         apiMgtDAO.deleteAPIRevision(apiRevision);
+        revisionArtifactBuilder.remove(apiRevision.getRevisionUUID());
         gatewayArtifactsMgtDAO.deleteGatewayArtifact(apiRevision.getApiUUID(), apiRevision.getRevisionUUID());
         if (artifactSaver != null) {
             try {
@@ -5773,25 +5864,33 @@ class APIProviderImpl extends AbstractAPIManager implements APIProvider {
         }
         apiRevision.setRevisionUUID(revisionUUID);
         apiMgtDAO.addAPIProductRevision(apiRevision);
-        try {
-            File artifact = importExportAPI
-                    .exportAPIProduct(apiRevision.getApiUUID(), revisionUUID, true, ExportFormat.JSON,
-                            false, true, organization);
-            gatewayArtifactsMgtDAO
-                    .addGatewayAPIArtifactAndMetaData(apiRevision.getApiUUID(),apiProductIdentifier.getName(),
-                    apiProductIdentifier.getVersion(), apiRevision.getRevisionUUID(), tenantDomain,
-                            APIConstants.API_PRODUCT, artifact);
-            if (artifactSaver != null) {
-                artifactSaver.saveArtifact(apiRevision.getApiUUID(), apiProductIdentifier.getName(),
-                        apiProductIdentifier.getVersion(), apiRevision.getRevisionUUID(), tenantDomain, artifact);
-            }
-        } catch (APIImportExportException | ArtifactSynchronizerException e) {
-            throw new APIManagementException("Error while Store the Revision Artifact",
-                    ExceptionCodes.from(ExceptionCodes.API_REVISION_UUID_NOT_FOUND));
-        }
+        // The artifact is built in the background. Deployments of the revision wait for it.
+        revisionArtifactBuilder.submit(revisionUUID,
+                getProductRevisionArtifactTask(apiRevision, apiProductIdentifier, organization));
         return revisionUUID;
     }
 
+    private RevisionArtifactBuilder.RevisionArtifactTask getProductRevisionArtifactTask(
+            APIRevision apiRevision, APIProductIdentifier apiProductIdentifier, String organization) {
+
+        return new RevisionArtifactBuilder.RevisionArtifactTask() {
+
+            @Override
+            public File export() throws APIManagementException, APIImportExportException {
+
+                return importExportAPI.exportAPIProduct(apiRevision.getApiUUID(), apiRevision.getRevisionUUID(),
+                        true, ExportFormat.JSON, false, true, organization);
+            }
+
+            @Override
+            public void store(File artifact) throws APIManagementException, ArtifactSynchronizerException {
+
+                storeRevisionArtifact(apiRevision, apiProductIdentifier.getName(), apiProductIdentifier.getVersion(),
+                        tenantDomain, APIConstants.API_PRODUCT, artifact);
+            }
+        };
+    }
+
     @Override
     public void deployAPIProductRevision(String apiProductId, String apiRevisionId,
                                          List<APIRevisionDeployment> apiRevisionDeployments)
@@ -5806,6 +5905,9 @@ class APIProviderImpl extends AbstractAPIManager implements APIProvider {
             throw new APIMgtResourceNotFoundException("Couldn't retrieve existing API Revision with Revision UUID: "
                     + apiRevisionId, ExceptionCodes.from(ExceptionCodes.API_REVISION_NOT_FOUND, apiRevisionId));
         }
+        apiProductIdentifier.setUuid(apiProductId);
+        awaitRevisionArtifact(apiRevision,
+                getProductRevisionArtifactTask(apiRevision, apiProductIdentifier, tenantDomain));
         APIProduct product = getAPIProductbyUUID(apiRevisionId, tenantDomain);
         product.setUuid(apiProductId);
         List<APIRevisionDeployment> currentApiRevisionDeploymentList =
@@ -5957,6 +6059,7 @@ class APIProviderImpl extends AbstractAPIManager implements APIProvider {
                     ERROR_DELETING_API_REVISION,apiRevision.getApiUUID()));
         }
         apiMgtDAO.deleteAPIProductRevision(apiRevision);
+        revisionArtifactBuilder.remove(apiRevision.getRevisionUUID());
         gatewayArtifactsMgtDAO.deleteGatewayArtifact(apiRevision.getApiUUID(), apiRevision.getRevisionUUID());
         if (artifactSaver != null) {
             try {
@@ -0,0 +1,238 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.caching;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+import org.wso2.carbon.apimgt.api.model.Tier;
+import org.wso2.carbon.apimgt.api.model.policy.PolicyConstants;
+import org.wso2.carbon.apimgt.impl.notifier.events.PolicyEvent;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tiers of the throttle policies of a tenant, cached per policy level. A snapshot of the tiers of a level is loaded
+ * with the policies of the level, and is never modified afterwards. Callers receive copies of the tiers of a
+ * snapshot, as they are free to modify the returned tiers.
+ * <p>
+ * Each tenant and policy level has a version, which is incremented when the policies of the level change. A snapshot
+ * is only served while the version it was loaded under is current, so that a snapshot which was being loaded while
+ * the policies changed is never served.
+ */
+public final class TierSnapshotCache {
+
+    private static final Log log = LogFactory.getLog(TierSnapshotCache.class);
+    // Snapshots are reloaded after this time even if they are not invalidated, in order to pick up changes which are
+    // not notified through policy events, such as the tenant configuration of the unlimited tier.
+    private static final long SNAPSHOT_EXPIRY_TIME = TimeUnit.MINUTES.toMillis(15);
+    private static final String[] POLICY_LEVELS = {PolicyConstants.POLICY_LEVEL_API,
+            PolicyConstants.POLICY_LEVEL_APP, PolicyConstants.POLICY_LEVEL_SUB};
+    private static final TierSnapshotCache instance = new TierSnapshotCache();
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder invalidationCount = new LongAdder();
+
+    private TierSnapshotCache() {
+
+    }
+
+    public static TierSnapshotCache getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Loads the tiers of a policy level of a tenant from the database.
+     */
+    public interface TierLoader {
+
+        Map<String, Tier> load() throws APIManagementException;
+    }
+
+    /**
+     * Returns the tiers of a policy level of a tenant, loading them if they are not cached.
+     *
+     * @param policyLevel policy level of the tiers
+     * @param tenantId    tenant id
+     * @param loader      loads the tiers if they are not cached
+     * @return tier name to tier mappings, which can be modified by the caller
+     * @throws APIManagementException if the tiers are not cached, and failed to load them
+     */
+    public Map<String, Tier> getTiers(String policyLevel, int tenantId, TierLoader loader)
+            throws APIManagementException {
+
+        String key = getKey(policyLevel, tenantId);
+        AtomicLong version = versions.computeIfAbsent(key, k -> new AtomicLong());
+        long currentVersion = version.get();
+        Snapshot snapshot = snapshots.get(key);
+        if (snapshot != null && snapshot.version == currentVersion && !snapshot.isExpired()) {
+            hitCount.increment();
+        } else {
+            missCount.increment();
+            if (log.isDebugEnabled()) {
+                log.debug("Loading " + policyLevel + " level tiers of tenant " + tenantId);
+            }
+            Snapshot loaded = new Snapshot(loader.load(), currentVersion);
+            snapshots.compute(key, (k, existing) ->
+                    existing != null && existing.version > loaded.version ? existing : loaded);
+            snapshot = loaded;
+        }
+        return snapshot.copyTiers();
+    }
+
+    /**
+     * Invalidates the tiers of a policy level of a tenant.
+     *
+     * @param policyLevel policy level of the changed policy
+     * @param tenantId    tenant id
+     */
+    public void invalidate(String policyLevel, int tenantId) {
+
+        String key = getKey(policyLevel, tenantId);
+        versions.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        snapshots.remove(key);
+        invalidationCount.increment();
+        if (log.isDebugEnabled()) {
+            log.debug("Invalidated " + policyLevel + " level tiers of tenant " + tenantId);
+        }
+    }
+
+    /**
+     * Invalidates the tiers of the policy level of the policy changed by a policy event. Events of global policies
+     * do not affect tiers, and are ignored.
+     *
+     * @param event policy event
+     */
+    public void invalidate(PolicyEvent event) {
+
+        if (event.getPolicyType() == null) {
+            return;
+        }
+        switch (event.getPolicyType()) {
+            case API:
+                invalidate(PolicyConstants.POLICY_LEVEL_API, event.getTenantId());
+                break;
+            case APPLICATION:
+                invalidate(PolicyConstants.POLICY_LEVEL_APP, event.getTenantId());
+                break;
+            case SUBSCRIPTION:
+                invalidate(PolicyConstants.POLICY_LEVEL_SUB, event.getTenantId());
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Invalidates the tiers of all policy levels of a tenant.
+     *
+     * @param tenantId tenant id
+     */
+    public void invalidate(int tenantId) {
+
+        for (String policyLevel : POLICY_LEVELS) {
+            invalidate(policyLevel, tenantId);
+        }
+    }
+
+    /**
+     * Invalidates the tiers of all tenants.
+     */
+    public void invalidateAll() {
+
+        for (AtomicLong version : versions.values()) {
+            version.incrementAndGet();
+        }
+        snapshots.clear();
+        invalidationCount.increment();
+    }
+
+    public long getHitCount() {
+
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+
+        return missCount.sum();
+    }
+
+    public long getInvalidationCount() {
+
+        return invalidationCount.sum();
+    }
+
+    /**
+     * Returns the number of cached snapshots, one per policy level of a tenant.
+     */
+    public int getSize() {
+
+        return snapshots.size();
+    }
+
+    @Override
+    public String toString() {
+
+        return "TierSnapshotCache{size=" + getSize() + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+                + ", invalidations=" + getInvalidationCount() + "}";
+    }
+
+    private static String getKey(String policyLevel, int tenantId) {
+
+        return tenantId + ":" + policyLevel.toLowerCase(Locale.ENGLISH);
+    }
+
+    private static final class Snapshot {
+
+        private final Map<String, Tier> tiers;
+        private final long version;
+        private final long loadedTime = System.currentTimeMillis();
+
+        Snapshot(Map<String, Tier> tiers, long version) {
+
+            this.tiers = Collections.unmodifiableMap(new TreeMap<>(tiers));
+            this.version = version;
+        }
+
+        boolean isExpired() {
+
+            return System.currentTimeMillis() - loadedTime > SNAPSHOT_EXPIRY_TIME;
+        }
+
+        Map<String, Tier> copyTiers() {
+
+            Map<String, Tier> copy = new TreeMap<>();
+            for (Map.Entry<String, Tier> tier : tiers.entrySet()) {
+                copy.put(tier.getKey(), new Tier(tier.getValue()));
+            }
+            return copy;
+        }
+    }
+}
@@ -674,7 +674,8 @@ public class ApiMgtDAO {
             preparedStForUpdate = conn.prepareStatement(sqlQuery);
             preparedStForUpdate.setString(1, requestedThrottlingTier);
             preparedStForUpdate.setString(2, status);
-            preparedStForUpdate.setString(3, inputSubscriptionUUId);
+            preparedStForUpdate.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+            preparedStForUpdate.setString(4, inputSubscriptionUUId);
             preparedStForUpdate.executeUpdate();
 
             // finally commit transaction
@@ -2263,7 +2264,8 @@ public class ApiMgtDAO {
 
             ps = conn.prepareStatement(sqlQuery);
             ps.setString(1, status);
-            ps.setInt(2, subscriptionId);
+            ps.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
+            ps.setInt(3, subscriptionId);
             ps.execute();
 
             //Commit transaction
@@ -2302,7 +2304,8 @@ public class ApiMgtDAO {
                 ps.setString(2, subscribedAPI.getRequestedTier().getName());
             }
             ps.setString(3, status);
-            ps.setInt(4, subscriptionId);
+            ps.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+            ps.setInt(5, subscriptionId);
             ps.execute();
 
             //Commit transaction
@@ -3315,6 +3318,55 @@ public class ApiMgtDAO {
         return avrRating;
     }
 
+    /**
+     * Returns the average ratings of the given APIs, retrieved with a query per chunk of
+     * {@link SQLConstants#API_ID_CHUNK_SIZE} APIs. The last chunk is padded with its last UUID, so that every query
+     * binds the same number of parameters and the statement text stays the same. The ratings are rounded the same
+     * way as by {@link #getAverageRating(String)}.
+     *
+     * @param uuids UUIDs of the APIs
+     * @return API UUID to average rating mappings. The rating of an API which is not found is
+     * {@link Float#NEGATIVE_INFINITY}
+     * @throws APIManagementException if failed to retrieve the ratings
+     */
+    public Map<String, Float> getAverageRatings(List<String> uuids) throws APIManagementException {
+
+        Map<String, Float> ratings = new HashMap<>();
+        if (uuids.isEmpty()) {
+            return ratings;
+        }
+        int chunkSize = SQLConstants.API_ID_CHUNK_SIZE;
+        String sqlQuery = SQLConstants.GET_API_RATING_TOTALS_BY_UUIDS_SQL.replaceAll("_API_UUIDS_",
+                String.join(",", Collections.nCopies(chunkSize, "?")));
+        try (Connection conn = APIMgtDBUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sqlQuery)) {
+            for (int chunkStart = 0; chunkStart < uuids.size(); chunkStart += chunkSize) {
+                List<String> chunk = uuids.subList(chunkStart, Math.min(chunkStart + chunkSize, uuids.size()));
+                for (int index = 0; index < chunkSize; index++) {
+                    ps.setString(index + 1, chunk.get(Math.min(index, chunk.size() - 1)));
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        long count = rs.getLong("RATING_COUNT");
+                        float avrRating = count == 0 ? 0 : (float) ((double) rs.getLong("RATING_SUM") / count);
+                        BigDecimal decimal = new BigDecimal(avrRating);
+                        ratings.put(rs.getString("API_UUID"),
+                                Float.parseFloat(decimal.setScale(1, BigDecimal.ROUND_UP).toString()));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            handleException("Failed to get average ratings", e);
+        }
+        for (String uuid : uuids) {
+            if (!ratings.containsKey(uuid)) {
+                log.error("Could not load API record for API with UUID: " + uuid);
+                ratings.put(uuid, Float.NEGATIVE_INFINITY);
+            }
+        }
+        return ratings;
+    }
+
     /**
      * @param uuid API uuid
      * @throws APIManagementException if failed to add Application
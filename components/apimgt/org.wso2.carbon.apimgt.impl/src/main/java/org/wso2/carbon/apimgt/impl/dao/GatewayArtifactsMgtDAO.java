@@ -8,6 +8,7 @@ import org.wso2.carbon.apimgt.api.model.APIRevisionDeployment;
 import org.wso2.carbon.apimgt.impl.dao.constants.SQLConstants;
 import org.wso2.carbon.apimgt.impl.dto.APIRuntimeArtifactDto;
 import org.wso2.carbon.apimgt.impl.dto.APIArtifactPropertyValues;
+import org.wso2.carbon.apimgt.impl.dto.RevisionArtifactBuildDTO;
 import org.wso2.carbon.apimgt.impl.utils.APIMgtDBUtil;
 import org.wso2.carbon.apimgt.impl.utils.GatewayArtifactsMgtDBUtil;
 import org.wso2.carbon.apimgt.impl.utils.VHostUtils;
@@ -305,6 +306,160 @@ public class GatewayArtifactsMgtDAO {
         }
     }
 
+    /**
+     * Check whether the artifact of an API revision exists in the db
+     *
+     * @param apiId    UUID of the API
+     * @param revision UUID of the revision
+     * @return true if the artifact exists
+     * @throws APIManagementException if an error occurs
+     */
+    public boolean isAPIArtifactExists(String apiId, String revision) throws APIManagementException {
+
+        try (Connection connection = GatewayArtifactsMgtDBUtil.getArtifactSynchronizerConnection()) {
+            return isAPIArtifactExists(connection, apiId, revision);
+        } catch (SQLException e) {
+            handleException("Failed to check the existence of the Gateway Artifact of " + apiId, e);
+        }
+        return false;
+    }
+
+    /**
+     * Retrieves the recorded status of the artifact build of a revision.
+     *
+     * @param revision UUID of the revision
+     * @return the recorded build, or null if no build is recorded
+     * @throws APIManagementException if an error occurs
+     */
+    public RevisionArtifactBuildDTO getRevisionArtifactBuild(String revision) throws APIManagementException {
+
+        try (Connection connection = GatewayArtifactsMgtDBUtil.getArtifactSynchronizerConnection();
+             PreparedStatement statement = connection.prepareStatement(SQLConstants.GET_REVISION_ARTIFACT_BUILD)) {
+            statement.setString(1, revision);
+            try (ResultSet rs = statement.executeQuery()) {
+                if (rs.next()) {
+                    return new RevisionArtifactBuildDTO(rs.getString("BUILD_ID"), rs.getString("STATUS"),
+                            rs.getLong("UPDATED_TIME"));
+                }
+            }
+        } catch (SQLException e) {
+            handleException("Failed to retrieve the artifact build of revision " + revision, e);
+        }
+        return null;
+    }
+
+    /**
+     * Records a new artifact build of a revision in place of the given recorded build. The build is recorded only if
+     * the recorded build was not claimed by another build in the meantime, so that a single node builds the artifact.
+     *
+     * @param revision UUID of the revision
+     * @param current  the recorded build, or null if no build is recorded
+     * @param buildId  ID of the new build
+     * @param status   status of the new build
+     * @param time     time the new build is recorded at
+     * @return true if the build was recorded, or false if the recorded build was claimed by another build
+     * @throws APIManagementException if an error occurs
+     */
+    public boolean replaceRevisionArtifactBuild(String revision, RevisionArtifactBuildDTO current, String buildId,
+                                                String status, long time) throws APIManagementException {
+
+        try (Connection connection = GatewayArtifactsMgtDBUtil.getArtifactSynchronizerConnection()) {
+            connection.setAutoCommit(false);
+            if (current != null) {
+                try (PreparedStatement statement =
+                             connection.prepareStatement(SQLConstants.REPLACE_REVISION_ARTIFACT_BUILD)) {
+                    statement.setString(1, buildId);
+                    statement.setString(2, status);
+                    statement.setLong(3, time);
+                    statement.setString(4, revision);
+                    statement.setString(5, current.getBuildId());
+                    boolean replaced = statement.executeUpdate() == 1;
+                    connection.commit();
+                    return replaced;
+                }
+            }
+            try (PreparedStatement statement = connection.prepareStatement(SQLConstants.ADD_REVISION_ARTIFACT_BUILD)) {
+                statement.setString(1, revision);
+                statement.setString(2, buildId);
+                statement.setString(3, status);
+                statement.setLong(4, time);
+                statement.executeUpdate();
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                connection.rollback();
+                if (getRevisionArtifactBuild(revision) != null) {
+                    // Recorded by another node in the meantime
+                    return false;
+                }
+                throw e;
+            }
+        } catch (SQLException e) {
+            handleException("Failed to record the artifact build of revision " + revision, e);
+        }
+        return false;
+    }
+
+    /**
+     * Updates the status and the updated time of the recorded artifact build of a revision, if the build is still the
+     * recorded one. Nothing is updated if another build claimed the revision, or if no build is recorded, for example
+     * because the revision was deleted.
+     *
+     * @param revision UUID of the revision
+     * @param buildId  ID of the build
+     * @param status   status of the build
+     * @param time     time of the update
+     * @return true if the build was updated, or false if it is no longer the recorded build of the revision
+     * @throws APIManagementException if an error occurs
+     */
+    public boolean updateRevisionArtifactBuildStatus(String revision, String buildId, String status, long time)
+            throws APIManagementException {
+
+        try (Connection connection = GatewayArtifactsMgtDBUtil.getArtifactSynchronizerConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement =
+                         connection.prepareStatement(SQLConstants.UPDATE_REVISION_ARTIFACT_BUILD_STATUS)) {
+                statement.setString(1, status);
+                statement.setLong(2, time);
+                statement.setString(3, revision);
+                statement.setString(4, buildId);
+                boolean updated = statement.executeUpdate() == 1;
+                connection.commit();
+                return updated;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            handleException("Failed to update the artifact build of revision " + revision, e);
+        }
+        return false;
+    }
+
+    /**
+     * Deletes the recorded artifact build of a revision.
+     *
+     * @param revision UUID of the revision
+     * @throws APIManagementException if an error occurs
+     */
+    public void deleteRevisionArtifactBuild(String revision) throws APIManagementException {
+
+        try (Connection connection = GatewayArtifactsMgtDBUtil.getArtifactSynchronizerConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement =
+                         connection.prepareStatement(SQLConstants.DELETE_REVISION_ARTIFACT_BUILD)) {
+                statement.setString(1, revision);
+                statement.executeUpdate();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            handleException("Failed to delete the artifact build of revision " + revision, e);
+        }
+    }
+
     public void deleteGatewayArtifact(String apiId, String revision) throws APIManagementException {
 
         String deleteGWPublishedArtifacts = SQLConstants.DELETE_FROM_AM_GW_API_ARTIFACTS_WHERE_API_ID_AND_REVISION_ID;
@@ -736,6 +891,67 @@ public class GatewayArtifactsMgtDAO {
         return apiRuntimeArtifactDtoList;
     }
 
+    /**
+     * Retrieves the API revisions deployed in the given labels without their artifacts. This is used to find the
+     * revisions a gateway has to download during a delta sync.
+     *
+     * @param labels       gateway labels
+     * @param tenantDomain tenant domain of the APIs
+     * @return runtime artifact details without the artifact content
+     * @throws APIManagementException if failed to retrieve the details
+     */
+    public List<APIRuntimeArtifactDto> retrieveGatewayArtifactSummariesByLabel(String[] labels, String tenantDomain)
+            throws APIManagementException {
+
+        String query = SQLConstants.RETRIEVE_ARTIFACT_SUMMARIES_BY_LABEL;
+        query = query.replaceAll(SQLConstants.GATEWAY_LABEL_REGEX,
+                String.join(",", Collections.nCopies(labels.length, "?")));
+        List<APIRuntimeArtifactDto> apiRuntimeArtifactDtoList = new ArrayList<>();
+        try (Connection connection = GatewayArtifactsMgtDBUtil.getArtifactSynchronizerConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+            int index = 1;
+            for (String label : labels) {
+                preparedStatement.setString(index, label);
+                index++;
+            }
+            preparedStatement.setString(index, tenantDomain);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    String apiId = resultSet.getString("API_ID");
+                    String label = resultSet.getString("LABEL");
+                    try {
+                        APIRuntimeArtifactDto apiRuntimeArtifactDto = new APIRuntimeArtifactDto();
+                        apiRuntimeArtifactDto.setTenantDomain(resultSet.getString("TENANT_DOMAIN"));
+                        apiRuntimeArtifactDto.setApiId(apiId);
+                        apiRuntimeArtifactDto.setLabel(label);
+                        apiRuntimeArtifactDto.setVhost(VHostUtils.resolveIfNullToDefaultVhost(label,
+                                resultSet.getString("VHOST")));
+                        apiRuntimeArtifactDto.setName(resultSet.getString("API_NAME"));
+                        apiRuntimeArtifactDto.setVersion(resultSet.getString("API_VERSION"));
+                        apiRuntimeArtifactDto.setProvider(resultSet.getString("API_PROVIDER"));
+                        apiRuntimeArtifactDto.setRevision(resultSet.getString("REVISION_ID"));
+                        apiRuntimeArtifactDto.setType(resultSet.getString("API_TYPE"));
+                        apiRuntimeArtifactDto.setContext(resultSet.getString("CONTEXT"));
+                        Timestamp deployedTime = resultSet.getTimestamp("DEPLOYED_TIME");
+                        if (deployedTime != null) {
+                            apiRuntimeArtifactDto.setDeployedTimeStamp(deployedTime.getTime());
+                        }
+                        apiRuntimeArtifactDtoList.add(apiRuntimeArtifactDto);
+                    } catch (APIManagementException e) {
+                        // handle exception inside the loop and continue with other API artifacts
+                        log.error(String.format("Error resolving vhost while retrieving runtime artifact details "
+                                + "for API %s, gateway environment \"%s\", tenant: \"%s\". Skipping the API.",
+                                apiId, label, tenantDomain), e);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            handleException("Failed to retrieve Gateway Artifact details for labels : "
+                    + StringUtils.join(",", labels), e);
+        }
+        return apiRuntimeArtifactDtoList;
+    }
+
     public List<APIRuntimeArtifactDto> retrieveAllGatewayArtifactsByLabel(String[] labels)
             throws APIManagementException {
 
@@ -55,6 +55,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.List;
@@ -492,6 +493,51 @@ public class SubscriptionValidationDAO {
         }
     }
 
+    /**
+     * Retrieves a page of subscriptions ordered by subscription id.
+     *
+     * @param organization organization of the subscriptions, or null to retrieve the subscriptions of all
+     *                     organizations
+     * @param after        id of the last subscription of the previous page, or 0 to retrieve the first page
+     * @param limit        maximum number of subscriptions to retrieve, or 0 to retrieve all of them
+     * @param updatedAfter if not null, only the subscriptions created or updated after this time are retrieved
+     * @return subscriptions of the page
+     * @throws APIManagementException if failed to retrieve the subscriptions
+     */
+    public List<Subscription> getSubscriptions(String organization, int after, int limit, Timestamp updatedAfter)
+            throws APIManagementException {
+
+        String sql;
+        if (organization == null) {
+            sql = updatedAfter == null ? SubscriptionValidationSQLConstants.GET_ALL_SUBSCRIPTIONS_PAGE_SQL :
+                    SubscriptionValidationSQLConstants.GET_ALL_SUBSCRIPTIONS_UPDATED_AFTER_PAGE_SQL;
+        } else {
+            sql = updatedAfter == null ? SubscriptionValidationSQLConstants.GET_ORGANIZATION_SUBSCRIPTIONS_PAGE_SQL :
+                    SubscriptionValidationSQLConstants.GET_ORGANIZATION_SUBSCRIPTIONS_UPDATED_AFTER_PAGE_SQL;
+        }
+        List<Subscription> subscriptions = new ArrayList<>();
+        try (Connection conn = APIMgtDBUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int index = 1;
+            if (organization != null) {
+                ps.setString(index++, organization);
+            }
+            ps.setInt(index++, after);
+            if (updatedAfter != null) {
+                ps.setTimestamp(index++, updatedAfter);
+                ps.setTimestamp(index, updatedAfter);
+            }
+            ps.setMaxRows(limit);
+            try (ResultSet resultSet = ps.executeQuery()) {
+                populateSubscriptionsList(subscriptions, resultSet);
+            }
+        } catch (SQLException e) {
+            throw new APIManagementException("Error in loading Subscriptions of organization : " + organization
+                    + " after subscription : " + after, e);
+        }
+        return subscriptions;
+    }
+
     /*
      * This method can be used to retrieve all the Applications of a given tenant in the database
      * @param tenantId : tenant Id
@@ -580,6 +626,110 @@ public class SubscriptionValidationDAO {
     }
 
 
+    /**
+     * Retrieves a page of application ids in ascending order.
+     *
+     * @param organization organization of the applications, or null to retrieve the applications of all
+     *                     organizations
+     * @param after        last application id of the previous page, or 0 to retrieve the first page
+     * @param limit        maximum number of application ids to retrieve, or 0 to retrieve all of them
+     * @return application ids of the page
+     * @throws APIManagementException if failed to retrieve the application ids
+     */
+    public List<Integer> getApplicationIds(String organization, int after, int limit) throws APIManagementException {
+
+        String sql = organization == null ? SubscriptionValidationSQLConstants.GET_ALL_APPLICATION_IDS_PAGE_SQL :
+                SubscriptionValidationSQLConstants.GET_ORGANIZATION_APPLICATION_IDS_PAGE_SQL;
+        List<Integer> applicationIds = new ArrayList<>();
+        try (Connection conn = APIMgtDBUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int index = 1;
+            if (organization != null) {
+                ps.setString(index++, organization);
+            }
+            ps.setInt(index, after);
+            ps.setMaxRows(limit);
+            try (ResultSet resultSet = ps.executeQuery()) {
+                while (resultSet.next()) {
+                    applicationIds.add(resultSet.getInt("APPLICATION_ID"));
+                }
+            }
+        } catch (SQLException e) {
+            throw new APIManagementException("Error in loading Application ids of organization : " + organization
+                    + " after application : " + after, e);
+        }
+        return applicationIds;
+    }
+
+    /**
+     * Retrieves the applications whose ids are within the given range.
+     *
+     * @param organization organization of the applications, or null to retrieve the applications of all
+     *                     organizations
+     * @param fromId       lower bound of the application ids, exclusive
+     * @param toId         upper bound of the application ids, inclusive
+     * @return applications within the range
+     * @throws APIManagementException if failed to retrieve the applications
+     */
+    public List<Application> getApplications(String organization, int fromId, int toId)
+            throws APIManagementException {
+
+        String sql = organization == null ? SubscriptionValidationSQLConstants.GET_APPLICATIONS_IN_ID_RANGE_SQL :
+                SubscriptionValidationSQLConstants.GET_ORGANIZATION_APPLICATIONS_IN_ID_RANGE_SQL;
+        List<Application> applications = new ArrayList<>();
+        try (Connection conn = APIMgtDBUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int index = 1;
+            if (organization != null) {
+                ps.setString(index++, organization);
+            }
+            ps.setInt(index++, fromId);
+            ps.setInt(index, toId);
+            try (ResultSet resultSet = ps.executeQuery()) {
+                addToApplicationList(applications, resultSet);
+            }
+        } catch (SQLException e) {
+            throw new APIManagementException("Error in loading Applications of organization : " + organization
+                    + " between applications : " + fromId + " and " + toId, e);
+        }
+        return applications;
+    }
+
+    /**
+     * Retrieves the key mappings of the applications whose ids are within the given range.
+     *
+     * @param organization organization of the applications, or null to retrieve the key mappings of all
+     *                     organizations
+     * @param fromId       lower bound of the application ids, exclusive
+     * @param toId         upper bound of the application ids, inclusive
+     * @return key mappings of the applications within the range
+     * @throws APIManagementException if failed to retrieve the key mappings
+     */
+    public List<ApplicationKeyMapping> getApplicationKeyMappings(String organization, int fromId, int toId)
+            throws APIManagementException {
+
+        String sql = organization == null ?
+                SubscriptionValidationSQLConstants.GET_AM_KEY_MAPPINGS_IN_APPLICATION_ID_RANGE_SQL :
+                SubscriptionValidationSQLConstants.GET_ORGANIZATION_AM_KEY_MAPPINGS_IN_APPLICATION_ID_RANGE_SQL;
+        List<ApplicationKeyMapping> keyMappings = new ArrayList<>();
+        try (Connection conn = APIMgtDBUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int index = 1;
+            if (organization != null) {
+                ps.setString(index++, organization);
+            }
+            ps.setInt(index++, fromId);
+            ps.setInt(index, toId);
+            try (ResultSet resultSet = ps.executeQuery()) {
+                populateApplicationKeyMappingsList(keyMappings, resultSet);
+            }
+        } catch (SQLException e) {
+            throw new APIManagementException("Error in loading Application key mappings of organization : "
+                    + organization + " between applications : " + fromId + " and " + toId, e);
+        }
+        return keyMappings;
+    }
+
     private void populateApplicationKeyMappingsList(List<ApplicationKeyMapping> keyMappings, ResultSet resultSet)
             throws SQLException {
 
@@ -24,6 +24,7 @@ import org.wso2.carbon.apimgt.api.APIManagementException;
 import org.wso2.carbon.apimgt.api.model.webhooks.Subscription;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.dao.constants.SQLConstants;
+import org.wso2.carbon.apimgt.impl.dto.WebhooksDeliveryStatusDTO;
 import org.wso2.carbon.apimgt.impl.utils.APIMgtDBUtil;
 import org.wso2.carbon.core.util.CryptoException;
 import org.wso2.carbon.core.util.CryptoUtil;
@@ -347,6 +348,45 @@ public class WebhooksDAO {
         }
     }
 
+    /*
+     * This method can be used to update the delivery data of several webhooks callback urls to the database in a
+     * single transaction
+     *
+     * @param deliveryStatuses delivery statuses of the callback urls
+     * */
+    public void updateDeliveryStatuses(List<WebhooksDeliveryStatusDTO> deliveryStatuses)
+            throws APIManagementException {
+
+        try (Connection conn = APIMgtDBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement prepareStmt = conn
+                    .prepareStatement(SQLConstants.WebhooksSqlConstants.UPDATE_DELIVERY_STATE)) {
+                long currentTime = System.currentTimeMillis();
+                for (WebhooksDeliveryStatusDTO deliveryStatus : deliveryStatuses) {
+                    long deliveredAt = deliveryStatus.getDeliveredAt() > 0 ? deliveryStatus.getDeliveredAt()
+                            : currentTime;
+                    prepareStmt.setTimestamp(1, new Timestamp(deliveredAt));
+                    prepareStmt.setInt(2, deliveryStatus.getStatus());
+                    prepareStmt.setString(3, deliveryStatus.getApiUUID());
+                    prepareStmt.setString(4, deliveryStatus.getAppID());
+                    prepareStmt.setString(5, deliveryStatus.getTenantDomain());
+                    prepareStmt.setString(6, deliveryStatus.getCallback());
+                    prepareStmt.setString(7, deliveryStatus.getTopic());
+                    prepareStmt.addBatch();
+                }
+                prepareStmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                handleConnectionRollBack(conn);
+                throw new APIManagementException("Error while storing webhooks delivery status data of "
+                        + deliveryStatuses.size() + " callbacks", e);
+            }
+        } catch (SQLException e) {
+            throw new APIManagementException("Error while storing webhooks delivery status data of "
+                    + deliveryStatuses.size() + " callbacks", e);
+        }
+    }
+
     private void deleteSubscription(Connection conn, Properties properties) throws APIManagementException {
         try (PreparedStatement preparedStatement = conn
                 .prepareStatement(SQLConstants.WebhooksSqlConstants.DELETE_IF_EXISTS_SUBSCRIBER)) {
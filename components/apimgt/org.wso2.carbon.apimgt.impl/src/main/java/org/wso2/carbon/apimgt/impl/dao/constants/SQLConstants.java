@@ -266,6 +266,7 @@ public class SQLConstants {
             " UPDATE AM_SUBSCRIPTION " +
             " SET TIER_ID_PENDING = ? " +
             " , SUB_STATUS = ? " +
+            " , UPDATED_TIME = ? " +
             " WHERE UUID = ?";
 
     public static final String GET_SUBSCRIPTION_UUID_SQL =
@@ -744,6 +745,7 @@ public class SQLConstants {
     public static final String UPDATE_SUBSCRIPTION_STATUS_SQL =
             " UPDATE AM_SUBSCRIPTION " +
             " SET SUB_STATUS = ? " +
+            " , UPDATED_TIME = ? " +
             " WHERE SUBSCRIPTION_ID = ?";
 
     public static final String UPDATE_SUBSCRIPTION_STATUS_AND_TIER_SQL =
@@ -751,6 +753,7 @@ public class SQLConstants {
                     " SET TIER_ID_PENDING = ? " +
                     " , TIER_ID = ? " +
                     " , SUB_STATUS = ? " +
+                    " , UPDATED_TIME = ? " +
                     " WHERE SUBSCRIPTION_ID = ?";
 
     public static final String GET_REGISTRATION_APPROVAL_STATUS_SQL =
@@ -994,6 +997,16 @@ public class SQLConstants {
             " GROUP BY " +
             "   API_ID ";
 
+    public static final String GET_API_RATING_TOTALS_BY_UUIDS_SQL =
+            " SELECT " +
+            "   API.API_UUID, SUM(RATINGS.RATING) AS RATING_SUM, COUNT(RATINGS.RATING) AS RATING_COUNT " +
+            " FROM " +
+            "   AM_API API LEFT JOIN AM_API_RATINGS RATINGS ON API.API_ID = RATINGS.API_ID " +
+            " WHERE " +
+            "   API.API_UUID IN (_API_UUIDS_) " +
+            " GROUP BY " +
+            "   API.API_UUID ";
+
     public static final String APP_APPLICATION_SQL =
             " INSERT INTO AM_APPLICATION (NAME, SUBSCRIBER_ID, APPLICATION_TIER, " +
             "   CALLBACK_URL, DESCRIPTION, APPLICATION_STATUS, GROUP_ID, CREATED_BY, CREATED_TIME, UPDATED_TIME, " +
@@ -2835,6 +2848,16 @@ public class SQLConstants {
 
     public static final String CHECK_ARTIFACT_EXISTS = "SELECT 1 FROM AM_GW_API_ARTIFACTS" +
             " WHERE API_ID = ? AND REVISION_ID = ?";
+    public static final String GET_REVISION_ARTIFACT_BUILD = "SELECT BUILD_ID, STATUS, UPDATED_TIME FROM " +
+            "AM_GW_REVISION_ARTIFACT_BUILD WHERE REVISION_ID = ?";
+    public static final String ADD_REVISION_ARTIFACT_BUILD = "INSERT INTO AM_GW_REVISION_ARTIFACT_BUILD " +
+            "(REVISION_ID, BUILD_ID, STATUS, UPDATED_TIME) VALUES (?,?,?,?)";
+    public static final String REPLACE_REVISION_ARTIFACT_BUILD = "UPDATE AM_GW_REVISION_ARTIFACT_BUILD SET " +
+            "BUILD_ID = ?, STATUS = ?, UPDATED_TIME = ? WHERE REVISION_ID = ? AND BUILD_ID = ?";
+    public static final String UPDATE_REVISION_ARTIFACT_BUILD_STATUS = "UPDATE AM_GW_REVISION_ARTIFACT_BUILD SET " +
+            "STATUS = ?, UPDATED_TIME = ? WHERE REVISION_ID = ? AND BUILD_ID = ?";
+    public static final String DELETE_REVISION_ARTIFACT_BUILD = "DELETE FROM AM_GW_REVISION_ARTIFACT_BUILD " +
+            "WHERE REVISION_ID = ?";
     public static final String ADD_GW_PUBLISHED_LABELS = "INSERT INTO AM_GW_API_DEPLOYMENTS (API_ID,REVISION_ID," +
             "LABEL,VHOST) VALUES (?,?,?,?)";
     public static final String DELETE_GW_PUBLISHED_LABELS = "DELETE FROM AM_GW_API_DEPLOYMENTS WHERE API_ID = ? AND " +
@@ -2950,6 +2973,25 @@ public class SQLConstants {
                     "AM_API.API_UUID=AM_GW_API_DEPLOYMENTS.API_ID AND " +
                     "AM_GW_API_ARTIFACTS.REVISION_ID=AM_GW_API_DEPLOYMENTS.REVISION_ID";
 
+    public static final String RETRIEVE_ARTIFACT_SUMMARIES_BY_LABEL =
+            "SELECT AM_GW_API_DEPLOYMENTS.API_ID AS API_ID,AM_GW_API_DEPLOYMENTS.REVISION_ID AS REVISION_ID," +
+                    "AM_GW_PUBLISHED_API_DETAILS.TENANT_DOMAIN AS TENANT_DOMAIN," +
+                    "AM_GW_PUBLISHED_API_DETAILS.API_PROVIDER AS API_PROVIDER," +
+                    "AM_GW_PUBLISHED_API_DETAILS.API_NAME AS API_NAME," +
+                    "AM_GW_PUBLISHED_API_DETAILS.API_VERSION AS API_VERSION," +
+                    "AM_GW_PUBLISHED_API_DETAILS.API_TYPE AS API_TYPE," +
+                    "AM_GW_API_DEPLOYMENTS.LABEL AS LABEL,AM_GW_API_DEPLOYMENTS.VHOST AS VHOST," +
+                    "AM_API.CONTEXT AS CONTEXT,AM_DEPLOYMENT_REVISION_MAPPING.DEPLOYED_TIME AS DEPLOYED_TIME " +
+                    "FROM AM_GW_API_DEPLOYMENTS " +
+                    "INNER JOIN AM_GW_PUBLISHED_API_DETAILS " +
+                    "ON AM_GW_PUBLISHED_API_DETAILS.API_ID=AM_GW_API_DEPLOYMENTS.API_ID " +
+                    "INNER JOIN AM_API ON AM_API.API_UUID=AM_GW_API_DEPLOYMENTS.API_ID " +
+                    "LEFT OUTER JOIN AM_DEPLOYMENT_REVISION_MAPPING " +
+                    "ON AM_DEPLOYMENT_REVISION_MAPPING.NAME=AM_GW_API_DEPLOYMENTS.LABEL AND " +
+                    "AM_DEPLOYMENT_REVISION_MAPPING.REVISION_UUID=AM_GW_API_DEPLOYMENTS.REVISION_ID " +
+                    "WHERE AM_GW_API_DEPLOYMENTS.LABEL IN (_GATEWAY_LABELS_) AND " +
+                    "AM_GW_PUBLISHED_API_DETAILS.TENANT_DOMAIN = ?";
+
     public static final String RETRIEVE_ALL_ARTIFACTS_BY_LABEL =
             "SELECT AM_GW_API_DEPLOYMENTS.API_ID AS API_ID,AM_GW_API_DEPLOYMENTS.REVISION_ID AS REVISION_ID," +
                     "AM_GW_PUBLISHED_API_DETAILS" +
@@ -84,6 +84,11 @@ public class SubscriptionValidationSQLConstants {
                     "   APP.SUBSCRIBER_ID = SUB.SUBSCRIBER_ID AND" +
                     "   APP.ORGANIZATION = ? ";
 
+    public static final String GET_ORGANIZATION_APPLICATIONS_IN_ID_RANGE_SQL =
+            GET_APPLICATIONS_BY_ORGANIZATION_SQL +
+                    " AND APP.APPLICATION_ID > ? " +
+                    " AND APP.APPLICATION_ID <= ? ";
+
     public static final String GET_APPLICATION_BY_ID_SQL =
             " SELECT " +
                     "   APP.UUID AS APP_UUID," +
@@ -138,6 +143,95 @@ public class SubscriptionValidationSQLConstants {
                     " FROM " +
                     "   AM_SUBSCRIPTION";
 
+    public static final String GET_ALL_SUBSCRIPTIONS_PAGE_SQL =
+            "SELECT " +
+                    "   SUBS.UUID AS SUBSCRIPTION_UUID," +
+                    "   SUBS.SUBSCRIPTION_ID AS SUB_ID," +
+                    "   SUBS.TIER_ID AS TIER," +
+                    "   SUBS.API_ID AS API_ID," +
+                    "   APP.APPLICATION_ID AS APP_ID," +
+                    "   APP.UUID AS APPLICATION_UUID," +
+                    "   API.API_UUID AS API_UUID," +
+                    "   SUBS.SUB_STATUS AS STATUS," +
+                    "   SUB.TENANT_ID AS TENANT_ID" +
+                    " FROM " +
+                    "   AM_SUBSCRIPTION SUBS," +
+                    "   AM_APPLICATION APP," +
+                    "   AM_API API," +
+                    "   AM_SUBSCRIBER SUB" +
+                    " WHERE " +
+                    "   SUBS.API_ID = API.API_ID AND " +
+                    "   SUBS.APPLICATION_ID = APP.APPLICATION_ID AND " +
+                    "   APP.SUBSCRIBER_ID = SUB.SUBSCRIBER_ID AND " +
+                    "   SUBS.SUBSCRIPTION_ID > ? " +
+                    " ORDER BY SUBS.SUBSCRIPTION_ID";
+
+    public static final String GET_ALL_SUBSCRIPTIONS_UPDATED_AFTER_PAGE_SQL =
+            "SELECT " +
+                    "   SUBS.UUID AS SUBSCRIPTION_UUID," +
+                    "   SUBS.SUBSCRIPTION_ID AS SUB_ID," +
+                    "   SUBS.TIER_ID AS TIER," +
+                    "   SUBS.API_ID AS API_ID," +
+                    "   APP.APPLICATION_ID AS APP_ID," +
+                    "   APP.UUID AS APPLICATION_UUID," +
+                    "   API.API_UUID AS API_UUID," +
+                    "   SUBS.SUB_STATUS AS STATUS," +
+                    "   SUB.TENANT_ID AS TENANT_ID" +
+                    " FROM " +
+                    "   AM_SUBSCRIPTION SUBS," +
+                    "   AM_APPLICATION APP," +
+                    "   AM_API API," +
+                    "   AM_SUBSCRIBER SUB" +
+                    " WHERE " +
+                    "   SUBS.API_ID = API.API_ID AND " +
+                    "   SUBS.APPLICATION_ID = APP.APPLICATION_ID AND " +
+                    "   APP.SUBSCRIBER_ID = SUB.SUBSCRIBER_ID AND " +
+                    "   SUBS.SUBSCRIPTION_ID > ? AND " +
+                    "   (SUBS.UPDATED_TIME > ? OR SUBS.CREATED_TIME > ?) " +
+                    " ORDER BY SUBS.SUBSCRIPTION_ID";
+
+    public static final String GET_ORGANIZATION_SUBSCRIPTIONS_PAGE_SQL =
+            GET_ORGANIZATION_SUBSCRIPTIONS_SQL +
+                    " AND SUBS.SUBSCRIPTION_ID > ? " +
+                    " ORDER BY SUBS.SUBSCRIPTION_ID";
+
+    public static final String GET_ORGANIZATION_SUBSCRIPTIONS_UPDATED_AFTER_PAGE_SQL =
+            GET_ORGANIZATION_SUBSCRIPTIONS_SQL +
+                    " AND SUBS.SUBSCRIPTION_ID > ? " +
+                    " AND (SUBS.UPDATED_TIME > ? OR SUBS.CREATED_TIME > ?) " +
+                    " ORDER BY SUBS.SUBSCRIPTION_ID";
+
+    public static final String GET_ALL_APPLICATION_IDS_PAGE_SQL =
+            "SELECT APPLICATION_ID FROM AM_APPLICATION WHERE APPLICATION_ID > ? ORDER BY APPLICATION_ID";
+
+    public static final String GET_ORGANIZATION_APPLICATION_IDS_PAGE_SQL =
+            "SELECT APPLICATION_ID FROM AM_APPLICATION WHERE ORGANIZATION = ? AND APPLICATION_ID > ? " +
+                    "ORDER BY APPLICATION_ID";
+
+    public static final String GET_APPLICATIONS_IN_ID_RANGE_SQL =
+            " SELECT " +
+                    "   APP.UUID AS APP_UUID," +
+                    "   APP.APPLICATION_ID AS APP_ID," +
+                    "   APP.NAME AS APS_NAME," +
+                    "   APP.APPLICATION_TIER AS TIER," +
+                    "   APP.ORGANIZATION AS ORGANIZATION," +
+                    "   APP.TOKEN_TYPE AS TOKEN_TYPE," +
+                    "   SUB.USER_ID AS SUB_NAME," +
+                    "   ATTRIBUTES.NAME AS ATTRIBUTE_NAME," +
+                    "   ATTRIBUTES.APP_ATTRIBUTE AS ATTRIBUTE_VALUE," +
+                    "   GROUP_MAP.GROUP_ID AS GROUP_ID" +
+                    " FROM " +
+                    "   AM_SUBSCRIBER SUB," +
+                    "   AM_APPLICATION APP" +
+                    "   LEFT OUTER JOIN AM_APPLICATION_ATTRIBUTES ATTRIBUTES" +
+                    "  ON APP.APPLICATION_ID = ATTRIBUTES.APPLICATION_ID" +
+                    "   LEFT OUTER JOIN AM_APPLICATION_GROUP_MAPPING GROUP_MAP" +
+                    "  ON APP.APPLICATION_ID = GROUP_MAP.APPLICATION_ID" +
+                    " WHERE " +
+                    "   APP.SUBSCRIBER_ID = SUB.SUBSCRIBER_ID AND" +
+                    "   APP.APPLICATION_ID > ? AND" +
+                    "   APP.APPLICATION_ID <= ? ";
+
     public static final String GET_SUBSCRIPTION_SQL =
             "SELECT " +
                     "   AM_SUBSCRIPTION.UUID AS SUBSCRIPTION_UUID," +
@@ -515,6 +609,14 @@ public class SubscriptionValidationSQLConstants {
                     " WHERE " +
                     "   MAPPING.APPLICATION_ID = APP.APPLICATION_ID AND APP.SUBSCRIBER_ID = SUB.SUBSCRIBER_ID AND" +
                     "   MAPPING.KEY_MANAGER = KEYM.UUID AND APP.ORGANIZATION = ?";
+    public static final String GET_AM_KEY_MAPPINGS_IN_APPLICATION_ID_RANGE_SQL =
+            GET_ALL_AM_KEY_MAPPING_SQL +
+                    " AND APP.APPLICATION_ID > ? " +
+                    " AND APP.APPLICATION_ID <= ? ";
+    public static final String GET_ORGANIZATION_AM_KEY_MAPPINGS_IN_APPLICATION_ID_RANGE_SQL =
+            GET_ORGANIZATION_AM_KEY_MAPPING_SQL +
+                    " AND APP.APPLICATION_ID > ? " +
+                    " AND APP.APPLICATION_ID <= ? ";
 
     public static final String GET_ALL_GLOBAL_POLICIES_SQL =
             " SELECT " +
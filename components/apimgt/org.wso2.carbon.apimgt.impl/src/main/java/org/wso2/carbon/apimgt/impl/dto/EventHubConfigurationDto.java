@@ -17,6 +17,8 @@
  */
 package org.wso2.carbon.apimgt.impl.dto;
 
+import org.wso2.carbon.apimgt.impl.APIConstants;
+
 import java.util.Map;
 import java.util.Properties;
 
@@ -24,6 +26,9 @@ public class EventHubConfigurationDto {
     private boolean enabled = false;
     private String serviceUrl;
     private int initDelay = 1000;
+    private String subscriptionDataStore = APIConstants.KeyManager.SUBSCRIPTION_DATA_STORE_DEFAULT;
+    private int dataLoadingPageSize = 1000;
+    private boolean subscriptionDataPreloadEnabled;
     private String username;
     private char[] password;
     private EventHubReceiverConfiguration eventHubReceiverConfiguration;
@@ -60,6 +65,36 @@ public class EventHubConfigurationDto {
         this.initDelay = initDelay;
     }
 
+    public String getSubscriptionDataStore() {
+
+        return subscriptionDataStore;
+    }
+
+    public void setSubscriptionDataStore(String subscriptionDataStore) {
+
+        this.subscriptionDataStore = subscriptionDataStore;
+    }
+
+    public int getDataLoadingPageSize() {
+
+        return dataLoadingPageSize;
+    }
+
+    public void setDataLoadingPageSize(int dataLoadingPageSize) {
+
+        this.dataLoadingPageSize = dataLoadingPageSize;
+    }
+
+    public boolean isSubscriptionDataPreloadEnabled() {
+
+        return subscriptionDataPreloadEnabled;
+    }
+
+    public void setSubscriptionDataPreloadEnabled(boolean subscriptionDataPreloadEnabled) {
+
+        this.subscriptionDataPreloadEnabled = subscriptionDataPreloadEnabled;
+    }
+
     public EventHubReceiverConfiguration getEventHubReceiverConfiguration() {
 
         return eventHubReceiverConfiguration;
@@ -19,6 +19,10 @@ public class GatewayArtifactSynchronizerProperties {
     private String gatewayStartup = "sync";
     private long eventWaitingTime = 1;
     private boolean onDemandLoading;
+    private int startupDeploymentParallelism = Math.min(4, Runtime.getRuntime().availableProcessors());
+    private int startupDeploymentPageSize = 100;
+    private boolean deltaSyncEnabled = false;
+    private String artifactCacheDirectory;
 
 
     public String getSaverName() {
@@ -148,4 +152,44 @@ public class GatewayArtifactSynchronizerProperties {
     public boolean isOnDemandLoading() {
         return onDemandLoading;
     }
+
+    public int getStartupDeploymentParallelism() {
+
+        return startupDeploymentParallelism;
+    }
+
+    public void setStartupDeploymentParallelism(int startupDeploymentParallelism) {
+
+        this.startupDeploymentParallelism = startupDeploymentParallelism;
+    }
+
+    public int getStartupDeploymentPageSize() {
+
+        return startupDeploymentPageSize;
+    }
+
+    public void setStartupDeploymentPageSize(int startupDeploymentPageSize) {
+
+        this.startupDeploymentPageSize = startupDeploymentPageSize;
+    }
+
+    public boolean isDeltaSyncEnabled() {
+
+        return deltaSyncEnabled;
+    }
+
+    public void setDeltaSyncEnabled(boolean deltaSyncEnabled) {
+
+        this.deltaSyncEnabled = deltaSyncEnabled;
+    }
+
+    public String getArtifactCacheDirectory() {
+
+        return artifactCacheDirectory;
+    }
+
+    public void setArtifactCacheDirectory(String artifactCacheDirectory) {
+
+        this.artifactCacheDirectory = artifactCacheDirectory;
+    }
 }
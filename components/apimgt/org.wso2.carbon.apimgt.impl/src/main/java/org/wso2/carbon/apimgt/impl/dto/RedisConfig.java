@@ -43,6 +43,10 @@ public class RedisConfig {
     private long timeBetweenEvictionRunsMillis = 30000L;
     private int numTestsPerEvictionRun = -1;
 
+    private boolean isCounterBatchingEnabled = false;
+    private long counterFlushInterval = 100L;
+    private int counterMaxPendingIncrements = 0;
+
     public int getMaxTotal() {
 
         return maxTotal;
@@ -229,4 +233,34 @@ public class RedisConfig {
 
         isSslEnabled = sslEnabled;
     }
+
+    public boolean isCounterBatchingEnabled() {
+
+        return isCounterBatchingEnabled;
+    }
+
+    public void setCounterBatchingEnabled(boolean counterBatchingEnabled) {
+
+        isCounterBatchingEnabled = counterBatchingEnabled;
+    }
+
+    public long getCounterFlushInterval() {
+
+        return counterFlushInterval;
+    }
+
+    public void setCounterFlushInterval(long counterFlushInterval) {
+
+        this.counterFlushInterval = counterFlushInterval;
+    }
+
+    public int getCounterMaxPendingIncrements() {
+
+        return counterMaxPendingIncrements;
+    }
+
+    public void setCounterMaxPendingIncrements(int counterMaxPendingIncrements) {
+
+        this.counterMaxPendingIncrements = counterMaxPendingIncrements;
+    }
 }
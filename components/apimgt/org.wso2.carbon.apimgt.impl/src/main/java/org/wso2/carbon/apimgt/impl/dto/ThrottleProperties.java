@@ -177,6 +177,10 @@ public class ThrottleProperties {
         private String username = "admin";
         private String password = "admin";
         private boolean enabled = false;
+        private boolean webSocketFrameAggregationEnabled = false;
+        private long webSocketFrameAggregationWindow = 1000;
+        private int webSocketFrameAggregationMaxKeys = 10000;
+        private boolean sseEventAggregationEnabled = false;
 
         public String getType() {
             return type;
@@ -225,6 +229,38 @@ public class ThrottleProperties {
         public boolean isEnabled() {
             return enabled;
         }
+
+        public boolean isWebSocketFrameAggregationEnabled() {
+            return webSocketFrameAggregationEnabled;
+        }
+
+        public void setWebSocketFrameAggregationEnabled(boolean webSocketFrameAggregationEnabled) {
+            this.webSocketFrameAggregationEnabled = webSocketFrameAggregationEnabled;
+        }
+
+        public long getWebSocketFrameAggregationWindow() {
+            return webSocketFrameAggregationWindow;
+        }
+
+        public void setWebSocketFrameAggregationWindow(long webSocketFrameAggregationWindow) {
+            this.webSocketFrameAggregationWindow = webSocketFrameAggregationWindow;
+        }
+
+        public int getWebSocketFrameAggregationMaxKeys() {
+            return webSocketFrameAggregationMaxKeys;
+        }
+
+        public void setWebSocketFrameAggregationMaxKeys(int webSocketFrameAggregationMaxKeys) {
+            this.webSocketFrameAggregationMaxKeys = webSocketFrameAggregationMaxKeys;
+        }
+
+        public boolean isSseEventAggregationEnabled() {
+            return sseEventAggregationEnabled;
+        }
+
+        public void setSseEventAggregationEnabled(boolean sseEventAggregationEnabled) {
+            this.sseEventAggregationEnabled = sseEventAggregationEnabled;
+        }
     }
 
     public static class TrafficManager {
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2022 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.impl.dto;
+
+import java.io.Serializable;
+
+/**
+ * Model of the delivery status of a webhooks subscription. The field names match the delivery status events sent
+ * from gateways to the event hub.
+ */
+public class WebhooksDeliveryStatusDTO implements Serializable {
+
+    private String apiUUID;
+    private String appID;
+    private String tenantDomain;
+    private String callback;
+    private String topic;
+    private int status;
+    private long deliveredAt;
+
+    public WebhooksDeliveryStatusDTO() {
+    }
+
+    public WebhooksDeliveryStatusDTO(String apiUUID, String appID, String tenantDomain, String callback, String topic,
+                                     int status) {
+        this.apiUUID = apiUUID;
+        this.appID = appID;
+        this.tenantDomain = tenantDomain;
+        this.callback = callback;
+        this.topic = topic;
+        this.status = status;
+        this.deliveredAt = System.currentTimeMillis();
+    }
+
+    public String getApiUUID() {
+        return apiUUID;
+    }
+
+    public void setApiUUID(String apiUUID) {
+        this.apiUUID = apiUUID;
+    }
+
+    public String getAppID() {
+        return appID;
+    }
+
+    public void setAppID(String appID) {
+        this.appID = appID;
+    }
+
+    public String getTenantDomain() {
+        return tenantDomain;
+    }
+
+    public void setTenantDomain(String tenantDomain) {
+        this.tenantDomain = tenantDomain;
+    }
+
+    public String getCallback() {
+        return callback;
+    }
+
+    public void setCallback(String callback) {
+        this.callback = callback;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    /**
+     * @return time of the delivery in milliseconds, or 0 if the time is not known
+     */
+    public long getDeliveredAt() {
+        return deliveredAt;
+    }
+
+    public void setDeliveredAt(long deliveredAt) {
+        this.deliveredAt = deliveredAt;
+    }
+}
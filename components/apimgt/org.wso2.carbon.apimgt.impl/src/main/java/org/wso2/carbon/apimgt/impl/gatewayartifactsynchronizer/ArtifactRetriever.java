@@ -18,11 +18,14 @@
 
 package org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer;
 
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.dto.ArtifactManifestEntryDto;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.dto.RuntimeArtifactDeltaDto;
 import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.exception.ArtifactSynchronizerException;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * This is a Artifact Retriever type. this interface let users to retriever API artifacts from a storage.
@@ -68,6 +71,46 @@ public interface ArtifactRetriever {
      */
      List<String> retrieveAllArtifacts(String gatewayLabel, String tenantDomain) throws ArtifactSynchronizerException;
 
+    /**
+     * This method is used to retrieve all the artifacts of a gateway label page by page, so that the caller can start
+     * processing artifacts before all of them are retrieved. Retrievers which can read the artifacts incrementally
+     * should override this, the default implementation pages through the result of
+     * {@link #retrieveAllArtifacts(String, String)}.
+     *
+     * @param gatewayLabel  - Label subscribed by the gateway
+     * @param tenantDomain  - Tenant domain of the artifacts
+     * @param pageSize      - Maximum number of artifacts handed over to the consumer at once
+     * @param pageConsumer  - Consumer invoked with each page of artifacts, in the order they were retrieved
+     * @throws ArtifactSynchronizerException if there are any errors when retrieving the Artifacts
+     */
+    default void retrieveAllArtifacts(String gatewayLabel, String tenantDomain, int pageSize,
+                                      Consumer<List<String>> pageConsumer) throws ArtifactSynchronizerException {
+
+        List<String> gatewayRuntimeArtifacts = retrieveAllArtifacts(gatewayLabel, tenantDomain);
+        for (int i = 0; i < gatewayRuntimeArtifacts.size(); i += pageSize) {
+            pageConsumer.accept(
+                    gatewayRuntimeArtifacts.subList(i, Math.min(i + pageSize, gatewayRuntimeArtifacts.size())));
+        }
+    }
+
+    /**
+     * This method is used to retrieve only the artifacts of the APIs whose deployments changed since the gateway
+     * retrieved the artifacts described by the given manifest.
+     *
+     * @param gatewayLabel  - Label subscribed by the gateway
+     * @param tenantDomain  - Tenant domain of the artifacts
+     * @param manifest      - APIs the gateway already holds the artifacts of, along with their fingerprints
+     * @return The changed APIs with their artifacts and the unchanged and removed APIs, or null if the storage does
+     * not support retrieving artifact deltas
+     * @throws ArtifactSynchronizerException if there are any errors when retrieving the Artifacts
+     */
+    default RuntimeArtifactDeltaDto retrieveArtifactDelta(String gatewayLabel, String tenantDomain,
+                                                          List<ArtifactManifestEntryDto> manifest)
+            throws ArtifactSynchronizerException {
+
+        return null;
+    }
+
     /**
      * Will be called after all publishing is done or if init fails
      */
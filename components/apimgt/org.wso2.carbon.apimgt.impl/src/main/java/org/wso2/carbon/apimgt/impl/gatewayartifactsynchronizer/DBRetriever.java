@@ -20,12 +20,18 @@ package org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
 import org.apache.http.util.EntityUtils;
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -34,12 +40,16 @@ import org.wso2.carbon.apimgt.api.ExceptionCodes;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.dto.EventHubConfigurationDto;
 import org.wso2.carbon.apimgt.impl.dto.GatewayArtifactSynchronizerProperties;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.dto.ArtifactManifestEntryDto;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.dto.RuntimeArtifactDeltaDto;
 import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.exception.ArtifactSynchronizerException;
 import org.wso2.carbon.apimgt.impl.internal.ServiceReferenceHolder;
 import org.wso2.carbon.apimgt.impl.utils.APIUtil;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.util.ArrayList;
@@ -48,6 +58,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 public class DBRetriever implements ArtifactRetriever {
 
@@ -149,6 +160,105 @@ public class DBRetriever implements ArtifactRetriever {
         }
     }
 
+    @Override
+    public void retrieveAllArtifacts(String label, String tenantDomain, int pageSize,
+                                     Consumer<List<String>> pageConsumer) throws ArtifactSynchronizerException {
+
+        try {
+            String endcodedgatewayLabel = URLEncoder.encode(label, APIConstants.DigestAuthConstants.CHARSET);
+            String path = APIConstants.GatewayArtifactSynchronizer.GATEAY_SYNAPSE_ARTIFACTS
+                    + "?gatewayLabel=" + endcodedgatewayLabel + "&type=Synapse";
+            String endpoint = baseURL + path;
+            try (CloseableHttpResponse httpResponse = invokeService(endpoint, tenantDomain)) {
+                int statusCode = httpResponse.getStatusLine().getStatusCode();
+                if (statusCode == 404) {
+                    log.info("No artifacts available to deploy");
+                    return;
+                } else if (statusCode != 200) {
+                    String errorMessage = EntityUtils.toString(httpResponse.getEntity(),
+                            APIConstants.DigestAuthConstants.CHARSET);
+                    throw new ArtifactSynchronizerException(errorMessage + "Event-Hub status code is : "
+                            + statusCode);
+                } else if (httpResponse.getEntity() == null) {
+                    throw new ArtifactSynchronizerException("HTTP response is empty");
+                }
+                // Read the artifact list incrementally instead of buffering the whole response
+                try (Reader reader = new InputStreamReader(httpResponse.getEntity().getContent(),
+                        APIConstants.DigestAuthConstants.CHARSET);
+                     JsonReader jsonReader = new JsonReader(reader)) {
+                    jsonReader.beginObject();
+                    while (jsonReader.hasNext()) {
+                        if ("list".equals(jsonReader.nextName()) && jsonReader.peek() == JsonToken.BEGIN_ARRAY) {
+                            readArtifactList(jsonReader, pageSize, pageConsumer);
+                        } else {
+                            jsonReader.skipValue();
+                        }
+                    }
+                    jsonReader.endObject();
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            String msg = "Error while retrieving artifacts";
+            log.error(msg, e);
+            throw new ArtifactSynchronizerException(msg, e, ExceptionCodes.ARTIFACT_SYNC_HTTP_REQUEST_FAILED);
+        }
+    }
+
+    @Override
+    public RuntimeArtifactDeltaDto retrieveArtifactDelta(String label, String tenantDomain,
+                                                         List<ArtifactManifestEntryDto> manifest)
+            throws ArtifactSynchronizerException {
+
+        try {
+            String endcodedgatewayLabel = URLEncoder.encode(label, APIConstants.DigestAuthConstants.CHARSET);
+            String path = APIConstants.GatewayArtifactSynchronizer.GATEWAY_SYNAPSE_ARTIFACTS_DELTA
+                    + "?gatewayLabel=" + endcodedgatewayLabel + "&type=Synapse";
+            HttpPost method = new HttpPost(baseURL + path);
+            Map<String, List<ArtifactManifestEntryDto>> payload = new HashMap<>();
+            payload.put("list", manifest);
+            method.setEntity(new StringEntity(new Gson().toJson(payload), ContentType.APPLICATION_JSON));
+            try (CloseableHttpResponse httpResponse = invokeService(method, tenantDomain)) {
+                int statusCode = httpResponse.getStatusLine().getStatusCode();
+                if (statusCode == 404 || statusCode == 405) {
+                    // Control plane does not support delta sync
+                    log.info("Runtime artifact delta is not available. Falling back to retrieve all artifacts");
+                    return null;
+                } else if (statusCode != 200 || httpResponse.getEntity() == null) {
+                    String errorMessage = httpResponse.getEntity() != null ? EntityUtils.toString(
+                            httpResponse.getEntity(), APIConstants.DigestAuthConstants.CHARSET) : "";
+                    throw new ArtifactSynchronizerException(errorMessage + "Event-Hub status code is : "
+                            + statusCode);
+                }
+                try (Reader reader = new InputStreamReader(httpResponse.getEntity().getContent(),
+                        APIConstants.DigestAuthConstants.CHARSET)) {
+                    return new Gson().fromJson(reader, RuntimeArtifactDeltaDto.class);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            String msg = "Error while retrieving the runtime artifact delta";
+            log.error(msg, e);
+            throw new ArtifactSynchronizerException(msg, e, ExceptionCodes.ARTIFACT_SYNC_HTTP_REQUEST_FAILED);
+        }
+    }
+
+    private void readArtifactList(JsonReader jsonReader, int pageSize, Consumer<List<String>> pageConsumer)
+            throws IOException {
+
+        List<String> page = new ArrayList<>(pageSize);
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            page.add(jsonReader.nextString());
+            if (page.size() >= pageSize) {
+                pageConsumer.accept(page);
+                page = new ArrayList<>(pageSize);
+            }
+        }
+        jsonReader.endArray();
+        if (!page.isEmpty()) {
+            pageConsumer.accept(page);
+        }
+    }
+
     @Override
     public Map<String, String> retrieveAttributes(String apiName, String version, String tenantDomain)
             throws ArtifactSynchronizerException {
@@ -203,8 +313,13 @@ public class DBRetriever implements ArtifactRetriever {
     private CloseableHttpResponse invokeService(String endpoint,String tenantDomain) throws IOException,
             ArtifactSynchronizerException {
 
-        HttpGet method = new HttpGet(endpoint);
-        URL url = new URL(endpoint);
+        return invokeService(new HttpGet(endpoint), tenantDomain);
+    }
+
+    private CloseableHttpResponse invokeService(HttpRequestBase method, String tenantDomain) throws IOException,
+            ArtifactSynchronizerException {
+
+        URL url = method.getURI().toURL();
         String username = eventHubConfigurationDto.getUsername();
         String password = eventHubConfigurationDto.getPassword();
         byte[] credentials = Base64.encodeBase64((username + APIConstants.DELEM_COLON + password).
@@ -0,0 +1,527 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+import org.wso2.carbon.apimgt.api.ExceptionCodes;
+import org.wso2.carbon.apimgt.impl.dao.GatewayArtifactsMgtDAO;
+import org.wso2.carbon.apimgt.impl.dto.RevisionArtifactBuildDTO;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.exception.ArtifactSynchronizerException;
+import org.wso2.carbon.apimgt.impl.importexport.APIImportExportException;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+
+import java.io.File;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds the gateway artifacts of API revisions in the background, so that adding a revision does not wait for the
+ * revision to be exported and stored. A deployment of a revision waits only for the artifact of that revision.
+ * <p>
+ * Builds run on a bounded pool. When the pool and its queue are full, the artifact is built on the thread which adds
+ * the revision, as it was before builds were moved to the background.
+ * <p>
+ * The status of every build is recorded in the database, so that all the publisher nodes know it. Each build is
+ * recorded with an ID, and a build only records its status while it is still the recorded build of its revision. The
+ * node running a build refreshes its heartbeat in the database while the build is queued or in progress. A
+ * deployment on a node which does not run the build of its revision waits for the build on another node, and builds
+ * the artifact right away if its build failed, is not recorded, or did not refresh its heartbeat for the lost build
+ * timeout, for example because the node running it was restarted. The node building the artifact again claims the
+ * recorded build with a new ID, so that only one node builds the artifact again, and the build which lost its claim
+ * stops.
+ */
+public final class RevisionArtifactBuilder {
+
+    private static final Log log = LogFactory.getLog(RevisionArtifactBuilder.class);
+    private static final int BUILDER_POOL_SIZE = 4;
+    private static final int BUILD_QUEUE_CAPACITY = 100;
+    // Interval at which the heartbeats of the builds queued or in progress on this node are refreshed.
+    private static final long HEARTBEAT_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+    // A build which did not refresh its heartbeat for this time is considered lost.
+    private static final long LOST_BUILD_TIMEOUT = TimeUnit.MINUTES.toMillis(2);
+    // Completed builds are kept for this time so that their status can be queried without the database.
+    private static final long COMPLETED_BUILD_RETENTION_TIME = TimeUnit.MINUTES.toMillis(30);
+    // Interval at which a deployment checks the status of the build it waits for.
+    private static final long BUILD_STATUS_POLL_INTERVAL = TimeUnit.SECONDS.toMillis(2);
+    private static final RevisionArtifactBuilder instance = new RevisionArtifactBuilder();
+
+    /**
+     * Status of the build of a revision artifact.
+     */
+    public enum Status {
+        QUEUED, EXPORTING, STORING, COMPLETED, FAILED
+    }
+
+    /**
+     * Exports the artifact of a revision and stores it for the gateways.
+     */
+    public interface RevisionArtifactTask {
+
+        File export() throws APIManagementException, APIImportExportException;
+
+        void store(File artifact) throws APIManagementException, ArtifactSynchronizerException;
+    }
+
+    /**
+     * Checks whether the artifact of a revision is stored.
+     */
+    public interface StoredArtifactCheck {
+
+        boolean isStored() throws APIManagementException;
+    }
+
+    /**
+     * Records the status of the artifact builds, so that it is known to all the nodes.
+     */
+    public interface BuildStatusStore {
+
+        RevisionArtifactBuildDTO get(String revisionUUID) throws APIManagementException;
+
+        boolean replace(String revisionUUID, RevisionArtifactBuildDTO current, String buildId, Status status,
+                        long time) throws APIManagementException;
+
+        boolean update(String revisionUUID, String buildId, Status status, long time) throws APIManagementException;
+
+        void remove(String revisionUUID) throws APIManagementException;
+    }
+
+    private final Map<String, Build> builds = new ConcurrentHashMap<>();
+    private final Executor executor;
+    private final BuildStatusStore statusStore;
+    private final long lostBuildTimeout;
+    private final long pollInterval;
+
+    RevisionArtifactBuilder(Executor executor, BuildStatusStore statusStore, long lostBuildTimeout,
+                            long pollInterval) {
+
+        this.executor = executor;
+        this.statusStore = statusStore;
+        this.lostBuildTimeout = lostBuildTimeout;
+        this.pollInterval = pollInterval;
+    }
+
+    private RevisionArtifactBuilder() {
+
+        this(newBuilderPool(), new DatabaseBuildStatusStore(), LOST_BUILD_TIMEOUT, BUILD_STATUS_POLL_INTERVAL);
+        ScheduledExecutorService heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "RevisionArtifactBuilder-Heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatScheduler.scheduleWithFixedDelay(this::refreshHeartbeats, HEARTBEAT_INTERVAL, HEARTBEAT_INTERVAL,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public static RevisionArtifactBuilder getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Starts building the artifact of a new revision in the tenant and user context of the caller. A build is not
+     * started if a build of the revision is already recorded.
+     *
+     * @param revisionUUID UUID of the revision
+     * @param task         exports and stores the artifact
+     * @throws APIManagementException if the build could not be recorded, or if it ran on the calling thread as the
+     *                                pool is full, and failed
+     */
+    public void submit(String revisionUUID, RevisionArtifactTask task) throws APIManagementException {
+
+        purgeCompletedBuilds();
+        String buildId = UUID.randomUUID().toString();
+        if (!statusStore.replace(revisionUUID, null, buildId, Status.QUEUED, System.currentTimeMillis())) {
+            return;
+        }
+        Build build = start(revisionUUID, buildId, task);
+        if (build.future.isCompletedExceptionally()) {
+            // The build ran on the calling thread, so its failure is reported right away
+            await(build);
+        }
+    }
+
+    /**
+     * Returns the status of the artifact build of a revision on this node.
+     *
+     * @param revisionUUID UUID of the revision
+     * @return status of the build, or null if the artifact was not built on this node since the retention time, or
+     * if another node claimed the build
+     */
+    public Status getStatus(String revisionUUID) {
+
+        Build build = builds.get(revisionUUID);
+        return build != null && !build.claimLost ? build.status : null;
+    }
+
+    /**
+     * Returns the status of the artifact build of a revision, as known to all the nodes.
+     *
+     * @param revisionUUID UUID of the revision
+     * @param check        checks whether the artifact is stored, used when no build is recorded
+     * @return status of the build, COMPLETED if no build is recorded but the artifact is stored, or null otherwise
+     * @throws APIManagementException if the status could not be retrieved
+     */
+    public Status getStatus(String revisionUUID, StoredArtifactCheck check) throws APIManagementException {
+
+        Status status = getStatus(revisionUUID);
+        if (status != null) {
+            return status;
+        }
+        RevisionArtifactBuildDTO recordedBuild = statusStore.get(revisionUUID);
+        if (recordedBuild != null) {
+            return Status.valueOf(recordedBuild.getStatus());
+        }
+        return check.isStored() ? Status.COMPLETED : null;
+    }
+
+    /**
+     * Waits until the artifact of a revision is built. The artifact is built on this node right away if its build
+     * failed, is not recorded while the artifact is not stored, or is lost. A build on another node is waited for as
+     * long as it refreshes its heartbeat.
+     *
+     * @param revisionUUID UUID of the revision
+     * @param task         exports and stores the artifact, if it has to be built again
+     * @param check        checks whether the artifact is stored, used when no build is recorded
+     * @throws APIManagementException if the build failed
+     */
+    public void awaitArtifact(String revisionUUID, RevisionArtifactTask task, StoredArtifactCheck check)
+            throws APIManagementException {
+
+        while (true) {
+            Build build = builds.get(revisionUUID);
+            if (build != null && build.claimLost) {
+                builds.remove(revisionUUID, build);
+                build = null;
+            }
+            if (build != null && build.status != Status.FAILED) {
+                if (await(build)) {
+                    return;
+                }
+                // Another node claimed the build
+                continue;
+            }
+            RevisionArtifactBuildDTO recordedBuild = statusStore.get(revisionUUID);
+            if (recordedBuild == null ? check.isStored() : Status.COMPLETED.name().equals(recordedBuild.getStatus())) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            if (recordedBuild == null || Status.FAILED.name().equals(recordedBuild.getStatus())
+                    || now - recordedBuild.getUpdatedTime() >= lostBuildTimeout) {
+                String buildId = UUID.randomUUID().toString();
+                if (statusStore.replace(revisionUUID, recordedBuild, buildId, Status.QUEUED, now)) {
+                    if (recordedBuild != null) {
+                        log.info("Building the artifact of revision " + revisionUUID + " again, as its build was "
+                                + recordedBuild.getStatus() + " at " + recordedBuild.getUpdatedTime());
+                    }
+                    start(revisionUUID, buildId, task);
+                }
+                // Otherwise the artifact is built again by another node
+                continue;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Waiting for the artifact of revision " + revisionUUID + ", which is "
+                        + recordedBuild.getStatus() + " on another node");
+            }
+            try {
+                Thread.sleep(pollInterval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new APIManagementException("Interrupted while waiting for the artifact of revision "
+                        + revisionUUID, e);
+            }
+        }
+    }
+
+    /**
+     * Stops tracking the artifact build of a revision which is being deleted. A queued build is skipped, and a build
+     * in progress is waited for, so that it does not store the artifact after the revision is deleted. A build on
+     * another node stops when it finds that its recorded build was deleted, and the task of a build has to check that
+     * its revision still exists when it stores the artifact.
+     *
+     * @param revisionUUID UUID of the revision
+     * @throws APIManagementException if the recorded build could not be deleted
+     */
+    public void remove(String revisionUUID) throws APIManagementException {
+
+        Build build = builds.remove(revisionUUID);
+        if (build != null) {
+            build.cancelled = true;
+            try {
+                build.future.get(lostBuildTimeout, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                // The failure was already reported by the build.
+            } catch (TimeoutException e) {
+                log.warn("Artifact build of revision " + revisionUUID + " did not complete before the revision was "
+                        + "removed");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        statusStore.remove(revisionUUID);
+    }
+
+    /**
+     * Refreshes the heartbeats of the builds queued or in progress on this node, so that other nodes do not consider
+     * them lost. A build whose recorded build was claimed by another node, or deleted, is stopped.
+     */
+    void refreshHeartbeats() {
+
+        for (Build build : builds.values()) {
+            build.refreshHeartbeat();
+        }
+    }
+
+    /**
+     * Returns the number of builds which are queued or in progress on this node.
+     */
+    public int getPendingBuildCount() {
+
+        int count = 0;
+        for (Build build : builds.values()) {
+            if (!build.future.isDone()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+
+        return "RevisionArtifactBuilder{builds=" + builds.size() + ", pending=" + getPendingBuildCount() + "}";
+    }
+
+    private Build start(String revisionUUID, String buildId, RevisionArtifactTask task) {
+
+        Build build = new Build(revisionUUID, buildId, task, statusStore);
+        builds.put(revisionUUID, build);
+        if (log.isDebugEnabled()) {
+            log.debug("Queued the artifact build " + buildId + " of revision " + revisionUUID);
+        }
+        executor.execute(build);
+        return build;
+    }
+
+    /**
+     * Waits for a build on this node. A build is not timed out, as its heartbeat is refreshed as long as this node
+     * runs it.
+     *
+     * @return true if the build completed, or false if another node claimed it
+     */
+    private boolean await(Build build) throws APIManagementException {
+
+        try {
+            while (!build.claimLost) {
+                try {
+                    build.future.get(pollInterval, TimeUnit.MILLISECONDS);
+                    return !build.claimLost;
+                } catch (TimeoutException e) {
+                    // The build is still queued or in progress
+                }
+            }
+            return false;
+        } catch (ExecutionException e) {
+            if (build.claimLost) {
+                return false;
+            }
+            throw new APIManagementException("Error while Store the Revision Artifact of revision "
+                    + build.revisionUUID, e.getCause(), ExceptionCodes.from(ExceptionCodes.ERROR_CREATING_API_REVISION,
+                    build.revisionUUID));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new APIManagementException("Interrupted while waiting for the artifact of revision "
+                    + build.revisionUUID, e);
+        }
+    }
+
+    private void purgeCompletedBuilds() {
+
+        long now = System.currentTimeMillis();
+        // Failed builds are kept, so that deployments of their revisions build them again.
+        builds.values().removeIf(build -> build.claimLost && build.future.isDone()
+                || build.status == Status.COMPLETED && now - build.completedTime > COMPLETED_BUILD_RETENTION_TIME);
+    }
+
+    private static ThreadPoolExecutor newBuilderPool() {
+
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(BUILDER_POOL_SIZE, BUILDER_POOL_SIZE, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(BUILD_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "RevisionArtifactBuilder-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private static final class Build implements Runnable {
+
+        private final String revisionUUID;
+        private final String buildId;
+        private final RevisionArtifactTask task;
+        private final BuildStatusStore statusStore;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private final String tenantDomain;
+        private final int tenantId;
+        private final String username;
+        private final long queuedTime = System.currentTimeMillis();
+        private volatile Status status = Status.QUEUED;
+        private volatile long completedTime;
+        private volatile boolean cancelled;
+        private volatile boolean claimLost;
+
+        Build(String revisionUUID, String buildId, RevisionArtifactTask task, BuildStatusStore statusStore) {
+
+            this.revisionUUID = revisionUUID;
+            this.buildId = buildId;
+            this.task = task;
+            this.statusStore = statusStore;
+            PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+            this.tenantDomain = carbonContext.getTenantDomain();
+            this.tenantId = carbonContext.getTenantId();
+            this.username = carbonContext.getUsername();
+        }
+
+        @Override
+        public void run() {
+
+            if (cancelled || claimLost) {
+                future.complete(null);
+                return;
+            }
+            long startTime = System.currentTimeMillis();
+            PrivilegedCarbonContext.startTenantFlow();
+            try {
+                PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+                carbonContext.setTenantDomain(tenantDomain);
+                carbonContext.setTenantId(tenantId);
+                carbonContext.setUsername(username);
+                if (!setStatus(Status.EXPORTING)) {
+                    future.complete(null);
+                    return;
+                }
+                File artifact = task.export();
+                if (!setStatus(Status.STORING)) {
+                    future.complete(null);
+                    return;
+                }
+                task.store(artifact);
+                completedTime = System.currentTimeMillis();
+                setStatus(Status.COMPLETED);
+                future.complete(null);
+                if (log.isDebugEnabled()) {
+                    log.debug("Built the artifact of revision " + revisionUUID + " in "
+                            + (completedTime - startTime) + " ms, after waiting " + (startTime - queuedTime)
+                            + " ms in the queue");
+                }
+            } catch (APIManagementException | APIImportExportException | ArtifactSynchronizerException
+                    | RuntimeException e) {
+                completedTime = System.currentTimeMillis();
+                setStatus(Status.FAILED);
+                log.error("Error while building the artifact of revision " + revisionUUID, e);
+                future.completeExceptionally(e);
+            } finally {
+                PrivilegedCarbonContext.endTenantFlow();
+            }
+        }
+
+        /**
+         * Records a new status of the build, if it is still the recorded build of its revision.
+         *
+         * @return false if the build lost its claim, in which case it has to stop
+         */
+        private synchronized boolean setStatus(Status newStatus) {
+
+            status = newStatus;
+            return record(newStatus);
+        }
+
+        private synchronized void refreshHeartbeat() {
+
+            if (!future.isDone()) {
+                record(status);
+            }
+        }
+
+        private boolean record(Status recordedStatus) {
+
+            if (claimLost) {
+                return false;
+            }
+            try {
+                if (!statusStore.update(revisionUUID, buildId, recordedStatus, System.currentTimeMillis())) {
+                    claimLost = true;
+                    log.info("Stopping the artifact build of revision " + revisionUUID + " as it was claimed by "
+                            + "another node or removed");
+                    return false;
+                }
+            } catch (APIManagementException e) {
+                log.warn("Could not record the artifact build of revision " + revisionUUID + " as " + recordedStatus,
+                        e);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Records the status of the artifact builds in the gateway artifact database.
+     */
+    private static final class DatabaseBuildStatusStore implements BuildStatusStore {
+
+        @Override
+        public RevisionArtifactBuildDTO get(String revisionUUID) throws APIManagementException {
+
+            return GatewayArtifactsMgtDAO.getInstance().getRevisionArtifactBuild(revisionUUID);
+        }
+
+        @Override
+        public boolean replace(String revisionUUID, RevisionArtifactBuildDTO current, String buildId, Status status,
+                               long time) throws APIManagementException {
+
+            return GatewayArtifactsMgtDAO.getInstance().replaceRevisionArtifactBuild(revisionUUID, current, buildId,
+                    status.name(), time);
+        }
+
+        @Override
+        public boolean update(String revisionUUID, String buildId, Status status, long time)
+                throws APIManagementException {
+
+            return GatewayArtifactsMgtDAO.getInstance().updateRevisionArtifactBuildStatus(revisionUUID, buildId,
+                    status.name(), time);
+        }
+
+        @Override
+        public void remove(String revisionUUID) throws APIManagementException {
+
+            GatewayArtifactsMgtDAO.getInstance().deleteRevisionArtifactBuild(revisionUUID);
+        }
+    }
+}
@@ -18,6 +18,7 @@
 package org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer;
 
 import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -28,8 +29,10 @@ import org.wso2.carbon.apimgt.impl.dao.GatewayArtifactsMgtDAO;
 import org.wso2.carbon.apimgt.impl.dto.APIRuntimeArtifactDto;
 import org.wso2.carbon.apimgt.impl.dto.RuntimeArtifactDto;
 import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.dto.ApiMetadataProjectDto;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.dto.ArtifactManifestEntryDto;
 import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.dto.MetadataDescriptorDto;
 import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.dto.EnvironmentDto;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.dto.RuntimeArtifactDeltaDto;
 import org.wso2.carbon.apimgt.impl.importexport.APIImportExportException;
 import org.wso2.carbon.apimgt.impl.importexport.ExportFormat;
 import org.wso2.carbon.apimgt.impl.importexport.utils.CommonUtil;
@@ -38,11 +41,14 @@ import org.wso2.carbon.apimgt.impl.internal.ServiceReferenceHolder;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 public class RuntimeArtifactGeneratorUtil {
 
@@ -86,6 +92,132 @@ public class RuntimeArtifactGeneratorUtil {
         }
     }
 
+    /**
+     * Generates the runtime artifacts of the APIs whose deployments in the given labels differ from the manifest sent
+     * by a gateway. APIs the gateway already has the current artifacts of are only listed by their UUID, so neither
+     * their artifacts are read from the database nor their gateway artifacts are generated.
+     *
+     * @param gatewayLabel Base64 encoded gateway labels separated by '|'
+     * @param type         gateway type
+     * @param tenantDomain tenant domain of the APIs
+     * @param manifest     APIs the gateway holds artifacts of, with the fingerprint they were generated for
+     * @return APIs which are new or changed along with their artifacts, unchanged APIs and removed APIs
+     * @throws APIManagementException if failed to generate the artifacts
+     */
+    public static RuntimeArtifactDeltaDto generateRuntimeArtifactDelta(String gatewayLabel, String type,
+                                                                       String tenantDomain,
+                                                                       List<ArtifactManifestEntryDto> manifest)
+            throws APIManagementException {
+
+        GatewayArtifactGenerator gatewayArtifactGenerator =
+                ServiceReferenceHolder.getInstance().getGatewayArtifactGenerator(type);
+        if (gatewayArtifactGenerator == null) {
+            Set<String> gatewayArtifactGeneratorTypes =
+                    ServiceReferenceHolder.getInstance().getGatewayArtifactGeneratorTypes();
+            throw new APIManagementException("Couldn't find gateway Type",
+                    ExceptionCodes.from(ExceptionCodes.GATEWAY_TYPE_NOT_FOUND, String.join(",",
+                            gatewayArtifactGeneratorTypes)));
+        }
+        if (StringUtils.isEmpty(gatewayLabel)) {
+            throw new APIManagementException("Gateway label is required to retrieve the runtime artifact delta",
+                    ExceptionCodes.PARAMETER_NOT_PROVIDED);
+        }
+        String[] gatewayLabels = new String(Base64.decodeBase64(gatewayLabel.getBytes())).split("\\|");
+        Map<String, String> gatewayManifest = new HashMap<>();
+        if (manifest != null) {
+            for (ArtifactManifestEntryDto entry : manifest) {
+                gatewayManifest.put(entry.getApiId(), entry.getHash());
+            }
+        }
+
+        RuntimeArtifactDeltaDto runtimeArtifactDeltaDto = new RuntimeArtifactDeltaDto();
+        List<String> changedApiIds = new ArrayList<>();
+        Map<String, List<APIRuntimeArtifactDto>> deployedApis = groupByApiId(
+                gatewayArtifactsMgtDAO.retrieveGatewayArtifactSummariesByLabel(gatewayLabels, tenantDomain));
+        for (Map.Entry<String, List<APIRuntimeArtifactDto>> deployedApi : deployedApis.entrySet()) {
+            String apiId = deployedApi.getKey();
+            if (getArtifactFingerprint(deployedApi.getValue()).equals(gatewayManifest.get(apiId))) {
+                runtimeArtifactDeltaDto.getUnchanged().add(apiId);
+            } else {
+                changedApiIds.add(apiId);
+            }
+        }
+        for (String apiId : gatewayManifest.keySet()) {
+            if (!deployedApis.containsKey(apiId)) {
+                runtimeArtifactDeltaDto.getRemoved().add(apiId);
+            }
+        }
+
+        if (!changedApiIds.isEmpty()) {
+            List<APIRuntimeArtifactDto> gatewayArtifacts =
+                    gatewayArtifactsMgtDAO.retrieveGatewayArtifactsByAPIIDs(changedApiIds, gatewayLabels,
+                            tenantDomain);
+            for (APIRuntimeArtifactDto apiRuntimeArtifactDto : gatewayArtifacts) {
+                ArtifactSynchronizerUtil.setArtifactProperties(apiRuntimeArtifactDto);
+            }
+            for (Map.Entry<String, List<APIRuntimeArtifactDto>> changedApi :
+                    groupByApiId(gatewayArtifacts).entrySet()) {
+                RuntimeArtifactDto runtimeArtifactDto =
+                        gatewayArtifactGenerator.generateGatewayArtifact(changedApi.getValue());
+                if (runtimeArtifactDto.isFile() || !(runtimeArtifactDto.getArtifact() instanceof List)) {
+                    throw new APIManagementException("Gateway type " + type + " does not support delta sync",
+                            ExceptionCodes.from(ExceptionCodes.GATEWAY_TYPE_NOT_FOUND, type));
+                }
+                List<String> artifacts = (List<String>) runtimeArtifactDto.getArtifact();
+                if (artifacts.isEmpty()) {
+                    // Generation failed, leave the API out so that the gateway asks for it again in the next sync
+                    continue;
+                }
+                // The fingerprint is calculated from the rows the artifacts were generated from, so that a
+                // deployment which happened after the summaries were read is picked up in the next sync
+                ArtifactManifestEntryDto entry = new ArtifactManifestEntryDto(changedApi.getKey(),
+                        getRevisionId(changedApi.getValue()), getArtifactFingerprint(changedApi.getValue()));
+                entry.setArtifacts(artifacts);
+                runtimeArtifactDeltaDto.getList().add(entry);
+            }
+        }
+        return runtimeArtifactDeltaDto;
+    }
+
+    /**
+     * Calculates a fingerprint of the deployments of an API from which its gateway artifacts are generated.
+     * Revisions are immutable, so the fingerprint changes only when a different revision is deployed or when a
+     * revision is deployed again.
+     *
+     * @param apiRuntimeArtifacts deployments of a single API
+     * @return SHA-256 hex digest of the deployments
+     */
+    public static String getArtifactFingerprint(List<APIRuntimeArtifactDto> apiRuntimeArtifacts) {
+
+        Set<String> deployments = new TreeSet<>();
+        for (APIRuntimeArtifactDto apiRuntimeArtifactDto : apiRuntimeArtifacts) {
+            deployments.add(String.join("|", apiRuntimeArtifactDto.getApiId(), apiRuntimeArtifactDto.getRevision(),
+                    apiRuntimeArtifactDto.getLabel(), apiRuntimeArtifactDto.getVhost(),
+                    apiRuntimeArtifactDto.getContext(), String.valueOf(apiRuntimeArtifactDto.getDeployedTimeStamp())));
+        }
+        return DigestUtils.sha256Hex(String.join("\n", deployments));
+    }
+
+    private static String getRevisionId(List<APIRuntimeArtifactDto> apiRuntimeArtifacts) {
+
+        Set<String> revisions = new TreeSet<>();
+        for (APIRuntimeArtifactDto apiRuntimeArtifactDto : apiRuntimeArtifacts) {
+            revisions.add(apiRuntimeArtifactDto.getRevision());
+        }
+        return String.join(",", revisions);
+    }
+
+    private static Map<String, List<APIRuntimeArtifactDto>> groupByApiId(
+            List<APIRuntimeArtifactDto> apiRuntimeArtifacts) {
+
+        Map<String, List<APIRuntimeArtifactDto>> apiRuntimeArtifactsByApiId = new LinkedHashMap<>();
+        for (APIRuntimeArtifactDto apiRuntimeArtifactDto : apiRuntimeArtifacts) {
+            apiRuntimeArtifactsByApiId.computeIfAbsent(apiRuntimeArtifactDto.getApiId(), apiId -> new ArrayList<>())
+                    .add(apiRuntimeArtifactDto);
+        }
+        return apiRuntimeArtifactsByApiId;
+    }
+
     public static RuntimeArtifactDto generateMetadataArtifact(String tenantDomain, String apiId, String gatewayLabel)
             throws APIManagementException {
         List<APIRuntimeArtifactDto> gatewayArtifacts = getRuntimeArtifacts(apiId, gatewayLabel, tenantDomain);
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.dto;
+
+import java.util.List;
+
+/**
+ * ArtifactManifestEntryDto represents the runtime artifacts of an API held by a gateway.
+ * apiId: UUID of the API.
+ * revisionId: Deployed revision of the API.
+ * hash: Fingerprint of the deployments of the API the artifacts were generated for.
+ * artifacts: Runtime artifacts of the API, only set when the artifacts are sent to the gateway.
+ */
+public class ArtifactManifestEntryDto {
+    private String apiId;
+    private String revisionId;
+    private String hash;
+    private List<String> artifacts;
+
+    public ArtifactManifestEntryDto() {
+    }
+
+    public ArtifactManifestEntryDto(String apiId, String revisionId, String hash) {
+        this.apiId = apiId;
+        this.revisionId = revisionId;
+        this.hash = hash;
+    }
+
+    public String getApiId() {
+        return apiId;
+    }
+
+    public void setApiId(String apiId) {
+        this.apiId = apiId;
+    }
+
+    public String getRevisionId() {
+        return revisionId;
+    }
+
+    public void setRevisionId(String revisionId) {
+        this.revisionId = revisionId;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public List<String> getArtifacts() {
+        return artifacts;
+    }
+
+    public void setArtifacts(List<String> artifacts) {
+        this.artifacts = artifacts;
+    }
+}
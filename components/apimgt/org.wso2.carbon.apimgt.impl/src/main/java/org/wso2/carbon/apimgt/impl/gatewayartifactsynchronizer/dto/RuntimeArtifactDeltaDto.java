@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RuntimeArtifactDeltaDto represents the difference between the runtime artifacts held by a gateway and the API
+ * revisions currently deployed in its labels.
+ * list: APIs which are new or changed, along with their runtime artifacts.
+ * unchanged: UUIDs of the APIs the gateway already has the current artifacts of.
+ * removed: UUIDs of the APIs which are no longer deployed in the labels.
+ */
+public class RuntimeArtifactDeltaDto {
+    private List<ArtifactManifestEntryDto> list = new ArrayList<>();
+    private List<String> unchanged = new ArrayList<>();
+    private List<String> removed = new ArrayList<>();
+
+    public List<ArtifactManifestEntryDto> getList() {
+        return list;
+    }
+
+    public void setList(List<ArtifactManifestEntryDto> list) {
+        this.list = list;
+    }
+
+    public List<String> getUnchanged() {
+        return unchanged;
+    }
+
+    public void setUnchanged(List<String> unchanged) {
+        this.unchanged = unchanged;
+    }
+
+    public List<String> getRemoved() {
+        return removed;
+    }
+
+    public void setRemoved(List<String> removed) {
+        this.removed = removed;
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.jwt;
+
+import com.nimbusds.jose.Algorithm;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.Ed25519Verifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jwt.SignedJWT;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+import org.wso2.carbon.apimgt.impl.utils.JWTUtil;
+import org.wso2.carbon.apimgt.impl.utils.TinyLFUCache;
+
+import java.io.IOException;
+import java.security.PublicKey;
+import java.text.ParseException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Caches the signing keys published by the JWKS endpoint of a token issuer.
+ * <p>
+ * The key set is fetched when the first token is validated and is refreshed in the background once it is older than
+ * the refresh interval, while the current keys keep serving requests. At most one fetch of the key set is in flight at
+ * a time, and requests which need the result of a fetch in flight wait for it. A token with a key ID which is not in
+ * the key set triggers a fetch only if the minimum refetch interval has elapsed since the last fetch completed or
+ * failed, and a key ID which is still unknown after a fetch is remembered for the minimum refetch interval, so that
+ * tokens with random key IDs do not cause a fetch per request. Keys are looked up in the current key set and in the
+ * result of a fetch in flight before the remembered key IDs, hence a remembered key ID never hides a key which a later
+ * fetch returned. The public key and the verifier of each key are built once per fetch.
+ */
+public class JWKSKeyCache {
+
+    private static final Log log = LogFactory.getLog(JWKSKeyCache.class);
+    static final long DEFAULT_REFRESH_INTERVAL = TimeUnit.MINUTES.toMillis(15);
+    static final long DEFAULT_MIN_REFETCH_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+    private static final int UNKNOWN_KEY_ID_CACHE_SIZE = 1000;
+    private static final ExecutorService refreshExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "JWKSKeyCacheRefresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String jwksEndpoint;
+    private final long refreshInterval;
+    private final long minRefetchInterval;
+    // Key IDs which were not in the key set, each remembered for the minimum refetch interval
+    private final TinyLFUCache<String, Boolean> unknownKeyIds;
+    private final AtomicReference<CompletableFuture<KeySet>> inFlightFetch = new AtomicReference<>();
+    private volatile KeySet keySet;
+    private volatile long lastFailureTime;
+
+    public JWKSKeyCache(String jwksEndpoint) {
+
+        this(jwksEndpoint, DEFAULT_REFRESH_INTERVAL, DEFAULT_MIN_REFETCH_INTERVAL);
+    }
+
+    /**
+     * @param jwksEndpoint       JWKS endpoint of the token issuer
+     * @param refreshInterval    time after which the key set is refreshed in the background, in milliseconds
+     * @param minRefetchInterval minimum time between two fetches of the key set, in milliseconds
+     */
+    public JWKSKeyCache(String jwksEndpoint, long refreshInterval, long minRefetchInterval) {
+
+        this.jwksEndpoint = jwksEndpoint;
+        this.refreshInterval = refreshInterval;
+        this.minRefetchInterval = minRefetchInterval;
+        this.unknownKeyIds = new TinyLFUCache<>(UNKNOWN_KEY_ID_CACHE_SIZE, Math.max(1, minRefetchInterval));
+    }
+
+    /**
+     * Verifies the signature of a JWT with the key identified by its key ID.
+     *
+     * @param signedJWT signed JWT
+     * @return whether the signature is verified or not
+     * @throws APIManagementException if the key set could not be retrieved
+     */
+    public boolean verifyTokenSignature(SignedJWT signedJWT) throws APIManagementException {
+
+        String keyID = signedJWT.getHeader().getKeyID();
+        CachedKey cachedKey = getKey(keyID);
+        if (cachedKey == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Couldn't find a key with key ID " + keyID + " in the JWKS of " + jwksEndpoint);
+            }
+            return false;
+        }
+        return cachedKey.verify(signedJWT);
+    }
+
+    /**
+     * Returns the key with the given key ID, fetching the key set if the key ID is not known yet.
+     *
+     * @param keyID key ID
+     * @return key or null if there is no key with the given key ID
+     * @throws APIManagementException if the key set could not be retrieved
+     */
+    CachedKey getKey(String keyID) throws APIManagementException {
+
+        KeySet current = keySet;
+        if (current == null) {
+            CompletableFuture<KeySet> firstFetch = inFlightFetch.get();
+            if (firstFetch != null) {
+                current = await(firstFetch);
+            } else if (keySet != null) {
+                // The first fetch completed after the key set was read
+                current = keySet;
+            } else if (!isFetchAllowed()) {
+                // The last fetch failed, hence the endpoint is not retried until the minimum refetch interval elapses
+                return null;
+            } else {
+                current = fetch();
+            }
+        } else if (System.currentTimeMillis() - current.fetchedTime >= refreshInterval) {
+            refreshInBackground();
+        }
+        CachedKey cachedKey = current.keys.get(keyID);
+        if (cachedKey != null || keyID == null) {
+            return cachedKey;
+        }
+        KeySet latest;
+        CompletableFuture<KeySet> pendingFetch = inFlightFetch.get();
+        if (pendingFetch != null) {
+            // The fetch in flight may return the key
+            latest = await(pendingFetch);
+        } else if (unknownKeyIds.containsKey(keyID)) {
+            return null;
+        } else if (isFetchAllowed()) {
+            latest = fetch();
+        } else {
+            // A fetch may have completed after the current key set was read
+            latest = keySet;
+        }
+        cachedKey = latest.keys.get(keyID);
+        if (cachedKey == null) {
+            unknownKeyIds.put(keyID, Boolean.TRUE);
+        }
+        return cachedKey;
+    }
+
+    /**
+     * Retrieves the key set from the JWKS endpoint.
+     *
+     * @return JWKS as a string or null if the endpoint did not return the key set
+     * @throws IOException if the endpoint could not be reached
+     */
+    protected String retrieveJWKS() throws IOException {
+
+        return JWTUtil.retrieveJWKSConfiguration(jwksEndpoint);
+    }
+
+    private KeySet fetch() throws APIManagementException {
+
+        while (true) {
+            CompletableFuture<KeySet> future = inFlightFetch.get();
+            if (future == null) {
+                future = new CompletableFuture<>();
+                if (!inFlightFetch.compareAndSet(null, future)) {
+                    continue;
+                }
+                load(future);
+            }
+            return await(future);
+        }
+    }
+
+    private KeySet await(CompletableFuture<KeySet> future) throws APIManagementException {
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new APIManagementException("Interrupted while retrieving JWKS from " + jwksEndpoint, e);
+        } catch (ExecutionException e) {
+            throw new APIManagementException("Error while retrieving JWKS from " + jwksEndpoint, e.getCause());
+        }
+    }
+
+    /**
+     * Returns whether the minimum refetch interval has elapsed since the last fetch completed or failed.
+     */
+    private boolean isFetchAllowed() {
+
+        KeySet current = keySet;
+        long lastFetchTime = Math.max(current != null ? current.fetchedTime : 0, lastFailureTime);
+        return System.currentTimeMillis() - lastFetchTime >= minRefetchInterval;
+    }
+
+    private void refreshInBackground() {
+
+        if (inFlightFetch.get() != null || !isFetchAllowed()) {
+            return;
+        }
+        CompletableFuture<KeySet> future = new CompletableFuture<>();
+        if (inFlightFetch.compareAndSet(null, future)) {
+            refreshExecutor.execute(() -> {
+                load(future);
+                if (future.isCompletedExceptionally()) {
+                    log.warn("Error while refreshing JWKS from " + jwksEndpoint + ". The cached keys are used until "
+                            + "the next refresh.");
+                }
+            });
+        }
+    }
+
+    private void load(CompletableFuture<KeySet> future) {
+
+        try {
+            String jwks = retrieveJWKS();
+            if (jwks == null) {
+                throw new IOException("JWKS endpoint " + jwksEndpoint + " did not return a key set");
+            }
+            KeySet fetched = new KeySet(JWKSet.parse(jwks), System.currentTimeMillis());
+            keySet = fetched;
+            inFlightFetch.set(null);
+            future.complete(fetched);
+        } catch (IOException | ParseException | RuntimeException e) {
+            lastFailureTime = System.currentTimeMillis();
+            inFlightFetch.set(null);
+            future.completeExceptionally(e);
+        }
+    }
+
+    private static CachedKey buildKey(JWK jwk) {
+
+        try {
+            if (jwk instanceof RSAKey) {
+                RSAKey rsaKey = (RSAKey) jwk;
+                return new CachedKey(jwk, rsaKey.toPublicKey(), new RSASSAVerifier(rsaKey));
+            }
+            if (jwk instanceof ECKey) {
+                ECKey ecKey = (ECKey) jwk;
+                return new CachedKey(jwk, ecKey.toPublicKey(), new ECDSAVerifier(ecKey));
+            }
+            if (jwk instanceof OctetKeyPair && Curve.Ed25519.equals(((OctetKeyPair) jwk).getCurve())) {
+                return new CachedKey(jwk, null, new Ed25519Verifier(((OctetKeyPair) jwk).toPublicJWK()));
+            }
+        } catch (JOSEException e) {
+            log.error("Error while building the verifier of key " + jwk.getKeyID(), e);
+        } catch (NoClassDefFoundError e) {
+            log.error("Key " + jwk.getKeyID() + " of type " + jwk.getKeyType() + " is not supported in this "
+                    + "environment", e);
+        }
+        return new CachedKey(jwk, null, null);
+    }
+
+    /**
+     * Key set retrieved in a single fetch.
+     */
+    private static final class KeySet {
+
+        private final Map<String, CachedKey> keys;
+        private final long fetchedTime;
+
+        private KeySet(JWKSet jwkSet, long fetchedTime) {
+
+            Map<String, CachedKey> keys = new HashMap<>();
+            for (JWK jwk : jwkSet.getKeys()) {
+                if (StringUtils.isEmpty(jwk.getKeyID())
+                        || (jwk.getKeyUse() != null && !KeyUse.SIGNATURE.equals(jwk.getKeyUse()))) {
+                    continue;
+                }
+                keys.put(jwk.getKeyID(), buildKey(jwk));
+            }
+            this.keys = Collections.unmodifiableMap(keys);
+            this.fetchedTime = fetchedTime;
+        }
+    }
+
+    /**
+     * Signing key of the token issuer along with its verifier.
+     */
+    static final class CachedKey {
+
+        private final JWK jwk;
+        private final PublicKey publicKey;
+        private final JWSVerifier verifier;
+
+        private CachedKey(JWK jwk, PublicKey publicKey, JWSVerifier verifier) {
+
+            this.jwk = jwk;
+            this.publicKey = publicKey;
+            this.verifier = verifier;
+        }
+
+        JWK getJWK() {
+
+            return jwk;
+        }
+
+        PublicKey getPublicKey() {
+
+            return publicKey;
+        }
+
+        JWSVerifier getVerifier() {
+
+            return verifier;
+        }
+
+        private boolean verify(SignedJWT signedJWT) {
+
+            JWSAlgorithm algorithm = signedJWT.getHeader().getAlgorithm();
+            if (verifier == null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Key Algorithm not supported for key " + jwk.getKeyID());
+                }
+                return false;
+            }
+            Algorithm keyAlgorithm = jwk.getAlgorithm();
+            if ((keyAlgorithm != null && !keyAlgorithm.equals(algorithm))
+                    || !verifier.supportedJWSAlgorithms().contains(algorithm)) {
+                log.error("Algorithm " + algorithm + " of the JWT is not supported by key " + jwk.getKeyID());
+                return false;
+            }
+            try {
+                return signedJWT.verify(verifier);
+            } catch (JOSEException e) {
+                log.error("Error while verifying JWT signature", e);
+                return false;
+            }
+        }
+    }
+}
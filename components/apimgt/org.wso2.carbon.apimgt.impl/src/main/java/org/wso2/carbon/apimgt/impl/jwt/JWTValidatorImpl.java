@@ -18,9 +18,6 @@
 
 package org.wso2.carbon.apimgt.impl.jwt;
 
-import com.nimbusds.jose.JOSEException;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 import com.nimbusds.jwt.util.DateUtils;
@@ -38,7 +35,6 @@ import org.wso2.carbon.apimgt.impl.APIManagerConfiguration;
 import org.wso2.carbon.apimgt.impl.internal.ServiceReferenceHolder;
 import org.wso2.carbon.apimgt.impl.utils.JWTUtil;
 
-import java.io.IOException;
 import java.security.interfaces.RSAPublicKey;
 import java.text.ParseException;
 import java.util.Date;
@@ -50,7 +46,7 @@ public class JWTValidatorImpl implements JWTValidator {
     TokenIssuerDto tokenIssuer;
     private Log log = LogFactory.getLog(JWTValidatorImpl.class);
     JWTTransformer jwtTransformer;
-    private JWKSet jwkSet;
+    private JWKSKeyCache jwksKeyCache;
 
     @Override
     public JWTValidationInfo validateToken(SignedJWTInfo signedJWTInfo) throws APIManagementException {
@@ -129,49 +125,34 @@ public class JWTValidatorImpl implements JWTValidator {
             this.jwtTransformer = new DefaultJWTTransformer();
         }
         this.jwtTransformer.loadConfiguration(tokenIssuer);
+        if (tokenIssuer.getJwksConfigurationDTO() != null && tokenIssuer.getJwksConfigurationDTO().isEnabled() &&
+                StringUtils.isNotEmpty(tokenIssuer.getJwksConfigurationDTO().getUrl())) {
+            this.jwksKeyCache = new JWKSKeyCache(tokenIssuer.getJwksConfigurationDTO().getUrl());
+        } else {
+            this.jwksKeyCache = null;
+        }
     }
 
     protected boolean validateSignature(SignedJWT signedJWT) throws APIManagementException {
 
         String certificateAlias = APIConstants.GATEWAY_PUBLIC_CERTIFICATE_ALIAS;
-        try {
-            String keyID = signedJWT.getHeader().getKeyID();
-            if (StringUtils.isNotEmpty(keyID)) {
-                if (tokenIssuer.getJwksConfigurationDTO().isEnabled() &&
-                        StringUtils.isNotEmpty(tokenIssuer.getJwksConfigurationDTO().getUrl())) {
-                    // Check JWKSet Available in Cache
-                    if (jwkSet == null) {
-                        jwkSet = retrieveJWKSet();
-                    }
-                    if (jwkSet.getKeyByKeyId(keyID) == null) {
-                        jwkSet = retrieveJWKSet();
-                    }
-                    if (jwkSet.getKeyByKeyId(keyID) instanceof RSAKey) {
-                        RSAKey keyByKeyId = (RSAKey) jwkSet.getKeyByKeyId(keyID);
-                        RSAPublicKey rsaPublicKey = keyByKeyId.toRSAPublicKey();
-                        if (rsaPublicKey != null) {
-                            return JWTUtil.verifyTokenSignature(signedJWT, rsaPublicKey);
-                        }
-                    } else {
-                        if (log.isDebugEnabled()) {
-                            log.debug("Key Algorithm not supported");
-                        }
-                        return false; // return false to produce 401 unauthenticated response
-                    }
-                } else if (tokenIssuer.getCertificate() != null) {
-                    log.debug("Retrieve certificate from Token issuer and validating");
-                    RSAPublicKey rsaPublicKey = (RSAPublicKey) tokenIssuer.getCertificate().getPublicKey();
-                    return JWTUtil.verifyTokenSignature(signedJWT, rsaPublicKey);
-                } else {
-                    return JWTUtil.verifyTokenSignature(signedJWT, keyID);
+        String keyID = signedJWT.getHeader().getKeyID();
+        if (StringUtils.isNotEmpty(keyID)) {
+            if (tokenIssuer.getJwksConfigurationDTO().isEnabled() &&
+                    StringUtils.isNotEmpty(tokenIssuer.getJwksConfigurationDTO().getUrl())) {
+                if (jwksKeyCache == null) {
+                    jwksKeyCache = new JWKSKeyCache(tokenIssuer.getJwksConfigurationDTO().getUrl());
                 }
+                return jwksKeyCache.verifyTokenSignature(signedJWT);
+            } else if (tokenIssuer.getCertificate() != null) {
+                log.debug("Retrieve certificate from Token issuer and validating");
+                RSAPublicKey rsaPublicKey = (RSAPublicKey) tokenIssuer.getCertificate().getPublicKey();
+                return JWTUtil.verifyTokenSignature(signedJWT, rsaPublicKey);
+            } else {
+                return JWTUtil.verifyTokenSignature(signedJWT, keyID);
             }
-            return JWTUtil.verifyTokenSignature(signedJWT, certificateAlias);
-        } catch (ParseException | JOSEException | IOException e) {
-            log.error("Error while parsing JWT", e);
-            throw new APIManagementException("Error while parsing JWT", e);
         }
-
+        return JWTUtil.verifyTokenSignature(signedJWT, certificateAlias);
     }
 
     protected boolean validateTokenExpiry(JWTClaimsSet jwtClaimsSet) {
@@ -219,12 +200,4 @@ public class JWTValidatorImpl implements JWTValidator {
         jwtValidationInfo.setUser(jwtClaimsSet.getSubject());
         jwtValidationInfo.setJti(jwtClaimsSet.getJWTID());
     }
-
-    private JWKSet retrieveJWKSet() throws IOException, ParseException {
-
-        String jwksInfo = JWTUtil
-                .retrieveJWKSConfiguration(tokenIssuer.getJwksConfigurationDTO().getUrl());
-        jwkSet = JWKSet.parse(jwksInfo);
-        return jwkSet;
-    }
 }
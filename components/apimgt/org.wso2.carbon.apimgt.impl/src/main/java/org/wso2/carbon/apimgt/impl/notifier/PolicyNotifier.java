@@ -19,7 +19,9 @@
 package org.wso2.carbon.apimgt.impl.notifier;
 
 import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.caching.TierSnapshotCache;
 import org.wso2.carbon.apimgt.impl.notifier.events.Event;
+import org.wso2.carbon.apimgt.impl.notifier.events.PolicyEvent;
 import org.wso2.carbon.apimgt.impl.notifier.exceptions.NotifierException;
 
 /**
@@ -31,6 +33,10 @@ public class PolicyNotifier extends AbstractNotifier {
     @Override
     public boolean publishEvent(Event event) throws NotifierException {
 
+        if (event instanceof PolicyEvent) {
+            // Other nodes invalidate their tiers once the event is received through the event hub
+            TierSnapshotCache.getInstance().invalidate((PolicyEvent) event);
+        }
         publishEventToEventHub(event);
         return true;
     }
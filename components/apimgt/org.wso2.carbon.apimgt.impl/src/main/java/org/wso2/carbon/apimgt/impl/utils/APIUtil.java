@@ -155,6 +155,7 @@ import org.wso2.carbon.apimgt.impl.IDPConfiguration;
 import org.wso2.carbon.apimgt.impl.PasswordResolverFactory;
 import org.wso2.carbon.apimgt.impl.RESTAPICacheConfiguration;
 import org.wso2.carbon.apimgt.impl.caching.CacheProvider;
+import org.wso2.carbon.apimgt.impl.caching.TierSnapshotCache;
 import org.wso2.carbon.apimgt.impl.dao.ApiMgtDAO;
 import org.wso2.carbon.apimgt.impl.dao.CorrelationConfigDAO;
 import org.wso2.carbon.apimgt.impl.dao.ScopesDAO;
@@ -3317,6 +3318,11 @@ public final class APIUtil {
         return ApiMgtDAO.getInstance().getAverageRating(apiId);
     }
 
+    public static Map<String, Float> getAverageRatings(List<String> ids) throws APIManagementException {
+
+        return ApiMgtDAO.getInstance().getAverageRatings(ids);
+    }
+
     public static List<Tenant> getAllTenantsWithSuperTenant() throws UserStoreException {
 
         Tenant[] tenants = ServiceReferenceHolder.getInstance().getRealmService().getTenantManager().getAllTenants();
@@ -5144,6 +5150,7 @@ public final class APIUtil {
         } finally {
             PrivilegedCarbonContext.endTenantFlow();
         }
+        TierSnapshotCache.getInstance().invalidate(getTenantIdFromTenantDomain(tenantDomain));
     }
 
     private static Cache getTiersCache() {
@@ -6241,7 +6248,23 @@ public final class APIUtil {
         return defaultTier;
     }
 
+    /**
+     * Returns the tiers of the throttle policies of a policy level of a tenant. The tiers are cached per tenant and
+     * policy level until the policies of the level change.
+     *
+     * @param policyLevel policy level
+     * @param tenantId    tenant id
+     * @return tier name to tier mappings
+     * @throws APIManagementException if failed to retrieve the policies
+     */
     public static Map<String, Tier> getTiersFromPolicies(String policyLevel, int tenantId) throws APIManagementException {
+
+        return TierSnapshotCache.getInstance().getTiers(policyLevel, tenantId,
+                () -> loadTiersFromPolicies(policyLevel, tenantId));
+    }
+
+    private static Map<String, Tier> loadTiersFromPolicies(String policyLevel, int tenantId)
+            throws APIManagementException {
         Map<String, Tier> tierMap = new TreeMap<String, Tier>();
         ApiMgtDAO apiMgtDAO = ApiMgtDAO.getInstance();
         Policy[] policies;
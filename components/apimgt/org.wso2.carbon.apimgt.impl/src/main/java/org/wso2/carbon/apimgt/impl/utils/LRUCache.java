@@ -16,84 +16,14 @@
 
 package org.wso2.carbon.apimgt.impl.utils;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-
 /**
- * A simple, thread-safe LRU cache implementation. This cache allows concurrent reads.
- * Concurrent write attempts are synchronized using an exclusive lock.
+ * A bounded, thread-safe cache. Reads do not take any lock and concurrent writes are only synchronized when they fall
+ * on the same stripe of the cache. Despite the name, entries are evicted based on their frequency of use as described
+ * in {@link TinyLFUCache}, which keeps frequently used entries in the cache when many entries are used only once.
  */
-public class LRUCache<K,V> extends LinkedHashMap<K,V> {
-
-    private int maxEntries;
-    private ReadWriteLock lock;
+public class LRUCache<K,V> extends TinyLFUCache<K,V> {
 
     public LRUCache(int maxEntries) {
-        super(maxEntries + 1, 1, false);
-        this.maxEntries = maxEntries;
-        this.lock = new ReentrantReadWriteLock();
-    }
-
-    @Override
-    public V get(Object key) {
-        lock.readLock().lock();
-        try {
-            return super.get(key);
-        } finally {
-            lock.readLock().unlock();
-        }
-    }
-
-    @Override
-    public V put(K key, V value) {
-        lock.writeLock().lock();
-        try {
-            return super.put(key, value);
-        } finally {
-            lock.writeLock().unlock();
-        }
-    }
-
-    @Override
-    public V remove(Object key) {
-        lock.writeLock().lock();
-        try {
-            return super.remove(key);
-        } finally {
-            lock.writeLock().unlock();
-        }
-    }
-
-    @Override
-    public void clear() {
-        lock.writeLock().lock();
-        try {
-            super.clear();
-        } finally {
-            lock.writeLock().unlock();
-        }
-    }
-
-    @Override
-    protected boolean removeEldestEntry(Map.Entry eldest) {
-        boolean remove = size() > maxEntries;
-        if (remove) {
-            handleRemovableEntry(eldest);
-        }
-        return remove;
-    }
-    
-    protected void handleRemovableEntry(Map.Entry<K,V> entry) {
-        
-    }
-    
-    public void exclusiveLock() {
-        lock.writeLock().lock();
-    }
-
-    public void release() {
-        lock.writeLock().unlock();
+        super(maxEntries);
     }
 }
@@ -0,0 +1,668 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.utils;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded, thread-safe cache which evicts entries based on their frequency of use (W-TinyLFU).
+ * <p>
+ * Entries are kept in a {@link ConcurrentHashMap}, hence reads do not take any lock. The eviction order is kept by
+ * stripes, each of which owns a share of the capacity and a lock. A new entry is admitted to a small LRU window of its
+ * stripe. When an entry is pushed out of the window, it is only admitted to the main segmented LRU of the stripe if it
+ * has been used more often than the entry it would evict, as estimated by a count-min sketch of the recent
+ * frequencies of all the keys. Entries used again in the main segment are protected from eviction. This keeps
+ * frequently used entries in the cache when many entries are used only once.
+ * <p>
+ * Reads are recorded in a small lossy buffer of the stripe and applied to the eviction order when the stripe is next
+ * written to, so a read never waits for a lock. Entries may expire after a time to live. Null keys are not supported.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public class TinyLFUCache<K, V> extends AbstractMap<K, V> {
+
+    private static final int MIN_STRIPE_CAPACITY = 16;
+    private static final int READ_BUFFER_SIZE = 16;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+    private final Stripe<K, V>[] stripes;
+    private final FrequencySketch sketch;
+    private final long timeToLive;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public TinyLFUCache(int maxEntries) {
+
+        this(maxEntries, 0);
+    }
+
+    /**
+     * @param maxEntries maximum number of entries
+     * @param timeToLive time an entry is kept after it was put, in milliseconds, or 0 to keep entries until evicted
+     */
+    @SuppressWarnings("unchecked")
+    public TinyLFUCache(int maxEntries, long timeToLive) {
+
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Maximum number of entries should be positive: " + maxEntries);
+        }
+        this.timeToLive = Math.max(0, timeToLive);
+        this.data = new ConcurrentHashMap<>(Math.min(maxEntries, 1 << 16));
+        this.sketch = new FrequencySketch(maxEntries);
+        int stripeCount = 1;
+        int maxStripes = Runtime.getRuntime().availableProcessors() * 4;
+        while (stripeCount * 2 <= maxStripes && maxEntries / (stripeCount * 2) >= MIN_STRIPE_CAPACITY) {
+            stripeCount *= 2;
+        }
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>(maxEntries / stripeCount + (i < maxEntries % stripeCount ? 1 : 0));
+        }
+    }
+
+    @Override
+    public V get(Object key) {
+
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            missCount.increment();
+            return null;
+        }
+        if (node.isExpired(System.currentTimeMillis())) {
+            missCount.increment();
+            removeExpired(node);
+            return null;
+        }
+        hitCount.increment();
+        sketch.increment(node.hash);
+        getStripe(node.hash).recordRead(node);
+        return node.value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+
+        Node<K, V> node = data.get(key);
+        return node != null && !node.isExpired(System.currentTimeMillis());
+    }
+
+    @Override
+    public V put(K key, V value) {
+
+        return put(key, value, timeToLive);
+    }
+
+    /**
+     * Puts an entry which expires after the given time to live.
+     *
+     * @param key        key
+     * @param value      value
+     * @param timeToLive time the entry is kept, in milliseconds, or 0 to keep the entry until evicted
+     * @return previous value of the key
+     */
+    public V put(K key, V value, long timeToLive) {
+
+        int hash = spread(key.hashCode());
+        long expiryTime = timeToLive > 0 ? System.currentTimeMillis() + timeToLive : 0;
+        Stripe<K, V> stripe = getStripe(hash);
+        sketch.increment(hash);
+        List<Node<K, V>> evicted = new ArrayList<>(1);
+        V previous = null;
+        stripe.lock.lock();
+        try {
+            stripe.drainReadBuffer();
+            Node<K, V> node = data.get(key);
+            if (node != null) {
+                previous = node.isExpired(System.currentTimeMillis()) ? null : node.value;
+                node.value = value;
+                node.expiryTime = expiryTime;
+                stripe.onAccess(node);
+            } else {
+                node = new Node<>(key, hash, value, expiryTime);
+                data.put(key, node);
+                stripe.window.addLast(node);
+                node.queue = Node.WINDOW;
+                stripe.evict(sketch, evicted);
+                for (Node<K, V> evictedNode : evicted) {
+                    data.remove(evictedNode.key, evictedNode);
+                }
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        for (Node<K, V> evictedNode : evicted) {
+            evictionCount.increment();
+            handleRemovableEntry(new SimpleImmutableEntry<>(evictedNode.key, evictedNode.value));
+        }
+        return previous;
+    }
+
+    @Override
+    public V remove(Object key) {
+
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        Stripe<K, V> stripe = getStripe(node.hash);
+        stripe.lock.lock();
+        try {
+            node = data.remove(key);
+            if (node == null) {
+                return null;
+            }
+            stripe.unlink(node);
+        } finally {
+            stripe.lock.unlock();
+        }
+        return node.isExpired(System.currentTimeMillis()) ? null : node.value;
+    }
+
+    @Override
+    public void clear() {
+
+        exclusiveLock();
+        try {
+            for (Node<K, V> node : data.values()) {
+                node.queue = Node.REMOVED;
+            }
+            data.clear();
+            for (Stripe<K, V> stripe : stripes) {
+                stripe.window.clear();
+                stripe.probation.clear();
+                stripe.protectedQueue.clear();
+            }
+        } finally {
+            release();
+        }
+    }
+
+    @Override
+    public int size() {
+
+        return data.size();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+
+        return new EntrySet();
+    }
+
+    /**
+     * Invoked after an entry is evicted or expires.
+     *
+     * @param entry removed entry
+     */
+    protected void handleRemovableEntry(Map.Entry<K, V> entry) {
+
+    }
+
+    /**
+     * Blocks all the writes to the cache until {@link #release()} is called.
+     */
+    public void exclusiveLock() {
+
+        for (Stripe<K, V> stripe : stripes) {
+            stripe.lock.lock();
+        }
+    }
+
+    public void release() {
+
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].lock.unlock();
+        }
+    }
+
+    public long getHitCount() {
+
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+
+        return missCount.sum();
+    }
+
+    /**
+     * Returns the number of entries evicted to keep the cache within its maximum size or because they expired.
+     */
+    public long getEvictionCount() {
+
+        return evictionCount.sum();
+    }
+
+    public double getHitRate() {
+
+        long hits = hitCount.sum();
+        long requests = hits + missCount.sum();
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+    private void removeExpired(Node<K, V> node) {
+
+        Stripe<K, V> stripe = getStripe(node.hash);
+        boolean removed;
+        stripe.lock.lock();
+        try {
+            removed = data.remove(node.key, node);
+            if (removed) {
+                stripe.unlink(node);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        if (removed) {
+            evictionCount.increment();
+            handleRemovableEntry(new SimpleImmutableEntry<>(node.key, node.value));
+        }
+    }
+
+    private Stripe<K, V> getStripe(int hash) {
+
+        return stripes[(hash >>> 16) & (stripes.length - 1)];
+    }
+
+    private static int spread(int hash) {
+
+        hash ^= hash >>> 17;
+        hash *= 0xed5ad4bb;
+        hash ^= hash >>> 11;
+        hash *= 0xac4c1b51;
+        hash ^= hash >>> 15;
+        return hash;
+    }
+
+    private static final class Node<K, V> {
+
+        private static final int REMOVED = 0;
+        private static final int WINDOW = 1;
+        private static final int PROBATION = 2;
+        private static final int PROTECTED = 3;
+
+        private final K key;
+        private final int hash;
+        private volatile V value;
+        private volatile long expiryTime;
+        // Guarded by the lock of the stripe
+        private int queue;
+        private Node<K, V> previous;
+        private Node<K, V> next;
+
+        private Node(K key, int hash, V value, long expiryTime) {
+
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+            this.expiryTime = expiryTime;
+        }
+
+        private boolean isExpired(long now) {
+
+            long expiry = expiryTime;
+            return expiry > 0 && now >= expiry;
+        }
+    }
+
+    /**
+     * A share of the cache capacity with its eviction order. The queues are guarded by the lock.
+     */
+    private static final class Stripe<K, V> {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int capacity;
+        private final int windowCapacity;
+        private final int protectedCapacity;
+        private final AccessQueue<K, V> window = new AccessQueue<>();
+        private final AccessQueue<K, V> probation = new AccessQueue<>();
+        private final AccessQueue<K, V> protectedQueue = new AccessQueue<>();
+        private final AtomicReferenceArray<Node<K, V>> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        private final AtomicInteger readCount = new AtomicInteger();
+
+        private Stripe(int capacity) {
+
+            this.capacity = capacity;
+            this.windowCapacity = Math.max(1, capacity / 100);
+            this.protectedCapacity = (capacity - windowCapacity) * 8 / 10;
+        }
+
+        private void recordRead(Node<K, V> node) {
+
+            int index = readCount.getAndIncrement();
+            if (index < READ_BUFFER_SIZE) {
+                readBuffer.lazySet(index, node);
+            }
+            // Reads are dropped while the buffer is full, they are only used as a hint of the recency of use
+            if (index >= READ_BUFFER_SIZE - 1 && lock.tryLock()) {
+                try {
+                    drainReadBuffer();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        private void drainReadBuffer() {
+
+            int count = Math.min(readCount.get(), READ_BUFFER_SIZE);
+            for (int i = 0; i < count; i++) {
+                Node<K, V> node = readBuffer.getAndSet(i, null);
+                if (node != null && node.queue != Node.REMOVED) {
+                    onAccess(node);
+                }
+            }
+            readCount.set(0);
+        }
+
+        private void onAccess(Node<K, V> node) {
+
+            switch (node.queue) {
+                case Node.WINDOW:
+                    window.moveToLast(node);
+                    break;
+                case Node.PROBATION:
+                    probation.remove(node);
+                    protectedQueue.addLast(node);
+                    node.queue = Node.PROTECTED;
+                    while (protectedQueue.size > protectedCapacity) {
+                        Node<K, V> demoted = protectedQueue.pollFirst();
+                        probation.addLast(demoted);
+                        demoted.queue = Node.PROBATION;
+                    }
+                    break;
+                case Node.PROTECTED:
+                    protectedQueue.moveToLast(node);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        /**
+         * Moves the entries pushed out of the window to the main segment and evicts entries until the stripe is
+         * within its capacity. An entry from the window is only kept if it is used more often than the least recently
+         * used entry of the main segment.
+         */
+        private void evict(FrequencySketch sketch, List<Node<K, V>> evicted) {
+
+            while (window.size > windowCapacity) {
+                Node<K, V> node = window.pollFirst();
+                probation.addLast(node);
+                node.queue = Node.PROBATION;
+            }
+            while (window.size + probation.size + protectedQueue.size > capacity) {
+                Node<K, V> victim = probation.first;
+                Node<K, V> candidate = probation.last;
+                Node<K, V> node;
+                if (victim == candidate || sketch.frequency(candidate.hash) > sketch.frequency(victim.hash)) {
+                    node = victim;
+                } else {
+                    node = candidate;
+                }
+                unlink(node);
+                evicted.add(node);
+            }
+        }
+
+        private void unlink(Node<K, V> node) {
+
+            switch (node.queue) {
+                case Node.WINDOW:
+                    window.remove(node);
+                    break;
+                case Node.PROBATION:
+                    probation.remove(node);
+                    break;
+                case Node.PROTECTED:
+                    protectedQueue.remove(node);
+                    break;
+                default:
+                    break;
+            }
+            node.queue = Node.REMOVED;
+        }
+    }
+
+    /**
+     * Doubly linked queue of nodes in the order of their last access.
+     */
+    private static final class AccessQueue<K, V> {
+
+        private Node<K, V> first;
+        private Node<K, V> last;
+        private int size;
+
+        private void addLast(Node<K, V> node) {
+
+            node.previous = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+            size++;
+        }
+
+        private Node<K, V> pollFirst() {
+
+            Node<K, V> node = first;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+
+        private void remove(Node<K, V> node) {
+
+            if (node.previous == null) {
+                first = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+            size--;
+        }
+
+        private void moveToLast(Node<K, V> node) {
+
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        private void clear() {
+
+            first = null;
+            last = null;
+            size = 0;
+        }
+    }
+
+    /**
+     * Count-min sketch of the recent frequencies of the keys, with 4 bit counters which are halved periodically so
+     * that old frequencies fade away.
+     */
+    private static final class FrequencySketch {
+
+        private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+                0xcbf29ce484222325L};
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final AtomicLongArray table;
+        private final int tableMask;
+        private final int sampleSize;
+        private final AtomicInteger additions = new AtomicInteger();
+
+        private FrequencySketch(int maxEntries) {
+
+            int tableSize = Integer.highestOneBit(Math.max(2, Math.min(maxEntries, 1 << 24)) - 1) << 1;
+            this.table = new AtomicLongArray(tableSize);
+            this.tableMask = tableSize - 1;
+            this.sampleSize = (int) Math.min(10L * maxEntries, Integer.MAX_VALUE);
+        }
+
+        private int frequency(int hash) {
+
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                int shift = counterShift(hash, i);
+                frequency = Math.min(frequency, (int) ((table.get(indexOf(hash, i)) >>> shift) & 0xfL));
+            }
+            return frequency;
+        }
+
+        private void increment(int hash) {
+
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                added |= incrementAt(indexOf(hash, i), counterShift(hash, i));
+            }
+            if (added && additions.incrementAndGet() >= sampleSize) {
+                reset();
+            }
+        }
+
+        private boolean incrementAt(int index, int shift) {
+
+            long mask = 0xfL << shift;
+            while (true) {
+                long current = table.get(index);
+                if ((current & mask) == mask) {
+                    return false;
+                }
+                if (table.compareAndSet(index, current, current + (1L << shift))) {
+                    return true;
+                }
+            }
+        }
+
+        private void reset() {
+
+            additions.set(sampleSize / 2);
+            for (int i = 0; i < table.length(); i++) {
+                while (true) {
+                    long current = table.get(i);
+                    if (table.compareAndSet(i, current, (current >>> 1) & RESET_MASK)) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        private int indexOf(int hash, int i) {
+
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return ((int) h) & tableMask;
+        }
+
+        private static int counterShift(int hash, int i) {
+
+            // Each long holds 16 counters, 4 of which are used by each hash function
+            return ((i << 2) + ((hash >>> (i << 3)) & 3)) << 2;
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+
+            return TinyLFUCache.this.size();
+        }
+
+        @Override
+        public void clear() {
+
+            TinyLFUCache.this.clear();
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Entry<K, V>> {
+
+        private final Iterator<Node<K, V>> iterator = data.values().iterator();
+        private final long now = System.currentTimeMillis();
+        private Node<K, V> next;
+        private Node<K, V> current;
+
+        @Override
+        public boolean hasNext() {
+
+            while (next == null && iterator.hasNext()) {
+                Node<K, V> node = iterator.next();
+                if (!node.isExpired(now)) {
+                    next = node;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            current = next;
+            next = null;
+            return new SimpleImmutableEntry<>(current.key, current.value);
+        }
+
+        @Override
+        public void remove() {
+
+            if (current == null) {
+                throw new IllegalStateException();
+            }
+            TinyLFUCache.this.remove(current.key);
+            current = null;
+        }
+    }
+}
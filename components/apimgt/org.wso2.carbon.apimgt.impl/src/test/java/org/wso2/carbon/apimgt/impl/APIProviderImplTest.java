@@ -199,6 +199,7 @@ public class APIProviderImplTest {
         PowerMockito.mockStatic(RegistryPersistenceUtil.class);
         apimgtDAO = Mockito.mock(ApiMgtDAO.class);
         gatewayArtifactsMgtDAO = Mockito.mock(GatewayArtifactsMgtDAO.class);
+        PowerMockito.when(GatewayArtifactsMgtDAO.getInstance()).thenReturn(gatewayArtifactsMgtDAO);
         scopesDAO = Mockito.mock(ScopesDAO.class);
         keyManager = Mockito.mock(KeyManager.class);
         apiPersistenceInstance = Mockito.mock(APIPersistence.class);
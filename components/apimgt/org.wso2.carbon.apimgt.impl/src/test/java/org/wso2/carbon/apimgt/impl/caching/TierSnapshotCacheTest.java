@@ -0,0 +1,115 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.caching;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.api.model.Tier;
+import org.wso2.carbon.apimgt.api.model.TierPermission;
+import org.wso2.carbon.apimgt.api.model.policy.PolicyConstants;
+import org.wso2.carbon.apimgt.impl.notifier.events.ApplicationPolicyEvent;
+import org.wso2.carbon.apimgt.impl.notifier.events.GlobalPolicyEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TierSnapshotCacheTest {
+
+    private static final int TENANT_ID = 1;
+
+    private final AtomicInteger loadCount = new AtomicInteger();
+    private final TierSnapshotCache.TierLoader loader = () -> {
+        loadCount.incrementAndGet();
+        Map<String, Tier> tiers = new HashMap<>();
+        Tier gold = new Tier("Gold");
+        gold.setRequestsPerMin(5000);
+        tiers.put(gold.getName(), gold);
+        tiers.put("Bronze", new Tier("Bronze"));
+        return tiers;
+    };
+
+    @Before
+    public void setup() {
+
+        TierSnapshotCache.getInstance().invalidateAll();
+    }
+
+    @Test
+    public void testTiersAreLoadedOnce() throws Exception {
+
+        TierSnapshotCache cache = TierSnapshotCache.getInstance();
+        long hits = cache.getHitCount();
+        long misses = cache.getMissCount();
+
+        Map<String, Tier> tiers = cache.getTiers(PolicyConstants.POLICY_LEVEL_SUB, TENANT_ID, loader);
+        Assert.assertEquals(2, tiers.size());
+        Assert.assertEquals(5000, tiers.get("Gold").getRequestsPerMin());
+        tiers = cache.getTiers(PolicyConstants.POLICY_LEVEL_SUB, TENANT_ID, loader);
+        Assert.assertEquals(2, tiers.size());
+
+        Assert.assertEquals(1, loadCount.get());
+        Assert.assertEquals(misses + 1, cache.getMissCount());
+        Assert.assertEquals(hits + 1, cache.getHitCount());
+    }
+
+    @Test
+    public void testReturnedTiersCanBeModified() throws Exception {
+
+        TierSnapshotCache cache = TierSnapshotCache.getInstance();
+        Map<String, Tier> tiers = cache.getTiers(PolicyConstants.POLICY_LEVEL_SUB, TENANT_ID, loader);
+        tiers.get("Gold").setTierPermission(new TierPermission("Gold"));
+        tiers.get("Gold").setRequestsPerMin(1);
+        tiers.remove("Bronze");
+
+        tiers = cache.getTiers(PolicyConstants.POLICY_LEVEL_SUB, TENANT_ID, loader);
+        Assert.assertEquals(1, loadCount.get());
+        Assert.assertEquals(2, tiers.size());
+        Assert.assertNull(tiers.get("Gold").getTierPermission());
+        Assert.assertEquals(5000, tiers.get("Gold").getRequestsPerMin());
+    }
+
+    @Test
+    public void testTiersAreReloadedOnInvalidation() throws Exception {
+
+        TierSnapshotCache cache = TierSnapshotCache.getInstance();
+        cache.getTiers(PolicyConstants.POLICY_LEVEL_APP, TENANT_ID, loader);
+        cache.getTiers(PolicyConstants.POLICY_LEVEL_SUB, TENANT_ID, loader);
+        Assert.assertEquals(2, loadCount.get());
+
+        cache.invalidate(new GlobalPolicyEvent("id", System.currentTimeMillis(), "POLICY_UPDATE", TENANT_ID,
+                "abc.com", 1, "global"));
+        cache.getTiers(PolicyConstants.POLICY_LEVEL_APP, TENANT_ID, loader);
+        Assert.assertEquals(2, loadCount.get());
+
+        long invalidations = cache.getInvalidationCount();
+        cache.invalidate(new ApplicationPolicyEvent("id", System.currentTimeMillis(), "POLICY_UPDATE", TENANT_ID,
+                "abc.com", 1, "10PerMin", "requestCount"));
+        Assert.assertEquals(invalidations + 1, cache.getInvalidationCount());
+        cache.getTiers(PolicyConstants.POLICY_LEVEL_APP, TENANT_ID, loader);
+        cache.getTiers(PolicyConstants.POLICY_LEVEL_SUB, TENANT_ID, loader);
+        Assert.assertEquals(3, loadCount.get());
+
+        cache.invalidate(TENANT_ID);
+        cache.getTiers(PolicyConstants.POLICY_LEVEL_SUB, TENANT_ID, loader);
+        cache.getTiers(PolicyConstants.POLICY_LEVEL_SUB, TENANT_ID + 1, loader);
+        Assert.assertEquals(5, loadCount.get());
+    }
+}
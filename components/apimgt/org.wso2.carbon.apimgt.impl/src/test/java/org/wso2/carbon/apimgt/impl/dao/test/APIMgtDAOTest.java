@@ -58,6 +58,7 @@ import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.APIManagerConfiguration;
 import org.wso2.carbon.apimgt.impl.APIManagerConfigurationServiceImpl;
 import org.wso2.carbon.apimgt.impl.dao.ApiMgtDAO;
+import org.wso2.carbon.apimgt.impl.dao.constants.SQLConstants;
 import org.wso2.carbon.apimgt.impl.dto.APIInfoDTO;
 import org.wso2.carbon.apimgt.impl.dto.APIKeyInfoDTO;
 import org.wso2.carbon.apimgt.impl.dto.ApplicationRegistrationWorkflowDTO;
@@ -451,6 +452,66 @@ public class APIMgtDAOTest {
         assertEquals(APIConstants.SubscriptionStatus.PROD_ONLY_BLOCKED, prodOnlyBlockedSubscription.getSubStatus());
     }
 
+    @Test
+    public void testGetAverageRatingsOfMultipleAPIs() throws Exception {
+        Subscriber subscriber1 = new Subscriber("rating_user1");
+        subscriber1.setSubscribedDate(new Date());
+        subscriber1.setTenantId(MultitenantConstants.SUPER_TENANT_ID);
+        apiMgtDAO.addSubscriber(subscriber1, null);
+        Subscriber subscriber2 = new Subscriber("rating_user2");
+        subscriber2.setSubscribedDate(new Date());
+        subscriber2.setTenantId(MultitenantConstants.SUPER_TENANT_ID);
+        apiMgtDAO.addSubscriber(subscriber2, null);
+
+        API ratedAPI = new API(new APIIdentifier("ratingProvider", "RatedAPI", "1.0.0"));
+        ratedAPI.setContext("/rated");
+        ratedAPI.setContextTemplate("/rated/{version}");
+        ratedAPI.setUUID(UUID.randomUUID().toString());
+        ratedAPI.getId().setId(apiMgtDAO.addAPI(ratedAPI, MultitenantConstants.SUPER_TENANT_ID, "testOrg"));
+        API unratedAPI = new API(new APIIdentifier("ratingProvider", "UnratedAPI", "1.0.0"));
+        unratedAPI.setContext("/unrated");
+        unratedAPI.setContextTemplate("/unrated/{version}");
+        unratedAPI.setUUID(UUID.randomUUID().toString());
+        unratedAPI.getId().setId(apiMgtDAO.addAPI(unratedAPI, MultitenantConstants.SUPER_TENANT_ID, "testOrg"));
+
+        try (Connection connection = APIMgtDBUtil.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                     "INSERT INTO AM_API_RATINGS (RATING_ID, RATING, API_ID, SUBSCRIBER_ID) VALUES (?,?,?,?)")) {
+            connection.setAutoCommit(true);
+            Subscriber[] subscribers = {subscriber1, subscriber2};
+            int[] ratings = {4, 3};
+            for (int i = 0; i < subscribers.length; i++) {
+                ps.setString(1, UUID.randomUUID().toString());
+                ps.setInt(2, ratings[i]);
+                ps.setInt(3, ratedAPI.getId().getId());
+                ps.setInt(4, subscribers[i].getId());
+                ps.executeUpdate();
+            }
+        }
+
+        String missingUuid = UUID.randomUUID().toString();
+        Map<String, Float> averageRatings = apiMgtDAO.getAverageRatings(
+                Arrays.asList(ratedAPI.getUUID(), unratedAPI.getUUID(), missingUuid));
+        assertEquals(3, averageRatings.size());
+        assertEquals(3.5f, averageRatings.get(ratedAPI.getUUID()), 0);
+        assertEquals(apiMgtDAO.getAverageRating(ratedAPI.getUUID()), averageRatings.get(ratedAPI.getUUID()), 0);
+        assertEquals(0f, averageRatings.get(unratedAPI.getUUID()), 0);
+        assertEquals(apiMgtDAO.getAverageRating(unratedAPI.getUUID()), averageRatings.get(unratedAPI.getUUID()), 0);
+        assertEquals(Float.NEGATIVE_INFINITY, averageRatings.get(missingUuid), 0);
+        assertTrue(apiMgtDAO.getAverageRatings(Collections.<String>emptyList()).isEmpty());
+
+        // UUIDs beyond a single chunk are retrieved with further queries
+        List<String> uuids = new ArrayList<>();
+        for (int i = 0; i < SQLConstants.API_ID_CHUNK_SIZE + 1; i++) {
+            uuids.add(UUID.randomUUID().toString());
+        }
+        uuids.add(ratedAPI.getUUID());
+        averageRatings = apiMgtDAO.getAverageRatings(uuids);
+        assertEquals(uuids.size(), averageRatings.size());
+        assertEquals(3.5f, averageRatings.get(ratedAPI.getUUID()), 0);
+        assertEquals(Float.NEGATIVE_INFINITY, averageRatings.get(uuids.get(0)), 0);
+    }
+
     @Test
     public void testInsertApplicationPolicy() throws APIManagementException {
         String policyName = "TestInsertAppPolicy";
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.dao.test;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.impl.builder.StAXOMBuilder;
+import org.apache.commons.io.FileUtils;
+import org.apache.tomcat.dbcp.dbcp2.BasicDataSource;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+import org.wso2.carbon.apimgt.api.dto.KeyManagerConfigurationDTO;
+import org.wso2.carbon.apimgt.api.model.API;
+import org.wso2.carbon.apimgt.api.model.APIIdentifier;
+import org.wso2.carbon.apimgt.api.model.ApiTypeWrapper;
+import org.wso2.carbon.apimgt.api.model.Subscriber;
+import org.wso2.carbon.apimgt.api.model.subscription.Application;
+import org.wso2.carbon.apimgt.api.model.subscription.ApplicationKeyMapping;
+import org.wso2.carbon.apimgt.api.model.subscription.Subscription;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.APIManagerConfiguration;
+import org.wso2.carbon.apimgt.impl.APIManagerConfigurationServiceImpl;
+import org.wso2.carbon.apimgt.impl.dao.ApiMgtDAO;
+import org.wso2.carbon.apimgt.impl.dao.SubscriptionValidationDAO;
+import org.wso2.carbon.apimgt.impl.internal.ServiceReferenceHolder;
+import org.wso2.carbon.apimgt.impl.notifier.Notifier;
+import org.wso2.carbon.apimgt.impl.utils.APIMgtDBUtil;
+import org.wso2.carbon.base.MultitenantConstants;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import javax.naming.Context;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class)
+@PowerMockIgnore("javax.management.*")
+public class SubscriptionValidationDAOTest {
+
+    public static ApiMgtDAO apiMgtDAO;
+    public static SubscriptionValidationDAO subscriptionValidationDAO;
+
+    @Before
+    public void setUp() throws Exception {
+        String dbConfigPath = System.getProperty("APIManagerDBConfigurationPath");
+        APIManagerConfiguration config = new APIManagerConfiguration();
+        initializeDatabase(dbConfigPath);
+        config.load(dbConfigPath);
+        ServiceReferenceHolder.getInstance().setAPIManagerConfigurationService(new APIManagerConfigurationServiceImpl
+                (config));
+        List<Notifier> notifierList = new ArrayList<>();
+        Notifier subscriptionsNotifier = Mockito.mock(Notifier.class);
+        Mockito.when(subscriptionsNotifier.getType()).thenReturn(APIConstants.NotifierType.SUBSCRIPTIONS.name());
+        notifierList.add(subscriptionsNotifier);
+        ServiceReferenceHolder.getInstance().getNotifiersMap().put(subscriptionsNotifier.getType(), notifierList);
+        APIMgtDBUtil.initialize();
+        apiMgtDAO = ApiMgtDAO.getInstance();
+        subscriptionValidationDAO = new SubscriptionValidationDAO();
+    }
+
+    private static void initializeDatabase(String configFilePath) {
+
+        InputStream in;
+        try {
+            in = FileUtils.openInputStream(new File(configFilePath));
+            StAXOMBuilder builder = new StAXOMBuilder(in);
+            OMElement databaseElement = builder.getDocumentElement().getFirstChildWithName(new QName("Database"));
+            String databaseURL = databaseElement.getFirstChildWithName(new QName("URL")).getText();
+            String databaseUser = databaseElement.getFirstChildWithName(new QName("Username")).getText();
+            String databasePass = databaseElement.getFirstChildWithName(new QName("Password")).getText();
+            String databaseDriver = databaseElement.getFirstChildWithName(new QName("Driver")).getText();
+
+            BasicDataSource basicDataSource = new BasicDataSource();
+            basicDataSource.setDriverClassName(databaseDriver);
+            basicDataSource.setUrl(databaseURL);
+            basicDataSource.setUsername(databaseUser);
+            basicDataSource.setPassword(databasePass);
+
+            // Create initial context
+            System.setProperty(Context.INITIAL_CONTEXT_FACTORY,
+                    "org.apache.naming.java.javaURLContextFactory");
+            System.setProperty(Context.URL_PKG_PREFIXES,
+                    "org.apache.naming");
+            try {
+                InitialContext.doLookup("java:/comp/env/jdbc/WSO2AM_DB");
+            } catch (NamingException e) {
+                InitialContext ic = new InitialContext();
+                ic.createSubcontext("java:");
+                ic.createSubcontext("java:/comp");
+                ic.createSubcontext("java:/comp/env");
+                ic.createSubcontext("java:/comp/env/jdbc");
+
+                ic.bind("java:/comp/env/jdbc/WSO2AM_DB", basicDataSource);
+            }
+        } catch (XMLStreamException | IOException | NamingException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    public void testGetSubscriptionsPages() throws Exception {
+        String organization = "subscriptionPagesOrg";
+        Subscriber subscriber = addSubscriber("subscriptionPagesUser");
+        API api = addAPI("SubscriptionPagesAPI", "/subscriptionPages", organization);
+        List<Integer> subscriptionIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            org.wso2.carbon.apimgt.api.model.Application application =
+                    addApplication("SUBSCRIPTION_PAGES_APP" + i, subscriber, organization);
+            subscriptionIds.add(addSubscription(api, application, subscriber));
+        }
+
+        // Pages of two subscriptions continue after the last subscription of the previous page
+        List<Integer> pagedIds = new ArrayList<>();
+        int after = 0;
+        List<Subscription> page;
+        do {
+            page = subscriptionValidationDAO.getSubscriptions(organization, after, 2, null);
+            assertTrue(page.size() <= 2);
+            for (Subscription subscription : page) {
+                pagedIds.add(subscription.getSubscriptionId());
+                assertEquals(api.getUuid(), subscription.getApiUUID());
+            }
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getSubscriptionId();
+            }
+        } while (page.size() == 2);
+        assertEquals(subscriptionIds, pagedIds);
+
+        // A limit of 0 retrieves all the remaining subscriptions
+        assertEquals(3, subscriptionValidationDAO.getSubscriptions(organization, subscriptionIds.get(1), 0, null)
+                .size());
+        assertTrue(subscriptionValidationDAO.getSubscriptions("otherSubscriptionPagesOrg", 0, 0, null).isEmpty());
+        assertTrue(subscriptionValidationDAO.getSubscriptions(null, 0, 0, null).size() >= subscriptionIds.size());
+    }
+
+    @Test
+    public void testGetSubscriptionsUpdatedAfter() throws Exception {
+        String organization = "subscriptionsUpdatedAfterOrg";
+        Subscriber subscriber = addSubscriber("subscriptionsUpdatedAfterUser");
+        API api = addAPI("SubscriptionsUpdatedAfterAPI", "/subscriptionsUpdatedAfter", organization);
+        List<Integer> subscriptionIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            org.wso2.carbon.apimgt.api.model.Application application =
+                    addApplication("SUBSCRIPTIONS_UPDATED_AFTER_APP" + i, subscriber, organization);
+            subscriptionIds.add(addSubscription(api, application, subscriber));
+        }
+        Thread.sleep(10);
+        Timestamp updatedAfter = new Timestamp(System.currentTimeMillis());
+        Thread.sleep(10);
+        apiMgtDAO.updateSubscriptionStatus(subscriptionIds.get(1), APIConstants.SubscriptionStatus.BLOCKED);
+        org.wso2.carbon.apimgt.api.model.Application application =
+                addApplication("SUBSCRIPTIONS_UPDATED_AFTER_APP3", subscriber, organization);
+        int createdId = addSubscription(api, application, subscriber);
+
+        List<Subscription> subscriptions =
+                subscriptionValidationDAO.getSubscriptions(organization, 0, 0, updatedAfter);
+        assertEquals(2, subscriptions.size());
+        assertEquals(subscriptionIds.get(1).intValue(), subscriptions.get(0).getSubscriptionId());
+        assertEquals(APIConstants.SubscriptionStatus.BLOCKED, subscriptions.get(0).getSubscriptionState());
+        assertEquals(createdId, subscriptions.get(1).getSubscriptionId());
+
+        // The pages of the updated subscriptions
+        subscriptions = subscriptionValidationDAO.getSubscriptions(organization, 0, 1, updatedAfter);
+        assertEquals(1, subscriptions.size());
+        assertEquals(subscriptionIds.get(1).intValue(), subscriptions.get(0).getSubscriptionId());
+        subscriptions = subscriptionValidationDAO.getSubscriptions(organization, subscriptionIds.get(1), 1,
+                updatedAfter);
+        assertEquals(1, subscriptions.size());
+        assertEquals(createdId, subscriptions.get(0).getSubscriptionId());
+        assertTrue(subscriptionValidationDAO.getSubscriptions(null, createdId, 0, updatedAfter).isEmpty());
+    }
+
+    @Test
+    public void testGetApplicationPages() throws Exception {
+        String organization = "applicationPagesOrg";
+        Subscriber subscriber = addSubscriber("applicationPagesUser");
+        String keyManagerId = addKeyManager("applicationPagesKM", organization);
+        List<Integer> applicationIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            org.wso2.carbon.apimgt.api.model.Application application =
+                    addApplication("APPLICATION_PAGES_APP" + i, subscriber, organization);
+            applicationIds.add(application.getId());
+            apiMgtDAO.createApplicationKeyTypeMappingForManualClients(APIConstants.API_KEY_TYPE_PRODUCTION,
+                    application.getId(), "applicationPagesClient" + i, keyManagerId, UUID.randomUUID().toString());
+        }
+
+        List<Integer> firstPage = subscriptionValidationDAO.getApplicationIds(organization, 0, 2);
+        assertEquals(applicationIds.subList(0, 2), firstPage);
+        List<Integer> secondPage = subscriptionValidationDAO.getApplicationIds(organization, firstPage.get(1), 2);
+        assertEquals(applicationIds.subList(2, 4), secondPage);
+        List<Integer> lastPage = subscriptionValidationDAO.getApplicationIds(organization, secondPage.get(1), 2);
+        assertEquals(applicationIds.subList(4, 5), lastPage);
+        assertTrue(subscriptionValidationDAO.getApplicationIds(organization, lastPage.get(0), 2).isEmpty());
+        assertEquals(applicationIds, subscriptionValidationDAO.getApplicationIds(organization, 0, 0));
+
+        // The id range of the second page excludes its lower bound and includes its upper bound
+        List<Application> applications =
+                subscriptionValidationDAO.getApplications(organization, firstPage.get(1), secondPage.get(1));
+        assertEquals(2, applications.size());
+        assertEquals(secondPage.get(0).intValue(), applications.get(0).getId());
+        assertEquals(secondPage.get(1).intValue(), applications.get(1).getId());
+        assertEquals(organization, applications.get(0).getOrganization());
+        assertEquals(2, subscriptionValidationDAO.getApplications(null, firstPage.get(1), secondPage.get(1))
+                .size());
+
+        List<ApplicationKeyMapping> keyMappings =
+                subscriptionValidationDAO.getApplicationKeyMappings(organization, firstPage.get(1), secondPage.get(1));
+        assertEquals(2, keyMappings.size());
+        for (ApplicationKeyMapping keyMapping : keyMappings) {
+            assertTrue(secondPage.contains(keyMapping.getApplicationId()));
+            assertEquals("applicationPagesKM", keyMapping.getKeyManager());
+            assertEquals(APIConstants.API_KEY_TYPE_PRODUCTION, keyMapping.getKeyType());
+        }
+        assertEquals(5, subscriptionValidationDAO.getApplicationKeyMappings(organization, 0, lastPage.get(0))
+                .size());
+        assertTrue(subscriptionValidationDAO.getApplicationKeyMappings("otherApplicationPagesOrg", 0,
+                lastPage.get(0)).isEmpty());
+    }
+
+    private Subscriber addSubscriber(String name) throws APIManagementException {
+        Subscriber subscriber = new Subscriber(name);
+        subscriber.setSubscribedDate(new Date());
+        subscriber.setTenantId(MultitenantConstants.SUPER_TENANT_ID);
+        apiMgtDAO.addSubscriber(subscriber, null);
+        return subscriber;
+    }
+
+    private org.wso2.carbon.apimgt.api.model.Application addApplication(String name, Subscriber subscriber,
+                                                                         String organization)
+            throws APIManagementException {
+        org.wso2.carbon.apimgt.api.model.Application application =
+                new org.wso2.carbon.apimgt.api.model.Application(name, subscriber);
+        application.setId(apiMgtDAO.addApplication(application, subscriber.getName(), organization));
+        return application;
+    }
+
+    private API addAPI(String name, String context, String organization) throws APIManagementException {
+        API api = new API(new APIIdentifier("subscriptionValidationProvider", name, "V1.0.0"));
+        api.setContext(context);
+        api.setContextTemplate(context + "/{version}");
+        api.setVersionTimestamp(String.valueOf(System.currentTimeMillis()));
+        api.setUUID(UUID.randomUUID().toString());
+        api.getId().setId(apiMgtDAO.addAPI(api, MultitenantConstants.SUPER_TENANT_ID, organization));
+        return api;
+    }
+
+    private int addSubscription(API api, org.wso2.carbon.apimgt.api.model.Application application,
+                                Subscriber subscriber) throws APIManagementException {
+        return apiMgtDAO.addSubscription(new ApiTypeWrapper(api), application,
+                APIConstants.SubscriptionStatus.UNBLOCKED, subscriber.getName());
+    }
+
+    private String addKeyManager(String name, String organization) throws APIManagementException {
+        KeyManagerConfigurationDTO keyManagerConfiguration = new KeyManagerConfigurationDTO();
+        keyManagerConfiguration.setUuid(UUID.randomUUID().toString());
+        keyManagerConfiguration.setName(name);
+        keyManagerConfiguration.setType(APIConstants.KeyManager.DEFAULT_KEY_MANAGER_TYPE);
+        keyManagerConfiguration.setOrganization(organization);
+        keyManagerConfiguration.setEnabled(true);
+        apiMgtDAO.addKeyManagerConfiguration(keyManagerConfiguration);
+        return keyManagerConfiguration.getUuid();
+    }
+}
@@ -0,0 +1,445 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+import org.wso2.carbon.apimgt.impl.dto.RevisionArtifactBuildDTO;
+import org.wso2.carbon.apimgt.impl.importexport.APIImportExportException;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RevisionArtifactBuilderTest {
+
+    private static final String REVISION_UUID = "4c46a1a5-5f84-4a4c-8d1a-7b0fbb0b4d3e";
+    private static final long LOST_BUILD_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+    private static final long POLL_INTERVAL = 10;
+    private static final String OTHER_NODE_BUILD_ID = "other-node-build";
+
+    private ExecutorService executorService;
+    private TestBuildStatusStore statusStore;
+
+    @Before
+    public void setup() {
+
+        executorService = Executors.newSingleThreadExecutor();
+        statusStore = new TestBuildStatusStore();
+    }
+
+    @After
+    public void tearDown() {
+
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testArtifactIsExportedAndStored() throws Exception {
+
+        RevisionArtifactBuilder builder = newBuilder(executorService);
+        TestTask task = new TestTask();
+        builder.submit(REVISION_UUID, task);
+        builder.awaitArtifact(REVISION_UUID, task, () -> false);
+
+        Assert.assertEquals(RevisionArtifactBuilder.Status.COMPLETED, builder.getStatus(REVISION_UUID));
+        Assert.assertEquals(RevisionArtifactBuilder.Status.COMPLETED.name(), statusStore.getStatus(REVISION_UUID));
+        Assert.assertEquals(1, task.exportCount.get());
+        Assert.assertEquals(1, task.storeCount.get());
+        Assert.assertEquals(0, builder.getPendingBuildCount());
+    }
+
+    @Test
+    public void testCompletedArtifactIsNotBuiltAgain() throws Exception {
+
+        RevisionArtifactBuilder builder = newBuilder(executorService);
+        TestTask task = new TestTask();
+        builder.submit(REVISION_UUID, task);
+        builder.awaitArtifact(REVISION_UUID, task, () -> false);
+        builder.submit(REVISION_UUID, task);
+        builder.awaitArtifact(REVISION_UUID, task, () -> false);
+
+        Assert.assertEquals(1, task.exportCount.get());
+    }
+
+    @Test
+    public void testDeploymentWaitsForArtifactInProgress() throws Exception {
+
+        RevisionArtifactBuilder builder = newBuilder(executorService);
+        TestTask task = new TestTask();
+        task.exportLatch = new CountDownLatch(1);
+        builder.submit(REVISION_UUID, task);
+        Assert.assertNotEquals(RevisionArtifactBuilder.Status.COMPLETED, builder.getStatus(REVISION_UUID));
+        Assert.assertEquals(1, builder.getPendingBuildCount());
+
+        task.exportLatch.countDown();
+        builder.awaitArtifact(REVISION_UUID, task, () -> false);
+        Assert.assertEquals(1, task.exportCount.get());
+        Assert.assertEquals(1, task.storeCount.get());
+    }
+
+    @Test
+    public void testFailedArtifactIsReportedAndBuiltAgain() throws Exception {
+
+        RevisionArtifactBuilder builder = newBuilder(executorService);
+        TestTask task = new TestTask();
+        task.failExport = true;
+        task.exportLatch = new CountDownLatch(1);
+        builder.submit(REVISION_UUID, task);
+        task.exportLatch.countDown();
+        try {
+            builder.awaitArtifact(REVISION_UUID, task, () -> false);
+            Assert.fail("Failure of the artifact build was not reported");
+        } catch (APIManagementException e) {
+            Assert.assertTrue(e.getCause() instanceof APIImportExportException);
+        }
+        Assert.assertEquals(RevisionArtifactBuilder.Status.FAILED, builder.getStatus(REVISION_UUID));
+        Assert.assertEquals(RevisionArtifactBuilder.Status.FAILED.name(), statusStore.getStatus(REVISION_UUID));
+        Assert.assertEquals(0, task.storeCount.get());
+
+        task.failExport = false;
+        builder.awaitArtifact(REVISION_UUID, task, () -> false);
+        Assert.assertEquals(RevisionArtifactBuilder.Status.COMPLETED, builder.getStatus(REVISION_UUID));
+        Assert.assertEquals(2, task.exportCount.get());
+        Assert.assertEquals(1, task.storeCount.get());
+    }
+
+    @Test
+    public void testFailureOfBuildOnCallerThreadIsReported() {
+
+        RevisionArtifactBuilder builder = newBuilder(Runnable::run);
+        TestTask task = new TestTask();
+        task.failExport = true;
+        try {
+            builder.submit(REVISION_UUID, task);
+            Assert.fail("Failure of the artifact build was not reported");
+        } catch (APIManagementException e) {
+            Assert.assertTrue(e.getCause() instanceof APIImportExportException);
+        }
+        Assert.assertEquals(RevisionArtifactBuilder.Status.FAILED.name(), statusStore.getStatus(REVISION_UUID));
+    }
+
+    @Test
+    public void testFailedBuildOfAnotherNodeIsBuiltAgain() throws Exception {
+
+        RevisionArtifactBuilder builder = newBuilder(executorService);
+        statusStore.put(REVISION_UUID, OTHER_NODE_BUILD_ID, RevisionArtifactBuilder.Status.FAILED,
+                System.currentTimeMillis());
+        TestTask task = new TestTask();
+        builder.awaitArtifact(REVISION_UUID, task, () -> false);
+
+        Assert.assertEquals(1, task.storeCount.get());
+        Assert.assertEquals(RevisionArtifactBuilder.Status.COMPLETED.name(), statusStore.getStatus(REVISION_UUID));
+    }
+
+    @Test
+    public void testUnrecordedStoredArtifactIsNotBuiltAgain() throws Exception {
+
+        RevisionArtifactBuilder builder = newBuilder(executorService);
+        TestTask task = new TestTask();
+        builder.awaitArtifact(REVISION_UUID, task, () -> true);
+
+        Assert.assertEquals(0, task.exportCount.get());
+        Assert.assertEquals(RevisionArtifactBuilder.Status.COMPLETED,
+                builder.getStatus(REVISION_UUID, () -> true));
+        Assert.assertNull(builder.getStatus(REVISION_UUID, () -> false));
+    }
+
+    @Test
+    public void testUnrecordedArtifactWhichIsNotStoredIsBuiltRightAway() throws Exception {
+
+        RevisionArtifactBuilder builder = newBuilder(executorService);
+        TestTask task = new TestTask();
+        long startTime = System.currentTimeMillis();
+        builder.awaitArtifact(REVISION_UUID, task, () -> false);
+
+        Assert.assertEquals(1, task.storeCount.get());
+        Assert.assertTrue(System.currentTimeMillis() - startTime < LOST_BUILD_TIMEOUT);
+    }
+
+    @Test
+    public void testBuildInProgressOnAnotherNodeIsWaitedFor() throws Exception {
+
+        RevisionArtifactBuilder builder = newBuilder(executorService);
+        statusStore.put(REVISION_UUID, OTHER_NODE_BUILD_ID, RevisionArtifactBuilder.Status.EXPORTING,
+                System.currentTimeMillis());
+        Thread otherNode = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            statusStore.put(REVISION_UUID, OTHER_NODE_BUILD_ID, RevisionArtifactBuilder.Status.COMPLETED,
+                    System.currentTimeMillis());
+        });
+        otherNode.start();
+        TestTask task = new TestTask();
+        builder.awaitArtifact(REVISION_UUID, task, () -> false);
+        otherNode.join();
+
+        Assert.assertEquals(0, task.exportCount.get());
+        Assert.assertEquals(RevisionArtifactBuilder.Status.COMPLETED,
+                builder.getStatus(REVISION_UUID, () -> false));
+    }
+
+    @Test
+    public void testLostBuildOfAnotherNodeIsBuiltAgain() throws Exception {
+
+        RevisionArtifactBuilder builder = newBuilder(executorService);
+        statusStore.put(REVISION_UUID, OTHER_NODE_BUILD_ID, RevisionArtifactBuilder.Status.STORING,
+                System.currentTimeMillis() - LOST_BUILD_TIMEOUT);
+        TestTask task = new TestTask();
+        builder.awaitArtifact(REVISION_UUID, task, () -> false);
+
+        Assert.assertEquals(1, task.storeCount.get());
+        Assert.assertEquals(RevisionArtifactBuilder.Status.COMPLETED.name(), statusStore.getStatus(REVISION_UUID));
+    }
+
+    @Test
+    public void testBuildOfAnotherNodeWithHeartbeatIsWaitedFor() throws Exception {
+
+        RevisionArtifactBuilder builder = new RevisionArtifactBuilder(executorService, statusStore, 100,
+                POLL_INTERVAL);
+        statusStore.put(REVISION_UUID, OTHER_NODE_BUILD_ID, RevisionArtifactBuilder.Status.QUEUED,
+                System.currentTimeMillis());
+        Thread otherNode = new Thread(() -> {
+            try {
+                // Queued on the other node for longer than the lost build timeout, while refreshing its heartbeat
+                for (int i = 0; i < 15; i++) {
+                    Thread.sleep(20);
+                    statusStore.update(REVISION_UUID, OTHER_NODE_BUILD_ID, RevisionArtifactBuilder.Status.QUEUED,
+                            System.currentTimeMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            statusStore.update(REVISION_UUID, OTHER_NODE_BUILD_ID, RevisionArtifactBuilder.Status.COMPLETED,
+                    System.currentTimeMillis());
+        });
+        otherNode.start();
+        TestTask task = new TestTask();
+        builder.awaitArtifact(REVISION_UUID, task, () -> false);
+        otherNode.join();
+
+        Assert.assertEquals(0, task.exportCount.get());
+        Assert.assertEquals(OTHER_NODE_BUILD_ID, statusStore.recordedBuilds.get(REVISION_UUID).getBuildId());
+    }
+
+    @Test
+    public void testHeartbeatOfQueuedBuildIsRefreshed() throws Exception {
+
+        List<Runnable> queue = new ArrayList<>();
+        RevisionArtifactBuilder builder = newBuilder(queue::add);
+        builder.submit(REVISION_UUID, new TestTask());
+        long queuedTime = statusStore.recordedBuilds.get(REVISION_UUID).getUpdatedTime();
+        Thread.sleep(5);
+        builder.refreshHeartbeats();
+
+        RevisionArtifactBuildDTO recordedBuild = statusStore.recordedBuilds.get(REVISION_UUID);
+        Assert.assertEquals(RevisionArtifactBuilder.Status.QUEUED.name(), recordedBuild.getStatus());
+        Assert.assertTrue(recordedBuild.getUpdatedTime() > queuedTime);
+    }
+
+    @Test
+    public void testBuildWhichLostItsClaimIsStopped() throws Exception {
+
+        List<Runnable> queue = new ArrayList<>();
+        RevisionArtifactBuilder builder = newBuilder(queue::add);
+        TestTask task = new TestTask();
+        builder.submit(REVISION_UUID, task);
+        // Another node considered the build lost and claimed it
+        Assert.assertTrue(statusStore.replace(REVISION_UUID, statusStore.get(REVISION_UUID), OTHER_NODE_BUILD_ID,
+                RevisionArtifactBuilder.Status.EXPORTING, System.currentTimeMillis()));
+        builder.refreshHeartbeats();
+        queue.forEach(Runnable::run);
+
+        Assert.assertEquals(0, task.exportCount.get());
+        Assert.assertNull(builder.getStatus(REVISION_UUID));
+        RevisionArtifactBuildDTO recordedBuild = statusStore.recordedBuilds.get(REVISION_UUID);
+        Assert.assertEquals(OTHER_NODE_BUILD_ID, recordedBuild.getBuildId());
+        Assert.assertEquals(RevisionArtifactBuilder.Status.EXPORTING.name(), recordedBuild.getStatus());
+    }
+
+    @Test
+    public void testStatusOfBuildWhichLostItsClaimIsNotRecorded() throws Exception {
+
+        RevisionArtifactBuilder builder = newBuilder(executorService);
+        TestTask task = new TestTask();
+        task.exportLatch = new CountDownLatch(1);
+        builder.submit(REVISION_UUID, task);
+        while (task.exportCount.get() == 0) {
+            Thread.sleep(1);
+        }
+        Assert.assertTrue(statusStore.replace(REVISION_UUID, statusStore.get(REVISION_UUID), OTHER_NODE_BUILD_ID,
+                RevisionArtifactBuilder.Status.QUEUED, System.currentTimeMillis()));
+        statusStore.update(REVISION_UUID, OTHER_NODE_BUILD_ID, RevisionArtifactBuilder.Status.COMPLETED,
+                System.currentTimeMillis());
+        task.exportLatch.countDown();
+        // The deployment finds that the build was claimed and waits for the recorded build instead
+        builder.awaitArtifact(REVISION_UUID, task, () -> false);
+
+        Assert.assertEquals(0, task.storeCount.get());
+        Assert.assertEquals(RevisionArtifactBuilder.Status.COMPLETED.name(), statusStore.getStatus(REVISION_UUID));
+    }
+
+    @Test
+    public void testQueuedBuildOfRemovedRevisionIsSkipped() throws Exception {
+
+        List<Runnable> queue = new ArrayList<>();
+        RevisionArtifactBuilder builder = new RevisionArtifactBuilder(queue::add, statusStore, 10, POLL_INTERVAL);
+        TestTask task = new TestTask();
+        builder.submit(REVISION_UUID, task);
+        builder.remove(REVISION_UUID);
+        queue.forEach(Runnable::run);
+
+        Assert.assertNull(builder.getStatus(REVISION_UUID));
+        Assert.assertNull(statusStore.getStatus(REVISION_UUID));
+        Assert.assertEquals(0, task.exportCount.get());
+    }
+
+    @Test
+    public void testArtifactIsBuiltInTenantContextOfCaller() throws Exception {
+
+        RevisionArtifactBuilder builder = newBuilder(executorService);
+        TestTask task = new TestTask();
+        try {
+            PrivilegedCarbonContext.startTenantFlow();
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain("abc.com");
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(2);
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setUsername("admin");
+            builder.submit(REVISION_UUID, task);
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+        builder.awaitArtifact(REVISION_UUID, task, () -> false);
+
+        Assert.assertEquals("abc.com", task.exportTenantDomain);
+        Assert.assertEquals("admin", task.exportUsername);
+    }
+
+    private RevisionArtifactBuilder newBuilder(Executor executor) {
+
+        return new RevisionArtifactBuilder(executor, statusStore, LOST_BUILD_TIMEOUT, POLL_INTERVAL);
+    }
+
+    /**
+     * Keeps the recorded builds in memory, in place of the database shared by the nodes.
+     */
+    private static class TestBuildStatusStore implements RevisionArtifactBuilder.BuildStatusStore {
+
+        private final Map<String, RevisionArtifactBuildDTO> recordedBuilds = new ConcurrentHashMap<>();
+
+        @Override
+        public RevisionArtifactBuildDTO get(String revisionUUID) {
+
+            RevisionArtifactBuildDTO recordedBuild = recordedBuilds.get(revisionUUID);
+            return recordedBuild != null ? new RevisionArtifactBuildDTO(recordedBuild.getBuildId(),
+                    recordedBuild.getStatus(), recordedBuild.getUpdatedTime()) : null;
+        }
+
+        @Override
+        public synchronized boolean replace(String revisionUUID, RevisionArtifactBuildDTO current, String buildId,
+                                            RevisionArtifactBuilder.Status status, long time) {
+
+            RevisionArtifactBuildDTO recordedBuild = recordedBuilds.get(revisionUUID);
+            if (current == null ? recordedBuild != null : recordedBuild == null
+                    || !recordedBuild.getBuildId().equals(current.getBuildId())) {
+                return false;
+            }
+            put(revisionUUID, buildId, status, time);
+            return true;
+        }
+
+        @Override
+        public synchronized boolean update(String revisionUUID, String buildId, RevisionArtifactBuilder.Status status,
+                                           long time) {
+
+            RevisionArtifactBuildDTO recordedBuild = recordedBuilds.get(revisionUUID);
+            if (recordedBuild == null || !recordedBuild.getBuildId().equals(buildId)) {
+                return false;
+            }
+            put(revisionUUID, buildId, status, time);
+            return true;
+        }
+
+        @Override
+        public void remove(String revisionUUID) {
+
+            recordedBuilds.remove(revisionUUID);
+        }
+
+        private void put(String revisionUUID, String buildId, RevisionArtifactBuilder.Status status, long time) {
+
+            recordedBuilds.put(revisionUUID, new RevisionArtifactBuildDTO(buildId, status.name(), time));
+        }
+
+        private String getStatus(String revisionUUID) {
+
+            RevisionArtifactBuildDTO recordedBuild = recordedBuilds.get(revisionUUID);
+            return recordedBuild != null ? recordedBuild.getStatus() : null;
+        }
+    }
+
+    private static class TestTask implements RevisionArtifactBuilder.RevisionArtifactTask {
+
+        private final AtomicInteger exportCount = new AtomicInteger();
+        private final AtomicInteger storeCount = new AtomicInteger();
+        private volatile CountDownLatch exportLatch;
+        private volatile boolean failExport;
+        private volatile String exportTenantDomain;
+        private volatile String exportUsername;
+
+        @Override
+        public File export() throws APIImportExportException {
+
+            exportCount.incrementAndGet();
+            exportTenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
+            exportUsername = PrivilegedCarbonContext.getThreadLocalCarbonContext().getUsername();
+            if (exportLatch != null) {
+                try {
+                    exportLatch.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failExport) {
+                throw new APIImportExportException("Error while exporting the revision");
+            }
+            return new File(REVISION_UUID + ".zip");
+        }
+
+        @Override
+        public void store(File artifact) {
+
+            storeCount.incrementAndGet();
+        }
+    }
+}
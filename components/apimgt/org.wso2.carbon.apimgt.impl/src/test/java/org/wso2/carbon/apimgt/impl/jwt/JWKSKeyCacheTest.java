@@ -0,0 +1,270 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.Ed25519Signer;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.OctetKeyPairGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class JWKSKeyCacheTest {
+
+    private RSAKey rsaKey;
+    private ECKey ecKey;
+
+    @Before
+    public void init() throws JOSEException {
+
+        rsaKey = new RSAKeyGenerator(2048).keyID("rsa-key").generate();
+        ecKey = new ECKeyGenerator(Curve.P_256).keyID("ec-key").generate();
+    }
+
+    @Test
+    public void testRSAAndECSignaturesAreVerified() throws Exception {
+
+        CountingJWKSKeyCache cache = new CountingJWKSKeyCache(
+                new JWKSet(Arrays.asList(rsaKey.toPublicJWK(), ecKey.toPublicJWK())), 60000, 60000);
+
+        Assert.assertTrue(cache.verifyTokenSignature(sign(rsaKey, JWSAlgorithm.RS256)));
+        Assert.assertTrue(cache.verifyTokenSignature(sign(ecKey, JWSAlgorithm.ES256)));
+        Assert.assertTrue(cache.verifyTokenSignature(sign(rsaKey, JWSAlgorithm.PS256)));
+        // A token signed with an algorithm the key does not support is rejected
+        SignedJWT mismatchedToken = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID("ec-key").build(),
+                new JWTClaimsSet.Builder().subject("admin").build());
+        mismatchedToken.sign(new RSASSASigner(rsaKey));
+        Assert.assertFalse(cache.verifyTokenSignature(mismatchedToken));
+        Assert.assertEquals(1, cache.fetchCount.get());
+
+        JWKSKeyCache.CachedKey cachedKey = cache.getKey("rsa-key");
+        Assert.assertSame(cachedKey.getPublicKey(), cache.getKey("rsa-key").getPublicKey());
+        Assert.assertSame(cachedKey.getVerifier(), cache.getKey("rsa-key").getVerifier());
+    }
+
+    @Test
+    public void testUnknownKeyIDsAreNotRefetched() throws Exception {
+
+        CountingJWKSKeyCache cache = new CountingJWKSKeyCache(new JWKSet(rsaKey.toPublicJWK()), 60000, 60000);
+        Assert.assertNotNull(cache.getKey("rsa-key"));
+        Assert.assertEquals(1, cache.fetchCount.get());
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertNull(cache.getKey("unknown-" + i));
+        }
+        Assert.assertEquals(1, cache.fetchCount.get());
+    }
+
+    @Test
+    public void testRotatedKeyIsFetched() throws Exception {
+
+        CountingJWKSKeyCache cache = new CountingJWKSKeyCache(new JWKSet(rsaKey.toPublicJWK()), 60000, 0);
+        SignedJWT ecToken = sign(ecKey, JWSAlgorithm.ES256);
+        Assert.assertFalse(cache.verifyTokenSignature(ecToken));
+        Assert.assertEquals(2, cache.fetchCount.get());
+
+        cache.jwks = new JWKSet(ecKey.toPublicJWK());
+        Thread.sleep(5);
+        Assert.assertTrue(cache.verifyTokenSignature(ecToken));
+        Assert.assertEquals(3, cache.fetchCount.get());
+    }
+
+    @Test
+    public void testStaleKeysAreRefreshedInBackground() throws Exception {
+
+        CountingJWKSKeyCache cache = new CountingJWKSKeyCache(new JWKSet(rsaKey.toPublicJWK()), 50, 0);
+        SignedJWT rsaToken = sign(rsaKey, JWSAlgorithm.RS256);
+        Assert.assertTrue(cache.verifyTokenSignature(rsaToken));
+        cache.jwks = new JWKSet(Arrays.asList(rsaKey.toPublicJWK(), ecKey.toPublicJWK()));
+        Thread.sleep(100);
+
+        // The stale keys are used while the key set is refreshed
+        Assert.assertTrue(cache.verifyTokenSignature(rsaToken));
+        for (int i = 0; i < 100 && cache.fetchCount.get() < 2; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(2, cache.fetchCount.get());
+        for (int i = 0; i < 100 && cache.getKey("ec-key") == null; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertNotNull(cache.getKey("ec-key"));
+    }
+
+    @Test
+    public void testEd25519SignatureIsVerified() throws Exception {
+
+        OctetKeyPair edKey = new OctetKeyPairGenerator(Curve.Ed25519).keyID("ed-key").generate();
+        CountingJWKSKeyCache cache = new CountingJWKSKeyCache(
+                new JWKSet(Arrays.asList(rsaKey.toPublicJWK(), edKey.toPublicJWK())), 60000, 60000);
+
+        SignedJWT edToken = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.EdDSA).keyID("ed-key").build(),
+                new JWTClaimsSet.Builder().subject("admin").build());
+        edToken.sign(new Ed25519Signer(edKey));
+        Assert.assertTrue(cache.verifyTokenSignature(edToken));
+        Assert.assertNotNull(cache.getKey("ed-key").getVerifier());
+        // A token signed by another Ed25519 key with the same key ID is rejected
+        OctetKeyPair otherKey = new OctetKeyPairGenerator(Curve.Ed25519).keyID("ed-key").generate();
+        SignedJWT forgedToken = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.EdDSA).keyID("ed-key").build(),
+                new JWTClaimsSet.Builder().subject("admin").build());
+        forgedToken.sign(new Ed25519Signer(otherKey));
+        Assert.assertFalse(cache.verifyTokenSignature(forgedToken));
+        Assert.assertEquals(1, cache.fetchCount.get());
+    }
+
+    @Test
+    public void testConcurrentRequestsWaitForFirstFetch() throws Exception {
+
+        CountingJWKSKeyCache cache = new CountingJWKSKeyCache(new JWKSet(rsaKey.toPublicJWK()), 60000, 60000);
+        cache.fetchLatch = new CountDownLatch(1);
+        SignedJWT rsaToken = sign(rsaKey, JWSAlgorithm.RS256);
+        ExecutorService executorService = Executors.newFixedThreadPool(10);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                results.add(executorService.submit(() -> cache.verifyTokenSignature(rsaToken)));
+            }
+            for (int i = 0; i < 100 && cache.fetchCount.get() == 0; i++) {
+                Thread.sleep(10);
+            }
+            cache.fetchLatch.countDown();
+            for (Future<Boolean> result : results) {
+                Assert.assertTrue(result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        Assert.assertEquals(1, cache.fetchCount.get());
+    }
+
+    @Test
+    public void testUnknownKeyIDWaitsForFetchInFlight() throws Exception {
+
+        CountingJWKSKeyCache cache = new CountingJWKSKeyCache(new JWKSet(rsaKey.toPublicJWK()), 50, 50);
+        Assert.assertNotNull(cache.getKey("rsa-key"));
+        cache.jwks = new JWKSet(Arrays.asList(rsaKey.toPublicJWK(), ecKey.toPublicJWK()));
+        cache.fetchLatch = new CountDownLatch(1);
+        Thread.sleep(100);
+
+        // Starts the refresh of the stale keys, which blocks until released
+        Assert.assertNotNull(cache.getKey("rsa-key"));
+        for (int i = 0; i < 100 && cache.fetchCount.get() < 2; i++) {
+            Thread.sleep(10);
+        }
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<JWKSKeyCache.CachedKey> ecKeyResult = executorService.submit(() -> cache.getKey("ec-key"));
+            Thread.sleep(50);
+            Assert.assertFalse(ecKeyResult.isDone());
+            cache.fetchLatch.countDown();
+            Assert.assertNotNull(ecKeyResult.get(10, TimeUnit.SECONDS));
+        } finally {
+            executorService.shutdownNow();
+        }
+        Assert.assertEquals(2, cache.fetchCount.get());
+    }
+
+    @Test
+    public void testFailedFetchIsNotRetriedWithinMinRefetchInterval() throws Exception {
+
+        CountingJWKSKeyCache cache = new CountingJWKSKeyCache(new JWKSet(rsaKey.toPublicJWK()), 60000, 60000);
+        cache.failing = true;
+        try {
+            cache.getKey("rsa-key");
+            Assert.fail("The failure of the fetch is not reported");
+        } catch (APIManagementException e) {
+            // expected
+        }
+        cache.failing = false;
+        Assert.assertNull(cache.getKey("rsa-key"));
+        Assert.assertEquals(1, cache.fetchCount.get());
+    }
+
+    private static SignedJWT sign(RSAKey key, JWSAlgorithm algorithm) throws JOSEException {
+
+        SignedJWT signedJWT = new SignedJWT(new JWSHeader.Builder(algorithm).keyID(key.getKeyID()).build(),
+                new JWTClaimsSet.Builder().subject("admin").build());
+        signedJWT.sign(new RSASSASigner(key));
+        return signedJWT;
+    }
+
+    private static SignedJWT sign(ECKey key, JWSAlgorithm algorithm) throws JOSEException {
+
+        SignedJWT signedJWT = new SignedJWT(new JWSHeader.Builder(algorithm).keyID(key.getKeyID()).build(),
+                new JWTClaimsSet.Builder().subject("admin").build());
+        signedJWT.sign(new ECDSASigner(key));
+        return signedJWT;
+    }
+
+    private static class CountingJWKSKeyCache extends JWKSKeyCache {
+
+        private final AtomicInteger fetchCount = new AtomicInteger();
+        private volatile JWKSet jwks;
+        private volatile CountDownLatch fetchLatch;
+        private volatile boolean failing;
+
+        private CountingJWKSKeyCache(JWKSet jwks, long refreshInterval, long minRefetchInterval) {
+
+            super("https://localhost:9443/oauth2/jwks", refreshInterval, minRefetchInterval);
+            this.jwks = jwks;
+        }
+
+        @Override
+        protected String retrieveJWKS() throws IOException {
+
+            fetchCount.incrementAndGet();
+            CountDownLatch latch = fetchLatch;
+            if (latch != null) {
+                try {
+                    latch.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failing) {
+                throw new IOException("JWKS endpoint is not reachable");
+            }
+            return jwks.toString();
+        }
+    }
+}
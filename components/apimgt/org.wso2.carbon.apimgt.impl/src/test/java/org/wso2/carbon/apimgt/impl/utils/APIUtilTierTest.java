@@ -49,6 +49,7 @@ import org.wso2.carbon.apimgt.impl.APIManagerConfigurationService;
 import org.wso2.carbon.apimgt.impl.ApiMgtDAOMockCreator;
 import org.wso2.carbon.apimgt.impl.ServiceReferenceHolderMockCreator;
 import org.wso2.carbon.apimgt.impl.TestUtils;
+import org.wso2.carbon.apimgt.impl.caching.TierSnapshotCache;
 import org.wso2.carbon.apimgt.impl.config.APIMConfigService;
 import org.wso2.carbon.apimgt.impl.dao.ApiMgtDAO;
 import org.wso2.carbon.apimgt.impl.dto.ThrottleProperties;
@@ -89,6 +90,7 @@ public class APIUtilTierTest {
     @Before
     public void setup() throws IOException {
         System.setProperty("carbon.home", "");
+        TierSnapshotCache.getInstance().invalidateAll();
 
         File siteConfFile = new File(Thread.currentThread().getContextClassLoader().
                 getResource("tenant-conf.json").getFile());
@@ -0,0 +1,160 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public class TinyLFUCacheTest {
+
+    @Test
+    public void testSizeIsBounded() {
+
+        TinyLFUCache<Integer, Integer> cache = new TinyLFUCache<>(100);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+            Assert.assertTrue(cache.size() <= 100);
+        }
+        Assert.assertEquals(100, cache.size());
+        Assert.assertEquals(900, cache.getEvictionCount());
+        for (Map.Entry<Integer, Integer> entry : cache.entrySet()) {
+            Assert.assertEquals(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Test
+    public void testFrequentlyUsedEntriesSurviveScans() {
+
+        TinyLFUCache<String, String> cache = new TinyLFUCache<>(100);
+        for (int i = 0; i < 50; i++) {
+            cache.put("hot-" + i, "value");
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                Assert.assertNotNull(cache.get("hot-" + i));
+            }
+        }
+        // Keys used only once should not push out the frequently used keys
+        for (int i = 0; i < 10000; i++) {
+            cache.put("scan-" + i, "value");
+        }
+        int hits = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get("hot-" + i) != null) {
+                hits++;
+            }
+        }
+        Assert.assertTrue("Only " + hits + " frequently used entries were retained", hits >= 45);
+    }
+
+    @Test
+    public void testEntriesExpire() throws InterruptedException {
+
+        List<String> removedKeys = new ArrayList<>();
+        TinyLFUCache<String, String> cache = new TinyLFUCache<String, String>(10, 50) {
+
+            @Override
+            protected void handleRemovableEntry(Map.Entry<String, String> entry) {
+
+                removedKeys.add(entry.getKey());
+            }
+        };
+        cache.put("short", "value");
+        cache.put("long", "value", 60000);
+        Assert.assertTrue(cache.containsKey("short"));
+        Thread.sleep(100);
+        Assert.assertFalse(cache.containsKey("short"));
+        Assert.assertNull(cache.get("short"));
+        Assert.assertEquals("value", cache.get("long"));
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(1, cache.getEvictionCount());
+        Assert.assertEquals(1, removedKeys.size());
+        Assert.assertEquals("short", removedKeys.get(0));
+    }
+
+    @Test
+    public void testStatistics() {
+
+        TinyLFUCache<String, String> cache = new TinyLFUCache<>(10);
+        cache.put("key", "value");
+        cache.get("key");
+        cache.get("key");
+        cache.get("unknown");
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(2.0 / 3, cache.getHitRate(), 0.0001);
+        Assert.assertEquals("value", cache.remove("key"));
+        Assert.assertNull(cache.remove("key"));
+        Assert.assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testEvictedEntriesAreHandled() {
+
+        List<Integer> removedKeys = new ArrayList<>();
+        LRUCache<Integer, Integer> cache = new LRUCache<Integer, Integer>(10) {
+
+            @Override
+            protected void handleRemovableEntry(Map.Entry<Integer, Integer> entry) {
+
+                removedKeys.add(entry.getKey());
+            }
+        };
+        for (int i = 0; i < 20; i++) {
+            cache.put(i, i);
+        }
+        Assert.assertEquals(10, removedKeys.size());
+        for (Integer key : removedKeys) {
+            Assert.assertFalse(cache.containsKey(key));
+        }
+    }
+
+    @Test
+    public void testClearUnderExclusiveLock() {
+
+        LRUCache<String, String> cache = new LRUCache<>(10);
+        cache.put("first", "value");
+        cache.put("second", "value");
+        cache.exclusiveLock();
+        try {
+            int count = 0;
+            for (String value : cache.values()) {
+                Assert.assertEquals("value", value);
+                count++;
+            }
+            Assert.assertEquals(2, count);
+            cache.clear();
+        } finally {
+            cache.release();
+        }
+        Assert.assertTrue(cache.isEmpty());
+
+        cache.put("third", "value");
+        Iterator<String> iterator = cache.keySet().iterator();
+        Assert.assertEquals("third", iterator.next());
+        iterator.remove();
+        Assert.assertNull(cache.get("third"));
+        Assert.assertEquals(0, cache.size());
+    }
+}
@@ -44,7 +44,7 @@ ApplicationKeyMappingsApiService delegate = new ApplicationKeyMappingsApiService
     @ApiResponses(value = { 
         @ApiResponse(code = 200, message = "An array of application key mappings in the database", response = ApplicationKeyMappingListDTO.class),
         @ApiResponse(code = 200, message = "Unexpected error", response = ErrorDTO.class) })
-    public Response applicationKeyMappingsGet(@ApiParam(value = "This is used to specify the tenant domain, where the resource need to be   retrieved from. " ,required=true)@HeaderParam("xWSO2Tenant") String xWSO2Tenant,  @ApiParam(value = "**Search condition**.  Consumer Key of the application ")  @QueryParam("consumerKey") String consumerKey,  @ApiParam(value = "**Search condition**.  KeyManager associated to consumer_key of the application ")  @QueryParam("keymanager") String keymanager) throws APIManagementException{
-        return delegate.applicationKeyMappingsGet(xWSO2Tenant, consumerKey, keymanager, securityContext);
+    public Response applicationKeyMappingsGet(@ApiParam(value = "This is used to specify the tenant domain, where the resource need to be   retrieved from. " ,required=true)@HeaderParam("xWSO2Tenant") String xWSO2Tenant,  @ApiParam(value = "**Search condition**.  Consumer Key of the application ")  @QueryParam("consumerKey") String consumerKey,  @ApiParam(value = "**Search condition**.  KeyManager associated to consumer_key of the application ")  @QueryParam("keymanager") String keymanager,  @ApiParam(value = "Maximum number of applications whose key mappings are returned. When given, the key mappings are returned in pages ordered by application id, and the link to the next page is returned in the pagination of the response. ")  @QueryParam("limit") Integer limit,  @ApiParam(value = "Cursor of the page. Only the key mappings of the applications after the given application id are returned. ")  @QueryParam("after") Integer after) throws APIManagementException{
+        return delegate.applicationKeyMappingsGet(xWSO2Tenant, consumerKey, keymanager, limit, after, securityContext);
     }
 }
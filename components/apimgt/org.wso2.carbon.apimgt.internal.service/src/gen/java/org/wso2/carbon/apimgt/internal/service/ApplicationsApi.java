@@ -44,7 +44,7 @@ ApplicationsApiService delegate = new ApplicationsApiServiceImpl();
     @ApiResponses(value = { 
         @ApiResponse(code = 200, message = "An array of applications in the database", response = ApplicationListDTO.class),
         @ApiResponse(code = 200, message = "Unexpected error", response = ErrorDTO.class) })
-    public Response applicationsGet(@ApiParam(value = "This is used to specify the tenant domain, where the resource need to be   retrieved from. " ,required=true)@HeaderParam("xWSO2Tenant") String xWSO2Tenant,  @ApiParam(value = "**Search condition**.  Application ID of the application ")  @QueryParam("appId") Integer appId) throws APIManagementException{
-        return delegate.applicationsGet(xWSO2Tenant, appId, securityContext);
+    public Response applicationsGet(@ApiParam(value = "This is used to specify the tenant domain, where the resource need to be   retrieved from. " ,required=true)@HeaderParam("xWSO2Tenant") String xWSO2Tenant,  @ApiParam(value = "**Search condition**.  Application ID of the application ")  @QueryParam("appId") Integer appId,  @ApiParam(value = "Maximum number of applications to return. When given, the applications are returned in pages ordered by application id, and the link to the next page is returned in the pagination of the response. ")  @QueryParam("limit") Integer limit,  @ApiParam(value = "Cursor of the page. Only the applications after the given application id are returned. ")  @QueryParam("after") Integer after) throws APIManagementException{
+        return delegate.applicationsGet(xWSO2Tenant, appId, limit, after, securityContext);
     }
 }
@@ -1,6 +1,8 @@
 package org.wso2.carbon.apimgt.internal.service;
 
 import org.wso2.carbon.apimgt.internal.service.dto.ErrorDTO;
+import org.wso2.carbon.apimgt.internal.service.dto.RuntimeArtifactDeltaDTO;
+import org.wso2.carbon.apimgt.internal.service.dto.RuntimeArtifactManifestDTO;
 import org.wso2.carbon.apimgt.internal.service.RuntimeArtifactsApiService;
 import org.wso2.carbon.apimgt.internal.service.impl.RuntimeArtifactsApiServiceImpl;
 import org.wso2.carbon.apimgt.api.APIManagementException;
@@ -46,4 +48,16 @@ RuntimeArtifactsApiService delegate = new RuntimeArtifactsApiServiceImpl();
     public Response runtimeArtifactsGet(@ApiParam(value = "This is used to specify the tenant domain, where the resource need to be   retrieved from. " ,required=true)@HeaderParam("xWSO2Tenant") String xWSO2Tenant,  @ApiParam(value = "**Search condition**.   Api ID ")  @QueryParam("apiId") String apiId,  @ApiParam(value = "**Search condition**.  label associated with the APIs ")  @QueryParam("gatewayLabel") String gatewayLabel,  @ApiParam(value = "**Search condition**.  type of gateway ")  @QueryParam("type") String type,  @ApiParam(value = "**Search condition**.  name of API ")  @QueryParam("name") String name,  @ApiParam(value = "**Search condition**.  version of API ")  @QueryParam("version") String version) throws APIManagementException{
         return delegate.runtimeArtifactsGet(xWSO2Tenant, apiId, gatewayLabel, type, name, version, securityContext);
     }
+
+    @POST
+    @Path("/delta")
+    
+    @Produces({ "application/json" })
+    @ApiOperation(value = "Get the runtime artifacts which changed since the given manifest", notes = "This will provide the runtime artifacts of the APIs whose deployments in the given gateway labels differ from the manifest of artifacts the gateway already has. ", response = RuntimeArtifactDeltaDTO.class, tags={ "Retrieving Runtime artifacts" })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "Changed runtime Artifacts", response = RuntimeArtifactDeltaDTO.class),
+        @ApiResponse(code = 200, message = "Unexpected error", response = ErrorDTO.class) })
+    public Response runtimeArtifactsDeltaPost(@ApiParam(value = "This is used to specify the tenant domain, where the resource need to be   retrieved from. " ,required=true)@HeaderParam("xWSO2Tenant") String xWSO2Tenant,  @ApiParam(value = "**Search condition**.  label associated with the APIs ")  @QueryParam("gatewayLabel") String gatewayLabel,  @ApiParam(value = "type of gateway ")  @QueryParam("type") String type, @ApiParam(value = "Manifest of the runtime artifacts the gateway has" ) RuntimeArtifactManifestDTO manifest) throws APIManagementException{
+        return delegate.runtimeArtifactsDeltaPost(xWSO2Tenant, gatewayLabel, type, manifest, securityContext);
+    }
 }
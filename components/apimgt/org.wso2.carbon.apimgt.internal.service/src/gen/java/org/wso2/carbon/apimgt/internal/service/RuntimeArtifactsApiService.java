@@ -10,6 +10,8 @@ import org.apache.cxf.jaxrs.ext.multipart.Multipart;
 import org.wso2.carbon.apimgt.api.APIManagementException;
 
 import org.wso2.carbon.apimgt.internal.service.dto.ErrorDTO;
+import org.wso2.carbon.apimgt.internal.service.dto.RuntimeArtifactDeltaDTO;
+import org.wso2.carbon.apimgt.internal.service.dto.RuntimeArtifactManifestDTO;
 
 import java.util.List;
 
@@ -21,4 +23,5 @@ import javax.ws.rs.core.SecurityContext;
 
 public interface RuntimeArtifactsApiService {
       public Response runtimeArtifactsGet(String xWSO2Tenant, String apiId, String gatewayLabel, String type, String name, String version, MessageContext messageContext) throws APIManagementException;
+      public Response runtimeArtifactsDeltaPost(String xWSO2Tenant, String gatewayLabel, String type, RuntimeArtifactManifestDTO manifest, MessageContext messageContext) throws APIManagementException;
 }
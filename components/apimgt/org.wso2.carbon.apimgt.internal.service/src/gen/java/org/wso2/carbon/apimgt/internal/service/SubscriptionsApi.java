@@ -44,7 +44,7 @@ SubscriptionsApiService delegate = new SubscriptionsApiServiceImpl();
     @ApiResponses(value = { 
         @ApiResponse(code = 200, message = "An array of subscriptions in the database", response = SubscriptionListDTO.class),
         @ApiResponse(code = 200, message = "Unexpected error", response = ErrorDTO.class) })
-    public Response subscriptionsGet(@ApiParam(value = "This is used to specify the tenant domain, where the resource need to be   retrieved from. " ,required=true)@HeaderParam("xWSO2Tenant") String xWSO2Tenant,  @ApiParam(value = "**Search condition**.   Api ID  of the subscription ")  @QueryParam("apiId") Integer apiId,  @ApiParam(value = "**Search condition**.   Application ID  of the subscription ")  @QueryParam("appId") Integer appId,  @ApiParam(value = "**Search condition**.   Api UUID  of the subscription ")  @QueryParam("apiUUID") String apiUUID,  @ApiParam(value = "**Search condition**.   Application UUID  of the subscription ")  @QueryParam("applicationUUID") String applicationUUID) throws APIManagementException{
-        return delegate.subscriptionsGet(xWSO2Tenant, apiId, appId, apiUUID, applicationUUID, securityContext);
+    public Response subscriptionsGet(@ApiParam(value = "This is used to specify the tenant domain, where the resource need to be   retrieved from. " ,required=true)@HeaderParam("xWSO2Tenant") String xWSO2Tenant,  @ApiParam(value = "**Search condition**.   Api ID  of the subscription ")  @QueryParam("apiId") Integer apiId,  @ApiParam(value = "**Search condition**.   Application ID  of the subscription ")  @QueryParam("appId") Integer appId,  @ApiParam(value = "**Search condition**.   Api UUID  of the subscription ")  @QueryParam("apiUUID") String apiUUID,  @ApiParam(value = "**Search condition**.   Application UUID  of the subscription ")  @QueryParam("applicationUUID") String applicationUUID,  @ApiParam(value = "Maximum number of subscriptions to return. When given, the subscriptions are returned in pages ordered by subscription id, and the link to the next page is returned in the pagination of the response. ")  @QueryParam("limit") Integer limit,  @ApiParam(value = "Cursor of the page. Only the subscriptions after the given subscription id are returned. ")  @QueryParam("after") Integer after,  @ApiParam(value = "Only the subscriptions created or updated after the given time, in milliseconds since the epoch, are returned. Removed subscriptions are not returned. ")  @QueryParam("updatedAfter") Long updatedAfter) throws APIManagementException{
+        return delegate.subscriptionsGet(xWSO2Tenant, apiId, appId, apiUUID, applicationUUID, limit, after, updatedAfter, securityContext);
     }
 }
@@ -0,0 +1,141 @@
+package org.wso2.carbon.apimgt.internal.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import java.util.ArrayList;
+import java.util.List;
+import org.wso2.carbon.apimgt.internal.service.dto.RuntimeArtifactManifestEntryDTO;
+import javax.validation.constraints.*;
+
+
+import io.swagger.annotations.*;
+import java.util.Objects;
+
+import javax.xml.bind.annotation.*;
+import org.wso2.carbon.apimgt.rest.api.common.annotations.Scope;
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+
+
+public class RuntimeArtifactDeltaDTO   {
+  
+    private Integer count = null;
+    private List<RuntimeArtifactManifestEntryDTO> list = new ArrayList<>();
+    private List<String> unchanged = new ArrayList<>();
+    private List<String> removed = new ArrayList<>();
+
+  /**
+   * Number of new or changed APIs returned. 
+   **/
+  public RuntimeArtifactDeltaDTO count(Integer count) {
+    this.count = count;
+    return this;
+  }
+
+  
+  @ApiModelProperty(example = "1", value = "Number of new or changed APIs returned. ")
+  @JsonProperty("count")
+  public Integer getCount() {
+    return count;
+  }
+  public void setCount(Integer count) {
+    this.count = count;
+  }
+
+  /**
+   **/
+  public RuntimeArtifactDeltaDTO list(List<RuntimeArtifactManifestEntryDTO> list) {
+    this.list = list;
+    return this;
+  }
+
+  
+  @ApiModelProperty(value = "")
+  @JsonProperty("list")
+  public List<RuntimeArtifactManifestEntryDTO> getList() {
+    return list;
+  }
+  public void setList(List<RuntimeArtifactManifestEntryDTO> list) {
+    this.list = list;
+  }
+
+  /**
+   **/
+  public RuntimeArtifactDeltaDTO unchanged(List<String> unchanged) {
+    this.unchanged = unchanged;
+    return this;
+  }
+
+  
+  @ApiModelProperty(value = "")
+  @JsonProperty("unchanged")
+  public List<String> getUnchanged() {
+    return unchanged;
+  }
+  public void setUnchanged(List<String> unchanged) {
+    this.unchanged = unchanged;
+  }
+
+  /**
+   **/
+  public RuntimeArtifactDeltaDTO removed(List<String> removed) {
+    this.removed = removed;
+    return this;
+  }
+
+  
+  @ApiModelProperty(value = "")
+  @JsonProperty("removed")
+  public List<String> getRemoved() {
+    return removed;
+  }
+  public void setRemoved(List<String> removed) {
+    this.removed = removed;
+  }
+
+
+  @Override
+  public boolean equals(java.lang.Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    RuntimeArtifactDeltaDTO runtimeArtifactDelta = (RuntimeArtifactDeltaDTO) o;
+    return Objects.equals(count, runtimeArtifactDelta.count) &&
+        Objects.equals(list, runtimeArtifactDelta.list) &&
+        Objects.equals(unchanged, runtimeArtifactDelta.unchanged) &&
+        Objects.equals(removed, runtimeArtifactDelta.removed);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(count, list, unchanged, removed);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("class RuntimeArtifactDeltaDTO {\n");
+    
+    sb.append("    count: ").append(toIndentedString(count)).append("\n");
+    sb.append("    list: ").append(toIndentedString(list)).append("\n");
+    sb.append("    unchanged: ").append(toIndentedString(unchanged)).append("\n");
+    sb.append("    removed: ").append(toIndentedString(removed)).append("\n");
+    sb.append("}");
+    return sb.toString();
+  }
+
+  /**
+   * Convert the given object to string with each line indented by 4 spaces
+   * (except the first line).
+   */
+  private String toIndentedString(java.lang.Object o) {
+    if (o == null) {
+      return "null";
+    }
+    return o.toString().replace("\n", "\n    ");
+  }
+}
+
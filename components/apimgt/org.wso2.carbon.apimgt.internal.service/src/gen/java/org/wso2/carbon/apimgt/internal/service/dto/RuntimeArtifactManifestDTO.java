@@ -0,0 +1,80 @@
+package org.wso2.carbon.apimgt.internal.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import java.util.ArrayList;
+import java.util.List;
+import org.wso2.carbon.apimgt.internal.service.dto.RuntimeArtifactManifestEntryDTO;
+import javax.validation.constraints.*;
+
+
+import io.swagger.annotations.*;
+import java.util.Objects;
+
+import javax.xml.bind.annotation.*;
+import org.wso2.carbon.apimgt.rest.api.common.annotations.Scope;
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+
+
+public class RuntimeArtifactManifestDTO   {
+  
+    private List<RuntimeArtifactManifestEntryDTO> list = new ArrayList<>();
+
+  /**
+   **/
+  public RuntimeArtifactManifestDTO list(List<RuntimeArtifactManifestEntryDTO> list) {
+    this.list = list;
+    return this;
+  }
+
+  
+  @ApiModelProperty(value = "")
+  @JsonProperty("list")
+  public List<RuntimeArtifactManifestEntryDTO> getList() {
+    return list;
+  }
+  public void setList(List<RuntimeArtifactManifestEntryDTO> list) {
+    this.list = list;
+  }
+
+
+  @Override
+  public boolean equals(java.lang.Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    RuntimeArtifactManifestDTO runtimeArtifactManifest = (RuntimeArtifactManifestDTO) o;
+    return Objects.equals(list, runtimeArtifactManifest.list);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(list);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("class RuntimeArtifactManifestDTO {\n");
+    
+    sb.append("    list: ").append(toIndentedString(list)).append("\n");
+    sb.append("}");
+    return sb.toString();
+  }
+
+  /**
+   * Convert the given object to string with each line indented by 4 spaces
+   * (except the first line).
+   */
+  private String toIndentedString(java.lang.Object o) {
+    if (o == null) {
+      return "null";
+    }
+    return o.toString().replace("\n", "\n    ");
+  }
+}
+
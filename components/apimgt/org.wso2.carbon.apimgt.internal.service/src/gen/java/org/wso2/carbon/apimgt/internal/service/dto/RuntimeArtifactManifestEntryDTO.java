@@ -0,0 +1,142 @@
+package org.wso2.carbon.apimgt.internal.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import java.util.ArrayList;
+import java.util.List;
+import javax.validation.constraints.*;
+
+
+import io.swagger.annotations.*;
+import java.util.Objects;
+
+import javax.xml.bind.annotation.*;
+import org.wso2.carbon.apimgt.rest.api.common.annotations.Scope;
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+
+
+public class RuntimeArtifactManifestEntryDTO   {
+  
+    private String apiId = null;
+    private String revisionId = null;
+    private String hash = null;
+    private List<String> artifacts = new ArrayList<>();
+
+  /**
+   * UUID of the API.
+   **/
+  public RuntimeArtifactManifestEntryDTO apiId(String apiId) {
+    this.apiId = apiId;
+    return this;
+  }
+
+  
+  @ApiModelProperty(value = "UUID of the API.")
+  @JsonProperty("apiId")
+  public String getApiId() {
+    return apiId;
+  }
+  public void setApiId(String apiId) {
+    this.apiId = apiId;
+  }
+
+  /**
+   * Deployed revision of the API.
+   **/
+  public RuntimeArtifactManifestEntryDTO revisionId(String revisionId) {
+    this.revisionId = revisionId;
+    return this;
+  }
+
+  
+  @ApiModelProperty(value = "Deployed revision of the API.")
+  @JsonProperty("revisionId")
+  public String getRevisionId() {
+    return revisionId;
+  }
+  public void setRevisionId(String revisionId) {
+    this.revisionId = revisionId;
+  }
+
+  /**
+   * Fingerprint of the deployments of the API the artifacts were generated for.
+   **/
+  public RuntimeArtifactManifestEntryDTO hash(String hash) {
+    this.hash = hash;
+    return this;
+  }
+
+  
+  @ApiModelProperty(value = "Fingerprint of the deployments of the API the artifacts were generated for.")
+  @JsonProperty("hash")
+  public String getHash() {
+    return hash;
+  }
+  public void setHash(String hash) {
+    this.hash = hash;
+  }
+
+  /**
+   **/
+  public RuntimeArtifactManifestEntryDTO artifacts(List<String> artifacts) {
+    this.artifacts = artifacts;
+    return this;
+  }
+
+  
+  @ApiModelProperty(value = "")
+  @JsonProperty("artifacts")
+  public List<String> getArtifacts() {
+    return artifacts;
+  }
+  public void setArtifacts(List<String> artifacts) {
+    this.artifacts = artifacts;
+  }
+
+
+  @Override
+  public boolean equals(java.lang.Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    RuntimeArtifactManifestEntryDTO runtimeArtifactManifestEntry = (RuntimeArtifactManifestEntryDTO) o;
+    return Objects.equals(apiId, runtimeArtifactManifestEntry.apiId) &&
+        Objects.equals(revisionId, runtimeArtifactManifestEntry.revisionId) &&
+        Objects.equals(hash, runtimeArtifactManifestEntry.hash) &&
+        Objects.equals(artifacts, runtimeArtifactManifestEntry.artifacts);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(apiId, revisionId, hash, artifacts);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("class RuntimeArtifactManifestEntryDTO {\n");
+    
+    sb.append("    apiId: ").append(toIndentedString(apiId)).append("\n");
+    sb.append("    revisionId: ").append(toIndentedString(revisionId)).append("\n");
+    sb.append("    hash: ").append(toIndentedString(hash)).append("\n");
+    sb.append("    artifacts: ").append(toIndentedString(artifacts)).append("\n");
+    sb.append("}");
+    return sb.toString();
+  }
+
+  /**
+   * Convert the given object to string with each line indented by 4 spaces
+   * (except the first line).
+   */
+  private String toIndentedString(java.lang.Object o) {
+    if (o == null) {
+      return "null";
+    }
+    return o.toString().replace("\n", "\n    ");
+  }
+}
+
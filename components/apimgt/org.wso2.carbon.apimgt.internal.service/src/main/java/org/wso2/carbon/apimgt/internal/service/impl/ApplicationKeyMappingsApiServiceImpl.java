@@ -24,12 +24,14 @@ import org.wso2.carbon.apimgt.api.model.subscription.ApplicationKeyMapping;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.dao.SubscriptionValidationDAO;
 import org.wso2.carbon.apimgt.internal.service.ApplicationKeyMappingsApiService;
+import org.wso2.carbon.apimgt.internal.service.dto.ApplicationKeyMappingListDTO;
 import org.apache.cxf.jaxrs.ext.MessageContext;
 import org.wso2.carbon.apimgt.internal.service.utils.SubscriptionValidationDataUtil;
 import org.wso2.carbon.apimgt.rest.api.util.utils.RestApiUtil;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import javax.ws.rs.core.Response;
 
@@ -37,7 +39,8 @@ public class ApplicationKeyMappingsApiServiceImpl implements ApplicationKeyMappi
 
     @Override
     public Response applicationKeyMappingsGet(String xWSO2Tenant, String consumerKey, String keymanager,
-                                              MessageContext messageContext) throws APIManagementException {
+                                              Integer limit, Integer after, MessageContext messageContext)
+            throws APIManagementException {
 
         SubscriptionValidationDAO subscriptionValidationDAO = new SubscriptionValidationDAO();
         xWSO2Tenant = SubscriptionValidationDataUtil.validateTenantDomain(xWSO2Tenant, messageContext);
@@ -53,6 +56,14 @@ public class ApplicationKeyMappingsApiServiceImpl implements ApplicationKeyMappi
             return Response.ok().entity(SubscriptionValidationDataUtil.
                     fromApplicationKeyMappingToApplicationKeyMappingListDTO(applicationKeyMappings)).build();
         }
+        if (limit != null && StringUtils.isNotEmpty(organization) &&
+                (!organization.equalsIgnoreCase(APIConstants.ORG_ALL_QUERY_PARAM) ||
+                        xWSO2Tenant.equalsIgnoreCase(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME))) {
+            String pageOrganization = organization.equalsIgnoreCase(APIConstants.ORG_ALL_QUERY_PARAM) ?
+                    null : organization;
+            return Response.ok().entity(getKeyMappingsPage(subscriptionValidationDAO, pageOrganization, limit,
+                    after)).build();
+        }
         if (StringUtils.isNotEmpty(organization) && !organization.equalsIgnoreCase(APIConstants.ORG_ALL_QUERY_PARAM))   {
             return Response.ok().entity(SubscriptionValidationDataUtil.
                     fromApplicationKeyMappingToApplicationKeyMappingListDTO(subscriptionValidationDAO.
@@ -70,4 +81,30 @@ public class ApplicationKeyMappingsApiServiceImpl implements ApplicationKeyMappi
         }
         return null;
     }
+
+    ApplicationKeyMappingListDTO getKeyMappingsPage(SubscriptionValidationDAO subscriptionValidationDAO,
+                                                    String organization, Integer limit, Integer after)
+            throws APIManagementException {
+
+        int pageSize = limit > 0 ? limit : 0;
+        int from = after != null ? after : 0;
+        List<Integer> applicationIds = subscriptionValidationDAO.getApplicationIds(organization, from, pageSize);
+        List<ApplicationKeyMapping> keyMappings = Collections.emptyList();
+        Integer nextCursor = null;
+        if (!applicationIds.isEmpty()) {
+            int to = applicationIds.get(applicationIds.size() - 1);
+            keyMappings = subscriptionValidationDAO.getApplicationKeyMappings(organization, from, to);
+            if (applicationIds.size() == pageSize) {
+                nextCursor = to;
+            }
+        }
+        ApplicationKeyMappingListDTO applicationKeyMappingListDTO = SubscriptionValidationDataUtil.
+                fromApplicationKeyMappingToApplicationKeyMappingListDTO(keyMappings);
+        if (pageSize > 0) {
+            applicationKeyMappingListDTO.setPagination(SubscriptionValidationDataUtil.getCursorPagination(
+                    APIConstants.SubscriptionValidationResources.APPLICATION_KEY_MAPPINGS, pageSize, nextCursor,
+                    null));
+        }
+        return applicationKeyMappingListDTO;
+    }
 }
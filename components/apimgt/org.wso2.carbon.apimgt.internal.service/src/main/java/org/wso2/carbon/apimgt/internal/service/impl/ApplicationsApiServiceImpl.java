@@ -20,21 +20,25 @@ package org.wso2.carbon.apimgt.internal.service.impl;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.cxf.jaxrs.ext.MessageContext;
+import org.wso2.carbon.apimgt.api.APIManagementException;
 import org.wso2.carbon.apimgt.api.model.subscription.Application;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.dao.SubscriptionValidationDAO;
 import org.wso2.carbon.apimgt.internal.service.ApplicationsApiService;
+import org.wso2.carbon.apimgt.internal.service.dto.ApplicationListDTO;
 import org.wso2.carbon.apimgt.internal.service.utils.SubscriptionValidationDataUtil;
 import org.wso2.carbon.apimgt.rest.api.util.utils.RestApiUtil;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
+import java.util.Collections;
 import java.util.List;
 import javax.ws.rs.core.Response;
 
 public class ApplicationsApiServiceImpl implements ApplicationsApiService {
 
     @Override
-    public Response applicationsGet(String xWSO2Tenant, Integer appId, MessageContext messageContext) {
+    public Response applicationsGet(String xWSO2Tenant, Integer appId, Integer limit, Integer after,
+                                    MessageContext messageContext) throws APIManagementException {
 
         SubscriptionValidationDAO subscriptionValidationDAO = new SubscriptionValidationDAO();
         if (appId != null && appId > 0) {
@@ -49,9 +53,18 @@ public class ApplicationsApiServiceImpl implements ApplicationsApiService {
         }
         if (StringUtils.isNotEmpty(organization) && organization.equalsIgnoreCase(APIConstants.ORG_ALL_QUERY_PARAM) &&
                 xWSO2Tenant.equalsIgnoreCase(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME)) {
+            if (limit != null) {
+                return Response.ok().entity(getApplicationsPage(subscriptionValidationDAO, null, limit, after))
+                        .build();
+            }
             return Response.ok().entity(SubscriptionValidationDataUtil.fromApplicationToApplicationListDTO(
                     subscriptionValidationDAO.getAllApplications())).build();
         }
+        if (limit != null && StringUtils.isNotEmpty(organization) &&
+                !organization.equalsIgnoreCase(APIConstants.ORG_ALL_QUERY_PARAM)) {
+            return Response.ok().entity(getApplicationsPage(subscriptionValidationDAO, organization, limit, after))
+                    .build();
+        }
         if (StringUtils.isNotEmpty(xWSO2Tenant)) {
             return Response.ok().entity(SubscriptionValidationDataUtil.fromApplicationToApplicationListDTO(
                     subscriptionValidationDAO.getAllApplications(xWSO2Tenant)))
@@ -60,4 +73,29 @@ public class ApplicationsApiServiceImpl implements ApplicationsApiService {
         return Response.ok().entity(SubscriptionValidationDataUtil.fromApplicationToApplicationListDTO(
                 subscriptionValidationDAO.getAllApplications())).build();
     }
+
+    ApplicationListDTO getApplicationsPage(SubscriptionValidationDAO subscriptionValidationDAO,
+                                           String organization, Integer limit, Integer after)
+            throws APIManagementException {
+
+        int pageSize = limit > 0 ? limit : 0;
+        int from = after != null ? after : 0;
+        List<Integer> applicationIds = subscriptionValidationDAO.getApplicationIds(organization, from, pageSize);
+        List<Application> applications = Collections.emptyList();
+        Integer nextCursor = null;
+        if (!applicationIds.isEmpty()) {
+            int to = applicationIds.get(applicationIds.size() - 1);
+            applications = subscriptionValidationDAO.getApplications(organization, from, to);
+            if (applicationIds.size() == pageSize) {
+                nextCursor = to;
+            }
+        }
+        ApplicationListDTO applicationListDTO =
+                SubscriptionValidationDataUtil.fromApplicationToApplicationListDTO(applications);
+        if (pageSize > 0) {
+            applicationListDTO.setPagination(SubscriptionValidationDataUtil.getCursorPagination(
+                    APIConstants.SubscriptionValidationResources.APPLICATIONS, pageSize, nextCursor, null));
+        }
+        return applicationListDTO;
+    }
 }
@@ -26,7 +26,12 @@ import org.wso2.carbon.apimgt.api.ExceptionCodes;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.dto.RuntimeArtifactDto;
 import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.RuntimeArtifactGeneratorUtil;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.dto.ArtifactManifestEntryDto;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.dto.RuntimeArtifactDeltaDto;
 import org.wso2.carbon.apimgt.internal.service.RuntimeArtifactsApiService;
+import org.wso2.carbon.apimgt.internal.service.dto.RuntimeArtifactDeltaDTO;
+import org.wso2.carbon.apimgt.internal.service.dto.RuntimeArtifactManifestDTO;
+import org.wso2.carbon.apimgt.internal.service.dto.RuntimeArtifactManifestEntryDTO;
 import org.wso2.carbon.apimgt.internal.service.dto.SynapseArtifactListDTO;
 import org.wso2.carbon.apimgt.internal.service.utils.SubscriptionValidationDataUtil;
 import org.wso2.carbon.apimgt.rest.api.common.RestApiConstants;
@@ -37,6 +42,7 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
 import java.io.File;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -90,4 +96,31 @@ public class RuntimeArtifactsApiServiceImpl implements RuntimeArtifactsApiServic
                     .build();
         }
     }
-}
\ No newline at end of file
+
+    public Response runtimeArtifactsDeltaPost(String xWSO2Tenant, String gatewayLabel, String type,
+                                              RuntimeArtifactManifestDTO manifest, MessageContext messageContext)
+            throws APIManagementException {
+
+        xWSO2Tenant = SubscriptionValidationDataUtil.validateTenantDomain(xWSO2Tenant, messageContext);
+        List<ArtifactManifestEntryDto> gatewayManifest = new ArrayList<>();
+        if (manifest != null && manifest.getList() != null) {
+            for (RuntimeArtifactManifestEntryDTO entry : manifest.getList()) {
+                gatewayManifest.add(new ArtifactManifestEntryDto(entry.getApiId(), entry.getRevisionId(),
+                        entry.getHash()));
+            }
+        }
+        RuntimeArtifactDeltaDto runtimeArtifactDeltaDto = RuntimeArtifactGeneratorUtil
+                .generateRuntimeArtifactDelta(gatewayLabel, type, xWSO2Tenant, gatewayManifest);
+
+        RuntimeArtifactDeltaDTO runtimeArtifactDeltaDTO = new RuntimeArtifactDeltaDTO();
+        for (ArtifactManifestEntryDto entry : runtimeArtifactDeltaDto.getList()) {
+            runtimeArtifactDeltaDTO.getList().add(new RuntimeArtifactManifestEntryDTO().apiId(entry.getApiId())
+                    .revisionId(entry.getRevisionId()).hash(entry.getHash()).artifacts(entry.getArtifacts()));
+        }
+        runtimeArtifactDeltaDTO.setCount(runtimeArtifactDeltaDTO.getList().size());
+        runtimeArtifactDeltaDTO.setUnchanged(runtimeArtifactDeltaDto.getUnchanged());
+        runtimeArtifactDeltaDTO.setRemoved(runtimeArtifactDeltaDto.getRemoved());
+        return Response.ok().entity(runtimeArtifactDeltaDTO)
+                .header(RestApiConstants.HEADER_CONTENT_TYPE, RestApiConstants.APPLICATION_JSON).build();
+    }
+}
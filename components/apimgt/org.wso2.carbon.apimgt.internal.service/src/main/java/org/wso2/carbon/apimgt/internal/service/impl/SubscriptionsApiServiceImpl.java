@@ -25,10 +25,12 @@ import org.wso2.carbon.apimgt.api.model.subscription.Subscription;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.dao.SubscriptionValidationDAO;
 import org.wso2.carbon.apimgt.internal.service.SubscriptionsApiService;
+import org.wso2.carbon.apimgt.internal.service.dto.SubscriptionListDTO;
 import org.wso2.carbon.apimgt.internal.service.utils.SubscriptionValidationDataUtil;
 import org.wso2.carbon.apimgt.rest.api.util.utils.RestApiUtil;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 import javax.ws.rs.core.Response;
@@ -37,8 +39,8 @@ public class SubscriptionsApiServiceImpl implements SubscriptionsApiService {
 
     @Override
     public Response subscriptionsGet(String xWSO2Tenant, Integer apiId, Integer appId, String apiUUID,
-                                     String applicationUUID, MessageContext messageContext) throws
-            APIManagementException {
+                                     String applicationUUID, Integer limit, Integer after, Long updatedAfter,
+                                     MessageContext messageContext) throws APIManagementException {
 
         Response result;
 
@@ -60,6 +62,13 @@ public class SubscriptionsApiServiceImpl implements SubscriptionsApiService {
             }
             result = Response.ok().entity(
                     SubscriptionValidationDataUtil.fromSubscriptionToSubscriptionListDTO(subscriptionList)).build();
+        } else if ((limit != null || updatedAfter != null) && StringUtils.isNotEmpty(organization) &&
+                (!organization.equalsIgnoreCase(APIConstants.ORG_ALL_QUERY_PARAM) ||
+                        xWSO2Tenant.equalsIgnoreCase(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME))) {
+            String pageOrganization = organization.equalsIgnoreCase(APIConstants.ORG_ALL_QUERY_PARAM) ?
+                    null : organization;
+            result = Response.ok().entity(getSubscriptionsPage(subscriptionValidationDAO, pageOrganization, limit,
+                    after, updatedAfter)).build();
         } else if (StringUtils.isNotEmpty(organization) &&
                 !organization.equalsIgnoreCase(APIConstants.ORG_ALL_QUERY_PARAM)) {
             result = Response.ok().entity(SubscriptionValidationDataUtil.fromSubscriptionToSubscriptionListDTO(
@@ -78,4 +87,25 @@ public class SubscriptionsApiServiceImpl implements SubscriptionsApiService {
 
         return result;
     }
+
+    SubscriptionListDTO getSubscriptionsPage(SubscriptionValidationDAO subscriptionValidationDAO,
+                                             String organization, Integer limit, Integer after,
+                                             Long updatedAfter) throws APIManagementException {
+
+        int pageSize = limit != null && limit > 0 ? limit : 0;
+        List<Subscription> subscriptions = subscriptionValidationDAO.getSubscriptions(organization,
+                after != null ? after : 0, pageSize, updatedAfter != null ? new Timestamp(updatedAfter) : null);
+        SubscriptionListDTO subscriptionListDTO =
+                SubscriptionValidationDataUtil.fromSubscriptionToSubscriptionListDTO(subscriptions);
+        if (pageSize > 0) {
+            Integer nextCursor = null;
+            if (subscriptions.size() == pageSize) {
+                nextCursor = subscriptions.get(subscriptions.size() - 1).getSubscriptionId();
+            }
+            subscriptionListDTO.setPagination(SubscriptionValidationDataUtil.getCursorPagination(
+                    APIConstants.SubscriptionValidationResources.SUBSCRIPTIONS, pageSize, nextCursor,
+                    updatedAfter != null ? "updatedAfter=" + updatedAfter : null));
+        }
+        return subscriptionListDTO;
+    }
 }
@@ -55,6 +55,7 @@ import org.wso2.carbon.apimgt.internal.service.dto.EventCountLimitDTO;
 import org.wso2.carbon.apimgt.internal.service.dto.GlobalPolicyDTO;
 import org.wso2.carbon.apimgt.internal.service.dto.GlobalPolicyListDTO;
 import org.wso2.carbon.apimgt.internal.service.dto.GroupIdDTO;
+import org.wso2.carbon.apimgt.internal.service.dto.PaginationDTO;
 import org.wso2.carbon.apimgt.internal.service.dto.RequestCountLimitDTO;
 import org.wso2.carbon.apimgt.internal.service.dto.ScopeDTO;
 import org.wso2.carbon.apimgt.internal.service.dto.ScopesListDTO;
@@ -439,6 +440,32 @@ public class SubscriptionValidationDataUtil {
         return applicationKeyMappingListDTO;
     }
 
+    /**
+     * Returns the pagination of a page of resources retrieved with a cursor.
+     *
+     * @param resourcePath path of the resources
+     * @param limit        maximum number of resources of a page
+     * @param nextCursor   cursor of the next page, or null if there are no more pages
+     * @param queryParams  query params to be retained in the link of the next page, or null
+     * @return pagination of the page
+     */
+    public static PaginationDTO getCursorPagination(String resourcePath, int limit, Integer nextCursor,
+                                                    String queryParams) {
+
+        PaginationDTO paginationDTO = new PaginationDTO();
+        paginationDTO.setLimit(limit);
+        if (nextCursor != null) {
+            String next = resourcePath + "?limit=" + limit + "&after=" + nextCursor;
+            if (StringUtils.isNotEmpty(queryParams)) {
+                next = next + "&" + queryParams;
+            }
+            paginationDTO.setNext(next);
+        } else {
+            paginationDTO.setNext("");
+        }
+        return paginationDTO;
+    }
+
     public static String validateTenantDomain(String xWSO2Tenant, MessageContext messageContext) {
 
         String tenantDomain = RestApiCommonUtil.getLoggedInUserTenantDomain();
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.internal.service.impl;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.internal.service.dto.ApplicationKeyMappingDTO;
+import org.wso2.carbon.apimgt.internal.service.dto.ApplicationKeyMappingListDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ApplicationKeyMappingsApiServiceImplTest {
+
+    private InMemorySubscriptionValidationDAO subscriptionValidationDAO;
+    private ApplicationKeyMappingsApiServiceImpl applicationKeyMappingsApiService;
+
+    @Before
+    public void setUp() {
+
+        subscriptionValidationDAO = new InMemorySubscriptionValidationDAO();
+        subscriptionValidationDAO.addApplication(1, "key1-prod", "key1-sand");
+        subscriptionValidationDAO.addApplication(2);
+        subscriptionValidationDAO.addApplication(4, "key4-prod");
+        subscriptionValidationDAO.addApplication(5, "key5-prod", "key5-sand");
+        applicationKeyMappingsApiService = new ApplicationKeyMappingsApiServiceImpl();
+    }
+
+    @Test
+    public void testGetKeyMappingsPages() throws Exception {
+
+        // Pages contain the key mappings of a page of applications, so that no application is split across pages
+        ApplicationKeyMappingListDTO page = applicationKeyMappingsApiService.getKeyMappingsPage(
+                subscriptionValidationDAO, "org1", 2, null);
+        Assert.assertEquals(Arrays.asList("key1-prod", "key1-sand"), consumerKeys(page));
+        Assert.assertEquals("/application-key-mappings?limit=2&after=2", page.getPagination().getNext());
+
+        page = applicationKeyMappingsApiService.getKeyMappingsPage(subscriptionValidationDAO, "org1", 2, 2);
+        Assert.assertEquals(Arrays.asList("key4-prod", "key5-prod", "key5-sand"), consumerKeys(page));
+        Assert.assertEquals("/application-key-mappings?limit=2&after=5", page.getPagination().getNext());
+
+        page = applicationKeyMappingsApiService.getKeyMappingsPage(subscriptionValidationDAO, "org1", 2, 5);
+        Assert.assertTrue(page.getList().isEmpty());
+        Assert.assertEquals("", page.getPagination().getNext());
+        Assert.assertEquals(Arrays.asList("getApplicationIds(org1,0,2)", "getApplicationKeyMappings(org1,0,2)",
+                "getApplicationIds(org1,2,2)", "getApplicationKeyMappings(org1,2,5)",
+                "getApplicationIds(org1,5,2)"), subscriptionValidationDAO.queries);
+    }
+
+    @Test
+    public void testGetKeyMappingsWithoutPageSize() throws Exception {
+
+        ApplicationKeyMappingListDTO page = applicationKeyMappingsApiService.getKeyMappingsPage(
+                subscriptionValidationDAO, null, 0, null);
+        Assert.assertEquals(5, consumerKeys(page).size());
+        Assert.assertNull(page.getPagination());
+    }
+
+    private static List<String> consumerKeys(ApplicationKeyMappingListDTO applicationKeyMappingListDTO) {
+
+        List<String> consumerKeys = new ArrayList<>();
+        for (ApplicationKeyMappingDTO applicationKeyMappingDTO : applicationKeyMappingListDTO.getList()) {
+            consumerKeys.add(applicationKeyMappingDTO.getConsumerKey());
+        }
+        return consumerKeys;
+    }
+}
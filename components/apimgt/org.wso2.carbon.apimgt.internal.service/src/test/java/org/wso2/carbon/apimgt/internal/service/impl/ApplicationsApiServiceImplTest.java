@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.internal.service.impl;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.internal.service.dto.ApplicationDTO;
+import org.wso2.carbon.apimgt.internal.service.dto.ApplicationListDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ApplicationsApiServiceImplTest {
+
+    private InMemorySubscriptionValidationDAO subscriptionValidationDAO;
+    private ApplicationsApiServiceImpl applicationsApiService;
+
+    @Before
+    public void setUp() {
+
+        subscriptionValidationDAO = new InMemorySubscriptionValidationDAO();
+        for (int id : new int[]{3, 7, 8, 12, 20}) {
+            subscriptionValidationDAO.addApplication(id);
+        }
+        applicationsApiService = new ApplicationsApiServiceImpl();
+    }
+
+    @Test
+    public void testGetApplicationsPages() throws Exception {
+
+        ApplicationListDTO page = applicationsApiService.getApplicationsPage(subscriptionValidationDAO, "org1", 2,
+                null);
+        Assert.assertEquals(Arrays.asList(3, 7), applicationIds(page));
+        Assert.assertEquals("/applications?limit=2&after=7", page.getPagination().getNext());
+
+        page = applicationsApiService.getApplicationsPage(subscriptionValidationDAO, "org1", 2, 7);
+        Assert.assertEquals(Arrays.asList(8, 12), applicationIds(page));
+        Assert.assertEquals("/applications?limit=2&after=12", page.getPagination().getNext());
+
+        page = applicationsApiService.getApplicationsPage(subscriptionValidationDAO, "org1", 2, 12);
+        Assert.assertEquals(Arrays.asList(20), applicationIds(page));
+        Assert.assertEquals("", page.getPagination().getNext());
+
+        // Applications are retrieved by the id range of the page
+        Assert.assertEquals(Arrays.asList("getApplicationIds(org1,0,2)", "getApplications(org1,0,7)",
+                "getApplicationIds(org1,7,2)", "getApplications(org1,7,12)", "getApplicationIds(org1,12,2)",
+                "getApplications(org1,12,20)"), subscriptionValidationDAO.queries);
+    }
+
+    @Test
+    public void testGetEmptyApplicationsPage() throws Exception {
+
+        ApplicationListDTO page = applicationsApiService.getApplicationsPage(subscriptionValidationDAO, null, 2, 20);
+        Assert.assertTrue(page.getList().isEmpty());
+        Assert.assertEquals(Integer.valueOf(0), page.getCount());
+        Assert.assertEquals("", page.getPagination().getNext());
+        // The applications are not queried when the page has no application ids
+        Assert.assertEquals(Arrays.asList("getApplicationIds(null,20,2)"), subscriptionValidationDAO.queries);
+    }
+
+    private static List<Integer> applicationIds(ApplicationListDTO applicationListDTO) {
+
+        List<Integer> ids = new ArrayList<>();
+        for (ApplicationDTO applicationDTO : applicationListDTO.getList()) {
+            ids.add(applicationDTO.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.internal.service.impl;
+
+import org.wso2.carbon.apimgt.api.model.subscription.Application;
+import org.wso2.carbon.apimgt.api.model.subscription.ApplicationKeyMapping;
+import org.wso2.carbon.apimgt.api.model.subscription.Subscription;
+import org.wso2.carbon.apimgt.impl.dao.SubscriptionValidationDAO;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Subscription validation DAO which pages entities kept in memory the same way the database queries page them.
+ */
+class InMemorySubscriptionValidationDAO extends SubscriptionValidationDAO {
+
+    private final TreeMap<Integer, Subscription> subscriptions = new TreeMap<>();
+    private final Map<Integer, Long> subscriptionUpdatedTimes = new HashMap<>();
+    private final TreeMap<Integer, Application> applications = new TreeMap<>();
+    private final List<ApplicationKeyMapping> keyMappings = new ArrayList<>();
+    final List<String> queries = new ArrayList<>();
+
+    void addSubscription(int id, long updatedTime) {
+
+        Subscription subscription = new Subscription();
+        subscription.setSubscriptionId(id);
+        subscription.setAppId(id);
+        subscription.setApiId(1);
+        subscriptions.put(id, subscription);
+        subscriptionUpdatedTimes.put(id, updatedTime);
+    }
+
+    void addApplication(int id, String... consumerKeys) {
+
+        Application application = new Application();
+        application.setId(id);
+        application.setName("app" + id);
+        applications.put(id, application);
+        for (String consumerKey : consumerKeys) {
+            ApplicationKeyMapping keyMapping = new ApplicationKeyMapping();
+            keyMapping.setApplicationId(id);
+            keyMapping.setConsumerKey(consumerKey);
+            keyMappings.add(keyMapping);
+        }
+    }
+
+    @Override
+    public List<Subscription> getSubscriptions(String organization, int after, int limit, Timestamp updatedAfter) {
+
+        queries.add("getSubscriptions(" + organization + "," + after + "," + limit + "," +
+                (updatedAfter != null ? updatedAfter.getTime() : null) + ")");
+        List<Subscription> page = new ArrayList<>();
+        for (Subscription subscription : subscriptions.tailMap(after, false).values()) {
+            if (limit > 0 && page.size() == limit) {
+                break;
+            }
+            if (updatedAfter == null ||
+                    subscriptionUpdatedTimes.get(subscription.getSubscriptionId()) > updatedAfter.getTime()) {
+                page.add(subscription);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public List<Integer> getApplicationIds(String organization, int after, int limit) {
+
+        queries.add("getApplicationIds(" + organization + "," + after + "," + limit + ")");
+        List<Integer> page = new ArrayList<>();
+        for (Integer id : applications.tailMap(after, false).keySet()) {
+            if (limit > 0 && page.size() == limit) {
+                break;
+            }
+            page.add(id);
+        }
+        return page;
+    }
+
+    @Override
+    public List<Application> getApplications(String organization, int fromId, int toId) {
+
+        queries.add("getApplications(" + organization + "," + fromId + "," + toId + ")");
+        return new ArrayList<>(applications.subMap(fromId, false, toId, true).values());
+    }
+
+    @Override
+    public List<ApplicationKeyMapping> getApplicationKeyMappings(String organization, int fromId, int toId) {
+
+        queries.add("getApplicationKeyMappings(" + organization + "," + fromId + "," + toId + ")");
+        List<ApplicationKeyMapping> range = new ArrayList<>();
+        for (ApplicationKeyMapping keyMapping : keyMappings) {
+            if (keyMapping.getApplicationId() > fromId && keyMapping.getApplicationId() <= toId) {
+                range.add(keyMapping);
+            }
+        }
+        return range;
+    }
+}
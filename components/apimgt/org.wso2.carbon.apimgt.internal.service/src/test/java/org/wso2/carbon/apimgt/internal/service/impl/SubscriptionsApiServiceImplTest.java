@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.internal.service.impl;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.internal.service.dto.SubscriptionDTO;
+import org.wso2.carbon.apimgt.internal.service.dto.SubscriptionListDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SubscriptionsApiServiceImplTest {
+
+    private InMemorySubscriptionValidationDAO subscriptionValidationDAO;
+    private SubscriptionsApiServiceImpl subscriptionsApiService;
+
+    @Before
+    public void setUp() {
+
+        subscriptionValidationDAO = new InMemorySubscriptionValidationDAO();
+        for (int id = 1; id <= 5; id++) {
+            subscriptionValidationDAO.addSubscription(id, id * 1000L);
+        }
+        subscriptionsApiService = new SubscriptionsApiServiceImpl();
+    }
+
+    @Test
+    public void testGetSubscriptionsPages() throws Exception {
+
+        SubscriptionListDTO page = subscriptionsApiService.getSubscriptionsPage(subscriptionValidationDAO, "org1",
+                2, null, null);
+        Assert.assertEquals(Arrays.asList(1, 2), subscriptionIds(page));
+        Assert.assertEquals(Integer.valueOf(2), page.getCount());
+        Assert.assertEquals("/subscriptions?limit=2&after=2", page.getPagination().getNext());
+
+        page = subscriptionsApiService.getSubscriptionsPage(subscriptionValidationDAO, "org1", 2, 2, null);
+        Assert.assertEquals(Arrays.asList(3, 4), subscriptionIds(page));
+        Assert.assertEquals("/subscriptions?limit=2&after=4", page.getPagination().getNext());
+
+        page = subscriptionsApiService.getSubscriptionsPage(subscriptionValidationDAO, "org1", 2, 4, null);
+        Assert.assertEquals(Arrays.asList(5), subscriptionIds(page));
+        Assert.assertEquals("", page.getPagination().getNext());
+        Assert.assertEquals(Arrays.asList("getSubscriptions(org1,0,2,null)", "getSubscriptions(org1,2,2,null)",
+                "getSubscriptions(org1,4,2,null)"), subscriptionValidationDAO.queries);
+    }
+
+    @Test
+    public void testGetSubscriptionsPageEndingAtLastSubscription() throws Exception {
+
+        // A full last page links to a next page, which is empty
+        SubscriptionListDTO page = subscriptionsApiService.getSubscriptionsPage(subscriptionValidationDAO, "org1",
+                5, null, null);
+        Assert.assertEquals(5, subscriptionIds(page).size());
+        Assert.assertEquals("/subscriptions?limit=5&after=5", page.getPagination().getNext());
+
+        page = subscriptionsApiService.getSubscriptionsPage(subscriptionValidationDAO, "org1", 5, 5, null);
+        Assert.assertTrue(page.getList().isEmpty());
+        Assert.assertEquals("", page.getPagination().getNext());
+    }
+
+    @Test
+    public void testGetSubscriptionsUpdatedAfter() throws Exception {
+
+        SubscriptionListDTO page = subscriptionsApiService.getSubscriptionsPage(subscriptionValidationDAO, null,
+                2, null, 2500L);
+        Assert.assertEquals(Arrays.asList(3, 4), subscriptionIds(page));
+        // The next page retains the time the subscriptions were updated after
+        Assert.assertEquals("/subscriptions?limit=2&after=4&updatedAfter=2500", page.getPagination().getNext());
+
+        page = subscriptionsApiService.getSubscriptionsPage(subscriptionValidationDAO, null, null, null, 2500L);
+        Assert.assertEquals(Arrays.asList(3, 4, 5), subscriptionIds(page));
+        Assert.assertNull(page.getPagination());
+        Assert.assertEquals("getSubscriptions(null,0,0,2500)", subscriptionValidationDAO.queries.get(1));
+    }
+
+    private static List<Integer> subscriptionIds(SubscriptionListDTO subscriptionListDTO) {
+
+        List<Integer> ids = new ArrayList<>();
+        for (SubscriptionDTO subscriptionDTO : subscriptionListDTO.getList()) {
+            ids.add(subscriptionDTO.getSubscriptionId());
+        }
+        return ids;
+    }
+}
@@ -72,6 +72,12 @@ public class JMSListenerStartupShutdownListener implements ServerStartupObserver
                             .subscribeForJmsEvents(APIConstants.TopicNames.TOPIC_NOTIFICATION, new CorrelationConfigJMSMessageListener());
                 }
             }
+            // Tiers are cached on every node, whether or not key managers are retrieved, so the cache has to be
+            // invalidated on policy changes made on other nodes.
+            if (jmsTransportHandlerForEventHub != null) {
+                jmsTransportHandlerForEventHub.subscribeForJmsEvents(APIConstants.TopicNames.TOPIC_NOTIFICATION,
+                        new TierCacheJMSMessageListener());
+            }
         } else {
             log.info("Running on migration enabled mode: Stopped at JMSListenerStartupShutdownListener completed");
         }
@@ -0,0 +1,88 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.jms.listener.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.common.jms.JMSConstants;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.caching.TierSnapshotCache;
+import org.wso2.carbon.apimgt.impl.notifier.events.PolicyEvent;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import javax.jms.TextMessage;
+import javax.jms.Topic;
+
+/**
+ * The JMS Message Listener which invalidates the cached tiers of a tenant when a throttle policy of the tenant is
+ * added, updated or deleted on another node.
+ */
+public class TierCacheJMSMessageListener implements MessageListener {
+
+    private static final Log log = LogFactory.getLog(TierCacheJMSMessageListener.class);
+
+    @Override
+    public void onMessage(Message message) {
+
+        try {
+            if (message == null) {
+                log.warn("Dropping the empty/null event received through jms receiver");
+                return;
+            }
+            Topic jmsDestination = (Topic) message.getJMSDestination();
+            if (!(message instanceof TextMessage)) {
+                log.warn("Event dropped due to unsupported message type " + message.getClass());
+                return;
+            }
+            if (JMSConstants.TOPIC_NOTIFICATION.equalsIgnoreCase(jmsDestination.getTopicName())) {
+                JsonNode payloadData = new ObjectMapper().readTree(((TextMessage) message).getText())
+                        .path(APIConstants.EVENT_PAYLOAD).path(APIConstants.EVENT_PAYLOAD_DATA);
+                JsonNode eventType = payloadData.get(APIConstants.EVENT_TYPE);
+                if (eventType != null) {
+                    handleNotificationMessage(eventType.asText(),
+                            payloadData.get(APIConstants.EVENT_PAYLOAD).asText());
+                }
+            }
+        } catch (JMSException | JsonProcessingException e) {
+            log.error("JMSException occurred when processing the received message ", e);
+        }
+    }
+
+    private void handleNotificationMessage(String eventType, String encodedEvent) {
+
+        if (APIConstants.EventType.POLICY_CREATE.toString().equals(eventType)
+                || APIConstants.EventType.POLICY_UPDATE.toString().equals(eventType)
+                || APIConstants.EventType.POLICY_DELETE.toString().equals(eventType)) {
+            String eventJson = new String(Base64.decodeBase64(encodedEvent));
+            PolicyEvent policyEvent = new Gson().fromJson(eventJson, PolicyEvent.class);
+            if (log.isDebugEnabled()) {
+                log.debug("Invalidating tiers of tenant " + policyEvent.getTenantId() + " on " + eventType
+                        + " of a " + policyEvent.getPolicyType() + " policy");
+            }
+            TierSnapshotCache.getInstance().invalidate(policyEvent);
+        }
+    }
+}
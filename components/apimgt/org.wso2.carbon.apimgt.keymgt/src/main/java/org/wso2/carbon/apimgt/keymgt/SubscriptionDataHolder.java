@@ -17,7 +17,11 @@
  */
 package org.wso2.carbon.apimgt.keymgt;
 
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.dto.EventHubConfigurationDto;
+import org.wso2.carbon.apimgt.keymgt.internal.ServiceReferenceHolder;
 import org.wso2.carbon.apimgt.keymgt.model.SubscriptionDataStore;
+import org.wso2.carbon.apimgt.keymgt.model.impl.SnapshotSubscriptionDataStoreImpl;
 import org.wso2.carbon.apimgt.keymgt.model.impl.SubscriptionDataStoreImpl;
 
 import java.util.Map;
@@ -41,12 +45,29 @@ public class SubscriptionDataHolder {
 
         SubscriptionDataStore tenantStore = subscriptionStore.get(tenantDomain);
         if (tenantStore == null) {
-            tenantStore = new SubscriptionDataStoreImpl(tenantDomain);
+            tenantStore = createSubscriptionDataStore(tenantDomain);
         }
         subscriptionStore.put(tenantDomain, tenantStore);
         return tenantStore;
     }
 
+    /**
+     * Creates the subscription data store implementation configured in the event hub configuration.
+     *
+     * @param tenantDomain tenant domain of the store
+     * @return subscription data store of the tenant
+     */
+    protected SubscriptionDataStore createSubscriptionDataStore(String tenantDomain) {
+
+        EventHubConfigurationDto eventHubConfiguration = ServiceReferenceHolder.getInstance()
+                .getAPIManagerConfigurationService().getAPIManagerConfiguration().getEventHubConfigurationDto();
+        if (eventHubConfiguration != null && APIConstants.KeyManager.SUBSCRIPTION_DATA_STORE_SNAPSHOT
+                .equalsIgnoreCase(eventHubConfiguration.getSubscriptionDataStore())) {
+            return new SnapshotSubscriptionDataStoreImpl(tenantDomain);
+        }
+        return new SubscriptionDataStoreImpl(tenantDomain);
+    }
+
     public void initializeSubscriptionStore(String tenantDomain) {
 
         SubscriptionDataStore tenantStore = subscriptionStore.get(tenantDomain);
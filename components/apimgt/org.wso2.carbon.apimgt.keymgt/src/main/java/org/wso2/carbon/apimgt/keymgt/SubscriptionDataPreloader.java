@@ -0,0 +1,335 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.keymgt;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.keymgt.model.SubscriptionDataLoader;
+import org.wso2.carbon.apimgt.keymgt.model.entity.Application;
+import org.wso2.carbon.apimgt.keymgt.model.entity.ApplicationKeyMapping;
+import org.wso2.carbon.apimgt.keymgt.model.entity.Subscription;
+import org.wso2.carbon.apimgt.keymgt.model.exception.DataLoadingException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Preloads the applications, key mappings and subscriptions of all tenants at server startup with a few paginated
+ * multi-tenant requests, instead of separate requests per tenant and entity type.
+ * <p>
+ * The subscription data stores of the tenants take their data from the preload while it is valid. The data of a
+ * tenant is served only once, and stores load their own data if the preload is not started, failed or expired.
+ * <p>
+ * The preload is a snapshot taken when it starts, so the changes of applications, key mappings and subscriptions
+ * notified after that are recorded with {@link #recordChange(String)}. The preloaded data of a changed tenant is
+ * not served, and a store which took the data before a change was applied to it loads its own data again.
+ */
+public final class SubscriptionDataPreloader {
+
+    private static final Log log = LogFactory.getLog(SubscriptionDataPreloader.class);
+    // Preloaded data which is not taken by the store of its tenant within this time is released.
+    private static final long PRELOAD_VALIDITY_TIME = TimeUnit.MINUTES.toMillis(10);
+    // Maximum number of multi-tenant requests in progress at a time.
+    private static final int PRELOAD_PARALLELISM = 2;
+    private static final SubscriptionDataPreloader instance = new SubscriptionDataPreloader();
+
+    /**
+     * State of the preload.
+     */
+    public enum State {
+        NOT_STARTED, LOADING, COMPLETED, FAILED
+    }
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.NOT_STARTED);
+    private final CompletableFuture<Map<String, TenantData>> preload = new CompletableFuture<>();
+    private final Set<String> servedTenants = ConcurrentHashMap.newKeySet();
+    private final Set<String> changedTenants = ConcurrentHashMap.newKeySet();
+    private final long validityTime;
+    private volatile long completedTime;
+    private volatile int applicationCount;
+    private volatile int keyMappingCount;
+    private volatile int subscriptionCount;
+    private volatile int tenantCount;
+
+    SubscriptionDataPreloader(long validityTime) {
+
+        this.validityTime = validityTime;
+    }
+
+    private SubscriptionDataPreloader() {
+
+        this(PRELOAD_VALIDITY_TIME);
+    }
+
+    public static SubscriptionDataPreloader getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Starts preloading the subscription data of all tenants in the background. Only the first call starts the
+     * preload.
+     *
+     * @param subscriptionDataLoader loader of the subscription data
+     */
+    public void start(SubscriptionDataLoader subscriptionDataLoader) {
+
+        if (!state.compareAndSet(State.NOT_STARTED, State.LOADING)) {
+            return;
+        }
+        log.info("Preloading the subscription data of all tenants");
+        long startTime = System.currentTimeMillis();
+        ScheduledExecutorService executorService = Executors.newScheduledThreadPool(PRELOAD_PARALLELISM);
+        CompletableFuture<List<Application>> applications = CompletableFuture.supplyAsync(
+                () -> load("applications", subscriptionDataLoader::loadAllTenantApplications), executorService);
+        CompletableFuture<List<ApplicationKeyMapping>> keyMappings = CompletableFuture.supplyAsync(
+                () -> load("key mappings", subscriptionDataLoader::loadAllTenantKeyMappings), executorService);
+        CompletableFuture<List<Subscription>> subscriptions = CompletableFuture.supplyAsync(
+                () -> load("subscriptions", subscriptionDataLoader::loadAllTenantSubscriptions), executorService);
+        CompletableFuture.allOf(applications, keyMappings, subscriptions)
+                .thenApply(v -> groupByTenant(applications.join(), keyMappings.join(), subscriptions.join()))
+                .whenComplete((tenants, e) -> {
+                    completedTime = System.currentTimeMillis();
+                    if (e != null) {
+                        state.set(State.FAILED);
+                        log.error("Error while preloading the subscription data of all tenants. Subscription data "
+                                + "will be loaded separately for each tenant.", e);
+                        preload.completeExceptionally(e);
+                    } else {
+                        state.set(State.COMPLETED);
+                        log.info("Preloaded " + applicationCount + " applications, " + keyMappingCount
+                                + " key mappings and " + subscriptionCount + " subscriptions of " + tenantCount
+                                + " tenants in " + (completedTime - startTime) + " ms");
+                        preload.complete(tenants);
+                        // Delayed tasks are still executed after the shutdown.
+                        executorService.schedule(this::release, validityTime, TimeUnit.MILLISECONDS);
+                    }
+                    executorService.shutdown();
+                });
+    }
+
+    /**
+     * Returns the preloaded data of a tenant once the preload is completed. The returned future completes with null
+     * if the store of the tenant has to load its own data.
+     *
+     * @param tenantDomain tenant domain
+     * @return future of the preloaded data of the tenant
+     */
+    public CompletableFuture<TenantData> getTenantData(String tenantDomain) {
+
+        if (state.get() == State.NOT_STARTED) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return preload.handle((tenants, e) -> {
+            if (e != null || isExpired() || isChanged(tenantDomain) || !servedTenants.add(tenantDomain)) {
+                return null;
+            }
+            TenantData tenantData = tenants.remove(tenantDomain);
+            // Tenants without applications have no data in the preload.
+            return tenantData != null ? tenantData : new TenantData();
+        });
+    }
+
+    /**
+     * Records a change of the applications, key mappings or subscriptions of a tenant. Changes are recorded while
+     * the preload is in progress or completed, as the preloaded data of the tenant may not contain them.
+     *
+     * @param tenantDomain tenant domain of the changed data
+     */
+    public void recordChange(String tenantDomain) {
+
+        State currentState = state.get();
+        if (tenantDomain != null && (currentState == State.LOADING || currentState == State.COMPLETED)) {
+            changedTenants.add(tenantDomain);
+        }
+    }
+
+    /**
+     * Returns whether a change of the tenant was recorded after the preload started. The store of a tenant checks
+     * this after it takes the preloaded data, as the data replaces any change which was applied to the store
+     * earlier.
+     *
+     * @param tenantDomain tenant domain
+     * @return true if the preloaded data of the tenant may be stale
+     */
+    public boolean isChanged(String tenantDomain) {
+
+        return changedTenants.contains(tenantDomain);
+    }
+
+    public State getState() {
+
+        return state.get();
+    }
+
+    /**
+     * Returns whether the preload is finished, whether it was successful or not. Stores waiting for the preload
+     * proceed once it is finished.
+     */
+    public boolean isReady() {
+
+        State currentState = state.get();
+        return currentState == State.COMPLETED || currentState == State.FAILED;
+    }
+
+    public int getApplicationCount() {
+
+        return applicationCount;
+    }
+
+    public int getKeyMappingCount() {
+
+        return keyMappingCount;
+    }
+
+    public int getSubscriptionCount() {
+
+        return subscriptionCount;
+    }
+
+    public int getTenantCount() {
+
+        return tenantCount;
+    }
+
+    /**
+     * Returns the number of tenants whose preloaded data was served to their stores.
+     */
+    public int getServedTenantCount() {
+
+        return servedTenants.size();
+    }
+
+    @Override
+    public String toString() {
+
+        return "SubscriptionDataPreloader{state=" + getState() + ", tenants=" + getTenantCount() + ", served="
+                + getServedTenantCount() + ", applications=" + getApplicationCount() + ", keyMappings="
+                + getKeyMappingCount() + ", subscriptions=" + getSubscriptionCount() + "}";
+    }
+
+    private boolean isExpired() {
+
+        return System.currentTimeMillis() - completedTime > validityTime;
+    }
+
+    private void release() {
+
+        Map<String, TenantData> tenants = preload.getNow(null);
+        if (tenants != null && !tenants.isEmpty()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Releasing the preloaded subscription data of " + tenants.size() + " tenants which were "
+                        + "not loaded");
+            }
+            tenants.clear();
+        }
+    }
+
+    private <T> List<T> load(String entityType, BulkLoadingTask<T> task) {
+
+        try {
+            List<T> entities = task.load();
+            if (log.isDebugEnabled()) {
+                log.debug("Preloaded " + entities.size() + " " + entityType + " of all tenants");
+            }
+            return entities;
+        } catch (DataLoadingException e) {
+            throw new CompletionException("Error while preloading the " + entityType + " of all tenants", e);
+        }
+    }
+
+    private Map<String, TenantData> groupByTenant(List<Application> applications,
+                                                  List<ApplicationKeyMapping> keyMappings,
+                                                  List<Subscription> subscriptions) {
+
+        Map<String, TenantData> tenants = new ConcurrentHashMap<>();
+        Map<Integer, TenantData> tenantsByApplicationId = new HashMap<>();
+        for (Application application : applications) {
+            if (application.getOrganization() == null || application.getId() == null) {
+                continue;
+            }
+            TenantData tenantData = tenants.computeIfAbsent(application.getOrganization(), k -> new TenantData());
+            tenantData.applications.add(application);
+            tenantsByApplicationId.put(application.getId(), tenantData);
+        }
+        // Key mappings and subscriptions belong to the tenant of their application. Those of applications which
+        // were added after the applications were loaded are loaded on demand.
+        int groupedKeyMappings = 0;
+        for (ApplicationKeyMapping keyMapping : keyMappings) {
+            TenantData tenantData = tenantsByApplicationId.get(keyMapping.getApplicationId());
+            if (tenantData != null) {
+                tenantData.keyMappings.add(keyMapping);
+                groupedKeyMappings++;
+            }
+        }
+        int groupedSubscriptions = 0;
+        for (Subscription subscription : subscriptions) {
+            TenantData tenantData = tenantsByApplicationId.get(subscription.getAppId());
+            if (tenantData != null) {
+                tenantData.subscriptions.add(subscription);
+                groupedSubscriptions++;
+            }
+        }
+        applicationCount = applications.size();
+        keyMappingCount = groupedKeyMappings;
+        subscriptionCount = groupedSubscriptions;
+        tenantCount = tenants.size();
+        return tenants;
+    }
+
+    private interface BulkLoadingTask<T> {
+
+        List<T> load() throws DataLoadingException;
+    }
+
+    /**
+     * Preloaded subscription data of a tenant.
+     */
+    public static final class TenantData {
+
+        private final List<Application> applications = new ArrayList<>();
+        private final List<ApplicationKeyMapping> keyMappings = new ArrayList<>();
+        private final List<Subscription> subscriptions = new ArrayList<>();
+
+        public List<Application> getApplications() {
+
+            return applications;
+        }
+
+        public List<ApplicationKeyMapping> getKeyMappings() {
+
+            return keyMappings;
+        }
+
+        public List<Subscription> getSubscriptions() {
+
+            return subscriptions;
+        }
+    }
+}
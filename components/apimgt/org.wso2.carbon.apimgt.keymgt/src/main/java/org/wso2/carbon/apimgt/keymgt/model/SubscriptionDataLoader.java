@@ -162,4 +162,28 @@ public interface SubscriptionDataLoader {
      * @throws DataLoadingException
      */
     public List<API> loadAllTenantApiMetadata() throws DataLoadingException ;
+
+    /**
+     * Load the subscriptions of all tenants.
+     *
+     * @return A list of the {@link Subscription}s of all tenants.
+     * @throws DataLoadingException If any error
+     */
+    public List<Subscription> loadAllTenantSubscriptions() throws DataLoadingException;
+
+    /**
+     * Load the applications of all tenants.
+     *
+     * @return A list of the {@link Application}s of all tenants.
+     * @throws DataLoadingException If any error
+     */
+    public List<Application> loadAllTenantApplications() throws DataLoadingException;
+
+    /**
+     * Load the key mappings of all tenants.
+     *
+     * @return A list of the {@link ApplicationKeyMapping}s of all tenants.
+     * @throws DataLoadingException If any error
+     */
+    public List<ApplicationKeyMapping> loadAllTenantKeyMappings() throws DataLoadingException;
     }
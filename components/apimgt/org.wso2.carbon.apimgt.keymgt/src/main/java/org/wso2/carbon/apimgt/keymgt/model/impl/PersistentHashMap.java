@@ -0,0 +1,408 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.keymgt.model.impl;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable hash map which shares its structure with the map it was derived from. The entries are kept in a hash
+ * array mapped trie with 32 way branching, so adding or removing an entry copies only the few nodes on the path to
+ * the entry instead of the whole map. Keys must not be null.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final Object NOT_FOUND = new Object();
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentHashMap(Node root, int size) {
+
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentHashMap<K, V> empty() {
+
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    static <K, V> PersistentHashMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+
+        PersistentHashMap<K, V> copy = empty();
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            copy = copy.plus(entry.getKey(), entry.getValue());
+        }
+        return copy;
+    }
+
+    /**
+     * Returns a map which maps the given key to the given value, in addition to the entries of this map.
+     */
+    PersistentHashMap<K, V> plus(K key, V value) {
+
+        boolean[] added = new boolean[1];
+        Node newRoot = (root != null ? root : BitmapIndexedNode.EMPTY).put(0, hash(key), key, value, added);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentHashMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map with the entries of this map, except the entry of the given key.
+     */
+    PersistentHashMap<K, V> minus(Object key) {
+
+        if (root == null) {
+            return this;
+        }
+        Node newRoot = root.remove(0, hash(key), key);
+        if (newRoot == root) {
+            return this;
+        }
+        return newRoot != null ? new PersistentHashMap<>(newRoot, size - 1) : empty();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+
+        if (root == null || key == null) {
+            return null;
+        }
+        Object value = root.find(0, hash(key), key);
+        return value != NOT_FOUND ? (V) value : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+
+        return root != null && key != null && root.find(0, hash(key), key) != NOT_FOUND;
+    }
+
+    @Override
+    public int size() {
+
+        return size;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+
+        return new AbstractSet<Entry<K, V>>() {
+
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+
+                return new EntryIterator<>(root);
+            }
+
+            @Override
+            public int size() {
+
+                return size;
+            }
+        };
+    }
+
+    private static int hash(Object key) {
+
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private static Object[] copyAndSet(Object[] array, int index, Object value) {
+
+        Object[] copy = array.clone();
+        copy[index] = value;
+        return copy;
+    }
+
+    private interface Node {
+
+        Node put(int shift, int hash, Object key, Object value, boolean[] added);
+
+        /**
+         * Returns the node without the entry of the key, or null if the node becomes empty.
+         */
+        Node remove(int shift, int hash, Object key);
+
+        Object find(int shift, int hash, Object key);
+    }
+
+    /**
+     * Node which holds up to 32 slots, one for each value of the hash bits at its level. A slot holds either an entry,
+     * as a key and a value, or a child node for the entries whose hashes share the bits, as a null key and the node.
+     */
+    private static final class BitmapIndexedNode implements Node {
+
+        private static final BitmapIndexedNode EMPTY = new BitmapIndexedNode(0, new Object[0]);
+
+        private final int bitmap;
+        private final Object[] slots;
+
+        private BitmapIndexedNode(int bitmap, Object[] slots) {
+
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        private int index(int bit) {
+
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        public Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+
+            int bit = 1 << ((hash >>> shift) & MASK);
+            int index = 2 * index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] newSlots = new Object[slots.length + 2];
+                System.arraycopy(slots, 0, newSlots, 0, index);
+                newSlots[index] = key;
+                newSlots[index + 1] = value;
+                System.arraycopy(slots, index, newSlots, index + 2, slots.length - index);
+                added[0] = true;
+                return new BitmapIndexedNode(bitmap | bit, newSlots);
+            }
+            Object existingKey = slots[index];
+            Object existingValue = slots[index + 1];
+            if (existingKey == null) {
+                Node child = ((Node) existingValue).put(shift + BITS, hash, key, value, added);
+                return child == existingValue ? this : new BitmapIndexedNode(bitmap,
+                        copyAndSet(slots, index + 1, child));
+            }
+            if (key.equals(existingKey)) {
+                return existingValue == value ? this : new BitmapIndexedNode(bitmap,
+                        copyAndSet(slots, index + 1, value));
+            }
+            added[0] = true;
+            Node child = createNode(shift + BITS, existingKey, existingValue, hash, key, value);
+            Object[] newSlots = copyAndSet(slots, index, null);
+            newSlots[index + 1] = child;
+            return new BitmapIndexedNode(bitmap, newSlots);
+        }
+
+        @Override
+        public Node remove(int shift, int hash, Object key) {
+
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = 2 * index(bit);
+            Object existingKey = slots[index];
+            Object existingValue = slots[index + 1];
+            if (existingKey == null) {
+                Node child = ((Node) existingValue).remove(shift + BITS, hash, key);
+                if (child == existingValue) {
+                    return this;
+                }
+                if (child != null) {
+                    return new BitmapIndexedNode(bitmap, copyAndSet(slots, index + 1, child));
+                }
+            } else if (!key.equals(existingKey)) {
+                return this;
+            }
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] newSlots = new Object[slots.length - 2];
+            System.arraycopy(slots, 0, newSlots, 0, index);
+            System.arraycopy(slots, index + 2, newSlots, index, slots.length - index - 2);
+            return new BitmapIndexedNode(bitmap ^ bit, newSlots);
+        }
+
+        @Override
+        public Object find(int shift, int hash, Object key) {
+
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return NOT_FOUND;
+            }
+            int index = 2 * index(bit);
+            Object existingKey = slots[index];
+            if (existingKey == null) {
+                return ((Node) slots[index + 1]).find(shift + BITS, hash, key);
+            }
+            return key.equals(existingKey) ? slots[index + 1] : NOT_FOUND;
+        }
+
+        private static Node createNode(int shift, Object key1, Object value1, int hash2, Object key2,
+                                       Object value2) {
+
+            int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[]{key1, value1, key2, value2});
+            }
+            // The hashes differ in some bits above the current shift, so the entries are separated before all the
+            // hash bits are used.
+            boolean[] added = new boolean[1];
+            return EMPTY.put(shift, hash1, key1, value1, added).put(shift, hash2, key2, value2, added);
+        }
+    }
+
+    /**
+     * Node which holds the entries of keys with the same hash.
+     */
+    private static final class CollisionNode implements Node {
+
+        private final int hash;
+        private final Object[] slots;
+
+        private CollisionNode(int hash, Object[] slots) {
+
+            this.hash = hash;
+            this.slots = slots;
+        }
+
+        private int indexOf(Object key) {
+
+            for (int i = 0; i < slots.length; i += 2) {
+                if (key.equals(slots[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+
+            if (hash != this.hash) {
+                // Nests this node under a node which separates it from the new entry.
+                BitmapIndexedNode parent = new BitmapIndexedNode(1 << ((this.hash >>> shift) & MASK),
+                        new Object[]{null, this});
+                return parent.put(shift, hash, key, value, added);
+            }
+            int index = indexOf(key);
+            if (index != -1) {
+                return slots[index + 1] == value ? this : new CollisionNode(hash,
+                        copyAndSet(slots, index + 1, value));
+            }
+            Object[] newSlots = new Object[slots.length + 2];
+            System.arraycopy(slots, 0, newSlots, 0, slots.length);
+            newSlots[slots.length] = key;
+            newSlots[slots.length + 1] = value;
+            added[0] = true;
+            return new CollisionNode(hash, newSlots);
+        }
+
+        @Override
+        public Node remove(int shift, int hash, Object key) {
+
+            int index = hash == this.hash ? indexOf(key) : -1;
+            if (index == -1) {
+                return this;
+            }
+            if (slots.length == 2) {
+                return null;
+            }
+            Object[] newSlots = new Object[slots.length - 2];
+            System.arraycopy(slots, 0, newSlots, 0, index);
+            System.arraycopy(slots, index + 2, newSlots, index, slots.length - index - 2);
+            return new CollisionNode(hash, newSlots);
+        }
+
+        @Override
+        public Object find(int shift, int hash, Object key) {
+
+            int index = hash == this.hash ? indexOf(key) : -1;
+            return index != -1 ? slots[index + 1] : NOT_FOUND;
+        }
+    }
+
+    /**
+     * Iterates the entries of a trie depth first.
+     */
+    private static final class EntryIterator<K, V> implements Iterator<Entry<K, V>> {
+
+        private final Deque<Object[]> slotsStack = new ArrayDeque<>();
+        private final Deque<Integer> indexStack = new ArrayDeque<>();
+        private Entry<K, V> next;
+
+        private EntryIterator(Node root) {
+
+            if (root != null) {
+                push(root);
+            }
+            advance();
+        }
+
+        private void push(Node node) {
+
+            slotsStack.push(node instanceof BitmapIndexedNode ? ((BitmapIndexedNode) node).slots
+                    : ((CollisionNode) node).slots);
+            indexStack.push(0);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+
+            next = null;
+            while (!slotsStack.isEmpty()) {
+                Object[] slots = slotsStack.peek();
+                int index = indexStack.pop();
+                if (index >= slots.length) {
+                    slotsStack.pop();
+                    continue;
+                }
+                indexStack.push(index + 2);
+                if (slots[index] == null) {
+                    push((Node) slots[index + 1]);
+                } else {
+                    next = new SimpleImmutableEntry<>((K) slots[index], (V) slots[index + 1]);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<K, V> entry = next;
+            advance();
+            return entry;
+        }
+    }
+}
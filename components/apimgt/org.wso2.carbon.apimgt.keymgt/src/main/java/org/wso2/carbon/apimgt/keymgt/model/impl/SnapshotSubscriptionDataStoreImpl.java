@@ -0,0 +1,901 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.keymgt.model.impl;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+import org.wso2.carbon.apimgt.api.model.subscription.CacheableEntity;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.APIManagerConfiguration;
+import org.wso2.carbon.apimgt.impl.caching.CacheInvalidationServiceImpl;
+import org.wso2.carbon.apimgt.impl.dto.EventHubConfigurationDto;
+import org.wso2.carbon.apimgt.impl.notifier.events.DeployAPIInGatewayEvent;
+import org.wso2.carbon.apimgt.keymgt.SubscriptionDataPreloader;
+import org.wso2.carbon.apimgt.keymgt.internal.ServiceReferenceHolder;
+import org.wso2.carbon.apimgt.keymgt.model.SubscriptionDataLoader;
+import org.wso2.carbon.apimgt.keymgt.model.SubscriptionDataStore;
+import org.wso2.carbon.apimgt.keymgt.model.entity.API;
+import org.wso2.carbon.apimgt.keymgt.model.entity.ApiPolicy;
+import org.wso2.carbon.apimgt.keymgt.model.entity.Application;
+import org.wso2.carbon.apimgt.keymgt.model.entity.ApplicationKeyMapping;
+import org.wso2.carbon.apimgt.keymgt.model.entity.ApplicationKeyMappingCacheKey;
+import org.wso2.carbon.apimgt.keymgt.model.entity.ApplicationPolicy;
+import org.wso2.carbon.apimgt.keymgt.model.entity.Scope;
+import org.wso2.carbon.apimgt.keymgt.model.entity.Subscription;
+import org.wso2.carbon.apimgt.keymgt.model.entity.SubscriptionPolicy;
+import org.wso2.carbon.apimgt.keymgt.model.exception.DataLoadingException;
+import org.wso2.carbon.apimgt.keymgt.model.util.SubscriptionDataStoreUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.wso2.carbon.apimgt.keymgt.model.impl.SubscriptionDataStoreImpl.DELEM_PERIOD;
+
+/**
+ * {@link SubscriptionDataStore} which keeps all entities of a tenant in an immutable, versioned snapshot.
+ * <p>
+ * Lookups read the current snapshot without any locking. Every change, whether it is a JMS notification, an entity
+ * loaded on a cache miss or a bulk reload, builds a new snapshot and publishes it atomically. The maps of a snapshot
+ * are persistent maps, so a change copies only the few trie nodes on the path to the changed entry, and shares the
+ * rest of the entries with the previous snapshot. Concurrent misses for the same entity share a single in flight
+ * load. Changes applied while a bulk reload is running are replayed on top of the reloaded data, so the reload never
+ * discards newer notifications.
+ */
+public class SnapshotSubscriptionDataStoreImpl implements SubscriptionDataStore {
+
+    private static final Log log = LogFactory.getLog(SnapshotSubscriptionDataStoreImpl.class);
+    private final EventHubConfigurationDto eventHubConfiguration;
+    private final SubscriptionDataLoader subscriptionDataLoader;
+    private final String tenantDomain;
+    private final Object writeLock = new Object();
+    private final Map<String, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
+    private volatile Snapshot snapshot = new Snapshot();
+    // Changes applied while a bulk reload is in progress. Guarded by writeLock.
+    private List<Consumer<SnapshotBuilder>> pendingChanges;
+
+    public SnapshotSubscriptionDataStoreImpl(String tenantDomain) {
+
+        this(tenantDomain, ServiceReferenceHolder.getInstance().getAPIManagerConfigurationService()
+                .getAPIManagerConfiguration().getEventHubConfigurationDto(), new SubscriptionDataLoaderImpl());
+    }
+
+    SnapshotSubscriptionDataStoreImpl(String tenantDomain, EventHubConfigurationDto eventHubConfiguration,
+                                      SubscriptionDataLoader subscriptionDataLoader) {
+
+        this.eventHubConfiguration = eventHubConfiguration;
+        this.subscriptionDataLoader = subscriptionDataLoader;
+        this.tenantDomain = tenantDomain;
+    }
+
+    @Override
+    public void init() {
+
+        executorService.schedule(this::reload, eventHubConfiguration.getInitDelay(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the version of the snapshot currently served. The version is incremented on every change.
+     *
+     * @return snapshot version
+     */
+    public long getVersion() {
+
+        return snapshot.version;
+    }
+
+    /**
+     * Loads all entities of the tenant and publishes them as a single snapshot. Entity types which fail to load keep
+     * their current data.
+     */
+    public void reload() {
+
+        synchronized (writeLock) {
+            if (pendingChanges != null) {
+                log.debug("Subscription data reload is already in progress for tenant " + tenantDomain);
+                return;
+            }
+            pendingChanges = new ArrayList<>();
+        }
+        SnapshotBuilder loaded = new SnapshotBuilder(new Snapshot());
+        try {
+            List<API> apiList = load("APIs", () -> subscriptionDataLoader.loadAllApis(tenantDomain));
+            if (apiList != null) {
+                Map<String, API> apisByNameVersion = new HashMap<>();
+                Map<String, API> apisByUUID = new HashMap<>();
+                for (API api : apiList) {
+                    apisByNameVersion.put(api.getApiName() + DELEM_PERIOD + api.getApiVersion(), api);
+                    apisByUUID.put(api.getUuid(), api);
+                }
+                loaded.apis.replace(apiList);
+                loaded.apisByNameVersion.replace(apisByNameVersion);
+                loaded.apisByUUID.replace(apisByUUID);
+                loaded.apisInitialized = true;
+            }
+            // Waits for the preload of all tenants if it is in progress, instead of loading the same data again.
+            SubscriptionDataPreloader.TenantData preloaded =
+                    SubscriptionDataPreloader.getInstance().getTenantData(tenantDomain).join();
+            if (preloaded != null) {
+                log.debug("Using preloaded subscription data of tenant " + tenantDomain);
+                loaded.subscriptions.replace(preloaded.getSubscriptions());
+                loaded.applications.replace(preloaded.getApplications());
+                loaded.keyMappings.replace(preloaded.getKeyMappings());
+            } else {
+                loaded.subscriptions.replace(load("Subscriptions",
+                        () -> subscriptionDataLoader.loadAllSubscriptions(tenantDomain)));
+                loaded.applications.replace(load("Applications",
+                        () -> subscriptionDataLoader.loadAllApplications(tenantDomain)));
+                loaded.keyMappings.replace(load("ApplicationKeyMappings",
+                        () -> subscriptionDataLoader.loadAllKeyMappings(tenantDomain)));
+            }
+            List<ApiPolicy> apiPolicyList = load("API Policies",
+                    () -> subscriptionDataLoader.loadAllAPIPolicies(tenantDomain));
+            loaded.apiPolicies.replace(apiPolicyList);
+            loaded.apiPoliciesInitialized = apiPolicyList != null;
+            loaded.subscriptionPolicies.replace(load("Subscription Policies",
+                    () -> subscriptionDataLoader.loadAllSubscriptionPolicies(tenantDomain)));
+            loaded.applicationPolicies.replace(load("Application Policies",
+                    () -> subscriptionDataLoader.loadAllAppPolicies(tenantDomain)));
+            List<Scope> scopeList = load("Scopes", () -> subscriptionDataLoader.loadAllScopes(tenantDomain));
+            loaded.scopes.replace(scopeList);
+            loaded.scopesInitialized = scopeList != null;
+        } finally {
+            synchronized (writeLock) {
+                SnapshotBuilder builder = new SnapshotBuilder(snapshot);
+                builder.merge(loaded);
+                for (Consumer<SnapshotBuilder> change : pendingChanges) {
+                    change.accept(builder);
+                }
+                pendingChanges = null;
+                snapshot = builder.build();
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Reloaded subscription data of tenant " + tenantDomain + ". Snapshot version : "
+                    + snapshot.version);
+        }
+    }
+
+    @Override
+    public Application getApplicationById(int appId) {
+
+        Application application = snapshot.applications.get(appId);
+        if (application == null) {
+            application = loadOnMiss("Application-" + appId, () -> snapshot.applications.get(appId), () -> {
+                Application loadedApplication = null;
+                try {
+                    loadedApplication = subscriptionDataLoader.getApplicationById(appId);
+                } catch (DataLoadingException e) {
+                    log.error("Error while Retrieving Application Metadata From Internal API.", e);
+                }
+                if (loadedApplication != null && loadedApplication.getId() != null
+                        && loadedApplication.getId() != 0) {
+                    log.debug("Loading Application to the in-memory datastore. applicationId = "
+                            + loadedApplication.getId());
+                    addOrUpdateApplication(loadedApplication);
+                    return loadedApplication;
+                }
+                log.debug("Application not found. applicationId = " + appId);
+                return loadedApplication;
+            });
+        }
+        return application;
+    }
+
+    @Override
+    public ApplicationKeyMapping getKeyMappingByKeyAndKeyManager(String key, String keyManager) {
+
+        ApplicationKeyMappingCacheKey cacheKey = new ApplicationKeyMappingCacheKey(key, keyManager);
+        ApplicationKeyMapping applicationKeyMapping = snapshot.keyMappings.get(cacheKey);
+        if (applicationKeyMapping == null) {
+            applicationKeyMapping = loadOnMiss("KeyMapping-" + cacheKey, () -> snapshot.keyMappings.get(cacheKey),
+                    () -> {
+                ApplicationKeyMapping loadedKeyMapping = null;
+                try {
+                    loadedKeyMapping = subscriptionDataLoader.getKeyMapping(key, keyManager,
+                            tenantDomain);
+                } catch (DataLoadingException e) {
+                    log.error("Error while Loading KeyMapping Information from Internal API.", e);
+                }
+                if (loadedKeyMapping != null && !StringUtils.isEmpty(loadedKeyMapping.getConsumerKey())) {
+                    log.debug("Loading Keymapping to the in-memory datastore.");
+                    addOrUpdateApplicationKeyMapping(loadedKeyMapping);
+                }
+                return loadedKeyMapping;
+            });
+        }
+        return applicationKeyMapping;
+    }
+
+    @Override
+    public API getApiByContextAndVersion(String context, String version) {
+
+        String key = context + DELEM_PERIOD + version;
+        API api = snapshot.apis.get(key);
+        if (api == null) {
+            api = loadOnMiss("API-" + key, () -> snapshot.apis.get(key), () -> {
+                API loadedAPI = null;
+                try {
+                    loadedAPI = subscriptionDataLoader.getApi(context, version);
+                } catch (DataLoadingException e) {
+                    log.error("Error while Retrieving Data From Internal Rest API", e);
+                }
+                if (loadedAPI != null && loadedAPI.getApiId() != 0) {
+                    log.debug("Loading API to the in-memory datastore.");
+                    addOrUpdateAPI(loadedAPI);
+                }
+                return loadedAPI;
+            });
+        }
+        return api;
+    }
+
+    @Override
+    public API getApiByNameAndVersion(String name, String version) {
+
+        return snapshot.apisByNameVersion.get(name + DELEM_PERIOD + version);
+    }
+
+    @Override
+    public API getAPIByUUID(String apiUUID) {
+
+        return snapshot.apisByUUID.get(apiUUID);
+    }
+
+    @Override
+    public Subscription getSubscriptionById(int appId, int apiId) {
+
+        String subscriptionCacheKey = SubscriptionDataStoreUtil.getSubscriptionCacheKey(appId, apiId);
+        Subscription subscription = snapshot.subscriptions.get(subscriptionCacheKey);
+        if (subscription == null) {
+            subscription = loadOnMiss("Subscription-" + subscriptionCacheKey,
+                    () -> snapshot.subscriptions.get(subscriptionCacheKey), () -> {
+                Subscription loadedSubscription = null;
+                try {
+                    loadedSubscription = subscriptionDataLoader.getSubscriptionById(Integer.toString(apiId),
+                            Integer.toString(appId));
+                } catch (DataLoadingException e) {
+                    log.error("Error while Retrieving Subscription Data From Internal API", e);
+                }
+                if (loadedSubscription != null && !StringUtils.isEmpty(loadedSubscription.getSubscriptionId())) {
+                    log.debug("Loading Subscription to the in-memory datastore.");
+                    Subscription subscriptionToAdd = loadedSubscription;
+                    applyChange(builder -> builder.subscriptions
+                            .put(subscriptionToAdd.getCacheKey(), subscriptionToAdd));
+                }
+                return loadedSubscription;
+            });
+        }
+        return subscription;
+    }
+
+    @Override
+    public ApiPolicy getApiPolicyByName(String policyName, int tenantId) {
+
+        return snapshot.apiPolicies.get(SubscriptionDataStoreImpl.POLICY_TYPE.API + DELEM_PERIOD +
+                SubscriptionDataStoreUtil.getPolicyCacheKey(policyName, tenantId));
+    }
+
+    @Override
+    public SubscriptionPolicy getSubscriptionPolicyByName(String policyName, int tenantId) {
+
+        return snapshot.subscriptionPolicies.get(SubscriptionDataStoreImpl.POLICY_TYPE.SUBSCRIPTION +
+                SubscriptionDataStoreUtil.getPolicyCacheKey(policyName, tenantId));
+    }
+
+    @Override
+    public ApplicationPolicy getApplicationPolicyByName(String policyName, int tenantId) {
+
+        return snapshot.applicationPolicies.get(SubscriptionDataStoreImpl.POLICY_TYPE.APPLICATION + DELEM_PERIOD +
+                SubscriptionDataStoreUtil.getPolicyCacheKey(policyName, tenantId));
+    }
+
+    @Override
+    public void addOrUpdateApplication(Application application) {
+
+        applyChange(builder -> builder.applications.put(application.getId(), application));
+    }
+
+    @Override
+    public void addOrUpdateSubscription(Subscription subscription) {
+
+        applyChange(builder -> {
+            Subscription retrievedSubscription = builder.subscriptions.get(subscription.getCacheKey());
+            if (retrievedSubscription == null) {
+                builder.subscriptions.put(subscription.getCacheKey(), subscription);
+            } else if (subscription.getTimeStamp() < retrievedSubscription.getTimeStamp()) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Drop the Event " + subscription.toString() + " since the event timestamp was old");
+                }
+            } else if (APIConstants.SubscriptionStatus.ON_HOLD.equals(subscription.getSubscriptionState())) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Drop the Event " + subscription.toString() + " since the event was marked as " +
+                            "ON_HOLD");
+                }
+            } else {
+                builder.subscriptions.put(subscription.getCacheKey(), subscription);
+            }
+        });
+    }
+
+    @Override
+    public void addOrUpdateAPI(API api) {
+
+        applyChange(builder -> builder.putAPI(api.getCacheKey(), api));
+    }
+
+    @Override
+    public void addOrUpdateAPIWithUrlTemplates(API api) {
+
+        try {
+            API newAPI = subscriptionDataLoader.getApi(api.getContext(), api.getApiVersion());
+            if (newAPI != null) {
+                applyChange(builder -> builder.putAPI(api.getCacheKey(), newAPI));
+            }
+        } catch (DataLoadingException e) {
+            log.error("Exception while loading api for " + api.getContext() + " " + api.getApiVersion(), e);
+        }
+    }
+
+    @Override
+    public void addOrUpdateAPIRevisionWithUrlTemplates(DeployAPIInGatewayEvent event) {
+
+        try {
+            API api = snapshot.apis.get(event.getContext() + DELEM_PERIOD + event.getVersion());
+            if (api != null && isAPIResourceValidationEnabled()) {
+                new CacheInvalidationServiceImpl().invalidateResourceCache(api.getContext(), api.getApiVersion(),
+                        event.getTenantDomain(), api.getResources());
+            }
+            if (APIConstants.EventType.REMOVE_API_FROM_GATEWAY.name().equals(event.getType())) {
+                if (api != null) {
+                    removeAPI(api);
+                }
+            } else {
+                API newAPI = subscriptionDataLoader.getApi(event.getContext(), event.getVersion());
+                if (newAPI != null) {
+                    addOrUpdateAPI(newAPI);
+                }
+            }
+        } catch (DataLoadingException e) {
+            log.error("Exception while loading api for " + event.getContext() + " " + event.getVersion(), e);
+        }
+    }
+
+    @Override
+    public void addOrUpdateApplicationKeyMapping(ApplicationKeyMapping applicationKeyMapping) {
+
+        applyChange(builder -> builder.keyMappings
+                .put(applicationKeyMapping.getCacheKey(), applicationKeyMapping));
+    }
+
+    @Override
+    public void addOrUpdateSubscriptionPolicy(SubscriptionPolicy subscriptionPolicy) {
+
+        applyChange(builder -> builder.subscriptionPolicies
+                .put(subscriptionPolicy.getCacheKey(), subscriptionPolicy));
+    }
+
+    @Override
+    public void addOrUpdateApplicationPolicy(ApplicationPolicy applicationPolicy) {
+
+        applyChange(builder -> builder.applicationPolicies
+                .put(applicationPolicy.getCacheKey(), applicationPolicy));
+    }
+
+    @Override
+    public void addOrUpdateApiPolicy(ApiPolicy apiPolicy) {
+
+        try {
+            ApiPolicy policy = subscriptionDataLoader.getAPIPolicy(apiPolicy.getName(), tenantDomain);
+            applyChange(builder -> builder.apiPolicies.put(apiPolicy.getCacheKey(), policy));
+        } catch (DataLoadingException e) {
+            log.error("Exception while loading api policy for " + apiPolicy.getName() + " for domain " + tenantDomain,
+                    e);
+        }
+    }
+
+    @Override
+    public void removeApplication(Application application) {
+
+        applyChange(builder -> {
+            builder.applications.remove(application.getId());
+            List<String> subscriptionKeys = new ArrayList<>();
+            for (Subscription subscription : builder.subscriptions.values()) {
+                if (subscription != null && application.getUUID().equals(subscription.getApplicationUUID())) {
+                    subscriptionKeys.add(subscription.getCacheKey());
+                }
+            }
+            for (String subscriptionKey : subscriptionKeys) {
+                builder.subscriptions.remove(subscriptionKey);
+            }
+        });
+    }
+
+    @Override
+    public void removeAPI(API api) {
+
+        applyChange(builder -> {
+            builder.apisByUUID.remove(api.getUuid());
+            builder.apisByNameVersion.remove(api.getApiName() + DELEM_PERIOD + api.getApiVersion());
+            builder.apis.remove(api.getCacheKey());
+        });
+    }
+
+    @Override
+    public void removeSubscription(Subscription subscription) {
+
+        applyChange(builder -> builder.subscriptions.remove(subscription.getCacheKey()));
+    }
+
+    @Override
+    public void removeApplicationKeyMapping(ApplicationKeyMapping applicationKeyMapping) {
+
+        applyChange(builder -> builder.keyMappings.remove(applicationKeyMapping.getCacheKey()));
+    }
+
+    @Override
+    public void removeSubscriptionPolicy(SubscriptionPolicy subscriptionPolicy) {
+
+        applyChange(builder -> builder.subscriptionPolicies.remove(subscriptionPolicy.getCacheKey()));
+    }
+
+    @Override
+    public void removeApplicationPolicy(ApplicationPolicy applicationPolicy) {
+
+        applyChange(builder -> builder.applicationPolicies.remove(applicationPolicy.getCacheKey()));
+    }
+
+    @Override
+    public void removeApiPolicy(ApiPolicy apiPolicy) {
+
+        applyChange(builder -> builder.apiPolicies.remove(apiPolicy.getCacheKey()));
+    }
+
+    @Override
+    public boolean isApisInitialized() {
+
+        return snapshot.apisInitialized;
+    }
+
+    @Override
+    public boolean isApiPoliciesInitialized() {
+
+        return snapshot.apiPoliciesInitialized;
+    }
+
+    @Override
+    public boolean isScopesInitialized() {
+
+        return snapshot.scopesInitialized;
+    }
+
+    @Override
+    public API getDefaultApiByContext(String context) {
+
+        for (Map.Entry<String, API> entry : snapshot.apis.entrySet()) {
+            API api = entry.getValue();
+            if (entry.getKey().startsWith(context) && api.isDefaultVersion()
+                    && (api.getContext().replace("/" + api.getApiVersion(), "")).equals(context)) {
+                return api;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void addOrUpdateScope(Scope scope) {
+
+        applyChange(builder -> builder.scopes.put(scope.getCacheKey(), scope));
+    }
+
+    @Override
+    public void deleteScope(Scope scope) {
+
+        applyChange(builder -> builder.scopes.remove(scope.getCacheKey()));
+    }
+
+    @Override
+    public Map<String, Scope> getScopesByTenant(String tenantDomain) {
+
+        return snapshot.scopes;
+    }
+
+    @Override
+    public Map<String, API> getAllAPIsByContextList() {
+
+        Map<String, API> apiContextAPIMap = new HashMap<>();
+        for (API api : snapshot.apis.values()) {
+            apiContextAPIMap.put(api.getContext(), api);
+            if (api.isDefaultVersion()) {
+                String context = api.getContext();
+                int index = context.lastIndexOf("/" + api.getApiVersion());
+                apiContextAPIMap.put(context.substring(0, index), api);
+            }
+        }
+        return apiContextAPIMap;
+    }
+
+    @Override
+    public Subscription getSubscriptionBySubscriptionUUID(String subscriptionUUID) {
+
+        for (Subscription subscription : snapshot.subscriptions.values()) {
+            if (subscriptionUUID.equals(subscription.getSubscriptionUUId())) {
+                return subscription;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<Application> getApplicationsByName(String name) {
+
+        List<Application> applicationList = new ArrayList<>();
+        for (Application application : snapshot.applications.values()) {
+            if (application.getName().equals(name)) {
+                applicationList.add(application);
+            }
+        }
+        return applicationList;
+    }
+
+    @Override
+    public Application getApplicationByUUID(String uuid) {
+
+        for (Application application : snapshot.applications.values()) {
+            if (application.getUUID().equals(uuid)) {
+                return application;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<Subscription> getSubscriptionsByAPIId(int apiId) {
+
+        List<Subscription> subscriptionList = new ArrayList<>();
+        for (Subscription subscription : snapshot.subscriptions.values()) {
+            if (subscription.getApiId() == apiId) {
+                subscriptionList.add(subscription);
+            }
+        }
+        return subscriptionList;
+    }
+
+    @Override
+    public List<API> getAPIs() {
+
+        return new ArrayList<>(snapshot.apis.values());
+    }
+
+    @Override
+    public Subscription getSubscriptionByUUID(String apiUUID, String appUUID) {
+
+        for (Subscription subscription : snapshot.subscriptions.values()) {
+            if (subscription.getApiUUID().equals(apiUUID) && subscription.getApplicationUUID().equals(appUUID)) {
+                return subscription;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<ApplicationKeyMapping> getKeyMappingByApplicationId(int applicationId) {
+
+        List<ApplicationKeyMapping> applicationKeyMappings = new ArrayList<>();
+        for (ApplicationKeyMapping applicationKeyMapping : snapshot.keyMappings.values()) {
+            if (applicationKeyMapping.getApplicationId() == applicationId) {
+                applicationKeyMappings.add(applicationKeyMapping);
+            }
+        }
+        return applicationKeyMappings;
+    }
+
+    @Override
+    public void destroy() {
+
+        executorService.shutdown();
+    }
+
+    public boolean isAPIResourceValidationEnabled() {
+
+        APIManagerConfiguration config =
+                ServiceReferenceHolder.getInstance().getAPIManagerConfigurationService().getAPIManagerConfiguration();
+        String resourceCacheEnabled = config.getFirstProperty(APIConstants.GATEWAY_RESOURCE_CACHE_ENABLED);
+        if (StringUtils.isNotEmpty(resourceCacheEnabled)) {
+            return Boolean.parseBoolean(resourceCacheEnabled);
+        }
+        return true;
+    }
+
+    /**
+     * Applies the given change on a copy of the current snapshot and publishes the result.
+     */
+    private void applyChange(Consumer<SnapshotBuilder> change) {
+
+        synchronized (writeLock) {
+            SnapshotBuilder builder = new SnapshotBuilder(snapshot);
+            change.accept(builder);
+            snapshot = builder.build();
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        }
+    }
+
+    /**
+     * Runs the given loader unless a load for the same key is already in flight, in which case the result of that
+     * load is awaited instead. The snapshot is looked up again once the load is owned, as a load which completed
+     * between the miss and the ownership may have added the entity already.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T loadOnMiss(String loadKey, Supplier<T> lookup, LoadingTask<T> loader) {
+
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> inFlightLoad = inFlightLoads.putIfAbsent(loadKey, future);
+        if (inFlightLoad != null) {
+            try {
+                return (T) inFlightLoad.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException e) {
+                log.error("Error while waiting for in flight load of " + loadKey, e.getCause());
+                return null;
+            }
+        }
+        try {
+            T result = lookup.get();
+            if (result == null) {
+                result = loader.load();
+            }
+            future.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(loadKey, future);
+        }
+    }
+
+    private <V> List<V> load(String entityType, BulkLoadingTask<V> loader) {
+
+        try {
+            if (log.isDebugEnabled()) {
+                log.debug("Loading all " + entityType + " of tenant " + tenantDomain);
+            }
+            return loader.load();
+        } catch (APIManagementException e) {
+            log.error("Exception while loading " + entityType + " of tenant " + tenantDomain, e);
+        }
+        return null;
+    }
+
+    private interface LoadingTask<T> {
+
+        T load();
+    }
+
+    private interface BulkLoadingTask<V> {
+
+        List<V> load() throws APIManagementException;
+    }
+
+    /**
+     * Immutable set of entity maps served to readers.
+     */
+    private static final class Snapshot {
+
+        private final long version;
+        private final PersistentHashMap<Integer, Application> applications;
+        private final PersistentHashMap<ApplicationKeyMappingCacheKey, ApplicationKeyMapping> keyMappings;
+        private final PersistentHashMap<String, API> apis;
+        private final PersistentHashMap<String, API> apisByNameVersion;
+        private final PersistentHashMap<String, API> apisByUUID;
+        private final PersistentHashMap<String, ApiPolicy> apiPolicies;
+        private final PersistentHashMap<String, SubscriptionPolicy> subscriptionPolicies;
+        private final PersistentHashMap<String, ApplicationPolicy> applicationPolicies;
+        private final PersistentHashMap<String, Subscription> subscriptions;
+        private final PersistentHashMap<String, Scope> scopes;
+        private final boolean apisInitialized;
+        private final boolean apiPoliciesInitialized;
+        private final boolean scopesInitialized;
+
+        private Snapshot() {
+
+            this.version = 0;
+            this.applications = PersistentHashMap.empty();
+            this.keyMappings = PersistentHashMap.empty();
+            this.apis = PersistentHashMap.empty();
+            this.apisByNameVersion = PersistentHashMap.empty();
+            this.apisByUUID = PersistentHashMap.empty();
+            this.apiPolicies = PersistentHashMap.empty();
+            this.subscriptionPolicies = PersistentHashMap.empty();
+            this.applicationPolicies = PersistentHashMap.empty();
+            this.subscriptions = PersistentHashMap.empty();
+            this.scopes = PersistentHashMap.empty();
+            this.apisInitialized = false;
+            this.apiPoliciesInitialized = false;
+            this.scopesInitialized = false;
+        }
+
+        private Snapshot(SnapshotBuilder builder) {
+
+            this.version = builder.version;
+            this.applications = builder.applications.map;
+            this.keyMappings = builder.keyMappings.map;
+            this.apis = builder.apis.map;
+            this.apisByNameVersion = builder.apisByNameVersion.map;
+            this.apisByUUID = builder.apisByUUID.map;
+            this.apiPolicies = builder.apiPolicies.map;
+            this.subscriptionPolicies = builder.subscriptionPolicies.map;
+            this.applicationPolicies = builder.applicationPolicies.map;
+            this.subscriptions = builder.subscriptions.map;
+            this.scopes = builder.scopes.map;
+            this.apisInitialized = builder.apisInitialized;
+            this.apiPoliciesInitialized = builder.apiPoliciesInitialized;
+            this.scopesInitialized = builder.scopesInitialized;
+        }
+    }
+
+    /**
+     * Builds the next snapshot. The maps of the next snapshot share all entries which are not changed with the maps
+     * of the previous snapshot.
+     */
+    private static final class SnapshotBuilder {
+
+        private final long version;
+        private final EntityMap<Integer, Application> applications;
+        private final EntityMap<ApplicationKeyMappingCacheKey, ApplicationKeyMapping> keyMappings;
+        private final EntityMap<String, API> apis;
+        private final EntityMap<String, API> apisByNameVersion;
+        private final EntityMap<String, API> apisByUUID;
+        private final EntityMap<String, ApiPolicy> apiPolicies;
+        private final EntityMap<String, SubscriptionPolicy> subscriptionPolicies;
+        private final EntityMap<String, ApplicationPolicy> applicationPolicies;
+        private final EntityMap<String, Subscription> subscriptions;
+        private final EntityMap<String, Scope> scopes;
+        private boolean apisInitialized;
+        private boolean apiPoliciesInitialized;
+        private boolean scopesInitialized;
+
+        private SnapshotBuilder(Snapshot snapshot) {
+
+            this.version = snapshot.version + 1;
+            this.applications = new EntityMap<>(snapshot.applications);
+            this.keyMappings = new EntityMap<>(snapshot.keyMappings);
+            this.apis = new EntityMap<>(snapshot.apis);
+            this.apisByNameVersion = new EntityMap<>(snapshot.apisByNameVersion);
+            this.apisByUUID = new EntityMap<>(snapshot.apisByUUID);
+            this.apiPolicies = new EntityMap<>(snapshot.apiPolicies);
+            this.subscriptionPolicies = new EntityMap<>(snapshot.subscriptionPolicies);
+            this.applicationPolicies = new EntityMap<>(snapshot.applicationPolicies);
+            this.subscriptions = new EntityMap<>(snapshot.subscriptions);
+            this.scopes = new EntityMap<>(snapshot.scopes);
+            this.apisInitialized = snapshot.apisInitialized;
+            this.apiPoliciesInitialized = snapshot.apiPoliciesInitialized;
+            this.scopesInitialized = snapshot.scopesInitialized;
+        }
+
+        private void putAPI(String cacheKey, API api) {
+
+            apis.put(cacheKey, api);
+            apisByNameVersion.put(api.getApiName() + DELEM_PERIOD + api.getApiVersion(), api);
+            apisByUUID.put(api.getUuid(), api);
+        }
+
+        /**
+         * Takes over the maps which were replaced in the given builder.
+         */
+        private void merge(SnapshotBuilder loaded) {
+
+            applications.merge(loaded.applications);
+            keyMappings.merge(loaded.keyMappings);
+            apis.merge(loaded.apis);
+            apisByNameVersion.merge(loaded.apisByNameVersion);
+            apisByUUID.merge(loaded.apisByUUID);
+            apiPolicies.merge(loaded.apiPolicies);
+            subscriptionPolicies.merge(loaded.subscriptionPolicies);
+            applicationPolicies.merge(loaded.applicationPolicies);
+            subscriptions.merge(loaded.subscriptions);
+            scopes.merge(loaded.scopes);
+            apisInitialized |= loaded.apisInitialized;
+            apiPoliciesInitialized |= loaded.apiPoliciesInitialized;
+            scopesInitialized |= loaded.scopesInitialized;
+        }
+
+        private Snapshot build() {
+
+            return new Snapshot(this);
+        }
+    }
+
+    /**
+     * Entity map of a snapshot being built. Changes derive a new map from the map of the previous snapshot, which
+     * stays unchanged for the readers of the previous snapshot.
+     */
+    private static final class EntityMap<K, V extends CacheableEntity<K>> {
+
+        private PersistentHashMap<K, V> map;
+        private boolean replaced;
+
+        private EntityMap(PersistentHashMap<K, V> map) {
+
+            this.map = map;
+        }
+
+        private V get(K key) {
+
+            return map.get(key);
+        }
+
+        private Collection<V> values() {
+
+            return map.values();
+        }
+
+        private void put(K key, V value) {
+
+            map = map.plus(key, value);
+        }
+
+        private void remove(K key) {
+
+            map = map.minus(key);
+        }
+
+        private void replace(Map<K, V> entities) {
+
+            map = PersistentHashMap.copyOf(entities);
+            replaced = true;
+        }
+
+        private void replace(List<? extends V> entities) {
+
+            if (entities == null) {
+                return;
+            }
+            PersistentHashMap<K, V> replacement = PersistentHashMap.empty();
+            for (V entity : entities) {
+                replacement = replacement.plus(entity.getCacheKey(), entity);
+            }
+            map = replacement;
+            replaced = true;
+        }
+
+        private void merge(EntityMap<K, V> loaded) {
+
+            if (loaded.replaced) {
+                map = loaded.map;
+            }
+        }
+    }
+}
@@ -18,9 +18,14 @@
 package org.wso2.carbon.apimgt.keymgt.model.impl;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpEntity;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
@@ -29,6 +34,7 @@ import org.wso2.carbon.apimgt.api.APIManagementException;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.dto.EventHubConfigurationDto;
 import org.wso2.carbon.apimgt.impl.dto.GatewayArtifactSynchronizerProperties;
+import org.wso2.carbon.apimgt.impl.resolver.OnPremResolver;
 import org.wso2.carbon.apimgt.impl.utils.APIUtil;
 import org.wso2.carbon.apimgt.keymgt.internal.ServiceReferenceHolder;
 import org.wso2.carbon.apimgt.keymgt.model.SubscriptionDataLoader;
@@ -43,21 +49,25 @@ import org.wso2.carbon.apimgt.keymgt.model.entity.ApplicationList;
 import org.wso2.carbon.apimgt.keymgt.model.entity.ApplicationPolicy;
 import org.wso2.carbon.apimgt.keymgt.model.entity.ApplicationPolicyList;
 import org.wso2.carbon.apimgt.keymgt.model.entity.Scope;
-import org.wso2.carbon.apimgt.keymgt.model.entity.ScopesList;
 import org.wso2.carbon.apimgt.keymgt.model.entity.Subscription;
 import org.wso2.carbon.apimgt.keymgt.model.entity.SubscriptionList;
 import org.wso2.carbon.apimgt.keymgt.model.entity.SubscriptionPolicy;
 import org.wso2.carbon.apimgt.keymgt.model.entity.SubscriptionPolicyList;
 import org.wso2.carbon.apimgt.keymgt.model.exception.DataLoadingException;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
 
@@ -65,72 +75,69 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
     private EventHubConfigurationDto getEventHubConfigurationDto;
     private GatewayArtifactSynchronizerProperties gatewayArtifactSynchronizerProperties;
     public static final String UTF8 = "UTF-8";
+    private static final String LIST = "list";
+    private static final String PAGINATION = "pagination";
+    private static final String NEXT = "next";
+    // Clients are shared by all loaders, as each client keeps its own connection pool.
+    private static final Map<String, HttpClient> httpClients = new ConcurrentHashMap<>();
+    private final Gson gson = new Gson();
 
     public SubscriptionDataLoaderImpl() {
 
-        this.getEventHubConfigurationDto = ServiceReferenceHolder.getInstance()
-                .getAPIManagerConfigurationService().getAPIManagerConfiguration()
-                .getEventHubConfigurationDto();
-        this.gatewayArtifactSynchronizerProperties =
+        this(ServiceReferenceHolder.getInstance().getAPIManagerConfigurationService().getAPIManagerConfiguration()
+                        .getEventHubConfigurationDto(),
                 ServiceReferenceHolder.getInstance().getAPIManagerConfigurationService().getAPIManagerConfiguration()
-                        .getGatewayArtifactSynchronizerProperties();
+                        .getGatewayArtifactSynchronizerProperties());
+    }
+
+    SubscriptionDataLoaderImpl(EventHubConfigurationDto eventHubConfigurationDto,
+                               GatewayArtifactSynchronizerProperties gatewayArtifactSynchronizerProperties) {
+
+        this.getEventHubConfigurationDto = eventHubConfigurationDto;
+        this.gatewayArtifactSynchronizerProperties = gatewayArtifactSynchronizerProperties;
     }
 
     @Override
     public List<Subscription> loadAllSubscriptions(String tenantDomain) throws DataLoadingException {
 
-        String subscriptionsEP = APIConstants.SubscriptionValidationResources.SUBSCRIPTIONS;
-        List<Subscription> subscriptions = new ArrayList<>();
-        String responseString = null;
-        try {
-            responseString = invokeService(subscriptionsEP, tenantDomain);
-        } catch (IOException e) {
-            String msg = "Error while executing the http client " + subscriptionsEP;
-            log.error(msg, e);
-            throw new DataLoadingException(msg, e);
-        }
-        if (responseString != null && !responseString.isEmpty()) {
-            subscriptions = (new Gson().fromJson(responseString, SubscriptionList.class)).getList();
-        }
-        return subscriptions;
+        return loadAllPages(APIConstants.SubscriptionValidationResources.SUBSCRIPTIONS, tenantDomain, null,
+                Subscription.class);
+    }
+
+    @Override
+    public List<Subscription> loadAllTenantSubscriptions() throws DataLoadingException {
+
+        return loadAllPages(APIConstants.SubscriptionValidationResources.SUBSCRIPTIONS,
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME, APIConstants.ORG_ALL_QUERY_PARAM, Subscription.class);
     }
 
     @Override
     public List<Application> loadAllApplications(String tenantDomain) throws DataLoadingException {
 
-        String applicationsEP = APIConstants.SubscriptionValidationResources.APPLICATIONS;
-        List<Application> applications = new ArrayList<>();
-        String responseString = null;
-        try {
-            responseString = invokeService(applicationsEP, tenantDomain);
-        } catch (IOException e) {
-            String msg = "Error while executing the http client " + applicationsEP;
-            log.error(msg, e);
-            throw new DataLoadingException(msg, e);
-        }
-        if (responseString != null && !responseString.isEmpty()) {
-            applications = (new Gson().fromJson(responseString, ApplicationList.class)).getList();
-        }
-        return applications;
+        return loadAllPages(APIConstants.SubscriptionValidationResources.APPLICATIONS, tenantDomain, null,
+                Application.class);
+    }
+
+    @Override
+    public List<Application> loadAllTenantApplications() throws DataLoadingException {
+
+        return loadAllPages(APIConstants.SubscriptionValidationResources.APPLICATIONS,
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME, APIConstants.ORG_ALL_QUERY_PARAM, Application.class);
     }
 
     @Override
     public List<ApplicationKeyMapping> loadAllKeyMappings(String tenantDomain) throws DataLoadingException {
 
-        String applicationsEP = APIConstants.SubscriptionValidationResources.APPLICATION_KEY_MAPPINGS;
-        List<ApplicationKeyMapping> applicationKeyMappings = new ArrayList<>();
-        String responseString = null;
-        try {
-            responseString = invokeService(applicationsEP, tenantDomain);
-        } catch (IOException e) {
-            String msg = "Error while executing the http client " + applicationsEP;
-            log.error(msg, e);
-            throw new DataLoadingException(msg, e);
-        }
-        if (responseString != null && !responseString.isEmpty()) {
-            applicationKeyMappings = (new Gson().fromJson(responseString, ApplicationKeyMappingList.class)).getList();
-        }
-        return applicationKeyMappings;
+        return loadAllPages(APIConstants.SubscriptionValidationResources.APPLICATION_KEY_MAPPINGS, tenantDomain,
+                null, ApplicationKeyMapping.class);
+    }
+
+    @Override
+    public List<ApplicationKeyMapping> loadAllTenantKeyMappings() throws DataLoadingException {
+
+        return loadAllPages(APIConstants.SubscriptionValidationResources.APPLICATION_KEY_MAPPINGS,
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME, APIConstants.ORG_ALL_QUERY_PARAM,
+                ApplicationKeyMapping.class);
     }
 
     @Override
@@ -196,57 +203,27 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
     @Override
     public List<SubscriptionPolicy> loadAllSubscriptionPolicies(String tenantDomain) throws DataLoadingException {
 
-        String subscriptionPoliciesEP = APIConstants.SubscriptionValidationResources.SUBSCRIPTION_POLICIES;
         List<SubscriptionPolicy> subscriptionPolicies = new ArrayList<>();
-        String responseString = null;
-        try {
-            responseString = invokeService(subscriptionPoliciesEP, tenantDomain);
-        } catch (IOException e) {
-            String msg = "Error while executing the http client " + subscriptionPoliciesEP;
-            log.error(msg, e);
-            throw new DataLoadingException(msg, e);
-        }
-        if (responseString != null && !responseString.isEmpty()) {
-            subscriptionPolicies = (new Gson().fromJson(responseString, SubscriptionPolicyList.class)).getList();
-        }
+        loadPage(APIConstants.SubscriptionValidationResources.SUBSCRIPTION_POLICIES, tenantDomain, null,
+                SubscriptionPolicy.class, subscriptionPolicies);
         return subscriptionPolicies;
     }
 
     @Override
     public List<ApiPolicy> loadAllAPIPolicies(String tenantDomain) throws DataLoadingException {
 
-        String apiPoliciesEP = APIConstants.SubscriptionValidationResources.API_POLICIES;
         List<ApiPolicy> apiPolicies = new ArrayList<>();
-        String responseString = null;
-        try {
-            responseString = invokeService(apiPoliciesEP, tenantDomain);
-        } catch (IOException e) {
-            String msg = "Error while executing the http client " + apiPoliciesEP;
-            log.error(msg, e);
-            throw new DataLoadingException(msg, e);
-        }
-        if (responseString != null && !responseString.isEmpty()) {
-            apiPolicies = (new Gson().fromJson(responseString, APIPolicyList.class)).getList();
-        }
+        loadPage(APIConstants.SubscriptionValidationResources.API_POLICIES, tenantDomain, null, ApiPolicy.class,
+                apiPolicies);
         return apiPolicies;
     }
 
     @Override
     public List<ApplicationPolicy> loadAllAppPolicies(String tenantDomain) throws DataLoadingException {
 
-        String applicationsEP = APIConstants.SubscriptionValidationResources.APPLICATION_POLICIES;
         List<ApplicationPolicy> applicationPolicies = new ArrayList<>();
-        String responseString = null;
-        try {
-            responseString = invokeService(applicationsEP, tenantDomain);
-        } catch (IOException e) {
-            String msg = "Error while executing the http client " + applicationsEP;
-            log.error(msg, e);
-            throw new DataLoadingException(msg, e);
-        }
-        if (responseString != null && !responseString.isEmpty()) {
-            applicationPolicies = (new Gson().fromJson(responseString, ApplicationPolicyList.class)).getList();
-        }
+        loadPage(APIConstants.SubscriptionValidationResources.APPLICATION_POLICIES, tenantDomain, null,
+                ApplicationPolicy.class, applicationPolicies);
         return applicationPolicies;
     }
 
@@ -433,25 +410,123 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
 
     @Override
     public List<Scope> loadAllScopes(String tenantDomain) throws DataLoadingException {
-        String scopesEp = APIConstants.SubscriptionValidationResources.SCOPES;
         List<Scope> scopes = new ArrayList<>();
-        String responseString;
+        loadPage(APIConstants.SubscriptionValidationResources.SCOPES, tenantDomain, null, Scope.class, scopes);
+        return scopes;
+    }
+
+    /**
+     * Loads all entities of a resource, following the pagination of the resource page by page. Each page is parsed
+     * from the response stream directly into the returned list. Servers which do not paginate the resource return
+     * every entity in the first page.
+     *
+     * @param path         resource path, including the query parameters of the request
+     * @param tenantDomain tenant domain of the entities
+     * @param organization organization of the entities, or null to use the tenant domain
+     * @param entityClass  entity type
+     * @return all entities of the resource
+     * @throws DataLoadingException if failed to load any of the pages
+     */
+    private <T> List<T> loadAllPages(String path, String tenantDomain, String organization, Class<T> entityClass)
+            throws DataLoadingException {
+
+        List<T> entities = new ArrayList<>();
+        int pageSize = getEventHubConfigurationDto.getDataLoadingPageSize();
+        if (pageSize <= 0) {
+            loadPage(path, tenantDomain, organization, entityClass, entities);
+            return entities;
+        }
+        String pagePath = path + (path.contains("?") ? "&" : "?") + "limit=" + pageSize;
+        while (StringUtils.isNotEmpty(pagePath)) {
+            String nextPagePath = loadPage(pagePath, tenantDomain, organization, entityClass, entities);
+            if (pagePath.equals(nextPagePath)) {
+                throw new DataLoadingException("Pagination of " + path + " did not advance beyond " + pagePath);
+            }
+            pagePath = nextPagePath;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Loaded " + entities.size() + " entities from " + path + " of tenant " + tenantDomain);
+        }
+        return entities;
+    }
+
+    /**
+     * Loads a page of entities, adding the entities of the page to the given list.
+     *
+     * @return path of the next page, or null if this is the last page
+     */
+    private <T> String loadPage(String path, String tenantDomain, String organization, Class<T> entityClass,
+                                List<T> entities) throws DataLoadingException {
+
         try {
-            responseString = invokeService(scopesEp, tenantDomain);
-        } catch (IOException e) {
-            String msg = "Error while executing the HTTP client " + scopesEp;
+            return invokeService(path, tenantDomain, organization,
+                    entity -> readPage(entity, entityClass, entities));
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            String msg = "Error while executing the http client " + path;
             log.error(msg, e);
             throw new DataLoadingException(msg, e);
         }
-        if (responseString != null && !responseString.isEmpty()) {
-            scopes = new Gson().fromJson(responseString, ScopesList.class).getList();
+    }
+
+    private <T> String readPage(HttpEntity entity, Class<T> entityClass, List<T> entities) throws IOException {
+
+        if (entity == null) {
+            return null;
         }
-        return scopes;
+        try (JsonReader reader = new JsonReader(new InputStreamReader(entity.getContent(), StandardCharsets.UTF_8))) {
+            try {
+                reader.peek();
+            } catch (EOFException e) {
+                // Empty response
+                return null;
+            }
+            return readPage(reader, entityClass, entities);
+        }
+    }
+
+    private <T> String readPage(JsonReader reader, Class<T> entityClass, List<T> entities) throws IOException {
 
+        String nextPagePath = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (LIST.equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    entities.add(gson.fromJson(reader, entityClass));
+                }
+                reader.endArray();
+            } else if (PAGINATION.equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (NEXT.equals(reader.nextName()) && reader.peek() == JsonToken.STRING) {
+                        nextPagePath = reader.nextString();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return StringUtils.isNotEmpty(nextPagePath) ? nextPagePath : null;
     }
 
     private String invokeService(String path, String tenantDomain) throws DataLoadingException, IOException {
 
+        String responseString = invokeService(path, tenantDomain, null,
+                entity -> entity != null ? EntityUtils.toString(entity, UTF8) : null);
+        if (log.isDebugEnabled()) {
+            log.debug("Response : " + responseString);
+        }
+        return responseString;
+    }
+
+    <R> R invokeService(String path, String tenantDomain, String organization, ResponseReader<R> responseReader)
+            throws DataLoadingException, IOException {
+
         String serviceURLStr = getEventHubConfigurationDto.getServiceUrl().concat(APIConstants.INTERNAL_WEB_APP_EP);
         HttpGet method = new HttpGet(serviceURLStr + path);
 
@@ -465,18 +540,24 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
             if (tenantDomain != null) {
                 method.setHeader(APIConstants.HEADER_TENANT, tenantDomain);
             }
-            HttpClient httpClient = APIUtil.getHttpClient(servicePort, serviceProtocol);
-            String responseString;
+            if (organization != null) {
+                method.setHeader(OnPremResolver.HEADER_X_WSO2_TENANT, organization);
+            }
+            HttpClient httpClient = httpClients.computeIfAbsent(serviceProtocol,
+                    protocol -> APIUtil.getHttpClient(servicePort, protocol));
             try (CloseableHttpResponse httpResponse = APIUtil.executeHTTPRequestWithRetries(method, httpClient)) {
-                responseString = EntityUtils.toString(httpResponse.getEntity(), UTF8);
+                return responseReader.read(httpResponse.getEntity());
             } catch (APIManagementException e) {
                 throw new DataLoadingException("Error while retrieving subscriptions", e);
             }
+    }
 
-            if (log.isDebugEnabled()) {
-                log.debug("Response : " + responseString);
-            }
-            return responseString;
+    /**
+     * Reads the body of a response of the internal data service.
+     */
+    interface ResponseReader<R> {
+
+        R read(HttpEntity entity) throws IOException;
     }
 
     private byte[] getServiceCredentials(EventHubConfigurationDto eventHubConfigurationDto) {
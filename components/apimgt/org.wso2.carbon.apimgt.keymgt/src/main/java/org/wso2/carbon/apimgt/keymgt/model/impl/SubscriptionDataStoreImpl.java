@@ -27,6 +27,7 @@ import org.wso2.carbon.apimgt.impl.APIManagerConfiguration;
 import org.wso2.carbon.apimgt.impl.caching.CacheInvalidationServiceImpl;
 import org.wso2.carbon.apimgt.impl.dto.EventHubConfigurationDto;
 import org.wso2.carbon.apimgt.impl.notifier.events.DeployAPIInGatewayEvent;
+import org.wso2.carbon.apimgt.keymgt.SubscriptionDataPreloader;
 import org.wso2.carbon.apimgt.keymgt.internal.ServiceReferenceHolder;
 import org.wso2.carbon.apimgt.keymgt.model.SubscriptionDataStore;
 import org.wso2.carbon.apimgt.keymgt.model.entity.API;
@@ -47,8 +48,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -58,6 +61,9 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     public static final String DELEM_PERIOD = ":";
     public static final int LOADING_POOL_SIZE = 7;
     private static final Log log = LogFactory.getLog(SubscriptionDataStoreImpl.class);
+    // Shared by the stores of all tenants, so that the number of concurrent loads does not grow with the tenants.
+    private static final ScheduledExecutorService executorService =
+            Executors.newScheduledThreadPool(LOADING_POOL_SIZE);
     private final EventHubConfigurationDto eventHubConfiguration;
     private boolean scopesInitialized;
     // Maps for keeping Subscription related details.
@@ -74,7 +80,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     private boolean apisInitialized;
     private boolean apiPoliciesInitialized;
     private String tenantDomain;
-    private ScheduledExecutorService executorService = Executors.newScheduledThreadPool(LOADING_POOL_SIZE);
+    private final List<ScheduledFuture<?>> loadingTasks = new CopyOnWriteArrayList<>();
 
     public SubscriptionDataStoreImpl(String tenantDomain) {
 
@@ -298,12 +304,13 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                     try {
                         log.debug("Calling loadAllApis. ");
                         List<API> apiList = new SubscriptionDataLoaderImpl().loadAllApis(tenantDomain);
-                        apiByUUIDMap.clear();
+                        Map<String, API> apisByUUID = new HashMap<>();
                         for (API api : apiList) {
-                            apiByUUIDMap.put(api.getUuid(), api);
+                            apisByUUID.put(api.getUuid(), api);
                             String key = api.getApiName().concat(":").concat(api.getApiVersion());
                             apiNameVersionMap.put(key, api);
                         }
+                        replaceEntries(apiByUUIDMap, apisByUUID);
                         apisInitialized = true;
                         return apiList;
                     } catch (APIManagementException e) {
@@ -312,7 +319,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                     return null;
                 });
 
-        executorService.schedule(apiTask, eventHubConfiguration.getInitDelay(), TimeUnit.MILLISECONDS);
+        scheduleLoadingTask(apiTask);
 
         Runnable subscriptionLoadingTask = new PopulateTask<>(subscriptionMap,
                 () -> {
@@ -325,8 +332,6 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                     return null;
                 });
 
-        executorService.schedule(subscriptionLoadingTask, eventHubConfiguration.getInitDelay(), TimeUnit.MILLISECONDS);
-
         Runnable applicationLoadingTask = new PopulateTask<>(applicationMap,
                 () -> {
                     try {
@@ -338,8 +343,6 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                     return null;
                 });
 
-        executorService.schedule(applicationLoadingTask, eventHubConfiguration.getInitDelay(), TimeUnit.MILLISECONDS);
-
         Runnable keyMappingsTask =
                 new PopulateTask<>(applicationKeyMappingMap,
                         () -> {
@@ -352,7 +355,30 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                             return null;
                         });
 
-        executorService.schedule(keyMappingsTask, eventHubConfiguration.getInitDelay(), TimeUnit.MILLISECONDS);
+        // Applications, key mappings and subscriptions are taken from the preload of all tenants when it is
+        // available, and loaded separately for this tenant otherwise.
+        SubscriptionDataPreloader preloader = SubscriptionDataPreloader.getInstance();
+        preloader.getTenantData(tenantDomain).thenAccept(preloaded -> {
+            if (preloaded != null) {
+                log.debug("Using preloaded subscription data of tenant " + tenantDomain);
+                new PopulateTask<>(subscriptionMap, preloaded::getSubscriptions).run();
+                new PopulateTask<>(applicationMap, preloaded::getApplications).run();
+                new PopulateTask<>(applicationKeyMappingMap, preloaded::getKeyMappings).run();
+                // Changes are recorded before they are applied to the store, so a change which the preloaded data
+                // has just replaced is always seen here.
+                if (preloader.isChanged(tenantDomain)) {
+                    log.debug("Reloading the subscription data of tenant " + tenantDomain
+                            + " as it changed after the preload");
+                    scheduleLoadingTask(subscriptionLoadingTask);
+                    scheduleLoadingTask(applicationLoadingTask);
+                    scheduleLoadingTask(keyMappingsTask);
+                }
+            } else {
+                scheduleLoadingTask(subscriptionLoadingTask);
+                scheduleLoadingTask(applicationLoadingTask);
+                scheduleLoadingTask(keyMappingsTask);
+            }
+        });
 
         Runnable apiPolicyLoadingTask =
                 new PopulateTask<>(apiPolicyMap,
@@ -369,7 +395,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                             return null;
                         });
 
-        executorService.schedule(apiPolicyLoadingTask, eventHubConfiguration.getInitDelay(), TimeUnit.MILLISECONDS);
+        scheduleLoadingTask(apiPolicyLoadingTask);
 
         Runnable subPolicyLoadingTask =
                 new PopulateTask<>(subscriptionPolicyMap,
@@ -383,7 +409,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                             return null;
                         });
 
-        executorService.schedule(subPolicyLoadingTask, eventHubConfiguration.getInitDelay(), TimeUnit.MILLISECONDS);
+        scheduleLoadingTask(subPolicyLoadingTask);
 
         Runnable appPolicyLoadingTask =
                 new PopulateTask<>(appPolicyMap,
@@ -397,7 +423,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                             return null;
                         });
 
-        executorService.schedule(appPolicyLoadingTask, eventHubConfiguration.getInitDelay(), TimeUnit.MILLISECONDS);
+        scheduleLoadingTask(appPolicyLoadingTask);
         Runnable scopesLoadingTask =
                 new PopulateTask<>(scopesMap,
                         () -> {
@@ -413,7 +439,12 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                             return null;
                         });
 
-        executorService.schedule(scopesLoadingTask, eventHubConfiguration.getInitDelay(), TimeUnit.MILLISECONDS);
+        scheduleLoadingTask(scopesLoadingTask);
+    }
+
+    private void scheduleLoadingTask(Runnable task) {
+
+        loadingTasks.add(executorService.schedule(task, eventHubConfiguration.getInitDelay(), TimeUnit.MILLISECONDS));
     }
 
     public boolean isApisInitialized() {
@@ -682,7 +713,11 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
 
     @Override
     public void destroy() {
-        executorService.shutdown();
+
+        for (ScheduledFuture<?> loadingTask : loadingTasks) {
+            loadingTask.cancel(false);
+        }
+        loadingTasks.clear();
     }
 
     @Override
@@ -766,6 +801,16 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
         API
     }
 
+    /**
+     * Replaces the entries of a map with the given entries. Entries are updated before the removed entries are
+     * dropped, so that readers never observe an emptied map while the entries are being replaced.
+     */
+    static <K, V> void replaceEntries(Map<K, V> map, Map<K, V> entries) {
+
+        map.putAll(entries);
+        map.keySet().retainAll(entries.keySet());
+    }
+
     private static class PopulateTask<K, V extends CacheableEntity<K>> implements Runnable {
 
         private Map<K, V> entityMap;
@@ -788,13 +833,8 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                     if (log.isDebugEnabled()) {
                         log.debug(String.format("Adding entry Key : %s Value : %s", v.getCacheKey(), v));
                     }
-
-                    if (!tempMap.isEmpty()) {
-                        entityMap.clear();
-                        entityMap.putAll(tempMap);
-                    }
                 }
-
+                replaceEntries(entityMap, tempMap);
             } else {
                 if (log.isDebugEnabled()) {
                     log.debug("List is null for " + supplier.getClass());
@@ -32,6 +32,7 @@ import org.wso2.carbon.apimgt.impl.notifier.events.ScopeEvent;
 import org.wso2.carbon.apimgt.impl.notifier.events.SubscriptionEvent;
 import org.wso2.carbon.apimgt.impl.notifier.events.SubscriptionPolicyEvent;
 import org.wso2.carbon.apimgt.keymgt.SubscriptionDataHolder;
+import org.wso2.carbon.apimgt.keymgt.SubscriptionDataPreloader;
 import org.wso2.carbon.apimgt.keymgt.model.SubscriptionDataStore;
 import org.wso2.carbon.apimgt.keymgt.model.entity.API;
 import org.wso2.carbon.apimgt.keymgt.model.entity.ApiPolicy;
@@ -57,6 +58,7 @@ public class KeyManagerDataServiceImpl implements KeyManagerDataService {
         if (log.isDebugEnabled()) {
             log.debug("Add or Update Application in datastore in tenant " + event.getTenantDomain());
         }
+        SubscriptionDataPreloader.getInstance().recordChange(event.getTenantDomain());
         SubscriptionDataStore store = SubscriptionDataHolder.getInstance()
                 .getTenantSubscriptionStore(event.getTenantDomain());
         if (store == null) {
@@ -91,6 +93,7 @@ public class KeyManagerDataServiceImpl implements KeyManagerDataService {
         if (log.isDebugEnabled()) {
             log.debug("Add or Update Subscription in datastore in tenant " + event.getTenantDomain());
         }
+        SubscriptionDataPreloader.getInstance().recordChange(event.getTenantDomain());
         SubscriptionDataStore store = SubscriptionDataHolder.getInstance()
                 .getTenantSubscriptionStore(event.getTenantDomain());
         if (store == null) {
@@ -108,6 +111,7 @@ public class KeyManagerDataServiceImpl implements KeyManagerDataService {
         if (log.isDebugEnabled()) {
             log.debug("Add or Update Application keymapping in datastore in tenant " + event.getTenantDomain());
         }
+        SubscriptionDataPreloader.getInstance().recordChange(event.getTenantDomain());
         SubscriptionDataStore store = SubscriptionDataHolder.getInstance()
                 .getTenantSubscriptionStore(event.getTenantDomain());
         if (store == null) {
@@ -178,6 +182,7 @@ public class KeyManagerDataServiceImpl implements KeyManagerDataService {
         if (log.isDebugEnabled()) {
             log.debug("Remove Application in datastore in tenant " + event.getTenantDomain());
         }
+        SubscriptionDataPreloader.getInstance().recordChange(event.getTenantDomain());
         SubscriptionDataStore store = SubscriptionDataHolder.getInstance()
                 .getTenantSubscriptionStore(event.getTenantDomain());
         if (store == null) {
@@ -212,6 +217,7 @@ public class KeyManagerDataServiceImpl implements KeyManagerDataService {
         if (log.isDebugEnabled()) {
             log.debug("Remove Subscription in datastore in tenant " + event.getTenantDomain());
         }
+        SubscriptionDataPreloader.getInstance().recordChange(event.getTenantDomain());
         SubscriptionDataStore store = SubscriptionDataHolder.getInstance()
                 .getTenantSubscriptionStore(event.getTenantDomain());
         if (store == null) {
@@ -229,6 +235,7 @@ public class KeyManagerDataServiceImpl implements KeyManagerDataService {
         if (log.isDebugEnabled()) {
             log.debug("Remove ApplicationKey Mapping in datastore in tenant " + event.getTenantDomain());
         }
+        SubscriptionDataPreloader.getInstance().recordChange(event.getTenantDomain());
         SubscriptionDataStore store = SubscriptionDataHolder.getInstance()
                 .getTenantSubscriptionStore(event.getTenantDomain());
         if (store == null) {
@@ -0,0 +1,183 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.keymgt;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.wso2.carbon.apimgt.keymgt.model.SubscriptionDataLoader;
+import org.wso2.carbon.apimgt.keymgt.model.entity.Application;
+import org.wso2.carbon.apimgt.keymgt.model.entity.ApplicationKeyMapping;
+import org.wso2.carbon.apimgt.keymgt.model.entity.Subscription;
+import org.wso2.carbon.apimgt.keymgt.model.exception.DataLoadingException;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+public class SubscriptionDataPreloaderTest {
+
+    private static final String TENANT_A = "a.com";
+    private static final String TENANT_B = "b.com";
+
+    private SubscriptionDataLoader subscriptionDataLoader;
+
+    @Before
+    public void setup() throws DataLoadingException {
+
+        subscriptionDataLoader = Mockito.mock(SubscriptionDataLoader.class);
+        Mockito.when(subscriptionDataLoader.loadAllTenantApplications()).thenReturn(Arrays.asList(
+                application(1, TENANT_A), application(2, TENANT_A), application(3, TENANT_B)));
+        Mockito.when(subscriptionDataLoader.loadAllTenantKeyMappings()).thenReturn(Arrays.asList(
+                keyMapping(1, "key1"), keyMapping(3, "key3"), keyMapping(4, "key4")));
+        Mockito.when(subscriptionDataLoader.loadAllTenantSubscriptions()).thenReturn(Arrays.asList(
+                subscription(1, "1"), subscription(2, "2"), subscription(3, "3")));
+    }
+
+    @Test
+    public void testPreloadedDataIsGroupedByTenant() throws Exception {
+
+        SubscriptionDataPreloader preloader = new SubscriptionDataPreloader(TimeUnit.MINUTES.toMillis(10));
+        preloader.start(subscriptionDataLoader);
+
+        SubscriptionDataPreloader.TenantData tenantA = preloader.getTenantData(TENANT_A).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(SubscriptionDataPreloader.State.COMPLETED, preloader.getState());
+        Assert.assertTrue(preloader.isReady());
+        Assert.assertEquals(2, tenantA.getApplications().size());
+        Assert.assertEquals(1, tenantA.getKeyMappings().size());
+        Assert.assertEquals(2, tenantA.getSubscriptions().size());
+
+        SubscriptionDataPreloader.TenantData tenantB = preloader.getTenantData(TENANT_B).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(1, tenantB.getApplications().size());
+        Assert.assertEquals("key3", tenantB.getKeyMappings().get(0).getConsumerKey());
+        Assert.assertEquals(1, tenantB.getSubscriptions().size());
+
+        // The key mapping of an application which was not loaded is left to be loaded on demand.
+        Assert.assertEquals(2, preloader.getKeyMappingCount());
+        Assert.assertEquals(2, preloader.getTenantCount());
+        Assert.assertEquals(2, preloader.getServedTenantCount());
+        Mockito.verify(subscriptionDataLoader, Mockito.times(1)).loadAllTenantSubscriptions();
+    }
+
+    @Test
+    public void testTenantWithoutApplicationsGetsEmptyData() throws Exception {
+
+        SubscriptionDataPreloader preloader = new SubscriptionDataPreloader(TimeUnit.MINUTES.toMillis(10));
+        preloader.start(subscriptionDataLoader);
+
+        SubscriptionDataPreloader.TenantData tenantData = preloader.getTenantData("c.com").get(10, TimeUnit.SECONDS);
+        Assert.assertNotNull(tenantData);
+        Assert.assertTrue(tenantData.getApplications().isEmpty());
+        Assert.assertTrue(tenantData.getSubscriptions().isEmpty());
+    }
+
+    @Test
+    public void testTenantDataIsServedOnlyOnce() throws Exception {
+
+        SubscriptionDataPreloader preloader = new SubscriptionDataPreloader(TimeUnit.MINUTES.toMillis(10));
+        preloader.start(subscriptionDataLoader);
+
+        Assert.assertNotNull(preloader.getTenantData(TENANT_A).get(10, TimeUnit.SECONDS));
+        Assert.assertNull(preloader.getTenantData(TENANT_A).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTenantDataIsNotServedWhenPreloadIsNotStarted() throws Exception {
+
+        SubscriptionDataPreloader preloader = new SubscriptionDataPreloader(TimeUnit.MINUTES.toMillis(10));
+
+        Assert.assertNull(preloader.getTenantData(TENANT_A).get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(SubscriptionDataPreloader.State.NOT_STARTED, preloader.getState());
+        Assert.assertFalse(preloader.isReady());
+    }
+
+    @Test
+    public void testTenantDataIsNotServedWhenPreloadFails() throws Exception {
+
+        Mockito.when(subscriptionDataLoader.loadAllTenantSubscriptions())
+                .thenThrow(new DataLoadingException("Error while retrieving subscriptions"));
+        SubscriptionDataPreloader preloader = new SubscriptionDataPreloader(TimeUnit.MINUTES.toMillis(10));
+        preloader.start(subscriptionDataLoader);
+
+        Assert.assertNull(preloader.getTenantData(TENANT_A).get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(SubscriptionDataPreloader.State.FAILED, preloader.getState());
+        Assert.assertTrue(preloader.isReady());
+    }
+
+    @Test
+    public void testTenantDataIsNotServedAfterExpiry() throws Exception {
+
+        SubscriptionDataPreloader preloader = new SubscriptionDataPreloader(0);
+        preloader.start(subscriptionDataLoader);
+        // Waits for the preload to complete before letting it expire.
+        preloader.getTenantData(TENANT_B).get(10, TimeUnit.SECONDS);
+        Thread.sleep(10);
+
+        Assert.assertNull(preloader.getTenantData(TENANT_A).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTenantDataIsNotServedAfterChange() throws Exception {
+
+        SubscriptionDataPreloader preloader = new SubscriptionDataPreloader(TimeUnit.MINUTES.toMillis(10));
+        preloader.start(subscriptionDataLoader);
+        preloader.recordChange(TENANT_A);
+
+        Assert.assertTrue(preloader.isChanged(TENANT_A));
+        Assert.assertNull(preloader.getTenantData(TENANT_A).get(10, TimeUnit.SECONDS));
+        Assert.assertNotNull(preloader.getTenantData(TENANT_B).get(10, TimeUnit.SECONDS));
+
+        // A change after the data of a tenant is served is reported to the store which took it.
+        preloader.recordChange(TENANT_B);
+        Assert.assertTrue(preloader.isChanged(TENANT_B));
+    }
+
+    @Test
+    public void testChangesAreNotRecordedWhenPreloadIsNotStarted() {
+
+        SubscriptionDataPreloader preloader = new SubscriptionDataPreloader(TimeUnit.MINUTES.toMillis(10));
+        preloader.recordChange(TENANT_A);
+
+        Assert.assertFalse(preloader.isChanged(TENANT_A));
+    }
+
+    private static Application application(int id, String organization) {
+
+        Application application = new Application();
+        application.setId(id);
+        application.setOrganization(organization);
+        return application;
+    }
+
+    private static ApplicationKeyMapping keyMapping(int applicationId, String consumerKey) {
+
+        ApplicationKeyMapping keyMapping = new ApplicationKeyMapping();
+        keyMapping.setApplicationId(applicationId);
+        keyMapping.setConsumerKey(consumerKey);
+        return keyMapping;
+    }
+
+    private static Subscription subscription(int appId, String subscriptionId) {
+
+        Subscription subscription = new Subscription();
+        subscription.setAppId(appId);
+        subscription.setSubscriptionId(subscriptionId);
+        return subscription;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.keymgt.model.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class PersistentHashMapTest {
+
+    @Test
+    public void testChangesDoNotAffectPreviousMap() {
+
+        PersistentHashMap<String, String> first = PersistentHashMap.<String, String>empty().plus("a", "1");
+        PersistentHashMap<String, String> second = first.plus("b", "2").plus("a", "3");
+        PersistentHashMap<String, String> third = second.minus("a");
+
+        Assert.assertEquals(1, first.size());
+        Assert.assertEquals("1", first.get("a"));
+        Assert.assertNull(first.get("b"));
+        Assert.assertEquals(2, second.size());
+        Assert.assertEquals("3", second.get("a"));
+        Assert.assertEquals(1, third.size());
+        Assert.assertFalse(third.containsKey("a"));
+        Assert.assertSame(third, third.minus("a"));
+    }
+
+    @Test
+    public void testKeysWithSameHash() {
+
+        PersistentHashMap<CollidingKey, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 10; i++) {
+            map = map.plus(new CollidingKey(i % 2, i), i);
+        }
+        Assert.assertEquals(10, map.size());
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(Integer.valueOf(i), map.get(new CollidingKey(i % 2, i)));
+        }
+        for (int i = 0; i < 10; i += 3) {
+            map = map.minus(new CollidingKey(i % 2, i));
+        }
+        Assert.assertEquals(6, map.size());
+        Assert.assertNull(map.get(new CollidingKey(0, 6)));
+        Assert.assertEquals(Integer.valueOf(7), map.get(new CollidingKey(1, 7)));
+    }
+
+    @Test
+    public void testRandomChangesMatchHashMap() {
+
+        Random random = new Random(42);
+        Map<Integer, Integer> expected = new HashMap<>();
+        PersistentHashMap<Integer, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(5000) * (random.nextBoolean() ? 1 : 65536);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.minus(key);
+            } else {
+                expected.put(key, i);
+                map = map.plus(key, i);
+            }
+        }
+        Assert.assertEquals(expected.size(), map.size());
+        Assert.assertEquals(expected, map);
+        Assert.assertEquals(expected, PersistentHashMap.copyOf(expected));
+    }
+
+    private static final class CollidingKey {
+
+        private final int hash;
+        private final int id;
+
+        private CollidingKey(int hash, int id) {
+
+            this.hash = hash;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+
+            return hash;
+        }
+    }
+}
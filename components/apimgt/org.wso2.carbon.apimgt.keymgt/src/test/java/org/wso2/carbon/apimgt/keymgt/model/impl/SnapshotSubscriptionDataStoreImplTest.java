@@ -0,0 +1,155 @@
+/*
+ *  Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.keymgt.model.impl;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.wso2.carbon.apimgt.impl.dto.EventHubConfigurationDto;
+import org.wso2.carbon.apimgt.keymgt.model.SubscriptionDataLoader;
+import org.wso2.carbon.apimgt.keymgt.model.entity.Application;
+import org.wso2.carbon.apimgt.keymgt.model.exception.DataLoadingException;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class SnapshotSubscriptionDataStoreImplTest {
+
+    private static final String TENANT_DOMAIN = "carbon.super";
+
+    private SubscriptionDataLoader subscriptionDataLoader;
+    private SnapshotSubscriptionDataStoreImpl dataStore;
+    private ExecutorService executorService;
+
+    @Before
+    public void setup() {
+
+        subscriptionDataLoader = Mockito.mock(SubscriptionDataLoader.class);
+        dataStore = new SnapshotSubscriptionDataStoreImpl(TENANT_DOMAIN, new EventHubConfigurationDto(),
+                subscriptionDataLoader);
+        executorService = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void tearDown() {
+
+        executorService.shutdownNow();
+        dataStore.destroy();
+    }
+
+    @Test
+    public void testChangeIsPublishedAsNewSnapshot() throws Exception {
+
+        long version = dataStore.getVersion();
+        dataStore.addOrUpdateApplication(application(1, "app1"));
+
+        Assert.assertEquals(version + 1, dataStore.getVersion());
+        Assert.assertEquals("app1", dataStore.getApplicationById(1).getName());
+
+        dataStore.addOrUpdateApplication(application(1, "app1-updated"));
+        dataStore.removeApplication(application(2, "app2"));
+        Assert.assertEquals(version + 3, dataStore.getVersion());
+        Assert.assertEquals("app1-updated", dataStore.getApplicationById(1).getName());
+        Mockito.verify(subscriptionDataLoader, Mockito.never()).getApplicationById(Mockito.anyInt());
+    }
+
+    @Test
+    public void testReloadPublishesLoadedData() throws Exception {
+
+        Mockito.when(subscriptionDataLoader.loadAllApplications(TENANT_DOMAIN)).thenReturn(Arrays.asList(
+                application(1, "app1"), application(2, "app2")));
+        dataStore.addOrUpdateApplication(application(3, "app3"));
+        dataStore.reload();
+
+        Assert.assertEquals("app1", dataStore.getApplicationById(1).getName());
+        Assert.assertEquals("app2", dataStore.getApplicationById(2).getName());
+        // The loaded applications replace the applications known before the reload.
+        Assert.assertTrue(dataStore.getApplicationsByName("app3").isEmpty());
+    }
+
+    @Test
+    public void testLoadFailureKeepsPreviousData() throws Exception {
+
+        Mockito.when(subscriptionDataLoader.loadAllApplications(TENANT_DOMAIN))
+                .thenReturn(Arrays.asList(application(1, "app1")))
+                .thenThrow(new DataLoadingException("Error while loading applications"));
+        dataStore.reload();
+        dataStore.reload();
+
+        Assert.assertEquals("app1", dataStore.getApplicationById(1).getName());
+        Mockito.verify(subscriptionDataLoader, Mockito.never()).getApplicationById(Mockito.anyInt());
+    }
+
+    @Test
+    public void testChangeAppliedDuringReloadIsNotDiscarded() throws Exception {
+
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch changeApplied = new CountDownLatch(1);
+        Mockito.when(subscriptionDataLoader.loadAllApplications(TENANT_DOMAIN)).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            changeApplied.await(10, TimeUnit.SECONDS);
+            return Arrays.asList(application(1, "app1"), application(2, "app2"));
+        });
+        Future<?> reload = executorService.submit(dataStore::reload);
+        Assert.assertTrue(loadStarted.await(10, TimeUnit.SECONDS));
+        dataStore.addOrUpdateApplication(application(2, "app2-updated"));
+        dataStore.addOrUpdateApplication(application(3, "app3"));
+        changeApplied.countDown();
+        reload.get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals("app1", dataStore.getApplicationById(1).getName());
+        Assert.assertEquals("app2-updated", dataStore.getApplicationById(2).getName());
+        Assert.assertEquals("app3", dataStore.getApplicationById(3).getName());
+    }
+
+    @Test
+    public void testConcurrentMissesShareSingleLoad() throws Exception {
+
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch loadReleased = new CountDownLatch(1);
+        Mockito.when(subscriptionDataLoader.getApplicationById(1)).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            loadReleased.await(10, TimeUnit.SECONDS);
+            return application(1, "app1");
+        });
+        Future<Application> first = executorService.submit(() -> dataStore.getApplicationById(1));
+        Assert.assertTrue(loadStarted.await(10, TimeUnit.SECONDS));
+        Future<Application> second = executorService.submit(() -> dataStore.getApplicationById(1));
+        loadReleased.countDown();
+
+        Assert.assertEquals("app1", first.get(10, TimeUnit.SECONDS).getName());
+        Assert.assertEquals("app1", second.get(10, TimeUnit.SECONDS).getName());
+        Assert.assertEquals("app1", dataStore.getApplicationById(1).getName());
+        Mockito.verify(subscriptionDataLoader, Mockito.times(1)).getApplicationById(1);
+    }
+
+    private static Application application(int id, String name) {
+
+        Application application = new Application();
+        application.setId(id);
+        application.setName(name);
+        return application;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.keymgt.model.impl;
+
+import org.apache.http.entity.StringEntity;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.dto.EventHubConfigurationDto;
+import org.wso2.carbon.apimgt.impl.dto.GatewayArtifactSynchronizerProperties;
+import org.wso2.carbon.apimgt.keymgt.model.entity.Application;
+import org.wso2.carbon.apimgt.keymgt.model.entity.ApplicationKeyMapping;
+import org.wso2.carbon.apimgt.keymgt.model.entity.Subscription;
+import org.wso2.carbon.apimgt.keymgt.model.exception.DataLoadingException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SubscriptionDataLoaderImplTest {
+
+    private static final String TENANT_DOMAIN = "carbon.super";
+    private static final String SUBSCRIPTIONS = APIConstants.SubscriptionValidationResources.SUBSCRIPTIONS;
+
+    @Test
+    public void testLoadAllPagesFollowsPagination() throws Exception {
+
+        CannedSubscriptionDataLoader loader = new CannedSubscriptionDataLoader(2);
+        loader.addResponse(SUBSCRIPTIONS + "?limit=2",
+                subscriptionsPage(SUBSCRIPTIONS + "?limit=2&after=2", 1, 2));
+        loader.addResponse(SUBSCRIPTIONS + "?limit=2&after=2",
+                subscriptionsPage(SUBSCRIPTIONS + "?limit=2&after=4", 3, 4));
+        loader.addResponse(SUBSCRIPTIONS + "?limit=2&after=4", subscriptionsPage("", 5));
+
+        List<Subscription> subscriptions = loader.loadAllSubscriptions(TENANT_DOMAIN);
+
+        Assert.assertEquals(Arrays.asList("1", "2", "3", "4", "5"), subscriptionIds(subscriptions));
+        Assert.assertEquals("UNBLOCKED", subscriptions.get(0).getSubscriptionState());
+        Assert.assertEquals(Arrays.asList(SUBSCRIPTIONS + "?limit=2", SUBSCRIPTIONS + "?limit=2&after=2",
+                SUBSCRIPTIONS + "?limit=2&after=4"), loader.requestedPaths);
+    }
+
+    @Test
+    public void testLoadAllPagesWithoutPagination() throws Exception {
+
+        CannedSubscriptionDataLoader loader = new CannedSubscriptionDataLoader(0);
+        // Older servers return every entity in a single response without pagination
+        loader.addResponse(SUBSCRIPTIONS, "{\"count\":3,\"list\":[" + subscription(1) + "," + subscription(2)
+                + "," + subscription(3) + "]}");
+
+        List<Subscription> subscriptions = loader.loadAllSubscriptions(TENANT_DOMAIN);
+
+        Assert.assertEquals(Arrays.asList("1", "2", "3"), subscriptionIds(subscriptions));
+        Assert.assertEquals(Arrays.asList(SUBSCRIPTIONS), loader.requestedPaths);
+    }
+
+    @Test
+    public void testUnknownFieldsAreSkipped() throws Exception {
+
+        CannedSubscriptionDataLoader loader = new CannedSubscriptionDataLoader(10);
+        String applicationsPath = APIConstants.SubscriptionValidationResources.APPLICATIONS + "?limit=10";
+        loader.addResponse(applicationsPath, "{\"count\":1,\"pagination\":{\"limit\":10,\"offset\":0,"
+                + "\"next\":\"\",\"previous\":null},\"list\":[{\"id\":7,\"name\":\"app7\","
+                + "\"attributes\":{\"a\":\"b\"}}],\"extra\":{\"list\":[1]}}");
+
+        List<Application> applications = loader.loadAllApplications(TENANT_DOMAIN);
+
+        Assert.assertEquals(1, applications.size());
+        Assert.assertEquals("app7", applications.get(0).getName());
+        Assert.assertEquals(Arrays.asList(applicationsPath), loader.requestedPaths);
+    }
+
+    @Test
+    public void testEmptyResponse() throws Exception {
+
+        CannedSubscriptionDataLoader loader = new CannedSubscriptionDataLoader(10);
+        loader.addResponse(APIConstants.SubscriptionValidationResources.APPLICATION_KEY_MAPPINGS + "?limit=10", "");
+
+        List<ApplicationKeyMapping> keyMappings = loader.loadAllKeyMappings(TENANT_DOMAIN);
+
+        Assert.assertTrue(keyMappings.isEmpty());
+    }
+
+    @Test
+    public void testPaginationWhichDoesNotAdvanceFails() {
+
+        CannedSubscriptionDataLoader loader = new CannedSubscriptionDataLoader(2);
+        loader.addResponse(SUBSCRIPTIONS + "?limit=2",
+                subscriptionsPage(SUBSCRIPTIONS + "?limit=2&after=2", 1, 2));
+        loader.addResponse(SUBSCRIPTIONS + "?limit=2&after=2",
+                subscriptionsPage(SUBSCRIPTIONS + "?limit=2&after=2", 3, 4));
+
+        try {
+            loader.loadAllSubscriptions(TENANT_DOMAIN);
+            Assert.fail("Pagination which does not advance was not detected");
+        } catch (DataLoadingException e) {
+            Assert.assertTrue(e.getMessage().contains(SUBSCRIPTIONS + "?limit=2&after=2"));
+        }
+        Assert.assertEquals(2, loader.requestedPaths.size());
+    }
+
+    @Test
+    public void testFailureOfLaterPageFailsLoading() {
+
+        CannedSubscriptionDataLoader loader = new CannedSubscriptionDataLoader(2);
+        loader.addResponse(SUBSCRIPTIONS + "?limit=2",
+                subscriptionsPage(SUBSCRIPTIONS + "?limit=2&after=2", 1, 2));
+        loader.addResponse(SUBSCRIPTIONS + "?limit=2&after=2", "{\"list\":[" + subscription(3) + ",");
+
+        try {
+            loader.loadAllSubscriptions(TENANT_DOMAIN);
+            Assert.fail("Truncated page was not detected");
+        } catch (DataLoadingException e) {
+            // A partially loaded resource is never returned
+        }
+
+        CannedSubscriptionDataLoader unavailableLoader = new CannedSubscriptionDataLoader(2);
+        unavailableLoader.addResponse(SUBSCRIPTIONS + "?limit=2",
+                subscriptionsPage(SUBSCRIPTIONS + "?limit=2&after=2", 1, 2));
+        try {
+            unavailableLoader.loadAllSubscriptions(TENANT_DOMAIN);
+            Assert.fail("Unavailable page was not detected");
+        } catch (DataLoadingException e) {
+            Assert.assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    private static String subscriptionsPage(String next, int... ids) {
+
+        StringBuilder page = new StringBuilder("{\"count\":").append(ids.length).append(",\"list\":[");
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) {
+                page.append(',');
+            }
+            page.append(subscription(ids[i]));
+        }
+        return page.append("],\"pagination\":{\"limit\":2,\"next\":\"").append(next).append("\"}}").toString();
+    }
+
+    private static String subscription(int id) {
+
+        return "{\"subscriptionId\":\"" + id + "\",\"policyId\":\"Gold\",\"apiId\":1,\"appId\":" + id
+                + ",\"subscriptionState\":\"UNBLOCKED\"}";
+    }
+
+    private static List<String> subscriptionIds(List<Subscription> subscriptions) {
+
+        List<String> ids = new ArrayList<>();
+        for (Subscription subscription : subscriptions) {
+            ids.add(subscription.getSubscriptionId());
+        }
+        return ids;
+    }
+
+    /**
+     * Loader which serves canned responses instead of invoking the internal data service.
+     */
+    private static class CannedSubscriptionDataLoader extends SubscriptionDataLoaderImpl {
+
+        private final Map<String, String> responses = new HashMap<>();
+        private final List<String> requestedPaths = new ArrayList<>();
+
+        CannedSubscriptionDataLoader(int pageSize) {
+
+            super(eventHubConfiguration(pageSize), new GatewayArtifactSynchronizerProperties());
+        }
+
+        void addResponse(String path, String response) {
+
+            responses.put(path, response);
+        }
+
+        @Override
+        <R> R invokeService(String path, String tenantDomain, String organization, ResponseReader<R> responseReader)
+                throws IOException {
+
+            requestedPaths.add(path);
+            String response = responses.get(path);
+            if (response == null) {
+                throw new IOException("No response for " + path);
+            }
+            return responseReader.read(new StringEntity(response, StandardCharsets.UTF_8));
+        }
+
+        private static EventHubConfigurationDto eventHubConfiguration(int pageSize) {
+
+            EventHubConfigurationDto eventHubConfiguration = new EventHubConfigurationDto();
+            eventHubConfiguration.setDataLoadingPageSize(pageSize);
+            return eventHubConfiguration;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.keymgt.model.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SubscriptionDataStoreImplTest {
+
+    @Test
+    public void testReplaceEntries() {
+
+        Map<String, String> map = new ConcurrentHashMap<>();
+        map.put("a", "1");
+        map.put("b", "2");
+        Map<String, String> entries = new HashMap<>();
+        entries.put("b", "3");
+        entries.put("c", "4");
+
+        SubscriptionDataStoreImpl.replaceEntries(map, entries);
+
+        Assert.assertEquals(entries, map);
+    }
+
+    @Test
+    public void testReplaceEntriesNeverEmptiesMap() throws Exception {
+
+        Map<Integer, Integer> map = new ConcurrentHashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        AtomicBoolean replacing = new AtomicBoolean(true);
+        AtomicInteger emptyReads = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            while (replacing.get()) {
+                if (map.get(500) == null) {
+                    emptyReads.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+        try {
+            for (int round = 0; round < 100; round++) {
+                Map<Integer, Integer> entries = new HashMap<>();
+                for (int i = round; i < round + 1000; i++) {
+                    entries.put(i, round);
+                }
+                SubscriptionDataStoreImpl.replaceEntries(map, entries);
+                Assert.assertEquals(entries, map);
+            }
+        } finally {
+            replacing.set(false);
+            reader.join();
+        }
+        Assert.assertEquals(0, emptyReads.get());
+    }
+}
@@ -21,18 +21,29 @@ import com.google.gson.Gson;
 import org.wso2.carbon.apimgt.api.APIManagementException;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.dao.WebhooksDAO;
+import org.wso2.carbon.apimgt.impl.dto.WebhooksDeliveryStatusDTO;
 import org.wso2.carbon.apimgt.impl.handlers.EventHandler;
 import org.wso2.carbon.apimgt.notification.event.WebhooksDeliveryEvent;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 /**
- * This class implements to handle webhooks delivery status related notification events.
+ * This class implements to handle webhooks delivery status related notification events. An event either carries
+ * the status of a single delivery or a JSON array of the statuses of a batch of deliveries.
  */
 public class WebhooksDeliveryEventHandler implements EventHandler {
     @Override
     public boolean handleEvent(String event, Map<String, List<String>> headers) throws APIManagementException {
+        if (event.trim().startsWith("[")) {
+            WebhooksDeliveryStatusDTO[] deliveryStatuses =
+                    new Gson().fromJson(event, WebhooksDeliveryStatusDTO[].class);
+            if (deliveryStatuses.length > 0) {
+                WebhooksDAO.getInstance().updateDeliveryStatuses(Arrays.asList(deliveryStatuses));
+            }
+            return true;
+        }
         WebhooksDeliveryEvent deliveryEvent = new Gson().fromJson(event, WebhooksDeliveryEvent.class);
         WebhooksDAO.getInstance().updateDeliveryStatus(deliveryEvent.getApiUUID(), deliveryEvent.getAppID(),
                 deliveryEvent.getTenantDomain(), deliveryEvent.getCallback(), deliveryEvent.getTopic(),
@@ -17,6 +17,7 @@
  */
 package org.wso2.carbon.apimgt.throttle.policy.deployer.utils;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.apimgt.api.model.policy.PolicyConstants;
@@ -58,6 +59,7 @@ public class PolicyUtil {
 
     private static final Log log = LogFactory.getLog(PolicyUtil.class);
     private static final String migrationEnabled = System.getProperty(APIConstants.MIGRATE);
+    private static final String MESSAGE_ID_COUNT = "count(messageID)";
 
     /**
      * Deploy the given throttle policy in the Traffic Manager.
@@ -149,7 +151,9 @@ public class PolicyUtil {
     }
 
     /**
-     * Deploy all the throttle policies retrieved from the database in the Traffic Manager.
+     * Deploy all the throttle policies retrieved from the database in the Traffic Manager. Execution plans deployed
+     * from templates of an earlier version, such as request count plans counting message IDs instead of event
+     * weights, are replaced by plans built from the current templates.
      */
     public static void deployAllPolicies() {
         // Undeploy all existing policies
@@ -219,6 +223,11 @@ public class PolicyUtil {
                 }
                 if (!skiped) {
                     eventProcessorService.undeployActiveExecutionPlan(policyPlanName);
+                } else if (StringUtils.contains(eventProcessorService.getActiveExecutionPlan(policyPlanName),
+                        MESSAGE_ID_COUNT)) {
+                    log.warn("Execution plan " + policyPlanName + " is skipped from redeploying, but counts "
+                            + "requests by message ID. Events aggregated by the gateway are counted as a single "
+                            + "request by it. Redeploy it with throttler:eventWeight to count them by weight.");
                 }
             }
         } catch (ExecutionPlanConfigurationException e) {
@@ -40,6 +40,9 @@ import java.util.Map;
 @PrepareForTest({ServiceReferenceHolder.class})
 public class ThrottlingPolicyTemplateBuilderTest {
 
+    private static final String WEIGHTED_REQUEST_COUNT =
+            "sum(throttler:eventWeight(map:get(propertiesMap,'eventCount')))";
+
     private ThrottlePolicyTemplateBuilder templateBuilder;
 
     @Before
@@ -63,9 +66,13 @@ public class ThrottlingPolicyTemplateBuilderTest {
 
         Map<String, String> policyStringArray = templateBuilder.getThrottlePolicyForAPILevel(policy);
         Assert.assertEquals(1, policyStringArray.size());
+        for (String policyString : policyStringArray.values()) {
+            Assert.assertTrue(policyString.contains(WEIGHTED_REQUEST_COUNT));
+        }
 
         String defaultPolicyString = templateBuilder.getThrottlePolicyForAPILevelDefault(policy);
         Assert.assertNotNull(defaultPolicyString);
+        Assert.assertTrue(defaultPolicyString.contains(WEIGHTED_REQUEST_COUNT));
     }
 
     @Test
@@ -80,6 +87,7 @@ public class ThrottlingPolicyTemplateBuilderTest {
         ApplicationPolicy policy = TestUtil.getPolicyAppLevel();
         String policyString = templateBuilder.getThrottlePolicyForAppLevel(policy);
         Assert.assertNotNull(policyString);
+        Assert.assertTrue(policyString.contains(WEIGHTED_REQUEST_COUNT));
     }
 
     @Test
@@ -87,5 +95,6 @@ public class ThrottlingPolicyTemplateBuilderTest {
         SubscriptionPolicy policy = TestUtil.getPolicySubLevel();
         String policyString = templateBuilder.getThrottlePolicyForSubscriptionLevel(policy);
         Assert.assertNotNull(policyString);
+        Assert.assertTrue(policyString.contains(WEIGHTED_REQUEST_COUNT));
     }
 }
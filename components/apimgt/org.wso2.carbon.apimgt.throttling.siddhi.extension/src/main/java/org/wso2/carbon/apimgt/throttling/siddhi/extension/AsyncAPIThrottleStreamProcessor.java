@@ -56,6 +56,7 @@ public class AsyncAPIThrottleStreamProcessor extends StreamProcessor implements
     private long expireEventTime = -1;
     private long startTime = -1;
     private long maxEventCount = -1;
+    private ExpressionExecutor eventWeightExecutor;
     private final Map<String, AtomicLong> throttledStateMap = new HashMap<>();
 
 
@@ -74,7 +75,7 @@ public class AsyncAPIThrottleStreamProcessor extends StreamProcessor implements
                                    ExpressionExecutor[] attributeExpressionExecutors,
                                    ExecutionPlanContext executionPlanContext) {
         this.executionPlanContext = executionPlanContext;
-        if (attributeExpressionExecutors.length == 3) {
+        if (attributeExpressionExecutors.length == 3 || attributeExpressionExecutors.length == 4) {
             if (attributeExpressionExecutors[0] instanceof ConstantExpressionExecutor) {
                 if (attributeExpressionExecutors[0].getReturnType() == Attribute.Type.INT) {
                     timeInMilliSeconds = (Integer) ((ConstantExpressionExecutor) attributeExpressionExecutors[0]).getValue();
@@ -113,9 +114,15 @@ public class AsyncAPIThrottleStreamProcessor extends StreamProcessor implements
                 throw new ExecutionPlanValidationException("Async Throttle batch window 3nd parameter needs to be a " +
                         "Long or Int type but found a " + attributeExpressionExecutors[2].getReturnType());
             }
+
+            if (attributeExpressionExecutors.length == 4) {
+                // Event count of events which stand for several requests, see EventWeightFunctionExecutor
+                eventWeightExecutor = attributeExpressionExecutors[3];
+            }
         } else {
-            throw new ExecutionPlanValidationException("Throttle batch window should have 3 parameters " +
-                    "(<int|long|time> windowTime (and <int|long> startTime) (and <int|long> eventCount), but found "
+            throw new ExecutionPlanValidationException("Throttle batch window should have 3 or 4 parameters " +
+                    "(<int|long|time> windowTime (and <int|long> startTime) (and <int|long> eventCount) " +
+                    "(and optionally <object> eventWeight), but found "
                     + attributeExpressionExecutors.length + " input attributes");
         }
 
@@ -156,16 +163,19 @@ public class AsyncAPIThrottleStreamProcessor extends StreamProcessor implements
                 }
                 if (streamEvent.getOutputData()[0] != null) {
                     throttleKey = streamEvent.getOutputData()[0].toString();
+                    long eventWeight = eventWeightExecutor == null ? 1 :
+                            EventWeightFunctionExecutor.toWeight(eventWeightExecutor.execute(streamEvent));
                     if (throttledStateMap.containsKey(throttleKey)) {
-                        eventCount = throttledStateMap.get(throttleKey).incrementAndGet();
+                        eventCount = throttledStateMap.get(throttleKey).addAndGet(eventWeight);
                         if (eventCount > maxEventCount) {
                             complexEventPopulater.populateComplexEvent(streamEvent, new Object[]{expireEventTime, true});
                         } else {
                             complexEventPopulater.populateComplexEvent(streamEvent, new Object[]{expireEventTime, false});
                         }
                     } else {
-                        throttledStateMap.put(throttleKey, new AtomicLong(1));
-                        complexEventPopulater.populateComplexEvent(streamEvent, new Object[]{expireEventTime, false});
+                        throttledStateMap.put(throttleKey, new AtomicLong(eventWeight));
+                        complexEventPopulater.populateComplexEvent(streamEvent,
+                                new Object[]{expireEventTime, eventWeight > 1 && eventWeight > maxEventCount});
                     }
                 } else {
                     complexEventPopulater.populateComplexEvent(streamEvent, new Object[]{expireEventTime, false});
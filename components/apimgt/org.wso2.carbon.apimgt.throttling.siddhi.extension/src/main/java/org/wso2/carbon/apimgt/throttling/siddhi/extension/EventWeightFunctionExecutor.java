@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.throttling.siddhi.extension;
+
+import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.function.FunctionExecutor;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.exception.ExecutionPlanValidationException;
+
+/**
+ * Returns the number of requests a throttle event stands for. A gateway may aggregate several requests, such as
+ * WebSocket frames, into a single event carrying the number of requests in its 'eventCount' property. Events without
+ * the property stand for a single request.
+ * <p>
+ * Usage: throttler:eventWeight(map:get(propertiesMap, 'eventCount'))
+ */
+public class EventWeightFunctionExecutor extends FunctionExecutor {
+
+    @Override
+    protected void init(ExpressionExecutor[] attributeExpressionExecutors, ExecutionPlanContext executionPlanContext) {
+        if (attributeExpressionExecutors.length != 1) {
+            throw new ExecutionPlanValidationException("Invalid no of arguments passed to the function, "
+                    + "required 1 parameter, but found " + attributeExpressionExecutors.length);
+        }
+    }
+
+    @Override
+    protected Object execute(Object[] data) {
+        return null;
+    }
+
+    @Override
+    protected Object execute(Object data) {
+        return toWeight(data);
+    }
+
+    /**
+     * Converts the event count of a throttle event to its weight.
+     *
+     * @param eventCount event count of the event as a number or a string, or null if the event has no event count
+     * @return weight of the event, which is at least 1
+     */
+    static long toWeight(Object eventCount) {
+        long weight = 1;
+        if (eventCount instanceof Number) {
+            weight = ((Number) eventCount).longValue();
+        } else if (eventCount != null) {
+            try {
+                weight = Long.parseLong(eventCount.toString().trim());
+            } catch (NumberFormatException e) {
+                weight = 1;
+            }
+        }
+        return weight > 0 ? weight : 1;
+    }
+
+    @Override
+    public void start() {
+        //Nothing to start
+    }
+
+    @Override
+    public void stop() {
+        //Nothing to stop
+    }
+
+    @Override
+    public Attribute.Type getReturnType() {
+        return Attribute.Type.LONG;
+    }
+
+    @Override
+    public Object[] currentState() {
+        return null;    //No need to maintain a state.
+    }
+
+    @Override
+    public void restoreState(Object[] state) {
+        //Since there's no need to maintain a state, nothing needs to be done here.
+    }
+}
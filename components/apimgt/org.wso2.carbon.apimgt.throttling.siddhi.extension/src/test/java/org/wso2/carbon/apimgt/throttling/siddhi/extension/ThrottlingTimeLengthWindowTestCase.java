@@ -163,4 +163,62 @@ public class ThrottlingTimeLengthWindowTestCase {
 
     }
 
+    @Test
+    public void throttleTimeLengthWindowWithEventWeightTest() throws InterruptedException {
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String requestStream = "" +
+                "define stream RequestStream (messageID string, isEligible bool, throttleKey string, " +
+                "eventCount string);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from RequestStream#throttler:timeLength(10 sec,0, 5, eventCount) " +
+                "select throttleKey, isThrottled, expiryTimeStamp group by throttleKey " +
+                "insert all events into outputStream ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(requestStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    inEventCount = inEventCount + inEvents.length;
+                    for (Event event : inEvents) {
+                        switch (count.incrementAndGet()) {
+                            case 1:
+                            case 2:
+                            case 4:
+                                Assert.assertEquals(false, event.getData(1));
+                                break;
+                            case 3:
+                            case 5:
+                                Assert.assertEquals(true, event.getData(1));
+                                break;
+                            default:
+                                Assert.fail("Received more than expected number of events. Expected maximum : 5," +
+                                        "Received : " + count.get());
+                        }
+                    }
+                }
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("RequestStream");
+        executionPlanRuntime.start();
+        // An aggregated event stands for the number of frames given in its event count
+        inputHandler.send(new Object[]{"message123", true, "message123:1234", "3"});
+        inputHandler.send(new Object[]{"message123", true, "message123:1234", null});
+        inputHandler.send(new Object[]{"message123", true, "message123:1234", "2"});
+        inputHandler.send(new Object[]{"message456", true, "message456:1234", "5"});
+        inputHandler.send(new Object[]{"message789", true, "message789:1234", "6"});
+        Assert.assertEquals(5, inEventCount);
+        Assert.assertTrue(eventArrived);
+        executionPlanRuntime.shutdown();
+
+    }
+
 }
@@ -2144,6 +2144,16 @@ CREATE TABLE AM_GW_API_DEPLOYMENTS (
 )
 /
 
+-- Status of the artifact builds of API revisions, shared by the publisher nodes --
+CREATE TABLE AM_GW_REVISION_ARTIFACT_BUILD (
+  REVISION_ID VARCHAR(255) NOT NULL,
+  BUILD_ID VARCHAR(255) NOT NULL,
+  STATUS VARCHAR(20) NOT NULL,
+  UPDATED_TIME NUMBER(19) NOT NULL,
+  PRIMARY KEY (REVISION_ID)
+)
+/
+
 -- Tenant Themes Table --
 CREATE TABLE AM_TENANT_THEMES (
   TENANT_ID INTEGER NOT NULL,
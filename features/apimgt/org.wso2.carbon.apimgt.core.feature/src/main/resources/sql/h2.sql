@@ -2109,6 +2109,15 @@ CREATE TABLE IF NOT EXISTS AM_GW_API_DEPLOYMENTS (
   FOREIGN KEY (API_ID) REFERENCES AM_GW_PUBLISHED_API_DETAILS(API_ID) ON UPDATE CASCADE ON DELETE CASCADE
 );
 
+-- Status of the artifact builds of API revisions, shared by the publisher nodes --
+CREATE TABLE IF NOT EXISTS AM_GW_REVISION_ARTIFACT_BUILD (
+  REVISION_ID VARCHAR(255) NOT NULL,
+  BUILD_ID VARCHAR(255) NOT NULL,
+  STATUS VARCHAR(20) NOT NULL,
+  UPDATED_TIME BIGINT NOT NULL,
+  PRIMARY KEY (REVISION_ID)
+);
+
 -- Tenant Themes Table --
 CREATE TABLE IF NOT EXISTS AM_TENANT_THEMES (
   TENANT_ID INTEGER NOT NULL,
@@ -2345,6 +2345,16 @@ CREATE TABLE AM_GW_API_DEPLOYMENTS (
   PRIMARY KEY (REVISION_ID, API_ID,LABEL),
   FOREIGN KEY (API_ID) REFERENCES AM_GW_PUBLISHED_API_DETAILS(API_ID) ON UPDATE CASCADE ON DELETE CASCADE
 ) ;
+
+-- Status of the artifact builds of API revisions, shared by the publisher nodes --
+IF NOT  EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[AM_GW_REVISION_ARTIFACT_BUILD]') AND TYPE IN (N'U'))
+CREATE TABLE AM_GW_REVISION_ARTIFACT_BUILD (
+  REVISION_ID VARCHAR(255) NOT NULL,
+  BUILD_ID VARCHAR(255) NOT NULL,
+  STATUS VARCHAR(20) NOT NULL,
+  UPDATED_TIME BIGINT NOT NULL,
+  PRIMARY KEY (REVISION_ID)
+) ;
 -- Tenant Themes Table --
 IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[AM_TENANT_THEMES]') AND TYPE IN (N'U'))
 CREATE TABLE AM_TENANT_THEMES (
@@ -2437,6 +2437,16 @@ CREATE TABLE IF NOT EXISTS AM_GW_API_DEPLOYMENTS (
   FOREIGN KEY (API_ID) REFERENCES AM_GW_PUBLISHED_API_DETAILS(API_ID) ON UPDATE CASCADE ON DELETE CASCADE
 );
 
+-- Status of the artifact builds of API revisions, shared by the publisher nodes --
+DROP TABLE IF EXISTS AM_GW_REVISION_ARTIFACT_BUILD;
+CREATE TABLE IF NOT EXISTS AM_GW_REVISION_ARTIFACT_BUILD (
+  REVISION_ID VARCHAR(255) NOT NULL,
+  BUILD_ID VARCHAR(255) NOT NULL,
+  STATUS VARCHAR(20) NOT NULL,
+  UPDATED_TIME BIGINT NOT NULL,
+  PRIMARY KEY (REVISION_ID)
+);
+
 CREATE OR REPLACE FUNCTION update_modified_column()
 RETURNS TRIGGER AS $$
 BEGIN